@@ -6,6 +6,7 @@ import com.fbadsautomation.model.FacebookCTA;
 import java.util.List;
 import java.util.Set;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 public interface AIProvider {
     String getName();
@@ -13,9 +14,33 @@ public interface AIProvider {
     String getApiUrl();
     Set<Capability> getCapabilities();
 
+    /**
+     * Whether {@code capability} can be served right now without waiting for a model to load.
+     * Providers without cold starts are always ready.
+     */
+    default boolean isReady(Capability capability) {
+        return true;
+    }
+
     List<AdContent> generateAdContent(String prompt, int numberOfVariations, String language, FacebookCTA callToAction);
     CompletableFuture<List<AdContent>> generateAdContentAsync(String prompt, int numberOfVariations, String language, FacebookCTA callToAction);
 
+    /**
+     * Generate ad content from the provider's token stream, handing each variation to
+     * {@code onVariation} as soon as it is complete. Providers without a streaming API emit the
+     * variations of a regular {@link #generateAdContent} call.
+     *
+     * @return all emitted variations, in emission order
+     */
+    default List<AdContent> generateAdContentStreaming(String prompt, int numberOfVariations, String language,
+                                                       FacebookCTA callToAction, Consumer<AdContent> onVariation) {
+        List<AdContent> contents = generateAdContent(prompt, numberOfVariations, language, callToAction);
+        if (contents != null) {
+            contents.forEach(onVariation);
+        }
+        return contents;
+    }
+
     /**
      * Generate simple text completion without structured output
      * Used for prompt enhancement where we just need improved text, not ad structure
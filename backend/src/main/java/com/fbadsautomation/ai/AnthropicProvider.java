@@ -1,17 +1,22 @@
 package com.fbadsautomation.ai;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fbadsautomation.dto.provider.AnthropicMessageResponse;
+import com.fbadsautomation.dto.provider.AnthropicStreamEvent;
 import com.fbadsautomation.model.AdContent;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
@@ -29,13 +34,15 @@ public class AnthropicProvider implements AIProvider {
     private final RestTemplate restTemplate;
     private final String apiKey;
     private final String apiUrl;
-    private final ObjectMapper objectMapper = new ObjectMapper();
+    private final ObjectMapper objectMapper;
     private volatile boolean providerUnavailable = false;
     public AnthropicProvider(
             RestTemplate restTemplate,
+            ObjectMapper objectMapper,
             @Value("${ai.anthropic.api-key:") String apiKey,
             @Value("${ai.anthropic.api-url:https://api.anthropic.com/v1/messages}") String apiUrl) {
         this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
         this.apiKey = apiKey;
         this.apiUrl = apiUrl;
         log.info("Using Anthropic API URL: {}", this.apiUrl);
@@ -64,12 +71,10 @@ public class AnthropicProvider implements AIProvider {
         requestBody.put("messages", List.of(Map.of("role", "user", "content", prompt))); // Complete CoT prompt - no modifications
         HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
         try {
-            Map<String, Object> response = restTemplate.postForObject(apiUrl, request, Map.class);
-            log.debug("Anthropic API Response: {}", response);
-            if (response != null && response.containsKey("content")) {
-                List<Map<String, Object>> contentList = (List<Map<String, Object>>) response.get("content");
-                if (!contentList.isEmpty() && contentList.get(0).containsKey("text")) {
-                    String contentText = (String) contentList.get(0).get("text");
+            AnthropicMessageResponse response = restTemplate.postForObject(apiUrl, request, AnthropicMessageResponse.class);
+            if (response != null) {
+                String contentText = response.firstText();
+                if (contentText != null) {
                     log.debug("Received content text from Anthropic: {}", contentText);
                     
                     try {
@@ -102,6 +107,84 @@ public class AnthropicProvider implements AIProvider {
         }
     }
 
+    /**
+     * Streams the message and emits each variation as soon as its object closes. Falls back to
+     * {@link #generateAdContent} when the stream fails before any variation was complete.
+     */
+    @Override
+    public List<AdContent> generateAdContentStreaming(String prompt, int numberOfVariations, String language,
+                                                      com.fbadsautomation.model.FacebookCTA callToAction,
+                                                      Consumer<AdContent> onVariation) {
+        if (!isProviderAvailable()) {
+            log.warn("Anthropic provider unavailable (missing API key or disabled).");
+            throw new IllegalStateException("Anthropic provider unavailable");
+        }
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.TEXT_EVENT_STREAM));
+        headers.set("x-api-key", apiKey);
+        headers.set("anthropic-version", "2023-06-01");
+
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", "claude-3-sonnet-20240229");
+        requestBody.put("max_tokens", 4000);
+        requestBody.put("stream", true);
+        requestBody.put("messages", List.of(Map.of("role", "user", "content", prompt)));
+        HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
+
+        List<AdContent> adContents = new ArrayList<>();
+        StreamingAdContentParser parser = new StreamingAdContentParser(adContent -> {
+            if (adContents.size() >= numberOfVariations) {
+                return;
+            }
+            adContent.setAiProvider(AdContent.AIProvider.ANTHROPIC);
+            adContent.setIsSelected(false);
+            adContent.setCallToAction(callToAction);
+            adContent.setCta(callToAction);
+            adContents.add(adContent);
+            onVariation.accept(adContent);
+        });
+        try {
+            restTemplate.execute(apiUrl, HttpMethod.POST, restTemplate.httpEntityCallback(request), response -> {
+                ServerSentEvents.read(response.getBody(), data -> {
+                    AnthropicStreamEvent event = readEvent(data);
+                    if ("content_block_delta".equals(event.getType()) && event.getDelta() != null) {
+                        parser.feed(event.getDelta().getText());
+                    } else if ("error".equals(event.getType())) {
+                        throw new IllegalStateException("Anthropic stream error: "
+                            + (event.getError() != null ? event.getError().getMessage() : "unknown"));
+                    }
+                });
+                return null;
+            });
+            parser.finish();
+        } catch (HttpClientErrorException e) {
+            handleAnthropicError(e);
+            throw new IllegalStateException("Anthropic API error: " + e.getStatusCode(), e);
+        } catch (Exception e) {
+            if (adContents.isEmpty()) {
+                log.warn("Anthropic stream failed before any variation, retrying without streaming: {}", e.getMessage());
+                return AIProvider.super.generateAdContentStreaming(prompt, numberOfVariations, language, callToAction, onVariation);
+            }
+            log.error("Anthropic stream broke off after {} variations: {}", adContents.size(), e.getMessage(), e);
+        }
+
+        if (adContents.isEmpty()) {
+            throw new IllegalStateException("Failed to parse valid ad content from Anthropic stream");
+        }
+        log.info("Streamed {} ad contents from Anthropic.", adContents.size());
+        return adContents;
+    }
+
+    private AnthropicStreamEvent readEvent(String data) {
+        try {
+            return objectMapper.readValue(data, AnthropicStreamEvent.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Malformed Anthropic stream event", e);
+        }
+    }
+
     /**
      * Generate simple text completion for prompt enhancement
      * Returns plain text without structured JSON parsing
@@ -138,15 +221,12 @@ public class AnthropicProvider implements AIProvider {
 
             log.debug("Calling Anthropic Text Completion API for prompt enhancement");
 
-            Map<String, Object> response = restTemplate.postForObject(apiUrl, request, Map.class);
+            AnthropicMessageResponse response = restTemplate.postForObject(apiUrl, request, AnthropicMessageResponse.class);
 
-            if (response != null && response.containsKey("content")) {
-                List<Map<String, Object>> contentList = (List<Map<String, Object>>) response.get("content");
-                if (!contentList.isEmpty() && contentList.get(0).containsKey("text")) {
-                    String text = (String) contentList.get(0).get("text");
-                    log.info("Anthropic text completion successful, length: {}", text != null ? text.length() : 0);
-                    return text != null ? text.trim() : null;
-                }
+            String text = response != null ? response.firstText() : null;
+            if (text != null) {
+                log.info("Anthropic text completion successful, length: {}", text.length());
+                return text.trim();
             }
 
             log.warn("Anthropic text completion returned empty response");
@@ -216,7 +296,7 @@ public class AnthropicProvider implements AIProvider {
     }
 
     private void handleAnthropicError(HttpClientErrorException e) {
-        log.error("Anthropic API returned {}: {}", e.getStatusCode(), e.getResponseBodyAsString());
+        log.error("Anthropic API returned {}: {}", e.getStatusCode(), ProviderErrors.body(e));
         if (e.getStatusCode() == HttpStatus.PAYMENT_REQUIRED ||
             e.getStatusCode() == HttpStatus.FORBIDDEN ||
             e.getStatusCode() == HttpStatus.TOO_MANY_REQUESTS ||
@@ -1,7 +1,7 @@
 package com.fbadsautomation.ai;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fbadsautomation.dto.provider.FalImageResponse;
 import com.fbadsautomation.model.AdContent;
 import com.fbadsautomation.model.Capability;
 import com.fbadsautomation.model.FacebookCTA;
@@ -42,7 +42,6 @@ public class FalAiProvider implements AIProvider {
     private final RestTemplate restTemplate;
     private final String apiKey;
     private final String apiUrl;
-    private final ObjectMapper objectMapper = new ObjectMapper();
     @Value("${app.image.storage.location}")
     private String imageStorageLocation;
     private volatile boolean accountLocked = false;
@@ -109,11 +108,10 @@ public class FalAiProvider implements AIProvider {
         log.debug("Calling Fal.ai API at: {} with standardized prompt: {}", apiUrl, prompt);
 
         try {
-            Map<String, Object> response = restTemplate.postForObject(apiUrl, request, Map.class);
-            if (response != null && response.containsKey("images")) {
-                List<Map<String, Object>> images = (List<Map<String, Object>>) response.get("images");
-                if (!images.isEmpty() && images.get(0).containsKey("url")) {
-                    String imageUrl = (String) images.get(0).get("url");
+            FalImageResponse response = restTemplate.postForObject(apiUrl, request, FalImageResponse.class);
+            if (response != null && response.getImages() != null) {
+                String imageUrl = response.firstImageUrl();
+                if (imageUrl != null) {
                     log.info("Successfully received image URL from Fal.ai: {}", imageUrl);
                     try (InputStream in = new URL(imageUrl).openStream()) {
                         String filename = UUID.randomUUID().toString() + ".png";
@@ -132,12 +130,11 @@ public class FalAiProvider implements AIProvider {
                     }
                 }
             } else {
-                log.error("Fal.ai API call failed with response: {}", response);
+                log.error("Fal.ai API call returned no images");
             }
         } catch (org.springframework.web.client.HttpClientErrorException e) {
             if (e.getStatusCode() == org.springframework.http.HttpStatus.FORBIDDEN &&
-                e.getResponseBodyAsString() != null &&
-                e.getResponseBodyAsString().contains("User is locked")) {
+                ProviderErrors.bodyContains(e, "User is locked")) {
                 accountLocked = true;
                 log.error("Fal.ai account locked (likely exhausted balance). Provider will be disabled until balance is restored.");
             }
@@ -195,10 +192,9 @@ public class FalAiProvider implements AIProvider {
         log.debug("Calling Fal.ai enhancement API at: {} with type: {}", endpoint, enhancementType);
 
         try {
-            Map<String, Object> response = restTemplate.postForObject(endpoint, request, Map.class);
-            if (response != null && response.containsKey("image")) {
-                Map<String, Object> imageData = (Map<String, Object>) response.get("image");
-                String enhancedUrl = (String) imageData.get("url");
+            FalImageResponse response = restTemplate.postForObject(endpoint, request, FalImageResponse.class);
+            if (response != null && response.getImage() != null) {
+                String enhancedUrl = response.getImage().getUrl();
                 // Save to local storage similar to generateImage
                 try (InputStream in = new URL(enhancedUrl).openStream()) {
                     String filename = UUID.randomUUID().toString() + ".png";
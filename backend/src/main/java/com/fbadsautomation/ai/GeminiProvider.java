@@ -1,7 +1,10 @@
 package com.fbadsautomation.ai;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.core.type.TypeReference;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fbadsautomation.dto.provider.GeminiGenerateResponse;
+import com.fbadsautomation.dto.provider.GeminiPredictResponse;
 import com.fbadsautomation.model.AdContent;
 import com.fbadsautomation.service.MinIOStorageService;
 import com.fbadsautomation.util.ByteArrayMultipartFile;
@@ -10,17 +13,18 @@ import java.nio.file.Files;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.ArrayList;
-import java.util.Base64;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
@@ -34,8 +38,9 @@ public class GeminiProvider implements AIProvider {
     private final RestTemplate restTemplate;
     private final String apiKey;
     private final String apiUrl;
+    private final String streamApiUrl;
     private final String imageApiUrl;
-    private final ObjectMapper objectMapper = new ObjectMapper(); // For parsing JSON
+    private final ObjectMapper objectMapper;
 
     @Autowired(required = false)
     private MinIOStorageService minIOStorageService;
@@ -45,12 +50,15 @@ public class GeminiProvider implements AIProvider {
 
     public GeminiProvider(
             RestTemplate restTemplate,
+            ObjectMapper objectMapper,
             @Value("${ai.gemini.api-key}") String apiKey,
             @Value("${ai.gemini.api-url:https://generativelanguage.googleapis.com/v1/models}") String baseUrl,
             @Value("${ai.gemini.image-api-url:https://generativelanguage.googleapis.com/v1beta/models/imagen-4.0-generate-001:predict}") String imageApiUrl) {
         this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
         this.apiKey = apiKey;
         this.apiUrl = baseUrl + "/gemini-1.5-flash:generateContent";
+        this.streamApiUrl = baseUrl + "/gemini-1.5-flash:streamGenerateContent";
         this.imageApiUrl = imageApiUrl;
         log.info("Using Gemini Text API URL: {}", this.apiUrl);
         log.info("Using Gemini Image API URL: {}", this.imageApiUrl);
@@ -87,38 +95,28 @@ public class GeminiProvider implements AIProvider {
         requestBody.put("generationConfig", generationConfig);
         HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
         try {
-            Map<String, Object> response = restTemplate.postForObject(fullUrl, request, Map.class);
-            log.debug("Gemini API Response: {}", response);
-            if (response != null && response.containsKey("candidates")) {
-                List<Map<String, Object>> candidates = (List<Map<String, Object>>) response.get("candidates");
-                if (!candidates.isEmpty() && candidates.get(0).containsKey("content")) {
-                    Map<String, Object> responseContent = (Map<String, Object>) candidates.get(0).get("content");
-                    if (responseContent.containsKey("parts")) {
-                        List<Map<String, Object>> parts = (List<Map<String, Object>>) responseContent.get("parts");
-                        if (!parts.isEmpty() && parts.get(0).containsKey("text")) {
-                            String contentText = (String) parts.get(0).get("text");
-                            log.debug("Received content text from Gemini: {}", contentText);
-                            // Attempt to parse the JSON content directly into List<AdContent>
-                            try {
-                                List<AdContent> parsedContents = objectMapper.readValue(contentText, new TypeReference<List<AdContent>>() {});
-                                for (AdContent adContent : parsedContents) {
-                                    adContent.setAiProvider(AdContent.AIProvider.GEMINI);
-                                    adContent.setIsSelected(false); // Default value
-                                    adContent.setCallToAction(callToAction);
-                                    adContent.setCta(callToAction);
-                                    adContents.add(adContent);
-                                    if (adContents.size() >= numberOfVariations) break; // Stop if enough variations are parsed
-                                }
-                                log.info("Successfully parsed {} ad contents from Gemini.", adContents.size());
-                            } catch (Exception e) {
-                                log.error("Failed to parse JSON response from Gemini: {}", contentText, e);
-                            }
-                        }
+            GeminiGenerateResponse response = restTemplate.postForObject(fullUrl, request, GeminiGenerateResponse.class);
+            String contentText = response != null ? response.firstText() : null;
+            if (contentText != null) {
+                log.debug("Received content text from Gemini: {}", contentText);
+                // Attempt to parse the JSON content directly into List<AdContent>
+                try {
+                    List<AdContent> parsedContents = objectMapper.readValue(contentText, new TypeReference<List<AdContent>>() {});
+                    for (AdContent adContent : parsedContents) {
+                        adContent.setAiProvider(AdContent.AIProvider.GEMINI);
+                        adContent.setIsSelected(false); // Default value
+                        adContent.setCallToAction(callToAction);
+                        adContent.setCta(callToAction);
+                        adContents.add(adContent);
+                        if (adContents.size() >= numberOfVariations) break; // Stop if enough variations are parsed
                     }
+                    log.info("Successfully parsed {} ad contents from Gemini.", adContents.size());
+                } catch (Exception e) {
+                    log.error("Failed to parse JSON response from Gemini: {}", contentText, e);
                 }
             }
             if (adContents.isEmpty()) {
-                 log.warn("Failed to parse valid ad content from Gemini response. Response: {}", response);
+                 log.warn("Failed to parse valid ad content from Gemini response. Text: {}", contentText);
             }
         } catch (Exception e) {
             log.error("Error calling Gemini API: {}", e.getMessage(), e);
@@ -131,6 +129,72 @@ public class GeminiProvider implements AIProvider {
         return adContents;
     }
 
+    /**
+     * Streams the candidate and emits each variation as soon as its object closes; the array Gemini
+     * returns is usually complete well before the last variation is written. Falls back to
+     * {@link #generateAdContent} when the stream fails before any variation was complete.
+     */
+    @Override
+    public List<AdContent> generateAdContentStreaming(String prompt, int numberOfVariations, String language,
+                                                      com.fbadsautomation.model.FacebookCTA callToAction,
+                                                      Consumer<AdContent> onVariation) {
+        if (apiKey == null || apiKey.isEmpty()) {
+            return AIProvider.super.generateAdContentStreaming(prompt, numberOfVariations, language, callToAction, onVariation);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setAccept(List.of(MediaType.TEXT_EVENT_STREAM));
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("contents", List.of(Map.of("role", "user", "parts", List.of(Map.of("text", prompt)))));
+        requestBody.put("generationConfig", Map.of("candidateCount", 1));
+        HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
+
+        List<AdContent> adContents = new ArrayList<>();
+        StreamingAdContentParser parser = new StreamingAdContentParser(adContent -> {
+            if (adContents.size() >= numberOfVariations) {
+                return;
+            }
+            adContent.setAiProvider(AdContent.AIProvider.GEMINI);
+            adContent.setIsSelected(false);
+            adContent.setCallToAction(callToAction);
+            adContent.setCta(callToAction);
+            adContents.add(adContent);
+            onVariation.accept(adContent);
+        });
+        try {
+            restTemplate.execute(streamApiUrl + "?alt=sse&key=" + apiKey, HttpMethod.POST,
+                restTemplate.httpEntityCallback(request), response -> {
+                    ServerSentEvents.read(response.getBody(), data -> {
+                        try {
+                            GeminiGenerateResponse chunk = objectMapper.readValue(data, GeminiGenerateResponse.class);
+                            for (GeminiGenerateResponse.Part part : chunk.firstCandidateParts()) {
+                                parser.feed(part.getText());
+                            }
+                        } catch (JsonProcessingException e) {
+                            throw new IllegalStateException("Malformed Gemini stream chunk", e);
+                        }
+                    });
+                    return null;
+                });
+            parser.finish();
+        } catch (Exception e) {
+            if (adContents.isEmpty()) {
+                log.warn("Gemini stream failed before any variation, retrying without streaming: {}", e.getMessage());
+                return AIProvider.super.generateAdContentStreaming(prompt, numberOfVariations, language, callToAction, onVariation);
+            }
+            log.error("Gemini stream broke off after {} variations: {}", adContents.size(), e.getMessage(), e);
+        }
+        // Same contract as the blocking call: shortfalls are filled with mock data
+        while (adContents.size() < numberOfVariations) {
+            log.warn("Streamed only {} valid ad contents from Gemini, filling remaining {} with mock data.",
+                adContents.size(), numberOfVariations - adContents.size());
+            AdContent mock = generateMockAdContents(prompt, 1, callToAction).get(0);
+            adContents.add(mock);
+            onVariation.accept(mock);
+        }
+        return adContents;
+    }
+
     /**
      * Generate simple text completion for prompt enhancement
      * Returns plain text without structured JSON parsing
@@ -176,20 +240,12 @@ public class GeminiProvider implements AIProvider {
 
             log.debug("Calling Gemini Text Completion API for prompt enhancement");
 
-            Map<String, Object> response = restTemplate.postForObject(fullUrl, request, Map.class);
-
-            if (response != null && response.containsKey("candidates")) {
-                List<Map<String, Object>> candidates = (List<Map<String, Object>>) response.get("candidates");
-                if (!candidates.isEmpty() && candidates.get(0).containsKey("content")) {
-                    Map<String, Object> contentResponse = (Map<String, Object>) candidates.get(0).get("content");
-                    List<Map<String, Object>> parts = (List<Map<String, Object>>) contentResponse.get("parts");
+            GeminiGenerateResponse response = restTemplate.postForObject(fullUrl, request, GeminiGenerateResponse.class);
 
-                    if (!parts.isEmpty() && parts.get(0).containsKey("text")) {
-                        String text = (String) parts.get(0).get("text");
-                        log.info("Gemini text completion successful, length: {}", text != null ? text.length() : 0);
-                        return text != null ? text.trim() : null;
-                    }
-                }
+            String text = response != null ? response.firstText() : null;
+            if (text != null) {
+                log.info("Gemini text completion successful, length: {}", text.length());
+                return text.trim();
             }
 
             log.warn("Gemini text completion returned empty response");
@@ -238,17 +294,18 @@ public class GeminiProvider implements AIProvider {
             log.debug("Calling Gemini Imagen API at: {}", imageApiUrl);
 
             // Step 3: Call API
-            Map<String, Object> response = restTemplate.postForObject(fullUrl, request, Map.class);
+            // Base64 image fields are decoded to bytes while the response is read
+            GeminiPredictResponse response = restTemplate.postForObject(fullUrl, request, GeminiPredictResponse.class);
 
             if (response != null) {
                 log.debug("Gemini Imagen response received");
 
-                // Step 4: Parse response and extract base64 image
-                String base64Image = extractBase64ImageFromResponse(response);
+                // Step 4: Extract the image
+                byte[] imageBytes = response.firstImage();
 
-                if (base64Image != null && !base64Image.isEmpty()) {
+                if (imageBytes != null && imageBytes.length > 0) {
                     // Step 5: Save image to storage
-                    String savedImageUrl = saveBase64ImageToStorage(base64Image);
+                    String savedImageUrl = saveImageToStorage(imageBytes);
                     log.info("Image generated successfully and saved to: {}", savedImageUrl);
                     return savedImageUrl;
                 } else {
@@ -263,7 +320,7 @@ public class GeminiProvider implements AIProvider {
         } catch (org.springframework.web.client.HttpClientErrorException e) {
             // Check for specific billing error
             if (e.getStatusCode().value() == 400 &&
-                e.getResponseBodyAsString().contains("billed users")) {
+                ProviderErrors.bodyContains(e, "billed users")) {
                 log.error("Gemini Imagen requires billing - triggering fallback to next provider");
                 throw new RuntimeException("Gemini Imagen API requires billing account", e);
             }
@@ -276,65 +333,10 @@ public class GeminiProvider implements AIProvider {
     }
 
     /**
-     * Extract base64 encoded image from Gemini Imagen API response
-     * Supports multiple response structure variations from Google's API
+     * Save image bytes to MinIO storage or local filesystem
      */
-    private String extractBase64ImageFromResponse(Map<String, Object> response) {
+    private String saveImageToStorage(byte[] imageBytes) {
         try {
-            if (response.containsKey("predictions")) {
-                List<Map<String, Object>> predictions = (List<Map<String, Object>>) response.get("predictions");
-                if (!predictions.isEmpty()) {
-                    Map<String, Object> prediction = predictions.get(0);
-
-                    // Try structure 1: predictions[0].bytesBase64Encoded (current API format)
-                    if (prediction.containsKey("bytesBase64Encoded")) {
-                        log.debug("Found image in bytesBase64Encoded structure");
-                        return (String) prediction.get("bytesBase64Encoded");
-                    }
-
-                    // Try structure 2: predictions[0].candidates[0].content
-                    if (prediction.containsKey("candidates")) {
-                        List<Map<String, Object>> candidates = (List<Map<String, Object>>) prediction.get("candidates");
-                        if (!candidates.isEmpty()) {
-                            Map<String, Object> candidateData = candidates.get(0);
-                            if (candidateData.containsKey("content")) {
-                                String mimeType = (String) candidateData.get("mimeType");
-                                log.debug("Found image in candidates structure, mimeType: {}", mimeType);
-                                return (String) candidateData.get("content");
-                            }
-                        }
-                    }
-
-                    // Try structure 3: predictions[0].generatedImages[0].imageBytes (legacy)
-                    if (prediction.containsKey("generatedImages")) {
-                        List<Map<String, Object>> generatedImages = (List<Map<String, Object>>) prediction.get("generatedImages");
-                        if (!generatedImages.isEmpty()) {
-                            Map<String, Object> imageData = generatedImages.get(0);
-                            if (imageData.containsKey("imageBytes")) {
-                                log.debug("Found image in generatedImages structure (legacy)");
-                                return (String) imageData.get("imageBytes");
-                            }
-                        }
-                    }
-                }
-            }
-
-            log.warn("Could not find image data in response structure: {}", response);
-        } catch (Exception e) {
-            log.error("Error extracting base64 image from response", e);
-        }
-
-        return null;
-    }
-
-    /**
-     * Save base64 encoded image to MinIO storage or local filesystem
-     */
-    private String saveBase64ImageToStorage(String base64Image) {
-        try {
-            // Decode base64 to byte array
-            byte[] imageBytes = Base64.getDecoder().decode(base64Image);
-
             // Generate unique filename
             String filename = UUID.randomUUID().toString() + ".png";
 
@@ -372,7 +374,7 @@ public class GeminiProvider implements AIProvider {
             return localUrl;
 
         } catch (Exception e) {
-            log.error("Error saving base64 image to storage", e);
+            log.error("Error saving image to storage", e);
             return "/img/placeholder.png";
         }
     }
@@ -0,0 +1,285 @@
+package com.fbadsautomation.ai;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongSupplier;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientResponseException;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Tracks whether the Hugging Face inference models behind {@link HuggingFaceProvider} and
+ * {@link StableDiffusionProvider} are loaded. Providers call the models without waiting for them to
+ * load, so a cold model answers 503 with an estimated load time instead of holding the request
+ * thread; that answer marks the model as loading and routing skips it until the estimate has passed.
+ * A background probe polls cold and unknown models until they answer, and optionally pings models
+ * in active use so the inference API does not unload them. The probe runs on its own single-thread
+ * scheduler, as scheduling is not enabled application-wide.
+ */
+@Service
+public class HuggingFaceModelAvailability {
+
+    private static final Logger log = LoggerFactory.getLogger(HuggingFaceModelAvailability.class);
+    private static final Pattern ESTIMATED_TIME = Pattern.compile("\"estimated_time\"\\s*:\\s*([0-9.]+)");
+    /** Assumed load time when a loading response carries no estimate. */
+    private static final long DEFAULT_LOAD_MILLIS = 30_000;
+
+    // Cheapest requests the text and image models accept: one token, one small low-step image
+    static final Map<String, Object> TEXT_PROBE = Map.of(
+        "inputs", "ping", "parameters", Map.of("max_new_tokens", 1));
+    static final Map<String, Object> IMAGE_PROBE = Map.of(
+        "inputs", "ping", "parameters", Map.of("num_inference_steps", 1, "width", 256, "height", 256));
+
+    public enum State { UNKNOWN, LOADING, WARM }
+
+    private final RestTemplate restTemplate;
+    private final String apiKey;
+    private final boolean keepAlive;
+    private final Duration keepAliveInterval;
+    private final Duration activeWindow;
+    private final long probeIntervalMs;
+    private final long initialDelayMs;
+    private final LongSupplier clock;
+    private final Map<String, ModelStatus> models = new ConcurrentHashMap<>();
+    private ScheduledExecutorService probeScheduler;
+
+    @Autowired
+    public HuggingFaceModelAvailability(RestTemplate restTemplate,
+                                        @Value("${ai.huggingface.api-key:}") String apiKey,
+                                        @Value("${ai.huggingface.warmup.keep-alive:false}") boolean keepAlive,
+                                        @Value("${ai.huggingface.warmup.keep-alive-interval:PT10M}") Duration keepAliveInterval,
+                                        @Value("${ai.huggingface.warmup.active-window:PT30M}") Duration activeWindow,
+                                        @Value("${ai.huggingface.warmup.probe-interval-ms:60000}") long probeIntervalMs,
+                                        @Value("${ai.huggingface.warmup.initial-delay-ms:15000}") long initialDelayMs) {
+        this(restTemplate, apiKey, keepAlive, keepAliveInterval, activeWindow, probeIntervalMs, initialDelayMs,
+            System::currentTimeMillis);
+    }
+
+    HuggingFaceModelAvailability(RestTemplate restTemplate, String apiKey, boolean keepAlive,
+                                 Duration keepAliveInterval, Duration activeWindow, long probeIntervalMs,
+                                 long initialDelayMs, LongSupplier clock) {
+        this.restTemplate = restTemplate;
+        this.apiKey = apiKey;
+        this.keepAlive = keepAlive;
+        this.keepAliveInterval = keepAliveInterval;
+        this.activeWindow = activeWindow;
+        this.probeIntervalMs = probeIntervalMs;
+        this.initialDelayMs = initialDelayMs;
+        this.clock = clock;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (apiKey == null || apiKey.isEmpty()) {
+            return;
+        }
+        probeScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "hf-model-probe");
+            thread.setDaemon(true);
+            return thread;
+        });
+        probeScheduler.scheduleWithFixedDelay(() -> {
+            try {
+                probeModels();
+            } catch (RuntimeException e) {
+                // An escaped exception would cancel every later run
+                log.warn("Hugging Face model probe failed: {}", e.getMessage());
+            }
+        }, initialDelayMs, probeIntervalMs, TimeUnit.MILLISECONDS);
+    }
+
+    @PreDestroy
+    public void stop() {
+        if (probeScheduler != null) {
+            probeScheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * Adds a model endpoint to watch. {@code probeBody} is sent with {@code wait_for_model} off, so
+     * probing a cold model only starts its load.
+     */
+    void register(String modelUrl, Map<String, Object> probeBody) {
+        if (modelUrl == null || modelUrl.isEmpty()) {
+            return;
+        }
+        Map<String, Object> body = new HashMap<>(probeBody);
+        body.put("options", Map.of("wait_for_model", false));
+        models.computeIfAbsent(modelUrl, url -> new ModelStatus(url, body));
+    }
+
+    /**
+     * Whether a call to {@code modelUrl} can be served without waiting for the model to load. Once
+     * the estimated load time has passed the model is given another try, so a load that finished
+     * early between probes is not skipped for a whole probe interval.
+     */
+    public boolean isReady(String modelUrl) {
+        ModelStatus status = models.get(modelUrl);
+        return status == null || status.state != State.LOADING || clock.getAsLong() >= status.readyAt;
+    }
+
+    /**
+     * Estimated milliseconds until {@code modelUrl} is loaded, 0 when it is ready.
+     */
+    public long millisUntilReady(String modelUrl) {
+        ModelStatus status = models.get(modelUrl);
+        return status == null || status.state != State.LOADING ? 0 : Math.max(0, status.readyAt - clock.getAsLong());
+    }
+
+    public void recordSuccess(String modelUrl) {
+        ModelStatus status = models.get(modelUrl);
+        if (status != null) {
+            long now = clock.getAsLong();
+            status.lastUsedAt = now;
+            status.markWarm(now);
+        }
+    }
+
+    /**
+     * Records a failed call. Returns true when the failure was the model still loading, in which
+     * case the model is marked as loading until its estimated load time.
+     */
+    public boolean recordFailure(String modelUrl, RestClientResponseException e) {
+        ModelStatus status = models.get(modelUrl);
+        if (status == null || !isLoadingResponse(e)) {
+            return false;
+        }
+        status.lastUsedAt = clock.getAsLong();
+        status.markLoading(clock.getAsLong(), estimatedLoadMillis(e));
+        log.warn("Hugging Face model {} is loading, ready in about {}s", modelUrl, millisUntilReady(modelUrl) / 1000);
+        return true;
+    }
+
+    /**
+     * Probes models of unknown state, loading models whose estimated load time has passed and, with
+     * keep-alive on, warm models that were used recently but not checked within the keep-alive
+     * interval.
+     */
+    public void probeModels() {
+        if (apiKey == null || apiKey.isEmpty()) {
+            return;
+        }
+        long now = clock.getAsLong();
+        for (ModelStatus status : models.values()) {
+            boolean due = switch (status.state) {
+                case UNKNOWN -> true;
+                case LOADING -> now >= status.readyAt;
+                case WARM -> needsKeepAlive(status, now);
+            };
+            if (due) {
+                probe(status);
+            }
+        }
+    }
+
+    /**
+     * Current state of every watched model, for monitoring.
+     */
+    public List<Map<String, Object>> snapshot() {
+        List<Map<String, Object>> snapshot = new ArrayList<>();
+        for (ModelStatus status : models.values()) {
+            snapshot.add(Map.of(
+                "modelUrl", status.url,
+                "state", status.state.name(),
+                "millisUntilReady", millisUntilReady(status.url),
+                "lastCheckedAt", status.lastCheckedAt));
+        }
+        return Collections.unmodifiableList(snapshot);
+    }
+
+    private boolean needsKeepAlive(ModelStatus status, long now) {
+        return keepAlive
+            && now - status.lastUsedAt <= activeWindow.toMillis()
+            && now - status.lastCheckedAt >= keepAliveInterval.toMillis();
+    }
+
+    private void probe(ModelStatus status) {
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setBearerAuth(apiKey);
+        try {
+            restTemplate.exchange(status.url, HttpMethod.POST, new HttpEntity<>(status.probeBody, headers), byte[].class);
+            if (status.state != State.WARM) {
+                log.info("Hugging Face model {} is warm", status.url);
+            }
+            status.markWarm(clock.getAsLong());
+        } catch (RestClientResponseException e) {
+            if (isLoadingResponse(e)) {
+                status.markLoading(clock.getAsLong(), estimatedLoadMillis(e));
+                log.info("Hugging Face model {} is loading, ready in about {}s", status.url,
+                    millisUntilReady(status.url) / 1000);
+            } else {
+                status.lastCheckedAt = clock.getAsLong();
+                log.warn("Probe of Hugging Face model {} failed: {} {}", status.url, e.getRawStatusCode(),
+                    ProviderErrors.body(e));
+            }
+        } catch (Exception e) {
+            status.lastCheckedAt = clock.getAsLong();
+            log.warn("Probe of Hugging Face model {} failed: {}", status.url, e.getMessage());
+        }
+    }
+
+    private static boolean isLoadingResponse(RestClientResponseException e) {
+        return e.getRawStatusCode() == HttpStatus.SERVICE_UNAVAILABLE.value()
+            && ProviderErrors.bodyContains(e, "loading");
+    }
+
+    private static long estimatedLoadMillis(RestClientResponseException e) {
+        Matcher matcher = ESTIMATED_TIME.matcher(e.getResponseBodyAsString());
+        if (matcher.find()) {
+            try {
+                return (long) (Double.parseDouble(matcher.group(1)) * 1000);
+            } catch (NumberFormatException ignored) {
+                // fall through to the default estimate
+            }
+        }
+        return DEFAULT_LOAD_MILLIS;
+    }
+
+    private static final class ModelStatus {
+        private final String url;
+        private final Map<String, Object> probeBody;
+        private volatile State state = State.UNKNOWN;
+        private volatile long readyAt;
+        private volatile long lastCheckedAt;
+        private volatile long lastUsedAt;
+
+        ModelStatus(String url, Map<String, Object> probeBody) {
+            this.url = url;
+            this.probeBody = probeBody;
+        }
+
+        void markWarm(long now) {
+            state = State.WARM;
+            readyAt = now;
+            lastCheckedAt = now;
+        }
+
+        void markLoading(long now, long loadMillis) {
+            readyAt = now + loadMillis;
+            state = State.LOADING;
+            lastCheckedAt = now;
+        }
+    }
+}
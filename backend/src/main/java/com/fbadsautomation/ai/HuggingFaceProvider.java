@@ -1,7 +1,7 @@
 package com.fbadsautomation.ai;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fbadsautomation.dto.provider.HuggingFaceGeneration;
 import com.fbadsautomation.model.AdContent;
 import com.fbadsautomation.model.Capability;
 import com.fbadsautomation.model.FacebookCTA;
@@ -23,7 +23,6 @@ import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.ParameterizedTypeReference;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -31,6 +30,7 @@ import org.springframework.http.HttpStatus;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.scheduling.annotation.Async;
 import java.util.concurrent.CompletableFuture;
@@ -43,8 +43,8 @@ public class HuggingFaceProvider implements AIProvider {
     private final String apiKey;
     private final String textApiUrl;
     private final String imageApiUrl;
+    private final HuggingFaceModelAvailability modelAvailability;
     private final String imageSavePath = "src/main/resources/static/generated_images"; // Define image save directory
-    private final ObjectMapper objectMapper = new ObjectMapper(); // For parsing JSON
     @Value("${app.image.storage.location:uploads/images}")
     private String imageStorageLocation;
     // Define patterns for parsing structured output if the model provides it
@@ -55,13 +55,19 @@ public class HuggingFaceProvider implements AIProvider {
             RestTemplate restTemplate,
             @Value("${ai.huggingface.api-key}") String apiKey,
             @Value("${ai.huggingface.text-api-url:https://router.huggingface.co/hf-inference/models/gpt2}") String textApiUrl,
-            @Value("${ai.huggingface.image-api-url:https://router.huggingface.co/hf-inference/models/stabilityai/stable-diffusion-xl-base-1.0}") String imageApiUrl) {
+            @Value("${ai.huggingface.image-api-url:https://router.huggingface.co/hf-inference/models/stabilityai/stable-diffusion-xl-base-1.0}") String imageApiUrl,
+            HuggingFaceModelAvailability modelAvailability) {
         this.restTemplate = restTemplate;
         this.apiKey = apiKey;
         this.textApiUrl = normalizeApiUrl(textApiUrl);
         this.imageApiUrl = normalizeApiUrl(imageApiUrl);
+        this.modelAvailability = modelAvailability;
         log.info("Using Hugging Face Text API URL: {}", this.textApiUrl);
         log.info("Using Hugging Face Image API URL: {}", this.imageApiUrl);
+        if (apiKey != null && !apiKey.isEmpty()) {
+            modelAvailability.register(this.textApiUrl, HuggingFaceModelAvailability.TEXT_PROBE);
+            modelAvailability.register(this.imageApiUrl, HuggingFaceModelAvailability.IMAGE_PROBE);
+        }
         // Ensure the image save directory exists
         try {
             Files.createDirectories(Paths.get(imageSavePath));
@@ -89,6 +95,14 @@ public class HuggingFaceProvider implements AIProvider {
         Set<Capability> capabilities = EnumSet.of(Capability.TEXT_GENERATION, Capability.MULTI_LANGUAGE, Capability.IMAGE_GENERATION);
         return capabilities;
     }
+
+    @Override
+    public boolean isReady(Capability capability) {
+        if (capability == Capability.TEXT_GENERATION) {
+            return modelAvailability.isReady(textApiUrl);
+        }
+        return capability != Capability.IMAGE_GENERATION || modelAvailability.isReady(imageApiUrl);
+    }
     @Override
     public List<AdContent> generateAdContent(String prompt, int numberOfVariations, String language, FacebookCTA callToAction) {
         List<AdContent> adContents = new ArrayList<>();
@@ -109,18 +123,27 @@ public class HuggingFaceProvider implements AIProvider {
         log.debug("[Phase 4] Using unified CoT prompt (length: {} chars)", prompt.length());
 
         for (int i = 0; i < numberOfVariations; i++) {
+            // A loading model would only answer 503 again, so skip the call until it is ready
+            if (!modelAvailability.isReady(textApiUrl)) {
+                log.warn("Hugging Face text model still loading, ready in about {}s. Returning mock data.",
+                        modelAvailability.millisUntilReady(textApiUrl) / 1000);
+                adContents.add(createMockAdContent(i + 1, callToAction));
+                continue;
+            }
             Map<String, Object> requestBody = new HashMap<>();
             requestBody.put("inputs", prompt); // Complete CoT prompt - no modifications
             HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
             log.debug("Calling Hugging Face Text API at: {} with CoT prompt length: {}", textApiUrl, prompt.length());
             try {
-                ResponseEntity<List<Map<String, Object>>> response = restTemplate.exchange(textApiUrl,
+                ResponseEntity<HuggingFaceGeneration[]> response = restTemplate.exchange(textApiUrl,
                         HttpMethod.POST,
                         request,
-                        new ParameterizedTypeReference<List<Map<String, Object>>>() {}
+                        HuggingFaceGeneration[].class
                 );
-                if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null && !response.getBody().isEmpty()) {
-                    String generatedText = response.getBody().get(0).get("generated_text").toString();
+                if (response.getStatusCode() == HttpStatus.OK && response.getBody() != null && response.getBody().length > 0
+                        && response.getBody()[0].getGeneratedText() != null) {
+                    modelAvailability.recordSuccess(textApiUrl);
+                    String generatedText = response.getBody()[0].getGeneratedText();
                     AdContent adContent = parseResponseToAdContent(generatedText, callToAction);
                     adContent.setAiProvider(AdContent.AIProvider.HUGGINGFACE);
                     adContents.add(adContent);
@@ -128,6 +151,11 @@ public class HuggingFaceProvider implements AIProvider {
                     log.error("Hugging Face API call failed with status: {} and body: {}", response.getStatusCode(), response.getBody());
                     adContents.add(createMockAdContent(i + 1, callToAction));
                 }
+            } catch (RestClientResponseException e) {
+                if (!modelAvailability.recordFailure(textApiUrl, e)) {
+                    log.error("Error calling Hugging Face API: {} - {}", e.getRawStatusCode(), ProviderErrors.body(e));
+                }
+                adContents.add(createMockAdContent(i + 1, callToAction));
             } catch (Exception e) {
                 log.error("Error calling Hugging Face API: {}", e.getMessage(), e);
                 adContents.add(createMockAdContent(i + 1, callToAction));
@@ -150,19 +178,26 @@ public class HuggingFaceProvider implements AIProvider {
              log.warn("Hugging Face image generation not supported (likely missing API key).");
              return "/img/placeholder.png";
         }
+        if (!modelAvailability.isReady(imageApiUrl)) {
+            log.warn("Hugging Face image model still loading, ready in about {}s.",
+                    modelAvailability.millisUntilReady(imageApiUrl) / 1000);
+            return "/img/placeholder.png";
+        }
         HttpHeaders headers = new HttpHeaders();
         headers.setAccept(Collections.singletonList(MediaType.IMAGE_PNG));
         headers.set("Authorization", "Bearer " + apiKey);
         // Use standardized prompt (already enhanced by ImagePromptService)
         Map<String, Object> requestBody = new HashMap<>();
         requestBody.put("inputs", prompt);
-        requestBody.put("options", Map.of("wait_for_model", true));
+        // Never hold the request thread while a cold model loads; the 503 marks it as loading instead
+        requestBody.put("options", Map.of("wait_for_model", false));
         HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
         log.debug("Calling Hugging Face Image API at: {} with standardized prompt: {}", imageApiUrl, prompt);
         try {
             ResponseEntity<byte[]> responseEntity = restTemplate.exchange(imageApiUrl, HttpMethod.POST, request, byte[].class);
             if (responseEntity.getStatusCode().is2xxSuccessful() && responseEntity.getBody() != null) {
                 byte[] imageBytes = responseEntity.getBody();
+                modelAvailability.recordSuccess(imageApiUrl);
                 log.info("Successfully received image bytes from Hugging Face Image API.");
                 // Save the image and return its URL
                 String filename = UUID.randomUUID().toString() + ".png";
@@ -182,6 +217,10 @@ public class HuggingFaceProvider implements AIProvider {
             } else {
                  log.error("Hugging Face Image API call failed with status: {} and body: {}", responseEntity.getStatusCode(), responseEntity.getBody());
             }
+        } catch (RestClientResponseException e) {
+            if (!modelAvailability.recordFailure(imageApiUrl, e)) {
+                log.error("Error calling Hugging Face Image API: {} - {}", e.getRawStatusCode(), ProviderErrors.body(e));
+            }
         } catch (Exception e) {
             log.error("Error calling Hugging Face Image API: {}", e.getMessage(), e);
         }
@@ -3,12 +3,15 @@ package com.fbadsautomation.ai;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fbadsautomation.dto.provider.OpenAIChatResponse;
+import com.fbadsautomation.dto.provider.OpenAIImageResponse;
 import com.fbadsautomation.model.AdContent;
 import com.fbadsautomation.model.FacebookCTA;
 import com.fbadsautomation.model.Capability;
 import com.fbadsautomation.service.MinIOStorageService;
 import com.fbadsautomation.util.ByteArrayMultipartFile;
 import java.io.InputStream;
+import java.io.UncheckedIOException;
 import java.net.URL;
 import java.nio.file.Files;
 import java.nio.file.Path;
@@ -20,6 +23,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.UUID;
+import java.util.function.Consumer;
 import java.util.regex.Pattern;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -27,6 +31,7 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.HttpClientErrorException;
@@ -47,8 +52,7 @@ public class OpenAIProvider implements AIProvider {
     private final String apiKey;
     private final String textApiUrl;
     private final String imageApiUrl;
-    private final ObjectMapper objectMapper = new ObjectMapper();
-        // For parsing JSON;
+    private final ObjectMapper objectMapper;
     @Value("${app.image.storage.location:uploads/images}")
     private String imageStorageLocation;
     @Value("${ai.openai.log-prompts:false}")
@@ -58,10 +62,12 @@ public class OpenAIProvider implements AIProvider {
     private MinIOStorageService minIOStorageService;
     public OpenAIProvider(
             RestTemplate restTemplate,
+            ObjectMapper objectMapper,
             @Value("${ai.openai.api-key:}") String apiKey,
             @Value("${ai.openai.text-api-url:https://api.openai.com/v1/chat/completions}") String textApiUrl,
             @Value("${ai.openai.image-api-url:https://api.openai.com/v1/images/generations}") String imageApiUrl) {
         this.restTemplate = restTemplate;
+        this.objectMapper = objectMapper;
         this.apiKey = apiKey;
         this.textApiUrl = textApiUrl;
         this.imageApiUrl = imageApiUrl;
@@ -104,35 +110,17 @@ public class OpenAIProvider implements AIProvider {
         // from ChainOfThoughtPromptBuilder with all instructions, constraints, and language requirements
         log.debug("[Phase 4] Using unified CoT prompt (length: {} chars)", prompt.length());
 
-        Map<String, Object> userMessage = new HashMap<>();
-        userMessage.put("role", "user");
-        String jsonGuard = "Return a valid JSON object only.";
-        userMessage.put("content", prompt + "\n\n" + jsonGuard); // Ensure 'json' appears for response_format
-
-        List<Map<String, Object>> messages = new ArrayList<>();
-        messages.add(userMessage); // Only user message, no system message
-        Map<String, Object> requestBody = new HashMap<>();
-        requestBody.put("model", "gpt-3.5-turbo"); // Consider making model configurable
-        requestBody.put("messages", messages);
-        requestBody.put("n", numberOfVariations);
-        requestBody.put("temperature", 0.7); // Slightly lower temperature for more focused results
-        requestBody.put("max_tokens", 1000); // Set explicit token limit to prevent truncation
-        // Ensure response format is JSON
-        Map<String, String> responseFormat = new HashMap<>();
-        responseFormat.put("type", "json_object");
-        requestBody.put("response_format", responseFormat);
+        Map<String, Object> requestBody = buildAdContentRequestBody(prompt, numberOfVariations);
         HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
         log.debug("Calling OpenAI Text API at: {} with prompt: {}", textApiUrl, prompt);
         if (logPrompts) {
             log.info("[Phase 4] OpenAI prompt body:\n{}", prompt);
         }
         try {
-            Map<String, Object> responseBody = restTemplate.postForObject(textApiUrl, request, Map.class);
-            if (responseBody != null && responseBody.containsKey("choices")) {
-                List<Map<String, Object>> choices = (List<Map<String, Object>>) responseBody.get("choices");
-                for (Map<String, Object> choice : choices) {
-                    Map<String, Object> message = (Map<String, Object>) choice.get("message");
-                    String content = (String) message.get("content");
+            OpenAIChatResponse responseBody = restTemplate.postForObject(textApiUrl, request, OpenAIChatResponse.class);
+            if (responseBody != null && responseBody.getChoices() != null) {
+                for (OpenAIChatResponse.Choice choice : responseBody.getChoices()) {
+                    String content = choice.getMessage() != null ? choice.getMessage().getContent() : null;
                     log.info("Raw OpenAI response content: {}", content);
                     JsonNode rootNode = tryParseJson(content);
                     if (rootNode == null) {
@@ -156,7 +144,7 @@ public class OpenAIProvider implements AIProvider {
                 }
             }
     } catch (HttpClientErrorException e) {
-            log.error("HTTP Error calling OpenAI Text API: {} - Response: {}", e.getStatusCode(), e.getResponseBodyAsString(), e);
+            log.error("HTTP Error calling OpenAI Text API: {} - Response: {}", e.getStatusCode(), ProviderErrors.body(e), e);
         } catch (Exception e) {
             log.error("Error calling OpenAI Text API: {}", e.getMessage(), e);
             if (referenceDriven) {
@@ -171,6 +159,100 @@ public class OpenAIProvider implements AIProvider {
         return adContents;
     }
 
+    /**
+     * Streams the completion and parses each choice incrementally, so a variation is handed on while
+     * the other choices are still being generated. Falls back to {@link #generateAdContent} when the
+     * stream fails before any variation was complete.
+     */
+    @Override
+    public List<AdContent> generateAdContentStreaming(String prompt, int numberOfVariations, String language,
+                                                      FacebookCTA callToAction, Consumer<AdContent> onVariation) {
+        if (apiKey == null || apiKey.isEmpty()) {
+            return AIProvider.super.generateAdContentStreaming(prompt, numberOfVariations, language, callToAction, onVariation);
+        }
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_JSON);
+        headers.setBearerAuth(apiKey);
+        headers.setAccept(List.of(MediaType.TEXT_EVENT_STREAM));
+        Map<String, Object> requestBody = buildAdContentRequestBody(prompt, numberOfVariations);
+        requestBody.put("stream", true);
+        HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
+
+        List<AdContent> adContents = new ArrayList<>();
+        Consumer<AdContent> emit = adContent -> {
+            if (adContents.size() >= numberOfVariations) {
+                return;
+            }
+            adContent.setCallToAction(callToAction);
+            adContent.setCta(callToAction);
+            adContent.setAiProvider(AdContent.AIProvider.OPENAI);
+            adContent.setIsSelected(false);
+            adContents.add(adContent);
+            onVariation.accept(adContent);
+        };
+        // Choices arrive interleaved, one parser per choice index
+        Map<Integer, StreamingAdContentParser> parsers = new HashMap<>();
+        try {
+            restTemplate.execute(textApiUrl, HttpMethod.POST, restTemplate.httpEntityCallback(request), response -> {
+                ServerSentEvents.read(response.getBody(), data -> {
+                    OpenAIChatResponse chunk = readChunk(data);
+                    for (OpenAIChatResponse.Choice choice : chunk.getChoices()) {
+                        if (choice.getDelta() == null || choice.getDelta().getContent() == null) {
+                            continue;
+                        }
+                        StreamingAdContentParser parser = parsers.computeIfAbsent(choice.getIndex(),
+                            index -> new StreamingAdContentParser(emit));
+                        try {
+                            parser.feed(choice.getDelta().getContent());
+                        } catch (UncheckedIOException e) {
+                            log.warn("Dropping malformed OpenAI choice {}: {}", choice.getIndex(), e.getMessage());
+                            parsers.put(choice.getIndex(), new StreamingAdContentParser(adContent -> { }));
+                        }
+                    }
+                });
+                return null;
+            });
+            parsers.values().forEach(StreamingAdContentParser::finish);
+        } catch (Exception e) {
+            if (adContents.isEmpty()) {
+                log.warn("OpenAI stream failed before any variation, retrying without streaming: {}", e.getMessage());
+                return AIProvider.super.generateAdContentStreaming(prompt, numberOfVariations, language, callToAction, onVariation);
+            }
+            log.error("OpenAI stream broke off after {} variations: {}", adContents.size(), e.getMessage(), e);
+        }
+        log.info("Streamed {} ad contents from OpenAI", adContents.size());
+        return adContents;
+    }
+
+    private OpenAIChatResponse readChunk(String data) {
+        try {
+            return objectMapper.readValue(data, OpenAIChatResponse.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Malformed OpenAI stream chunk", e);
+        }
+    }
+
+    private Map<String, Object> buildAdContentRequestBody(String prompt, int numberOfVariations) {
+        Map<String, Object> userMessage = new HashMap<>();
+        userMessage.put("role", "user");
+        String jsonGuard = "Return a valid JSON object only.";
+        userMessage.put("content", prompt + "\n\n" + jsonGuard); // Ensure 'json' appears for response_format
+
+        List<Map<String, Object>> messages = new ArrayList<>();
+        messages.add(userMessage); // Only user message, no system message
+        Map<String, Object> requestBody = new HashMap<>();
+        requestBody.put("model", "gpt-3.5-turbo"); // Consider making model configurable
+        requestBody.put("messages", messages);
+        requestBody.put("n", numberOfVariations);
+        requestBody.put("temperature", 0.7); // Slightly lower temperature for more focused results
+        requestBody.put("max_tokens", 1000); // Set explicit token limit to prevent truncation
+        // Ensure response format is JSON
+        Map<String, String> responseFormat = new HashMap<>();
+        responseFormat.put("type", "json_object");
+        requestBody.put("response_format", responseFormat);
+        return requestBody;
+    }
+
     private JsonNode tryParseJson(String content) {
         if (content == null || content.isBlank()) {
             return null;
@@ -245,25 +327,20 @@ public class OpenAIProvider implements AIProvider {
 
             log.debug("Calling OpenAI Text Completion API for prompt enhancement");
 
-            Map<String, Object> responseBody = restTemplate.postForObject(textApiUrl, request, Map.class);
+            OpenAIChatResponse responseBody = restTemplate.postForObject(textApiUrl, request, OpenAIChatResponse.class);
 
-            if (responseBody != null && responseBody.containsKey("choices")) {
-                List<Map<String, Object>> choices = (List<Map<String, Object>>) responseBody.get("choices");
-                if (!choices.isEmpty()) {
-                    Map<String, Object> firstChoice = choices.get(0);
-                    Map<String, Object> message = (Map<String, Object>) firstChoice.get("message");
-                    String content = (String) message.get("content");
+            if (responseBody != null && responseBody.getChoices() != null && !responseBody.getChoices().isEmpty()) {
+                String content = responseBody.firstContent();
 
-                    log.info("OpenAI text completion successful, length: {}", content != null ? content.length() : 0);
-                    return content != null ? content.trim() : null;
-                }
+                log.info("OpenAI text completion successful, length: {}", content != null ? content.length() : 0);
+                return content != null ? content.trim() : null;
             }
 
             log.warn("OpenAI text completion returned empty response");
             return null;
 
         } catch (HttpClientErrorException e) {
-            log.error("HTTP Error calling OpenAI for text completion: {} - {}", e.getStatusCode(), e.getResponseBodyAsString());
+            log.error("HTTP Error calling OpenAI for text completion: {} - {}", e.getStatusCode(), ProviderErrors.body(e));
             return null;
         } catch (Exception e) {
             log.error("Error calling OpenAI for text completion: {}", e.getMessage(), e);
@@ -288,11 +365,10 @@ public class OpenAIProvider implements AIProvider {
         HttpHeaders headers = new HttpHeaders();
         headers.setBearerAuth(apiKey);
         HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
-        Map<String, Object> response = restTemplate.postForObject(imageApiUrl, request, Map.class);
-        if (response != null && response.containsKey("data")) {
-            List<Map<String, Object>> data = (List<Map<String, Object>>) response.get("data");
-            if (!data.isEmpty() && data.get(0).containsKey("url")) {
-                String imageUrl = (String) data.get(0).get("url");
+        OpenAIImageResponse response = restTemplate.postForObject(imageApiUrl, request, OpenAIImageResponse.class);
+        if (response != null && response.getData() != null) {
+            String imageUrl = response.firstUrl();
+            if (imageUrl != null) {
                 log.info("Successfully received image URL from OpenAI: {}", imageUrl);
 
                 // Download image from OpenAI
@@ -334,7 +410,7 @@ public class OpenAIProvider implements AIProvider {
                 }
     }
         } else {
-            log.warn("Received unexpected response format from OpenAI Image API: {}", response);
+            log.warn("Received unexpected response format from OpenAI Image API");
         }
         return "/img/placeholder.png";
     }
@@ -369,11 +445,10 @@ public class OpenAIProvider implements AIProvider {
         body.add("size", "1024x1024");
         HttpEntity<MultiValueMap<String, Object>> requestEntity = new HttpEntity<>(body, headers);
         try {
-            Map<String, Object> response = restTemplate.postForObject(editsUrl, requestEntity, Map.class);
-            if (response != null && response.containsKey("data")) {
-                List<Map<String, Object>> data = (List<Map<String, Object>>) response.get("data");
-                if (!data.isEmpty() && data.get(0).containsKey("url")) {
-                    String enhancedUrl = (String) data.get(0).get("url");
+            OpenAIImageResponse response = restTemplate.postForObject(editsUrl, requestEntity, OpenAIImageResponse.class);
+            if (response != null && response.getData() != null) {
+                String enhancedUrl = response.firstUrl();
+                if (enhancedUrl != null) {
                     try (InputStream in = new URL(enhancedUrl).openStream()) {
                         String filename = UUID.randomUUID().toString() + ".png";
                         Path uploadPath = Paths.get(imageStorageLocation);
@@ -0,0 +1,32 @@
+package com.fbadsautomation.ai;
+
+import org.springframework.web.client.RestClientResponseException;
+
+/**
+ * Lazy access to provider error bodies. Error responses can be large (HTML error pages, echoed
+ * prompts), so they are only decoded when a log line is actually written or a marker is checked.
+ */
+final class ProviderErrors {
+
+    private static final int PREVIEW_CHARS = 500;
+
+    private ProviderErrors() {
+    }
+
+    /**
+     * Log argument that decodes and truncates the body only when the message is logged
+     */
+    static Object body(RestClientResponseException e) {
+        return new Object() {
+            @Override
+            public String toString() {
+                String body = e.getResponseBodyAsString();
+                return body.length() > PREVIEW_CHARS ? body.substring(0, PREVIEW_CHARS) + "…" : body;
+            }
+        };
+    }
+
+    static boolean bodyContains(RestClientResponseException e, String marker) {
+        return e.getResponseBodyAsString().contains(marker);
+    }
+}
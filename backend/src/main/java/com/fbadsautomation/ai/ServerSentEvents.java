@@ -0,0 +1,55 @@
+package com.fbadsautomation.ai;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.function.Consumer;
+
+/**
+ * Minimal reader for the {@code text/event-stream} responses of streaming completion APIs
+ */
+final class ServerSentEvents {
+
+    // OpenAI terminates its stream with this sentinel instead of closing an event type
+    private static final String DONE = "[DONE]";
+
+    private ServerSentEvents() {
+    }
+
+    /**
+     * Hands the {@code data} of every event to {@code onData} as it arrives, until the stream ends.
+     */
+    static void read(InputStream body, Consumer<String> onData) throws IOException {
+        BufferedReader reader = new BufferedReader(new InputStreamReader(body, StandardCharsets.UTF_8));
+        StringBuilder data = new StringBuilder();
+        String line;
+        while ((line = reader.readLine()) != null) {
+            if (line.isEmpty()) {
+                if (!dispatch(data, onData)) {
+                    return;
+                }
+            } else if (line.startsWith("data:")) {
+                if (data.length() > 0) {
+                    data.append('\n');
+                }
+                data.append(line.startsWith("data: ") ? line.substring(6) : line.substring(5));
+            }
+        }
+        dispatch(data, onData);
+    }
+
+    private static boolean dispatch(StringBuilder data, Consumer<String> onData) {
+        if (data.length() == 0) {
+            return true;
+        }
+        String event = data.toString();
+        data.setLength(0);
+        if (DONE.equals(event)) {
+            return false;
+        }
+        onData.accept(event);
+        return true;
+    }
+}
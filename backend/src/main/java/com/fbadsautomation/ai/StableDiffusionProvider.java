@@ -1,7 +1,6 @@
 package com.fbadsautomation.ai;
 
 import com.fasterxml.jackson.core.type.TypeReference;
-import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fbadsautomation.model.AdContent;
 import com.fbadsautomation.model.Capability;
 import com.fbadsautomation.model.FacebookCTA;
@@ -27,6 +26,7 @@ import org.springframework.http.HttpMethod;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.web.client.RestClientResponseException;
 import org.springframework.web.client.RestTemplate;
 import org.springframework.scheduling.annotation.Async;
 import java.util.concurrent.CompletableFuture;
@@ -38,18 +38,23 @@ public class StableDiffusionProvider implements AIProvider {
     private final RestTemplate restTemplate;
     private final String apiKey;
     private final String imageApiUrl;
+    private final HuggingFaceModelAvailability modelAvailability;
     private String imageStorageLocation;
-    private final ObjectMapper objectMapper = new ObjectMapper();
         public StableDiffusionProvider(
             RestTemplate restTemplate,
             @Value("${ai.huggingface.api-key}") String apiKey,
             @Value("${ai.huggingface.image-api-url:https://router.huggingface.co/hf-inference/models/stabilityai/stable-diffusion-xl-base-1.0}") String imageApiUrl,
-            @Value("${app.image.storage.location:uploads/images}") String imageStorageLocation) {
+            @Value("${app.image.storage.location:uploads/images}") String imageStorageLocation,
+            HuggingFaceModelAvailability modelAvailability) {
         this.restTemplate = restTemplate;
         this.apiKey = apiKey;
         this.imageApiUrl = normalizeApiUrl(imageApiUrl);
         this.imageStorageLocation = imageStorageLocation;
+        this.modelAvailability = modelAvailability;
         log.info("Using Stable Diffusion Image API URL: {}", this.imageApiUrl);
+        if (apiKey != null && !apiKey.isEmpty()) {
+            modelAvailability.register(this.imageApiUrl, HuggingFaceModelAvailability.IMAGE_PROBE);
+        }
         
         // Ensure the image save directory exists
         try {
@@ -80,6 +85,11 @@ public class StableDiffusionProvider implements AIProvider {
         return capabilities;
     }
 
+    @Override
+    public boolean isReady(Capability capability) {
+        return capability != Capability.IMAGE_GENERATION || modelAvailability.isReady(imageApiUrl);
+    }
+
     @Override
     public List<AdContent> generateAdContent(String prompt, int numberOfVariations, String language, FacebookCTA callToAction) {
         // Stable Diffusion is for image generation, so we return mock text content
@@ -114,6 +124,11 @@ public class StableDiffusionProvider implements AIProvider {
             log.warn("Stable Diffusion image generation not supported (likely missing API key).");
             return "/img/placeholder.png";
         }
+        if (!modelAvailability.isReady(imageApiUrl)) {
+            log.warn("Stable Diffusion model still loading, ready in about {}s.",
+                modelAvailability.millisUntilReady(imageApiUrl) / 1000);
+            return "/img/placeholder.png";
+        }
 
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_JSON);
@@ -129,7 +144,8 @@ public class StableDiffusionProvider implements AIProvider {
             "width", 1024,
             "height", 1024
         ));
-        requestBody.put("options", Map.of("wait_for_model", true));
+        // Never hold the request thread while a cold model loads; the 503 marks it as loading instead
+        requestBody.put("options", Map.of("wait_for_model", false));
 
         HttpEntity<Map<String, Object>> request = new HttpEntity<>(requestBody, headers);
         log.debug("Calling Stable Diffusion Image API at: {} with standardized prompt: {}", imageApiUrl, prompt);
@@ -138,6 +154,7 @@ public class StableDiffusionProvider implements AIProvider {
             ResponseEntity<byte[]> responseEntity = restTemplate.exchange(imageApiUrl, HttpMethod.POST, request, byte[].class);
             if (responseEntity.getStatusCode().is2xxSuccessful() && responseEntity.getBody() != null) {
                 byte[] imageBytes = responseEntity.getBody();
+                modelAvailability.recordSuccess(imageApiUrl);
                 log.info("Successfully received image bytes from Stable Diffusion API.");
 
                 // Save the image and return its URL
@@ -159,6 +176,10 @@ public class StableDiffusionProvider implements AIProvider {
                 log.error("Stable Diffusion Image API call failed with status: {} and body: {}", 
                     responseEntity.getStatusCode(), responseEntity.getBody());
             }
+        } catch (RestClientResponseException e) {
+            if (!modelAvailability.recordFailure(imageApiUrl, e)) {
+                log.error("Error calling Stable Diffusion Image API: {} - {}", e.getRawStatusCode(), ProviderErrors.body(e));
+            }
         } catch (Exception e) {
             log.error("Error calling Stable Diffusion Image API: {}", e.getMessage(), e);
         }
@@ -0,0 +1,175 @@
+package com.fbadsautomation.ai;
+
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonParser;
+import com.fasterxml.jackson.core.JsonToken;
+import com.fasterxml.jackson.core.async.ByteArrayFeeder;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.node.ArrayNode;
+import com.fasterxml.jackson.databind.node.ContainerNode;
+import com.fasterxml.jackson.databind.node.JsonNodeFactory;
+import com.fasterxml.jackson.databind.node.ObjectNode;
+import com.fbadsautomation.model.AdContent;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayDeque;
+import java.util.Deque;
+import java.util.function.Consumer;
+
+/**
+ * Incremental parser for ad variations streamed by a text provider. Text deltas are fed as they
+ * arrive and each variation is handed to the listener as soon as its closing brace is read, instead of
+ * after the whole completion. Accepts an array of variations, a single variation object or an object
+ * wrapping the array, and ignores prose or code fences around the JSON.
+ *
+ * Not thread-safe; use one parser per completion.
+ */
+public class StreamingAdContentParser {
+
+    private static final JsonFactory JSON_FACTORY = new JsonFactory();
+    private static final JsonNodeFactory NODES = JsonNodeFactory.instance;
+
+    private final Consumer<AdContent> listener;
+    private final JsonParser parser;
+    private final ByteArrayFeeder feeder;
+    private final Deque<Frame> stack = new ArrayDeque<>();
+    private boolean started;
+    private boolean finished;
+    private int emitted;
+
+    public StreamingAdContentParser(Consumer<AdContent> listener) {
+        this.listener = listener;
+        try {
+            this.parser = JSON_FACTORY.createNonBlockingByteArrayParser();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+        this.feeder = (ByteArrayFeeder) parser.getNonBlockingInputFeeder();
+    }
+
+    /**
+     * Feeds the next piece of completion text.
+     *
+     * @throws UncheckedIOException when the text is not valid JSON
+     */
+    public void feed(String delta) {
+        if (finished || delta == null || delta.isEmpty()) {
+            return;
+        }
+        if (!started) {
+            int start = firstJsonStart(delta);
+            if (start < 0) {
+                return;
+            }
+            started = true;
+            delta = delta.substring(start);
+        }
+        byte[] bytes = delta.getBytes(StandardCharsets.UTF_8);
+        try {
+            feeder.feedInput(bytes, 0, bytes.length);
+            drain();
+        } catch (IOException e) {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Signals the end of the completion.
+     *
+     * @return number of variations emitted
+     */
+    public int finish() {
+        if (!finished && started) {
+            feeder.endOfInput();
+            try {
+                drain();
+            } catch (IOException e) {
+                // A truncated tail only loses the variation that was still open
+                finished = true;
+            }
+        }
+        return emitted;
+    }
+
+    public int getEmitted() {
+        return emitted;
+    }
+
+    /**
+     * Maps a variation object to an unsaved {@link AdContent}; provider, CTA and selection are left to the caller.
+     */
+    public static AdContent toAdContent(JsonNode node) {
+        AdContent content = new AdContent();
+        content.setHeadline(node.path("headline").asText(null));
+        content.setDescription(node.path("description").asText(null));
+        content.setPrimaryText(node.path("primaryText").asText(null));
+        return content;
+    }
+
+    private void drain() throws IOException {
+        JsonToken token;
+        while (!finished && (token = parser.nextToken()) != null && token != JsonToken.NOT_AVAILABLE) {
+            switch (token) {
+                case START_OBJECT -> push(NODES.objectNode());
+                case START_ARRAY -> push(NODES.arrayNode());
+                case FIELD_NAME -> stack.peek().field = parser.getCurrentName();
+                case END_OBJECT, END_ARRAY -> pop();
+                case VALUE_STRING -> attach(NODES.textNode(parser.getText()));
+                case VALUE_NUMBER_INT, VALUE_NUMBER_FLOAT -> attach(NODES.numberNode(parser.getDecimalValue()));
+                case VALUE_TRUE, VALUE_FALSE -> attach(NODES.booleanNode(token == JsonToken.VALUE_TRUE));
+                case VALUE_NULL -> attach(NODES.nullNode());
+                default -> {
+                }
+            }
+        }
+    }
+
+    private void push(ContainerNode<?> node) {
+        attach(node);
+        stack.push(new Frame(node));
+    }
+
+    private void pop() {
+        JsonNode node = stack.pop().node;
+        if (node.isObject() && (node.has("headline") || node.has("primaryText"))) {
+            emitted++;
+            listener.accept(toAdContent(node));
+        }
+        if (stack.isEmpty()) {
+            // Anything after the root value is trailing prose or a closing code fence
+            finished = true;
+        }
+    }
+
+    private void attach(JsonNode node) {
+        Frame parent = stack.peek();
+        if (parent == null) {
+            return;
+        }
+        if (parent.node instanceof ArrayNode array) {
+            array.add(node);
+        } else {
+            ((ObjectNode) parent.node).set(parent.field, node);
+        }
+    }
+
+    private static int firstJsonStart(String text) {
+        for (int i = 0; i < text.length(); i++) {
+            char c = text.charAt(i);
+            if (c == '[' || c == '{') {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    private static final class Frame {
+        private final ContainerNode<?> node;
+        private String field;
+
+        private Frame(ContainerNode<?> node) {
+            this.node = node;
+        }
+    }
+}
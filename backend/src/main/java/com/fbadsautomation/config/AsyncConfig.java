@@ -1,6 +1,7 @@
 package com.fbadsautomation.config;
 
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.core.task.TaskExecutor;
@@ -8,6 +9,9 @@ import org.springframework.scheduling.annotation.EnableAsync;
 import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
 
 import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.ThreadPoolExecutor;
 
 @Slf4j
 @Configuration
@@ -57,6 +61,73 @@ public class AsyncConfig {
         return executor;
     }
 
+    @Bean(name = "facebookUploadExecutor")
+    public TaskExecutor facebookUploadExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(4);
+        executor.setMaxPoolSize(16);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("facebook-upload-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+
+        executor.setRejectedExecutionHandler((r, executor1) -> {
+            log.warn("Facebook upload task rejected. Queue capacity exceeded.");
+            throw new java.util.concurrent.RejectedExecutionException("Facebook upload queue is full");
+        });
+
+        executor.initialize();
+        log.info("Facebook Upload Thread Pool initialized: core={}, max={}, queue={}",
+                executor.getCorePoolSize(), executor.getMaxPoolSize(), executor.getQueueCapacity());
+        return executor;
+    }
+
+    /**
+     * I/O-bound pool for ScrapeCreators ad fetches; its size caps the concurrent requests, while the
+     * request rate itself is paced by the service's token bucket.
+     */
+    @Bean(name = "competitorFetchExecutor")
+    public TaskExecutor competitorFetchExecutor(@Value("${scrape.creators.max-concurrency:10}") int maxConcurrency) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrency);
+        executor.setMaxPoolSize(maxConcurrency);
+        executor.setQueueCapacity(100);
+        executor.setThreadNamePrefix("competitor-fetch-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+
+        // A full queue slows the caller down instead of failing its fetch
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+
+        executor.initialize();
+        log.info("Competitor Fetch Thread Pool initialized: core={}, max={}, queue={}",
+                executor.getCorePoolSize(), executor.getMaxPoolSize(), executor.getQueueCapacity());
+        return executor;
+    }
+
+    /**
+     * Pool for the per-variation generations of one ad, which are started from aiProcessingExecutor
+     * jobs and must not queue behind them. The per-provider caps live in the caller; a full queue runs
+     * the variation on the submitting thread.
+     */
+    @Bean(name = "variationGenerationExecutor")
+    public TaskExecutor variationGenerationExecutor(@Value("${ai.variations.max-concurrency:8}") int maxConcurrency) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(maxConcurrency);
+        executor.setMaxPoolSize(maxConcurrency);
+        executor.setQueueCapacity(50);
+        executor.setThreadNamePrefix("variation-generation-");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+
+        executor.initialize();
+        log.info("Variation Generation Thread Pool initialized: core={}, max={}, queue={}",
+                executor.getCorePoolSize(), executor.getMaxPoolSize(), executor.getQueueCapacity());
+        return executor;
+    }
+
     @Bean(name = "generalAsyncExecutor")
     public Executor generalAsyncExecutor() {
         ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
@@ -77,4 +148,19 @@ public class AsyncConfig {
                 executor.getCorePoolSize(), executor.getMaxPoolSize(), executor.getQueueCapacity());
         return executor;
     }
-}
\ No newline at end of file
+
+    /**
+     * Work-stealing pool for CPU-bound batch scoring; sized to the cores since its tasks never block.
+     */
+    @Bean(name = "qualityScoringPool", destroyMethod = "shutdown")
+    public ForkJoinPool qualityScoringPool() {
+        int parallelism = Runtime.getRuntime().availableProcessors();
+        ForkJoinPool pool = new ForkJoinPool(parallelism, forkJoinPool -> {
+            ForkJoinWorkerThread thread = ForkJoinPool.defaultForkJoinWorkerThreadFactory.newThread(forkJoinPool);
+            thread.setName("quality-scoring-" + thread.getPoolIndex());
+            return thread;
+        }, (thread, ex) -> log.error("Quality scoring task failed on {}", thread.getName(), ex), false);
+        log.info("Quality Scoring Fork-Join Pool initialized: parallelism={}", pool.getParallelism());
+        return pool;
+    }
+}
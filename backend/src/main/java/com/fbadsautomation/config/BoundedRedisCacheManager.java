@@ -0,0 +1,125 @@
+package com.fbadsautomation.config;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.Set;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.RedisCache;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.core.StringRedisTemplate;
+
+/**
+ * Redis cache manager whose caches hold at most {@link RedisConfig.CachePolicy#getMaxEntries()}
+ * entries. Redis only expires entries by TTL, so every cache keeps a sorted set of its keys by write
+ * time next to the entries; a put that takes the cache over its bound deletes the oldest entries.
+ * Caches stay {@link RedisCache}s, so statistics and cache metrics work as before.
+ */
+@Slf4j
+public class BoundedRedisCacheManager extends RedisCacheManager {
+
+    private final RedisCacheWriter cacheWriter;
+    private final StringRedisTemplate redisTemplate;
+    private final Map<String, RedisConfig.CachePolicy> policies;
+
+    public BoundedRedisCacheManager(RedisCacheWriter cacheWriter, StringRedisTemplate redisTemplate,
+                                    RedisCacheConfiguration defaultCacheConfiguration,
+                                    Map<String, RedisCacheConfiguration> initialCacheConfigurations,
+                                    Map<String, RedisConfig.CachePolicy> policies) {
+        super(cacheWriter, defaultCacheConfiguration, initialCacheConfigurations, false);
+        this.cacheWriter = cacheWriter;
+        this.redisTemplate = redisTemplate;
+        this.policies = policies;
+    }
+
+    @Override
+    protected RedisCache createRedisCache(String name, RedisCacheConfiguration cacheConfig) {
+        RedisConfig.CachePolicy policy = policies.get(name);
+        if (policy == null) {
+            return super.createRedisCache(name, cacheConfig);
+        }
+        return new BoundedRedisCache(name, cacheWriter, cacheConfig, redisTemplate, policy);
+    }
+
+    static final class BoundedRedisCache extends RedisCache {
+
+        private final StringRedisTemplate redisTemplate;
+        private final RedisConfig.CachePolicy policy;
+        // Outside the "name::" key space, so it is never taken for an entry
+        private final String indexKey;
+
+        BoundedRedisCache(String name, RedisCacheWriter cacheWriter, RedisCacheConfiguration cacheConfig,
+                          StringRedisTemplate redisTemplate, RedisConfig.CachePolicy policy) {
+            super(name, cacheWriter, cacheConfig);
+            this.redisTemplate = redisTemplate;
+            this.policy = policy;
+            this.indexKey = "cache-index:" + name;
+        }
+
+        @Override
+        public void put(Object key, Object value) {
+            super.put(key, value);
+            track(createCacheKey(key));
+        }
+
+        @Override
+        public Cache.ValueWrapper putIfAbsent(Object key, Object value) {
+            Cache.ValueWrapper existing = super.putIfAbsent(key, value);
+            if (existing == null) {
+                track(createCacheKey(key));
+            }
+            return existing;
+        }
+
+        @Override
+        public void evict(Object key) {
+            super.evict(key);
+            try {
+                redisTemplate.opsForZSet().remove(indexKey, createCacheKey(key));
+            } catch (RuntimeException e) {
+                log.warn("Could not update the key index of cache {}: {}", getName(), e.getMessage());
+            }
+        }
+
+        @Override
+        public void clear() {
+            super.clear();
+            try {
+                redisTemplate.delete(indexKey);
+            } catch (RuntimeException e) {
+                log.warn("Could not clear the key index of cache {}: {}", getName(), e.getMessage());
+            }
+        }
+
+        /**
+         * Records a write and deletes the oldest entries beyond the bound. Keys whose TTL has passed
+         * are dropped from the index first, so expired entries do not count. The entry is already
+         * stored, so a failure here only leaves the bound unenforced until the next put.
+         */
+        private void track(String cacheKey) {
+            try {
+                long now = System.currentTimeMillis();
+                Duration ttl = policy.getTtl();
+                redisTemplate.opsForZSet().add(indexKey, cacheKey, now);
+                redisTemplate.opsForZSet().removeRangeByScore(indexKey, 0, now - ttl.toMillis());
+                redisTemplate.expire(indexKey, ttl);
+
+                Long size = redisTemplate.opsForZSet().zCard(indexKey);
+                long excess = size != null ? size - policy.getMaxEntries() : 0;
+                if (excess > 0) {
+                    Set<String> oldest = redisTemplate.opsForZSet().range(indexKey, 0, excess - 1);
+                    if (oldest != null && !oldest.isEmpty()) {
+                        redisTemplate.delete(oldest);
+                        redisTemplate.opsForZSet().remove(indexKey, oldest.toArray());
+                        log.debug("Cache {} is over its bound of {} entries, evicted the {} oldest",
+                            getName(), policy.getMaxEntries(), oldest.size());
+                    }
+                }
+            } catch (RuntimeException e) {
+                log.warn("Could not enforce the size bound of cache {}: {}", getName(), e.getMessage());
+            }
+        }
+    }
+}
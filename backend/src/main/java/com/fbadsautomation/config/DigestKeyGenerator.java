@@ -0,0 +1,127 @@
+package com.fbadsautomation.config;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.MapperFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.SerializationFeature;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import java.lang.reflect.Array;
+import java.lang.reflect.Method;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.Map;
+import java.util.TreeMap;
+import org.springframework.cache.interceptor.KeyGenerator;
+
+/**
+ * Cache key generator that digests the method arguments into a fixed-size key, so keys of caches
+ * fed with prompts stay ~60 characters no matter how long the prompt is. Arguments are encoded
+ * canonically before hashing: every value is tagged with its type and length, maps are ordered by
+ * key and other objects are written as JSON with sorted properties. Equal arguments therefore always
+ * produce the same key, and unlike {@code hashCode()} based keys two different arguments practically
+ * never do.
+ *
+ * <p>Keys look like {@code ComparisonService.generateSuggestedVariation:<base64url SHA-256>}.
+ */
+public class DigestKeyGenerator implements KeyGenerator {
+
+    private static final ThreadLocal<MessageDigest> DIGESTS = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 not available", e);
+        }
+    });
+    private static final Base64.Encoder KEY_ENCODING = Base64.getUrlEncoder().withoutPadding();
+
+    private final ObjectMapper canonicalMapper = JsonMapper.builder()
+            .addModule(new JavaTimeModule())
+            .configure(MapperFeature.SORT_PROPERTIES_ALPHABETICALLY, true)
+            .configure(SerializationFeature.ORDER_MAP_ENTRIES_BY_KEYS, true)
+            .configure(SerializationFeature.WRITE_DATES_AS_TIMESTAMPS, false)
+            .build();
+
+    @Override
+    public Object generate(Object target, Method method, Object... params) {
+        return target.getClass().getSimpleName() + "." + method.getName() + ":" + digest(params);
+    }
+
+    /**
+     * Canonical digest of {@code values} as base64url SHA-256, for callers that build cache keys by
+     * hand instead of through {@code @Cacheable}.
+     */
+    public String digest(Object... values) {
+        MessageDigest digest = DIGESTS.get();
+        digest.reset();
+        for (Object value : values) {
+            update(digest, value);
+        }
+        return KEY_ENCODING.encodeToString(digest.digest());
+    }
+
+    private void update(MessageDigest digest, Object value) {
+        if (value == null) {
+            digest.update((byte) 'N');
+        } else if (value instanceof CharSequence) {
+            updateTagged(digest, 'S', value.toString());
+        } else if (value instanceof Number || value instanceof Boolean || value instanceof Character) {
+            updateTagged(digest, 'V', value.getClass().getSimpleName() + "=" + value);
+        } else if (value instanceof Enum<?>) {
+            updateTagged(digest, 'E', ((Enum<?>) value).getDeclaringClass().getName() + "." + ((Enum<?>) value).name());
+        } else if (value instanceof Collection<?>) {
+            Collection<?> collection = (Collection<?>) value;
+            updateLength(digest, 'L', collection.size());
+            for (Object element : collection) {
+                update(digest, element);
+            }
+        } else if (value.getClass().isArray()) {
+            int length = Array.getLength(value);
+            updateLength(digest, 'L', length);
+            for (int i = 0; i < length; i++) {
+                update(digest, Array.get(value, i));
+            }
+        } else if (value instanceof Map<?, ?>) {
+            // Order entries by the canonical form of their keys so insertion order does not matter
+            TreeMap<String, Object> sorted = new TreeMap<>();
+            ((Map<?, ?>) value).forEach((key, entry) -> sorted.put(canonicalKey(key), entry));
+            updateLength(digest, 'M', sorted.size());
+            sorted.forEach((key, entry) -> {
+                updateTagged(digest, 'K', key);
+                update(digest, entry);
+            });
+        } else {
+            updateTagged(digest, 'J', value.getClass().getName() + "=" + toJson(value));
+        }
+    }
+
+    private String canonicalKey(Object key) {
+        if (key == null || key instanceof CharSequence || key instanceof Number || key instanceof Enum<?>) {
+            return String.valueOf(key);
+        }
+        return toJson(key);
+    }
+
+    private String toJson(Object value) {
+        try {
+            return canonicalMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Cannot build a cache key from " + value.getClass().getName(), e);
+        }
+    }
+
+    private static void updateTagged(MessageDigest digest, char tag, String value) {
+        byte[] bytes = value.getBytes(StandardCharsets.UTF_8);
+        updateLength(digest, tag, bytes.length);
+        digest.update(bytes);
+    }
+
+    // The length prefix keeps ("ab", "c") and ("a", "bc") apart
+    private static void updateLength(MessageDigest digest, char tag, int length) {
+        digest.update(ByteBuffer.allocate(5).put((byte) tag).putInt(length).array());
+    }
+}
@@ -39,6 +39,8 @@ public class FacebookConfig {
             environment.getProperty("facebook.adset-budget-sharing-enabled", "false")));
         properties.setDebugPayloads(Boolean.parseBoolean(
             environment.getProperty("facebook.debug-payloads", "false")));
+        properties.setUploadMaxConcurrencyPerAccount(Integer.parseInt(
+            environment.getProperty("facebook.upload.max-concurrency-per-account", "4")));
         return properties;
     }
 }
@@ -0,0 +1,20 @@
+package com.fbadsautomation.config;
+
+import com.fasterxml.jackson.databind.Module;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Tuning of the application-wide ObjectMapper, which the AI providers and the RestTemplate converters
+ * share instead of each building their own
+ */
+@Configuration
+public class JacksonConfig {
+
+    // Replaces reflective getter/setter calls with generated lambdas on the hot (de)serialization path
+    @Bean
+    public Module blackbirdModule() {
+        return new BlackbirdModule();
+    }
+}
@@ -0,0 +1,73 @@
+package com.fbadsautomation.config;
+
+import java.util.HashMap;
+import java.util.Map;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.context.annotation.Configuration;
+
+/**
+ * Token budgets for the variable sections of generation prompts
+ */
+@Configuration
+@ConfigurationProperties(prefix = "ai.prompt.budget")
+public class PromptBudgetConfig {
+
+    public static final String REFERENCE = "reference";
+    public static final String KEYWORDS = "keywords";
+    public static final String AUDIENCE = "audience";
+
+    // Estimated tokens per section; sections without a budget are not compacted
+    private Map<String, Integer> sections = new HashMap<>(Map.of(
+        REFERENCE, 500,
+        KEYWORDS, 60,
+        AUDIENCE, 150));
+
+    // Whole prompts above this are logged and counted, not cut
+    private int totalTokens = 4000;
+
+    // Tokenizer cost of each provider relative to the default estimate (OpenAI cl100k-like)
+    private Map<String, Double> tokenizerScale = new HashMap<>(Map.of(
+        "openai", 1.0,
+        "anthropic", 1.1,
+        "gemini", 0.9,
+        "huggingface", 1.25));
+
+    // Getters and setters
+    public Map<String, Integer> getSections() {
+        return sections;
+    }
+
+    public void setSections(Map<String, Integer> sections) {
+        this.sections = sections;
+    }
+
+    public int getTotalTokens() {
+        return totalTokens;
+    }
+
+    public void setTotalTokens(int totalTokens) {
+        this.totalTokens = totalTokens;
+    }
+
+    public Map<String, Double> getTokenizerScale() {
+        return tokenizerScale;
+    }
+
+    public void setTokenizerScale(Map<String, Double> tokenizerScale) {
+        this.tokenizerScale = tokenizerScale;
+    }
+
+    /**
+     * Budget of a section in estimated tokens, or {@code null} when the section is not budgeted
+     */
+    public Integer getSectionBudget(String section) {
+        return sections.get(section);
+    }
+
+    public double getTokenizerScale(String provider) {
+        if (provider == null) {
+            return 1.0;
+        }
+        return tokenizerScale.getOrDefault(provider.toLowerCase(), 1.0);
+    }
+}
@@ -12,15 +12,18 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.interceptor.KeyGenerator;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.data.redis.cache.CacheStatisticsCollector;
 import org.springframework.data.redis.cache.RedisCacheConfiguration;
-import org.springframework.data.redis.cache.RedisCacheManager;
+import org.springframework.data.redis.cache.RedisCacheWriter;
 import org.springframework.data.redis.connection.RedisConnectionFactory;
 import org.springframework.data.redis.connection.RedisStandaloneConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceClientConfiguration;
 import org.springframework.data.redis.connection.lettuce.LettuceConnectionFactory;
 import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.StringRedisTemplate;
 import org.springframework.data.redis.serializer.Jackson2JsonRedisSerializer;
 import org.springframework.data.redis.serializer.StringRedisSerializer;
 
@@ -90,46 +93,85 @@ public class RedisConfig {
         return template;
     }
 
+    /**
+     * Expiry and size policy of every named cache. Each cache used by the application must be listed
+     * here: the cache manager does not create unknown caches on the fly, so a missing entry fails
+     * loudly instead of silently running with defaults.
+     */
+    public static final Map<String, CachePolicy> CACHE_POLICIES = Map.ofEntries(
+            // Expensive AI generations
+            Map.entry("ai-content", new CachePolicy(Duration.ofHours(24), 10_000)),
+            // Provider health for the circuit breaker
+            Map.entry("ai-provider-status", new CachePolicy(Duration.ofMinutes(5), 100)),
+            Map.entry("campaigns", new CachePolicy(Duration.ofMinutes(30), 10_000)),
+            Map.entry("users", new CachePolicy(Duration.ofHours(1), 10_000)),
+            // Short-term cache for API responses
+            Map.entry("api-responses", new CachePolicy(Duration.ofMinutes(5), 10_000)),
+            // Prompt-keyed caches: one entry per distinct prompt, so keep them short-lived and bounded
+            Map.entry("promptValidation", new CachePolicy(Duration.ofHours(1), 5_000)),
+            Map.entry("improvedPrompts", new CachePolicy(Duration.ofHours(6), 5_000)),
+            Map.entry("personaSelection", new CachePolicy(Duration.ofHours(24), 5_000)),
+            Map.entry("adComparisons", new CachePolicy(Duration.ofHours(6), 5_000)),
+            Map.entry("referenceSummaries", new CachePolicy(Duration.ofHours(24), 5_000)),
+            // Competitor ads do not change once published
+            Map.entry("competitorAnalysis", new CachePolicy(Duration.ofHours(24), 5_000)),
+            // Raw ScrapeCreators payloads by ad ID; shorter since the active status can change
+            Map.entry("competitorAds", new CachePolicy(Duration.ofHours(12), 5_000)),
+            // Reference-ad analyses by ad ID and by content hash
+            Map.entry("referenceAnalyses", new CachePolicy(Duration.ofHours(24), 5_000)),
+            // LLM copy reviews by copy, persona and language
+            Map.entry("adCopyReviews", new CachePolicy(Duration.ofHours(24), 5_000)),
+            // Reference data of the keyword API
+            Map.entry("rapidLocations", new CachePolicy(Duration.ofHours(24), 10)),
+            Map.entry("rapidLanguages", new CachePolicy(Duration.ofHours(24), 10))
+    );
+
+    /**
+     * Digests the arguments of prompt-keyed cache methods into fixed-size keys.
+     */
+    @Bean
+    public KeyGenerator digestKeyGenerator() {
+        return new DigestKeyGenerator();
+    }
+
     @Bean
     public CacheManager cacheManager(RedisConnectionFactory connectionFactory) {
-        // Configure different cache configurations for different use cases
         Map<String, RedisCacheConfiguration> cacheConfigurations = new HashMap<>();
-
-        // AI Content Cache - 24 hours (expensive operations)
-        cacheConfigurations.put("ai-content", RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofHours(24))
-                .disableCachingNullValues());
-        
-        // AI Provider Status Cache - 5 minutes (for circuit breaker)
-        cacheConfigurations.put("ai-provider-status", RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(5))
-                .disableCachingNullValues());
-        
-        // Campaign Cache - 30 minutes
-        cacheConfigurations.put("campaigns", RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(30))
-                .disableCachingNullValues());
-        
-        // User Cache - 1 hour
-        cacheConfigurations.put("users", RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofHours(1))
-                .disableCachingNullValues());
-        
-        // Short-term cache for API responses - 5 minutes
-        cacheConfigurations.put("api-responses", RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofMinutes(5))
-                .disableCachingNullValues());
-
-        // Prompt Validation Cache - 1 hour (Phase 4 enhancement)
-        cacheConfigurations.put("promptValidation", RedisCacheConfiguration.defaultCacheConfig()
-                .entryTtl(Duration.ofHours(1))
-                .disableCachingNullValues());
-
-        return RedisCacheManager.builder(connectionFactory)
-                .cacheDefaults(RedisCacheConfiguration.defaultCacheConfig()
+        CACHE_POLICIES.forEach((name, policy) -> cacheConfigurations.put(name,
+                RedisCacheConfiguration.defaultCacheConfig()
+                        .entryTtl(policy.getTtl())
+                        .disableCachingNullValues()));
+
+        // Statistics feed the per-cache hit/miss/put metrics that actuator publishes for every cache
+        // known at startup, which with on-the-fly creation disabled is every cache
+        RedisCacheWriter cacheWriter = RedisCacheWriter.nonLockingRedisCacheWriter(connectionFactory)
+                .withStatisticsCollector(CacheStatisticsCollector.create());
+        return new BoundedRedisCacheManager(cacheWriter, new StringRedisTemplate(connectionFactory),
+                RedisCacheConfiguration.defaultCacheConfig()
                         .entryTtl(Duration.ofMinutes(30))
-                        .disableCachingNullValues())
-                .withInitialCacheConfigurations(cacheConfigurations)
-                .build();
+                        .disableCachingNullValues(),
+                cacheConfigurations, CACHE_POLICIES);
+    }
+
+    /**
+     * Entry time-to-live and the entry count above which {@link BoundedRedisCacheManager} evicts the
+     * oldest entries on put.
+     */
+    public static final class CachePolicy {
+        private final Duration ttl;
+        private final int maxEntries;
+
+        public CachePolicy(Duration ttl, int maxEntries) {
+            this.ttl = ttl;
+            this.maxEntries = maxEntries;
+        }
+
+        public Duration getTtl() {
+            return ttl;
+        }
+
+        public int getMaxEntries() {
+            return maxEntries;
+        }
     }
 }
@@ -2,6 +2,7 @@ package com.fbadsautomation.config;
 
 import java.time.Duration;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.autoconfigure.http.HttpMessageConverters;
 import org.springframework.boot.web.client.RestTemplateBuilder;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
@@ -22,7 +23,8 @@ public class RestTemplateConfig {
     }
 
     @Bean
-    public RestTemplateBuilder restTemplateBuilder() {
-        return new RestTemplateBuilder();
+    public RestTemplateBuilder restTemplateBuilder(HttpMessageConverters messageConverters) {
+        // Read responses with the application's converters, and so with the shared ObjectMapper
+        return new RestTemplateBuilder().messageConverters(messageConverters.getConverters());
     };
     } 
\ No newline at end of file
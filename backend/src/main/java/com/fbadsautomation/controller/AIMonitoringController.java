@@ -1,5 +1,6 @@
 package com.fbadsautomation.controller;
 
+import com.fbadsautomation.ai.HuggingFaceModelAvailability;
 import com.fbadsautomation.dto.ApiResponse;
 import com.fbadsautomation.service.AIContentCacheService;
 import com.fbadsautomation.service.AIProviderService;
@@ -33,14 +34,17 @@ public class AIMonitoringController {
     private final AIProviderService aiProviderService;
     private final AIContentCacheService cacheService;
     private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final HuggingFaceModelAvailability modelAvailability;
 
     @Autowired
     public AIMonitoringController(AIProviderService aiProviderService, 
                                  AIContentCacheService cacheService,
-                                 CircuitBreakerRegistry circuitBreakerRegistry) {
+                                 CircuitBreakerRegistry circuitBreakerRegistry,
+                                 HuggingFaceModelAvailability modelAvailability) {
         this.aiProviderService = aiProviderService;
         this.cacheService = cacheService;
         this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.modelAvailability = modelAvailability;
     }
 
     @Operation(summary = "Get AI provider statistics", description = "Retrieves statistics for all AI providers")
@@ -77,6 +81,54 @@ public class AIMonitoringController {
         }
     }
 
+    @Operation(summary = "Get provider routing table", description = "Retrieves the live per-capability provider ranking used for fallbacks")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Routing table retrieved successfully"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/providers/routing")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getProviderRouting() {
+        
+        try {
+            Map<String, Object> routing = new HashMap<>();
+            routing.put("capabilities", aiProviderService.getRoutingTable());
+            routing.put("timestamp", System.currentTimeMillis());
+
+            return ResponseEntity.ok(ApiResponse.success("Routing table retrieved successfully", routing));
+            
+        } catch (Exception e) {
+            log.error("Error retrieving routing table: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.success("Failed to retrieve routing table", null));
+        }
+    }
+
+    @Operation(summary = "Get model availability", description = "Retrieves the warm/loading state of the Hugging Face inference models")
+    @ApiResponses(value = {
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Model availability retrieved successfully"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "401", description = "Unauthorized"),
+            @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "500", description = "Internal server error")
+    })
+    @GetMapping("/models")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<ApiResponse<Map<String, Object>>> getModelAvailability() {
+        
+        try {
+            Map<String, Object> availability = new HashMap<>();
+            availability.put("models", modelAvailability.snapshot());
+            availability.put("timestamp", System.currentTimeMillis());
+
+            return ResponseEntity.ok(ApiResponse.success("Model availability retrieved successfully", availability));
+            
+        } catch (Exception e) {
+            log.error("Error retrieving model availability: {}", e.getMessage(), e);
+            return ResponseEntity.internalServerError()
+                    .body(ApiResponse.success("Failed to retrieve model availability", null));
+        }
+    }
+
     @Operation(summary = "Get circuit breaker status", description = "Retrieves circuit breaker status for all AI providers")
     @ApiResponses(value = {
             @io.swagger.v3.oas.annotations.responses.ApiResponse(responseCode = "200", description = "Circuit breaker status retrieved successfully"),
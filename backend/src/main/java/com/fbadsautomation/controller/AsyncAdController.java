@@ -159,6 +159,12 @@ public class AsyncAdController {
             response.put("updatedAt", job.getUpdatedAt());
             response.put("completedAt", job.getCompletedAt()); // Can be null - OK in HashMap
             response.put("errorMessage", job.getErrorMessage() != null ? job.getErrorMessage() : "");
+            // Variations finished so far, while the rest of the batch is still generating
+            if (job.getStatus() == AsyncJobStatus.Status.IN_PROGRESS
+                    && job.getJobType() == AsyncJobStatus.JobType.AD_CONTENT_GENERATION) {
+                asyncJobService.getJobData(jobId, userId, List.class)
+                    .ifPresent(partial -> response.put("partialResult", partial));
+            }
 
             return ResponseEntity.ok(response);
 
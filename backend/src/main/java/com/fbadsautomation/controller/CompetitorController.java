@@ -21,16 +21,19 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import javax.validation.Valid;
 import javax.validation.constraints.Max;
 import javax.validation.constraints.Min;
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
+import java.io.IOException;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -60,6 +63,8 @@ public class CompetitorController {
     private final CompetitorService competitorService;
     private final ComparisonService comparisonService;
 
+    private static final long FETCH_STREAM_TIMEOUT_MS = 90_000L;
+
 
     /**
      * Fetch specific competitor ads by Facebook Ad Library URLs
@@ -119,6 +124,124 @@ public class CompetitorController {
     }
 
 
+    /**
+     * Fetch competitor ads by URLs, streaming each ad as soon as it is fetched
+     *
+     * Endpoint: POST /api/competitors/ads/fetch/stream
+     *
+     * Sends one {@code ad} server-sent event per fetched ad, in order of arrival, followed by a
+     * {@code done} event with the totals.
+     *
+     * @param request Request containing list of Ad Library URLs
+     * @param authentication Spring Security authentication
+     * @return Event stream of fetched competitor ads
+     */
+    @Operation(
+        summary = "Stream competitor ads by URLs",
+        description = "Fetch specific ads from Facebook Ad Library concurrently and stream each ad as a server-sent event. Maximum 10 URLs per request."
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Event stream started"),
+        @ApiResponse(responseCode = "400", description = "Invalid URLs or too many URLs (max 10)"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @PostMapping(value = "/ads/fetch/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<SseEmitter> streamCompetitorAdsByUrls(
+            @Valid @RequestBody FetchAdsRequest request,
+            Authentication authentication) {
+
+        log.info("Streaming {} competitor ads by URLs for user: {}",
+                 request.getAdUrls().size(), authentication.getName());
+
+        Long userId = getUserIdFromAuthentication(authentication);
+        SseEmitter emitter = new SseEmitter(FETCH_STREAM_TIMEOUT_MS);
+        competitorService.streamCompetitorAdsByUrls(request.getAdUrls(), userId, ad -> {
+            try {
+                emitter.send(SseEmitter.event().name("ad").data(ad, MediaType.APPLICATION_JSON));
+            } catch (IOException e) {
+                // The client went away; the remaining fetches still warm the ad cache
+                log.debug("Competitor ad stream closed by client: {}", e.getMessage());
+            }
+        }).whenComplete((fetched, error) -> {
+            if (error != null) {
+                emitter.completeWithError(error);
+                return;
+            }
+            try {
+                Map<String, Object> summary = new HashMap<>();
+                summary.put("totalRequested", request.getAdUrls().size());
+                summary.put("totalFetched", fetched);
+                emitter.send(SseEmitter.event().name("done").data(summary, MediaType.APPLICATION_JSON));
+                emitter.complete();
+            } catch (IOException e) {
+                emitter.completeWithError(e);
+            }
+        });
+        return ResponseEntity.ok(emitter);
+    }
+
+    /**
+     * Search a brand's ads, from the local competitor corpus first
+     *
+     * Endpoint: GET /api/competitors/ads/brand
+     *
+     * @param name Brand or advertiser name
+     * @param country ISO country code, omitted for all countries
+     * @param limit Maximum ads
+     * @param authentication Spring Security authentication
+     * @return Ads of the brand
+     */
+    @Operation(
+        summary = "Search competitor ads by brand",
+        description = "Answered from the local ad corpus when the brand was searched before; stale brands are refreshed in the background"
+    )
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Search successful"),
+        @ApiResponse(responseCode = "400", description = "Missing brand name"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @GetMapping("/ads/brand")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<Map<String, Object>> searchBrandAds(
+            @Parameter(description = "Brand name") @RequestParam @NotBlank String name,
+            @Parameter(description = "ISO country code") @RequestParam(required = false) String country,
+            @Parameter(description = "Max ads") @RequestParam(defaultValue = "20") @Min(1) @Max(50) int limit,
+            Authentication authentication) {
+
+        log.info("Searching ads of brand '{}' ({}) for user: {}", name, country, authentication.getName());
+
+        Long userId = getUserIdFromAuthentication(authentication);
+        List<CompetitorAdDTO> ads = competitorService.searchBrandAds(name, country, limit, userId);
+
+        Map<String, Object> response = new HashMap<>();
+        response.put("success", true);
+        response.put("totalFetched", ads.size());
+        response.put("ads", ads);
+        return ResponseEntity.ok(response);
+    }
+
+    /**
+     * Full-text search over stored competitor ads
+     *
+     * Endpoint: GET /api/competitors/ads/corpus/search
+     *
+     * @param q Words or phrase to search for
+     * @param limit Maximum ads
+     * @return Matching ads, best match first
+     */
+    @Operation(
+        summary = "Search stored competitor ads",
+        description = "Full-text and fuzzy search over the headline and copy of every competitor ad fetched so far"
+    )
+    @GetMapping("/ads/corpus/search")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<List<CompetitorAdDTO>> searchCorpus(
+            @Parameter(description = "Search text") @RequestParam @NotBlank String q,
+            @Parameter(description = "Max ads") @RequestParam(defaultValue = "20") @Min(1) @Max(50) int limit) {
+        return ResponseEntity.ok(competitorService.searchCorpus(q, limit));
+    }
+
     /**
      * Get search history for current user
      *
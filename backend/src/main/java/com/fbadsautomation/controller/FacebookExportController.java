@@ -1,6 +1,10 @@
 package com.fbadsautomation.controller;
 
+import com.fbadsautomation.dto.FacebookAutoExportResponse;
+import com.fbadsautomation.dto.FacebookAutoUploadProgress;
 import com.fbadsautomation.dto.FacebookExportResponse;
+import com.fbadsautomation.model.Ad;
+import com.fbadsautomation.service.FacebookAutoUploadService;
 import com.fbadsautomation.service.FacebookExportService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -12,9 +16,12 @@ import lombok.RequiredArgsConstructor;
 
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
+import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import javax.validation.Valid;
 import javax.validation.constraints.NotNull;
@@ -31,6 +38,7 @@ public class FacebookExportController {
     private static final Logger log = LoggerFactory.getLogger(FacebookExportController.class);
 
     private final FacebookExportService facebookExportService;
+    private final FacebookAutoUploadService facebookAutoUploadService;
 
     @Operation(summary = "Export single ad to CSV", description = "Export a single ad to Facebook CSV template")
     @ApiResponses(value = {
@@ -75,17 +83,74 @@ public class FacebookExportController {
     @PreAuthorize("hasRole('USER')")
     public ResponseEntity<FacebookExportResponse> bulkExportAds(
             @Parameter(description = "Export request with ad IDs and format", required = true)
-            @RequestBody @Valid BulkExportRequest request) {
+            @RequestBody @Valid BulkExportRequest request,
+            Authentication authentication) {
         log.info("Bulk exporting {} ads in format: {}", request.getAdIds().size(), request.getFormat());
         var response = facebookExportService.exportAdsBulk(
             request.getAdIds(),
             request.getFormat(),
             Boolean.TRUE.equals(request.getAutoUpload()),
-            request.getAdAccountId()
+            request.getAdAccountId(),
+            Long.parseLong(authentication.getName())
         );
         return ResponseEntity.ok(response);
     }
 
+    @Operation(summary = "Stream normalized payloads",
+               description = "Stream the normalized Facebook payloads of multiple ads as a JSON array")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Payloads streamed successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid request or ad data"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @PostMapping(value = "/ads/bulk/payloads", produces = MediaType.APPLICATION_JSON_VALUE)
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<StreamingResponseBody> streamPayloads(
+            @Parameter(description = "List of ad IDs to build payloads for", required = true)
+            @RequestBody @Valid @NotNull @Size(min = 1, max = 1000) List<Long> adIds,
+            Authentication authentication) {
+        log.info("Streaming Facebook payloads for {} ads", adIds.size());
+        List<Ad> ads = facebookExportService.loadAdsForExport(adIds, Long.parseLong(authentication.getName()));
+        StreamingResponseBody body = outputStream -> facebookExportService.writePayloads(ads, outputStream);
+        return ResponseEntity.ok().contentType(MediaType.APPLICATION_JSON).body(body);
+    }
+
+    @Operation(summary = "Get auto-upload progress",
+               description = "Per-ad status of a Facebook auto-upload job started by bulk export")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Progress retrieved successfully"),
+        @ApiResponse(responseCode = "404", description = "Job not found"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @GetMapping("/auto-upload/jobs/{jobId}")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<FacebookAutoUploadProgress> getAutoUploadProgress(
+            @Parameter(description = "Auto-upload job ID", required = true)
+            @PathVariable String jobId,
+            Authentication authentication) {
+        Long userId = Long.parseLong(authentication.getName());
+        return ResponseEntity.ok(facebookAutoUploadService.getProgress(jobId, userId));
+    }
+
+    @Operation(summary = "Resume auto-upload",
+               description = "Retry a finished auto-upload job, continuing each ad from its last completed step")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Job resumed"),
+        @ApiResponse(responseCode = "404", description = "Job not found"),
+        @ApiResponse(responseCode = "409", description = "Job is still running"),
+        @ApiResponse(responseCode = "401", description = "Unauthorized")
+    })
+    @PostMapping("/auto-upload/jobs/{jobId}/resume")
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<FacebookAutoExportResponse> resumeAutoUpload(
+            @Parameter(description = "Auto-upload job ID", required = true)
+            @PathVariable String jobId,
+            Authentication authentication) {
+        Long userId = Long.parseLong(authentication.getName());
+        log.info("Resuming Facebook auto-upload job {}", jobId);
+        return ResponseEntity.ok(facebookAutoUploadService.resumeAutoUpload(jobId, userId));
+    }
+
     @Operation(summary = "Preview Facebook format for single ad",
                description = "Preview how the ad will appear in Facebook export format without downloading")
     @ApiResponses(value = {
@@ -11,6 +11,7 @@ import com.fbadsautomation.dto.OptimizationResponse;
 import com.fbadsautomation.dto.SaveAdOptimizationInsightRequest;
 import com.fbadsautomation.service.AdOptimizationInsightService;
 import com.fbadsautomation.service.OptimizationService;
+import java.io.IOException;
 import java.util.List;
 import java.util.ArrayList;
 import java.util.Map;
@@ -20,16 +21,20 @@ import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.security.access.prepost.PreAuthorize;
 import org.springframework.security.core.Authentication;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 @RestController
 @RequestMapping("/optimization")
 public class OptimizationController {
 
     private static final Logger log = LoggerFactory.getLogger(OptimizationController.class);
+
+    private static final long INSIGHT_STREAM_TIMEOUT_MS = 180_000L;
     
     private final OptimizationService optimizationService;
     private final AdOptimizationInsightService adOptimizationInsightService;
@@ -81,6 +86,46 @@ public class OptimizationController {
         }
     }
 
+    /**
+     * Same analysis as {@code /ad-insights/analyze}, streamed as server-sent events: one {@code insight}
+     * event per ad as soon as its copy review is ready, then a {@code done} event with the totals.
+     */
+    @PostMapping(value = "/ad-insights/analyze/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    @PreAuthorize("hasRole('USER')")
+    public ResponseEntity<SseEmitter> streamAdInsights(
+            @RequestBody AdOptimizationAnalyzeRequest request,
+            Authentication authentication) {
+        Long userId = getUserIdFromAuthentication(authentication);
+        SseEmitter emitter = new SseEmitter(INSIGHT_STREAM_TIMEOUT_MS);
+        try {
+            adOptimizationInsightService.streamInsights(userId, request, insight -> {
+                try {
+                    emitter.send(SseEmitter.event().name("insight").data(insight, MediaType.APPLICATION_JSON));
+                } catch (IOException e) {
+                    // The client went away; the remaining reviews still warm the review cache
+                    log.debug("Ad insight stream closed by client: {}", e.getMessage());
+                }
+            }).whenComplete((analyzed, error) -> {
+                if (error != null) {
+                    emitter.completeWithError(error);
+                    return;
+                }
+                try {
+                    emitter.send(SseEmitter.event().name("done")
+                        .data(Map.of("totalRequested", request.getAdIds().size(), "totalAnalyzed", analyzed),
+                            MediaType.APPLICATION_JSON));
+                    emitter.complete();
+                } catch (IOException e) {
+                    emitter.completeWithError(e);
+                }
+            });
+        } catch (IllegalArgumentException e) {
+            log.warn("Invalid ad insight request: {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(emitter);
+    }
+
     /**
      * Persist an optimization snapshot so the user can revisit it later.
      */
@@ -2,8 +2,8 @@ package com.fbadsautomation.controller;
 
 import com.fbadsautomation.model.AdContent;
 import com.fbadsautomation.repository.AdContentRepository;
-import com.fbadsautomation.service.AdQualityScoringService;
 import com.fbadsautomation.service.AdQualityScoringService.AdQualityScore;
+import com.fbadsautomation.service.QualityScoreService;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.http.ResponseEntity;
@@ -17,7 +17,7 @@ import java.util.*;
 @RequiredArgsConstructor
 public class QualityScoringController {
 
-    private final AdQualityScoringService qualityScoringService;
+    private final QualityScoreService qualityScoreService;
     private final AdContentRepository adContentRepository;
 
     /**
@@ -33,28 +33,32 @@ public class QualityScoringController {
         }
 
         AdContent adContent = adContentOpt.get();
-        AdQualityScore score = qualityScoringService.calculateQualityScore(adContent);
+        AdQualityScore score = qualityScoreService.getScore(adContent);
 
         return ResponseEntity.ok(score.toMap());
     }
 
     /**
      * Calculate quality scores for multiple ad contents in batch.
+     * Unknown ids are skipped; scores are returned in request order.
      */
     @PostMapping("/score/batch")
     public ResponseEntity<List<Map<String, Object>>> getQualityScoreBatch(
             @RequestBody List<Long> adContentIds) {
         log.info("Calculating quality scores for {} ad contents", adContentIds.size());
 
-        List<Map<String, Object>> scores = new ArrayList<>();
-
-        for (Long id : adContentIds) {
-            Optional<AdContent> adContentOpt = adContentRepository.findById(id);
-            if (adContentOpt.isPresent()) {
-                AdQualityScore score = qualityScoringService.calculateQualityScore(adContentOpt.get());
-                scores.add(score.toMap());
-            }
+        Map<Long, AdContent> found = new HashMap<>();
+        for (AdContent adContent : adContentRepository.findAllById(adContentIds)) {
+            found.put(adContent.getId(), adContent);
         }
+        List<AdContent> adContents = adContentIds.stream()
+                .filter(found::containsKey)
+                .map(found::get)
+                .toList();
+
+        List<Map<String, Object>> scores = qualityScoreService.getScores(adContents).stream()
+                .map(AdQualityScore::toMap)
+                .toList();
 
         return ResponseEntity.ok(scores);
     }
@@ -64,70 +68,22 @@ public class QualityScoringController {
      */
     @GetMapping("/stats/ad/{adId}")
     public ResponseEntity<Map<String, Object>> getAdQualityStats(@PathVariable Long adId) {
-        log.info("Calculating quality statistics for ad: {}", adId);
-
-        List<AdContent> adContents = adContentRepository.findByAdId(adId);
+        log.info("Loading quality statistics for ad: {}", adId);
 
-        if (adContents.isEmpty()) {
-            return ResponseEntity.notFound().build();
-        }
+        return qualityScoreService.getAdStats(adId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
+    }
 
-        List<AdQualityScore> scores = adContents.stream()
-                .map(qualityScoringService::calculateQualityScore)
-                .toList();
+    /**
+     * Get quality score statistics for a campaign (all content variations of its ads).
+     */
+    @GetMapping("/stats/campaign/{campaignId}")
+    public ResponseEntity<Map<String, Object>> getCampaignQualityStats(@PathVariable Long campaignId) {
+        log.info("Loading quality statistics for campaign: {}", campaignId);
 
-        // Calculate statistics
-        DoubleSummaryStatistics totalStats = scores.stream()
-                .mapToDouble(AdQualityScore::getTotalScore)
-                .summaryStatistics();
-
-        DoubleSummaryStatistics complianceStats = scores.stream()
-                .mapToDouble(AdQualityScore::getComplianceScore)
-                .summaryStatistics();
-
-        DoubleSummaryStatistics linguisticStats = scores.stream()
-                .mapToDouble(AdQualityScore::getLinguisticScore)
-                .summaryStatistics();
-
-        DoubleSummaryStatistics persuasivenessStats = scores.stream()
-                .mapToDouble(AdQualityScore::getPersuasivenessScore)
-                .summaryStatistics();
-
-        DoubleSummaryStatistics completenessStats = scores.stream()
-                .mapToDouble(AdQualityScore::getCompletenessScore)
-                .summaryStatistics();
-
-        Map<String, Object> stats = new HashMap<>();
-        stats.put("count", scores.size());
-        stats.put("totalScore", Map.of(
-                "average", totalStats.getAverage(),
-                "min", totalStats.getMin(),
-                "max", totalStats.getMax()
-        ));
-        stats.put("complianceScore", Map.of(
-                "average", complianceStats.getAverage(),
-                "min", complianceStats.getMin(),
-                "max", complianceStats.getMax()
-        ));
-        stats.put("linguisticScore", Map.of(
-                "average", linguisticStats.getAverage(),
-                "min", linguisticStats.getMin(),
-                "max", linguisticStats.getMax()
-        ));
-        stats.put("persuasivenessScore", Map.of(
-                "average", persuasivenessStats.getAverage(),
-                "min", persuasivenessStats.getMin(),
-                "max", persuasivenessStats.getMax()
-        ));
-        stats.put("completenessScore", Map.of(
-                "average", completenessStats.getAverage(),
-                "min", completenessStats.getMin(),
-                "max", completenessStats.getMax()
-        ));
-
-        // Include all individual scores
-        stats.put("scores", scores.stream().map(AdQualityScore::toMap).toList());
-
-        return ResponseEntity.ok(stats);
+        return qualityScoreService.getCampaignStats(campaignId)
+                .map(ResponseEntity::ok)
+                .orElseGet(() -> ResponseEntity.notFound().build());
     }
 }
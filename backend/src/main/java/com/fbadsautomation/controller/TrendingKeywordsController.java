@@ -60,7 +60,6 @@ public class TrendingKeywordsController {
             @RequestParam(name = "location", required = false) String location,
             @RequestParam(name = "region", required = false) String legacyRegion,
             @RequestParam(defaultValue = "en") String language,
-            @RequestParam(name = "num", defaultValue = "10") Integer limit,
             Authentication authentication) {
 
         // Cache clearing requires authentication
@@ -71,10 +70,11 @@ public class TrendingKeywordsController {
         }
 
         String resolvedLocation = location != null ? location : (legacyRegion != null ? legacyRegion : "US");
-        log.info("User {} clearing trend cache for query: {} in location: {} (language={}, limit={})",
-                authentication.getName(), query, resolvedLocation, language, limit);
+        // One entry serves every limit, so the limit no longer selects what to clear
+        log.info("User {} clearing trend cache for query: {} in location: {} (language={})",
+                authentication.getName(), query, resolvedLocation, language);
 
-        trendingKeywordsService.clearTrendCache(query, resolvedLocation, language, limit);
+        trendingKeywordsService.clearTrendCache(query, resolvedLocation, language);
 
         return ResponseEntity.ok("Cache cleared successfully");
     }
@@ -1,5 +1,6 @@
 package com.fbadsautomation.dto;
 
+import java.io.Serializable;
 import java.util.ArrayList;
 import java.util.List;
 
@@ -8,7 +9,9 @@ import java.util.List;
  * (headline, description, primary text). Used by the optimization
  * view to render actionable insights and rewrite suggestions.
  */
-public class AdCopyReviewDTO {
+public class AdCopyReviewDTO implements Serializable {
+
+    private static final long serialVersionUID = 1L;
 
     private String personaSummary;
     private double overallScore;
@@ -47,7 +50,9 @@ public class AdCopyReviewDTO {
         this.sections = sections;
     }
 
-    public static class SectionReview {
+    public static class SectionReview implements Serializable {
+        private static final long serialVersionUID = 1L;
+
         private String section;
         private double score;
         private String verdict;
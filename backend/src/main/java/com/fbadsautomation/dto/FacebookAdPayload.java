@@ -29,7 +29,7 @@ public class FacebookAdPayload {
     }
 
     @Value
-    @Builder
+    @Builder(toBuilder = true)
     public static class AdSetPayload {
         String name;
         String status;
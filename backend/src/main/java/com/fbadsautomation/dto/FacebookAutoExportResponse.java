@@ -9,17 +9,20 @@ import java.util.List;
 /**
  * Response returned after automatically exporting ads to Facebook.
  * Captures status, message, API upload results, and the redirect URL for Ads Manager.
+ * Uploads run as an async job; QUEUED responses carry the job id to poll for per-ad progress.
  */
 @Value
 @Builder
 public class FacebookAutoExportResponse {
     AutoUploadStatus status;
     String message;
+    String jobId;
     List<FacebookMarketingApiClient.UploadResult> results;
     String adsManagerUrl;
 
     public enum AutoUploadStatus {
         SKIPPED,
+        QUEUED,
         UPLOADED,
         FAILED
     }
@@ -0,0 +1,33 @@
+package com.fbadsautomation.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fbadsautomation.integration.facebook.FacebookMarketingApiClient;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Per-ad progress of a Facebook auto-upload job. Stored as the job's resultData while the job runs,
+ * so a failed or interrupted upload can resume from each ad's last completed step.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class FacebookAutoUploadProgress {
+    private String jobId;
+    private String adAccountId;
+    private String adsManagerUrl;
+    @Builder.Default
+    private List<Long> adIds = new ArrayList<>();
+    private int totalAds;
+    private int uploadedAds;
+    private int failedAds;
+    @Builder.Default
+    private List<FacebookMarketingApiClient.UploadResult> ads = new ArrayList<>();
+}
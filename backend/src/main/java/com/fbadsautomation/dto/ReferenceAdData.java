@@ -1,5 +1,6 @@
 package com.fbadsautomation.dto;
 
+import java.io.Serializable;
 import java.util.List;
 import lombok.Builder;
 import lombok.Value;
@@ -8,8 +9,10 @@ import lombok.Value;
  * Structured representation của quảng cáo tham chiếu từ Meta Ad Library.
  */
 @Value
-@Builder
-public class ReferenceAdData {
+@Builder(toBuilder = true)
+public class ReferenceAdData implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     String headline;
     String primaryText;
     String description;
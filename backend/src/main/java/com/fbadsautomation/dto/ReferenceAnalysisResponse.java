@@ -1,6 +1,7 @@
 package com.fbadsautomation.dto;
 
 import com.fbadsautomation.model.FacebookCTA;
+import java.io.Serializable;
 import java.util.Map;
 import lombok.Builder;
 import lombok.Value;
@@ -10,7 +11,9 @@ import lombok.Value;
  */
 @Value
 @Builder
-public class ReferenceAnalysisResponse {
+public class ReferenceAnalysisResponse implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     boolean success;
     String referenceAdId;
     String referenceContent;
@@ -24,7 +27,9 @@ public class ReferenceAnalysisResponse {
 
     @Value
     @Builder
-    public static class ReferenceInsights {
+    public static class ReferenceInsights implements Serializable {
+        private static final long serialVersionUID = 1L;
+
         int wordCount;
         int sentenceCount;
         boolean containsCallToAction;
@@ -0,0 +1,20 @@
+package com.fbadsautomation.dto;
+
+import com.fbadsautomation.model.FacebookCTA;
+import java.io.Serializable;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Kết quả phân tích nội dung quảng cáo tham chiếu, cache theo hash của nội dung.
+ */
+@Value
+@Builder
+public class ReferenceContentAnalysis implements Serializable {
+    private static final long serialVersionUID = 1L;
+
+    String detectedStyle;
+    FacebookCTA suggestedCallToAction;
+    ReferenceAnalysisResponse.ReferenceInsights insights;
+    ReferenceStyleProfile styleProfile;
+}
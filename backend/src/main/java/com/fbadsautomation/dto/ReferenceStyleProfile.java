@@ -1,5 +1,6 @@
 package com.fbadsautomation.dto;
 
+import java.io.Serializable;
 import java.util.List;
 import lombok.Builder;
 import lombok.Value;
@@ -9,7 +10,9 @@ import lombok.Value;
  */
 @Value
 @Builder
-public class ReferenceStyleProfile {
+public class ReferenceStyleProfile implements Serializable {
+    private static final long serialVersionUID = 1L;
+
     String hookType;
     String tone;
     String pacing;
@@ -10,6 +10,7 @@ public class SaveAdOptimizationInsightRequest {
     private String language;
     private Map<String, List<String>> suggestions;
     private AdOptimizationInsightDTO.Scorecard scorecard;
+    private AdCopyReviewDTO copyReview;
 
     public Long getAdId() {
         return adId;
@@ -58,4 +59,12 @@ public class SaveAdOptimizationInsightRequest {
     public void setScorecard(AdOptimizationInsightDTO.Scorecard scorecard) {
         this.scorecard = scorecard;
     }
+
+    public AdCopyReviewDTO getCopyReview() {
+        return copyReview;
+    }
+
+    public void setCopyReview(AdCopyReviewDTO copyReview) {
+        this.copyReview = copyReview;
+    }
 }
@@ -0,0 +1,21 @@
+package com.fbadsautomation.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import java.io.Serializable;
+import java.util.List;
+
+/**
+ * Cached trending keywords of one query/location/language, fetched at the largest supported limit
+ */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class TrendSnapshot implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private List<TrendingKeyword> keywords;
+    private long fetchedAtMillis;
+}
@@ -0,0 +1,31 @@
+package com.fbadsautomation.dto.provider;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Fields of an Anthropic message response that the providers read
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AnthropicMessageResponse {
+
+    private List<ContentBlock> content = Collections.emptyList();
+
+    public String firstText() {
+        if (content == null || content.isEmpty()) {
+            return null;
+        }
+        return content.get(0).getText();
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class ContentBlock {
+        private String type;
+        private String text;
+    }
+}
@@ -0,0 +1,30 @@
+package com.fbadsautomation.dto.provider;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+/**
+ * Fields of an Anthropic message stream event that the providers read
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class AnthropicStreamEvent {
+
+    private String type;
+    private Delta delta;
+    private ErrorDetail error;
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Delta {
+        private String type;
+        private String text;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class ErrorDetail {
+        private String type;
+        private String message;
+    }
+}
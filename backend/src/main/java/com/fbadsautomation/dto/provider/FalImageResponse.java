@@ -0,0 +1,30 @@
+package com.fbadsautomation.dto.provider;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.List;
+
+/**
+ * Fields of a Fal.ai generation ({@code images}) or enhancement ({@code image}) response
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class FalImageResponse {
+
+    private List<Image> images;
+    private Image image;
+
+    public String firstImageUrl() {
+        if (images != null && !images.isEmpty()) {
+            return images.get(0).getUrl();
+        }
+        return image != null ? image.getUrl() : null;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Image {
+        private String url;
+    }
+}
@@ -0,0 +1,52 @@
+package com.fbadsautomation.dto.provider;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Fields of a Gemini generateContent response (or streamed chunk) that the providers read
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class GeminiGenerateResponse {
+
+    private List<Candidate> candidates = Collections.emptyList();
+
+    /**
+     * Text parts of the first candidate, empty when it has none
+     */
+    public List<Part> firstCandidateParts() {
+        if (candidates == null || candidates.isEmpty() || candidates.get(0).getContent() == null
+                || candidates.get(0).getContent().getParts() == null) {
+            return Collections.emptyList();
+        }
+        return candidates.get(0).getContent().getParts();
+    }
+
+    public String firstText() {
+        List<Part> parts = firstCandidateParts();
+        return parts.isEmpty() ? null : parts.get(0).getText();
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Candidate {
+        private Content content;
+        private String finishReason;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Content {
+        private List<Part> parts = Collections.emptyList();
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Part {
+        private String text;
+    }
+}
@@ -0,0 +1,64 @@
+package com.fbadsautomation.dto.provider;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Fields of a Gemini Imagen predict response. Image fields are {@code byte[]} so the base64 payload is
+ * decoded straight from the response stream instead of being held as a String first.
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class GeminiPredictResponse {
+
+    private List<Prediction> predictions = Collections.emptyList();
+
+    /**
+     * Image bytes of the first prediction, in any of the response layouts the API has used, or
+     * {@code null} when there is none
+     */
+    public byte[] firstImage() {
+        if (predictions == null || predictions.isEmpty()) {
+            return null;
+        }
+        Prediction prediction = predictions.get(0);
+        // Current layout: predictions[0].bytesBase64Encoded
+        if (prediction.getBytesBase64Encoded() != null) {
+            return prediction.getBytesBase64Encoded();
+        }
+        // predictions[0].candidates[0].content
+        if (prediction.getCandidates() != null && !prediction.getCandidates().isEmpty()) {
+            return prediction.getCandidates().get(0).getContent();
+        }
+        // Legacy layout: predictions[0].generatedImages[0].imageBytes
+        if (prediction.getGeneratedImages() != null && !prediction.getGeneratedImages().isEmpty()) {
+            return prediction.getGeneratedImages().get(0).getImageBytes();
+        }
+        return null;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Prediction {
+        private byte[] bytesBase64Encoded;
+        private String mimeType;
+        private List<ImageCandidate> candidates;
+        private List<GeneratedImage> generatedImages;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class ImageCandidate {
+        private byte[] content;
+        private String mimeType;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class GeneratedImage {
+        private byte[] imageBytes;
+    }
+}
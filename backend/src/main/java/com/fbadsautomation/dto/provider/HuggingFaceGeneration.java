@@ -0,0 +1,16 @@
+package com.fbadsautomation.dto.provider;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+/**
+ * One element of a Hugging Face text generation response
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class HuggingFaceGeneration {
+
+    @JsonProperty("generated_text")
+    private String generatedText;
+}
@@ -0,0 +1,39 @@
+package com.fbadsautomation.dto.provider;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import lombok.Data;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Fields of an OpenAI chat completion (or streamed completion chunk) that the providers read
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class OpenAIChatResponse {
+
+    private List<Choice> choices = Collections.emptyList();
+
+    public String firstContent() {
+        if (choices == null || choices.isEmpty() || choices.get(0).getMessage() == null) {
+            return null;
+        }
+        return choices.get(0).getMessage().getContent();
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Choice {
+        private int index;
+        private Message message;
+        // Set instead of message on streamed chunks
+        private Message delta;
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Message {
+        private String content;
+    }
+}
@@ -0,0 +1,34 @@
+package com.fbadsautomation.dto.provider;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+import com.fasterxml.jackson.annotation.JsonProperty;
+import lombok.Data;
+
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Fields of an OpenAI image generation or edit response that the providers read
+ */
+@Data
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class OpenAIImageResponse {
+
+    private List<Image> data = Collections.emptyList();
+
+    public String firstUrl() {
+        if (data == null || data.isEmpty()) {
+            return null;
+        }
+        return data.get(0).getUrl();
+    }
+
+    @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
+    public static class Image {
+        private String url;
+        // Decoded while parsing when response_format is b64_json
+        @JsonProperty("b64_json")
+        private byte[] b64Json;
+    }
+}
@@ -4,6 +4,7 @@ import com.fbadsautomation.ai.AIProvider; // Import the main interface
 import com.fbadsautomation.ai.GeminiProvider;
 import com.fbadsautomation.ai.HuggingFaceProvider;
 import com.fbadsautomation.ai.OpenAIProvider;
+import com.fbadsautomation.config.PromptBudgetConfig;
 import com.fbadsautomation.exception.ApiException;
 import com.fbadsautomation.model.AdContent; // Import AdContent
 import com.fbadsautomation.model.AdType; // Import AdType
@@ -11,20 +12,35 @@ import com.fbadsautomation.service.AIContentValidationService;
 import com.fbadsautomation.service.AIProviderService;
 import com.fbadsautomation.service.MetaAdLibraryService;
 import com.fbadsautomation.service.MinIOStorageService;
+import com.fbadsautomation.service.NearDuplicateDetectionService;
+import com.fbadsautomation.service.PromptCompactionService;
 import com.fbadsautomation.service.security.ContentModerationService;
 import com.fbadsautomation.service.security.PromptSecurityService;
 import com.fbadsautomation.util.ByteArrayMultipartFile;
+import com.fbadsautomation.util.ConcurrencyLimiter;
 import com.fbadsautomation.util.ValidationMessages;
 import com.fbadsautomation.util.ValidationMessages.Language;
+import com.fbadsautomation.util.text.AssembledPrompt;
 import java.io.ByteArrayInputStream;
 import java.net.URL;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.task.TaskExecutor;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
@@ -43,6 +59,8 @@ public class AIContentServiceImpl {
     private final MinIOStorageService minIOStorageService;
     private final PromptSecurityService promptSecurityService;
     private final ContentModerationService contentModerationService;
+    private final NearDuplicateDetectionService nearDuplicateDetectionService;
+    private final PromptCompactionService promptCompactionService;
 
     @Value("${ai.default.image-provider:gemini}")
     private String defaultImageProvider;
@@ -50,6 +68,20 @@ public class AIContentServiceImpl {
     @Autowired(required = false)
     private com.fbadsautomation.service.PersonaSelectorService personaSelectorService;
 
+    @Autowired(required = false)
+    @Qualifier("imageProcessingExecutor")
+    private TaskExecutor imageProcessingExecutor;
+
+    @Autowired(required = false)
+    @Qualifier("variationGenerationExecutor")
+    private TaskExecutor variationGenerationExecutor;
+
+    @Value("${ai.variations.max-concurrent-per-provider:3}")
+    private int maxConcurrentVariationsPerProvider = 3;
+
+    // Text provider -> cap on its concurrent per-variation generations
+    private final Map<String, ConcurrencyLimiter> variationLimiters = new ConcurrentHashMap<>();
+
     @Autowired(required = false)
     private com.fbadsautomation.service.MultiStagePromptBuilder multiStagePromptBuilder;
 
@@ -65,13 +97,17 @@ public class AIContentServiceImpl {
                                AIContentValidationService validationService,
                                MinIOStorageService minIOStorageService,
                                PromptSecurityService promptSecurityService,
-                               ContentModerationService contentModerationService) {
+                               ContentModerationService contentModerationService,
+                               NearDuplicateDetectionService nearDuplicateDetectionService,
+                               PromptCompactionService promptCompactionService) {
         this.aiProviderService = aiProviderService;
         this.metaAdLibraryService = metaAdLibraryService;
         this.validationService = validationService;
         this.minIOStorageService = minIOStorageService;
         this.promptSecurityService = promptSecurityService;
         this.contentModerationService = contentModerationService;
+        this.nearDuplicateDetectionService = nearDuplicateDetectionService;
+        this.promptCompactionService = promptCompactionService;
     }
 
     /**
@@ -120,6 +156,35 @@ public class AIContentServiceImpl {
                                                         com.fbadsautomation.model.Persona userSelectedPersona,
                                                         List<String> trendingKeywords,
                                                         boolean enforceLengthLimits) {
+        return generateContentWithCampaign(prompt, contentType, textProvider, imageProvider, numberOfVariations,
+            language, adLinks, extractedContent, mediaFileUrl, callToAction, campaign, adStyle, userSelectedPersona,
+            trendingKeywords, enforceLengthLimits, null);
+    }
+
+    /**
+     * Streaming variant of {@link #generateContentWithCampaign}: variations are read from the provider's
+     * token stream and each one is moderated, de-duplicated, given its image and validated as soon as it
+     * is complete, then handed to {@code onVariationReady}, while later variations are still being written.
+     *
+     * @param onVariationReady receives every finished variation, from image worker threads; {@code null}
+     *                         generates the whole batch before any image, as the non-streaming variant does
+     */
+    public List<AdContent> generateContentWithCampaign(String prompt,
+                                                        AdContent.ContentType contentType,
+                                                        String textProvider,
+                                                        String imageProvider,
+                                                        int numberOfVariations,
+                                                        String language,
+                                                        List<String> adLinks,
+                                                        String extractedContent,
+                                                        String mediaFileUrl,
+                                                        com.fbadsautomation.model.FacebookCTA callToAction,
+                                                        com.fbadsautomation.model.Campaign campaign,
+                                                        com.fbadsautomation.model.AdStyle adStyle,
+                                                        com.fbadsautomation.model.Persona userSelectedPersona,
+                                                        List<String> trendingKeywords,
+                                                        boolean enforceLengthLimits,
+                                                        Consumer<AdContent> onVariationReady) {
 
         String providerId = (textProvider == null || textProvider.isBlank())
                 ? "openai" : textProvider;
@@ -130,165 +195,406 @@ public class AIContentServiceImpl {
                  userSelectedPersona != null ? userSelectedPersona.getName() : "auto-select",
                  trendingKeywords != null ? trendingKeywords.size() : 0);
 
-        AIProvider textAI = aiProviderService.getProvider(providerId);
-        if (textAI == null) {
-            log.error("Unsupported text AI provider: {}", providerId);
-            throw new ApiException(HttpStatus.BAD_REQUEST, "Unsupported AI provider: " + providerId);
-        }
+        requireTextProvider(providerId);
 
         // Build base prompt (user prompt + reference data) with sanitization
-        String finalPrompt = buildFinalPrompt(prompt, adLinks, extractedContent, language);
+        String finalPrompt = buildFinalPrompt(prompt, adLinks, extractedContent, language, providerId);
 
         try {
-            AdType adType = convertContentTypeToAdType(contentType);
-            // Issue #9: Use new enhancePromptWithCampaign method
-            // Phase 1 & 2: Pass persona and trending keywords
             com.fbadsautomation.model.FacebookCTA cta = callToAction != null ? callToAction : com.fbadsautomation.model.FacebookCTA.LEARN_MORE;
+            String enhancedPrompt = buildEnhancedPrompt(prompt, finalPrompt, contentType, cta, campaign, adStyle,
+                userSelectedPersona, trendingKeywords, numberOfVariations, providerId);
 
-            PromptBuildResult promptResult;
-            if (isReferenceDrivenPrompt(prompt)) {
-                log.info("[Prompt] Using reference-first prompt without CoT enrichment");
-                promptResult = PromptBuildResult.of(finalPrompt, PromptStrategy.REFERENCE);
-            } else {
-                promptResult = enhancePromptWithCampaign(
-                    finalPrompt,
-                    adType,
-                    campaign,
-                    adStyle,
-                    userSelectedPersona,
-                    trendingKeywords,
-                    cta,
-                    numberOfVariations
-                );
-            }
+            log.info("[Phase 1&2] Generating {} variations with campaign audience, persona, and trending keywords", numberOfVariations);
 
-            String enhancedPrompt = promptResult.getPrompt();
-            log.info("[Prompt] Strategy={} - Final prompt built ({} chars):\n{}",
-                promptResult.getStrategy(),
-                enhancedPrompt.length(),
-                enhancedPrompt);
+            Long ownerId = campaign != null && campaign.getUser() != null ? campaign.getUser().getId() : null;
+            final String imageSubject = deriveImageSubject(prompt, extractedContent);
+            // Use specified provider or default to Gemini
+            String effectiveImageProvider = (imageProvider != null && !imageProvider.isBlank())
+                ? imageProvider
+                : defaultImageProvider;
+
+            if (onVariationReady != null) {
+                return streamVariations(enhancedPrompt, textProvider, numberOfVariations, language, adLinks, cta,
+                    ownerId, mediaFileUrl, new ImageRun(effectiveImageProvider, imageSubject, adStyle),
+                    enforceLengthLimits, onVariationReady);
+            }
 
-            log.info("[Phase 1&2] Generating {} variations with campaign audience, persona, and trending keywords", numberOfVariations);
+            return generateFromPrompt(enhancedPrompt, textProvider, numberOfVariations, language, adLinks, cta,
+                ownerId, mediaFileUrl, new ImageRun(effectiveImageProvider, imageSubject, adStyle), enforceLengthLimits);
 
-            // Generate content
-            List<AdContent> contents = aiProviderService.generateContentWithReliability(
-                enhancedPrompt, textProvider, numberOfVariations, language, adLinks, cta);
-            contentModerationService.enforceSafety(contents);
+        } catch (Exception e) {
+            log.error("[Issue #9] Failed to generate content: {}", e.getMessage(), e);
+            throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to generate ad content: " + e.getMessage());
+        }
+    }
 
-            final String imageSubject = deriveImageSubject(prompt, extractedContent);
+    /**
+     * Generates one variation per target, each with its own text and image provider. The enhanced
+     * prompt is built once per distinct text provider, then every variation runs concurrently, at most
+     * {@code ai.variations.max-concurrent-per-provider} at a time per text provider, so a
+     * mixed-provider comparison takes about as long as its slowest provider. Variations that fail are
+     * left out; the rest are returned in target order.
+     *
+     * @param onVariationReady receives every finished variation as soon as it is done, from worker threads (optional)
+     * @throws ApiException if a text provider is unknown, or if every variation failed
+     */
+    public List<AdContent> generateVariationsWithCampaign(String prompt,
+                                                          AdContent.ContentType contentType,
+                                                          List<VariationTarget> targets,
+                                                          String language,
+                                                          List<String> adLinks,
+                                                          String extractedContent,
+                                                          com.fbadsautomation.model.FacebookCTA callToAction,
+                                                          com.fbadsautomation.model.Campaign campaign,
+                                                          com.fbadsautomation.model.AdStyle adStyle,
+                                                          com.fbadsautomation.model.Persona userSelectedPersona,
+                                                          List<String> trendingKeywords,
+                                                          boolean enforceLengthLimits,
+                                                          Consumer<AdContent> onVariationReady) {
+        com.fbadsautomation.model.FacebookCTA cta = callToAction != null ? callToAction : com.fbadsautomation.model.FacebookCTA.LEARN_MORE;
+        Map<String, String> promptsByProvider = new LinkedHashMap<>();
+        for (VariationTarget target : targets) {
+            requireTextProvider(target.getTextProvider());
+            if (!promptsByProvider.containsKey(target.getTextProvider())) {
+                promptsByProvider.put(target.getTextProvider(),
+                    buildFinalPrompt(prompt, adLinks, extractedContent, language, target.getTextProvider()));
+            }
+        }
+        try {
+            for (Map.Entry<String, String> entry : promptsByProvider.entrySet()) {
+                entry.setValue(buildEnhancedPrompt(prompt, entry.getValue(), contentType, cta, campaign, adStyle,
+                    userSelectedPersona, trendingKeywords, 1, entry.getKey()));
+            }
+        } catch (Exception e) {
+            log.error("[Variations] Failed to build prompt: {}", e.getMessage(), e);
+            throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to generate ad content: " + e.getMessage());
+        }
+        log.info("[Variations] Generating {} variations across providers {}", targets.size(), promptsByProvider.keySet());
+
+        Long ownerId = campaign != null && campaign.getUser() != null ? campaign.getUser().getId() : null;
+        String imageSubject = deriveImageSubject(prompt, extractedContent);
+        List<CompletableFuture<AdContent>> variations = new ArrayList<>(targets.size());
+        for (int i = 0; i < targets.size(); i++) {
+            VariationTarget target = targets.get(i);
+            int number = i + 1;
+            String imageProvider = StringUtils.hasText(target.getImageProvider()) ? target.getImageProvider() : defaultImageProvider;
+            String enhancedPrompt = promptsByProvider.get(target.getTextProvider());
+            ConcurrencyLimiter limiter = variationLimiters.computeIfAbsent(target.getTextProvider(),
+                provider -> new ConcurrencyLimiter(Math.max(1, maxConcurrentVariationsPerProvider)));
+            variations.add(limiter.submit(() -> runVariation(() -> {
+                    List<AdContent> generated = generateFromPrompt(enhancedPrompt, target.getTextProvider(), 1, language,
+                        adLinks, cta, ownerId, target.getMediaFileUrl(), new ImageRun(imageProvider, imageSubject, adStyle),
+                        enforceLengthLimits);
+                    return generated.isEmpty() ? null : generated.get(0);
+                }))
+                .whenComplete((content, error) -> {
+                    if (error != null) {
+                        log.warn("[Variations] Variation {} with provider {} failed: {}", number,
+                            target.getTextProvider(), rootMessage(error));
+                    } else if (content == null) {
+                        log.warn("[Variations] No content returned for variation {} using provider {}", number,
+                            target.getTextProvider());
+                    } else if (onVariationReady != null) {
+                        onVariationReady.accept(content);
+                    }
+                }));
+        }
 
-            // Handle images
-            if (mediaFileUrl != null && !mediaFileUrl.isBlank()) {
-                // Use provided media file URL
-                for (AdContent content : contents) {
-                    content.setImageUrl(mediaFileUrl);
+        List<AdContent> contents = new ArrayList<>(targets.size());
+        Throwable firstError = null;
+        for (CompletableFuture<AdContent> variation : variations) {
+            try {
+                AdContent content = variation.join();
+                if (content != null) {
+                    contents.add(content);
                 }
-            } else {
-                // Use specified provider or default to Gemini
-                String effectiveImageProvider = (imageProvider != null && !imageProvider.isBlank())
-                    ? imageProvider
-                    : defaultImageProvider;
+            } catch (CompletionException e) {
+                firstError = firstError != null ? firstError : e;
+            }
+        }
+        if (contents.isEmpty() && firstError != null) {
+            throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to generate ad content: " + rootMessage(firstError));
+        }
+        log.info("[Variations] {} of {} variations generated", contents.size(), targets.size());
+        return contents;
+    }
 
-                log.info("🎨 Generating images for {} variations using provider: {}", contents.size(), effectiveImageProvider);
+    private CompletableFuture<AdContent> runVariation(java.util.function.Supplier<AdContent> variation) {
+        if (variationGenerationExecutor == null) {
+            return CompletableFuture.completedFuture(variation.get());
+        }
+        return CompletableFuture.supplyAsync(variation, variationGenerationExecutor);
+    }
 
-                // Smart fallback: Track provider state across variations to reduce API calls
-                String workingProvider = effectiveImageProvider;
-                boolean primaryProviderFailed = false;
-                int totalApiCalls = 0;
-                int successfulGenerations = 0;
+    private String rootMessage(Throwable error) {
+        Throwable cause = error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+        return cause.getMessage();
+    }
 
-                for (int i = 0; i < contents.size(); i++) {
-                    AdContent content = contents.get(i);
-                    boolean retryWithFallback = false;
+    private void requireTextProvider(String providerId) {
+        if (aiProviderService.getProvider(providerId) == null) {
+            log.error("Unsupported text AI provider: {}", providerId);
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Unsupported AI provider: " + providerId);
+        }
+    }
 
-                    try {
-                        totalApiCalls++;
-                        log.debug("[VARIATION {}/{}] Generating image with provider: {}", i + 1, contents.size(), workingProvider);
+    /**
+     * Enriches the base prompt from {@link #buildFinalPrompt} with campaign, persona and keywords for
+     * {@code providerId}.
+     */
+    private String buildEnhancedPrompt(String prompt,
+                                       String finalPrompt,
+                                       AdContent.ContentType contentType,
+                                       com.fbadsautomation.model.FacebookCTA cta,
+                                       com.fbadsautomation.model.Campaign campaign,
+                                       com.fbadsautomation.model.AdStyle adStyle,
+                                       com.fbadsautomation.model.Persona userSelectedPersona,
+                                       List<String> trendingKeywords,
+                                       int numberOfVariations,
+                                       String providerId) {
+        AdType adType = convertContentTypeToAdType(contentType);
+
+        PromptBuildResult promptResult;
+        if (isReferenceDrivenPrompt(prompt)) {
+            log.info("[Prompt] Using reference-first prompt without CoT enrichment");
+            promptResult = PromptBuildResult.of(finalPrompt, PromptStrategy.REFERENCE);
+        } else {
+            promptResult = enhancePromptWithCampaign(
+                finalPrompt,
+                adType,
+                campaign,
+                adStyle,
+                userSelectedPersona,
+                trendingKeywords,
+                cta,
+                numberOfVariations,
+                providerId
+            );
+        }
 
-                        // Issue #9: Use standardized image prompt with AdStyle
-                        String imagePrompt = buildStandardizedImagePrompt(imageSubject, adStyle, workingProvider);
-                        String imageUrl = aiProviderService.generateImageWithReliability(
-                            imagePrompt, workingProvider);
+        String enhancedPrompt = promptResult.getPrompt();
+        promptCompactionService.recordPrompt(promptResult.getStrategy().name(), providerId, enhancedPrompt);
+        log.info("[Prompt] Strategy={} - Final prompt built ({} chars, ~{} tokens)",
+            promptResult.getStrategy(),
+            enhancedPrompt.length(),
+            promptCompactionService.estimateTokens(providerId, enhancedPrompt));
+        log.debug("[Prompt] Final prompt:\n{}", enhancedPrompt);
+        return enhancedPrompt;
+    }
 
-                        // Only download if it's truly an external URL
-                        if (isExternalUrl(imageUrl)) {
-                            log.debug("External image URL detected, downloading: {}", imageUrl);
-                            String storedImageUrl = downloadAndStoreImage(imageUrl);
-                            content.setImageUrl(storedImageUrl);
-                        } else {
-                            // Already local, use as-is
-                            log.debug("Local image path detected, using directly: {}", imageUrl);
-                            content.setImageUrl(imageUrl);
-                        }
+    private List<AdContent> generateFromPrompt(String enhancedPrompt,
+                                               String textProvider,
+                                               int numberOfVariations,
+                                               String language,
+                                               List<String> adLinks,
+                                               com.fbadsautomation.model.FacebookCTA cta,
+                                               Long ownerId,
+                                               String mediaFileUrl,
+                                               ImageRun imageRun,
+                                               boolean enforceLengthLimits) {
+        // Generate content
+        List<AdContent> contents = aiProviderService.generateContentWithReliability(
+            enhancedPrompt, textProvider, numberOfVariations, language, adLinks, cta);
+        contentModerationService.enforceSafety(contents);
+        // Drop repeats before paying for their images
+        contents = nearDuplicateDetectionService.removeNearDuplicates(contents, ownerId);
+
+        // Handle images
+        if (mediaFileUrl != null && !mediaFileUrl.isBlank()) {
+            // Use provided media file URL
+            for (AdContent content : contents) {
+                content.setImageUrl(mediaFileUrl);
+            }
+        } else {
+            log.info("🎨 Generating images for {} variations using provider: {}", contents.size(), imageRun.primaryProvider);
 
-                        successfulGenerations++;
-                        log.debug("✅ [VARIATION {}/{}] Image generated successfully with {}", i + 1, contents.size(), workingProvider);
+            for (int i = 0; i < contents.size(); i++) {
+                imageRun.generate(contents.get(i), i, contents.size());
+            }
+            imageRun.logSummary(contents.size());
+        }
 
-                    } catch (Exception e) {
-                        // Smart fallback: If primary provider fails on first variation, switch for all remaining
-                        if (!primaryProviderFailed && workingProvider.equals(effectiveImageProvider) && i == 0) {
-                            primaryProviderFailed = true;
-                            String fallbackProvider = getFallbackProvider(effectiveImageProvider);
-                            log.warn("⚠️ [SMART FALLBACK] Primary provider '{}' failed on first variation. " +
-                                "Switching to '{}' for all remaining {} variations to reduce API calls.",
-                                effectiveImageProvider, fallbackProvider, contents.size() - 1);
-                            workingProvider = fallbackProvider;
-                            retryWithFallback = true;
-                        }
+        // Validate
+        List<AdContent> validatedContents = validationService.validateAndFilterContent(contents, enforceLengthLimits);
+        return validatedContents.isEmpty() ? contents : validatedContents;
+    }
 
-                        // Retry current variation with fallback provider if it's the first failure
-                        if (retryWithFallback) {
-                            try {
-                                totalApiCalls++;
-                                log.debug("[VARIATION {}/{}] Retrying with fallback provider: {}", i + 1, contents.size(), workingProvider);
+    private List<AdContent> streamVariations(String enhancedPrompt,
+                                             String textProvider,
+                                             int numberOfVariations,
+                                             String language,
+                                             List<String> adLinks,
+                                             com.fbadsautomation.model.FacebookCTA cta,
+                                             Long ownerId,
+                                             String mediaFileUrl,
+                                             ImageRun imageRun,
+                                             boolean enforceLengthLimits,
+                                             Consumer<AdContent> onVariationReady) {
+        NearDuplicateDetectionService.BatchFilter duplicateFilter = nearDuplicateDetectionService.newBatchFilter(ownerId);
+        // Variations arrive on the calling thread; only their image and validation run on the image pool
+        List<AdContent> accepted = new ArrayList<>();
+        List<CompletableFuture<Void>> pending = new ArrayList<>();
+        Map<Integer, AdContent> validatedByIndex = new ConcurrentHashMap<>();
+
+        aiProviderService.generateContentStreaming(enhancedPrompt, textProvider, numberOfVariations, language, adLinks, cta,
+            content -> {
+                contentModerationService.enforceSafety(List.of(content));
+                if (duplicateFilter.accept(content)) {
+                    accepted.add(content);
+                    pending.add(finishVariationAsync(content, accepted.size() - 1, numberOfVariations, mediaFileUrl,
+                        imageRun, enforceLengthLimits, validatedByIndex, onVariationReady));
+                }
+            });
+        if (accepted.isEmpty()) {
+            // Everything repeated a past ad; one variation beats none
+            duplicateFilter.takeHistoryDuplicate().ifPresent(content -> {
+                accepted.add(content);
+                pending.add(finishVariationAsync(content, 0, 1, mediaFileUrl, imageRun, enforceLengthLimits,
+                    validatedByIndex, onVariationReady));
+            });
+        }
+        CompletableFuture.allOf(pending.toArray(new CompletableFuture[0])).join();
+        if (mediaFileUrl == null || mediaFileUrl.isBlank()) {
+            imageRun.logSummary(accepted.size());
+        }
 
-                                // Issue #9: Use standardized image prompt with AdStyle
-                                String imagePrompt = buildStandardizedImagePrompt(imageSubject, adStyle, workingProvider);
-                                String imageUrl = aiProviderService.generateImageWithReliability(
-                                    imagePrompt, workingProvider);
+        List<AdContent> validatedContents = new ArrayList<>(accepted.size());
+        for (int i = 0; i < accepted.size(); i++) {
+            AdContent validated = validatedByIndex.get(i);
+            if (validated != null) {
+                validatedContents.add(validated);
+            }
+        }
+        log.info("[Streaming] {} variations accepted, {} passed validation", accepted.size(), validatedContents.size());
+        return validatedContents.isEmpty() ? accepted : validatedContents;
+    }
 
-                                if (isExternalUrl(imageUrl)) {
-                                    String storedImageUrl = downloadAndStoreImage(imageUrl);
-                                    content.setImageUrl(storedImageUrl);
-                                } else {
-                                    content.setImageUrl(imageUrl);
-                                }
+    private CompletableFuture<Void> finishVariationAsync(AdContent content, int index, int total, String mediaFileUrl,
+                                                         ImageRun imageRun, boolean enforceLengthLimits,
+                                                         Map<Integer, AdContent> validatedByIndex,
+                                                         Consumer<AdContent> onVariationReady) {
+        Runnable task = () -> {
+            try {
+                if (mediaFileUrl != null && !mediaFileUrl.isBlank()) {
+                    content.setImageUrl(mediaFileUrl);
+                } else {
+                    imageRun.generate(content, index, total);
+                }
+                List<AdContent> validated = validationService.validateAndFilterContent(List.of(content), enforceLengthLimits);
+                if (!validated.isEmpty()) {
+                    validatedByIndex.put(index, validated.get(0));
+                    onVariationReady.accept(validated.get(0));
+                }
+            } catch (Exception e) {
+                log.error("[Streaming] Failed to finish variation {}: {}", index + 1, e.getMessage(), e);
+            }
+        };
+        if (imageProcessingExecutor == null) {
+            task.run();
+            return CompletableFuture.completedFuture(null);
+        }
+        try {
+            return CompletableFuture.runAsync(task, imageProcessingExecutor);
+        } catch (RejectedExecutionException e) {
+            log.warn("[Streaming] Image pool is full, finishing variation {} inline", index + 1);
+            task.run();
+            return CompletableFuture.completedFuture(null);
+        }
+    }
 
-                                successfulGenerations++;
-                                log.info("✅ [VARIATION {}/{}] Image generated successfully after fallback to {}",
-                                    i + 1, contents.size(), workingProvider);
+    /**
+     * Image generation state shared by the variations of one batch. When any variation fails on the
+     * primary provider, it is retried on the fallback provider and every variation started afterwards
+     * goes straight to the fallback, so a provider that is down costs at most one wasted call per
+     * variation already in flight instead of one per variation.
+     */
+    private final class ImageRun {
+
+        private final String primaryProvider;
+        private final String imageSubject;
+        private final com.fbadsautomation.model.AdStyle adStyle;
+        private final AtomicBoolean primaryProviderFailed = new AtomicBoolean();
+        private final AtomicInteger totalApiCalls = new AtomicInteger();
+        private final AtomicInteger successfulGenerations = new AtomicInteger();
+        private volatile String workingProvider;
+
+        private ImageRun(String primaryProvider, String imageSubject, com.fbadsautomation.model.AdStyle adStyle) {
+            this.primaryProvider = primaryProvider;
+            this.imageSubject = imageSubject;
+            this.adStyle = adStyle;
+            this.workingProvider = primaryProvider;
+        }
 
-                            } catch (Exception retryException) {
-                                log.error("❌ [VARIATION {}/{}] Failed to generate/store image even with fallback provider {}: {}",
-                                    i + 1, contents.size(), workingProvider, retryException.getMessage());
-                                content.setImageUrl("/img/placeholder.png");
-                            }
-                        } else {
-                            log.error("❌ [VARIATION {}/{}] Failed to generate/store image with provider {}: {}",
-                                i + 1, contents.size(), workingProvider, e.getMessage());
-                            content.setImageUrl("/img/placeholder.png");
-                        }
-                    }
+        void generate(AdContent content, int index, int total) {
+            String provider = workingProvider;
+            try {
+                totalApiCalls.incrementAndGet();
+                log.debug("[VARIATION {}/{}] Generating image with provider: {}", index + 1, total, provider);
+                content.setImageUrl(generateImage(provider));
+                successfulGenerations.incrementAndGet();
+                log.debug("✅ [VARIATION {}/{}] Image generated successfully with {}", index + 1, total, provider);
+            } catch (Exception e) {
+                if (!provider.equals(primaryProvider)) {
+                    log.error("❌ [VARIATION {}/{}] Failed to generate/store image with provider {}: {}",
+                        index + 1, total, provider, e.getMessage());
+                    content.setImageUrl("/img/placeholder.png");
+                    return;
+                }
+                // Smart fallback: the first variation to fail on the primary provider switches every later
+                // one; variations already running on the primary provider retry on the fallback themselves
+                String fallbackProvider = getFallbackProvider(primaryProvider);
+                if (primaryProviderFailed.compareAndSet(false, true)) {
+                    log.warn("⚠️ [SMART FALLBACK] Primary provider '{}' failed on variation {}. " +
+                        "Switching to '{}' for the remaining variations to reduce API calls.",
+                        primaryProvider, index + 1, fallbackProvider);
+                    workingProvider = fallbackProvider;
                 }
 
-                // Summary logging
-                log.info("📊 [IMAGE GENERATION SUMMARY] Provider: {} | Variations: {} | Successful: {} | Total API calls: {} | Avg calls/variation: {.2f}",
-                    effectiveImageProvider, contents.size(), successfulGenerations, totalApiCalls,
-                    (double) totalApiCalls / contents.size());
-
-                if (totalApiCalls > contents.size() * 2) {
-                    log.warn("⚠️ [HIGH API USAGE] Total API calls ({}) exceeds 2x variations ({}). Check provider reliability.",
-                        totalApiCalls, contents.size());
+                // Retry current variation with fallback provider
+                try {
+                    totalApiCalls.incrementAndGet();
+                    log.debug("[VARIATION {}/{}] Retrying with fallback provider: {}", index + 1, total, fallbackProvider);
+                    content.setImageUrl(generateImage(fallbackProvider));
+                    successfulGenerations.incrementAndGet();
+                    log.info("✅ [VARIATION {}/{}] Image generated successfully after fallback to {}",
+                        index + 1, total, fallbackProvider);
+                } catch (Exception retryException) {
+                    log.error("❌ [VARIATION {}/{}] Failed to generate/store image even with fallback provider {}: {}",
+                        index + 1, total, fallbackProvider, retryException.getMessage());
+                    content.setImageUrl("/img/placeholder.png");
                 }
             }
+        }
 
-            // Validate
-            List<AdContent> validatedContents = validationService.validateAndFilterContent(contents, enforceLengthLimits);
-            return validatedContents.isEmpty() ? contents : validatedContents;
+        private String generateImage(String provider) throws Exception {
+            // Issue #9: Use standardized image prompt with AdStyle
+            String imagePrompt = buildStandardizedImagePrompt(imageSubject, adStyle, provider);
+            String imageUrl = aiProviderService.generateImageWithReliability(imagePrompt, provider);
 
-        } catch (Exception e) {
-            log.error("[Issue #9] Failed to generate content: {}", e.getMessage(), e);
-            throw new ApiException(HttpStatus.INTERNAL_SERVER_ERROR, "Failed to generate ad content: " + e.getMessage());
+            // Only download if it's truly an external URL
+            if (isExternalUrl(imageUrl)) {
+                log.debug("External image URL detected, downloading: {}", imageUrl);
+                return downloadAndStoreImage(imageUrl);
+            }
+            // Already local, use as-is
+            log.debug("Local image path detected, using directly: {}", imageUrl);
+            return imageUrl;
+        }
+
+        void logSummary(int variations) {
+            if (variations == 0) {
+                return;
+            }
+            int calls = totalApiCalls.get();
+            log.info("📊 [IMAGE GENERATION SUMMARY] Provider: {} | Variations: {} | Successful: {} | Total API calls: {} | Avg calls/variation: {}",
+                primaryProvider, variations, successfulGenerations.get(), calls,
+                String.format("%.2f", (double) calls / variations));
+
+            if (calls > variations * 2) {
+                log.warn("⚠️ [HIGH API USAGE] Total API calls ({}) exceeds 2x variations ({}). Check provider reliability.",
+                    calls, variations);
+            }
         }
     }
 
@@ -341,7 +647,7 @@ public class AIContentServiceImpl {
         }
 
         // Build final prompt based on available inputs
-        String finalPrompt = buildFinalPrompt(prompt, adLinks, extractedContent, language);
+        String finalPrompt = buildFinalPrompt(prompt, adLinks, extractedContent, language, providerId);
 
         try {
             AdType adType = convertContentTypeToAdType(contentType);
@@ -355,6 +661,8 @@ public class AIContentServiceImpl {
             List<AdContent> contents = aiProviderService.generateContentWithReliability(
                 enhancedPrompt, textProvider, numberOfVariations, language, adLinks, cta);
             contentModerationService.enforceSafety(contents);
+            // Drop repeats before paying for their images
+            contents = nearDuplicateDetectionService.removeNearDuplicates(contents, null);
 
             final String imageSubject = deriveImageSubject(prompt, extractedContent);
 
@@ -517,12 +825,14 @@ public class AIContentServiceImpl {
     /**
      * Build final prompt by combining original prompt and ad link content
      */
-    private String buildFinalPrompt(String originalPrompt, List<String> adLinks, String extractedContent, String languageCode) {
+    private String buildFinalPrompt(String originalPrompt, List<String> adLinks, String extractedContent,
+                                    String languageCode, String providerId) {
         String detectedLanguage = (languageCode == null || languageCode.isBlank())
             ? promptSecurityService.detectLanguageCode(originalPrompt)
             : languageCode.toLowerCase();
         String sanitizedOriginal = promptSecurityService.sanitizeUserInput(originalPrompt);
-        String sanitizedExtracted = promptSecurityService.sanitizeUserInput(extractedContent);
+        String sanitizedExtracted = promptCompactionService.compactReference(
+            promptSecurityService.sanitizeUserInput(extractedContent), providerId);
 
         StringBuilder finalPrompt = new StringBuilder();
         finalPrompt.append("<<SYSTEM_RULES>>\n")
@@ -568,7 +878,8 @@ public class AIContentServiceImpl {
                     adLinkContentBuilder.append("Quảng cáo ").append(i + 1).append(": ").append(sanitizedBody).append("\n");
                 }
             }
-            String adLinkContent = adLinkContentBuilder.toString().trim();
+            String adLinkContent = promptCompactionService.compactReference(
+                adLinkContentBuilder.toString().trim(), providerId);
             if (!adLinkContent.isEmpty()) {
                 if (hasOriginalPrompt && promptHasReferenceSection) {
                     appendReferenceBlock(finalPrompt, adLinkContent);
@@ -592,11 +903,12 @@ public class AIContentServiceImpl {
         return finalPrompt.toString();
     }
 
-    private String getSafeTargetAudience(com.fbadsautomation.model.Campaign campaign) {
+    private String getSafeTargetAudience(com.fbadsautomation.model.Campaign campaign, String providerId) {
         if (campaign == null || campaign.getTargetAudience() == null) {
             return null;
         }
-        return promptSecurityService.sanitizeUserInput(campaign.getTargetAudience());
+        return promptCompactionService.limitSection(PromptBudgetConfig.AUDIENCE,
+            promptSecurityService.sanitizeUserInput(campaign.getTargetAudience()), providerId);
     }
 
     private void appendReferenceBlock(StringBuilder finalPrompt, String referenceContent) {
@@ -646,7 +958,8 @@ public class AIContentServiceImpl {
                                                        com.fbadsautomation.model.Persona userSelectedPersona,
                                                        List<String> trendingKeywords,
                                                        com.fbadsautomation.model.FacebookCTA callToAction,
-                                                       int numberOfVariations) {
+                                                       int numberOfVariations,
+                                                       String providerId) {
         // Detect language for bilingual support
         Language detectedLanguage = ValidationMessages.detectLanguage(userPrompt);
         log.info("[Phase 3] Detected language: {}, campaign: {}, persona: {}, keywords: {}",
@@ -654,6 +967,7 @@ public class AIContentServiceImpl {
                  campaign != null ? campaign.getId() : "none",
                  userSelectedPersona != null ? userSelectedPersona.getName() : "auto-select",
                  trendingKeywords != null ? trendingKeywords.size() : 0);
+        trendingKeywords = promptCompactionService.limitKeywords(trendingKeywords, providerId);
 
         // Phase 3: Try unified Chain-of-Thought prompting first
         if (chainOfThoughtPromptBuilder != null) {
@@ -661,13 +975,13 @@ public class AIContentServiceImpl {
                 log.info("[Phase 3] Using unified Chain-of-Thought prompt builder");
 
                 // Get campaign target audience
-                String targetAudience = getSafeTargetAudience(campaign);
+                String targetAudience = getSafeTargetAudience(campaign, providerId);
                 if (!StringUtils.hasText(targetAudience)) {
                     targetAudience = "General audience";
                 }
 
                 // Build CoT prompt with all parameters (persona can be null - will be handled by builder)
-                String cotPrompt = chainOfThoughtPromptBuilder.buildCoTPrompt(
+                AssembledPrompt cotPrompt = chainOfThoughtPromptBuilder.assembleCoTPrompt(
                     userPrompt,
                     userSelectedPersona,  // Pass user Persona directly (can be null)
                     adStyle,
@@ -684,9 +998,10 @@ public class AIContentServiceImpl {
                     null
                 );
 
-                log.info("[Phase 3] CoT prompt built successfully with {} stages",
-                        userSelectedPersona != null ? "user persona" : "no persona");
-                return PromptBuildResult.of(cotPrompt, PromptStrategy.CHAIN_OF_THOUGHT);
+                log.info("[Phase 3] CoT prompt built successfully with {}: ~{} tokens, stable prefix ~{} tokens, sections {}",
+                        userSelectedPersona != null ? "user persona" : "no persona",
+                        cotPrompt.getTotalTokens(), cotPrompt.getStablePrefixTokens(), cotPrompt.getSectionTokens());
+                return PromptBuildResult.of(cotPrompt.getText(), PromptStrategy.CHAIN_OF_THOUGHT);
 
             } catch (Exception e) {
                 log.warn("[Phase 3] CoT prompting failed, falling back to multi-stage: {}", e.getMessage());
@@ -723,10 +1038,10 @@ public class AIContentServiceImpl {
                 if (campaign != null) {
                     sanitizedCampaign = new com.fbadsautomation.model.Campaign();
                     sanitizedCampaign.setId(campaign.getId());
-                    sanitizedCampaign.setTargetAudience(getSafeTargetAudience(campaign));
+                    sanitizedCampaign.setTargetAudience(getSafeTargetAudience(campaign, providerId));
                 }
 
-                String enhancedPrompt = multiStagePromptBuilder.buildEnhancedPrompt(
+                AssembledPrompt enhancedPrompt = multiStagePromptBuilder.assembleEnhancedPrompt(
                     finalUserPrompt,  // Use enriched prompt with trending keywords
                     persona,
                     adType,
@@ -735,9 +1050,10 @@ public class AIContentServiceImpl {
                     adStyle    // Include AdStyle (Issue #8)
                 );
 
-                log.info("[Phase 1&2 Fallback] Multi-stage prompt built with campaign audience, persona: {}, keywords: {}",
-                        persona.name(), trendingKeywords != null ? trendingKeywords.size() : 0);
-                return PromptBuildResult.of(enhancedPrompt, PromptStrategy.MULTI_STAGE);
+                log.info("[Phase 1&2 Fallback] Multi-stage prompt built with campaign audience, persona: {}, keywords: {}, ~{} tokens (stable prefix ~{})",
+                        persona.name(), trendingKeywords != null ? trendingKeywords.size() : 0,
+                        enhancedPrompt.getTotalTokens(), enhancedPrompt.getStablePrefixTokens());
+                return PromptBuildResult.of(enhancedPrompt.getText(), PromptStrategy.MULTI_STAGE);
 
             } catch (Exception e) {
                 log.warn("[Issue #9] Multi-stage prompting failed, falling back to legacy: {}", e.getMessage());
@@ -943,31 +1259,9 @@ public class AIContentServiceImpl {
             return com.fbadsautomation.model.AdPersona.GENERAL_FRIENDLY;
         }
 
-        String tone = userPersona.getTone().toLowerCase();
-
-        // Map user persona tone to closest AdPersona
-        return switch (tone) {
-            case "professional", "formal" -> {
-                log.info("[Phase 1] Mapping tone '{}' to PROFESSIONAL_TRUSTWORTHY", tone);
-                yield com.fbadsautomation.model.AdPersona.PROFESSIONAL_TRUSTWORTHY;
-            }
-            case "funny" -> {
-                log.info("[Phase 1] Mapping tone '{}' to GEN_Z_GAMER", tone);
-                yield com.fbadsautomation.model.AdPersona.GEN_Z_GAMER;
-            }
-            case "enthusiastic" -> {
-                log.info("[Phase 1] Mapping tone '{}' to HEALTH_WELLNESS", tone);
-                yield com.fbadsautomation.model.AdPersona.HEALTH_WELLNESS;
-            }
-            case "casual", "friendly" -> {
-                log.info("[Phase 1] Mapping tone '{}' to GENERAL_FRIENDLY", tone);
-                yield com.fbadsautomation.model.AdPersona.GENERAL_FRIENDLY;
-            }
-            default -> {
-                log.warn("[Phase 1] Unknown tone '{}', defaulting to GENERAL_FRIENDLY", tone);
-                yield com.fbadsautomation.model.AdPersona.GENERAL_FRIENDLY;
-            }
-        };
+        com.fbadsautomation.model.AdPersona persona = com.fbadsautomation.model.AdPersona.fromTone(userPersona.getTone());
+        log.info("[Phase 1] Mapping tone '{}' to {}", userPersona.getTone(), persona.name());
+        return persona;
     }
 
     /**
@@ -1197,4 +1491,32 @@ public class AIContentServiceImpl {
             return strategy;
         }
     }
+
+    /**
+     * Providers and media of one variation in {@link #generateVariationsWithCampaign}. A media file
+     * URL, when set, is used as the variation's image instead of generating one.
+     */
+    public static final class VariationTarget {
+        private final String textProvider;
+        private final String imageProvider;
+        private final String mediaFileUrl;
+
+        public VariationTarget(String textProvider, String imageProvider, String mediaFileUrl) {
+            this.textProvider = textProvider;
+            this.imageProvider = imageProvider;
+            this.mediaFileUrl = mediaFileUrl;
+        }
+
+        public String getTextProvider() {
+            return textProvider;
+        }
+
+        public String getImageProvider() {
+            return imageProvider;
+        }
+
+        public String getMediaFileUrl() {
+            return mediaFileUrl;
+        }
+    }
 }
@@ -0,0 +1,78 @@
+package com.fbadsautomation.integration.facebook;
+
+import java.time.Duration;
+import java.util.Locale;
+import java.util.Map;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.springframework.util.StringUtils;
+
+/**
+ * Ad account settings that affect how payloads are built: currency, timezone, spend cap and the
+ * minimum daily budget. Money amounts are in the currency's smallest unit, as returned by Meta.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdAccountMetadata {
+    private String adAccountId;
+    private String currency;
+    private String timezoneName;
+    private Double timezoneOffsetHoursUtc;
+    private Long spendCap;
+    private Long amountSpent;
+    private Long minDailyBudget;
+    private long fetchedAtEpochMillis;
+
+    static AdAccountMetadata fromGraphResponse(String adAccountId, Map<String, Object> body) {
+        Object currency = body.get("currency");
+        return AdAccountMetadata.builder()
+            .adAccountId(adAccountId)
+            .currency(currency instanceof String code && StringUtils.hasText(code)
+                ? code.trim().toUpperCase(Locale.ROOT)
+                : null)
+            .timezoneName(body.get("timezone_name") != null ? body.get("timezone_name").toString() : null)
+            .timezoneOffsetHoursUtc(toDouble(body.get("timezone_offset_hours_utc")))
+            .spendCap(toLong(body.get("spend_cap")))
+            .amountSpent(toLong(body.get("amount_spent")))
+            .minDailyBudget(toLong(body.get("min_daily_budget")))
+            .fetchedAtEpochMillis(System.currentTimeMillis())
+            .build();
+    }
+
+    boolean isOlderThan(Duration age) {
+        return System.currentTimeMillis() - fetchedAtEpochMillis > age.toMillis();
+    }
+
+    // Meta returns most money fields as strings, so both forms are accepted.
+    private static Long toLong(Object value) {
+        if (value instanceof Number number) {
+            return number.longValue();
+        }
+        if (value instanceof String text && StringUtils.hasText(text)) {
+            try {
+                return Long.parseLong(text.trim());
+            } catch (NumberFormatException ignored) {
+                return null;
+            }
+        }
+        return null;
+    }
+
+    private static Double toDouble(Object value) {
+        if (value instanceof Number number) {
+            return number.doubleValue();
+        }
+        if (value instanceof String text && StringUtils.hasText(text)) {
+            try {
+                return Double.parseDouble(text.trim());
+            } catch (NumberFormatException ignored) {
+                return null;
+            }
+        }
+        return null;
+    }
+}
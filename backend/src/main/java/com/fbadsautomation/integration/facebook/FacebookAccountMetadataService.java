@@ -2,76 +2,209 @@ package com.fbadsautomation.integration.facebook;
 
 import java.time.Duration;
 import java.time.Instant;
-import java.util.Locale;
 import java.util.Map;
-import lombok.RequiredArgsConstructor;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 import org.springframework.web.client.RestTemplate;
 
+/**
+ * Per-ad-account metadata cache in front of the Graph API. Entries are refreshed in the background
+ * once they are older than {@link #REFRESH_AHEAD_AFTER} while the current value keeps being served,
+ * concurrent loads of the same account share one request, and entries are persisted to Redis so
+ * restarts and other replicas start warm.
+ */
 @Component
-@RequiredArgsConstructor
 public class FacebookAccountMetadataService {
 
     private static final Logger log = LoggerFactory.getLogger(FacebookAccountMetadataService.class);
-    private static final Duration DEFAULT_REFRESH_INTERVAL = Duration.ofHours(6);
+    private static final Duration REFRESH_AHEAD_AFTER = Duration.ofHours(1);
+    private static final Duration MAX_STALENESS = Duration.ofHours(24);
+    private static final Duration FAILURE_BACKOFF = Duration.ofMinutes(1);
+    private static final String REDIS_KEY_PREFIX = "facebook:account-metadata:";
+    private static final String METADATA_FIELDS =
+        "currency,timezone_name,timezone_offset_hours_utc,spend_cap,amount_spent,min_daily_budget";
 
     private final RestTemplate restTemplate;
     private final FacebookProperties facebookProperties;
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final Executor refreshExecutor;
 
-    private Instant lastCurrencyRefresh;
+    private final Map<String, AdAccountMetadata> metadataByAccount = new ConcurrentHashMap<>();
+    private final Map<String, CompletableFuture<AdAccountMetadata>> inFlight = new ConcurrentHashMap<>();
+    private final Map<String, Instant> lastFailureAt = new ConcurrentHashMap<>();
+
+    @Autowired
+    public FacebookAccountMetadataService(RestTemplate restTemplate,
+                                          FacebookProperties facebookProperties,
+                                          RedisTemplate<String, Object> redisTemplate,
+                                          @Qualifier("generalAsyncExecutor") Executor refreshExecutor) {
+        this.restTemplate = restTemplate;
+        this.facebookProperties = facebookProperties;
+        this.redisTemplate = redisTemplate;
+        this.refreshExecutor = refreshExecutor;
+    }
 
     public void ensureCurrencyLoaded(boolean forceRefresh) {
         if (!facebookProperties.isAutoDetectCurrency()) {
             return;
         }
-        synchronized (this) {
-            if (!forceRefresh && lastCurrencyRefresh != null
-                && Instant.now().isBefore(lastCurrencyRefresh.plus(DEFAULT_REFRESH_INTERVAL))) {
-                return;
+        String accessToken = facebookProperties.getMarketingAccessToken();
+        String adAccountId = facebookProperties.getDefaultAdAccountId();
+        if (!StringUtils.hasText(accessToken) || !StringUtils.hasText(adAccountId)) {
+            log.debug("Skipping currency auto-detect. Missing token or ad account id.");
+            return;
+        }
+
+        AdAccountMetadata metadata = forceRefresh ? refresh(adAccountId) : getMetadata(adAccountId);
+        if (metadata == null || !StringUtils.hasText(metadata.getCurrency())) {
+            log.debug("Facebook ad account currency not available for {}", adAccountId);
+            return;
+        }
+        String detected = metadata.getCurrency();
+        if (!detected.equalsIgnoreCase(facebookProperties.getAccountCurrency())) {
+            log.info("Detected Facebook ad account currency: {} (previously: {})",
+                detected, facebookProperties.getAccountCurrency());
+            facebookProperties.setAccountCurrency(detected);
+        }
+    }
+
+    /**
+     * Returns the metadata of the ad account, or {@code null} if it has never been loaded and the
+     * Graph API is unavailable. Entries past {@link #MAX_STALENESS} are reloaded synchronously and
+     * only served if the reload fails.
+     */
+    public AdAccountMetadata getMetadata(String adAccountId) {
+        String accountId = normalizeAccountId(adAccountId);
+        AdAccountMetadata cached = metadataByAccount.get(accountId);
+        if (cached == null) {
+            cached = readFromRedis(accountId);
+            if (cached != null) {
+                metadataByAccount.putIfAbsent(accountId, cached);
             }
+        }
 
-            String accessToken = facebookProperties.getMarketingAccessToken();
-            String adAccountId = facebookProperties.getDefaultAdAccountId();
-            if (!StringUtils.hasText(accessToken) || !StringUtils.hasText(adAccountId)) {
-                log.debug("Skipping currency auto-detect. Missing token or ad account id.");
-                return;
+        if (cached == null || cached.isOlderThan(MAX_STALENESS)) {
+            if (isBackingOff(accountId)) {
+                return cached;
             }
+            AdAccountMetadata loaded = refresh(accountId);
+            return loaded != null ? loaded : cached;
+        }
+        if (cached.isOlderThan(REFRESH_AHEAD_AFTER) && !isBackingOff(accountId)) {
+            load(accountId, refreshExecutor);
+        }
+        return cached;
+    }
+
+    /**
+     * Reloads the ad account from the Graph API, joining a load that is already in flight.
+     */
+    public AdAccountMetadata refresh(String adAccountId) {
+        try {
+            return load(normalizeAccountId(adAccountId), null).join();
+        } catch (CompletionException e) {
+            return null;
+        }
+    }
+
+    private CompletableFuture<AdAccountMetadata> load(String accountId, Executor executor) {
+        CompletableFuture<AdAccountMetadata> future = new CompletableFuture<>();
+        CompletableFuture<AdAccountMetadata> existing = inFlight.putIfAbsent(accountId, future);
+        if (existing != null) {
+            return existing;
+        }
 
+        Runnable task = () -> {
             try {
-                String normalizedAccountId = adAccountId.startsWith("act_")
-                    ? adAccountId
-                    : "act_" + adAccountId;
-                String url = String.format("%s/v%s/%s?fields=currency&access_token=%s",
-                    facebookProperties.getApiUrl(),
-                    facebookProperties.getApiVersion(),
-                    normalizedAccountId,
-                    accessToken);
-
-                ResponseEntity<Map> response = restTemplate.getForEntity(url, Map.class);
-                Map<String, Object> body = response.getBody();
-                if (body != null && body.containsKey("currency")) {
-                    Object currency = body.get("currency");
-                    if (currency instanceof String currencyCode && StringUtils.hasText(currencyCode)) {
-                        String detected = currencyCode.trim().toUpperCase(Locale.ROOT);
-                        if (!detected.equalsIgnoreCase(facebookProperties.getAccountCurrency())) {
-                            log.info("Detected Facebook ad account currency: {} (previously: {})",
-                                detected, facebookProperties.getAccountCurrency());
-                        } else {
-                            log.debug("Facebook ad account currency already set to {}", detected);
-                        }
-                        facebookProperties.setAccountCurrency(detected);
-                        lastCurrencyRefresh = Instant.now();
-                        return;
-                    }
-                }
-                log.warn("Could not detect Facebook ad account currency. Response: {}", body);
-            } catch (Exception ex) {
-                log.warn("Failed to auto-detect Facebook account currency: {}", ex.getMessage());
+                AdAccountMetadata metadata = fetch(accountId);
+                metadataByAccount.put(accountId, metadata);
+                lastFailureAt.remove(accountId);
+                writeToRedis(metadata);
+                future.complete(metadata);
+            } catch (Exception e) {
+                log.warn("Failed to load Facebook ad account metadata for {}: {}", accountId, e.getMessage());
+                lastFailureAt.put(accountId, Instant.now());
+                future.completeExceptionally(e);
+            } finally {
+                inFlight.remove(accountId, future);
             }
+        };
+
+        if (executor == null) {
+            task.run();
+            return future;
+        }
+        try {
+            executor.execute(task);
+        } catch (RejectedExecutionException e) {
+            // The stale entry stays in place; the next read will try again.
+            inFlight.remove(accountId, future);
+            future.completeExceptionally(e);
+        }
+        return future;
+    }
+
+    @SuppressWarnings("unchecked")
+    private AdAccountMetadata fetch(String accountId) {
+        String accessToken = facebookProperties.getMarketingAccessToken();
+        if (!StringUtils.hasText(accessToken)) {
+            throw new IllegalStateException("Facebook Marketing access token is missing");
+        }
+        String url = String.format("%s/v%s/%s?fields=%s&access_token=%s",
+            facebookProperties.getApiUrl(),
+            facebookProperties.getApiVersion(),
+            accountId,
+            METADATA_FIELDS,
+            accessToken);
+
+        ResponseEntity<Map> response = restTemplate.getForEntity(url, Map.class);
+        Map<String, Object> body = response.getBody();
+        if (body == null) {
+            throw new IllegalStateException("Empty response from Graph API");
+        }
+        AdAccountMetadata metadata = AdAccountMetadata.fromGraphResponse(accountId, body);
+        log.debug("Loaded Facebook ad account metadata for {}: currency={}, timezone={}",
+            accountId, metadata.getCurrency(), metadata.getTimezoneName());
+        return metadata;
+    }
+
+    private boolean isBackingOff(String accountId) {
+        Instant failedAt = lastFailureAt.get(accountId);
+        return failedAt != null && Instant.now().isBefore(failedAt.plus(FAILURE_BACKOFF));
+    }
+
+    private AdAccountMetadata readFromRedis(String accountId) {
+        try {
+            Object value = redisTemplate.opsForValue().get(REDIS_KEY_PREFIX + accountId);
+            return value instanceof AdAccountMetadata metadata ? metadata : null;
+        } catch (Exception e) {
+            log.debug("Could not read Facebook account metadata from Redis: {}", e.getMessage());
+            return null;
         }
     }
+
+    private void writeToRedis(AdAccountMetadata metadata) {
+        try {
+            redisTemplate.opsForValue().set(REDIS_KEY_PREFIX + metadata.getAdAccountId(), metadata,
+                MAX_STALENESS.toSeconds(), TimeUnit.SECONDS);
+        } catch (Exception e) {
+            log.debug("Could not write Facebook account metadata to Redis: {}", e.getMessage());
+        }
+    }
+
+    private String normalizeAccountId(String adAccountId) {
+        return adAccountId.startsWith("act_") ? adAccountId : "act_" + adAccountId;
+    }
 }
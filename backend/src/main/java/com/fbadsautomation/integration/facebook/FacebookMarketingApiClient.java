@@ -6,28 +6,42 @@ import com.fbadsautomation.model.Campaign;
 import com.fbadsautomation.model.FacebookCTA;
 import com.fbadsautomation.service.MinIOStorageService;
 import lombok.Data;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.http.*;
 import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
 import org.springframework.util.LinkedMultiValueMap;
 import org.springframework.util.MultiValueMap;
 import org.springframework.web.client.HttpStatusCodeException;
 import org.springframework.web.client.RestTemplate;
 
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.time.DateTimeException;
+import java.time.ZoneId;
+import java.time.ZoneOffset;
 import java.time.format.DateTimeFormatter;
 import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.IdentityHashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
 import java.util.Set;
 import java.util.Base64;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Consumer;
+import java.util.function.Supplier;
 import org.springframework.util.StringUtils;
 
 /**
@@ -60,11 +74,16 @@ public class FacebookMarketingApiClient {
     private final FacebookProperties facebookProperties;
     private final MinIOStorageService minIOStorageService;
     private final FacebookAccountMetadataService facebookAccountMetadataService;
+    private final FacebookUploadPlanner uploadPlanner;
+    private final FacebookUsageThrottle usageThrottle;
 
+    // Used when the account's own min_daily_budget is unknown
     private static final double MIN_VND_DAILY_BUDGET = 26481d;
     private static final double DEFAULT_LEGACY_USD_TO_VND_RATE = 25000d;
     private static final long MAX_BID_VND = 26_508_324L;
     private static final long MAX_BID_USD_CENTS = 10_000_000L; // $100,000.00
+    // Graph batch requests accept at most 50 operations; each ad needs a creative and an ad operation.
+    private static final int ADS_PER_BATCH = 25;
 
     private final ObjectMapper objectMapper = new ObjectMapper();
 
@@ -87,22 +106,24 @@ public class FacebookMarketingApiClient {
     );
 
     public UploadResult uploadAdToAccount(Ad ad, String adAccountId, String accessToken) {
-        facebookAccountMetadataService.ensureCurrencyLoaded(false);
         validateInputs(adAccountId, accessToken);
+        AdAccountMetadata account = resolveAccount(adAccountId);
 
         try {
             Campaign campaign = ad.getCampaign();
 
             String campaignId = createCampaign(adAccountId, campaign, accessToken);
-            String adSetId = createAdSet(adAccountId, campaign, ad, campaignId, accessToken);
+            String adSetId = createAdSet(adAccountId, account, campaign, ad, campaignId, accessToken);
             String creativeId = createAdCreative(adAccountId, ad, accessToken);
             String adId = createAd(adAccountId, ad, adSetId, creativeId, accessToken);
 
             UploadResult result = new UploadResult();
+            result.setLocalAdId(ad.getId());
             result.setCampaignId(campaignId);
             result.setAdSetId(adSetId);
             result.setCreativeId(creativeId);
             result.setAdId(adId);
+            result.setLastCompletedStep(UploadStep.AD);
             result.setMessage("Uploaded via Marketing API");
             return result;
         } catch (ApiException e) {
@@ -114,6 +135,62 @@ public class FacebookMarketingApiClient {
         }
     }
 
+    /**
+     * Uploads several ads in as few Graph calls as possible: one campaign and ad set per local
+     * campaign, one image upload per distinct image, and creatives + ads submitted through the
+     * batch endpoint with dependency references. Failures are reported per ad instead of aborting
+     * the whole upload. Results are returned in input order.
+     */
+    public List<UploadResult> uploadAds(List<Ad> ads, String adAccountId, String accessToken) {
+        UploadSession session = openSession(adAccountId, accessToken);
+        FacebookUploadPlanner.UploadPlan plan = uploadPlanner.plan(ads);
+        log.info("[FB Upload] Planned {} ads into {} campaign groups with {} distinct images",
+            plan.getAdCount(), plan.getGroups().size(), plan.getDistinctImageUrls().size());
+
+        Map<Ad, UploadResult> results = new IdentityHashMap<>();
+        plan.getUnplannable().forEach(ad -> results.put(ad, failedResult(ad, null, null, "Ad has no campaign")));
+        for (FacebookUploadPlanner.CampaignGroup group : plan.getGroups()) {
+            List<UploadResult> groupResults = session.uploadGroup(group, Map.of(), result -> { });
+            for (int i = 0; i < group.getAds().size(); i++) {
+                results.put(group.getAds().get(i), groupResults.get(i));
+            }
+        }
+
+        List<UploadResult> ordered = new ArrayList<>();
+        for (Ad ad : ads) {
+            if (ad != null && results.containsKey(ad)) {
+                ordered.add(results.get(ad));
+            }
+        }
+        return ordered;
+    }
+
+    /**
+     * Opens an upload session for one ad account. A session shares image hashes between campaign
+     * groups and is safe to use from several threads, one group per thread.
+     */
+    public UploadSession openSession(String adAccountId, String accessToken) {
+        validateInputs(adAccountId, accessToken);
+        return new UploadSession(adAccountId, resolveAccount(adAccountId), accessToken);
+    }
+
+    /**
+     * Loads the currency, timezone, spend cap and minimum daily budget of the account being
+     * uploaded to. Returns {@code null} when auto-detection is off or Meta cannot be reached and
+     * nothing is cached, in which case the configured currency applies.
+     */
+    private AdAccountMetadata resolveAccount(String adAccountId) {
+        if (!facebookProperties.isAutoDetectCurrency()) {
+            return null;
+        }
+        AdAccountMetadata account = facebookAccountMetadataService.getMetadata(adAccountId);
+        if (account == null) {
+            log.debug("No metadata for ad account {}; using configured currency {}",
+                adAccountId, facebookProperties.getAccountCurrency());
+        }
+        return account;
+    }
+
     private void validateInputs(String adAccountId, String accessToken) {
         if (adAccountId == null || adAccountId.isEmpty()) {
             throw new ApiException(HttpStatus.BAD_REQUEST, "Ad account ID is required");
@@ -127,26 +204,63 @@ public class FacebookMarketingApiClient {
     }
 
     private String createCampaign(String adAccountId, Campaign campaign, String accessToken) {
-        String url = String.format("%s/v%s/%s/campaigns",
-            facebookProperties.getApiUrl(), facebookProperties.getApiVersion(), adAccountId);
+        String url = graphUrl(edgePath(adAccountId, "campaigns"));
+
+        Map<String, Object> payload = buildCampaignPayload(campaign);
+        payload.put("access_token", accessToken);
+        logPayload("campaign", payload, CAMPAIGN_ALLOWED_FIELDS);
+
+        Map<String, Object> response = postForm(adAccountId, url, convertToForm(payload));
+        return extractIdOrThrow(response, "campaign");
+    }
+
+    private String createAdSet(String adAccountId, AdAccountMetadata account, Campaign campaign, Ad ad,
+                               String campaignId, String accessToken) {
+        String url = graphUrl(edgePath(adAccountId, "adsets"));
+
+        Map<String, Object> payload = buildAdSetPayload(account, campaign, ad, campaignId);
+        payload.put("access_token", accessToken);
+        logPayload("adset", payload, ADSET_ALLOWED_FIELDS);
+
+        Map<String, Object> response = postForm(adAccountId, url, convertToForm(payload));
+        return extractIdOrThrow(response, "ad set");
+    }
+
+    private String createAdCreative(String adAccountId, Ad ad, String accessToken) {
+        String url = graphUrl(edgePath(adAccountId, "adcreatives"));
 
+        String resolvedImageUrl = resolveAbsoluteImageUrl(ad.getImageUrl());
+        String imageHash = uploadImageToAdAccount(adAccountId, downloadImageBytes(resolvedImageUrl), accessToken);
+        Map<String, Object> payload = buildCreativePayload(ad, new UploadedImage(resolvedImageUrl, imageHash));
+        payload.put("access_token", accessToken);
+        logPayload("creative", payload, CREATIVE_ALLOWED_FIELDS);
+
+        Map<String, Object> response = postForm(adAccountId, url, convertToForm(payload));
+        return extractIdOrThrow(response, "creative");
+    }
+
+    private String createAd(String adAccountId, Ad ad, String adSetId, String creativeId, String accessToken) {
+        String url = graphUrl(edgePath(adAccountId, "ads"));
+
+        Map<String, Object> payload = buildAdPayload(ad, adSetId, creativeId);
+        payload.put("access_token", accessToken);
+        logPayload("ad", payload, AD_ALLOWED_FIELDS);
+
+        Map<String, Object> response = postForm(adAccountId, url, convertToForm(payload));
+        return extractIdOrThrow(response, "ad");
+    }
+
+    private Map<String, Object> buildCampaignPayload(Campaign campaign) {
         Map<String, Object> payload = new HashMap<>();
         payload.put("name", campaign.getName());
         payload.put("objective", mapObjective(campaign.getObjective()));
         payload.put("status", "PAUSED");
         payload.put("special_ad_categories", "[]");
         payload.put("is_adset_budget_sharing_enabled", facebookProperties.isAdsetBudgetSharingEnabled());
-        payload.put("access_token", accessToken);
-        logPayload("campaign", payload, CAMPAIGN_ALLOWED_FIELDS);
-
-        Map<String, Object> response = postForm(url, convertToForm(payload));
-        return extractIdOrThrow(response, "campaign");
+        return payload;
     }
 
-    private String createAdSet(String adAccountId, Campaign campaign, Ad ad, String campaignId, String accessToken) {
-        String url = String.format("%s/v%s/%s/adsets",
-            facebookProperties.getApiUrl(), facebookProperties.getApiVersion(), adAccountId);
-
+    private Map<String, Object> buildAdSetPayload(AdAccountMetadata account, Campaign campaign, Ad ad, String campaignId) {
         Map<String, Object> payload = new HashMap<>();
         payload.put("name", campaign.getName() + " - Ad Set");
         payload.put("campaign_id", campaignId);
@@ -154,44 +268,38 @@ public class FacebookMarketingApiClient {
         payload.put("is_adset_budget_sharing_enabled", adsetBudgetSharing);
 
         if (!adsetBudgetSharing) {
-            payload.put("daily_budget", formatBudgetForMeta(resolveAdsetBudget(campaign)));
+            Double dailyBudget = resolveAdsetBudget(account, campaign);
+            warnIfOverSpendCap(account, dailyBudget);
+            payload.put("daily_budget", formatBudgetForMeta(account, dailyBudget));
         }
-        Long bidAmount = resolveBidAmount(campaign);
+        Long bidAmount = resolveBidAmount(account, campaign);
         if (bidAmount != null && bidAmount > 0) {
             payload.put("bid_amount", bidAmount.toString());
         }
 
-        payload.put("start_time", formatDateTime(campaign.getStartDate()));
+        ZoneId zone = resolveZone(account);
+        payload.put("start_time", formatDateTime(campaign.getStartDate(), zone));
         if (campaign.getEndDate() != null) {
-            payload.put("end_time", formatDateTime(campaign.getEndDate()));
+            payload.put("end_time", formatDateTime(campaign.getEndDate(), zone));
         }
         payload.put("billing_event", "IMPRESSIONS");
         payload.put("optimization_goal", resolveOptimizationGoal(campaign));
         payload.put("status", "PAUSED");
         payload.put("promoted_object", buildPromotedObject(ad));
         payload.put("targeting", buildTargeting(campaign));
-        payload.put("access_token", accessToken);
-        logPayload("adset", payload, ADSET_ALLOWED_FIELDS);
-
-        Map<String, Object> response = postForm(url, convertToForm(payload));
-        return extractIdOrThrow(response, "ad set");
+        return payload;
     }
 
-    private String createAdCreative(String adAccountId, Ad ad, String accessToken) {
-        String url = String.format("%s/v%s/%s/adcreatives",
-            facebookProperties.getApiUrl(), facebookProperties.getApiVersion(), adAccountId);
-
+    private Map<String, Object> buildCreativePayload(Ad ad, UploadedImage image) {
         Map<String, Object> linkData = new HashMap<>();
         linkData.put("name", ad.getHeadline());
         linkData.put("message", ad.getPrimaryText());
         linkData.put("link", resolveWebsiteUrl(ad));
         linkData.put("description", ad.getDescription());
-        String resolvedImageUrl = resolveAbsoluteImageUrl(ad.getImageUrl());
-        String imageHash = uploadImageToAdAccount(adAccountId, resolvedImageUrl, accessToken);
-        if (StringUtils.hasText(imageHash)) {
-            linkData.put("image_hash", imageHash);
-        } else if (StringUtils.hasText(resolvedImageUrl)) {
-            linkData.put("picture", resolvedImageUrl);
+        if (image != null && StringUtils.hasText(image.getImageHash())) {
+            linkData.put("image_hash", image.getImageHash());
+        } else if (image != null && StringUtils.hasText(image.getResolvedUrl())) {
+            linkData.put("picture", image.getResolvedUrl());
         }
         Map<String, Object> ctaMap = new HashMap<>();
         ctaMap.put("type", mapCallToAction(ad.getCallToAction()));
@@ -206,42 +314,167 @@ public class FacebookMarketingApiClient {
         Map<String, Object> payload = new HashMap<>();
         payload.put("name", ad.getName());
         payload.put("object_story_spec", JsonUtils.toJson(objectStorySpec));
-        payload.put("access_token", accessToken);
-        logPayload("creative", payload, CREATIVE_ALLOWED_FIELDS);
-
-        Map<String, Object> response = postForm(url, convertToForm(payload));
-        return extractIdOrThrow(response, "creative");
+        return payload;
     }
 
-    private String createAd(String adAccountId, Ad ad, String adSetId, String creativeId, String accessToken) {
-        String url = String.format("%s/v%s/%s/ads",
-            facebookProperties.getApiUrl(), facebookProperties.getApiVersion(), adAccountId);
-
+    private Map<String, Object> buildAdPayload(Ad ad, String adSetId, String creativeId) {
         Map<String, Object> payload = new HashMap<>();
         payload.put("name", ad.getName());
         payload.put("adset_id", adSetId);
         payload.put("creative", String.format("{\"creative_id\":\"%s\"}", creativeId));
         payload.put("status", "PAUSED");
-        payload.put("access_token", accessToken);
-        logPayload("ad", payload, AD_ALLOWED_FIELDS);
+        return payload;
+    }
 
-        Map<String, Object> response = postForm(url, convertToForm(payload));
-        return extractIdOrThrow(response, "ad");
+    private Map<String, Object> batchOperation(String name, String relativeUrl, Map<String, Object> payload) {
+        Map<String, Object> operation = new LinkedHashMap<>();
+        operation.put("method", "POST");
+        operation.put("name", name);
+        operation.put("relative_url", relativeUrl);
+        operation.put("body", encodeBatchBody(payload));
+        return operation;
+    }
+
+    private String encodeBatchBody(Map<String, Object> payload) {
+        StringBuilder body = new StringBuilder();
+        payload.forEach((key, value) -> {
+            if (value == null) {
+                return;
+            }
+            if (body.length() > 0) {
+                body.append('&');
+            }
+            body.append(URLEncoder.encode(key, StandardCharsets.UTF_8))
+                .append('=')
+                .append(URLEncoder.encode(value.toString(), StandardCharsets.UTF_8));
+        });
+        return body.toString();
+    }
+
+    private List<BatchResponse> postBatch(String adAccountId, String accessToken, List<Map<String, Object>> operations) {
+        MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
+        form.add("access_token", accessToken);
+        form.add("batch", JsonUtils.toJson(operations));
+        form.add("include_headers", "false");
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
+        HttpEntity<MultiValueMap<String, String>> entity = new HttpEntity<>(form, headers);
+
+        usageThrottle.acquire(adAccountId);
+        ResponseEntity<String> response;
+        HttpHeaders responseHeaders = null;
+        try {
+            response = restTemplate.exchange(graphBaseUrl() + "/", HttpMethod.POST, entity, String.class);
+            responseHeaders = response.getHeaders();
+        } catch (HttpStatusCodeException ex) {
+            responseHeaders = ex.getResponseHeaders();
+            throw parseFacebookApiException(ex);
+        } finally {
+            usageThrottle.release(adAccountId, responseHeaders);
+        }
+
+        if (!response.getStatusCode().is2xxSuccessful() || !StringUtils.hasText(response.getBody())) {
+            throw new ApiException(HttpStatus.BAD_REQUEST,
+                extractFacebookErrorMessage(response.getBody(), response.getStatusCode()));
+        }
+
+        JsonNode root = JsonUtils.readTree(response.getBody());
+        if (!root.isArray()) {
+            throw new ApiException(HttpStatus.BAD_REQUEST,
+                extractFacebookErrorMessage(response.getBody(), response.getStatusCode()));
+        }
+
+        List<BatchResponse> responses = new ArrayList<>();
+        for (JsonNode item : root) {
+            responses.add(parseBatchItem(item));
+        }
+        return responses;
+    }
+
+    private BatchResponse parseBatchItem(JsonNode item) {
+        if (item == null || item.isNull()) {
+            return BatchResponse.failure("Operation was not executed");
+        }
+        int code = item.path("code").asInt(0);
+        String body = item.path("body").asText(null);
+        HttpStatus status = HttpStatus.resolve(code);
+        if (status != null && status.is2xxSuccessful() && StringUtils.hasText(body)) {
+            JsonNode parsed;
+            try {
+                parsed = JsonUtils.readTree(body);
+            } catch (RuntimeException e) {
+                // A garbled item only fails its own operation, not the rest of the batch
+                log.warn("Unparseable batch item body: {}", e.getMessage());
+                return BatchResponse.failure("Facebook returned an unreadable response");
+            }
+            String id = textOrNull(parsed, "id");
+            if (id != null) {
+                return BatchResponse.success(id);
+            }
+        }
+        return BatchResponse.failure(extractFacebookErrorMessage(body, status != null ? status : HttpStatus.BAD_REQUEST));
+    }
+
+    private UploadResult failedResult(Ad ad, String campaignId, String adSetId, String error) {
+        UploadResult result = UploadResult.failure(ad.getId(), error);
+        result.setCampaignId(campaignId);
+        result.setAdSetId(adSetId);
+        if (adSetId != null) {
+            result.setLastCompletedStep(UploadStep.AD_SET);
+        } else if (campaignId != null) {
+            result.setLastCompletedStep(UploadStep.CAMPAIGN);
+        }
+        return result;
+    }
+
+    private UploadResult checkpointResult(Ad ad, String campaignId, String adSetId, String creativeId) {
+        UploadResult result = new UploadResult();
+        result.setLocalAdId(ad.getId());
+        result.setCampaignId(campaignId);
+        result.setAdSetId(adSetId);
+        result.setCreativeId(creativeId);
+        if (creativeId != null) {
+            result.setLastCompletedStep(UploadStep.CREATIVE);
+        } else if (adSetId != null) {
+            result.setLastCompletedStep(UploadStep.AD_SET);
+        } else if (campaignId != null) {
+            result.setLastCompletedStep(UploadStep.CAMPAIGN);
+        }
+        return result;
+    }
+
+    private String graphBaseUrl() {
+        return String.format("%s/v%s", facebookProperties.getApiUrl(), facebookProperties.getApiVersion());
+    }
+
+    private String graphUrl(String relativePath) {
+        return facebookProperties.getApiUrl() + "/" + relativePath;
     }
 
-    private Map<String, Object> postForm(String url, MultiValueMap<String, String> form) {
+    private String edgePath(String adAccountId, String edge) {
+        return String.format("v%s/%s/%s", facebookProperties.getApiVersion(), adAccountId, edge);
+    }
+
+    private Map<String, Object> postForm(String adAccountId, String url, MultiValueMap<String, String> form) {
         HttpHeaders headers = new HttpHeaders();
         headers.setContentType(MediaType.APPLICATION_FORM_URLENCODED);
         HttpEntity<MultiValueMap<String, String>> entity = new HttpEntity<>(form, headers);
 
+        usageThrottle.acquire(adAccountId);
+        HttpHeaders responseHeaders = null;
         try {
             ResponseEntity<Map> response = restTemplate.exchange(url, HttpMethod.POST, entity, Map.class);
+            responseHeaders = response.getHeaders();
             if (!response.getStatusCode().is2xxSuccessful() || response.getBody() == null) {
                 throw buildFacebookApiException(response.getBody(), response.getStatusCode());
             }
             return response.getBody();
         } catch (HttpStatusCodeException ex) {
+            responseHeaders = ex.getResponseHeaders();
             throw parseFacebookApiException(ex);
+        } finally {
+            usageThrottle.release(adAccountId, responseHeaders);
         }
     }
 
@@ -333,15 +566,15 @@ public class FacebookMarketingApiClient {
         return cta.name();
     }
 
-    private String formatBudgetForMeta(Double budget) {
+    private String formatBudgetForMeta(AdAccountMetadata account, Double budget) {
         if (budget == null || budget <= 0) {
             return "0";
         }
-        long smallest = Math.round(budget * getBudgetMultiplier());
+        long smallest = Math.round(budget * getBudgetMultiplier(account));
         return String.valueOf(smallest);
     }
 
-    private Double resolveAdsetBudget(Campaign campaign) {
+    private Double resolveAdsetBudget(AdAccountMetadata account, Campaign campaign) {
         Double budget = null;
         if (campaign.getDailyBudget() != null && campaign.getDailyBudget() > 0) {
             budget = campaign.getDailyBudget();
@@ -350,21 +583,30 @@ public class FacebookMarketingApiClient {
         } else if (campaign.getTotalBudget() != null) {
             budget = campaign.getTotalBudget();
         }
-        budget = normalizeBudgetForCurrency(budget);
-        return budget != null ? budget : 0.0;
+        budget = normalizeBudgetForCurrency(account, budget);
+        if (budget == null || budget <= 0) {
+            return 0.0;
+        }
+        double minDailyBudget = getMinDailyBudget(account);
+        if (budget < minDailyBudget) {
+            log.debug("Raising budget {} of campaign {} to the ad account minimum {} {}",
+                budget, campaign.getId(), minDailyBudget, getCurrency(account));
+            budget = minDailyBudget;
+        }
+        return budget;
     }
 
-    private Long resolveBidAmount(Campaign campaign) {
+    private Long resolveBidAmount(AdAccountMetadata account, Campaign campaign) {
         Double manualBid = campaign.getBidCap();
         if (manualBid != null && manualBid > 0) {
-            double normalizedManual = normalizeBudgetForCurrency(manualBid);
-            long manualSmallest = Math.round(normalizedManual * getBudgetMultiplier());
+            double normalizedManual = normalizeBudgetForCurrency(account, manualBid);
+            long manualSmallest = Math.round(normalizedManual * getBudgetMultiplier(account));
             if (manualSmallest > 0) {
-                return clampBid(manualSmallest);
+                return clampBid(account, manualSmallest);
             }
         }
 
-        Double source = resolveAdsetBudget(campaign);
+        Double source = resolveAdsetBudget(account, campaign);
         if (source == null || source <= 0) {
             source = campaign.getDailyBudget();
         }
@@ -374,20 +616,20 @@ public class FacebookMarketingApiClient {
         if (source == null || source <= 0) {
             return null;
         }
-        source = normalizeBudgetForCurrency(source);
-        int multiplier = getBudgetMultiplier();
-        double minBidCurrency = getMinBidAmount() / (double) multiplier;
+        source = normalizeBudgetForCurrency(account, source);
+        int multiplier = getBudgetMultiplier(account);
+        double minBidCurrency = getMinBidAmount(account) / (double) multiplier;
         double baseBid = Math.max(source * 0.1, minBidCurrency);
         long smallest = Math.round(baseBid * multiplier);
         if (smallest <= 0) {
             return null;
         }
-        return clampBid(smallest);
+        return clampBid(account, smallest);
     }
 
-    private long clampBid(long smallest) {
-        long minBid = getMinBidAmount();
-        long maxBid = getMaxBidAmount();
+    private long clampBid(AdAccountMetadata account, long smallest) {
+        long minBid = getMinBidAmount(account);
+        long maxBid = getMaxBidAmount(account);
         long clamped = smallest;
         if (smallest < minBid) {
             clamped = minBid;
@@ -395,41 +637,59 @@ public class FacebookMarketingApiClient {
             log.warn("Bid amount {} exceeds Meta cap {} for currency {}. Clamping to allowed maximum.",
                 smallest,
                 maxBid,
-                facebookProperties.getAccountCurrency());
+                getCurrency(account));
             clamped = maxBid;
         }
         return clamped;
     }
 
-    private int getBudgetMultiplier() {
-        String currency = facebookProperties.getAccountCurrency();
-        if ("VND".equalsIgnoreCase(currency)) {
+    private String getCurrency(AdAccountMetadata account) {
+        if (account != null && StringUtils.hasText(account.getCurrency())) {
+            return account.getCurrency();
+        }
+        return facebookProperties.getAccountCurrency();
+    }
+
+    private boolean isVnd(AdAccountMetadata account) {
+        return "VND".equalsIgnoreCase(getCurrency(account));
+    }
+
+    private int getBudgetMultiplier(AdAccountMetadata account) {
+        if (isVnd(account)) {
             return 1;
         }
         return 100;
     }
 
-    private long getMinBidAmount() {
-        String currency = facebookProperties.getAccountCurrency();
-        if ("VND".equalsIgnoreCase(currency)) {
+    private long getMinBidAmount(AdAccountMetadata account) {
+        if (isVnd(account)) {
             return 1000;
         }
         return 100;
     }
 
-    private long getMaxBidAmount() {
-        String currency = facebookProperties.getAccountCurrency();
-        if ("VND".equalsIgnoreCase(currency)) {
+    private long getMaxBidAmount(AdAccountMetadata account) {
+        if (isVnd(account)) {
             return MAX_BID_VND;
         }
         return MAX_BID_USD_CENTS;
     }
 
-    private Double normalizeBudgetForCurrency(Double budget) {
+    /**
+     * The account's minimum daily budget in currency units. Meta reports it in the smallest unit.
+     */
+    private double getMinDailyBudget(AdAccountMetadata account) {
+        if (account != null && account.getMinDailyBudget() != null && account.getMinDailyBudget() > 0) {
+            return account.getMinDailyBudget() / (double) getBudgetMultiplier(account);
+        }
+        return isVnd(account) ? MIN_VND_DAILY_BUDGET : 0d;
+    }
+
+    private Double normalizeBudgetForCurrency(AdAccountMetadata account, Double budget) {
         if (budget == null || budget <= 0) {
             return budget;
         }
-        if ("VND".equalsIgnoreCase(facebookProperties.getAccountCurrency()) && budget < MIN_VND_DAILY_BUDGET) {
+        if (isVnd(account) && budget < getMinDailyBudget(account)) {
             double rate = facebookProperties.getLegacyUsdToVndRate() > 0
                 ? facebookProperties.getLegacyUsdToVndRate()
                 : DEFAULT_LEGACY_USD_TO_VND_RATE;
@@ -440,10 +700,46 @@ public class FacebookMarketingApiClient {
         return budget;
     }
 
-    private String formatDateTime(java.time.LocalDate date) {
+    private void warnIfOverSpendCap(AdAccountMetadata account, double budget) {
+        if (account == null || account.getSpendCap() == null || account.getSpendCap() <= 0) {
+            return;
+        }
+        long spent = account.getAmountSpent() != null ? account.getAmountSpent() : 0L;
+        long remaining = account.getSpendCap() - spent;
+        if (Math.round(budget * getBudgetMultiplier(account)) > remaining) {
+            log.warn("Daily budget {} {} exceeds the remaining spend cap of ad account {} ({} in smallest units)",
+                budget, getCurrency(account), account.getAdAccountId(), remaining);
+        }
+    }
+
+    /**
+     * Start and end dates are midnight in the ad account's timezone; without account metadata
+     * Meta applies the account timezone to the unzoned value itself.
+     */
+    private ZoneId resolveZone(AdAccountMetadata account) {
+        if (account == null) {
+            return null;
+        }
+        if (StringUtils.hasText(account.getTimezoneName())) {
+            try {
+                return ZoneId.of(account.getTimezoneName());
+            } catch (DateTimeException e) {
+                log.debug("Unknown ad account timezone {}", account.getTimezoneName());
+            }
+        }
+        if (account.getTimezoneOffsetHoursUtc() != null) {
+            return ZoneOffset.ofTotalSeconds((int) Math.round(account.getTimezoneOffsetHoursUtc() * 3600));
+        }
+        return null;
+    }
+
+    private String formatDateTime(java.time.LocalDate date, ZoneId zone) {
         if (date == null) {
             return null;
         }
+        if (zone != null) {
+            return DateTimeFormatter.ISO_OFFSET_DATE_TIME.format(date.atStartOfDay(zone));
+        }
         return ISO_FORMATTER.format(date.atStartOfDay());
     }
 
@@ -523,26 +819,19 @@ public class FacebookMarketingApiClient {
         return StringUtils.hasText(text) ? text : null;
     }
 
-    private String uploadImageToAdAccount(String adAccountId, String imageUrl, String accessToken) {
-        if (!StringUtils.hasText(imageUrl)) {
+    private String uploadImageToAdAccount(String adAccountId, byte[] bytes, String accessToken) {
+        if (bytes == null || bytes.length == 0) {
             return null;
         }
 
         try {
-            byte[] bytes = downloadImageBytes(imageUrl);
-            if (bytes == null || bytes.length == 0) {
-                log.warn("Image download failed for {}", imageUrl);
-                return null;
-            }
-
-            String url = String.format("%s/v%s/%s/adimages",
-                facebookProperties.getApiUrl(), facebookProperties.getApiVersion(), adAccountId);
+            String url = graphUrl(edgePath(adAccountId, "adimages"));
 
             MultiValueMap<String, String> form = new LinkedMultiValueMap<>();
             form.add("access_token", accessToken);
             form.add("bytes", Base64.getEncoder().encodeToString(bytes));
 
-            Map<String, Object> response = postForm(url, form);
+            Map<String, Object> response = postForm(adAccountId, url, form);
             Object imagesObj = response.get("images");
             if (imagesObj instanceof Map) {
                 Object hash = ((Map<?, ?>) imagesObj).get("hash");
@@ -646,6 +935,9 @@ public class FacebookMarketingApiClient {
     }
 
     private byte[] downloadImageBytes(String url) {
+        if (!StringUtils.hasText(url)) {
+            return null;
+        }
         try {
             ResponseEntity<byte[]> response = restTemplate.getForEntity(url, byte[].class);
             if (response.getStatusCode().is2xxSuccessful()) {
@@ -670,12 +962,291 @@ public class FacebookMarketingApiClient {
             "Website URL is required for Facebook auto upload");
     }
 
+    /**
+     * Per-ad-account upload state. Checkpoints passed to {@link #uploadGroup} let a retried upload
+     * continue from the last completed step instead of creating duplicate Meta objects.
+     */
+    public class UploadSession {
+        private final String adAccountId;
+        private final AdAccountMetadata account;
+        private final String accessToken;
+        private final Map<String, CompletableFuture<UploadedImage>> imagesByUrl = new ConcurrentHashMap<>();
+        // Meta image hashes are content based, so identical bytes behind different URLs are uploaded once.
+        private final Map<String, CompletableFuture<String>> imageHashByContent = new ConcurrentHashMap<>();
+
+        private UploadSession(String adAccountId, AdAccountMetadata account, String accessToken) {
+            this.adAccountId = adAccountId;
+            this.account = account;
+            this.accessToken = accessToken;
+        }
+
+        /**
+         * Uploads every ad of one campaign group. Returns results aligned with {@code group.getAds()}
+         * and reports each intermediate checkpoint and final result to {@code listener}.
+         */
+        public List<UploadResult> uploadGroup(FacebookUploadPlanner.CampaignGroup group,
+                                              Map<Long, UploadResult> checkpoints,
+                                              Consumer<UploadResult> listener) {
+            Map<Ad, UploadResult> results = new IdentityHashMap<>();
+            List<Ad> pending = new ArrayList<>();
+            Map<Ad, String> existingCreatives = new IdentityHashMap<>();
+            String campaignId = null;
+            String adSetId = null;
+
+            for (Ad ad : group.getAds()) {
+                UploadResult checkpoint = ad.getId() != null ? checkpoints.get(ad.getId()) : null;
+                if (checkpoint != null && checkpoint.isSuccess()) {
+                    results.put(ad, checkpoint);
+                    continue;
+                }
+                pending.add(ad);
+                if (checkpoint == null) {
+                    continue;
+                }
+                if (campaignId == null && checkpoint.getCampaignId() != null) {
+                    campaignId = checkpoint.getCampaignId();
+                }
+                if (adSetId == null && checkpoint.getAdSetId() != null
+                    && checkpoint.getCampaignId() != null && checkpoint.getCampaignId().equals(campaignId)) {
+                    adSetId = checkpoint.getAdSetId();
+                }
+                if (checkpoint.getCreativeId() != null) {
+                    existingCreatives.put(ad, checkpoint.getCreativeId());
+                }
+            }
+
+            if (!pending.isEmpty()) {
+                Campaign campaign = group.getCampaign();
+                try {
+                    if (campaignId == null) {
+                        campaignId = createCampaign(adAccountId, campaign, accessToken);
+                    }
+                    if (adSetId == null) {
+                        adSetId = createAdSet(adAccountId, account, campaign, pending.get(0), campaignId, accessToken);
+                    }
+                } catch (Exception e) {
+                    log.error("[FB Upload] Failed to create campaign/ad set for campaign {}: {}",
+                        campaign.getId(), e.getMessage());
+                    for (Ad ad : pending) {
+                        UploadResult failed = failedResult(ad, campaignId, null, e.getMessage());
+                        results.put(ad, failed);
+                        listener.accept(failed);
+                    }
+                    pending.clear();
+                }
+
+                for (Ad ad : pending) {
+                    listener.accept(checkpointResult(ad, campaignId, adSetId, existingCreatives.get(ad)));
+                }
+                for (int from = 0; from < pending.size(); from += ADS_PER_BATCH) {
+                    List<Ad> chunk = pending.subList(from, Math.min(from + ADS_PER_BATCH, pending.size()));
+                    Map<Ad, UploadResult> chunkResults =
+                        submitCreativesAndAds(campaignId, adSetId, chunk, existingCreatives);
+                    chunkResults.values().forEach(listener);
+                    results.putAll(chunkResults);
+                }
+            }
+
+            List<UploadResult> ordered = new ArrayList<>();
+            for (Ad ad : group.getAds()) {
+                ordered.add(results.get(ad));
+            }
+            return ordered;
+        }
+
+        /**
+         * Submits creative + ad pairs through the Graph batch endpoint. Each ad references its
+         * creative via {@code {result=creative_N:$.id}} so Meta resolves the dependency server-side;
+         * ads whose creative already exists from a checkpoint only submit the ad operation.
+         */
+        private Map<Ad, UploadResult> submitCreativesAndAds(String campaignId, String adSetId, List<Ad> ads,
+                                                            Map<Ad, String> existingCreatives) {
+            Map<Ad, UploadResult> results = new IdentityHashMap<>();
+            List<BatchedAd> batchedAds = new ArrayList<>();
+            List<Map<String, Object>> operations = new ArrayList<>();
+
+            for (Ad ad : ads) {
+                String existingCreativeId = existingCreatives.get(ad);
+                try {
+                    Integer creativeIndex = null;
+                    String creativeRef = existingCreativeId;
+                    List<Map<String, Object>> adOperations = new ArrayList<>();
+                    if (existingCreativeId == null) {
+                        String creativeName = "creative_" + batchedAds.size();
+                        Map<String, Object> creativePayload = buildCreativePayload(ad, resolveImage(ad.getImageUrl()));
+                        logPayload("creative", creativePayload, CREATIVE_ALLOWED_FIELDS);
+                        Map<String, Object> creativeOperation = batchOperation(
+                            creativeName, edgePath(adAccountId, "adcreatives"), creativePayload);
+                        // Named operations are omitted from the response by default; the creative id is needed locally.
+                        creativeOperation.put("omit_response_on_success", false);
+                        adOperations.add(creativeOperation);
+                        creativeIndex = operations.size();
+                        creativeRef = "{result=" + creativeName + ":$.id}";
+                    }
+                    Map<String, Object> adPayload = buildAdPayload(ad, adSetId, creativeRef);
+                    logPayload("ad", adPayload, AD_ALLOWED_FIELDS);
+                    adOperations.add(batchOperation(
+                        "ad_" + batchedAds.size(), edgePath(adAccountId, "ads"), adPayload));
+
+                    operations.addAll(adOperations);
+                    batchedAds.add(new BatchedAd(ad, creativeIndex, operations.size() - 1, existingCreativeId));
+                } catch (Exception e) {
+                    results.put(ad, failedResult(ad, campaignId, adSetId, e.getMessage()));
+                }
+            }
+
+            if (operations.isEmpty()) {
+                return results;
+            }
+
+            List<BatchResponse> responses;
+            try {
+                responses = postBatch(adAccountId, accessToken, operations);
+            } catch (Exception e) {
+                log.error("[FB Upload] Batch request failed for ad set {}: {}", adSetId, e.getMessage());
+                for (BatchedAd batched : batchedAds) {
+                    UploadResult failed = failedResult(batched.ad, campaignId, adSetId, e.getMessage());
+                    failed.setCreativeId(batched.existingCreativeId);
+                    results.put(batched.ad, failed);
+                }
+                return results;
+            }
+
+            for (BatchedAd batched : batchedAds) {
+                Ad ad = batched.ad;
+                String creativeId = batched.existingCreativeId;
+                if (batched.creativeIndex != null) {
+                    BatchResponse creativeResponse = responseAt(responses, batched.creativeIndex);
+                    if (!creativeResponse.isSuccess()) {
+                        results.put(ad, failedResult(ad, campaignId, adSetId, creativeResponse.getError()));
+                        continue;
+                    }
+                    creativeId = creativeResponse.getId();
+                }
+
+                BatchResponse adResponse = responseAt(responses, batched.adIndex);
+                if (!adResponse.isSuccess()) {
+                    UploadResult failed = checkpointResult(ad, campaignId, adSetId, creativeId);
+                    failed.setError(adResponse.getError());
+                    failed.setMessage("Failed to upload to Facebook: " + adResponse.getError());
+                    results.put(ad, failed);
+                    continue;
+                }
+
+                UploadResult result = checkpointResult(ad, campaignId, adSetId, creativeId);
+                result.setAdId(adResponse.getId());
+                result.setLastCompletedStep(UploadStep.AD);
+                result.setMessage("Uploaded via Marketing API batch");
+                results.put(ad, result);
+            }
+            return results;
+        }
+
+        private BatchResponse responseAt(List<BatchResponse> responses, int index) {
+            return index < responses.size() ? responses.get(index) : BatchResponse.failure("Missing batch response");
+        }
+
+        private UploadedImage resolveImage(String imageUrl) {
+            if (!StringUtils.hasText(imageUrl)) {
+                return null;
+            }
+            String key = imageUrl.trim();
+            return memoize(imagesByUrl, key, () -> {
+                String resolvedUrl = resolveAbsoluteImageUrl(key);
+                byte[] bytes = downloadImageBytes(resolvedUrl);
+                if (bytes == null || bytes.length == 0) {
+                    return new UploadedImage(resolvedUrl, null);
+                }
+                String imageHash = memoize(imageHashByContent, DigestUtils.md5DigestAsHex(bytes),
+                    () -> uploadImageToAdAccount(adAccountId, bytes, accessToken));
+                return new UploadedImage(resolvedUrl, imageHash);
+            });
+        }
+
+        private <T> T memoize(Map<String, CompletableFuture<T>> cache, String key, Supplier<T> loader) {
+            CompletableFuture<T> created = new CompletableFuture<>();
+            CompletableFuture<T> existing = cache.putIfAbsent(key, created);
+            if (existing != null) {
+                return existing.join();
+            }
+            try {
+                T value = loader.get();
+                created.complete(value);
+                return value;
+            } catch (RuntimeException e) {
+                cache.remove(key, created);
+                created.completeExceptionally(e);
+                throw e;
+            }
+        }
+    }
+
+    /**
+     * Last Meta object successfully created for an ad; used as the resume point of a retried upload.
+     */
+    public enum UploadStep {
+        CAMPAIGN,
+        AD_SET,
+        CREATIVE,
+        AD
+    }
+
     @Data
+    @JsonIgnoreProperties(ignoreUnknown = true)
     public static class UploadResult {
+        private Long localAdId;
         private String campaignId;
         private String adSetId;
         private String creativeId;
         private String adId;
         private String message;
+        private String error;
+        private UploadStep lastCompletedStep;
+
+        public boolean isSuccess() {
+            return error == null && adId != null;
+        }
+
+        public static UploadResult failure(Long localAdId, String error) {
+            UploadResult result = new UploadResult();
+            result.setLocalAdId(localAdId);
+            result.setError(error);
+            result.setMessage("Failed to upload to Facebook: " + error);
+            return result;
+        }
+    }
+
+    @RequiredArgsConstructor
+    private static class BatchedAd {
+        private final Ad ad;
+        private final Integer creativeIndex;
+        private final int adIndex;
+        private final String existingCreativeId;
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class UploadedImage {
+        private final String resolvedUrl;
+        private final String imageHash;
+    }
+
+    @Getter
+    @RequiredArgsConstructor(staticName = "of")
+    private static class BatchResponse {
+        private final String id;
+        private final String error;
+
+        static BatchResponse success(String id) {
+            return of(id, null);
+        }
+
+        static BatchResponse failure(String error) {
+            return of(null, error);
+        }
+
+        boolean isSuccess() {
+            return id != null;
+        }
     }
 }
@@ -23,6 +23,7 @@ public class FacebookProperties {
     private boolean autoDetectCurrency = true;
     private boolean adsetBudgetSharingEnabled;
     private boolean debugPayloads;
+    private int uploadMaxConcurrencyPerAccount = 4;
     
     // Getter methods
     public String getApiUrl() {
@@ -76,6 +77,10 @@ public class FacebookProperties {
     public boolean isDebugPayloads() {
         return debugPayloads;
     }
+
+    public int getUploadMaxConcurrencyPerAccount() {
+        return uploadMaxConcurrencyPerAccount;
+    }
     
     // Setter methods
     public void setApiUrl(String apiUrl) {
@@ -129,4 +134,8 @@ public class FacebookProperties {
     public void setDebugPayloads(boolean debugPayloads) {
         this.debugPayloads = debugPayloads;
     }
+
+    public void setUploadMaxConcurrencyPerAccount(int uploadMaxConcurrencyPerAccount) {
+        this.uploadMaxConcurrencyPerAccount = uploadMaxConcurrencyPerAccount;
+    }
 }
@@ -0,0 +1,84 @@
+package com.fbadsautomation.integration.facebook;
+
+import com.fbadsautomation.model.Ad;
+import com.fbadsautomation.model.Campaign;
+import lombok.Getter;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Groups ads selected for auto upload so that each local campaign maps to exactly one
+ * Meta campaign + ad set, and each distinct image is uploaded once per ad account.
+ * Ad order inside a group follows the order of the input list.
+ */
+@Component
+public class FacebookUploadPlanner {
+
+    public UploadPlan plan(List<Ad> ads) {
+        Map<String, CampaignGroup> groups = new LinkedHashMap<>();
+        Set<String> imageUrls = new LinkedHashSet<>();
+        List<Ad> unplannable = new ArrayList<>();
+
+        if (ads != null) {
+            for (Ad ad : ads) {
+                if (ad == null) {
+                    continue;
+                }
+                Campaign campaign = ad.getCampaign();
+                if (campaign == null) {
+                    unplannable.add(ad);
+                    continue;
+                }
+                groups.computeIfAbsent(groupKey(campaign), key -> new CampaignGroup(campaign)).ads.add(ad);
+                if (StringUtils.hasText(ad.getImageUrl())) {
+                    imageUrls.add(ad.getImageUrl().trim());
+                }
+            }
+        }
+
+        return new UploadPlan(new ArrayList<>(groups.values()), new ArrayList<>(imageUrls), unplannable);
+    }
+
+    private String groupKey(Campaign campaign) {
+        if (campaign.getId() != null) {
+            return "id:" + campaign.getId();
+        }
+        // Unsaved campaigns have no id yet; fall back to instance identity.
+        return "ref:" + System.identityHashCode(campaign);
+    }
+
+    @Getter
+    public static class UploadPlan {
+        private final List<CampaignGroup> groups;
+        private final List<String> distinctImageUrls;
+        private final List<Ad> unplannable;
+
+        UploadPlan(List<CampaignGroup> groups, List<String> distinctImageUrls, List<Ad> unplannable) {
+            this.groups = Collections.unmodifiableList(groups);
+            this.distinctImageUrls = Collections.unmodifiableList(distinctImageUrls);
+            this.unplannable = Collections.unmodifiableList(unplannable);
+        }
+
+        public int getAdCount() {
+            return groups.stream().mapToInt(group -> group.getAds().size()).sum() + unplannable.size();
+        }
+    }
+
+    @Getter
+    public static class CampaignGroup {
+        private final Campaign campaign;
+        private final List<Ad> ads = new ArrayList<>();
+
+        CampaignGroup(Campaign campaign) {
+            this.campaign = campaign;
+        }
+    }
+}
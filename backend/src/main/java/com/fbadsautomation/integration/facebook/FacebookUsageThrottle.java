@@ -0,0 +1,243 @@
+package com.fbadsautomation.integration.facebook;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
+import org.springframework.stereotype.Component;
+import org.springframework.util.StringUtils;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.IntSupplier;
+
+/**
+ * Paces Marketing API calls per ad account using the usage headers Meta returns on every response
+ * (X-Business-Use-Case-Usage, X-Ad-Account-Usage, X-App-Usage). Calls are delayed progressively
+ * once utilisation passes {@link #SLOWDOWN_THRESHOLD_PCT} and paused until the advertised regain
+ * time when Meta reports the account as throttled. In-flight calls per ad account are bounded by
+ * {@code facebook.upload.max-concurrency-per-account}, and the bound shrinks as usage rises.
+ */
+@Component
+@RequiredArgsConstructor
+public class FacebookUsageThrottle {
+
+    private static final Logger log = LoggerFactory.getLogger(FacebookUsageThrottle.class);
+
+    static final String BUSINESS_USE_CASE_USAGE_HEADER = "X-Business-Use-Case-Usage";
+    static final String AD_ACCOUNT_USAGE_HEADER = "X-Ad-Account-Usage";
+    static final String APP_USAGE_HEADER = "X-App-Usage";
+
+    private static final double SLOWDOWN_THRESHOLD_PCT = 75d;
+    private static final double PAUSE_THRESHOLD_PCT = 100d;
+    private static final Duration MAX_SLOWDOWN_DELAY = Duration.ofSeconds(5);
+    private static final Duration MAX_PAUSE = Duration.ofSeconds(60);
+    private static final Duration SNAPSHOT_TTL = Duration.ofMinutes(5);
+    private static final double REDUCED_CONCURRENCY_PCT = 90d;
+    private static final long PERMIT_RECHECK_MILLIS = 1000L;
+
+    private final FacebookProperties facebookProperties;
+    private final Map<String, UsageSnapshot> snapshots = new ConcurrentHashMap<>();
+    private final Map<String, AccountPermits> permits = new ConcurrentHashMap<>();
+
+    /**
+     * Blocks until the ad account has a free concurrency slot and headroom according to the last
+     * observed usage. Every call must be paired with {@link #release(String, HttpHeaders)}.
+     */
+    public void acquire(String adAccountId) {
+        if (!StringUtils.hasText(adAccountId)) {
+            return;
+        }
+        permits.computeIfAbsent(adAccountId, key -> new AccountPermits())
+            .acquire(() -> allowedConcurrency(adAccountId));
+        awaitCapacity(adAccountId);
+    }
+
+    /**
+     * Frees the slot taken by {@link #acquire(String)} and records the usage headers of the response.
+     */
+    public void release(String adAccountId, HttpHeaders responseHeaders) {
+        record(adAccountId, responseHeaders);
+        if (!StringUtils.hasText(adAccountId)) {
+            return;
+        }
+        AccountPermits accountPermits = permits.get(adAccountId);
+        if (accountPermits != null) {
+            accountPermits.release();
+        }
+    }
+
+    /**
+     * Number of concurrent calls allowed for the ad account right now: the configured maximum,
+     * halved past the slowdown threshold and serialized when close to the limit.
+     */
+    public int allowedConcurrency(String adAccountId) {
+        int max = Math.max(1, facebookProperties.getUploadMaxConcurrencyPerAccount());
+        double usagePct = currentUsagePct(adAccountId);
+        if (usagePct >= REDUCED_CONCURRENCY_PCT) {
+            return 1;
+        }
+        if (usagePct >= SLOWDOWN_THRESHOLD_PCT) {
+            return Math.max(1, max / 2);
+        }
+        return max;
+    }
+
+    private void awaitCapacity(String adAccountId) {
+        Duration delay = computeDelay(adAccountId);
+        if (delay.isZero()) {
+            return;
+        }
+        log.info("[FB Throttle] Delaying call for {} by {} ms (usage {}%)",
+            adAccountId, delay.toMillis(), Math.round(currentUsagePct(adAccountId)));
+        try {
+            Thread.sleep(delay.toMillis());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    public Duration computeDelay(String adAccountId) {
+        UsageSnapshot snapshot = activeSnapshot(adAccountId);
+        if (snapshot == null) {
+            return Duration.ZERO;
+        }
+        Instant now = Instant.now();
+        if (snapshot.regainAt != null && snapshot.regainAt.isAfter(now)) {
+            Duration wait = Duration.between(now, snapshot.regainAt);
+            return wait.compareTo(MAX_PAUSE) > 0 ? MAX_PAUSE : wait;
+        }
+        if (snapshot.usagePct >= PAUSE_THRESHOLD_PCT) {
+            return MAX_SLOWDOWN_DELAY;
+        }
+        if (snapshot.usagePct < SLOWDOWN_THRESHOLD_PCT) {
+            return Duration.ZERO;
+        }
+        double ratio = (snapshot.usagePct - SLOWDOWN_THRESHOLD_PCT) / (PAUSE_THRESHOLD_PCT - SLOWDOWN_THRESHOLD_PCT);
+        return Duration.ofMillis(Math.round(MAX_SLOWDOWN_DELAY.toMillis() * ratio));
+    }
+
+    public double currentUsagePct(String adAccountId) {
+        UsageSnapshot snapshot = activeSnapshot(adAccountId);
+        return snapshot != null ? snapshot.usagePct : 0d;
+    }
+
+    /**
+     * Records the usage headers of a Graph API response. Missing or malformed headers are ignored.
+     */
+    public void record(String adAccountId, HttpHeaders headers) {
+        if (!StringUtils.hasText(adAccountId) || headers == null) {
+            return;
+        }
+        double usagePct = 0d;
+        long regainSeconds = 0L;
+
+        JsonNode businessUsage = parseHeader(headers, BUSINESS_USE_CASE_USAGE_HEADER);
+        if (businessUsage != null) {
+            for (JsonNode entries : businessUsage) {
+                for (JsonNode entry : entries) {
+                    usagePct = Math.max(usagePct, maxOf(entry, "call_count", "total_cputime", "total_time"));
+                    regainSeconds = Math.max(regainSeconds, entry.path("estimated_time_to_regain_access").asLong(0) * 60);
+                }
+            }
+        }
+
+        JsonNode accountUsage = parseHeader(headers, AD_ACCOUNT_USAGE_HEADER);
+        if (accountUsage != null) {
+            usagePct = Math.max(usagePct, accountUsage.path("acc_id_util_pct").asDouble(0));
+            regainSeconds = Math.max(regainSeconds, accountUsage.path("reset_time_duration").asLong(0));
+        }
+
+        JsonNode appUsage = parseHeader(headers, APP_USAGE_HEADER);
+        if (appUsage != null) {
+            usagePct = Math.max(usagePct, maxOf(appUsage, "call_count", "total_cputime", "total_time"));
+        }
+
+        if (businessUsage == null && accountUsage == null && appUsage == null) {
+            return;
+        }
+
+        Instant now = Instant.now();
+        Instant regainAt = usagePct >= PAUSE_THRESHOLD_PCT && regainSeconds > 0
+            ? now.plusSeconds(regainSeconds)
+            : null;
+        snapshots.put(adAccountId, new UsageSnapshot(usagePct, regainAt, now));
+        if (usagePct >= SLOWDOWN_THRESHOLD_PCT) {
+            log.warn("[FB Throttle] Ad account {} usage at {}% (regain in {} s)",
+                adAccountId, Math.round(usagePct), regainSeconds);
+        }
+    }
+
+    private UsageSnapshot activeSnapshot(String adAccountId) {
+        if (!StringUtils.hasText(adAccountId)) {
+            return null;
+        }
+        UsageSnapshot snapshot = snapshots.get(adAccountId);
+        if (snapshot == null) {
+            return null;
+        }
+        if (snapshot.observedAt.plus(SNAPSHOT_TTL).isBefore(Instant.now())) {
+            snapshots.remove(adAccountId, snapshot);
+            return null;
+        }
+        return snapshot;
+    }
+
+    private JsonNode parseHeader(HttpHeaders headers, String name) {
+        String value = headers.getFirst(name);
+        if (!StringUtils.hasText(value)) {
+            return null;
+        }
+        try {
+            return JsonUtils.readTree(value);
+        } catch (Exception e) {
+            log.debug("[FB Throttle] Ignoring malformed {} header: {}", name, e.getMessage());
+            return null;
+        }
+    }
+
+    private double maxOf(JsonNode node, String... fields) {
+        double max = 0d;
+        for (String field : fields) {
+            max = Math.max(max, node.path(field).asDouble(0));
+        }
+        return max;
+    }
+
+    private static final class AccountPermits {
+        private int inFlight;
+
+        synchronized void acquire(IntSupplier limit) {
+            // The limit is re-evaluated periodically because usage snapshots change while waiting.
+            while (inFlight >= limit.getAsInt()) {
+                try {
+                    wait(PERMIT_RECHECK_MILLIS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                }
+            }
+            inFlight++;
+        }
+
+        synchronized void release() {
+            inFlight = Math.max(0, inFlight - 1);
+            notifyAll();
+        }
+    }
+
+    private static final class UsageSnapshot {
+        private final double usagePct;
+        private final Instant regainAt;
+        private final Instant observedAt;
+
+        private UsageSnapshot(double usagePct, Instant regainAt, Instant observedAt) {
+            this.usagePct = usagePct;
+            this.regainAt = regainAt;
+            this.observedAt = observedAt;
+        }
+    }
+}
@@ -1,6 +1,7 @@
 package com.fbadsautomation.integration.facebook;
 
 import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
 
 /**
@@ -18,4 +19,12 @@ public final class JsonUtils {
             throw new RuntimeException("Failed to serialize JSON: " + e.getMessage(), e);
         }
     }
+
+    public static JsonNode readTree(String json) {
+        try {
+            return MAPPER.readTree(json);
+        } catch (JsonProcessingException e) {
+            throw new RuntimeException("Failed to parse JSON: " + e.getMessage(), e);
+        }
+    }
 }
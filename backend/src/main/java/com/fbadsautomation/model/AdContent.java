@@ -1,7 +1,11 @@
 package com.fbadsautomation.model;
 
 import com.fbadsautomation.model.FacebookCTA;
+import com.fbadsautomation.util.text.SimHash;
+import com.fbadsautomation.util.text.TextDocument;
 import java.time.LocalDateTime;
+import java.util.HashMap;
+import java.util.Map;
 import javax.persistence.*;
 import org.hibernate.annotations.CreationTimestamp;
 import org.hibernate.annotations.UpdateTimestamp;
@@ -10,8 +14,10 @@ import org.hibernate.annotations.UpdateTimestamp;
 @Table(name = "ad_contents")
 public class AdContent {
     
+    // Pooled sequence (see V32) so variations of one ad are inserted in a single JDBC batch.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ad_contents_seq")
+    @SequenceGenerator(name = "ad_contents_seq", sequenceName = "ad_contents_id_seq", allocationSize = 50)
     private Long id;
     
     @Column(name = "content_type")
@@ -64,6 +70,9 @@ public class AdContent {
     @Column(name = "needs_review")
     private Boolean needsReview = false; // Flag for content truncated to meet Facebook limits
 
+    @Column(name = "content_simhash")
+    private Long contentSimhash; // SimHash of headline, description and primary text for near-duplicate lookup
+
     @ManyToOne(fetch = FetchType.LAZY)
     @JoinColumn(name = "ad_id", nullable = false)
     private Ad ad;
@@ -72,6 +81,10 @@ public class AdContent {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
     
+    // Fields already scanned by moderation, keyed by their text, so validation does not scan them again
+    @Transient
+    private transient Map<String, TextDocument> scannedDocuments;
+
     @CreationTimestamp
     @Column(name = "created_date", updatable = false)
     private LocalDateTime createdDate;
@@ -109,6 +122,33 @@ public class AdContent {
     public void setHasWarnings(Boolean hasWarnings) { this.hasWarnings = hasWarnings; }
     public Boolean getNeedsReview() { return needsReview; }
     public void setNeedsReview(Boolean needsReview) { this.needsReview = needsReview; }
+    public Long getContentSimhash() { return contentSimhash; }
+    public void setContentSimhash(Long contentSimhash) { this.contentSimhash = contentSimhash; }
+
+    /**
+     * Keeps the fingerprint in step with the copy, whichever path saves it.
+     */
+    @PrePersist
+    @PreUpdate
+    public void updateContentSimhash() {
+        long fingerprint = SimHash.of(headline, description, primaryText);
+        this.contentSimhash = fingerprint != 0 ? fingerprint : null;
+    }
+
+    /**
+     * The scan of {@code text} if it was recorded for this content, null otherwise. Keyed by the text,
+     * so a field changed after its scan is never served a stale document.
+     */
+    public TextDocument scannedDocument(String text) {
+        return scannedDocuments != null && text != null ? scannedDocuments.get(text) : null;
+    }
+
+    public void rememberScannedDocument(TextDocument document) {
+        if (scannedDocuments == null) {
+            scannedDocuments = new HashMap<>(4);
+        }
+        scannedDocuments.put(document.getText(), document);
+    }
     public Long getId() { return id; }
     public void setId(Long id) { this.id = id; }
     public ContentType getContentType() { return contentType; }
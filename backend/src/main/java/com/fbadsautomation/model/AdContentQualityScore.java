@@ -0,0 +1,75 @@
+package com.fbadsautomation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDateTime;
+
+/**
+ * Last quality score of one ad content, keyed by the hash of the scored copy and the scorer version
+ * so a content is only scored again once either changes. Every write also updates the per-ad and
+ * per-campaign rows of {@link QualityScoreAggregate} through a database trigger.
+ */
+@Entity
+@Table(name = "ad_content_quality_scores")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class AdContentQualityScore {
+
+    @Id
+    @Column(name = "ad_content_id")
+    private Long adContentId;
+
+    @Column(name = "ad_id", nullable = false)
+    private Long adId;
+
+    @Column(name = "campaign_id")
+    private Long campaignId;
+
+    @Column(name = "content_hash", nullable = false, length = 64)
+    private String contentHash;
+
+    @Column(name = "scorer_version", nullable = false)
+    private Integer scorerVersion;
+
+    @Column(name = "compliance_score", nullable = false)
+    private double complianceScore;
+
+    @Column(name = "linguistic_score", nullable = false)
+    private double linguisticScore;
+
+    @Column(name = "persuasiveness_score", nullable = false)
+    private double persuasivenessScore;
+
+    @Column(name = "completeness_score", nullable = false)
+    private double completenessScore;
+
+    @Column(name = "total_score", nullable = false)
+    private double totalScore;
+
+    @Column(name = "grade")
+    private String grade;
+
+    @Column(name = "suggestions_json", columnDefinition = "TEXT")
+    private String suggestionsJson;
+
+    @Column(name = "strengths_json", columnDefinition = "TEXT")
+    private String strengthsJson;
+
+    // Inputs the scores were computed from, in AdQualityScoringService.FEATURE_NAMES order
+    @Column(name = "features_json", columnDefinition = "TEXT")
+    private String featuresJson;
+
+    // Also lets new rows be persisted without a select, since the id is assigned
+    @Version
+    @Column(name = "version")
+    private Long version;
+
+    @Column(name = "scored_at")
+    private LocalDateTime scoredAt;
+}
@@ -47,6 +47,13 @@ public class AdOptimizationSnapshot {
     @Column(name = "created_at")
     private LocalDateTime createdAt;
 
+    @Column(name = "review_key", length = 128)
+    private String reviewKey;
+
+    @Lob
+    @Column(name = "copy_review_json", columnDefinition = "TEXT")
+    private String copyReviewJson;
+
     public Long getId() {
         return id;
     }
@@ -118,4 +125,20 @@ public class AdOptimizationSnapshot {
     public void setCreatedAt(LocalDateTime createdAt) {
         this.createdAt = createdAt;
     }
+
+    public String getReviewKey() {
+        return reviewKey;
+    }
+
+    public void setReviewKey(String reviewKey) {
+        this.reviewKey = reviewKey;
+    }
+
+    public String getCopyReviewJson() {
+        return copyReviewJson;
+    }
+
+    public void setCopyReviewJson(String copyReviewJson) {
+        this.copyReviewJson = copyReviewJson;
+    }
 }
@@ -47,8 +47,11 @@ import java.time.LocalDateTime;
 @Builder
 public class AdPerformanceReport {
 
+    // Pooled sequence (see V32) so report imports are written in JDBC batches.
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "ad_performance_reports_seq")
+    @SequenceGenerator(name = "ad_performance_reports_seq", sequenceName = "ad_performance_reports_id_seq",
+        allocationSize = 50)
     private Long id;
 
     // Foreign Keys
@@ -60,6 +60,22 @@ public enum AdPersona {
         this.toneEnglish = toneEnglish;
     }
 
+    /**
+     * Closest persona for the tone of a user-created {@link Persona}; unknown tones map to
+     * {@link #GENERAL_FRIENDLY}.
+     */
+    public static AdPersona fromTone(String tone) {
+        if (tone == null) {
+            return GENERAL_FRIENDLY;
+        }
+        return switch (tone.toLowerCase()) {
+            case "professional", "formal" -> PROFESSIONAL_TRUSTWORTHY;
+            case "funny" -> GEN_Z_GAMER;
+            case "enthusiastic" -> HEALTH_WELLNESS;
+            default -> GENERAL_FRIENDLY;
+        };
+    }
+
     public String getCategory() {
         return category;
     }
@@ -65,7 +65,8 @@ public class AsyncJobStatus {
         AD_CONTENT_GENERATION,
         IMAGE_GENERATION,
         IMAGE_ENHANCEMENT,
-        BULK_AD_GENERATION
+        BULK_AD_GENERATION,
+        FACEBOOK_AUTO_UPLOAD
     }
 
     public enum Status {
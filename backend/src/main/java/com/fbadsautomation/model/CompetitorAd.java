@@ -0,0 +1,90 @@
+package com.fbadsautomation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+
+/**
+ * A competitor ad in the local corpus, one row per source and external ad ID, refreshed every time
+ * the ad is fetched again. The full-text and trigram search columns are generated by the database
+ * (see V35) and not mapped.
+ */
+@Entity
+@Table(name = "competitor_ads")
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompetitorAd {
+
+    public static final String SOURCE_SCRAPE_CREATORS = "SCRAPE_CREATORS";
+    public static final String SOURCE_META_API = "META_API";
+
+    // Pooled sequence (see V35) so a page of fetched ads is inserted in a single JDBC batch.
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "competitor_ads_seq")
+    @SequenceGenerator(name = "competitor_ads_seq", sequenceName = "competitor_ads_id_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "source", nullable = false, length = 32)
+    private String source;
+
+    @Column(name = "external_id", nullable = false, length = 128)
+    private String externalId;
+
+    @Column(name = "brand_name")
+    private String brandName;
+
+    @Column(name = "brand_key")
+    private String brandKey;
+
+    @Column(name = "page_id", length = 64)
+    private String pageId;
+
+    @Column(name = "country", length = 10)
+    private String country;
+
+    @Column(name = "headline", columnDefinition = "TEXT")
+    private String headline;
+
+    @Column(name = "body", columnDefinition = "TEXT")
+    private String body;
+
+    @Column(name = "description", columnDefinition = "TEXT")
+    private String description;
+
+    @Column(name = "call_to_action", length = 64)
+    private String callToAction;
+
+    @Column(name = "image_urls_json", columnDefinition = "TEXT")
+    private String imageUrlsJson;
+
+    @Column(name = "video_url", columnDefinition = "TEXT")
+    private String videoUrl;
+
+    @Column(name = "landing_page_url", columnDefinition = "TEXT")
+    private String landingPageUrl;
+
+    @Column(name = "ad_library_url", columnDefinition = "TEXT")
+    private String adLibraryUrl;
+
+    @Column(name = "start_date")
+    private LocalDate startDate;
+
+    @Column(name = "end_date")
+    private LocalDate endDate;
+
+    @Column(name = "is_active")
+    private Boolean isActive;
+
+    @Column(name = "first_seen_at", nullable = false)
+    private LocalDateTime firstSeenAt;
+
+    @Column(name = "last_seen_at", nullable = false)
+    private LocalDateTime lastSeenAt;
+}
@@ -0,0 +1,44 @@
+package com.fbadsautomation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * When a brand search was last answered by the ScrapeCreators API, so the competitor corpus knows
+ * whether its copy of the brand's ads is still fresh.
+ */
+@Entity
+@Table(name = "competitor_brand_refreshes")
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class CompetitorBrandRefresh {
+
+    @EmbeddedId
+    private Key key;
+
+    @Column(name = "refreshed_at", nullable = false)
+    private LocalDateTime refreshedAt;
+
+    @Column(name = "ad_count", nullable = false)
+    private int adCount;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Column(name = "brand_key", nullable = false)
+        private String brandKey;
+
+        // Empty when the search was not limited to a country
+        @Column(name = "country", nullable = false, length = 10)
+        private String country;
+    }
+}
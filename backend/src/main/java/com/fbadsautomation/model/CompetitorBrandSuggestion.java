@@ -0,0 +1,49 @@
+package com.fbadsautomation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * A distinct brand from one user's competitor search history, with how often and how recently it
+ * was searched. Rows are maintained by a trigger on {@code competitor_searches} (see V36) and are
+ * read-only here.
+ */
+@Entity
+@Immutable
+@Table(name = "competitor_brand_suggestions")
+@Data
+@NoArgsConstructor
+public class CompetitorBrandSuggestion {
+
+    @EmbeddedId
+    private Key key;
+
+    @Column(name = "brand_name", nullable = false, length = 100)
+    private String brandName;
+
+    @Column(name = "search_count", nullable = false)
+    private int searchCount;
+
+    @Column(name = "last_searched_at", nullable = false)
+    private LocalDateTime lastSearchedAt;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Column(name = "user_id", nullable = false)
+        private Long userId;
+
+        // Lower-cased, trimmed brand name
+        @Column(name = "brand_key", nullable = false, length = 100)
+        private String brandKey;
+    }
+}
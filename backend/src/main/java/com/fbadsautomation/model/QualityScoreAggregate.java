@@ -0,0 +1,93 @@
+package com.fbadsautomation.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+import org.hibernate.annotations.Immutable;
+
+import javax.persistence.*;
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/**
+ * Running count, sum, minimum and maximum of every score dimension over the stored scores of one ad
+ * or campaign. Rows are maintained by a trigger on {@code ad_content_quality_scores} and are
+ * read-only here.
+ */
+@Entity
+@Immutable
+@Table(name = "quality_score_aggregates")
+@Data
+@NoArgsConstructor
+public class QualityScoreAggregate {
+
+    public static final String SCOPE_AD = "AD";
+    public static final String SCOPE_CAMPAIGN = "CAMPAIGN";
+
+    @EmbeddedId
+    private Key key;
+
+    @Column(name = "score_count", nullable = false)
+    private int scoreCount;
+
+    @Column(name = "sum_total", nullable = false)
+    private double sumTotal;
+
+    @Column(name = "min_total", nullable = false)
+    private double minTotal;
+
+    @Column(name = "max_total", nullable = false)
+    private double maxTotal;
+
+    @Column(name = "sum_compliance", nullable = false)
+    private double sumCompliance;
+
+    @Column(name = "min_compliance", nullable = false)
+    private double minCompliance;
+
+    @Column(name = "max_compliance", nullable = false)
+    private double maxCompliance;
+
+    @Column(name = "sum_linguistic", nullable = false)
+    private double sumLinguistic;
+
+    @Column(name = "min_linguistic", nullable = false)
+    private double minLinguistic;
+
+    @Column(name = "max_linguistic", nullable = false)
+    private double maxLinguistic;
+
+    @Column(name = "sum_persuasiveness", nullable = false)
+    private double sumPersuasiveness;
+
+    @Column(name = "min_persuasiveness", nullable = false)
+    private double minPersuasiveness;
+
+    @Column(name = "max_persuasiveness", nullable = false)
+    private double maxPersuasiveness;
+
+    @Column(name = "sum_completeness", nullable = false)
+    private double sumCompleteness;
+
+    @Column(name = "min_completeness", nullable = false)
+    private double minCompleteness;
+
+    @Column(name = "max_completeness", nullable = false)
+    private double maxCompleteness;
+
+    @Column(name = "updated_at", nullable = false)
+    private LocalDateTime updatedAt;
+
+    @Embeddable
+    @Data
+    @NoArgsConstructor
+    @AllArgsConstructor
+    public static class Key implements Serializable {
+
+        @Column(name = "scope", nullable = false, length = 16)
+        private String scope;
+
+        @Column(name = "scope_id", nullable = false)
+        private Long scopeId;
+    }
+}
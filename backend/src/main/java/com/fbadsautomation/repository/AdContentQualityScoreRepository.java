@@ -0,0 +1,13 @@
+package com.fbadsautomation.repository;
+
+import com.fbadsautomation.model.AdContentQualityScore;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface AdContentQualityScoreRepository extends JpaRepository<AdContentQualityScore, Long> {
+
+    List<AdContentQualityScore> findByAdIdOrderByAdContentIdAsc(Long adId);
+}
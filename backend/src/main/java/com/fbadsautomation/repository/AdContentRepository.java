@@ -19,6 +19,25 @@ public interface AdContentRepository extends JpaRepository<AdContent, Long> {
     List<AdContent> findByAdAndIsSelected(Ad ad, Boolean isSelected);
     Optional<AdContent> findByIdAndAdId(Long id, Long adId);
     List<AdContent> findByAdId(Long adId);
+    List<AdContent> findByAdCampaignId(Long campaignId);
+
+    /**
+     * Number of contents of an ad whose stored quality score is missing, from another scorer version
+     * or older than the last edit of the content, i.e. not yet reflected in the quality aggregate.
+     */
+    @Query("SELECT COUNT(ac) FROM AdContent ac LEFT JOIN AdContentQualityScore s ON s.adContentId = ac.id " +
+           "WHERE ac.ad.id = :adId AND (s.adContentId IS NULL OR s.scorerVersion <> :scorerVersion " +
+           "OR s.scoredAt IS NULL OR s.scoredAt < ac.updatedAt)")
+    long countStaleQualityScoresByAdId(@Param("adId") Long adId, @Param("scorerVersion") int scorerVersion);
+
+    /**
+     * Campaign-wide variant of {@link #countStaleQualityScoresByAdId}.
+     */
+    @Query("SELECT COUNT(ac) FROM AdContent ac LEFT JOIN AdContentQualityScore s ON s.adContentId = ac.id " +
+           "WHERE ac.ad.campaign.id = :campaignId AND (s.adContentId IS NULL OR s.scorerVersion <> :scorerVersion " +
+           "OR s.scoredAt IS NULL OR s.scoredAt < ac.updatedAt)")
+    long countStaleQualityScoresByCampaignId(@Param("campaignId") Long campaignId,
+                                             @Param("scorerVersion") int scorerVersion);
     
     // Thêm các phương thức truy vấn theo user để đảm bảo cô lập dữ liệu
     List<AdContent> findByUser(User user);
@@ -102,4 +121,17 @@ public interface AdContentRepository extends JpaRepository<AdContent, Long> {
      */
     @Query("UPDATE AdContent ac SET ac.isSelected = :selected WHERE ac.ad = :ad AND ac.user = :user")
     void updateSelectedStatusByAdAndUser(@Param("ad") Ad ad, @Param("user") User user, @Param("selected") Boolean selected);
+
+    /**
+     * Fingerprints of the user's past contents that share at least one SimHash band key, most recent
+     * first. Native because the band keys are a generated array column (see V33); {@code bandKeys}
+     * is an array literal such as {@code {12,300}}.
+     */
+    @Query(value = "SELECT ac.content_simhash FROM ad_contents ac " +
+           "WHERE ac.user_id = :userId AND ac.content_simhash_bands && CAST(:bandKeys AS int[]) " +
+           "ORDER BY ac.id DESC LIMIT :limit",
+           nativeQuery = true)
+    List<Long> findSimilarContentSimhashes(@Param("userId") Long userId,
+                                           @Param("bandKeys") String bandKeys,
+                                           @Param("limit") int limit);
 }
@@ -35,6 +35,11 @@ public interface AdRepository extends JpaRepository<Ad, Long> {
     List<Ad> findByUserId(@Param("userId") Long userId);
     
     List<Ad> findTop10ByOrderByCreatedDateDesc();
+
+    // Prompt and persona of recent ads created with a persona, newest first (persona classifier training)
+    @Query("SELECT a.prompt, p FROM Ad a JOIN a.persona p "
+         + "WHERE a.prompt IS NOT NULL ORDER BY a.createdDate DESC")
+    List<Object[]> findPromptsWithPersona(Pageable pageable);
     List<Ad> findTop10ByUserOrderByCreatedDateDesc(User user);
     
     @Query("SELECT COUNT(a) FROM Ad a WHERE a.campaign.user = :user")
@@ -119,4 +124,11 @@ public interface AdRepository extends JpaRepository<Ad, Long> {
      */
     @Query("SELECT DISTINCT a FROM Ad a LEFT JOIN FETCH a.campaign LEFT JOIN FETCH a.persona WHERE a.user = :user AND a.id IN :adIds")
     List<Ad> findByUserAndIdInWithCampaign(@Param("user") User user, @Param("adIds") List<Long> adIds);
+
+    /**
+     * Fetch a batch of ads (including campaign) in one query, regardless of owner. Not scoped to a
+     * user, so callers are responsible for checking ownership.
+     */
+    @Query("SELECT DISTINCT a FROM Ad a LEFT JOIN FETCH a.campaign WHERE a.id IN :adIds")
+    List<Ad> findByIdInWithCampaign(@Param("adIds") List<Long> adIds);
 }
@@ -37,6 +37,34 @@ public interface AsyncJobStatusRepository extends JpaRepository<AsyncJobStatus,
                        @Param("newStatus") AsyncJobStatus.Status newStatus,
                        @Param("now") LocalDateTime now);
 
+    /**
+     * Writes a checkpoint without touching the status, so a checkpoint flushed by a running worker
+     * cannot overwrite a cancel committed in between.
+     */
+    @Modifying
+    @Query("UPDATE AsyncJobStatus a SET a.progress = :progress, a.currentStep = :currentStep, "
+        + "a.resultData = :resultData, a.updatedAt = :now WHERE a.jobId = :jobId")
+    int saveCheckpoint(@Param("jobId") String jobId,
+                       @Param("progress") Integer progress,
+                       @Param("currentStep") String currentStep,
+                       @Param("resultData") String resultData,
+                       @Param("now") LocalDateTime now);
+
+    /**
+     * Moves the job back to PENDING only if it is still in one of {@code reopenable}, so two
+     * concurrent resumes cannot both start a worker on the same checkpoint.
+     */
+    @Modifying
+    @Query("UPDATE AsyncJobStatus a SET a.status = :pending, a.currentStep = :currentStep, a.errorMessage = NULL, "
+        + "a.completedAt = NULL, a.expiresAt = :expiresAt, a.updatedAt = :now "
+        + "WHERE a.jobId = :jobId AND a.status IN :reopenable")
+    int reopenJob(@Param("jobId") String jobId,
+                  @Param("reopenable") List<AsyncJobStatus.Status> reopenable,
+                  @Param("pending") AsyncJobStatus.Status pending,
+                  @Param("currentStep") String currentStep,
+                  @Param("expiresAt") LocalDateTime expiresAt,
+                  @Param("now") LocalDateTime now);
+
     Long countByUserIdAndStatus(Long userId, AsyncJobStatus.Status status);
 
     @Query("SELECT COUNT(a) FROM AsyncJobStatus a WHERE a.userId = :userId AND a.status IN :statuses")
@@ -0,0 +1,45 @@
+package com.fbadsautomation.repository;
+
+import com.fbadsautomation.model.CompetitorAd;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
+@Repository
+public interface CompetitorAdRepository extends JpaRepository<CompetitorAd, Long> {
+
+    Optional<CompetitorAd> findBySourceAndExternalId(String source, String externalId);
+
+    List<CompetitorAd> findBySourceAndExternalIdIn(String source, Collection<String> externalIds);
+
+    /**
+     * Ads of brands whose key matches {@code brandKey} exactly or by trigram similarity, exact and
+     * closest matches first, then most recently seen.
+     */
+    @Query(value = "SELECT * FROM competitor_ads " +
+           "WHERE (brand_key = :brandKey OR brand_key % :brandKey) " +
+           "AND (:country = '' OR country IS NULL OR country = :country) " +
+           "ORDER BY (brand_key = :brandKey) DESC, similarity(brand_key, :brandKey) DESC, last_seen_at DESC " +
+           "LIMIT :limit",
+           nativeQuery = true)
+    List<CompetitorAd> findByBrand(@Param("brandKey") String brandKey,
+                                   @Param("country") String country,
+                                   @Param("limit") int limit);
+
+    /**
+     * Full-text search over headline and body, falling back to trigram word similarity so typos and
+     * partial words still match; ranked by the sum of both scores.
+     */
+    @Query(value = "SELECT * FROM competitor_ads " +
+           "WHERE search_vector @@ websearch_to_tsquery('simple', :query) OR :query <% search_text " +
+           "ORDER BY ts_rank(search_vector, websearch_to_tsquery('simple', :query)) " +
+           "+ word_similarity(:query, search_text) DESC, last_seen_at DESC " +
+           "LIMIT :limit",
+           nativeQuery = true)
+    List<CompetitorAd> searchText(@Param("query") String query, @Param("limit") int limit);
+}
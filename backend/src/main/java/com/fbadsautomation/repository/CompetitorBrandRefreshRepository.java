@@ -0,0 +1,9 @@
+package com.fbadsautomation.repository;
+
+import com.fbadsautomation.model.CompetitorBrandRefresh;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+@Repository
+public interface CompetitorBrandRefreshRepository extends JpaRepository<CompetitorBrandRefresh, CompetitorBrandRefresh.Key> {
+}
@@ -0,0 +1,27 @@
+package com.fbadsautomation.repository;
+
+import com.fbadsautomation.model.CompetitorBrandSuggestion;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+
+@Repository
+public interface CompetitorBrandSuggestionRepository
+        extends JpaRepository<CompetitorBrandSuggestion, CompetitorBrandSuggestion.Key> {
+
+    /**
+     * Brands of the user whose key starts with {@code prefix}, most recently searched first and then
+     * most searched. {@code prefix} must already have {@code !}, {@code %} and {@code _} escaped with
+     * {@code !}; it is lower-cased here with the same function the trigger uses for the keys.
+     */
+    @Query("SELECT s.brandName FROM CompetitorBrandSuggestion s " +
+           "WHERE s.key.userId = :userId AND s.key.brandKey LIKE CONCAT(LOWER(:prefix), '%') ESCAPE '!' " +
+           "ORDER BY s.lastSearchedAt DESC, s.searchCount DESC")
+    List<String> findBrandNamesByPrefix(@Param("userId") Long userId,
+                                        @Param("prefix") String prefix,
+                                        Pageable pageable);
+}
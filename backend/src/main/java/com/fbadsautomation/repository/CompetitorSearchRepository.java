@@ -2,8 +2,27 @@ package com.fbadsautomation.repository;
 
 import com.fbadsautomation.model.CompetitorSearch;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
 import java.util.List;
 
 public interface CompetitorSearchRepository extends JpaRepository<CompetitorSearch, Long> {
     List<CompetitorSearch> findByUserId(Long userId);
+
+    /**
+     * Deletes up to {@code batchSize} searches older than {@code cutoff} in its own transaction, so
+     * cleaning a large history never holds long locks.
+     *
+     * @return number of rows deleted; fewer than {@code batchSize} means nothing older is left
+     */
+    @Modifying
+    @Transactional
+    @Query(value = "DELETE FROM competitor_searches WHERE id IN (" +
+           "SELECT id FROM competitor_searches WHERE search_date < :cutoff LIMIT :batchSize)",
+           nativeQuery = true)
+    int deleteBatchOlderThan(@Param("cutoff") LocalDateTime cutoff, @Param("batchSize") int batchSize);
 }
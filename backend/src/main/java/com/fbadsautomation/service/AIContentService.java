@@ -13,6 +13,7 @@ import com.fbadsautomation.service.AIProviderService;
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
@@ -56,6 +57,34 @@ import org.springframework.stereotype.Service;
                                            List<String> trendingKeywords,
                                            List<AdGenerationRequest.VariationProviderConfig> variationConfigs,
                                            boolean enforceLengthLimits) {
+       return generateAdContent(ad, prompt, mediaFile, textProvider, imageProvider, numberOfVariations, language,
+           adLinks, extractedContent, mediaFileUrl, callToAction, audienceSegment, userSelectedPersona,
+           trendingKeywords, variationConfigs, enforceLengthLimits, null);
+   }
+
+   /**
+    * Generate ad content for an ad, handing every variation to {@code onVariationReady} as soon as its
+    * text, image and validation are done
+    * @param onVariationReady Listener for finished variations, may be called from several threads (optional)
+    * @return List of generated ad contents
+    */
+   public List<AdContent> generateAdContent(Ad ad,
+                                           String prompt,
+                                           org.springframework.web.multipart.MultipartFile mediaFile,
+                                           String textProvider,
+                                           String imageProvider,
+                                           Integer numberOfVariations,
+                                           String language,
+                                           List<String> adLinks,
+                                           String extractedContent,
+                                           String mediaFileUrl,
+                                           com.fbadsautomation.model.FacebookCTA callToAction,
+                                           com.fbadsautomation.dto.AudienceSegmentRequest audienceSegment,
+                                           com.fbadsautomation.model.Persona userSelectedPersona,
+                                           List<String> trendingKeywords,
+                                           List<AdGenerationRequest.VariationProviderConfig> variationConfigs,
+                                           boolean enforceLengthLimits,
+                                           Consumer<AdContent> onVariationReady) {
        log.info("[Issue #9] Generating content for ad: {}, campaign: {}, mediaFileUrl: {}, persona: {}, trending keywords: {}",
                 ad.getId(),
                 ad.getCampaign() != null ? ad.getCampaign().getId() : "none",
@@ -103,7 +132,8 @@ import org.springframework.stereotype.Service;
                ad.getAdStyle(),
                userSelectedPersona,
                trendingKeywords,
-               enforceLengthLimits);
+               enforceLengthLimits,
+               onVariationReady);
        } else {
            generatedContents = aiIntegrationService.generateContentWithCampaign(
                prompt,
@@ -120,7 +150,8 @@ import org.springframework.stereotype.Service;
                ad.getAdStyle(),
                userSelectedPersona,
                trendingKeywords,
-               enforceLengthLimits);
+               enforceLengthLimits,
+               onVariationReady);
        }
        
        // Set ad reference and preview order for each content
@@ -170,11 +201,10 @@ import org.springframework.stereotype.Service;
                                                        com.fbadsautomation.model.AdStyle adStyle,
                                                        com.fbadsautomation.model.Persona userSelectedPersona,
                                                        List<String> trendingKeywords,
-                                                       boolean enforceLengthLimits) {
-       List<AdContent> perVariationContents = new ArrayList<>();
-
-       for (int i = 0; i < variationConfigs.size(); i++) {
-           AdGenerationRequest.VariationProviderConfig config = variationConfigs.get(i);
+                                                       boolean enforceLengthLimits,
+                                                       Consumer<AdContent> onVariationReady) {
+       List<AIContentServiceImpl.VariationTarget> targets = new ArrayList<>(variationConfigs.size());
+       for (AdGenerationRequest.VariationProviderConfig config : variationConfigs) {
            String variationTextProvider = resolveTextProvider(config.getTextProvider(), fallbackTextProvider);
 
            String mediaFileToUse = defaultMediaFileUrl;
@@ -184,32 +214,24 @@ import org.springframework.stereotype.Service;
            } else {
                variationImageProvider = resolveImageProvider(config.getImageProvider(), fallbackImageProvider);
            }
-
-           List<AdContent> generated = aiIntegrationService.generateContentWithCampaign(
-               prompt,
-               contentType,
-               variationTextProvider,
-               variationImageProvider,
-               1,
-               language,
-               adLinks,
-               extractedContent,
-               mediaFileToUse,
-               callToAction,
-               campaign,
-               adStyle,
-               userSelectedPersona,
-               trendingKeywords,
-               enforceLengthLimits);
-
-           if (!generated.isEmpty()) {
-               perVariationContents.add(generated.get(0));
-           } else {
-               log.warn("No content returned for variation {} using provider {}", i + 1, variationTextProvider);
-           }
+           targets.add(new AIContentServiceImpl.VariationTarget(variationTextProvider, variationImageProvider, mediaFileToUse));
        }
 
-       return perVariationContents;
+       // Prompt built once per provider, variations generated concurrently and returned in config order
+       return aiIntegrationService.generateVariationsWithCampaign(
+           prompt,
+           contentType,
+           targets,
+           language,
+           adLinks,
+           extractedContent,
+           callToAction,
+           campaign,
+           adStyle,
+           userSelectedPersona,
+           trendingKeywords,
+           enforceLengthLimits,
+           onVariationReady);
    }
 
    private String resolveTextProvider(String primary, String fallback) {
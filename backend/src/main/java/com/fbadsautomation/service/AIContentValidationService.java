@@ -2,12 +2,13 @@ package com.fbadsautomation.service;
 
 import com.fbadsautomation.config.ValidationConfig;
 import com.fbadsautomation.model.AdContent;
+import com.fbadsautomation.service.security.AdCopyScanner;
+import com.fbadsautomation.util.text.TextDocument;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import java.util.ArrayList;
-import java.util.Arrays;
+import java.util.HashSet;
 import java.util.List;
-import java.util.regex.Pattern;
-import java.util.stream.Collectors;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -27,18 +28,7 @@ public class AIContentValidationService {
         this.objectMapper = objectMapper;
     }
 
-    // Inappropriate content patterns
-    private static final List<String> INAPPROPRIATE_KEYWORDS = Arrays.asList("hate", "violence", "discrimination", "illegal", "drugs", "weapons",
-        "gambling", "adult", "explicit", "offensive", "scam", "fraud"
-    ); // Facebook advertising policy violations
-    private static final List<String> POLICY_VIOLATIONS = Arrays.asList("before and after", "miracle", "guaranteed results", "lose weight fast",
-        "get rich quick", "work from home", "make money fast", "free money",
-        "click here", "act now", "limited time", "urgent"
-    );
-    // Spam indicators
-    private static final List<String> SPAM_INDICATORS = Arrays.asList("!!!", "???", "FREE!!!", "URGENT!!!", "ACT NOW!!!", "LIMITED TIME!!!",
-        "CLICK HERE NOW", "AMAZING OFFER", "DON'T MISS OUT"
-    );     // Maximum lengths for different content types - Updated to match Facebook actual limits
+    // Maximum lengths for different content types - Updated to match Facebook actual limits
     private static final int MAX_HEADLINE_LENGTH = 40; // Facebook limit: 40 characters
     private static final int MAX_DESCRIPTION_LENGTH = 125; // Facebook limit: 125 characters (not 30!)
     private static final int MAX_PRIMARY_TEXT_LENGTH = 1000; // Facebook limit: 1000+ characters (not 125!)
@@ -150,25 +140,29 @@ public class AIContentValidationService {
             return result;
         }
         
+        TextDocument headline = scan(content, content.getHeadline());
+        TextDocument description = scan(content, content.getDescription());
+        TextDocument primaryText = scan(content, content.getPrimaryText());
+
         // Validate headline
-        if (content.getHeadline() != null) {
-            violations.addAll(validateText(content.getHeadline(), "headline", MAX_HEADLINE_LENGTH, enforceLengthLimits));
+        if (headline != null) {
+            violations.addAll(validateText(headline, "headline", MAX_HEADLINE_LENGTH, enforceLengthLimits));
         } else {
             violations.add("Headline is missing");
         }
         
         // Validate description
-        if (content.getDescription() != null) {
-            violations.addAll(validateText(content.getDescription(), "description", MAX_DESCRIPTION_LENGTH, enforceLengthLimits));
+        if (description != null) {
+            violations.addAll(validateText(description, "description", MAX_DESCRIPTION_LENGTH, enforceLengthLimits));
         }
         
         // Validate primary text
-        if (content.getPrimaryText() != null) {
-            violations.addAll(validateText(content.getPrimaryText(), "primary text", MAX_PRIMARY_TEXT_LENGTH, enforceLengthLimits));
+        if (primaryText != null) {
+            violations.addAll(validateText(primaryText, "primary text", MAX_PRIMARY_TEXT_LENGTH, enforceLengthLimits));
         }
         
         // Check overall content quality
-        violations.addAll(validateContentQuality(content));
+        violations.addAll(validateContentQuality(content, headline, primaryText));
 
         result.setValid(violations.isEmpty());
         result.setViolations(violations);
@@ -180,57 +174,67 @@ public class AIContentValidationService {
         return result;
     }
     
+    /**
+     * Reuses the document moderation scanned the field into, scanning only fields it did not see or
+     * changed.
+     */
+    private TextDocument scan(AdContent content, String text) {
+        if (text == null) {
+            return null;
+        }
+        TextDocument document = content.scannedDocument(text);
+        return document != null ? document : AdCopyScanner.scan(text);
+    }
+
     /**
      * Validate text content
      */
-    private List<String> validateText(String text, String fieldName, int maxLength, boolean enforceLengthLimits) {
+    private List<String> validateText(TextDocument document, String fieldName, int maxLength, boolean enforceLengthLimits) {
         List<String> violations = new ArrayList<>();
-        if (text == null || text.trim().isEmpty()) {
+        if (document.isBlank()) {
             violations.add(fieldName + " is empty");
             return violations;
         }
         
-        String cleanText = text.trim().toLowerCase(); // Check length
-        if (enforceLengthLimits && text.length() > maxLength) {
+        // Check length
+        if (enforceLengthLimits && document.length() > maxLength) {
             violations.add(fieldName + " exceeds maximum length of " + maxLength + " characters");
         }
         
         // Check minimum word count
-        String[] words = text.trim().split("\\s+");
-        if (words.length < MIN_WORD_COUNT) {
+        if (document.getTokenCount() < MIN_WORD_COUNT) {
             violations.add(fieldName + " has too few words (minimum " + MIN_WORD_COUNT + ")");
         }
         
         // Check for inappropriate content
-        for (String keyword : INAPPROPRIATE_KEYWORDS) {
-            if (cleanText.contains(keyword.toLowerCase())) {
+        for (String keyword : AdCopyScanner.INAPPROPRIATE_KEYWORDS) {
+            if (document.contains(AdCopyScanner.INAPPROPRIATE, keyword)) {
                 violations.add(fieldName + " contains inappropriate content: " + keyword);
             }
         }
         
         // Check for policy violations
-        for (String violation : POLICY_VIOLATIONS) {
-            if (cleanText.contains(violation.toLowerCase())) {
+        for (String violation : AdCopyScanner.POLICY_VIOLATIONS) {
+            if (document.contains(AdCopyScanner.POLICY, violation)) {
                 violations.add(fieldName + " may violate Facebook advertising policies: " + violation);
             }
         }
         
         // Check for spam indicators
-        for (String spam : SPAM_INDICATORS) {
-            if (text.contains(spam)) {
+        for (String spam : AdCopyScanner.SPAM_INDICATORS) {
+            if (document.contains(AdCopyScanner.SPAM, spam)) {
                 violations.add(fieldName + " contains spam-like content: " + spam);
             }
         }
         
-        // Check for excessive punctuation
-        if (text.matches(".*[!?]{3,}.*")) {
+        // Check for excessive punctuation (a line break hides it, as with the former ".*[!?]{3,}.*" match)
+        if (document.getLongestPunctuationRun() >= 3 && !document.hasLineBreak()) {
             violations.add(fieldName + " contains excessive punctuation");
         }
         
         // Check for all caps (more than 50% of text)
-        long upperCaseCount = text.chars().filter(Character::isUpperCase).count();
-        long letterCount = text.chars().filter(Character::isLetter).count();
-        if (letterCount > 0 && (double) upperCaseCount / letterCount > 0.5) {
+        int letterCount = document.getLetterCount();
+        if (letterCount > 0 && (double) document.getUpperCaseCount() / letterCount > 0.5) {
             violations.add(fieldName + " contains too much uppercase text");
         }
         
@@ -240,22 +244,22 @@ public class AIContentValidationService {
     /**
      * Validate overall content quality
      */
-    private List<String> validateContentQuality(AdContent content) {
+    private List<String> validateContentQuality(AdContent content, TextDocument headline, TextDocument primaryText) {
         List<String> violations = new ArrayList<>(); // Check for duplicate content across fields
         if (content.getHeadline() != null && content.getDescription() != null &&
             content.getHeadline().equals(content.getDescription())) {
             violations.add("Headline and description are identical");
         }
         // Check for coherence between fields - Relaxed threshold
-        if (content.getHeadline() != null && content.getPrimaryText() != null) {
-            double similarity = calculateTextSimilarity(content.getHeadline(), content.getPrimaryText());
+        if (headline != null && primaryText != null) {
+            double similarity = calculateTextSimilarity(headline, primaryText);
             if (similarity < 0.05) { // Reduced from 0.1 to 0.05 - more lenient
                 violations.add("Content fields seem unrelated");
             }
         }
         // Check readability - More lenient
-        if (content.getPrimaryText() != null) {
-            double readabilityScore = calculateReadabilityScore(content.getPrimaryText());
+        if (primaryText != null) {
+            double readabilityScore = calculateReadabilityScore(primaryText);
             if (readabilityScore < MIN_READABILITY_SCORE) {
                 violations.add("Content readability is too low");
             }
@@ -275,6 +279,7 @@ public class AIContentValidationService {
         fixedContent.setCallToAction(content.getCallToAction());
         fixedContent.setCta(content.getCta());
         fixedContent.setAiProvider(content.getAiProvider());
+        fixedContent.setContentSimhash(content.getContentSimhash());
         
         return fixedContent;
     }
@@ -291,6 +296,7 @@ public class AIContentValidationService {
         fixedContent.setCallToAction(content.getCallToAction());
         fixedContent.setCta(content.getCta());
         fixedContent.setAiProvider(content.getAiProvider());
+        fixedContent.setContentSimhash(content.getContentSimhash());
         
         boolean wasFixed = false; // Fix length issues by truncating
         if (fixedContent.getHeadline() != null && fixedContent.getHeadline().length() > MAX_HEADLINE_LENGTH) {
@@ -342,9 +348,28 @@ public class AIContentValidationService {
      */
     private String cleanText(String text) {
         if (text == null) return null;
-        return text.trim()
-                  .replaceAll("\\s+", " ") // Replace multiple spaces with single space
-                  .replaceAll("([.!?])\\1+", "$1"); // Remove repeated punctuation
+        String trimmed = text.trim();
+        StringBuilder cleaned = new StringBuilder(trimmed.length());
+        boolean inWhitespace = false;
+        for (int i = 0; i < trimmed.length(); i++) {
+            char c = trimmed.charAt(i);
+            if (c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r') {
+                // Replace multiple spaces with single space
+                if (!inWhitespace) {
+                    cleaned.append(' ');
+                }
+                inWhitespace = true;
+                continue;
+            }
+            inWhitespace = false;
+            // Remove repeated punctuation
+            boolean repeated = (c == '.' || c == '!' || c == '?')
+                && cleaned.length() > 0 && cleaned.charAt(cleaned.length() - 1) == c;
+            if (!repeated) {
+                cleaned.append(c);
+            }
+        }
+        return cleaned.toString();
     }
     
     /**
@@ -392,33 +417,30 @@ public class AIContentValidationService {
     /**
      * Calculate text similarity (simple implementation)
      */
-    private double calculateTextSimilarity(String text1, String text2) {
-        if (text1 == null || text2 == null) return 0.0;
-        String[] words1 = text1.toLowerCase().split("\\s+");
-        String[] words2 = text2.toLowerCase().split("\\s+");
+    private double calculateTextSimilarity(TextDocument text1, TextDocument text2) {
+        List<String> words1 = text1.words();
+        List<String> words2 = text2.words();
+        Set<String> vocabulary2 = new HashSet<>(words2);
         int commonWords = 0;
         for (String word1 : words1) {
-            for (String word2 : words2) {
-                if (word1.equals(word2)) {
-                    commonWords++;
-                    break;
-                }
+            if (vocabulary2.contains(word1)) {
+                commonWords++;
             }
         }
         
-        return (double) commonWords / Math.max(words1.length, words2.length);
+        return (double) commonWords / Math.max(words1.size(), words2.size());
     }
     
     /**
      * Calculate readability score (simplified) - More lenient calculation
      */
-    private double calculateReadabilityScore(String text) {
-        if (text == null || text.trim().isEmpty()) return 0.5; // Default to acceptable score
-        String[] sentences = text.split("[.!?]+");
-        String[] words = text.split("\\s+");
-        if (sentences.length == 0 || words.length == 0) return 0.5; // Default to acceptable score
+    private double calculateReadabilityScore(TextDocument text) {
+        if (text.isBlank()) return 0.5; // Default to acceptable score
+        int sentences = text.getSentenceCount();
+        int words = text.getSplitWordCount();
+        if (sentences == 0 || words == 0) return 0.5; // Default to acceptable score
         
-        double avgWordsPerSentence = (double) words.length / sentences.length;
+        double avgWordsPerSentence = (double) words / sentences;
         // More lenient readability calculation - accept longer sentences
         double score = Math.max(0.0, 1.0 - (avgWordsPerSentence - 15) / 30); // Increased threshold from 10 to 15
         return Math.max(0.1, score); // Ensure minimum score of 0.1
@@ -29,7 +29,7 @@ public class AIPromptImprovementService {
      * @param targetAudience Target audience if provided
      * @return Improved prompt suggestion, or null if improvement not needed/failed
      */
-    @Cacheable(value = "improvedPrompts", key = "#originalPrompt + '_' + #adType + '_' + #targetAudience", unless = "#result == null")
+    @Cacheable(value = "improvedPrompts", keyGenerator = "digestKeyGenerator", unless = "#result == null")
     public String generateImprovedPrompt(String originalPrompt, String adType, String targetAudience) {
         if (originalPrompt == null || originalPrompt.trim().length() < 20) {
             log.debug("Prompt too short for AI improvement: {}", originalPrompt);
@@ -0,0 +1,235 @@
+package com.fbadsautomation.service;
+
+import com.fbadsautomation.model.Capability;
+import io.github.resilience4j.circuitbreaker.CircuitBreaker;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.DoubleAdder;
+import java.util.concurrent.atomic.LongAdder;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+/**
+ * Orders AI providers by their live performance. Every call records its latency, outcome and
+ * estimated cost per provider and capability; candidates are then ranked by expected latency
+ * divided by the chance of success, so a fast but flaky provider loses to a slightly slower reliable
+ * one. Providers whose circuit breaker rejects calls are dropped from the route up front instead of
+ * being tried and retried.
+ */
+@Slf4j
+@Service
+public class AIProviderRouter {
+
+    /** Error rates are capped so that a failing provider still gets a finite, comparable score. */
+    private static final double MAX_ERROR_RATE = 0.95;
+
+    // Static preferences, used only to break ties between providers with the same score
+    private static final Map<Capability, List<String>> PREFERENCES = Map.of(
+        Capability.TEXT_GENERATION, List.of("openai", "gemini", "anthropic-claude", "hugging-face"),
+        Capability.IMAGE_GENERATION, List.of("gemini", "fal-ai", "stable-diffusion", "openai", "hugging-face"));
+
+    private final CircuitBreakerRegistry circuitBreakerRegistry;
+    private final double alpha;
+    private final Map<Capability, Double> latencyPriorsMs;
+    private final Map<String, RouteStats> stats = new ConcurrentHashMap<>();
+
+    public AIProviderRouter(CircuitBreakerRegistry circuitBreakerRegistry,
+                            @Value("${ai.routing.ewma-alpha:0.2}") double alpha,
+                            @Value("${ai.routing.text-latency-prior-ms:5000}") double textLatencyPriorMs,
+                            @Value("${ai.routing.image-latency-prior-ms:20000}") double imageLatencyPriorMs) {
+        if (alpha <= 0 || alpha > 1) {
+            throw new IllegalArgumentException("EWMA alpha must be in (0, 1]");
+        }
+        this.circuitBreakerRegistry = circuitBreakerRegistry;
+        this.alpha = alpha;
+        this.latencyPriorsMs = Map.of(
+            Capability.TEXT_GENERATION, textLatencyPriorMs,
+            Capability.IMAGE_GENERATION, imageLatencyPriorMs);
+    }
+
+    /**
+     * Records one call to {@code providerId}. Called from request threads, so it only touches
+     * lock-free counters.
+     */
+    public void record(String providerId, Capability capability, boolean success, long latencyMs, double cost) {
+        statsFor(providerId, capability).record(success, latencyMs, cost, alpha);
+    }
+
+    /**
+     * Returns the candidates that currently accept calls, best first.
+     */
+    public List<String> route(Capability capability, Collection<String> candidates) {
+        List<String> route = new ArrayList<>();
+        for (String candidate : candidates) {
+            if (isCallPermitted(candidate)) {
+                route.add(candidate);
+            } else {
+                log.info("Skipping provider '{}' for {}: circuit breaker is open", candidate, capability);
+            }
+        }
+        route.sort(byScore(capability, route));
+        return route;
+    }
+
+    /**
+     * Whether the circuit breaker of {@code providerId} would let a call through right now. The
+     * permission is handed straight back, so probing does not use up a half-open trial call.
+     */
+    public boolean isCallPermitted(String providerId) {
+        CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(providerId);
+        if (!circuitBreaker.tryAcquirePermission()) {
+            return false;
+        }
+        circuitBreaker.releasePermission();
+        return true;
+    }
+
+    /**
+     * Live routing table of {@code capability}: the candidates in the order {@link #route} would
+     * try them, followed by the ones it would skip.
+     */
+    public List<ProviderRouteStats> snapshot(Capability capability, Collection<String> candidates) {
+        List<String> ordered = new ArrayList<>(candidates);
+        ordered.sort(byScore(capability, ordered));
+        List<ProviderRouteStats> permitted = new ArrayList<>();
+        List<ProviderRouteStats> skipped = new ArrayList<>();
+        for (String providerId : ordered) {
+            CircuitBreaker.State state = circuitBreakerRegistry.circuitBreaker(providerId).getState();
+            RouteStats routeStats = stats.get(key(providerId, capability));
+            ProviderRouteStats row = new ProviderRouteStats(providerId, capability,
+                routeStats != null ? routeStats.calls.sum() : 0,
+                routeStats != null ? routeStats.failures.sum() : 0,
+                expectedLatency(routeStats, capability),
+                errorRate(routeStats),
+                routeStats != null ? routeStats.cost.sum() : 0.0,
+                score(providerId, capability),
+                state.name());
+            (state == CircuitBreaker.State.OPEN || state == CircuitBreaker.State.FORCED_OPEN ? skipped : permitted).add(row);
+        }
+        permitted.addAll(skipped);
+        return permitted;
+    }
+
+    /**
+     * Orders by score, reading each score once up front: the averages keep moving under concurrent
+     * recorders, and a comparator whose answers change mid-sort breaks the sort.
+     */
+    private Comparator<String> byScore(Capability capability, Collection<String> providerIds) {
+        Map<String, Double> scores = new HashMap<>();
+        providerIds.forEach(providerId -> scores.put(providerId, score(providerId, capability)));
+        return Comparator.comparingDouble((String providerId) -> scores.get(providerId))
+            .thenComparingInt(providerId -> preference(providerId, capability));
+    }
+
+    private double score(String providerId, Capability capability) {
+        RouteStats routeStats = stats.get(key(providerId, capability));
+        return expectedLatency(routeStats, capability) / (1.0 - errorRate(routeStats));
+    }
+
+    private double expectedLatency(RouteStats routeStats, Capability capability) {
+        double latency = routeStats != null ? routeStats.latencyMs() : Double.NaN;
+        return Double.isNaN(latency) ? latencyPriorsMs.getOrDefault(capability, 5000.0) : latency;
+    }
+
+    private double errorRate(RouteStats routeStats) {
+        return routeStats != null ? Math.min(routeStats.errorRate(), MAX_ERROR_RATE) : 0.0;
+    }
+
+    private int preference(String providerId, Capability capability) {
+        int index = PREFERENCES.getOrDefault(capability, List.of()).indexOf(providerId);
+        return index >= 0 ? index : Integer.MAX_VALUE;
+    }
+
+    private RouteStats statsFor(String providerId, Capability capability) {
+        return stats.computeIfAbsent(key(providerId, capability), k -> new RouteStats());
+    }
+
+    private static String key(String providerId, Capability capability) {
+        return capability.name() + ":" + providerId;
+    }
+
+    /**
+     * Per provider and capability counters. The moving averages are doubles kept as raw bits in
+     * atomic longs and updated by compare-and-set, so concurrent recorders never block each other.
+     */
+    private static final class RouteStats {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+        private final DoubleAdder cost = new DoubleAdder();
+        private final AtomicLong latencyBits = new AtomicLong(Double.doubleToRawLongBits(Double.NaN));
+        private final AtomicLong errorRateBits = new AtomicLong(Double.doubleToRawLongBits(0.0));
+
+        void record(boolean success, long latencyMs, double callCost, double alpha) {
+            calls.increment();
+            if (!success) {
+                failures.increment();
+            }
+            cost.add(callCost);
+            latencyBits.updateAndGet(bits -> {
+                double previous = Double.longBitsToDouble(bits);
+                // The first sample seeds the average instead of being blended with the prior
+                double next = Double.isNaN(previous) ? latencyMs : previous + alpha * (latencyMs - previous);
+                return Double.doubleToRawLongBits(next);
+            });
+            errorRateBits.updateAndGet(bits -> {
+                double previous = Double.longBitsToDouble(bits);
+                return Double.doubleToRawLongBits(previous + alpha * ((success ? 0.0 : 1.0) - previous));
+            });
+        }
+
+        double latencyMs() {
+            return Double.longBitsToDouble(latencyBits.get());
+        }
+
+        double errorRate() {
+            return Double.longBitsToDouble(errorRateBits.get());
+        }
+    }
+
+    /**
+     * One row of the live routing table.
+     */
+    public static final class ProviderRouteStats {
+        private final String provider;
+        private final Capability capability;
+        private final long calls;
+        private final long failures;
+        private final double ewmaLatencyMs;
+        private final double ewmaErrorRate;
+        private final double totalCost;
+        private final double score;
+        private final String circuitState;
+
+        public ProviderRouteStats(String provider, Capability capability, long calls, long failures,
+                                  double ewmaLatencyMs, double ewmaErrorRate, double totalCost, double score,
+                                  String circuitState) {
+            this.provider = provider;
+            this.capability = capability;
+            this.calls = calls;
+            this.failures = failures;
+            this.ewmaLatencyMs = ewmaLatencyMs;
+            this.ewmaErrorRate = ewmaErrorRate;
+            this.totalCost = totalCost;
+            this.score = score;
+            this.circuitState = circuitState;
+        }
+
+        public String getProvider() { return provider; }
+        public Capability getCapability() { return capability; }
+        public long getCalls() { return calls; }
+        public long getFailures() { return failures; }
+        public double getEwmaLatencyMs() { return ewmaLatencyMs; }
+        public double getEwmaErrorRate() { return ewmaErrorRate; }
+        public double getTotalCost() { return totalCost; }
+        public double getScore() { return score; }
+        public String getCircuitState() { return circuitState; }
+    }
+}
@@ -10,6 +10,8 @@ import io.github.resilience4j.retry.Retry;
 import io.github.resilience4j.retry.RetryRegistry;
 import java.time.Duration;
 import java.util.*;
+import java.util.function.Consumer;
+import java.util.function.Predicate;
 import java.util.function.Supplier;
 import java.util.stream.Collectors;
 import javax.annotation.PostConstruct;
@@ -27,18 +29,22 @@ public class AIProviderService {
     private final CircuitBreakerRegistry circuitBreakerRegistry;
     private final RetryRegistry retryRegistry;
     private final AIContentCacheService cacheService;
+    private final AIProviderRouter router;
     
     @Autowired
     public AIProviderService(List<AIProvider> aiProviders, CircuitBreakerRegistry circuitBreakerRegistry, 
-                           RetryRegistry retryRegistry, AIContentCacheService cacheService) {
+                           RetryRegistry retryRegistry, AIContentCacheService cacheService,
+                           AIProviderRouter router) {
         this.aiProviders = aiProviders;
         this.circuitBreakerRegistry = circuitBreakerRegistry;
         this.retryRegistry = retryRegistry;
         this.cacheService = cacheService;
+        this.router = router;
     }
 
     private final Map<String, AIProvider> providerMap = new HashMap<>();
-    private final Map<String, List<String>> providerFallbacks = new HashMap<>();
+    // Candidate providers per capability; the router orders them per call from live stats
+    private final Map<Capability, List<String>> capabilityProviders = new EnumMap<>(Capability.class);
 
     @PostConstruct
     public void initProviderMap() {
@@ -47,26 +53,27 @@ public class AIProviderService {
             providerMap.put(key, provider);
         }
 
-        // Initialize fallback chains for text providers
-        initializeFallbackChains();
+        // Text and image generation keep separate candidate lists, so a provider offering both
+        // falls back to different providers depending on what it was asked to do
+        for (Capability capability : List.of(Capability.TEXT_GENERATION, Capability.IMAGE_GENERATION)) {
+            capabilityProviders.put(capability, providerMap.entrySet().stream()
+                    .filter(entry -> entry.getValue().getCapabilities().contains(capability))
+                    .map(Map.Entry::getKey)
+                    .collect(Collectors.toList()));
+        }
 
         log.info("✅ Loaded {} AI providers: {}", providerMap.size(), providerMap.keySet());
-        log.info("✅ Initialized fallback chains: {}", providerFallbacks);
+        log.info("✅ Routing candidates: {}", capabilityProviders);
     }
 
-    private void initializeFallbackChains() {
-        // Text generation fallback chains (ordered by reliability and speed)
-        providerFallbacks.put("openai", Arrays.asList("gemini", "anthropic", "huggingface"));
-        providerFallbacks.put("gemini", Arrays.asList("openai", "anthropic", "huggingface"));
-        providerFallbacks.put("anthropic", Arrays.asList("openai", "gemini", "huggingface"));
-        providerFallbacks.put("huggingface", Arrays.asList("openai", "gemini", "anthropic"));
-
-        // Image generation fallback chains (includes new free providers)
-        // Priority: Free providers (SubNP, Puter) → Paid providers (Gemini, OpenAI, DeAPI) → Other options
-        providerFallbacks.put("gemini", Arrays.asList("fal-ai", "stable-diffusion", "openai"));
-        providerFallbacks.put("openai", Arrays.asList("gemini", "fal-ai", "stable-diffusion"));
-        providerFallbacks.put("fal-ai", Arrays.asList("gemini", "openai", "stable-diffusion"));
-        providerFallbacks.put("stable-diffusion", Arrays.asList("gemini", "openai", "fal-ai"));
+    /**
+     * Live routing table per capability, in the order fallbacks would currently be tried.
+     */
+    public Map<String, List<AIProviderRouter.ProviderRouteStats>> getRoutingTable() {
+        Map<String, List<AIProviderRouter.ProviderRouteStats>> table = new LinkedHashMap<>();
+        capabilityProviders.forEach((capability, candidates) ->
+                table.put(capability.name(), router.snapshot(capability, candidates)));
+        return table;
     }
 
     public List<ProviderResponse> getTextProviders() {
@@ -119,6 +126,53 @@ public class AIProviderService {
         return content;
     }
 
+    /**
+     * Generate AI content from the provider's token stream, handing each variation to
+     * {@code onVariation} as soon as it is complete. The primary provider runs behind its circuit
+     * breaker but without retries, since a retry would repeat variations already handed on; when it
+     * fails before emitting anything, the regular fallback chain runs and its results are emitted.
+     */
+    public List<AdContent> generateContentStreaming(String prompt, String providerId,
+                                                    int numberOfVariations, String language,
+                                                    List<String> adLinks, com.fbadsautomation.model.FacebookCTA callToAction,
+                                                    Consumer<AdContent> onVariation) {
+        String normalizedProviderId = normalizeKey(providerId);
+        AIProvider provider = providerMap.get(normalizedProviderId);
+        com.fbadsautomation.model.FacebookCTA cta = callToAction != null ? callToAction : com.fbadsautomation.model.FacebookCTA.LEARN_MORE;
+        List<AdContent> emitted = Collections.synchronizedList(new ArrayList<>());
+        if (provider != null && !provider.isReady(Capability.TEXT_GENERATION)) {
+            log.warn("Provider '{}' skipped: model is still loading", normalizedProviderId);
+        } else if (provider != null) {
+            CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(normalizedProviderId);
+            try {
+                List<AdContent> content = circuitBreaker.executeSupplier(() -> recordCall(normalizedProviderId,
+                    Capability.TEXT_GENERATION, estimateCost(normalizedProviderId, numberOfVariations), this::hasContent,
+                    () -> provider.generateAdContentStreaming(prompt, numberOfVariations, language, cta, variation -> {
+                        emitted.add(variation);
+                        onVariation.accept(variation);
+                    })));
+                if (content != null && !content.isEmpty()) {
+                    log.info("✅ Streamed {} variations from '{}'", content.size(), normalizedProviderId);
+                    return content;
+                }
+            } catch (Exception e) {
+                if (!emitted.isEmpty()) {
+                    log.warn("Provider '{}' failed after streaming {} variations: {}",
+                        normalizedProviderId, emitted.size(), e.getMessage());
+                    return new ArrayList<>(emitted);
+                }
+                log.error("Provider '{}' failed to stream: {}", normalizedProviderId, e.getMessage());
+            }
+        } else {
+            log.warn("Provider not found: {}", normalizedProviderId);
+        }
+
+        // The provider already retried without streaming, so go straight to the fallback chain
+        List<AdContent> content = generateWithFallbackProviders(prompt, normalizedProviderId, numberOfVariations, language, adLinks, callToAction);
+        content.forEach(onVariation);
+        return content;
+    }
+
     /**
      * Generate AI image with caching, circuit breaker, and fallback support
      */
@@ -167,22 +221,35 @@ public class AIProviderService {
     private List<AdContent> generateWithFallback(String prompt, String primaryProviderId,
                                                 int numberOfVariations, String language,
                                                 List<String> adLinks, com.fbadsautomation.model.FacebookCTA callToAction) {
-        // Try primary provider
-        log.info("🎯 Trying primary provider: '{}'", primaryProviderId);
-        List<AdContent> content = tryProviderWithCircuitBreaker(prompt, primaryProviderId, numberOfVariations, language, adLinks, callToAction);
-        if (content != null && !content.isEmpty()) {
-            log.info("✅ Primary provider '{}' succeeded", primaryProviderId);
-            return content;
+        // Try primary provider, unless its model is loading or its circuit is open and the call would
+        // only be rejected and retried
+        if (isAvailable(primaryProviderId, Capability.TEXT_GENERATION)) {
+            log.info("🎯 Trying primary provider: '{}'", primaryProviderId);
+            List<AdContent> content = tryProviderWithCircuitBreaker(prompt, primaryProviderId, numberOfVariations, language, adLinks, callToAction);
+            if (content != null && !content.isEmpty()) {
+                log.info("✅ Primary provider '{}' succeeded", primaryProviderId);
+                return content;
+            }
+            log.warn("❌ Primary provider '{}' failed", primaryProviderId);
+        } else {
+            log.warn("⏭️ Primary provider '{}' skipped: model loading or circuit breaker open", primaryProviderId);
         }
-        log.warn("❌ Primary provider '{}' failed", primaryProviderId);
+        return generateWithFallbackProviders(prompt, primaryProviderId, numberOfVariations, language, adLinks, callToAction);
+    }
 
-        // Try fallback providers
-        List<String> fallbacks = providerFallbacks.get(primaryProviderId);
-        if (fallbacks != null) {
+    /**
+     * Try the fallback chain of a failed primary provider, then mock content
+     */
+    private List<AdContent> generateWithFallbackProviders(String prompt, String primaryProviderId,
+                                                          int numberOfVariations, String language,
+                                                          List<String> adLinks, com.fbadsautomation.model.FacebookCTA callToAction) {
+        // Try fallback providers, best live performance first
+        List<String> fallbacks = fallbacks(Capability.TEXT_GENERATION, primaryProviderId);
+        if (!fallbacks.isEmpty()) {
             log.info("🔄 Trying fallback providers: {}", fallbacks);
             for (String fallbackProviderId : fallbacks) {
                 log.warn("🔄 Primary provider '{}' failed, trying fallback: '{}'", primaryProviderId, fallbackProviderId);
-                content = tryProviderWithCircuitBreaker(prompt, fallbackProviderId, numberOfVariations, language, adLinks, callToAction);
+                List<AdContent> content = tryProviderWithCircuitBreaker(prompt, fallbackProviderId, numberOfVariations, language, adLinks, callToAction);
                 if (content != null && !content.isEmpty()) {
                     log.info("✅ Fallback provider '{}' succeeded", fallbackProviderId);
                     return content;
@@ -190,7 +257,7 @@ public class AIProviderService {
                 log.warn("❌ Fallback provider '{}' also failed", fallbackProviderId);
             }
         } else {
-            log.warn("⚠️ No fallback providers configured for '{}'", primaryProviderId);
+            log.warn("⚠️ No fallback providers available for '{}'", primaryProviderId);
         }
 
         log.error("All providers failed for content generation");
@@ -201,15 +268,20 @@ public class AIProviderService {
      * Generate image with fallback mechanism
      */
     private String generateImageWithFallback(String prompt, String primaryProviderId) {
-        // Try primary provider
-        String imageUrl = tryImageProviderWithCircuitBreaker(prompt, primaryProviderId);
-        if (imageUrl != null && !imageUrl.equals("/img/placeholder.png")) {
-            return imageUrl;
+        // Try primary provider, unless its model is loading or its circuit is open
+        String imageUrl = null;
+        if (isAvailable(primaryProviderId, Capability.IMAGE_GENERATION)) {
+            imageUrl = tryImageProviderWithCircuitBreaker(prompt, primaryProviderId);
+            if (imageUrl != null && !imageUrl.equals("/img/placeholder.png")) {
+                return imageUrl;
+            }
+        } else {
+            log.warn("Primary image provider '{}' skipped: model loading or circuit breaker open", primaryProviderId);
         }
 
-        // Try fallback providers
-        List<String> fallbacks = providerFallbacks.get(primaryProviderId);
-        if (fallbacks != null) {
+        // Try fallback providers, best live performance first
+        List<String> fallbacks = fallbacks(Capability.IMAGE_GENERATION, primaryProviderId);
+        if (!fallbacks.isEmpty()) {
             for (String fallbackProviderId : fallbacks) {
                 log.warn("Primary image provider '{}' failed, trying fallback: '{}'", primaryProviderId, fallbackProviderId);
                 imageUrl = tryImageProviderWithCircuitBreaker(prompt, fallbackProviderId);
@@ -239,23 +311,11 @@ public class AIProviderService {
         CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(providerId);
         Retry retry = retryRegistry.retry(providerId);
 
-        Supplier<List<AdContent>> decoratedSupplier = CircuitBreaker.decorateSupplier(circuitBreaker, () -> {
-                    long startTime = System.currentTimeMillis();
-                    try {
-                        // Sử dụng CTA được truyền hoặc default nếu null
-                        com.fbadsautomation.model.FacebookCTA cta = callToAction != null ? callToAction : com.fbadsautomation.model.FacebookCTA.LEARN_MORE;
-                        List<AdContent> result = provider.generateAdContent(prompt, numberOfVariations, language, cta);
-                        long responseTime = System.currentTimeMillis() - startTime;
-                        // Record successful usage
-                        // cacheService.recordProviderUsage(providerId, true, responseTime, estimateCost(providerId, numberOfVariations));
-                        return result;
-                    } catch (Exception e) {
-                        long responseTime = System.currentTimeMillis() - startTime;
-                        // Record failed usage
-                        // cacheService.recordProviderUsage(providerId, false, responseTime, 0.0);
-                        throw e;
-                    }
-                });
+        // Sử dụng CTA được truyền hoặc default nếu null
+        com.fbadsautomation.model.FacebookCTA cta = callToAction != null ? callToAction : com.fbadsautomation.model.FacebookCTA.LEARN_MORE;
+        Supplier<List<AdContent>> decoratedSupplier = CircuitBreaker.decorateSupplier(circuitBreaker, () ->
+                recordCall(providerId, Capability.TEXT_GENERATION, estimateCost(providerId, numberOfVariations),
+                        this::hasContent, () -> provider.generateAdContent(prompt, numberOfVariations, language, cta)));
         decoratedSupplier = Retry.decorateSupplier(retry, decoratedSupplier);
         try {
             return decoratedSupplier.get();
@@ -278,21 +338,9 @@ public class AIProviderService {
         CircuitBreaker circuitBreaker = circuitBreakerRegistry.circuitBreaker(providerId);
         Retry retry = retryRegistry.retry(providerId);
 
-        Supplier<String> decoratedSupplier = CircuitBreaker.decorateSupplier(circuitBreaker, () -> {
-                    long startTime = System.currentTimeMillis();
-                    try {
-                        String result = provider.generateImage(prompt);
-                        long responseTime = System.currentTimeMillis() - startTime;
-                        // Record successful usage
-                        // cacheService.recordProviderUsage(providerId, true, responseTime, estimateImageCost(providerId));
-                        return result;
-                    } catch (Exception e) {
-                        long responseTime = System.currentTimeMillis() - startTime;
-                        // Record failed usage
-                        // cacheService.recordProviderUsage(providerId, false, responseTime, 0.0);
-                        throw e;
-                    }
-                });
+        Supplier<String> decoratedSupplier = CircuitBreaker.decorateSupplier(circuitBreaker, () ->
+                recordCall(providerId, Capability.IMAGE_GENERATION, estimateImageCost(providerId),
+                        this::isGeneratedImage, () -> provider.generateImage(prompt)));
         decoratedSupplier = Retry.decorateSupplier(retry, decoratedSupplier);
         try {
             return decoratedSupplier.get();
@@ -302,6 +350,53 @@ public class AIProviderService {
         }
     }
 
+    /**
+     * Whether {@code providerId} can take a {@code capability} call right now: its model is loaded
+     * and its circuit breaker would let the call through
+     */
+    private boolean isAvailable(String providerId, Capability capability) {
+        AIProvider provider = providerMap.get(providerId);
+        return (provider == null || provider.isReady(capability)) && router.isCallPermitted(providerId);
+    }
+
+    /**
+     * Ready candidates of {@code capability} other than {@code primaryProviderId}, in routed order
+     */
+    private List<String> fallbacks(Capability capability, String primaryProviderId) {
+        List<String> candidates = capabilityProviders.getOrDefault(capability, List.of()).stream()
+                .filter(providerId -> !providerId.equals(primaryProviderId))
+                .filter(providerId -> providerMap.get(providerId).isReady(capability))
+                .collect(Collectors.toList());
+        return router.route(capability, candidates);
+    }
+
+    /**
+     * Run one provider call, feeding its latency and outcome to the router. Providers report some
+     * failures as empty results rather than exceptions, so {@code succeeded} judges the result; the
+     * cost estimate is only counted for successful calls.
+     */
+    private <T> T recordCall(String providerId, Capability capability, double cost,
+                             Predicate<T> succeeded, Supplier<T> call) {
+        long startTime = System.currentTimeMillis();
+        try {
+            T result = call.get();
+            boolean success = succeeded.test(result);
+            router.record(providerId, capability, success, System.currentTimeMillis() - startTime, success ? cost : 0.0);
+            return result;
+        } catch (RuntimeException e) {
+            router.record(providerId, capability, false, System.currentTimeMillis() - startTime, 0.0);
+            throw e;
+        }
+    }
+
+    private boolean hasContent(List<AdContent> content) {
+        return content != null && !content.isEmpty();
+    }
+
+    private boolean isGeneratedImage(String imageUrl) {
+        return imageUrl != null && !imageUrl.equals("/img/placeholder.png");
+    }
+
     /**
      * Generate mock content as last resort
      */
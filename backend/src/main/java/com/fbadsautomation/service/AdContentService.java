@@ -83,12 +83,11 @@ public class AdContentService {
             }
 
             // Associate content with ad and save each variation
-            List<AdContent> savedContents = new ArrayList<>();
             for (AdContent content : generatedContents) {
                 content.setAd(ad);
                 content.setIsSelected(false); // None are selected initially
-                savedContents.add(adContentRepository.save(content));
             }
+            List<AdContent> savedContents = adContentRepository.saveAll(generatedContents);
 
             log.info("Successfully generated and saved {} content variations for ad: {}", savedContents.size(), adId);
             return savedContents;
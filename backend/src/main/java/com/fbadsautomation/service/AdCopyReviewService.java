@@ -1,20 +1,29 @@
 package com.fbadsautomation.service;
 
 import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.JsonNode;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.node.ObjectNode;
 import com.fbadsautomation.ai.AIProvider;
+import com.fbadsautomation.config.DigestKeyGenerator;
 import com.fbadsautomation.dto.AdCopyReviewDTO;
 import com.fbadsautomation.dto.AdCopyReviewDTO.SectionReview;
 import com.fbadsautomation.model.Ad;
 import com.fbadsautomation.model.Persona;
 import com.fbadsautomation.model.User;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
+import lombok.AccessLevel;
+import lombok.Getter;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
@@ -31,9 +40,14 @@ public class AdCopyReviewService {
 
     private static final TypeReference<AdCopyReviewDTO> REVIEW_TYPE = new TypeReference<>() {};
 
+    public static final String REVIEW_CACHE = "adCopyReviews";
+    private static final int REVIEW_MAX_TOKENS = 900;
+    private static final DigestKeyGenerator CONTENT_DIGEST = new DigestKeyGenerator();
+
     private final AIProviderService aiProviderService;
     private final PersonaService personaService;
     private final ObjectMapper objectMapper;
+    private final CacheManager cacheManager;
 
     public Optional<AdCopyReviewDTO> reviewAdCopy(Ad ad,
                                                   User user,
@@ -41,16 +55,58 @@ public class AdCopyReviewService {
                                                   Long personaId,
                                                   String personaBrief,
                                                   String languageCode) {
+        PreparedReview review = prepareReview(ad, user, persona, personaId, personaBrief, languageCode);
+        Optional<AdCopyReviewDTO> cached = cachedReview(review);
+        return cached.isPresent() ? cached : review(review);
+    }
+
+    /**
+     * Resolves everything a review needs from the ad and persona entities, so the review itself can
+     * run on another thread without touching the persistence context.
+     */
+    public PreparedReview prepareReview(Ad ad,
+                                        User user,
+                                        Persona persona,
+                                        Long personaId,
+                                        String personaBrief,
+                                        String languageCode) {
+        String personaSummary = buildPersonaSummary(user, persona, personaId, personaBrief, languageCode);
+        String headline = safe(ad.getHeadline());
+        String description = safe(ad.getDescription());
+        String primaryText = safe(ad.getPrimaryText());
+        String key = CONTENT_DIGEST.digest(headline, description, primaryText, personaSummary, languageCode);
+        String audienceKey = CONTENT_DIGEST.digest(personaSummary, languageCode);
+        return new PreparedReview(key, audienceKey, personaSummary, languageCode, headline, description, primaryText);
+    }
+
+    /**
+     * Review cached for the same copy, persona and language, if any.
+     */
+    public Optional<AdCopyReviewDTO> cachedReview(PreparedReview review) {
+        try {
+            Cache cache = cacheManager.getCache(REVIEW_CACHE);
+            Cache.ValueWrapper hit = cache != null ? cache.get(review.getKey()) : null;
+            if (hit != null && hit.get() instanceof AdCopyReviewDTO dto) {
+                return Optional.of(dto);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Ad copy review cache unavailable: {}", e.getMessage());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Reviews one ad with the LLM and caches the result.
+     */
+    public Optional<AdCopyReviewDTO> review(PreparedReview review) {
         AIProvider provider = aiProviderService.getProvider("openai");
         if (provider == null) {
             log.warn("OpenAI provider not available for ad copy review");
             return Optional.empty();
         }
 
-        String personaSummary = buildPersonaSummary(user, persona, personaId, personaBrief, languageCode);
-        String prompt = buildReviewPrompt(ad, personaSummary, languageCode);
-
-        String raw = provider.generateTextCompletion(prompt, DEFAULT_SYSTEM_PROMPT, 900);
+        String prompt = buildReviewPrompt(review);
+        String raw = provider.generateTextCompletion(prompt, DEFAULT_SYSTEM_PROMPT, REVIEW_MAX_TOKENS);
         if (!StringUtils.hasText(raw)) {
             log.warn("OpenAI returned empty review payload");
             return Optional.empty();
@@ -58,8 +114,9 @@ public class AdCopyReviewService {
 
         try {
             AdCopyReviewDTO dto = objectMapper.readValue(raw.trim(), REVIEW_TYPE);
-            dto.setPersonaSummary(personaSummary);
+            dto.setPersonaSummary(review.getPersonaSummary());
             sanitizeSections(dto);
+            cacheReview(review, dto);
             return Optional.of(dto);
         } catch (Exception ex) {
             log.error("Failed to parse AI review JSON. Payload: {}", raw, ex);
@@ -67,6 +124,55 @@ public class AdCopyReviewService {
         }
     }
 
+    /**
+     * Reviews several ads in one LLM call. All reviews must share the persona and language, since the
+     * prompt carries a single audience context. Ads missing from the response are left out of the
+     * result so the caller can review them one by one.
+     */
+    public Map<PreparedReview, AdCopyReviewDTO> reviewBatch(List<PreparedReview> reviews) {
+        Map<PreparedReview, AdCopyReviewDTO> results = new HashMap<>();
+        if (reviews.isEmpty()) {
+            return results;
+        }
+        if (reviews.size() == 1) {
+            review(reviews.get(0)).ifPresent(dto -> results.put(reviews.get(0), dto));
+            return results;
+        }
+        AIProvider provider = aiProviderService.getProvider("openai");
+        if (provider == null) {
+            log.warn("OpenAI provider not available for ad copy review");
+            return results;
+        }
+
+        String raw = provider.generateTextCompletion(buildBatchReviewPrompt(reviews), DEFAULT_SYSTEM_PROMPT,
+            REVIEW_MAX_TOKENS * reviews.size());
+        if (!StringUtils.hasText(raw)) {
+            log.warn("OpenAI returned empty batch review payload");
+            return results;
+        }
+
+        try {
+            JsonNode root = objectMapper.readTree(raw.trim());
+            JsonNode items = root.isArray() ? root : root.path("reviews");
+            for (JsonNode item : items) {
+                int index = item.path("adIndex").asInt(0) - 1;
+                if (!(item instanceof ObjectNode node) || index < 0 || index >= reviews.size()) {
+                    continue;
+                }
+                node.remove("adIndex");
+                PreparedReview review = reviews.get(index);
+                AdCopyReviewDTO dto = objectMapper.treeToValue(node, AdCopyReviewDTO.class);
+                dto.setPersonaSummary(review.getPersonaSummary());
+                sanitizeSections(dto);
+                cacheReview(review, dto);
+                results.put(review, dto);
+            }
+        } catch (Exception ex) {
+            log.error("Failed to parse AI batch review JSON. Payload: {}", raw, ex);
+        }
+        return results;
+    }
+
     public Optional<String> rewriteSection(Ad ad,
                                            User user,
                                            Persona persona,
@@ -89,20 +195,12 @@ public class AdCopyReviewService {
         return Optional.of(rewrite.trim());
     }
 
-    private String buildReviewPrompt(Ad ad, String personaSummary, String languageCode) {
-        Locale locale = resolveLocale(languageCode);
-        boolean isVietnamese = "vi".equalsIgnoreCase(locale.getLanguage());
-        String languageHint = isVietnamese
-            ? "Trả lời toàn bộ bằng tiếng Việt. Các trường overallVerdict, strengths, improvements và rewrite phải bằng tiếng Việt – không được sử dụng tiếng Anh."
-            : "Respond entirely in English. Fields overallVerdict, strengths, improvements, and rewrite must be written in English only.";
-
+    private String buildReviewPrompt(PreparedReview review) {
         return """
             %s
 
             Evaluate the following ad copy:
-            - Headline: "%s"
-            - Description: "%s"
-            - Primary Text: "%s"
+            %s
 
             Audience context:
             %s
@@ -122,11 +220,73 @@ public class AdCopyReviewService {
                 }
               ]
             }
-            """.formatted(languageHint,
-                safe(ad.getHeadline()),
-                safe(ad.getDescription()),
-                safe(ad.getPrimaryText()),
-                personaSummary);
+            """.formatted(reviewLanguageHint(review.getLanguageCode()),
+                describeCopy(review),
+                review.getPersonaSummary());
+    }
+
+    private String buildBatchReviewPrompt(List<PreparedReview> reviews) {
+        StringBuilder ads = new StringBuilder();
+        for (int i = 0; i < reviews.size(); i++) {
+            ads.append("Ad ").append(i + 1).append(":\n").append(describeCopy(reviews.get(i))).append("\n");
+        }
+        PreparedReview first = reviews.get(0);
+        return """
+            %s
+
+            Evaluate each of the following ads independently:
+            %s
+            Audience context:
+            %s
+
+            Respond strictly in JSON: an array with one object per ad, using this schema:
+            [
+              {
+                "adIndex": number of the ad above,
+                "overallScore": number 0-100,
+                "overallVerdict": "short summary",
+                "sections": [
+                  {
+                    "section": "HEADLINE|DESCRIPTION|PRIMARY_TEXT",
+                    "score": number 0-100,
+                    "verdict": "one sentence verdict",
+                    "strengths": ["bullet"],
+                    "improvements": ["bullet"],
+                    "rewrite": "improved copy for this section"
+                  }
+                ]
+              }
+            ]
+            """.formatted(reviewLanguageHint(first.getLanguageCode()),
+                ads,
+                first.getPersonaSummary());
+    }
+
+    private String reviewLanguageHint(String languageCode) {
+        Locale locale = resolveLocale(languageCode);
+        boolean isVietnamese = "vi".equalsIgnoreCase(locale.getLanguage());
+        return isVietnamese
+            ? "Trả lời toàn bộ bằng tiếng Việt. Các trường overallVerdict, strengths, improvements và rewrite phải bằng tiếng Việt – không được sử dụng tiếng Anh."
+            : "Respond entirely in English. Fields overallVerdict, strengths, improvements, and rewrite must be written in English only.";
+    }
+
+    private String describeCopy(PreparedReview review) {
+        return """
+            - Headline: "%s"
+            - Description: "%s"
+            - Primary Text: "%s"
+            """.formatted(review.getHeadline(), review.getDescription(), review.getPrimaryText()).stripTrailing();
+    }
+
+    private void cacheReview(PreparedReview review, AdCopyReviewDTO dto) {
+        try {
+            Cache cache = cacheManager.getCache(REVIEW_CACHE);
+            if (cache != null) {
+                cache.put(review.getKey(), dto);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Ad copy review cache unavailable: {}", e.getMessage());
+        }
     }
 
     private String buildRewritePrompt(Ad ad,
@@ -231,4 +391,27 @@ public class AdCopyReviewService {
             summary.append(persona.toPromptString());
         }
     }
+
+    /**
+     * Inputs of one review, detached from the JPA entities. {@link #getKey()} identifies the copy,
+     * persona and language, and is what reviews are cached under.
+     */
+    @Getter
+    @RequiredArgsConstructor(access = AccessLevel.PRIVATE)
+    public static final class PreparedReview {
+        private final String key;
+        /**
+         * Digest of the persona and language; reviews sharing it can be packed into one prompt.
+         */
+        private final String audienceKey;
+        private final String personaSummary;
+        private final String languageCode;
+        private final String headline;
+        private final String description;
+        private final String primaryText;
+
+        public int copyLength() {
+            return headline.length() + description.length() + primaryText.length();
+        }
+    }
 }
@@ -1,11 +1,13 @@
 package com.fbadsautomation.service;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fbadsautomation.config.DigestKeyGenerator;
 import com.fbadsautomation.dto.AdGenerationRequest;
 import com.fbadsautomation.dto.AdGenerationResponse;
 import com.fbadsautomation.dto.AdImprovementRequest;
 import com.fbadsautomation.dto.ReferenceAdData;
 import com.fbadsautomation.dto.ReferenceAnalysisRequest;
+import com.fbadsautomation.dto.ReferenceContentAnalysis;
 import com.fbadsautomation.dto.ReferenceAnalysisResponse;
 import com.fbadsautomation.dto.ReferenceStyleProfile;
 import com.fbadsautomation.exception.ApiException;
@@ -14,24 +16,30 @@ import com.fbadsautomation.model.AdContent;
 import com.fbadsautomation.model.AsyncJobStatus;
 import com.fbadsautomation.model.FacebookCTA;
 import com.fbadsautomation.util.ValidationMessages.Language;
+import com.fbadsautomation.util.text.PhraseMatch;
+import com.fbadsautomation.util.text.TextAnalyzer;
+import com.fbadsautomation.util.text.TextDocument;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.EnumMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
-import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
 import java.util.stream.Collectors;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.util.CollectionUtils;
 import org.springframework.util.StringUtils;
 
-import java.util.regex.Pattern;
-
 @Service
 @RequiredArgsConstructor
 @Slf4j
@@ -43,6 +51,15 @@ public class AdImprovementService {
     private final AsyncAIContentService asyncAIContentService;
     private final ObjectMapper objectMapper;
     private final QualityDetailsMapper qualityDetailsMapper;
+    private final CacheManager cacheManager;
+
+    public static final String REFERENCE_CACHE = "referenceAnalyses";
+    private static final String OFFICIAL_SOURCE = "official";
+    private static final String SCRAPED_SOURCE = "scraped";
+    private static final DigestKeyGenerator CONTENT_DIGEST = new DigestKeyGenerator();
+
+    // ScrapeCreators chỉ là nguồn phụ nên không chờ quá giới hạn này, kể cả khi request bị treo
+    private long scrapeWaitMillis = 10_000;
 
     private static final Map<String, List<String>> STYLE_KEYWORDS = Map.of(
             "PROFESSIONAL", List.of("expert", "chuyên gia", "bảo hành", "uy tín"),
@@ -67,9 +84,11 @@ public class AdImprovementService {
         CTA_KEYWORDS.put(FacebookCTA.GET_OFFER, List.of("get offer", "nhận ưu đãi", "ưu đãi"));
     }
 
-    private static final Pattern PRICE_PATTERN = Pattern.compile("(\\$|usd|đ|vnđ|% off|discount|giảm giá|chỉ còn)");
+    private static final List<String> PRICE_KEYWORDS = List.of(
+            "$", "usd", "đ", "vnđ", "% off", "discount", "giảm giá", "chỉ còn"
+    );
 
-    private static final Set<String> SECOND_PERSON_KEYWORDS = Set.of(
+    private static final List<String> SECOND_PERSON_KEYWORDS = List.of(
             "you", "your", "yours", "yourself", "bạn", "của bạn", "anh", "chị", "em", "quý khách"
     );
 
@@ -81,6 +100,26 @@ public class AdImprovementService {
             "EMOTIONAL", List.of("yêu", "thương", "trân trọng", "love", "care")
     );
 
+    // Checked in insertion order; the first verb with a match wins
+    private static final Map<String, List<String>> CTA_TEXT_KEYWORDS = new LinkedHashMap<>();
+
+    static {
+        CTA_TEXT_KEYWORDS.put("Invite sign-up", List.of("đăng ký ngay", "sign up"));
+        CTA_TEXT_KEYWORDS.put("Encourage purchase", List.of("mua ngay", "shop now"));
+        CTA_TEXT_KEYWORDS.put("Invite readers to learn more", List.of("tìm hiểu thêm", "learn more"));
+        CTA_TEXT_KEYWORDS.put("Prompt to book", List.of("đặt lịch", "book now"));
+    }
+
+    private static final String STYLE = "style:";
+    private static final String CTA = "cta:";
+    private static final String TONE = "tone:";
+    private static final String CTA_TEXT = "ctaText:";
+    private static final String PRICE = "price";
+    private static final String SECOND_PERSON = "secondPerson";
+
+    // Every keyword dictionary above in one automaton, so a reference is scanned once instead of once per keyword
+    private static final TextAnalyzer REFERENCE_SCANNER = buildReferenceScanner();
+
     /**
      * Kiểm tra link quảng cáo tham chiếu và lấy nội dung nếu có access token.
      */
@@ -94,50 +133,163 @@ public class AdImprovementService {
             throw new ApiException(HttpStatus.BAD_REQUEST, "Không thể trích xuất Ad ID từ URL");
         }
 
+        boolean hasAccessToken = StringUtils.hasText(request.getAccessToken());
+        // Lần phân tích lặp lại cùng một link bỏ qua toàn bộ network và phân tích
+        ReferenceAnalysisResponse cached = cachedReference(OFFICIAL_SOURCE + ":" + adId);
+        if (cached == null && !hasAccessToken) {
+            cached = cachedReference(SCRAPED_SOURCE + ":" + adId);
+        }
+        if (cached != null) {
+            log.debug("Reference analysis cache hit for ad {}", adId);
+            return cached;
+        }
+
+        // Không có token thì scraper là nguồn duy nhất; có token thì chỉ scrape khi Meta API lỗi hoặc thiếu hình ảnh
+        CompletableFuture<Map<String, Object>> scraping = hasAccessToken
+                ? null
+                : metaAdLibraryService.extractAdTextAndImagesAsync(request.getReferenceLink());
+
         Map<String, Object> metadata = Collections.emptyMap();
         String referenceContent = request.getFallbackContent();
         ReferenceAdData referenceAdData = null;
+        String source = null;
 
-        if (StringUtils.hasText(request.getAccessToken())) {
+        if (hasAccessToken) {
             Map<String, Object> apiResult = metaAdLibraryService.extractOfficialAdContent(adId, request.getAccessToken());
             if (Boolean.TRUE.equals(apiResult.get("success"))) {
                 //noinspection unchecked
                 metadata = (Map<String, Object>) apiResult.getOrDefault("content", Collections.emptyMap());
                 referenceAdData = metaAdLibraryService.buildReferenceAdData(metadata);
-                referenceContent = metaAdLibraryService.summarizeReferenceAd(referenceAdData, metadata);
             } else {
                 log.warn("Meta API fallback failed: {}", apiResult.get("message"));
             }
         }
 
-        if (referenceAdData == null) {
-            List<Map<String, Object>> scraped = metaAdLibraryService.extractAdTextAndImages(List.of(request.getReferenceLink()));
-            if (!scraped.isEmpty()) {
-                String text = (String) scraped.get(0).get("text");
-                referenceAdData = ReferenceAdData.builder()
-                        .primaryText(text)
-                        .build();
-                referenceContent = text;
+        if (scraping == null && (referenceAdData == null || !StringUtils.hasText(referenceAdData.getMediaUrl()))) {
+            scraping = metaAdLibraryService.extractAdTextAndImagesAsync(request.getReferenceLink());
+        }
+        Map<String, Object> scraped = scraping != null ? awaitScraped(scraping, adId) : null;
+        String scrapedImage = firstImage(scraped);
+        if (!metadata.isEmpty()) {
+            if (referenceAdData != null && !StringUtils.hasText(referenceAdData.getMediaUrl()) && scrapedImage != null) {
+                referenceAdData = referenceAdData.toBuilder().mediaUrl(scrapedImage).build();
             }
+            referenceContent = metaAdLibraryService.summarizeReferenceAd(referenceAdData, metadata);
+            source = referenceAdData != null ? OFFICIAL_SOURCE : null;
+        }
+
+        if (referenceAdData == null && scraped != null && StringUtils.hasText((String) scraped.get("text"))) {
+            String text = (String) scraped.get("text");
+            referenceAdData = ReferenceAdData.builder()
+                    .primaryText(text)
+                    .mediaUrl(scrapedImage)
+                    .build();
+            referenceContent = text;
+            source = SCRAPED_SOURCE;
         }
 
-        ReferenceAnalysisResponse.ReferenceInsights insights = buildInsights(referenceContent);
-        String detectedStyle = detectStyle(referenceContent);
-        FacebookCTA detectedCTA = detectCallToAction(referenceContent);
-        ReferenceStyleProfile styleProfile = analyzeStyleProfile(referenceContent, detectedCTA);
+        ReferenceContentAnalysis analysis = analyzeContent(referenceContent);
 
-        return ReferenceAnalysisResponse.builder()
+        ReferenceAnalysisResponse response = ReferenceAnalysisResponse.builder()
                 .success(true)
                 .referenceAdId(adId)
                 .referenceContent(referenceContent)
                 .metadata(metadata)
                 .message("Phân tích link tham chiếu thành công")
-                .detectedStyle(detectedStyle)
-                .suggestedCallToAction(detectedCTA)
+                .detectedStyle(analysis.getDetectedStyle())
+                .suggestedCallToAction(analysis.getSuggestedCallToAction())
                 .referenceAdData(referenceAdData)
-                .insights(insights)
-                .styleProfile(styleProfile)
+                .insights(analysis.getInsights())
+                .styleProfile(analysis.getStyleProfile())
                 .build();
+        // Chỉ cache theo ad ID khi nội dung lấy từ Ad Library, không phải fallback do người dùng nhập
+        if (source != null) {
+            cacheReference(source + ":" + adId, response);
+        }
+        return response;
+    }
+
+    /**
+     * Phân tích style, CTA, insights và style profile của nội dung; cache theo hash nội dung nên cùng
+     * một nội dung dưới ad ID khác hoặc nhập tay cũng không phải phân tích lại.
+     */
+    private ReferenceContentAnalysis analyzeContent(String referenceContent) {
+        if (!StringUtils.hasText(referenceContent)) {
+            return ReferenceContentAnalysis.builder()
+                    .insights(buildInsights(referenceContent, null))
+                    .build();
+        }
+        String key = "content:" + CONTENT_DIGEST.digest(referenceContent);
+        Cache.ValueWrapper hit = cacheGet(key);
+        if (hit != null && hit.get() instanceof ReferenceContentAnalysis cachedAnalysis) {
+            return cachedAnalysis;
+        }
+
+        TextDocument document = REFERENCE_SCANNER.scan(referenceContent);
+        FacebookCTA detectedCTA = detectCallToAction(document);
+        ReferenceContentAnalysis analysis = ReferenceContentAnalysis.builder()
+                .detectedStyle(detectStyle(document))
+                .suggestedCallToAction(detectedCTA)
+                .insights(buildInsights(referenceContent, document))
+                .styleProfile(analyzeStyleProfile(referenceContent, document, detectedCTA))
+                .build();
+        cachePut(key, analysis);
+        return analysis;
+    }
+
+    /**
+     * Chờ kết quả scrape tối đa {@code scrapeWaitMillis}; hết giờ thì phân tích tiếp không có dữ liệu scrape.
+     */
+    private Map<String, Object> awaitScraped(CompletableFuture<Map<String, Object>> scraping, String adId) {
+        try {
+            Map<String, Object> scraped = scraping
+                    .completeOnTimeout(null, scrapeWaitMillis, TimeUnit.MILLISECONDS)
+                    .join();
+            if (scraped == null) {
+                log.warn("Scraping reference ad {} timed out after {} ms", adId, scrapeWaitMillis);
+            }
+            return scraped;
+        } catch (RuntimeException e) {
+            log.warn("Scraping reference ad {} failed: {}", adId, e.getMessage());
+            return null;
+        }
+    }
+
+    private String firstImage(Map<String, Object> scraped) {
+        if (scraped != null && scraped.get("images") instanceof List<?> images && !images.isEmpty()) {
+            return String.valueOf(images.get(0));
+        }
+        return null;
+    }
+
+    private ReferenceAnalysisResponse cachedReference(String key) {
+        Cache.ValueWrapper hit = cacheGet(key);
+        return hit != null && hit.get() instanceof ReferenceAnalysisResponse response ? response : null;
+    }
+
+    private void cacheReference(String key, ReferenceAnalysisResponse response) {
+        cachePut(key, response);
+    }
+
+    private Cache.ValueWrapper cacheGet(String key) {
+        try {
+            Cache cache = cacheManager.getCache(REFERENCE_CACHE);
+            return cache != null ? cache.get(key) : null;
+        } catch (RuntimeException e) {
+            log.warn("Reference analysis cache unavailable: {}", e.getMessage());
+            return null;
+        }
+    }
+
+    private void cachePut(String key, Object value) {
+        try {
+            Cache cache = cacheManager.getCache(REFERENCE_CACHE);
+            if (cache != null) {
+                cache.put(key, value);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Reference analysis cache unavailable: {}", e.getMessage());
+        }
     }
 
     /**
@@ -396,6 +548,9 @@ public class AdImprovementService {
         String productContext = StringUtils.hasText(request.getProductDescription())
                 ? request.getProductDescription()
                 : "";
+        TextDocument referenceDocument = StringUtils.hasText(referenceContent)
+                ? REFERENCE_SCANNER.scan(referenceContent)
+                : null;
         Integer sentenceCount = null;
         Integer wordCount = null;
         Boolean containsCTA = null;
@@ -406,8 +561,8 @@ public class AdImprovementService {
             wordCount = request.getReferenceInsights().getWordCount();
             containsCTA = request.getReferenceInsights().getContainsCallToAction();
             containsPrice = request.getReferenceInsights().getContainsPrice();
-        } else if (StringUtils.hasText(referenceContent)) {
-            referenceInsights = buildInsights(referenceContent);
+        } else if (referenceDocument != null) {
+            referenceInsights = buildInsights(referenceContent, referenceDocument);
             sentenceCount = referenceInsights.getSentenceCount();
             wordCount = referenceInsights.getWordCount();
             containsCTA = referenceInsights.isContainsCallToAction();
@@ -415,13 +570,13 @@ public class AdImprovementService {
         }
 
         FacebookCTA inferredCTA = request.getCallToAction();
-        if (inferredCTA == null && StringUtils.hasText(referenceContent)) {
-            inferredCTA = detectCallToAction(referenceContent);
+        if (inferredCTA == null && referenceDocument != null) {
+            inferredCTA = detectCallToAction(referenceDocument);
         }
 
         ReferenceStyleProfile styleProfile = request.getReferenceStyle();
-        if (styleProfile == null && StringUtils.hasText(referenceContent)) {
-            styleProfile = analyzeStyleProfile(referenceContent, inferredCTA);
+        if (styleProfile == null && referenceDocument != null) {
+            styleProfile = analyzeStyleProfile(referenceContent, referenceDocument, inferredCTA);
         }
         int variations = request.getNumberOfVariations() != null ? request.getNumberOfVariations() : 3;
         String languageLabel = language == Language.VIETNAMESE ? "Vietnamese" : "English";
@@ -565,8 +720,8 @@ public class AdImprovementService {
         return new AdGenerationResponse.ValidationReport(total, passed, failed, withWarnings, avgScore);
     }
 
-    private ReferenceAnalysisResponse.ReferenceInsights buildInsights(String referenceContent) {
-        if (!StringUtils.hasText(referenceContent)) {
+    private ReferenceAnalysisResponse.ReferenceInsights buildInsights(String referenceContent, TextDocument document) {
+        if (document == null) {
             return ReferenceAnalysisResponse.ReferenceInsights.builder()
                     .wordCount(0)
                     .sentenceCount(0)
@@ -577,8 +732,8 @@ public class AdImprovementService {
         String normalized = referenceContent.replaceAll("\\s+", " ").trim();
         int wordCount = normalized.isEmpty() ? 0 : normalized.split(" ").length;
         int sentenceCount = normalized.split("[.!?\\n]").length;
-        boolean containsCTA = detectCallToAction(referenceContent) != null;
-        boolean containsPrice = PRICE_PATTERN.matcher(referenceContent.toLowerCase()).find();
+        boolean containsCTA = detectCallToAction(document) != null;
+        boolean containsPrice = !document.getMatches(PRICE).isEmpty();
 
         return ReferenceAnalysisResponse.ReferenceInsights.builder()
                 .wordCount(wordCount)
@@ -588,56 +743,31 @@ public class AdImprovementService {
                 .build();
     }
 
-    private String detectStyle(String content) {
-        if (!StringUtils.hasText(content)) {
-            return null;
-        }
-        String lower = content.toLowerCase();
-        int bestScore = 0;
-        String bestStyle = null;
-        for (Map.Entry<String, List<String>> entry : STYLE_KEYWORDS.entrySet()) {
-            int score = countMatches(lower, entry.getValue());
-            if (score > bestScore) {
-                bestScore = score;
-                bestStyle = entry.getKey();
-            }
-        }
-        return bestScore > 0 ? bestStyle : null;
+    private String detectStyle(TextDocument document) {
+        return mostMatched(document, STYLE, STYLE_KEYWORDS.keySet());
     }
 
-    private FacebookCTA detectCallToAction(String content) {
-        if (!StringUtils.hasText(content)) {
-            return null;
-        }
-        String lower = content.toLowerCase();
-        int bestScore = 0;
-        FacebookCTA bestCTA = null;
-        for (Map.Entry<FacebookCTA, List<String>> entry : CTA_KEYWORDS.entrySet()) {
-            int score = countMatches(lower, entry.getValue());
-            if (score > bestScore) {
-                bestScore = score;
-                bestCTA = entry.getKey();
-            }
-        }
-        return bestCTA;
+    private FacebookCTA detectCallToAction(TextDocument document) {
+        String cta = mostMatched(document, CTA, CTA_KEYWORDS.keySet().stream().map(Enum::name).toList());
+        return cta != null ? FacebookCTA.valueOf(cta) : null;
     }
 
-    private ReferenceStyleProfile analyzeStyleProfile(String content, FacebookCTA detectedCTA) {
+    private ReferenceStyleProfile analyzeStyleProfile(String content, TextDocument document, FacebookCTA detectedCTA) {
         if (!StringUtils.hasText(content)) {
             return null;
         }
         String normalized = content.trim();
         String firstSentence = extractFirstSentence(normalized);
         String hookType = classifyHook(firstSentence);
-        String tone = classifyTone(normalized);
+        String tone = classifyTone(document);
         String pacing = determinePacing(normalized);
         boolean usesEmoji = containsEmoji(normalized);
         boolean usesQuestions = normalized.contains("?");
-        boolean usesSecondPerson = containsSecondPerson(normalized);
+        boolean usesSecondPerson = !document.getMatches(SECOND_PERSON).isEmpty();
         List<String> emojiSamples = usesEmoji ? extractEmojiSamples(normalized) : Collections.emptyList();
         List<String> styleNotes = deriveStyleNotes(normalized, usesEmoji, usesQuestions);
         List<String> punctuation = detectPunctuationPatterns(normalized);
-        String ctaVerb = detectedCTA != null ? describeCTA(detectedCTA) : detectCTAFromText(normalized);
+        String ctaVerb = detectedCTA != null ? describeCTA(detectedCTA) : detectCTAFromText(document);
 
         return ReferenceStyleProfile.builder()
                 .hookType(hookType)
@@ -678,16 +808,9 @@ public class AdImprovementService {
         return "STATEMENT";
     }
 
-    private String classifyTone(String content) {
-        String lower = content.toLowerCase();
-        for (Map.Entry<String, List<String>> entry : TONE_KEYWORD_MAP.entrySet()) {
-            for (String keyword : entry.getValue()) {
-                if (lower.contains(keyword)) {
-                    return entry.getKey();
-                }
-            }
-        }
-        return "BALANCED";
+    private String classifyTone(TextDocument document) {
+        String tone = mostMatched(document, TONE, TONE_KEYWORD_MAP.keySet());
+        return tone != null ? tone : "BALANCED";
     }
 
     private String determinePacing(String content) {
@@ -743,11 +866,6 @@ public class AdImprovementService {
                 || block == Character.UnicodeBlock.DINGBATS;
     }
 
-    private boolean containsSecondPerson(String content) {
-        String lower = content.toLowerCase();
-        return SECOND_PERSON_KEYWORDS.stream().anyMatch(lower::contains);
-    }
-
     private List<String> deriveStyleNotes(String content, boolean usesEmoji, boolean usesQuestions) {
         List<String> notes = new ArrayList<>();
         if (usesEmoji) {
@@ -802,36 +920,46 @@ public class AdImprovementService {
         };
     }
 
-    private String detectCTAFromText(String content) {
-        if (!StringUtils.hasText(content)) {
-            return null;
-        }
-        String lower = content.toLowerCase();
-        if (lower.contains("đăng ký ngay") || lower.contains("sign up")) {
-            return "Invite sign-up";
-        }
-        if (lower.contains("mua ngay") || lower.contains("shop now")) {
-            return "Encourage purchase";
-        }
-        if (lower.contains("tìm hiểu thêm") || lower.contains("learn more")) {
-            return "Invite readers to learn more";
-        }
-        if (lower.contains("đặt lịch") || lower.contains("book now")) {
-            return "Prompt to book";
+    private String detectCTAFromText(TextDocument document) {
+        for (String verb : CTA_TEXT_KEYWORDS.keySet()) {
+            if (!document.getMatches(CTA_TEXT + verb).isEmpty()) {
+                return verb;
+            }
         }
         return null;
     }
 
-    private int countMatches(String content, List<String> keywords) {
-        int score = 0;
-        for (String keyword : keywords) {
-            int index = content.indexOf(keyword);
-            while (index >= 0) {
-                score++;
-                index = content.indexOf(keyword, index + keyword.length());
+    /**
+     * Key whose {@code prefix + key} category matched most often; ties go to the key matched earliest in the text.
+     */
+    private String mostMatched(TextDocument document, String prefix, Collection<String> keys) {
+        String best = null;
+        int bestCount = 0;
+        int bestStart = Integer.MAX_VALUE;
+        for (String key : keys) {
+            List<PhraseMatch> matches = document.getMatches(prefix + key);
+            if (matches.isEmpty()) {
+                continue;
+            }
+            int start = matches.stream().mapToInt(PhraseMatch::getStart).min().orElse(Integer.MAX_VALUE);
+            if (matches.size() > bestCount || (matches.size() == bestCount && start < bestStart)) {
+                best = key;
+                bestCount = matches.size();
+                bestStart = start;
             }
         }
-        return score;
+        return best;
+    }
+
+    private static TextAnalyzer buildReferenceScanner() {
+        TextAnalyzer.Builder builder = TextAnalyzer.builder();
+        STYLE_KEYWORDS.forEach((style, keywords) -> builder.substrings(STYLE + style, keywords));
+        CTA_KEYWORDS.forEach((cta, keywords) -> builder.substrings(CTA + cta.name(), keywords));
+        TONE_KEYWORD_MAP.forEach((tone, keywords) -> builder.substrings(TONE + tone, keywords));
+        CTA_TEXT_KEYWORDS.forEach((verb, keywords) -> builder.substrings(CTA_TEXT + verb, keywords));
+        builder.substrings(PRICE, PRICE_KEYWORDS);
+        builder.substrings(SECOND_PERSON, SECOND_PERSON_KEYWORDS);
+        return builder.build();
     }
 
 }
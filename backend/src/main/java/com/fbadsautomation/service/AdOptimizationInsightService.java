@@ -20,6 +20,8 @@ import com.fbadsautomation.repository.AdOptimizationSnapshotRepository;
 import com.fbadsautomation.repository.AdRepository;
 import com.fbadsautomation.repository.UserRepository;
 import com.fbadsautomation.model.Persona;
+import com.fbadsautomation.service.AdCopyReviewService.PreparedReview;
+import com.fbadsautomation.util.ConcurrencyLimiter;
 import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
@@ -29,6 +31,10 @@ import java.util.Locale;
 import java.util.Map;
 import java.util.Objects;
 import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.Consumer;
 import java.util.function.Function;
 import java.util.regex.Pattern;
 import java.util.stream.Collectors;
@@ -36,6 +42,7 @@ import java.util.stream.Stream;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
@@ -60,6 +67,11 @@ public class AdOptimizationInsightService {
     private final AdQualityScoringService adQualityScoringService;
     private final AdCopyReviewService adCopyReviewService;
     private final ObjectMapper objectMapper;
+    private final Executor reviewExecutor;
+    private final ConcurrencyLimiter reviewLimiter;
+    private final boolean packShortAds;
+    private final int packMaxChars;
+    private final int packSize;
 
     @Value("${app.optimization.default-language:en}")
     private String defaultLanguage;
@@ -70,17 +82,49 @@ public class AdOptimizationInsightService {
                                         AdOptimizationSnapshotRepository snapshotRepository,
                                         AdQualityScoringService adQualityScoringService,
                                         AdCopyReviewService adCopyReviewService,
-                                        ObjectMapper objectMapper) {
+                                        ObjectMapper objectMapper,
+                                        @Qualifier("aiProcessingExecutor") Executor reviewExecutor,
+                                        @Value("${app.optimization.review.max-concurrent:4}") int maxConcurrentReviews,
+                                        @Value("${app.optimization.review.pack-short-ads:false}") boolean packShortAds,
+                                        @Value("${app.optimization.review.pack-max-chars:300}") int packMaxChars,
+                                        @Value("${app.optimization.review.pack-size:4}") int packSize) {
         this.userRepository = userRepository;
         this.adRepository = adRepository;
         this.snapshotRepository = snapshotRepository;
         this.adQualityScoringService = adQualityScoringService;
         this.adCopyReviewService = adCopyReviewService;
         this.objectMapper = objectMapper;
+        this.reviewExecutor = reviewExecutor;
+        this.reviewLimiter = new ConcurrencyLimiter(maxConcurrentReviews);
+        this.packShortAds = packShortAds;
+        this.packMaxChars = packMaxChars;
+        this.packSize = Math.max(1, packSize);
     }
 
     @Transactional(readOnly = true)
     public List<AdOptimizationInsightDTO> analyzeAds(Long userId, AdOptimizationAnalyzeRequest request) {
+        Map<Long, AdOptimizationInsightDTO> insights = new ConcurrentHashMap<>();
+        streamInsights(userId, request, insight -> insights.put(insight.getAdId(), insight)).join();
+
+        return request.getAdIds().stream()
+            .map(insights::get)
+            .filter(Objects::nonNull)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Analyzes the requested ads, handing each insight to {@code onInsight} as soon as its copy review
+     * is ready. Scorecards and suggestions are computed on the calling thread; the LLM reviews run on
+     * the AI executor, at most {@code app.optimization.review.max-concurrent} at a time, and are skipped
+     * for copy that was reviewed before (review cache or a saved snapshot of the unchanged ad).
+     * {@code onInsight} is called one insight at a time.
+     *
+     * @return future of the number of insights delivered, completed once every review has finished
+     */
+    @Transactional(readOnly = true)
+    public CompletableFuture<Integer> streamInsights(Long userId,
+                                                     AdOptimizationAnalyzeRequest request,
+                                                     Consumer<AdOptimizationInsightDTO> onInsight) {
         List<Long> adIds = Optional.ofNullable(request.getAdIds()).orElse(Collections.emptyList());
         if (adIds.isEmpty()) {
             throw new IllegalArgumentException("adIds must not be empty");
@@ -92,18 +136,56 @@ public class AdOptimizationInsightService {
         String requestedLanguage = resolveLanguage(request.getLanguage());
         List<Ad> ads = adRepository.findByUserAndIdInWithCampaign(user, adIds);
         if (ads.isEmpty()) {
-            return Collections.emptyList();
+            return CompletableFuture.completedFuture(0);
         }
 
         Map<Long, Ad> adMap = ads.stream()
             .filter(Objects::nonNull)
-            .collect(Collectors.toMap(Ad::getId, Function.identity(), (left, right) -> left));
+            .collect(Collectors.toMap(Ad::getId, Function.identity(), (left, right) -> left, LinkedHashMap::new));
+        // Latest first, one query for every requested ad
+        Map<Long, List<AdOptimizationSnapshot>> snapshots = snapshotRepository
+            .findByUserAndAdIdInOrderByCreatedAtDesc(user, adMap.keySet()).stream()
+            .collect(Collectors.groupingBy(AdOptimizationSnapshot::getAdId));
+
+        Object emitLock = new Object();
+        Consumer<AdOptimizationInsightDTO> emit = insight -> {
+            synchronized (emitLock) {
+                onInsight.accept(insight);
+            }
+        };
+
+        List<PendingInsight> pending = new ArrayList<>();
+        for (Ad ad : adMap.values()) {
+            List<AdOptimizationSnapshot> adSnapshots = snapshots.getOrDefault(ad.getId(), List.of());
+            AdOptimizationInsightDTO insight = buildInsight(ad, requestedLanguage, !adSnapshots.isEmpty());
+
+            Persona adPersona = ad.getPersona();
+            Long personaId = adPersona != null ? adPersona.getId() : null;
+            PreparedReview review = adCopyReviewService.prepareReview(ad, user, adPersona, personaId, null,
+                insight.getLanguage());
+            Optional<AdCopyReviewDTO> known = adCopyReviewService.cachedReview(review)
+                .or(() -> savedReview(adSnapshots, review));
+            if (known.isPresent()) {
+                insight.setCopyReview(known.get());
+                emit.accept(insight);
+            } else {
+                pending.add(new PendingInsight(insight, review));
+            }
+        }
 
-        return adIds.stream()
-            .map(adMap::get)
-            .filter(Objects::nonNull)
-            .map(ad -> buildInsight(ad, user, requestedLanguage))
-            .collect(Collectors.toList());
+        List<CompletableFuture<Void>> reviews = new ArrayList<>();
+        for (List<PendingInsight> group : groupForReview(pending)) {
+            reviews.add(reviewLimiter.submit(() -> CompletableFuture.runAsync(() -> reviewGroup(group), reviewExecutor))
+                .handle((ignored, error) -> {
+                    if (error != null) {
+                        log.warn("Copy review failed for {} ad(s): {}", group.size(), error.getMessage());
+                    }
+                    group.forEach(item -> emit.accept(item.insight));
+                    return null;
+                }));
+        }
+        int total = adMap.size();
+        return CompletableFuture.allOf(reviews.toArray(CompletableFuture[]::new)).thenApply(done -> total);
     }
 
     @Transactional
@@ -133,6 +215,21 @@ public class AdOptimizationInsightService {
             throw new RuntimeException("Failed to store snapshot payload", e);
         }
 
+        if (request.getCopyReview() != null) {
+            // Keyed like the review cache, so analyzing the unchanged ad again reuses this review
+            adRepository.findByIdAndUserWithRelations(request.getAdId(), user).ifPresent(ad -> {
+                Persona persona = ad.getPersona();
+                String language = detectAdLanguage(ad, request.getLanguage());
+                snapshot.setReviewKey(adCopyReviewService.prepareReview(ad, user, persona,
+                    persona != null ? persona.getId() : null, null, language).getKey());
+            });
+            try {
+                snapshot.setCopyReviewJson(objectMapper.writeValueAsString(request.getCopyReview()));
+            } catch (JsonProcessingException e) {
+                throw new RuntimeException("Failed to store snapshot payload", e);
+            }
+        }
+
         AdOptimizationSnapshot saved = snapshotRepository.save(snapshot);
         return toSnapshotDTO(saved);
     }
@@ -151,8 +248,8 @@ public class AdOptimizationInsightService {
     // ----------------------------------------------------------------------
 
     private AdOptimizationInsightDTO buildInsight(Ad ad,
-                                                  User user,
-                                                  String requestedLanguage) {
+                                                  String requestedLanguage,
+                                                  boolean saved) {
         AdOptimizationInsightDTO dto = new AdOptimizationInsightDTO();
         dto.setAdId(ad.getId());
         dto.setAdName(Optional.ofNullable(ad.getName()).orElse("Untitled Ad"));
@@ -185,16 +282,54 @@ public class AdOptimizationInsightService {
         ensureFallbacks(suggestionBuckets, analysisLanguage);
 
         dto.setSuggestions(suggestionBuckets);
-        dto.setSaved(snapshotRepository.existsByUserAndAdId(user, ad.getId()));
+        dto.setSaved(saved);
+        dto.setPersona(toPersonaContext(ad.getPersona()));
+        return dto;
+    }
 
-        Persona adPersona = ad.getPersona();
-        dto.setPersona(toPersonaContext(adPersona));
+    private Optional<AdCopyReviewDTO> savedReview(List<AdOptimizationSnapshot> snapshots, PreparedReview review) {
+        return snapshots.stream()
+            .filter(snapshot -> review.getKey().equals(snapshot.getReviewKey()))
+            .map(snapshot -> readCopyReview(snapshot.getCopyReviewJson()))
+            .filter(Objects::nonNull)
+            .findFirst();
+    }
 
-        Long personaId = adPersona != null ? adPersona.getId() : null;
-        adCopyReviewService.reviewAdCopy(ad, user, adPersona, personaId, null, analysisLanguage)
-            .ifPresent(dto::setCopyReview);
+    /**
+     * Splits the pending reviews into LLM calls: one per ad, or with packing enabled, short ads of the
+     * same persona and language share a call of up to {@code packSize} ads.
+     */
+    private List<List<PendingInsight>> groupForReview(List<PendingInsight> pending) {
+        List<List<PendingInsight>> groups = new ArrayList<>();
+        Map<String, List<PendingInsight>> packs = new LinkedHashMap<>();
+        for (PendingInsight item : pending) {
+            if (!packShortAds || item.review.copyLength() > packMaxChars) {
+                groups.add(List.of(item));
+                continue;
+            }
+            List<PendingInsight> pack = packs.computeIfAbsent(item.review.getAudienceKey(), key -> new ArrayList<>());
+            pack.add(item);
+            if (pack.size() == packSize) {
+                groups.add(pack);
+                packs.remove(item.review.getAudienceKey());
+            }
+        }
+        groups.addAll(packs.values());
+        return groups;
+    }
 
-        return dto;
+    private void reviewGroup(List<PendingInsight> group) {
+        if (group.size() > 1) {
+            Map<PreparedReview, AdCopyReviewDTO> packed = adCopyReviewService.reviewBatch(
+                group.stream().map(item -> item.review).collect(Collectors.toList()));
+            group.forEach(item -> item.insight.setCopyReview(packed.get(item.review)));
+        }
+        // Single ads, and any ad the packed response left out
+        for (PendingInsight item : group) {
+            if (item.insight.getCopyReview() == null) {
+                adCopyReviewService.review(item.review).ifPresent(item.insight::setCopyReview);
+            }
+        }
     }
 
     private Scorecard toScorecard(AdQualityScoringService.AdQualityScore score) {
@@ -434,6 +569,16 @@ public class AdOptimizationInsightService {
         }
     }
 
+    private AdCopyReviewDTO readCopyReview(String json) {
+        if (json == null) return null;
+        try {
+            return objectMapper.readValue(json, AdCopyReviewDTO.class);
+        } catch (Exception e) {
+            log.error("Failed to parse copy review json", e);
+            return null;
+        }
+    }
+
     private Scorecard readScorecard(String json) {
         if (json == null) return null;
         try {
@@ -443,4 +588,14 @@ public class AdOptimizationInsightService {
             return null;
         }
     }
+
+    private static final class PendingInsight {
+        private final AdOptimizationInsightDTO insight;
+        private final PreparedReview review;
+
+        private PendingInsight(AdOptimizationInsightDTO insight, PreparedReview review) {
+            this.insight = insight;
+            this.review = review;
+        }
+    }
 }
@@ -1,13 +1,13 @@
 package com.fbadsautomation.service;
 
 import com.fbadsautomation.model.AdContent;
+import com.fbadsautomation.util.text.TextAnalysis;
+import com.fbadsautomation.util.text.TextAnalyzer;
 import lombok.Data;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 
 import java.util.*;
-import java.util.regex.Matcher;
-import java.util.regex.Pattern;
 
 /**
  * Service to calculate quality scores for ad content.
@@ -23,6 +23,21 @@ import java.util.regex.Pattern;
 @Service
 public class AdQualityScoringService {
 
+    /**
+     * Version of the scoring rules. Stored scores of an older version are recomputed, so bump it with
+     * every change that alters a score, suggestion or strength.
+     */
+    public static final int SCORER_VERSION = 1;
+
+    /**
+     * Names of the values in {@link AdQualityScore#getFeatures()}, in order.
+     */
+    public static final List<String> FEATURE_NAMES = List.of(
+        "headlineLength", "descriptionLength", "primaryTextLength",
+        "primaryTextWordCount", "primaryTextLongWordCount", "primaryTextSentenceCount",
+        "powerWordCount", "prohibitedWordCount", "longestPunctuationRun", "hasCallToAction"
+    );
+
     // Facebook character limits
     private static final int HEADLINE_MAX_LENGTH = 40;
     private static final int DESCRIPTION_MAX_LENGTH = 125;
@@ -45,6 +60,19 @@ public class AdQualityScoringService {
         "best", "top", "leading", "award-winning"
     );
 
+    private static final String POWER = "power";
+    private static final String PROHIBITED = "prohibited";
+    private static final int HEADLINE = 0;
+    private static final int DESCRIPTION = 1;
+    private static final int PRIMARY_TEXT = 2;
+
+    // One automaton for both lists, built once: power words need word boundaries (as the former
+    // "\\b" + word + "\\b" regexes did), prohibited words are plain substring checks.
+    private static final TextAnalyzer TEXT_ANALYZER = TextAnalyzer.builder()
+        .words(POWER, POWER_WORDS)
+        .substrings(PROHIBITED, PROHIBITED_WORDS)
+        .build();
+
     /**
      * Calculate comprehensive quality score for an ad.
      */
@@ -54,10 +82,16 @@ public class AdQualityScoringService {
         AdQualityScore score = new AdQualityScore();
         score.setAdContentId(adContent.getId());
 
+        // Tokenize and match all fields once; every dimension reads from the same analysis
+        String headline = adContent.getHeadline() != null ? adContent.getHeadline() : "";
+        String description = adContent.getDescription() != null ? adContent.getDescription() : "";
+        String primaryText = adContent.getPrimaryText() != null ? adContent.getPrimaryText() : "";
+        TextAnalysis analysis = TEXT_ANALYZER.analyze(headline, description, primaryText);
+
         // Calculate each dimension
-        score.setComplianceScore(calculateComplianceScore(adContent));
-        score.setLinguisticScore(calculateLinguisticScore(adContent));
-        score.setPersuasivenessScore(calculatePersuasivenessScore(adContent));
+        score.setComplianceScore(calculateComplianceScore(adContent, analysis));
+        score.setLinguisticScore(calculateLinguisticScore(adContent, analysis));
+        score.setPersuasivenessScore(calculatePersuasivenessScore(adContent, analysis));
         score.setCompletenessScore(calculateCompletenessScore(adContent));
 
         // Calculate total score
@@ -68,8 +102,9 @@ public class AdQualityScoringService {
 
         score.setTotalScore(totalScore);
         score.setGrade(determineGrade(totalScore));
-        score.setSuggestions(generateSuggestions(adContent, score));
+        score.setSuggestions(generateSuggestions(adContent, score, analysis));
         score.setStrengths(generateStrengths(adContent, score));
+        score.setFeatures(extractFeatures(adContent, analysis));
 
         log.info("Quality score calculated: {} (Grade: {})", totalScore, score.getGrade());
 
@@ -79,7 +114,7 @@ public class AdQualityScoringService {
     /**
      * Calculate compliance score (0-30 points).
      */
-    private double calculateComplianceScore(AdContent adContent) {
+    private double calculateComplianceScore(AdContent adContent, TextAnalysis analysis) {
         double score = 0;
 
         String headline = adContent.getHeadline() != null ? adContent.getHeadline() : "";
@@ -110,13 +145,7 @@ public class AdQualityScoringService {
         }
 
         // Prohibited words check (15 points)
-        String allText = (headline + " " + description + " " + primaryText).toLowerCase();
-        int prohibitedCount = 0;
-        for (String word : PROHIBITED_WORDS) {
-            if (allText.contains(word)) {
-                prohibitedCount++;
-            }
-        }
+        int prohibitedCount = analysis.matchCount(PROHIBITED);
 
         if (prohibitedCount == 0) {
             score += 15;
@@ -131,21 +160,20 @@ public class AdQualityScoringService {
     /**
      * Calculate linguistic quality score (0-30 points).
      */
-    private double calculateLinguisticScore(AdContent adContent) {
+    private double calculateLinguisticScore(AdContent adContent, TextAnalysis analysis) {
         double score = 0;
 
         String headline = adContent.getHeadline() != null ? adContent.getHeadline() : "";
-        String description = adContent.getDescription() != null ? adContent.getDescription() : "";
         String primaryText = adContent.getPrimaryText() != null ? adContent.getPrimaryText() : "";
 
         // Keyword density (10 points)
-        score += assessKeywordDensity(primaryText);
+        score += assessKeywordDensity(analysis.field(PRIMARY_TEXT));
 
         // Readability (10 points)
-        score += assessReadability(primaryText);
+        score += assessReadability(analysis.field(PRIMARY_TEXT));
 
         // Basic grammar check (10 points)
-        score += assessGrammar(headline, description, primaryText);
+        score += assessGrammar(headline, primaryText, analysis);
 
         return Math.round(score * 10.0) / 10.0;
     }
@@ -153,28 +181,16 @@ public class AdQualityScoringService {
     /**
      * Calculate persuasiveness score (0-20 points).
      */
-    private double calculatePersuasivenessScore(AdContent adContent) {
+    private double calculatePersuasivenessScore(AdContent adContent, TextAnalysis analysis) {
         double score = 0;
 
-        String headline = adContent.getHeadline() != null ? adContent.getHeadline() : "";
-        String description = adContent.getDescription() != null ? adContent.getDescription() : "";
-        String primaryText = adContent.getPrimaryText() != null ? adContent.getPrimaryText() : "";
-
         // Call-to-action present (10 points)
         if (adContent.getCallToAction() != null) {
             score += 10;
         }
 
         // Power words usage (10 points)
-        String allText = (headline + " " + description + " " + primaryText).toLowerCase();
-        int powerWordCount = 0;
-        for (String word : POWER_WORDS) {
-            Pattern pattern = Pattern.compile("\\b" + word + "\\b", Pattern.CASE_INSENSITIVE);
-            Matcher matcher = pattern.matcher(allText);
-            if (matcher.find()) {
-                powerWordCount++;
-            }
-        }
+        int powerWordCount = analysis.matchCount(POWER);
 
         // Award up to 10 points based on power word usage
         score += Math.min(10, powerWordCount * 1.5);
@@ -218,21 +234,14 @@ public class AdQualityScoringService {
      * Assess keyword density (0-10 points).
      * Good density: 1-3% of text should be relevant keywords.
      */
-    private double assessKeywordDensity(String text) {
-        if (text == null || text.trim().isEmpty()) {
+    private double assessKeywordDensity(TextAnalysis.FieldStats text) {
+        if (text.isBlank()) {
             return 0;
         }
 
         // Simple heuristic: count words longer than 5 characters
-        String[] words = text.toLowerCase().split("\\s+");
-        int totalWords = words.length;
-        int keywordCount = 0;
-
-        for (String word : words) {
-            if (word.length() > 5) {
-                keywordCount++;
-            }
-        }
+        int totalWords = text.getWordCount();
+        int keywordCount = text.getLongWordCount();
 
         if (totalWords == 0) return 0;
 
@@ -254,18 +263,13 @@ public class AdQualityScoringService {
      * Assess readability (0-10 points).
      * Based on average sentence length and word length.
      */
-    private double assessReadability(String text) {
-        if (text == null || text.trim().isEmpty()) {
+    private double assessReadability(TextAnalysis.FieldStats text) {
+        if (text.isBlank()) {
             return 0;
         }
 
-        // Count sentences
-        String[] sentences = text.split("[.!?]+");
-        int sentenceCount = sentences.length;
-
-        // Count words
-        String[] words = text.split("\\s+");
-        int wordCount = words.length;
+        int sentenceCount = text.getSentenceCount();
+        int wordCount = text.getWordCount();
 
         if (sentenceCount == 0 || wordCount == 0) {
             return 5; // Neutral score for very short text
@@ -275,11 +279,7 @@ public class AdQualityScoringService {
         double avgWordsPerSentence = (double) wordCount / sentenceCount;
 
         // Average characters per word
-        int totalChars = 0;
-        for (String word : words) {
-            totalChars += word.length();
-        }
-        double avgCharsPerWord = (double) totalChars / wordCount;
+        double avgCharsPerWord = (double) text.getWordCharCount() / wordCount;
 
         // Optimal: 10-20 words per sentence, 4-6 chars per word
         double sentenceScore = 0;
@@ -307,13 +307,11 @@ public class AdQualityScoringService {
      * Assess basic grammar (0-10 points).
      * Simple heuristics for common issues.
      */
-    private double assessGrammar(String headline, String description, String primaryText) {
+    private double assessGrammar(String headline, String primaryText, TextAnalysis analysis) {
         double score = 10; // Start with perfect score, deduct for issues
 
-        String allText = headline + " " + description + " " + primaryText;
-
         // Check for double spaces
-        if (allText.contains("  ")) {
+        if (analysis.hasDoubleSpace()) {
             score -= 1;
         }
 
@@ -330,8 +328,8 @@ public class AdQualityScoringService {
             }
         }
 
-        // Check for excessive punctuation
-        if (allText.matches(".*[!?]{2,}.*")) {
+        // Check for excessive punctuation (the original ".*[!?]{2,}.*" check never matched multi-line text)
+        if (analysis.getLongestPunctuationRun() >= 2 && !analysis.hasLineBreak()) {
             score -= 2;
         }
 
@@ -363,7 +361,7 @@ public class AdQualityScoringService {
     /**
      * Generate improvement suggestions based on score breakdown.
      */
-    private List<String> generateSuggestions(AdContent adContent, AdQualityScore score) {
+    private List<String> generateSuggestions(AdContent adContent, AdQualityScore score, TextAnalysis analysis) {
         List<String> suggestions = new ArrayList<>();
 
         // Compliance suggestions
@@ -388,9 +386,9 @@ public class AdQualityScoringService {
             }
 
             // Check for prohibited words
-            String allText = (headline + " " + description + " " + primaryText).toLowerCase();
+            Set<String> prohibitedFound = analysis.matches(PROHIBITED);
             for (String word : PROHIBITED_WORDS) {
-                if (allText.contains(word)) {
+                if (prohibitedFound.contains(word)) {
                     suggestions.add(String.format("Avoid using prohibited word: '%s'", word));
                 }
             }
@@ -450,6 +448,22 @@ public class AdQualityScoringService {
         return strengths;
     }
 
+    private double[] extractFeatures(AdContent adContent, TextAnalysis analysis) {
+        TextAnalysis.FieldStats primaryText = analysis.field(PRIMARY_TEXT);
+        return new double[] {
+            analysis.field(HEADLINE).getLength(),
+            analysis.field(DESCRIPTION).getLength(),
+            primaryText.getLength(),
+            primaryText.getWordCount(),
+            primaryText.getLongWordCount(),
+            primaryText.getSentenceCount(),
+            analysis.matchCount(POWER),
+            analysis.matchCount(PROHIBITED),
+            analysis.getLongestPunctuationRun(),
+            adContent.getCallToAction() != null ? 1 : 0
+        };
+    }
+
     /**
      * Data class for quality score result.
      */
@@ -464,6 +478,7 @@ public class AdQualityScoringService {
         private String grade;                // A+, A, B+, etc.
         private List<String> suggestions;    // Improvement suggestions
         private List<String> strengths;      // Highlighted strengths (keys)
+        private double[] features;           // Scoring inputs, see FEATURE_NAMES
 
         public Map<String, Object> toMap() {
             Map<String, Object> map = new HashMap<>();
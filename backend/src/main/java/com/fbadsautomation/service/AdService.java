@@ -699,9 +699,10 @@ public class AdService {
             content.setCreatedDate(LocalDateTime.now());
 
             adContentValidator.validateAndTruncate(content, enforceLengthLimits);
-            content = adContentRepository.save(content);
             createdContents.add(content);
         }
+        // One batched insert for all variations instead of a round-trip per content
+        createdContents = adContentRepository.saveAll(createdContents);
 
         log.info("Successfully created {} ads from {} variations", createdAds.size(), selectedVariations.size());
 
@@ -1081,8 +1082,8 @@ public class AdService {
             content.setImageUrl(imageUrls[i]);
             content.setIsSelected(false);
             adContentValidator.validateAndTruncate(content);
-            adContentRepository.save(content);
         }
+        adContentRepository.saveAll(generatedContents);
         log.info("Saved {} ad contents for ad ID: {}", generatedContents.size(), ad.getId());
 
         return AdGenerationResponse.builder()
@@ -11,10 +11,13 @@ import lombok.extern.slf4j.Slf4j;
 import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
 
+import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.concurrent.CompletableFuture;
+import java.util.function.Consumer;
 
 @Slf4j
 @Service
@@ -121,6 +124,29 @@ public class AsyncAIContentService {
 
             asyncJobService.updateJobProgress(jobId, 20, "Generating content with AI");
 
+            // Publish each variation as soon as it is finished so the preview can fill in while the rest generate
+            int expectedVariations = variationConfigs != null && !variationConfigs.isEmpty()
+                ? variationConfigs.size() : Math.max(numberOfVariations, 1);
+            List<Map<String, Object>> partialResults = new ArrayList<>();
+            // Partial variations are not persisted and have no id yet; the preview key lets clients match
+            // them to the same variation in the final result
+            Map<AdContent, String> previewKeys = new IdentityHashMap<>();
+            Consumer<AdContent> onVariationReady = content -> {
+                synchronized (partialResults) {
+                    String previewKey = jobId + "-" + (partialResults.size() + 1);
+                    previewKeys.put(content, previewKey);
+                    Map<String, Object> dto = toPreviewDto(content);
+                    dto.put("previewKey", previewKey);
+                    dto.put("previewOrder", partialResults.size() + 1);
+                    dto.put("isSelected", false);
+                    partialResults.add(dto);
+                    int progress = 20 + 70 * Math.min(partialResults.size(), expectedVariations) / expectedVariations;
+                    asyncJobService.saveJobCheckpoint(jobId, progress,
+                        String.format("Generated variation %d of %d", partialResults.size(), expectedVariations),
+                        partialResults);
+                }
+            };
+
             // Use the same sync service logic to ensure consistency
             // Phase 1&2: Pass persona and trending keywords
             List<AdContent> contents = aiContentService.generateAdContent(
@@ -139,7 +165,8 @@ public class AsyncAIContentService {
                 userSelectedPersona, // Phase 1: User-selected persona
                 trendingKeywords,     // Phase 2: Trending keywords
                 variationConfigs,
-                enforceLengthLimits
+                enforceLengthLimits,
+                onVariationReady
             );
 
             asyncJobService.updateJobProgress(jobId, 90, "Processing generated content");
@@ -163,37 +190,24 @@ public class AsyncAIContentService {
 
             asyncJobService.updateJobProgress(jobId, 95, "Validating content");
 
-            List<AdContent> validatedContents = validationService.validateAndFilterContent(contents, enforceLengthLimits);
-            if (validatedContents.isEmpty()) {
+            // Convert to DTOs to avoid Hibernate lazy loading serialization issues. Contents are validated one
+            // by one because validation returns cleaned copies, which would lose their preview key
+            List<Map<String, Object>> contentDTOs = new ArrayList<>(contents.size());
+            for (AdContent content : contents) {
+                String previewKey;
+                synchronized (partialResults) {
+                    previewKey = previewKeys.get(content);
+                }
+                for (AdContent validated : validationService.validateAndFilterContent(List.of(content), enforceLengthLimits)) {
+                    Map<String, Object> dto = toPreviewDto(validated);
+                    dto.put("previewKey", previewKey);
+                    contentDTOs.add(dto);
+                }
+            }
+            if (contentDTOs.isEmpty()) {
                 throw new RuntimeException("All generated content was filtered out due to validation failures");
             }
 
-            // Convert to DTOs to avoid Hibernate lazy loading serialization issues
-            List<Map<String, Object>> contentDTOs = validatedContents.stream()
-                .map(content -> {
-                    Map<String, Object> dto = new HashMap<>();
-                    dto.put("id", content.getId());
-                    dto.put("headline", content.getHeadline());
-                    dto.put("description", content.getDescription());
-                    dto.put("primaryText", content.getPrimaryText());
-                    dto.put("callToAction", content.getCallToAction() != null ? content.getCallToAction().name() : null);
-                    dto.put("imageUrl", content.getImageUrl());
-                    dto.put("contentType", content.getContentType() != null ? content.getContentType().name() : null);
-                    dto.put("previewOrder", content.getPreviewOrder());
-                    dto.put("isSelected", content.getIsSelected());
-                    dto.put("needsReview", content.getNeedsReview());
-                    AdGenerationResponse.QualityDetails qualityDetails = qualityDetailsMapper.buildDetails(content);
-                    dto.put("qualityScore", qualityDetails != null ? qualityDetails.getTotalScore() : content.getQualityScore());
-                    dto.put("qualityDetails", qualityDetails != null ? qualityDetails.toMap() : null);
-                    dto.put("hasWarnings", content.getHasWarnings());
-                    dto.put("validationWarnings", content.getValidationWarnings());
-                    dto.put("aiProvider", content.getAiProvider());
-                    dto.put("createdDate", content.getCreatedDate());
-                    // Don't include ad/user relationships to avoid lazy loading
-                    return dto;
-                })
-                .collect(java.util.stream.Collectors.toList());
-
             asyncJobService.completeJob(jobId, contentDTOs);
             log.info("Successfully completed async content generation for job: {}", jobId);
 
@@ -205,6 +219,29 @@ public class AsyncAIContentService {
         return CompletableFuture.completedFuture(null);
     }
 
+    private Map<String, Object> toPreviewDto(AdContent content) {
+        Map<String, Object> dto = new HashMap<>();
+        dto.put("id", content.getId());
+        dto.put("headline", content.getHeadline());
+        dto.put("description", content.getDescription());
+        dto.put("primaryText", content.getPrimaryText());
+        dto.put("callToAction", content.getCallToAction() != null ? content.getCallToAction().name() : null);
+        dto.put("imageUrl", content.getImageUrl());
+        dto.put("contentType", content.getContentType() != null ? content.getContentType().name() : null);
+        dto.put("previewOrder", content.getPreviewOrder());
+        dto.put("isSelected", content.getIsSelected());
+        dto.put("needsReview", content.getNeedsReview());
+        AdGenerationResponse.QualityDetails qualityDetails = qualityDetailsMapper.buildDetails(content);
+        dto.put("qualityScore", qualityDetails != null ? qualityDetails.getTotalScore() : content.getQualityScore());
+        dto.put("qualityDetails", qualityDetails != null ? qualityDetails.toMap() : null);
+        dto.put("hasWarnings", content.getHasWarnings());
+        dto.put("validationWarnings", content.getValidationWarnings());
+        dto.put("aiProvider", content.getAiProvider());
+        dto.put("createdDate", content.getCreatedDate());
+        // Don't include ad/user relationships to avoid lazy loading
+        return dto;
+    }
+
     private com.fbadsautomation.model.AdType convertContentTypeToAdType(AdContent.ContentType contentType) {
         return switch (contentType) {
             case PAGE_POST -> com.fbadsautomation.model.AdType.PAGE_POST_AD;
@@ -0,0 +1,284 @@
+package com.fbadsautomation.service;
+
+import com.fbadsautomation.dto.FacebookAutoUploadProgress;
+import com.fbadsautomation.integration.facebook.FacebookMarketingApiClient;
+import com.fbadsautomation.integration.facebook.FacebookProperties;
+import com.fbadsautomation.integration.facebook.FacebookUploadPlanner;
+import com.fbadsautomation.model.Ad;
+import com.fbadsautomation.model.AsyncJobStatus;
+import com.fbadsautomation.repository.AdRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Service;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Runs Facebook auto uploads as async jobs. Campaign groups are uploaded concurrently (bounded by
+ * {@code facebook.upload.max-concurrency-per-account}), per-ad progress is checkpointed into the job,
+ * and a resumed job skips every Meta object that was already created.
+ */
+@Slf4j
+@Service
+public class AsyncFacebookUploadService {
+
+    private static final long CHECKPOINT_INTERVAL_MILLIS = 2000L;
+
+    private final AsyncJobService asyncJobService;
+    private final AdRepository adRepository;
+    private final FacebookMarketingApiClient marketingApiClient;
+    private final FacebookUploadPlanner uploadPlanner;
+    private final FacebookProperties facebookProperties;
+    private final TaskExecutor facebookUploadExecutor;
+
+    @Autowired
+    public AsyncFacebookUploadService(AsyncJobService asyncJobService,
+                                      AdRepository adRepository,
+                                      FacebookMarketingApiClient marketingApiClient,
+                                      FacebookUploadPlanner uploadPlanner,
+                                      FacebookProperties facebookProperties,
+                                      @Qualifier("facebookUploadExecutor") TaskExecutor facebookUploadExecutor) {
+        this.asyncJobService = asyncJobService;
+        this.adRepository = adRepository;
+        this.marketingApiClient = marketingApiClient;
+        this.uploadPlanner = uploadPlanner;
+        this.facebookProperties = facebookProperties;
+        this.facebookUploadExecutor = facebookUploadExecutor;
+    }
+
+    @Async("generalAsyncExecutor")
+    public CompletableFuture<Void> uploadAsync(String jobId, FacebookAutoUploadProgress checkpoint) {
+        ProgressTracker tracker = new ProgressTracker(jobId, checkpoint);
+        try {
+            asyncJobService.startJob(jobId, "Preparing Facebook upload");
+
+            Map<Long, Ad> adsById = adRepository.findByIdInWithCampaign(checkpoint.getAdIds()).stream()
+                .collect(Collectors.toMap(Ad::getId, Function.identity(), (first, second) -> first));
+            List<Ad> ads = new ArrayList<>();
+            for (Long adId : checkpoint.getAdIds()) {
+                Ad ad = adsById.get(adId);
+                if (ad != null) {
+                    ads.add(ad);
+                } else if (!tracker.isUploaded(adId)) {
+                    tracker.record(FacebookMarketingApiClient.UploadResult.failure(adId, "Ad not found"));
+                }
+            }
+
+            FacebookMarketingApiClient.UploadSession session = marketingApiClient.openSession(
+                checkpoint.getAdAccountId(), facebookProperties.getMarketingAccessToken());
+            FacebookUploadPlanner.UploadPlan plan = uploadPlanner.plan(ads);
+            plan.getUnplannable().forEach(ad ->
+                tracker.record(FacebookMarketingApiClient.UploadResult.failure(ad.getId(), "Ad has no campaign")));
+
+            Map<Long, FacebookMarketingApiClient.UploadResult> checkpoints = tracker.snapshotByAdId();
+            Queue<FacebookUploadPlanner.CampaignGroup> groups = new ConcurrentLinkedQueue<>(plan.getGroups());
+            int workers = Math.max(1, Math.min(plan.getGroups().size(),
+                facebookProperties.getUploadMaxConcurrencyPerAccount()));
+            log.info("[FB Upload Job {}] Uploading {} ads in {} campaign groups with {} workers",
+                jobId, ads.size(), plan.getGroups().size(), workers);
+
+            Runnable worker = () -> {
+                FacebookUploadPlanner.CampaignGroup group;
+                while ((group = groups.poll()) != null && !isCancelled(jobId)) {
+                    session.uploadGroup(group, checkpoints, tracker::record);
+                }
+            };
+            List<CompletableFuture<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < workers; i++) {
+                try {
+                    futures.add(CompletableFuture.runAsync(worker, facebookUploadExecutor));
+                } catch (RejectedExecutionException e) {
+                    // Workers share one queue, so the ones already started take over the rest
+                    log.warn("[FB Upload Job {}] Upload pool is full, continuing with {} workers", jobId, futures.size());
+                    break;
+                }
+            }
+            if (futures.isEmpty()) {
+                worker.run();
+            }
+            CompletableFuture.allOf(futures.toArray(new CompletableFuture[0])).join();
+
+            if (isCancelled(jobId)) {
+                tracker.flush("Cancelled");
+                log.info("[FB Upload Job {}] Cancelled after {} uploaded ads", jobId, tracker.uploadedCount());
+                return CompletableFuture.completedFuture(null);
+            }
+
+            FacebookAutoUploadProgress result = tracker.finish();
+            if (result.getUploadedAds() == 0 && result.getFailedAds() > 0) {
+                asyncJobService.failJob(jobId, "No ads were uploaded. Resume the job after fixing the errors.");
+            } else {
+                asyncJobService.completeJob(jobId, result);
+            }
+            log.info("[FB Upload Job {}] Finished: {} uploaded, {} failed",
+                jobId, result.getUploadedAds(), result.getFailedAds());
+        } catch (Exception e) {
+            log.error("[FB Upload Job {}] Failed: {}", jobId, e.getMessage(), e);
+            tracker.flush("Failed");
+            asyncJobService.failJob(jobId, e.getMessage());
+        }
+        return CompletableFuture.completedFuture(null);
+    }
+
+    private boolean isCancelled(String jobId) {
+        return asyncJobService.getJob(jobId)
+            .map(job -> job.getStatus() == AsyncJobStatus.Status.CANCELLED)
+            .orElse(true);
+    }
+
+    /**
+     * Collects per-ad results from the upload workers and persists them to the job at most every
+     * {@link #CHECKPOINT_INTERVAL_MILLIS}, so progress survives a crash without a write per ad.
+     */
+    private class ProgressTracker {
+        private final String jobId;
+        private final FacebookAutoUploadProgress progress;
+        private final Map<Long, FacebookMarketingApiClient.UploadResult> results = new LinkedHashMap<>();
+        // Checkpoints are written outside the tracker lock; this one only orders the writes
+        private final Object writeLock = new Object();
+        private long lastCheckpointAt;
+        private long snapshotSeq;
+        private long writtenSeq;
+
+        ProgressTracker(String jobId, FacebookAutoUploadProgress checkpoint) {
+            this.jobId = jobId;
+            this.progress = checkpoint;
+            checkpoint.setJobId(jobId);
+            checkpoint.setTotalAds(checkpoint.getAdIds().size());
+            checkpoint.getAdIds().forEach(adId -> results.put(adId, null));
+            for (FacebookMarketingApiClient.UploadResult previous : checkpoint.getAds()) {
+                if (previous != null && previous.getLocalAdId() != null) {
+                    results.put(previous.getLocalAdId(), previous);
+                }
+            }
+        }
+
+        synchronized boolean isUploaded(Long adId) {
+            FacebookMarketingApiClient.UploadResult result = results.get(adId);
+            return result != null && result.isSuccess();
+        }
+
+        synchronized Map<Long, FacebookMarketingApiClient.UploadResult> snapshotByAdId() {
+            Map<Long, FacebookMarketingApiClient.UploadResult> snapshot = new HashMap<>();
+            results.forEach((adId, result) -> {
+                if (result != null) {
+                    snapshot.put(adId, result);
+                }
+            });
+            return snapshot;
+        }
+
+        void record(FacebookMarketingApiClient.UploadResult result) {
+            if (result == null || result.getLocalAdId() == null) {
+                return;
+            }
+            Checkpoint checkpoint;
+            synchronized (this) {
+                results.put(result.getLocalAdId(), result);
+                long now = System.currentTimeMillis();
+                if (now - lastCheckpointAt < CHECKPOINT_INTERVAL_MILLIS) {
+                    return;
+                }
+                lastCheckpointAt = now;
+                checkpoint = snapshot(null);
+            }
+            write(checkpoint);
+        }
+
+        synchronized int uploadedCount() {
+            refresh();
+            return progress.getUploadedAds();
+        }
+
+        void flush(String status) {
+            write(snapshot(status));
+        }
+
+        synchronized FacebookAutoUploadProgress finish() {
+            refresh();
+            return progress;
+        }
+
+        /**
+         * Copies the current progress under the tracker lock, so the checkpoint can be written
+         * without holding up workers that record results meanwhile.
+         */
+        private synchronized Checkpoint snapshot(String status) {
+            refresh();
+            int done = progress.getUploadedAds() + progress.getFailedAds();
+            int percent = progress.getTotalAds() > 0 ? done * 100 / progress.getTotalAds() : 100;
+            String step = String.format("%s%d/%d ads uploaded, %d failed",
+                status != null ? status + ": " : "", progress.getUploadedAds(), progress.getTotalAds(),
+                progress.getFailedAds());
+            FacebookAutoUploadProgress copy = FacebookAutoUploadProgress.builder()
+                .jobId(progress.getJobId())
+                .adAccountId(progress.getAdAccountId())
+                .adsManagerUrl(progress.getAdsManagerUrl())
+                .adIds(new ArrayList<>(progress.getAdIds()))
+                .totalAds(progress.getTotalAds())
+                .uploadedAds(progress.getUploadedAds())
+                .failedAds(progress.getFailedAds())
+                .ads(new ArrayList<>(progress.getAds()))
+                .build();
+            return new Checkpoint(++snapshotSeq, Math.min(percent, 99), step, copy);
+        }
+
+        private void write(Checkpoint checkpoint) {
+            synchronized (writeLock) {
+                // A slower writer must not overwrite a newer checkpoint with its older copy
+                if (checkpoint.seq < writtenSeq) {
+                    return;
+                }
+                writtenSeq = checkpoint.seq;
+                asyncJobService.saveJobCheckpoint(jobId, checkpoint.percent, checkpoint.step, checkpoint.progress);
+            }
+        }
+
+        private void refresh() {
+            List<FacebookMarketingApiClient.UploadResult> ads = new ArrayList<>();
+            int uploaded = 0;
+            int failed = 0;
+            for (FacebookMarketingApiClient.UploadResult result : results.values()) {
+                if (result == null) {
+                    continue;
+                }
+                ads.add(result);
+                if (result.isSuccess()) {
+                    uploaded++;
+                } else if (result.getError() != null) {
+                    failed++;
+                }
+            }
+            progress.setAds(ads);
+            progress.setUploadedAds(uploaded);
+            progress.setFailedAds(failed);
+        }
+    }
+
+    private static final class Checkpoint {
+        private final long seq;
+        private final int percent;
+        private final String step;
+        private final FacebookAutoUploadProgress progress;
+
+        Checkpoint(long seq, int percent, String step, FacebookAutoUploadProgress progress) {
+            this.seq = seq;
+            this.percent = percent;
+            this.step = step;
+            this.progress = progress;
+        }
+    }
+}
@@ -76,6 +76,42 @@ public class AsyncJobService {
         updateJobStatus(jobId, AsyncJobStatus.Status.IN_PROGRESS, 0, currentStep, null, null);
     }
 
+    /**
+     * Stores intermediate job data (e.g. per-item progress) in resultData so an interrupted job can be
+     * inspected and resumed. The final {@link #completeJob(String, Object)} call overwrites it. Only the
+     * progress columns are written, so the status, e.g. a concurrent cancel, is left as it is.
+     */
+    @Transactional
+    public void saveJobCheckpoint(String jobId, int progress, String currentStep, Object checkpointData) {
+        try {
+            String checkpointJson = objectMapper.writeValueAsString(checkpointData);
+            int updated = jobStatusRepository.saveCheckpoint(jobId, Math.min(100, Math.max(0, progress)),
+                    currentStep, checkpointJson, LocalDateTime.now());
+            if (updated == 0) {
+                log.warn("Attempted to checkpoint non-existent job: {}", jobId);
+            }
+        } catch (JsonProcessingException e) {
+            log.error("Failed to serialize checkpoint for job: {}", jobId, e);
+        }
+    }
+
+    /**
+     * Moves a failed or completed job back to PENDING so it can be resumed from its last checkpoint.
+     * Returns false when the job is in any other state, including when a concurrent call reopened it
+     * first.
+     */
+    @Transactional
+    public boolean reopenJob(String jobId, String currentStep) {
+        LocalDateTime now = LocalDateTime.now();
+        int reopened = jobStatusRepository.reopenJob(jobId,
+                Arrays.asList(AsyncJobStatus.Status.FAILED, AsyncJobStatus.Status.COMPLETED),
+                AsyncJobStatus.Status.PENDING, currentStep, now.plusHours(24), now);
+        if (reopened == 1) {
+            log.info("Reopened job: {}", jobId);
+        }
+        return reopened == 1;
+    }
+
     @Transactional
     public void updateJobStatus(String jobId, AsyncJobStatus.Status status, Integer progress,
                                String currentStep, String resultData, String errorMessage) {
@@ -182,6 +218,22 @@ public class AsyncJobService {
         }
     }
 
+    /**
+     * Reads the job's resultData regardless of status, i.e. the final result or the latest checkpoint.
+     */
+    public <T> Optional<T> getJobData(String jobId, Long userId, Class<T> dataType) {
+        return getUserJob(jobId, userId)
+                .filter(job -> job.getResultData() != null)
+                .map(job -> {
+                    try {
+                        return objectMapper.readValue(job.getResultData(), dataType);
+                    } catch (JsonProcessingException e) {
+                        log.error("Failed to deserialize job data for job: {}", jobId, e);
+                        return null;
+                    }
+                });
+    }
+
     public <T> Optional<T> getJobResult(String jobId, Long userId, Class<T> resultType) {
         return getUserJob(jobId, userId)
                 .filter(job -> job.getStatus() == AsyncJobStatus.Status.COMPLETED)
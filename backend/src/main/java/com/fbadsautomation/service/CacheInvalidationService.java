@@ -1,15 +1,17 @@
 package com.fbadsautomation.service;
 
+import com.fbadsautomation.config.RedisConfig;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.cache.CacheManager;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.RedisCache;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.scheduling.annotation.Scheduled;
 import org.springframework.stereotype.Service;
 
 import java.time.Duration;
 import java.time.LocalDateTime;
-import java.util.Arrays;
 import java.util.List;
 import java.util.Set;
 
@@ -22,9 +24,7 @@ public class CacheInvalidationService {
     private final RedisTemplate<String, Object> redisTemplate;
     private final AIContentCacheService aiContentCacheService;
 
-    private static final List<String> CACHE_NAMES = Arrays.asList(
-        "ai-content", "ai-provider-status", "campaigns", "users", "api-responses"
-    );
+    private static final Set<String> CACHE_NAMES = RedisConfig.CACHE_POLICIES.keySet();
 
     @Scheduled(fixedRate = 300000) // Every 5 minutes
     public void cleanupExpiredCaches() {
@@ -68,11 +68,6 @@ public class CacheInvalidationService {
                 int keyCount = keys != null ? keys.size() : 0;
 
                 log.debug("Cache {} contains {} keys", cacheName, keyCount);
-
-                // Alert if cache grows too large
-                if (keyCount > 10000) {
-                    log.warn("Cache {} has grown large: {} keys", cacheName, keyCount);
-                }
             }
 
             log.debug("Cache health check completed successfully");
@@ -253,7 +248,14 @@ public class CacheInvalidationService {
                 CacheHealthReport.CacheInfo cacheInfo = new CacheHealthReport.CacheInfo();
                 cacheInfo.setName(cacheName);
                 cacheInfo.setKeyCount(keyCount);
-                cacheInfo.setHealthy(keyCount < 10000); // Threshold for health
+                cacheInfo.setHealthy(keyCount <= RedisConfig.CACHE_POLICIES.get(cacheName).getMaxEntries());
+
+                var cache = cacheManager.getCache(cacheName);
+                if (cache instanceof RedisCache) {
+                    CacheStatistics statistics = ((RedisCache) cache).getStatistics();
+                    cacheInfo.setHits(statistics.getHits());
+                    cacheInfo.setMisses(statistics.getMisses());
+                }
 
                 report.getCaches().add(cacheInfo);
             }
@@ -280,6 +282,8 @@ public class CacheInvalidationService {
             private String name;
             private int keyCount;
             private boolean healthy;
+            private long hits;
+            private long misses;
 
             public String getName() { return name; }
             public void setName(String name) { this.name = name; }
@@ -289,6 +293,12 @@ public class CacheInvalidationService {
 
             public boolean isHealthy() { return healthy; }
             public void setHealthy(boolean healthy) { this.healthy = healthy; }
+
+            public long getHits() { return hits; }
+            public void setHits(long hits) { this.hits = hits; }
+
+            public long getMisses() { return misses; }
+            public void setMisses(long misses) { this.misses = misses; }
         }
     }
 }
\ No newline at end of file
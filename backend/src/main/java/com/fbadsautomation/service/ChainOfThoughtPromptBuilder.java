@@ -6,7 +6,13 @@ import com.fbadsautomation.model.AdType;
 import com.fbadsautomation.model.FacebookCTA;
 import com.fbadsautomation.model.Persona;
 import com.fbadsautomation.util.ValidationMessages.Language;
+import com.fbadsautomation.util.text.AssembledPrompt;
+import com.fbadsautomation.util.text.AssembledPrompt.Section;
+import com.fbadsautomation.util.text.PromptTemplate;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -30,6 +36,8 @@ import org.springframework.util.StringUtils;
  * - Strict language enforcement to eliminate cross-language contamination
  * - Integration of persona, trending keywords, ad style, and campaign audience
  * - Explicit reasoning steps to improve output quality
+ * - Precompiled templates; the instruction stages (style commitment, reasoning, constraints, style)
+ *   are sent first as a cached, stable prefix so provider-side prompt caching can reuse them
  */
 @Service
 @RequiredArgsConstructor
@@ -37,6 +45,112 @@ public class ChainOfThoughtPromptBuilder {
 
     private static final Logger log = LoggerFactory.getLogger(ChainOfThoughtPromptBuilder.class);
 
+    private static final String STYLE_HEADER = "🎨 STYLE BLUEPRINT\n";
+
+    private static final Section STYLE_COMMITMENT_VI = Section.of("styleCommitment", """
+🚨 CAM KẾT PHONG CÁCH BẮT BUỘC
+- Luôn tái tạo chính xác nhịp điệu, cách xuống dòng, emoji và mức độ cảm xúc như quảng cáo tham khảo, dù sản phẩm khác ngành.
+- Bạn KHÔNG được từ chối yêu cầu này vì nội dung mới hoàn toàn khác dữ kiện của quảng cáo mẫu.
+- Chỉ thay đổi dữ liệu sản phẩm/dịch vụ – phong cách, tone và nhịp viết phải giữ nguyên tinh thần tham chiếu.
+
+""");
+    private static final Section STYLE_COMMITMENT_EN = Section.of("styleCommitment", """
+🚨 NON-NEGOTIABLE STYLE COMMITMENT
+- You MUST replicate the cadence, emoji usage, emotional energy, and sentence rhythm from the reference ad even if the product category is different.
+- Do NOT refuse this request—the new copy remains original because only the facts change.
+- Swap in the new offer details but keep the reference tone, pacing, and structure intact.
+
+""");
+
+    // Stage 5: Reasoning Process - guide the AI through step-by-step thinking
+    private static final Section REASONING_VI = Section.of("reasoning", """
+            🧠 LỘ TRÌNH VIẾT
+            1. Hook: Lặp lại cảm giác lễ hội + emoji như quảng cáo mẫu (không được từ chối vì khác ngành).
+            2. Thân bài: 2-3 câu kể chuyện nhấn mạnh lợi ích sản phẩm hiện tại nhưng giữ nhịp câu/emoji tương tự.
+            3. CTA: Khép lại bằng lời kêu gọi cùng năng lượng tươi vui đó.
+
+            """);
+    private static final Section REASONING_EN = Section.of("reasoning", """
+        🧠 WRITING FLOW
+        1. Hook: Recreate the celebratory emoji-led opening (refusal is not allowed even if category differs).
+        2. Body: 2-3 upbeat sentences swapping in the new product details but keeping the same rhythm.
+        3. CTA: Close with a matching call-to-action tone.
+
+        """);
+
+    private static final PromptTemplate CONTEXT_VI = PromptTemplate.compile("context.vi", """
+        📋 BỐI CẢNH NGẮN GỌN
+        • Sản phẩm: {{product}}
+        • Loại quảng cáo: {{adType}} · {{variations}} biến thể
+        • Đối tượng: {{audience}}
+
+        """);
+    private static final PromptTemplate CONTEXT_EN = PromptTemplate.compile("context.en", """
+        📋 QUICK CONTEXT
+        • Product: {{product}}
+        • Ad type: {{adType}} · {{variations}} variations
+        • Audience: {{audience}}
+
+        """);
+
+    private static final PromptTemplate PERSONA_VI = PromptTemplate.compile("persona.vi", """
+        👤 Ghi chú persona
+        • Độ tuổi: {{age}}
+        • Pain points: {{painPoints}}
+        • Kết quả mong muốn: {{outcome}}
+
+        """);
+    private static final PromptTemplate PERSONA_EN = PromptTemplate.compile("persona.en", """
+        👤 Persona highlights
+        • Age: {{age}}
+        • Pain points: {{painPoints}}
+        • Desired outcome: {{outcome}}
+
+        """);
+
+    private static final PromptTemplate LENGTH_HINT_VI = PromptTemplate.compile("lengthHint.vi",
+            "• Độ dài mục tiêu: ~{{sentences}} câu / ~{{words}} từ.\n");
+    private static final PromptTemplate LENGTH_HINT_EN = PromptTemplate.compile("lengthHint.en",
+            "• Target length: ~{{sentences}} sentences / ~{{words}} words.\n");
+
+    private static final PromptTemplate OUTPUT_VI = PromptTemplate.compile("output.vi", """
+        ✍️ OUTPUT
+        • Tạo {{variations}} JSON object, mỗi object là một biến thể riêng.
+        • Phải có emoji + không khí lễ hội giống mẫu, thiếu sẽ bị loại.
+        {{lengthHint}}
+        JSON schema:
+        {
+          "headline": "≤40 ký tự nếu áp dụng giới hạn",
+          "description": "≤125 ký tự nếu áp dụng giới hạn",
+          "primaryText": "≤1000 ký tự nếu áp dụng giới hạn",
+          "callToAction": "Giữ CTA đã yêu cầu",
+          "imagePrompt": "Gợi ý cảnh minh họa",
+          "styleNotes": "1-2 câu mô tả việc bám phong cách tham chiếu"
+        }
+
+        Chỉ trả về JSON hợp lệ, không thêm văn bản khác.
+        """);
+    private static final PromptTemplate OUTPUT_EN = PromptTemplate.compile("output.en", """
+        ✍️ OUTPUT
+        • Produce {{variations}} JSON objects (one per variation).
+        • Emoji + celebratory cadence from the reference are mandatory.
+        {{lengthHint}}
+        JSON schema:
+        {
+          "headline": "≤40 chars if limits apply",
+          "description": "≤125 chars if limits apply",
+          "primaryText": "≤1000 chars if limits apply",
+          "callToAction": "Use provided CTA",
+          "imagePrompt": "Scene suggestion",
+          "styleNotes": "1-2 sentences proving the style match"
+        }
+
+        Return ONLY the JSON payload.
+        """);
+
+    // Rendered sections keyed by section, language and settings (CTA, style); a few hundred at most
+    private final Map<String, Section> fragments = new ConcurrentHashMap<>();
+
     public static class ReferenceMetrics {
         private final Integer wordCount;
         private final Integer sentenceCount;
@@ -102,6 +216,34 @@ public class ChainOfThoughtPromptBuilder {
         boolean enforceCharacterLimits,
         ReferenceMetrics referenceMetrics,
         ReferenceStyleProfile styleProfile
+    ) {
+        return assembleCoTPrompt(userPrompt, persona, adStyle, targetAudience, trendingKeywords, language,
+                callToAction, adType, numberOfVariations, referenceContent, referenceLink,
+                enforceCharacterLimits, referenceMetrics, styleProfile).getText();
+    }
+
+    /**
+     * Same prompt as {@link #buildCoTPrompt}, split into sections with token estimates.
+     *
+     * The instructions that only depend on language, CTA and style come first and are rendered once per
+     * combination, so every request with the same settings sends a byte-identical prefix that the
+     * provider can serve from its prompt cache. Product, audience, persona and reference data follow.
+     */
+    public AssembledPrompt assembleCoTPrompt(
+        String userPrompt,
+        Persona persona,
+        AdStyle adStyle,
+        String targetAudience,
+        List<String> trendingKeywords,
+        Language language,
+        FacebookCTA callToAction,
+        AdType adType,
+        int numberOfVariations,
+        String referenceContent,
+        String referenceLink,
+        boolean enforceCharacterLimits,
+        ReferenceMetrics referenceMetrics,
+        ReferenceStyleProfile styleProfile
     ) {
         log.info("[Phase 3] Building CoT prompt: language={}, adType={}, variations={}, persona={}, keywords={}",
                 language, adType, numberOfVariations,
@@ -109,17 +251,22 @@ public class ChainOfThoughtPromptBuilder {
                 trendingKeywords != null ? trendingKeywords.size() : 0);
 
         boolean isVietnamese = (language == Language.VIETNAMESE);
-        StringBuilder prompt = new StringBuilder();
-
-        // Stage 1: Context Snapshot (includes target audience)
-        prompt.append(buildStage1_ContextSnapshot(userPrompt, adType, numberOfVariations, targetAudience, isVietnamese));
-
-        // Stage 2: Persona Notes (optional)
-        prompt.append(buildStage2_PersonaHighlight(persona, isVietnamese));
+        AssembledPrompt.Builder prompt = AssembledPrompt.builder();
+
+        // Stable prefix: style commitment, reasoning flow, guardrails and the chosen style
+        prompt.addToPrefix(isVietnamese ? STYLE_COMMITMENT_VI : STYLE_COMMITMENT_EN);
+        prompt.addToPrefix(isVietnamese ? REASONING_VI : REASONING_EN);
+        prompt.addToPrefix(fragment("constraints", isVietnamese, callToAction + ":" + enforceCharacterLimits,
+                () -> buildStage4_Constraints(callToAction, isVietnamese, enforceCharacterLimits)));
+        if (styleProfile == null && adStyle != null) {
+            prompt.addToPrefix(fragment("style", isVietnamese, adStyle.name(),
+                    () -> STYLE_HEADER + adStyle.getStyleInstruction(isVietnamese) + "\n\n"));
+        }
 
-        // Stage 3: Creative Direction
-        prompt.append(buildStage3_CreativeDirection(
-                adStyle,
+        // Request specific context
+        prompt.add("context", buildStage1_ContextSnapshot(userPrompt, adType, numberOfVariations, targetAudience, isVietnamese));
+        prompt.add("persona", buildStage2_PersonaHighlight(persona, isVietnamese));
+        prompt.add("creativeDirection", buildStage3_CreativeDirection(
                 trendingKeywords,
                 referenceContent,
                 referenceLink,
@@ -128,29 +275,22 @@ public class ChainOfThoughtPromptBuilder {
                 referenceMetrics,
                 !enforceCharacterLimits,
                 styleProfile));
-
-        // Stage 4: Constraints & Requirements
-        prompt.append(buildStage4_Constraints(callToAction, language, isVietnamese, enforceCharacterLimits));
-
-        // Stage 5: Reasoning Process
-        prompt.append(buildStage5_ReasoningProcess(
-                persona,
-                adStyle,
-                isVietnamese,
-                enforceCharacterLimits,
-                styleProfile != null));
-
-        // Stage 6: Generation Instruction
-        prompt.append(buildStage6_GenerationInstruction(
+        prompt.add("output", buildStage6_GenerationInstruction(
                 numberOfVariations,
-                language,
                 isVietnamese,
                 enforceCharacterLimits,
-                referenceMetrics,
-                styleProfile != null));
+                referenceMetrics));
 
-        log.debug("[Phase 3] CoT prompt built successfully (length: {} chars)", prompt.length());
-        return prompt.toString();
+        AssembledPrompt assembled = prompt.build();
+        log.debug("[Phase 3] CoT prompt built successfully (length: {} chars, ~{} tokens, stable prefix ~{} tokens): {}",
+                assembled.getText().length(), assembled.getTotalTokens(), assembled.getStablePrefixTokens(),
+                assembled.getSectionTokens());
+        return assembled;
+    }
+
+    private Section fragment(String section, boolean isVietnamese, String variant, Supplier<String> renderer) {
+        String key = section + ":" + (isVietnamese ? "vi" : "en") + ":" + variant;
+        return fragments.computeIfAbsent(key, k -> Section.of(section, renderer.get()));
     }
 
     /**
@@ -162,26 +302,14 @@ public class ChainOfThoughtPromptBuilder {
                                                int numberOfVariations,
                                                String targetAudience,
                                                boolean isVietnamese) {
-        String adTypeName = mapAdTypeToDisplayName(adType, isVietnamese);
         String audience = StringUtils.hasText(targetAudience)
                 ? targetAudience.trim()
                 : (isVietnamese ? "Chưa xác định" : "Not specified");
-        if (isVietnamese) {
-            return String.format("""
-                📋 BỐI CẢNH NGẮN GỌN
-                • Sản phẩm: %s
-                • Loại quảng cáo: %s · %d biến thể
-                • Đối tượng: %s
-
-                """, userPrompt, adTypeName, numberOfVariations, audience);
-        }
-        return String.format("""
-            📋 QUICK CONTEXT
-            • Product: %s
-            • Ad type: %s · %d variations
-            • Audience: %s
-
-            """, userPrompt, adTypeName, numberOfVariations, audience);
+        return (isVietnamese ? CONTEXT_VI : CONTEXT_EN).render(Map.of(
+                "product", String.valueOf(userPrompt),
+                "adType", mapAdTypeToDisplayName(adType, isVietnamese),
+                "variations", numberOfVariations,
+                "audience", audience));
     }
 
     /**
@@ -191,28 +319,10 @@ public class ChainOfThoughtPromptBuilder {
         if (persona == null) {
             return "";
         }
-        if (isVietnamese) {
-            return String.format("""
-                👤 Ghi chú persona
-                • Độ tuổi: %s
-                • Pain points: %s
-                • Kết quả mong muốn: %s
-
-                """,
-                    persona.getAge() != null ? persona.getAge() : "N/A",
-                    formatList(persona.getPainPoints()),
-                    StringUtils.hasText(persona.getDesiredOutcome()) ? persona.getDesiredOutcome() : "N/A");
-        }
-        return String.format("""
-            👤 Persona highlights
-            • Age: %s
-            • Pain points: %s
-            • Desired outcome: %s
-
-            """,
-                persona.getAge() != null ? persona.getAge() : "N/A",
-                formatList(persona.getPainPoints()),
-                StringUtils.hasText(persona.getDesiredOutcome()) ? persona.getDesiredOutcome() : "N/A");
+        return (isVietnamese ? PERSONA_VI : PERSONA_EN).render(Map.of(
+                "age", persona.getAge() != null ? persona.getAge() : "N/A",
+                "painPoints", formatList(persona.getPainPoints()),
+                "outcome", StringUtils.hasText(persona.getDesiredOutcome()) ? persona.getDesiredOutcome() : "N/A"));
     }
 
     private String buildReferenceMirrorCue(ReferenceMetrics referenceMetrics, boolean isVietnamese, boolean allowLongForm) {
@@ -276,10 +386,9 @@ public class ChainOfThoughtPromptBuilder {
 
     /**
      * Stage 3: Creative Direction
-     * Define style and trending keywords
+     * Reference style profile, trending keywords and the reference excerpt
      */
-    private String buildStage3_CreativeDirection(AdStyle adStyle,
-                                                 List<String> trendingKeywords,
+    private String buildStage3_CreativeDirection(List<String> trendingKeywords,
                                                  String referenceContent,
                                                  String referenceLink,
                                                  String baseDescription,
@@ -289,8 +398,8 @@ public class ChainOfThoughtPromptBuilder {
                                                  ReferenceStyleProfile styleProfile) {
         StringBuilder stage = new StringBuilder();
 
-        appendStyleBlueprint(stage, adStyle, trendingKeywords, styleProfile, isVietnamese);
-        appendStyleCommitment(stage, isVietnamese);
+        appendStyleProfile(stage, styleProfile, isVietnamese);
+        appendTrendingKeywords(stage, trendingKeywords, isVietnamese);
         appendReferenceExcerpt(stage, referenceContent, referenceLink, baseDescription, isVietnamese);
         stage.append(buildReferenceMirrorCue(referenceMetrics, isVietnamese, allowLongForm));
         return stage.toString();
@@ -301,7 +410,6 @@ public class ChainOfThoughtPromptBuilder {
      * Strict Facebook requirements and language enforcement
      */
     private String buildStage4_Constraints(FacebookCTA callToAction,
-                                           Language language,
                                            boolean isVietnamese,
                                            boolean enforceCharacterLimits) {
         String ctaDisplay = callToAction != null
@@ -327,128 +435,57 @@ public class ChainOfThoughtPromptBuilder {
         return stage.toString();
     }
 
-    /**
-     * Stage 5: Reasoning Process
-     * Guide the AI through step-by-step thinking
-     */
-    private String buildStage5_ReasoningProcess(Persona persona,
-                                                AdStyle adStyle,
-                                                boolean isVietnamese,
-                                                boolean enforceCharacterLimits,
-                                                boolean hasStyleProfile) {
-        if (isVietnamese) {
-            return """
-            🧠 LỘ TRÌNH VIẾT
-            1. Hook: Lặp lại cảm giác lễ hội + emoji như quảng cáo mẫu (không được từ chối vì khác ngành).
-            2. Thân bài: 2-3 câu kể chuyện nhấn mạnh lợi ích sản phẩm hiện tại nhưng giữ nhịp câu/emoji tương tự.
-            3. CTA: Khép lại bằng lời kêu gọi cùng năng lượng tươi vui đó.
-
-            """;
-        }
-        return """
-        🧠 WRITING FLOW
-        1. Hook: Recreate the celebratory emoji-led opening (refusal is not allowed even if category differs).
-        2. Body: 2-3 upbeat sentences swapping in the new product details but keeping the same rhythm.
-        3. CTA: Close with a matching call-to-action tone.
-
-        """;
-    }
-
     /**
      * Stage 6: Generation Instruction
      * Final instruction with strict format requirements
      */
     private String buildStage6_GenerationInstruction(int numberOfVariations,
-                                                     Language language,
                                                      boolean isVietnamese,
                                                      boolean enforceCharacterLimits,
-                                                     ReferenceMetrics referenceMetrics,
-                                                     boolean hasStyleProfile) {
+                                                     ReferenceMetrics referenceMetrics) {
         Integer guidedSentences = getGuidedSentenceCount(referenceMetrics, !enforceCharacterLimits);
         Integer guidedWords = getGuidedWordCount(referenceMetrics, !enforceCharacterLimits);
         String lengthHint = "";
         if (!enforceCharacterLimits && (guidedSentences != null || guidedWords != null)) {
-            lengthHint = isVietnamese
-                    ? String.format("• Độ dài mục tiêu: ~%s câu / ~%s từ.%n",
-                    guidedSentences != null ? guidedSentences : "N/A",
-                    guidedWords != null ? guidedWords : "N/A")
-                    : String.format("• Target length: ~%s sentences / ~%s words.%n",
-                    guidedSentences != null ? guidedSentences : "N/A",
-                    guidedWords != null ? guidedWords : "N/A");
+            lengthHint = (isVietnamese ? LENGTH_HINT_VI : LENGTH_HINT_EN).render(Map.of(
+                    "sentences", guidedSentences != null ? guidedSentences : "N/A",
+                    "words", guidedWords != null ? guidedWords : "N/A"));
         }
-
-        if (isVietnamese) {
-            return String.format("""
-                ✍️ OUTPUT
-                • Tạo %d JSON object, mỗi object là một biến thể riêng.
-                • Phải có emoji + không khí lễ hội giống mẫu, thiếu sẽ bị loại.
-                %s
-                JSON schema:
-                {
-                  "headline": "≤40 ký tự nếu áp dụng giới hạn",
-                  "description": "≤125 ký tự nếu áp dụng giới hạn",
-                  "primaryText": "≤1000 ký tự nếu áp dụng giới hạn",
-                  "callToAction": "Giữ CTA đã yêu cầu",
-                  "imagePrompt": "Gợi ý cảnh minh họa",
-                  "styleNotes": "1-2 câu mô tả việc bám phong cách tham chiếu"
-                }
-
-                Chỉ trả về JSON hợp lệ, không thêm văn bản khác.
-                """, numberOfVariations, lengthHint);
-        }
-
-        return String.format("""
-            ✍️ OUTPUT
-            • Produce %d JSON objects (one per variation).
-            • Emoji + celebratory cadence from the reference are mandatory.
-            %s
-            JSON schema:
-            {
-              "headline": "≤40 chars if limits apply",
-              "description": "≤125 chars if limits apply",
-              "primaryText": "≤1000 chars if limits apply",
-              "callToAction": "Use provided CTA",
-              "imagePrompt": "Scene suggestion",
-              "styleNotes": "1-2 sentences proving the style match"
-            }
-
-            Return ONLY the JSON payload.
-            """, numberOfVariations, lengthHint);
+        return (isVietnamese ? OUTPUT_VI : OUTPUT_EN).render(Map.of(
+                "variations", numberOfVariations,
+                "lengthHint", lengthHint));
     }
 
-
-    private void appendStyleBlueprint(StringBuilder stage,
-                                      AdStyle adStyle,
-                                      List<String> trendingKeywords,
-                                      ReferenceStyleProfile styleProfile,
-                                      boolean isVietnamese) {
-        String headline = isVietnamese ? "🎨 STYLE BLUEPRINT\n" : "🎨 STYLE BLUEPRINT\n";
-        stage.append(headline);
-        if (styleProfile != null) {
-            stage.append(String.format("- Hook: %s%n",
-                    safeValue(styleProfile.getHookType(), isVietnamese ? "câu khẳng định" : "statement")));
-            stage.append(String.format("- Tone/Pacing: %s · %s%n",
-                    safeValue(styleProfile.getTone(), "BALANCED"),
-                    safeValue(styleProfile.getPacing(), "BALANCED")));
-            if (styleProfile.getEmojiSamples() != null && !styleProfile.getEmojiSamples().isEmpty()) {
-                stage.append("- Emoji: ").append(String.join(" ", styleProfile.getEmojiSamples())).append("\n");
-            }
-            if (Boolean.TRUE.equals(styleProfile.getUsesSecondPerson())) {
-                stage.append(isVietnamese ? "- Giữ cách xưng hô \"bạn\"\n" : "- Speak directly to the reader (\"you\")\n");
-            }
-            if (styleProfile.getCtaVerb() != null) {
-                stage.append(String.format("- CTA vibe: %s%n", styleProfile.getCtaVerb()));
-            }
-        } else if (adStyle != null) {
-            stage.append(adStyle.getStyleInstruction(isVietnamese)).append("\n");
+    private void appendStyleProfile(StringBuilder stage, ReferenceStyleProfile styleProfile, boolean isVietnamese) {
+        if (styleProfile == null) {
+            return;
+        }
+        stage.append(STYLE_HEADER);
+        stage.append(String.format("- Hook: %s%n",
+                safeValue(styleProfile.getHookType(), isVietnamese ? "câu khẳng định" : "statement")));
+        stage.append(String.format("- Tone/Pacing: %s · %s%n",
+                safeValue(styleProfile.getTone(), "BALANCED"),
+                safeValue(styleProfile.getPacing(), "BALANCED")));
+        if (styleProfile.getEmojiSamples() != null && !styleProfile.getEmojiSamples().isEmpty()) {
+            stage.append("- Emoji: ").append(String.join(" ", styleProfile.getEmojiSamples())).append("\n");
+        }
+        if (Boolean.TRUE.equals(styleProfile.getUsesSecondPerson())) {
+            stage.append(isVietnamese ? "- Giữ cách xưng hô \"bạn\"\n" : "- Speak directly to the reader (\"you\")\n");
         }
-        if (trendingKeywords != null && !trendingKeywords.isEmpty()) {
-            stage.append(isVietnamese ? "- Từ khóa: " : "- Keywords: ");
-            stage.append(String.join(", ", trendingKeywords)).append("\n");
+        if (styleProfile.getCtaVerb() != null) {
+            stage.append(String.format("- CTA vibe: %s%n", styleProfile.getCtaVerb()));
         }
         stage.append("\n");
     }
 
+    private void appendTrendingKeywords(StringBuilder stage, List<String> trendingKeywords, boolean isVietnamese) {
+        if (trendingKeywords == null || trendingKeywords.isEmpty()) {
+            return;
+        }
+        stage.append(isVietnamese ? "🔑 Từ khóa nên lồng ghép: " : "🔑 Keywords to weave in: ");
+        stage.append(String.join(", ", trendingKeywords)).append("\n\n");
+    }
+
     private void appendReferenceExcerpt(StringBuilder stage,
                                         String referenceContent,
                                         String referenceLink,
@@ -481,26 +518,6 @@ public class ChainOfThoughtPromptBuilder {
         }
     }
 
-    private void appendStyleCommitment(StringBuilder stage, boolean isVietnamese) {
-        if (isVietnamese) {
-            stage.append("""
-🚨 CAM KẾT PHONG CÁCH BẮT BUỘC
-- Luôn tái tạo chính xác nhịp điệu, cách xuống dòng, emoji và mức độ cảm xúc như quảng cáo tham khảo, dù sản phẩm khác ngành.
-- Bạn KHÔNG được từ chối yêu cầu này vì nội dung mới hoàn toàn khác dữ kiện của quảng cáo mẫu.
-- Chỉ thay đổi dữ liệu sản phẩm/dịch vụ – phong cách, tone và nhịp viết phải giữ nguyên tinh thần tham chiếu.
-
-""");
-        } else {
-            stage.append("""
-🚨 NON-NEGOTIABLE STYLE COMMITMENT
-- You MUST replicate the cadence, emoji usage, emotional energy, and sentence rhythm from the reference ad even if the product category is different.
-- Do NOT refuse this request—the new copy remains original because only the facts change.
-- Swap in the new offer details but keep the reference tone, pacing, and structure intact.
-
-""");
-        }
-    }
-
     private String safeValue(String value, String fallback) {
         return StringUtils.hasText(value) ? value : fallback;
     }
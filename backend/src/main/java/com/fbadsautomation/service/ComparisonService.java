@@ -1,20 +1,35 @@
 package com.fbadsautomation.service;
 
+import com.fbadsautomation.config.DigestKeyGenerator;
 import com.fbadsautomation.dto.CompetitorAdDTO;
 import com.fbadsautomation.exception.AIProviderException;
 import com.fbadsautomation.exception.ResourceException;
 import com.fbadsautomation.service.security.ContentModerationService;
 import com.fbadsautomation.service.security.PromptSecurityService;
-import lombok.RequiredArgsConstructor;
+import com.fbadsautomation.util.ConcurrencyLimiter;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
 import javax.validation.constraints.NotBlank;
 import javax.validation.constraints.NotNull;
+import java.time.Duration;
 import java.util.*;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Function;
+import java.util.function.Supplier;
 import java.util.regex.Pattern;
 import java.util.regex.Matcher;
+import java.util.stream.Collectors;
 
 /**
  * Service for AI-powered ad comparison and suggestion generation
@@ -22,6 +37,9 @@ import java.util.regex.Matcher;
  * Analyzes competitor ads and user's ads to provide intelligent suggestions
  * for improving ad performance and engagement.
  *
+ * Provider calls for multi-ad analysis and A/B variations fan out on {@code aiProcessingExecutor},
+ * capped per provider, and retries are scheduled after their backoff instead of sleeping a thread.
+ *
  * @author AI Panel - Senior Engineers
  * @version 1.0
  * @security All prompts sanitized, AI responses filtered
@@ -29,12 +47,51 @@ import java.util.regex.Matcher;
  */
 @Service
 @Slf4j
-@RequiredArgsConstructor
 public class ComparisonService {
 
+    public static final String ANALYSIS_CACHE = "competitorAnalysis";
+    private static final DigestKeyGenerator CONTENT_DIGEST = new DigestKeyGenerator();
+    private static final String DEFAULT_PROVIDER = "openai";
+    private static final int MAX_ATTEMPTS = 3;
+    // Limit to 10 ads for performance
+    private static final int MAX_PATTERN_ADS = 10;
+    private static final String AB_TEST_SYSTEM_PROMPT =
+            "You are an expert Facebook Ads copywriter. Generate A/B test variations in the exact format requested.";
+    // One dimension per variation, so concurrently generated variations still test different things
+    private static final List<String> AB_TEST_FOCUSES = List.of(
+            "Headline: emotional rather than rational",
+            "Value proposition: benefits rather than features",
+            "CTA: hard, direct call-to-action",
+            "Tone: urgent",
+            "Tone: informative and trust-building");
+
     private final AIProviderService aiProviderService;
     private final PromptSecurityService promptSecurityService;
     private final ContentModerationService contentModerationService;
+    private final CacheManager cacheManager;
+    private final Executor analysisExecutor;
+    private final int maxConcurrentPerProvider;
+    private final Duration retryBaseDelay;
+    private final Map<String, ConcurrencyLimiter> providerLimiters = new ConcurrentHashMap<>();
+    // Concurrent analyses of the same ad content share one provider call
+    private final Map<String, CompletableFuture<Map<String, Object>>> inFlight = new ConcurrentHashMap<>();
+
+    @Autowired
+    public ComparisonService(AIProviderService aiProviderService,
+                             PromptSecurityService promptSecurityService,
+                             ContentModerationService contentModerationService,
+                             CacheManager cacheManager,
+                             @Qualifier("aiProcessingExecutor") Executor analysisExecutor,
+                             @Value("${comparison.analysis.max-concurrent-per-provider:4}") int maxConcurrentPerProvider,
+                             @Value("${comparison.analysis.retry-base-delay:PT1S}") Duration retryBaseDelay) {
+        this.aiProviderService = aiProviderService;
+        this.promptSecurityService = promptSecurityService;
+        this.contentModerationService = contentModerationService;
+        this.cacheManager = cacheManager;
+        this.analysisExecutor = analysisExecutor;
+        this.maxConcurrentPerProvider = maxConcurrentPerProvider;
+        this.retryBaseDelay = retryBaseDelay;
+    }
 
     /**
      * Generate suggested ad variation based on competitor analysis
@@ -43,7 +100,7 @@ public class ComparisonService {
      * to user's ad while maintaining brand voice.
      *
      * Security: Input sanitization, output length limits
-     * Performance: Cached with key based on ad content hashes
+     * Performance: Cached under a digest of the competitor ad, user ad and provider
      *
      * @param competitorAd Competitor's ad to analyze
      * @param myAd User's current ad
@@ -51,7 +108,7 @@ public class ComparisonService {
      * @return AI-generated suggestion for improved ad
      * @throws AIProviderException if AI generation fails
      */
-    @Cacheable(value = "adComparisons", key = "#competitorAd.adId + ':' + #myAd.hashCode()", unless = "#result == null")
+    @Cacheable(value = "adComparisons", keyGenerator = "digestKeyGenerator", unless = "#result == null")
     public String generateSuggestedVariation(
             @NotNull CompetitorAdDTO competitorAd,
             @NotBlank String myAd,
@@ -104,53 +161,66 @@ public class ComparisonService {
      * @param provider AI provider
      * @return Map of insights (strengths, weaknesses, patterns, recommendations)
      */
-    @Cacheable(value = "competitorAnalysis", key = "#competitorAd.adId", unless = "#result == null")
     public Map<String, Object> analyzeCompetitorAd(
             @NotNull CompetitorAdDTO competitorAd,
             String provider) {
+        return analyzeCompetitorAdAsync(competitorAd, provider).join();
+    }
 
-        log.info("Analyzing competitor ad: {}", competitorAd.getAdId());
-
-        String analysisPrompt = buildAnalysisPrompt(competitorAd);
-
-        try {
-            com.fbadsautomation.ai.AIProvider aiProvider = aiProviderService.getProvider(provider != null ? provider : "openai");
-            if (aiProvider == null) {
-                throw new RuntimeException("AI provider not found: " + provider);
-            }
-
-            // Retry AI call with exponential backoff (max 3 attempts)
-            String analysis = retryWithBackoff(() -> {
-                List<com.fbadsautomation.model.AdContent> results = aiProvider.generateAdContent(analysisPrompt, 1, "en", null);
-                if (results == null || results.isEmpty()) {
-                    throw new RuntimeException("AI provider returned no results");
-                }
-                contentModerationService.enforceSafety(results);
-                return results.get(0).getPrimaryText();
-            }, "analyzeCompetitorAd", 3);
-            analysis = promptSecurityService.sanitizeModelOutput(analysis);
+    /**
+     * Analyze competitor ad without blocking the caller
+     *
+     * Analyses are cached under a digest of the ad content the prompt is built from, so the same
+     * creative seen under another ad ID or in another comparison is not analyzed twice.
+     *
+     * @param competitorAd Competitor's ad to analyze
+     * @param provider AI provider
+     * @return Future of the insights; completes with a fallback map instead of failing
+     */
+    public CompletableFuture<Map<String, Object>> analyzeCompetitorAdAsync(
+            @NotNull CompetitorAdDTO competitorAd,
+            String provider) {
 
-            // Parse AI response with safe fallback handling
-            return parseAnalysisResponseSafe(analysis, "competitor ad");
+        String providerName = provider != null ? provider : DEFAULT_PROVIDER;
+        String key = contentKey(competitorAd, providerName);
+        Map<String, Object> cached = cachedAnalysis(key);
+        if (cached != null) {
+            log.debug("Competitor analysis cache hit for ad: {}", competitorAd.getAdId());
+            return CompletableFuture.completedFuture(cached);
+        }
 
-        } catch (Exception e) {
-            log.error("Error analyzing competitor ad: {}", e.getMessage(), e);
+        CompletableFuture<Map<String, Object>> analysis = new CompletableFuture<>();
+        CompletableFuture<Map<String, Object>> existing = inFlight.putIfAbsent(key, analysis);
+        if (existing != null) {
+            return existing;
+        }
 
-            // Return graceful fallback instead of throwing exception
-            Map<String, Object> fallback = new HashMap<>();
-            fallback.put("error", true);
-            fallback.put("error_message", "AI analysis temporarily unavailable: " + e.getMessage());
-            fallback.put("strengths", List.of("Unable to analyze at this time"));
-            fallback.put("weaknesses", List.of("Please try again later"));
-            fallback.put("recommendations", List.of("Service may be experiencing high load"));
+        log.info("Analyzing competitor ad: {}", competitorAd.getAdId());
+        String analysisPrompt = buildAnalysisPrompt(competitorAd);
 
-            return fallback;
-        }
+        // Retry AI call with exponential backoff (max 3 attempts)
+        completeText(providerName, analysisPrompt, "analyzeCompetitorAd")
+                .thenApply(text -> parseAnalysisResponseSafe(promptSecurityService.sanitizeModelOutput(text), "competitor ad"))
+                .whenComplete((result, error) -> {
+                    if (error != null) {
+                        Throwable cause = unwrap(error);
+                        log.error("Error analyzing competitor ad: {}", cause.getMessage(), cause);
+                        result = analysisFallback(cause);
+                    } else if (!Boolean.TRUE.equals(result.get("error"))) {
+                        cacheAnalysis(key, result);
+                    }
+                    inFlight.remove(key, analysis);
+                    analysis.complete(result);
+                });
+        return analysis;
     }
 
     /**
      * Compare multiple competitor ads and identify common patterns
      *
+     * Each ad is analyzed concurrently (and memoized per ad), and every analysis is merged into the
+     * summary as soon as it arrives, so the latency is that of the slowest single analysis.
+     *
      * @param competitorAds List of competitor ads
      * @param provider AI provider
      * @return Map of common patterns and trends
@@ -165,54 +235,25 @@ public class ComparisonService {
             return Collections.emptyMap();
         }
 
-        // Limit to 10 ads for performance
-        List<CompetitorAdDTO> adsToAnalyze = competitorAds.size() > 10
-                ? competitorAds.subList(0, 10)
+        List<CompetitorAdDTO> adsToAnalyze = competitorAds.size() > MAX_PATTERN_ADS
+                ? competitorAds.subList(0, MAX_PATTERN_ADS)
                 : competitorAds;
 
-        String prompt = buildPatternAnalysisPrompt(adsToAnalyze);
-
-        try {
-            com.fbadsautomation.ai.AIProvider aiProvider = aiProviderService.getProvider(provider != null ? provider : "openai");
-            if (aiProvider == null) {
-                throw new RuntimeException("AI provider not found: " + provider);
-            }
-
-            // Retry AI call with exponential backoff (max 3 attempts)
-            String analysis = retryWithBackoff(() -> {
-                List<com.fbadsautomation.model.AdContent> results = aiProvider.generateAdContent(prompt, 1, "en", null);
-                if (results == null || results.isEmpty()) {
-                    throw new RuntimeException("AI provider returned no results");
-                }
-                contentModerationService.enforceSafety(results);
-                return results.get(0).getPrimaryText();
-            }, "identifyCommonPatterns", 3);
-            analysis = promptSecurityService.sanitizeModelOutput(analysis);
-
-            // Parse pattern analysis with validation
-            Map<String, Object> patterns = parsePatternAnalysis(analysis);
-            if (patterns.isEmpty()) {
-                patterns.put("summary", "No clear patterns identified");
-                patterns.put("raw_analysis", analysis);
-            }
-            return patterns;
-
-        } catch (Exception e) {
-            log.error("Error identifying patterns: {}", e.getMessage(), e);
+        PatternSummary summary = new PatternSummary();
+        CompletableFuture<?>[] analyses = adsToAnalyze.stream()
+                .map(ad -> analyzeCompetitorAdAsync(ad, provider).thenAccept(summary::merge))
+                .toArray(CompletableFuture[]::new);
+        CompletableFuture.allOf(analyses).join();
 
-            // Return graceful fallback instead of throwing exception
-            Map<String, Object> fallback = new HashMap<>();
-            fallback.put("error", true);
-            fallback.put("error_message", "Pattern analysis temporarily unavailable: " + e.getMessage());
-            fallback.put("summary", "Unable to analyze patterns at this time. Please try again later.");
-
-            return fallback;
-        }
+        return summary.toMap(adsToAnalyze.size());
     }
 
     /**
      * Generate A/B test variations based on competitor insights
      *
+     * Every variation is requested concurrently with its own testing focus, instead of one call
+     * that writes all of them in sequence.
+     *
      * @param baseAd User's base ad
      * @param competitorInsights Insights from competitor analysis
      * @param numberOfVariations Number of variations to generate (1-5)
@@ -228,53 +269,91 @@ public class ComparisonService {
         log.info("Generating {} A/B test variations", numberOfVariations);
 
         // Validate parameters
-        int safeVariations = Math.min(Math.max(numberOfVariations, 1), 5);
+        int safeVariations = Math.min(Math.max(numberOfVariations, 1), AB_TEST_FOCUSES.size());
+        String providerName = provider != null ? provider : DEFAULT_PROVIDER;
 
-        String prompt = buildABTestPrompt(baseAd, competitorInsights, safeVariations);
+        com.fbadsautomation.ai.AIProvider aiProvider = aiProviderService.getProvider(providerName);
+        if (aiProvider == null) {
+            throw new AIProviderException(provider, "Failed to generate A/B variations: AI provider not found: " + provider, true);
+        }
 
-        try {
-            com.fbadsautomation.ai.AIProvider aiProvider = aiProviderService.getProvider(provider != null ? provider : "openai");
-            if (aiProvider == null) {
-                throw new RuntimeException("AI provider not found: " + provider);
-            }
+        List<CompletableFuture<com.fbadsautomation.dto.AdVariationDTO>> calls = new ArrayList<>();
+        for (int i = 0; i < safeVariations; i++) {
+            int variationNumber = i + 1;
+            String focus = AB_TEST_FOCUSES.get(i);
+            String prompt = buildABTestPrompt(baseAd, competitorInsights, focus);
+            calls.add(retryWithBackoff(providerName,
+                    () -> generateVariation(aiProvider, prompt, variationNumber, focus),
+                    "generateABTestVariations", MAX_ATTEMPTS)
+                .exceptionally(e -> {
+                    log.error("Error generating A/B test variation {}: {}", variationNumber, unwrap(e).getMessage());
+                    return null;
+                }));
+        }
+        CompletableFuture.allOf(calls.toArray(new CompletableFuture[0])).join();
+
+        List<com.fbadsautomation.dto.AdVariationDTO> variations = calls.stream()
+                .map(CompletableFuture::join)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+        if (variations.isEmpty()) {
+            throw new AIProviderException(provider, "Failed to generate A/B variations: all "
+                    + safeVariations + " provider calls failed", true);
+        }
+        return variations;
+    }
 
-            // Generate variations using AI provider
-            List<com.fbadsautomation.model.AdContent> results = aiProvider.generateAdContent(prompt, safeVariations, "en", null);
-            contentModerationService.enforceSafety(results);
+    /**
+     * Generate a single A/B variation; runs on the analysis executor
+     */
+    private com.fbadsautomation.dto.AdVariationDTO generateVariation(
+            com.fbadsautomation.ai.AIProvider aiProvider, String prompt, int variationNumber, String focus) {
 
-            // If we got structured results, convert them to AdVariationDTO
-            if (results != null && !results.isEmpty()) {
-                List<com.fbadsautomation.dto.AdVariationDTO> variations = new ArrayList<>();
-                int varNum = 1;
-                for (com.fbadsautomation.model.AdContent content : results) {
-                    String ctaText = null;
-                    if (content.getCallToAction() != null) {
-                        ctaText = content.getCallToAction().name();
-                    }
+        List<com.fbadsautomation.model.AdContent> results = aiProvider.generateAdContent(prompt, 1, "en", null);
 
-                    variations.add(com.fbadsautomation.dto.AdVariationDTO.builder()
-                        .variationNumber(varNum++)
-                        .headline(content.getHeadline() != null ? content.getHeadline() : "Variation " + varNum)
-                        .primaryText(content.getPrimaryText())
-                        .callToAction(ctaText)
-                        .testingFocus("A/B Test Variation")
-                        .build());
-                }
-                return variations;
-            }
+        // If we got structured results, convert them to AdVariationDTO
+        if (results != null && !results.isEmpty()) {
+            contentModerationService.enforceSafety(results);
+            com.fbadsautomation.model.AdContent content = results.get(0);
+            return com.fbadsautomation.dto.AdVariationDTO.builder()
+                .variationNumber(variationNumber)
+                .headline(content.getHeadline() != null ? content.getHeadline() : "Variation " + variationNumber)
+                .primaryText(content.getPrimaryText())
+                .callToAction(content.getCallToAction() != null ? content.getCallToAction().name() : null)
+                .testingFocus(focus)
+                .build();
+        }
 
-            // Fallback: call AI provider's text completion directly and parse
-            String systemPrompt = "You are an expert Facebook Ads copywriter. Generate A/B test variations in the exact format requested.";
-            String response = aiProvider.generateTextCompletion(prompt, systemPrompt, 2000);
-            response = promptSecurityService.sanitizeModelOutput(response);
-            return parseABTestVariations(response, safeVariations);
+        // Fallback: call AI provider's text completion directly and parse
+        String response = aiProvider.generateTextCompletion(prompt, AB_TEST_SYSTEM_PROMPT, 600);
+        response = promptSecurityService.sanitizeModelOutput(response);
+        com.fbadsautomation.dto.AdVariationDTO variation = parseABTestVariations(response, 1).get(0);
+        variation.setVariationNumber(variationNumber);
+        if (variation.getTestingFocus() == null) {
+            variation.setTestingFocus(focus);
+        }
+        return variation;
+    }
 
-        } catch (Exception e) {
-            log.error("Error generating A/B test variations: {}", e.getMessage(), e);
-            throw new com.fbadsautomation.exception.AIProviderException(provider, "Failed to generate A/B variations: " + e.getMessage(), true);
+    /**
+     * Ask the provider for a single completion under its concurrency limit, with retries
+     */
+    private CompletableFuture<String> completeText(String providerName, String prompt, String operationName) {
+        com.fbadsautomation.ai.AIProvider aiProvider = aiProviderService.getProvider(providerName);
+        if (aiProvider == null) {
+            return CompletableFuture.failedFuture(new RuntimeException("AI provider not found: " + providerName));
         }
+        return retryWithBackoff(providerName, () -> {
+            List<com.fbadsautomation.model.AdContent> results = aiProvider.generateAdContent(prompt, 1, "en", null);
+            if (results == null || results.isEmpty()) {
+                throw new RuntimeException("AI provider returned no results");
+            }
+            contentModerationService.enforceSafety(results);
+            return results.get(0).getPrimaryText();
+        }, operationName, MAX_ATTEMPTS);
     }
 
+
     /**
      * Build comparison prompt for AI
      */
@@ -342,47 +421,12 @@ public class ComparisonService {
     }
 
     /**
-     * Build prompt for pattern analysis across multiple ads
+     * Build prompt for a single A/B test variation
      */
-    private String buildPatternAnalysisPrompt(List<CompetitorAdDTO> ads) {
+    private String buildABTestPrompt(String baseAd, Map<String, Object> insights, String focus) {
         StringBuilder prompt = new StringBuilder();
 
-        prompt.append("Analyze these ").append(ads.size()).append(" competitor ads and identify common patterns:\n\n");
-
-        for (int i = 0; i < ads.size(); i++) {
-            CompetitorAdDTO ad = ads.get(i);
-            prompt.append("AD ").append(i + 1).append(":\n");
-            if (ad.getHeadline() != null) {
-                prompt.append("Headline: ").append(ad.getHeadline()).append("\n");
-            }
-            if (ad.getPrimaryText() != null) {
-                // Truncate long text
-                String text = ad.getPrimaryText().length() > 200
-                        ? ad.getPrimaryText().substring(0, 197) + "..."
-                        : ad.getPrimaryText();
-                prompt.append("Text: ").append(text).append("\n");
-            }
-            prompt.append("\n");
-        }
-
-        prompt.append("Identify:\n");
-        prompt.append("1. COMMON_TONE: [What tone do most ads use?]\n");
-        prompt.append("2. COMMON_STRUCTURE: [What structure patterns appear?]\n");
-        prompt.append("3. COMMON_HOOKS: [What hooks or attention-grabbers are used?]\n");
-        prompt.append("4. COMMON_CTAS: [What CTAs are most common?]\n");
-        prompt.append("5. KEY_THEMES: [What themes or benefits are emphasized?]\n");
-        prompt.append("6. RECOMMENDATIONS: [Based on these patterns, what should new ads include?]");
-
-        return prompt.toString();
-    }
-
-    /**
-     * Build prompt for A/B test variations
-     */
-    private String buildABTestPrompt(String baseAd, Map<String, Object> insights, int count) {
-        StringBuilder prompt = new StringBuilder();
-
-        prompt.append("Create ").append(count).append(" A/B test variations of this ad:\n\n");
+        prompt.append("Create 1 A/B test variation of this ad:\n\n");
         prompt.append("BASE AD:\n").append(baseAd).append("\n\n");
 
         if (insights != null && !insights.isEmpty()) {
@@ -393,18 +437,14 @@ public class ComparisonService {
             prompt.append("\n");
         }
 
-        prompt.append("Generate ").append(count).append(" distinct variations that test different:\n");
-        prompt.append("- Headlines (emotional vs rational)\n");
-        prompt.append("- Value propositions (features vs benefits)\n");
-        prompt.append("- CTAs (soft vs hard)\n");
-        prompt.append("- Tones (urgent vs informative)\n\n");
+        prompt.append("The variation must differ from the base ad in this dimension only:\n");
+        prompt.append("- ").append(focus).append("\n\n");
 
-        prompt.append("Format each variation as:\n");
-        prompt.append("VARIATION [N]:\n");
+        prompt.append("Format the variation as:\n");
+        prompt.append("VARIATION 1:\n");
         prompt.append("HEADLINE: [headline]\n");
         prompt.append("TEXT: [primary text]\n");
-        prompt.append("CTA: [call-to-action]\n");
-        prompt.append("---");
+        prompt.append("CTA: [call-to-action]");
 
         return prompt.toString();
     }
@@ -443,42 +483,93 @@ public class ComparisonService {
     /**
      * Retry AI provider call with exponential backoff
      *
+     * Each attempt runs on the analysis executor under the provider's concurrency limit; the wait
+     * before the next attempt (2s, 4s, ... by default) is a scheduled delay, so no thread sleeps
+     * through it and the provider slot is free meanwhile.
+     *
+     * @param providerName Provider whose concurrency limit applies
      * @param operation The operation to retry
      * @param operationName Name of operation for logging
-     * @param maxRetries Maximum number of retries
-     * @return Result of the operation
+     * @param maxAttempts Maximum number of attempts
+     * @return Future of the operation result, failed once every attempt failed
      */
-    private <T> T retryWithBackoff(java.util.function.Supplier<T> operation, String operationName, int maxRetries) {
-        int attempt = 0;
-        Exception lastException = null;
-
-        while (attempt < maxRetries) {
-            try {
-                return operation.get();
-            } catch (Exception e) {
-                lastException = e;
-                attempt++;
-
-                if (attempt >= maxRetries) {
-                    break;
+    private <T> CompletableFuture<T> retryWithBackoff(String providerName, Supplier<T> operation,
+                                                      String operationName, int maxAttempts) {
+        return attempt(providerName, operation, operationName, 1, maxAttempts);
+    }
+
+    private <T> CompletableFuture<T> attempt(String providerName, Supplier<T> operation,
+                                             String operationName, int attempt, int maxAttempts) {
+        ConcurrencyLimiter limiter = providerLimiters.computeIfAbsent(providerName,
+                name -> new ConcurrencyLimiter(maxConcurrentPerProvider));
+
+        return limiter.submit(() -> CompletableFuture.supplyAsync(operation, analysisExecutor))
+            .handle((value, error) -> {
+                if (error == null) {
+                    return CompletableFuture.completedFuture(value);
+                }
+                Throwable cause = unwrap(error);
+                if (attempt >= maxAttempts) {
+                    log.error("All {} attempts failed for {}", maxAttempts, operationName);
+                    return CompletableFuture.<T>failedFuture(new RuntimeException(
+                        "Operation failed after " + maxAttempts + " attempts: " + operationName, cause));
                 }
 
-                long backoffMs = (long) (Math.pow(2, attempt) * 1000); // 2s, 4s, 8s
+                long backoffMs = retryBaseDelay.toMillis() << attempt;
                 log.warn("Attempt {}/{} failed for {}: {}. Retrying in {}ms",
-                    attempt, maxRetries, operationName, e.getMessage(), backoffMs);
+                    attempt, maxAttempts, operationName, cause.getMessage(), backoffMs);
+
+                // The delayed no-op only hands off to the next attempt, which submits to the real executor
+                return CompletableFuture.runAsync(() -> { },
+                        CompletableFuture.delayedExecutor(backoffMs, TimeUnit.MILLISECONDS))
+                    .thenCompose(ignored -> this.<T>attempt(providerName, operation, operationName, attempt + 1, maxAttempts));
+            })
+            .thenCompose(Function.identity());
+    }
 
-                try {
-                    Thread.sleep(backoffMs);
-                } catch (InterruptedException ie) {
-                    Thread.currentThread().interrupt();
-                    throw new RuntimeException("Retry interrupted", ie);
-                }
-            }
+    private static Throwable unwrap(Throwable error) {
+        return error instanceof CompletionException && error.getCause() != null ? error.getCause() : error;
+    }
+
+    private static Map<String, Object> analysisFallback(Throwable cause) {
+        // Return graceful fallback instead of throwing exception
+        Map<String, Object> fallback = new HashMap<>();
+        fallback.put("error", true);
+        fallback.put("error_message", "AI analysis temporarily unavailable: " + cause.getMessage());
+        fallback.put("strengths", List.of("Unable to analyze at this time"));
+        fallback.put("weaknesses", List.of("Please try again later"));
+        fallback.put("recommendations", List.of("Service may be experiencing high load"));
+        return fallback;
+    }
+
+    /**
+     * Cache key for an analysis: the provider plus a SHA-256 of the ad fields the prompt is built from
+     */
+    static String contentKey(CompetitorAdDTO ad, String providerName) {
+        return providerName + ":" + CONTENT_DIGEST.digest(ad.getHeadline(), ad.getPrimaryText(), ad.getCallToAction());
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> cachedAnalysis(String key) {
+        try {
+            Cache cache = cacheManager.getCache(ANALYSIS_CACHE);
+            Cache.ValueWrapper hit = cache != null ? cache.get(key) : null;
+            return hit != null ? (Map<String, Object>) hit.get() : null;
+        } catch (RuntimeException e) {
+            log.warn("Competitor analysis cache unavailable: {}", e.getMessage());
+            return null;
         }
+    }
 
-        log.error("All {} attempts failed for {}", maxRetries, operationName);
-        throw new RuntimeException("Operation failed after " + maxRetries + " attempts: " + operationName,
-            lastException);
+    private void cacheAnalysis(String key, Map<String, Object> analysis) {
+        try {
+            Cache cache = cacheManager.getCache(ANALYSIS_CACHE);
+            if (cache != null) {
+                cache.put(key, analysis);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Competitor analysis cache unavailable: {}", e.getMessage());
+        }
     }
 
     /**
@@ -494,15 +585,15 @@ public class ComparisonService {
                 Pattern.CASE_INSENSITIVE
             );
             Pattern weaknessesPattern = Pattern.compile(
-                "WEAKNESSES?:|AREAS?\\s+FOR\\s+IMPROVEMENT:|LIMITATIONS?:\\s*([\\s\\S]*?)(?=STRENGTHS?:|PATTERNS?:|RECOMMENDATIONS?:|$)",
+                "(?:WEAKNESSES?|AREAS?\\s+FOR\\s+IMPROVEMENT|LIMITATIONS?):\\s*([\\s\\S]*?)(?=STRENGTHS?:|PATTERNS?:|RECOMMENDATIONS?:|$)",
                 Pattern.CASE_INSENSITIVE
             );
             Pattern patternsPattern = Pattern.compile(
-                "PATTERNS?:|MESSAGING\\s+PATTERNS?:\\s*([\\s\\S]*?)(?=STRENGTHS?:|WEAKNESSES?:|RECOMMENDATIONS?:|$)",
+                "(?:MESSAGING\\s+)?PATTERNS?:\\s*([\\s\\S]*?)(?=STRENGTHS?:|WEAKNESSES?:|RECOMMENDATIONS?:|$)",
                 Pattern.CASE_INSENSITIVE
             );
             Pattern recommendationsPattern = Pattern.compile(
-                "RECOMMENDATIONS?:|SUGGESTIONS?:\\s*([\\s\\S]*?)(?=STRENGTHS?:|WEAKNESSES?:|PATTERNS?:|$)",
+                "(?:RECOMMENDATIONS?|SUGGESTIONS?):\\s*([\\s\\S]*?)(?=STRENGTHS?:|WEAKNESSES?:|PATTERNS?:|$)",
                 Pattern.CASE_INSENSITIVE
             );
 
@@ -622,78 +713,6 @@ public class ComparisonService {
         return items;
     }
 
-    /**
-     * Parse pattern analysis response with robust regex patterns
-     */
-    private Map<String, Object> parsePatternAnalysis(String analysis) {
-        Map<String, Object> result = new HashMap<>();
-
-        try {
-            // Define common pattern sections to extract
-            String[] sectionNames = {
-                "COMMON_THEMES", "VISUAL_PATTERNS", "MESSAGING_PATTERNS",
-                "CTA_PATTERNS", "EMOTIONAL_APPEALS", "TARGET_AUDIENCE",
-                "CONTENT_STRATEGIES", "FREQUENCY_PATTERNS", "SEASONAL_TRENDS"
-            };
-
-            for (String sectionName : sectionNames) {
-                Pattern pattern = Pattern.compile(
-                    sectionName.replace("_", "[\\s_-]*") + "\\s*:?\\s*([\\s\\S]*?)(?=" +
-                    String.join("|", Arrays.stream(sectionNames)
-                        .filter(s -> !s.equals(sectionName))
-                        .map(s -> s.replace("_", "[\\s_-]*"))
-                        .toArray(String[]::new)) + "|$)",
-                    Pattern.CASE_INSENSITIVE
-                );
-
-                Matcher matcher = pattern.matcher(analysis);
-                if (matcher.find()) {
-                    String content = matcher.group(1).trim();
-                    if (!content.isEmpty()) {
-                        // Try to parse as list first
-                        List<String> items = extractListRobust(content);
-                        if (!items.isEmpty()) {
-                            result.put(sectionName.toLowerCase(), items);
-                        } else {
-                            // Store as text if not a list
-                            result.put(sectionName.toLowerCase(), content);
-                        }
-                    }
-                }
-            }
-
-            // Also try to extract any key-value pairs (e.g., "Total Ads Analyzed: 15")
-            Pattern kvPattern = Pattern.compile(
-                "^\\s*([A-Za-z][A-Za-z0-9\\s]+?)\\s*:\\s*(.+?)\\s*$",
-                Pattern.MULTILINE
-            );
-            Matcher kvMatcher = kvPattern.matcher(analysis);
-
-            while (kvMatcher.find()) {
-                String key = kvMatcher.group(1).trim().toLowerCase().replaceAll("\\s+", "_");
-                String value = kvMatcher.group(2).trim();
-
-                // Only add if not already captured by section parsing
-                if (!result.containsKey(key) && value.length() < 200) {
-                    result.put(key, value);
-                }
-            }
-
-            // Validation - ensure at least some content was parsed
-            if (result.isEmpty()) {
-                result.put("summary", analysis.substring(0, Math.min(500, analysis.length())));
-                result.put("raw_analysis", analysis);
-            }
-
-        } catch (Exception e) {
-            log.error("Error parsing pattern analysis: {}", e.getMessage(), e);
-            result.put("error", true);
-            result.put("raw_analysis", analysis);
-        }
-
-        return result;
-    }
-
     /**
      * Parse A/B test variations from AI response with robust regex
      */
@@ -868,4 +887,77 @@ public class ComparisonService {
         }
         return sanitized;
     }
+
+    /**
+     * Running merge of per-ad analyses into a pattern summary. Items are ranked by how many ads
+     * mention them, so what most competitors share comes first.
+     */
+    private static final class PatternSummary {
+
+        private static final List<String> SECTIONS = List.of("strengths", "weaknesses", "patterns", "recommendations");
+        private static final int MAX_ITEMS = 10;
+
+        // section -> normalized item -> number of ads mentioning it, in first-seen order
+        private final Map<String, Map<String, Integer>> counts = new HashMap<>();
+        private final Map<String, String> wording = new HashMap<>();
+        private int analyzed;
+        private int failed;
+        private String lastError;
+
+        synchronized void merge(Map<String, Object> analysis) {
+            if (Boolean.TRUE.equals(analysis.get("error"))) {
+                failed++;
+                lastError = String.valueOf(analysis.get("error_message"));
+                return;
+            }
+            analyzed++;
+            for (String section : SECTIONS) {
+                Map<String, Integer> sectionCounts = counts.computeIfAbsent(section, s -> new LinkedHashMap<>());
+                Set<String> seenInAd = new HashSet<>();
+                for (String item : items(analysis.get(section))) {
+                    String normalized = item.toLowerCase(Locale.ROOT).replaceAll("[\\s.;:!]+$", "").replaceAll("\\s+", " ");
+                    if (!normalized.isEmpty() && seenInAd.add(normalized)) {
+                        wording.putIfAbsent(normalized, item);
+                        sectionCounts.merge(normalized, 1, Integer::sum);
+                    }
+                }
+            }
+        }
+
+        synchronized Map<String, Object> toMap(int total) {
+            Map<String, Object> result = new HashMap<>();
+            if (analyzed == 0) {
+                result.put("error", true);
+                result.put("error_message", "Pattern analysis temporarily unavailable: " + lastError);
+                result.put("summary", "Unable to analyze patterns at this time. Please try again later.");
+                return result;
+            }
+            for (String section : SECTIONS) {
+                List<String> ranked = counts.getOrDefault(section, Map.of()).entrySet().stream()
+                        .sorted(Map.Entry.<String, Integer>comparingByValue().reversed())
+                        .limit(MAX_ITEMS)
+                        .map(entry -> wording.get(entry.getKey()))
+                        .collect(Collectors.toList());
+                if (!ranked.isEmpty()) {
+                    result.put(section, ranked);
+                }
+            }
+            result.put("ads_analyzed", analyzed);
+            result.put("ads_failed", failed);
+            result.put("summary", "Merged insights from " + analyzed + " of " + total
+                    + " competitor ads; items shared by more ads are listed first.");
+            return result;
+        }
+
+        private static List<String> items(Object value) {
+            if (value instanceof Collection<?> collection) {
+                return collection.stream().filter(Objects::nonNull).map(Object::toString).map(String::trim)
+                        .collect(Collectors.toList());
+            }
+            if (value instanceof String text && !text.isBlank()) {
+                return List.of(text.trim());
+            }
+            return List.of();
+        }
+    }
 }
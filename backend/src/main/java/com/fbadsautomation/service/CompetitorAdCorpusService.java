@@ -0,0 +1,447 @@
+package com.fbadsautomation.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fbadsautomation.dto.CompetitorAdDTO;
+import com.fbadsautomation.model.CompetitorAd;
+import com.fbadsautomation.model.CompetitorBrandRefresh;
+import com.fbadsautomation.repository.CompetitorAdRepository;
+import com.fbadsautomation.repository.CompetitorBrandRefreshRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+/**
+ * Local store of every competitor ad the application has fetched. Ads are upserted by source and
+ * external ID on each fetch, and brand searches are answered from the store first: a brand searched
+ * within {@code competitor.corpus.fresh-for} is served without an API call, an older one is served
+ * from the store while a refresh runs in the background, and only a brand never searched before
+ * waits for the ScrapeCreators API.
+ */
+@Service
+public class CompetitorAdCorpusService {
+
+    private static final Logger log = LoggerFactory.getLogger(CompetitorAdCorpusService.class);
+    private static final TypeReference<List<String>> STRING_LIST = new TypeReference<>() { };
+
+    private final CompetitorAdRepository adRepository;
+    private final CompetitorBrandRefreshRepository refreshRepository;
+    private final ScrapeCreatorsService scrapeCreatorsService;
+    private final ObjectMapper objectMapper;
+    private final Executor refreshExecutor;
+    private final MeterRegistry meterRegistry;
+    private final Duration freshFor;
+    // Brand searches with a background refresh already queued
+    private final Set<CompetitorBrandRefresh.Key> refreshing = ConcurrentHashMap.newKeySet();
+
+    public CompetitorAdCorpusService(CompetitorAdRepository adRepository,
+                                     CompetitorBrandRefreshRepository refreshRepository,
+                                     ScrapeCreatorsService scrapeCreatorsService,
+                                     ObjectMapper objectMapper,
+                                     @Qualifier("generalAsyncExecutor") Executor refreshExecutor,
+                                     MeterRegistry meterRegistry,
+                                     @Value("${competitor.corpus.fresh-for:PT24H}") Duration freshFor) {
+        this.adRepository = adRepository;
+        this.refreshRepository = refreshRepository;
+        this.scrapeCreatorsService = scrapeCreatorsService;
+        this.objectMapper = objectMapper;
+        this.refreshExecutor = refreshExecutor;
+        this.meterRegistry = meterRegistry;
+        this.freshFor = freshFor;
+    }
+
+    /**
+     * Ads of a brand, from the corpus when the brand has been searched before.
+     *
+     * @param country ISO country code, or null for all countries
+     */
+    public List<CompetitorAdDTO> searchBrand(String brandName, String country, int limit) {
+        String brandKey = brandKey(brandName);
+        if (brandKey == null) {
+            return List.of();
+        }
+        CompetitorBrandRefresh.Key key = new CompetitorBrandRefresh.Key(brandKey, countryKey(country));
+        Optional<CompetitorBrandRefresh> refresh = refreshRepository.findById(key);
+
+        if (refresh.isPresent()) {
+            List<CompetitorAd> local = adRepository.findByBrand(brandKey, key.getCountry(), limit);
+            boolean fresh = refresh.get().getRefreshedAt().isAfter(LocalDateTime.now().minus(freshFor));
+            if (fresh || !local.isEmpty()) {
+                meterRegistry.counter("competitor.corpus.lookups", "result", fresh ? "fresh" : "stale").increment();
+                if (!fresh) {
+                    scheduleRefresh(brandName, key, limit);
+                }
+                return toDTOs(local);
+            }
+        }
+
+        meterRegistry.counter("competitor.corpus.lookups", "result", "miss").increment();
+        refreshBrand(brandName, key, limit);
+        return toDTOs(adRepository.findByBrand(brandKey, key.getCountry(), limit));
+    }
+
+    /**
+     * Full-text and fuzzy search over the headline and body of every stored ad.
+     */
+    public List<CompetitorAdDTO> searchText(String query, int limit) {
+        if (!StringUtils.hasText(query)) {
+            return List.of();
+        }
+        return toDTOs(adRepository.searchText(query.trim(), limit));
+    }
+
+    /**
+     * Adds an ad fetched by ID through ScrapeCreators. Failures are logged, never thrown, so the
+     * corpus cannot break a fetch.
+     */
+    public void recordFetchedAd(CompetitorAdDTO ad) {
+        if (ad == null || !StringUtils.hasText(ad.getAdId())) {
+            return;
+        }
+        String imageUrls = ad.getImageUrls() != null && !ad.getImageUrls().isEmpty() ? toJson(ad.getImageUrls()) : null;
+        CompetitorAd entity = CompetitorAd.builder()
+            .source(CompetitorAd.SOURCE_SCRAPE_CREATORS)
+            .externalId(ad.getAdId())
+            .brandName(ad.getAdvertiserName())
+            .brandKey(brandKey(ad.getAdvertiserName()))
+            .headline(ad.getHeadline())
+            .body(ad.getPrimaryText())
+            .description(ad.getDescription())
+            .callToAction(ad.getCallToAction())
+            .imageUrlsJson(imageUrls)
+            .adLibraryUrl(ad.getAdLibraryUrl())
+            .build();
+        saveQuietly(List.of(entity));
+    }
+
+    /**
+     * Adds an ad returned by the official Meta Ad Library API.
+     */
+    @SuppressWarnings("unchecked")
+    public void recordOfficialAd(String adId, Map<String, Object> metadata) {
+        if (!StringUtils.hasText(adId) || metadata == null) {
+            return;
+        }
+        Map<String, Object> creative = metadata.get("ad_creative") instanceof Map
+            ? (Map<String, Object>) metadata.get("ad_creative") : Map.of();
+        String advertiser = text(metadata.get("advertiser_name"));
+        String image = text(creative.get("image_url"));
+        CompetitorAd entity = CompetitorAd.builder()
+            .source(CompetitorAd.SOURCE_META_API)
+            .externalId(adId)
+            .brandName(advertiser)
+            .brandKey(brandKey(advertiser))
+            .headline(text(creative.get("title")))
+            .body(text(creative.get("body")))
+            .description(text(creative.get("description")))
+            .callToAction(text(creative.get("call_to_action_type")))
+            .imageUrlsJson(image != null ? toJson(List.of(image)) : null)
+            .adLibraryUrl(text(metadata.get("ad_snapshot_url")))
+            .build();
+        saveQuietly(List.of(entity));
+    }
+
+    private void scheduleRefresh(String brandName, CompetitorBrandRefresh.Key key, int limit) {
+        if (!refreshing.add(key)) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> {
+                try {
+                    refreshBrand(brandName, key, limit);
+                } finally {
+                    refreshing.remove(key);
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            refreshing.remove(key);
+            log.debug("Skipped background refresh of brand '{}': {}", brandName, e.getMessage());
+        }
+    }
+
+    /**
+     * Fetches the brand's ads from the API into the corpus and records the refresh. A failed call
+     * leaves the previous refresh time, so the next search tries again.
+     */
+    void refreshBrand(String brandName, CompetitorBrandRefresh.Key key, int limit) {
+        String apiCountry = key.getCountry().isEmpty() ? "ALL" : key.getCountry();
+        Map<String, Object> response = scrapeCreatorsService.searchAdsByCompanyName(brandName, apiCountry, limit);
+        if (response == null || response.containsKey("error")) {
+            log.warn("Brand refresh of '{}' failed: {}", brandName, response != null ? response.get("error") : "no response");
+            return;
+        }
+        List<CompetitorAd> ads = new ArrayList<>();
+        for (Map<String, Object> ad : companyAds(response)) {
+            CompetitorAd entity = fromCompanyAd(ad, key.getCountry().isEmpty() ? null : key.getCountry());
+            if (entity != null) {
+                if (entity.getBrandKey() == null) {
+                    entity.setBrandName(brandName);
+                    entity.setBrandKey(key.getBrandKey());
+                }
+                ads.add(entity);
+            }
+        }
+        saveQuietly(ads);
+        refreshRepository.save(new CompetitorBrandRefresh(key, LocalDateTime.now(), ads.size()));
+        log.info("Refreshed {} ads of brand '{}' ({}) into the competitor corpus", ads.size(), brandName, apiCountry);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<Map<String, Object>> companyAds(Map<String, Object> response) {
+        Object ads = response.containsKey("ads") ? response.get("ads") : response.get("results");
+        if (!(ads instanceof List)) {
+            return List.of();
+        }
+        return ((List<Object>) ads).stream()
+            .filter(Map.class::isInstance)
+            .map(ad -> (Map<String, Object>) ad)
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Maps one ad of a ScrapeCreators company search. Field names differ between the trimmed and
+     * full payloads, so every field is read from its known locations in turn.
+     *
+     * @return null when the ad has no ID
+     */
+    @SuppressWarnings("unchecked")
+    CompetitorAd fromCompanyAd(Map<String, Object> ad, String country) {
+        String externalId = firstText(ad, "ad_archive_id", "adArchiveID", "ad_id", "id");
+        if (externalId == null) {
+            return null;
+        }
+        Map<String, Object> snapshot = ad.get("snapshot") instanceof Map ? (Map<String, Object>) ad.get("snapshot") : Map.of();
+        Object body = snapshot.containsKey("body") ? snapshot.get("body") : ad.get("body");
+        if (body instanceof Map) {
+            body = ((Map<String, Object>) body).get("text");
+        }
+        String brandName = Optional.ofNullable(firstText(ad, "page_name", "pageName"))
+            .orElse(firstText(snapshot, "page_name"));
+
+        List<String> images = new ArrayList<>();
+        collectImages(snapshot.containsKey("images") ? snapshot.get("images") : ad.get("images"), images);
+        collectImages(snapshot.get("cards"), images);
+
+        return CompetitorAd.builder()
+            .source(CompetitorAd.SOURCE_SCRAPE_CREATORS)
+            .externalId(externalId)
+            .brandName(brandName)
+            .brandKey(brandKey(brandName))
+            .pageId(Optional.ofNullable(firstText(ad, "page_id", "pageID")).orElse(firstText(snapshot, "page_id")))
+            .country(country)
+            .headline(Optional.ofNullable(firstText(snapshot, "title")).orElse(firstText(ad, "title")))
+            .body(text(body))
+            .description(firstText(snapshot, "link_description"))
+            .callToAction(firstText(snapshot, "cta_type"))
+            .imageUrlsJson(images.isEmpty() ? null : toJson(images))
+            .landingPageUrl(firstText(snapshot, "link_url"))
+            .adLibraryUrl("https://www.facebook.com/ads/library/?id=" + externalId)
+            .startDate(date(ad.get("start_date")))
+            .endDate(date(ad.get("end_date")))
+            .isActive(ad.get("is_active") instanceof Boolean ? (Boolean) ad.get("is_active") : null)
+            .build();
+    }
+
+    private void collectImages(Object images, List<String> into) {
+        if (!(images instanceof List)) {
+            return;
+        }
+        for (Object image : (List<?>) images) {
+            String url = image instanceof Map
+                ? Optional.ofNullable(firstText((Map<?, ?>) image, "original_image_url"))
+                    .orElse(firstText((Map<?, ?>) image, "resized_image_url"))
+                : text(image);
+            if (url != null && !into.contains(url)) {
+                into.add(url);
+            }
+        }
+    }
+
+    /**
+     * Inserts new ads and refreshes stored ones in one batch. Fields a new fetch did not return keep
+     * their stored value, so a sparse payload never erases a richer one.
+     */
+    private void saveQuietly(List<CompetitorAd> ads) {
+        if (ads.isEmpty()) {
+            return;
+        }
+        try {
+            upsert(ads);
+        } catch (DataIntegrityViolationException e) {
+            // A concurrent fetch inserted one of the ads first; the second pass updates it
+            try {
+                upsert(ads);
+            } catch (RuntimeException retryFailure) {
+                log.warn("Could not store {} competitor ads: {}", ads.size(), retryFailure.getMessage());
+            }
+        } catch (RuntimeException e) {
+            log.warn("Could not store {} competitor ads: {}", ads.size(), e.getMessage());
+        }
+    }
+
+    private void upsert(List<CompetitorAd> ads) {
+        LocalDateTime now = LocalDateTime.now();
+        Map<String, List<CompetitorAd>> bySource = ads.stream()
+            .collect(Collectors.groupingBy(CompetitorAd::getSource, LinkedHashMap::new, Collectors.toList()));
+        List<CompetitorAd> toSave = new ArrayList<>(ads.size());
+        bySource.forEach((source, incoming) -> {
+            Collection<String> ids = incoming.stream().map(CompetitorAd::getExternalId).collect(Collectors.toSet());
+            Map<String, CompetitorAd> stored = adRepository.findBySourceAndExternalIdIn(source, ids).stream()
+                .collect(Collectors.toMap(CompetitorAd::getExternalId, Function.identity()));
+            Map<String, CompetitorAd> merged = new LinkedHashMap<>();
+            for (CompetitorAd ad : incoming) {
+                CompetitorAd existing = merged.getOrDefault(ad.getExternalId(), stored.get(ad.getExternalId()));
+                if (existing == null) {
+                    ad.setFirstSeenAt(now);
+                    ad.setLastSeenAt(now);
+                    merged.put(ad.getExternalId(), ad);
+                } else {
+                    merge(existing, ad);
+                    existing.setLastSeenAt(now);
+                    merged.put(ad.getExternalId(), existing);
+                }
+            }
+            toSave.addAll(merged.values());
+        });
+        adRepository.saveAll(toSave);
+    }
+
+    private void merge(CompetitorAd target, CompetitorAd update) {
+        if (update.getBrandName() != null) {
+            target.setBrandName(update.getBrandName());
+            target.setBrandKey(update.getBrandKey());
+        }
+        if (update.getPageId() != null) target.setPageId(update.getPageId());
+        if (update.getCountry() != null) target.setCountry(update.getCountry());
+        if (update.getHeadline() != null) target.setHeadline(update.getHeadline());
+        if (update.getBody() != null) target.setBody(update.getBody());
+        if (update.getDescription() != null) target.setDescription(update.getDescription());
+        if (update.getCallToAction() != null) target.setCallToAction(update.getCallToAction());
+        if (update.getImageUrlsJson() != null) target.setImageUrlsJson(update.getImageUrlsJson());
+        if (update.getVideoUrl() != null) target.setVideoUrl(update.getVideoUrl());
+        if (update.getLandingPageUrl() != null) target.setLandingPageUrl(update.getLandingPageUrl());
+        if (update.getAdLibraryUrl() != null) target.setAdLibraryUrl(update.getAdLibraryUrl());
+        if (update.getStartDate() != null) target.setStartDate(update.getStartDate());
+        if (update.getEndDate() != null) target.setEndDate(update.getEndDate());
+        if (update.getIsActive() != null) target.setIsActive(update.getIsActive());
+    }
+
+    private List<CompetitorAdDTO> toDTOs(List<CompetitorAd> ads) {
+        return ads.stream().map(this::toDTO).collect(Collectors.toList());
+    }
+
+    private CompetitorAdDTO toDTO(CompetitorAd ad) {
+        CompetitorAdDTO dto = CompetitorAdDTO.builder()
+            .adId(ad.getExternalId())
+            .headline(ad.getHeadline())
+            .primaryText(ad.getBody())
+            .description(ad.getDescription())
+            .callToAction(ad.getCallToAction())
+            .startDate(ad.getStartDate())
+            .endDate(ad.getEndDate())
+            .imageUrls(fromJson(ad.getImageUrlsJson()))
+            .videoUrl(ad.getVideoUrl())
+            .landingPageUrl(ad.getLandingPageUrl())
+            .advertiserName(ad.getBrandName())
+            .adLibraryUrl(ad.getAdLibraryUrl())
+            .targetRegions(ad.getCountry() != null ? List.of(ad.getCountry()) : null)
+            .isActive(ad.getIsActive())
+            .dataSource(CompetitorAd.SOURCE_META_API.equals(ad.getSource()) ? "META_AD_LIBRARY_API" : "SCRAPE_CREATORS_API")
+            .build();
+        dto.sanitize();
+        return dto;
+    }
+
+    /**
+     * Lower-cased advertiser name with collapsed whitespace, the key brand lookups match on.
+     */
+    static String brandKey(String brandName) {
+        if (!StringUtils.hasText(brandName)) {
+            return null;
+        }
+        String key = brandName.trim().replaceAll("\\s+", " ").toLowerCase(Locale.ROOT);
+        return key.length() > 255 ? key.substring(0, 255) : key;
+    }
+
+    private static String countryKey(String country) {
+        return StringUtils.hasText(country) && !"ALL".equalsIgnoreCase(country.trim())
+            ? country.trim().toUpperCase(Locale.ROOT) : "";
+    }
+
+    private static String firstText(Map<?, ?> map, String... fields) {
+        for (String field : fields) {
+            String value = text(map.get(field));
+            if (value != null) {
+                return value;
+            }
+        }
+        return null;
+    }
+
+    private static String text(Object value) {
+        if (value == null || value instanceof Map || value instanceof List) {
+            return null;
+        }
+        String text = value.toString();
+        return text.isBlank() ? null : text;
+    }
+
+    // ScrapeCreators returns dates as epoch seconds or ISO dates depending on the endpoint
+    private static LocalDate date(Object value) {
+        if (value instanceof Number) {
+            return LocalDate.ofInstant(Instant.ofEpochSecond(((Number) value).longValue()), ZoneOffset.UTC);
+        }
+        String text = text(value);
+        if (text == null) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(text.length() > 10 ? text.substring(0, 10) : text);
+        } catch (RuntimeException e) {
+            return null;
+        }
+    }
+
+    private String toJson(List<String> values) {
+        try {
+            return objectMapper.writeValueAsString(values);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+
+    private List<String> fromJson(String json) {
+        if (json == null) {
+            return null;
+        }
+        try {
+            return objectMapper.readValue(json, STRING_LIST);
+        } catch (JsonProcessingException e) {
+            return null;
+        }
+    }
+}
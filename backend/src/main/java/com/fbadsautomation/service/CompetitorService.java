@@ -4,6 +4,7 @@ import com.fbadsautomation.dto.CompetitorAdDTO;
 import com.fbadsautomation.exception.ResourceException;
 import com.fbadsautomation.model.CompetitorSearch;
 import com.fbadsautomation.model.User;
+import com.fbadsautomation.repository.CompetitorBrandSuggestionRepository;
 import com.fbadsautomation.repository.CompetitorSearchRepository;
 import com.fbadsautomation.repository.UserRepository;
 import com.fbadsautomation.service.security.PromptSecurityService;
@@ -11,18 +12,23 @@ import java.time.LocalDateTime;
 import java.util.ArrayList;
 import java.util.Collections;
 import java.util.Comparator;
+import java.util.HashMap;
 import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Locale;
 import java.util.Map;
-import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
 import java.util.stream.Collectors;
 import javax.validation.constraints.NotNull;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
@@ -48,9 +54,12 @@ import org.springframework.transaction.annotation.Transactional;
 public class CompetitorService {
 
     private static final Set<String> SUPPORTED_SEARCH_TYPES = new HashSet<>();
+    private static final int CLEANUP_BATCH_SIZE = 1000;
 
     private final MetaAdLibraryService metaAdLibraryService;
+    private final CompetitorAdCorpusService competitorAdCorpusService;
     private final CompetitorSearchRepository competitorSearchRepository;
+    private final CompetitorBrandSuggestionRepository competitorBrandSuggestionRepository;
     private final UserRepository userRepository;
     private final PromptSecurityService promptSecurityService;
 
@@ -73,23 +82,53 @@ public class CompetitorService {
      * This method extracts ad IDs from Facebook Ad Library URLs and retrieves ad content
      *
      * Security: URLs validated before processing, results sanitized
-     * Performance: Each ad fetch may take 500ms-1s due to rate limiting
+     * Performance: Ads are fetched concurrently, paced by the ScrapeCreators rate limiter
      *
      * @param adUrls List of Facebook Ad Library URLs
      * @param userId User performing the fetch
-     * @return List of structured competitor ad DTOs
+     * @return List of structured competitor ad DTOs, in the order of the URLs
      * @throws ResourceException if fetching fails
      */
-    @Transactional(readOnly = true)
     public List<CompetitorAdDTO> fetchCompetitorAdsByUrls(
             @NotNull List<String> adUrls,
             @NotNull Long userId) {
 
+        Map<String, CompetitorAdDTO> fetched = new HashMap<>();
+        streamCompetitorAdsByUrls(adUrls, userId, ad -> fetched.put(ad.getAdId(), ad)).join();
+
+        List<CompetitorAdDTO> results = new ArrayList<>();
+        for (String url : adUrls) {
+            CompetitorAdDTO ad = isValidAdLibraryUrl(url) ? fetched.remove(metaAdLibraryService.extractAdIdFromUrl(url)) : null;
+            if (ad != null) {
+                results.add(ad);
+            }
+        }
+        return results;
+    }
+
+    /**
+     * Fetch competitor ads from specific ad URLs, handing each ad to {@code onAd} as soon as it arrives
+     *
+     * The URLs are validated before this method returns; the fetches then run concurrently and
+     * {@code onAd} is called from the fetch threads, one ad at a time, in order of arrival.
+     *
+     * @param adUrls List of Facebook Ad Library URLs
+     * @param userId User performing the fetch
+     * @param onAd Receives every sanitized ad
+     * @return Future of the number of ads fetched, completed once every fetch has finished
+     * @throws ResourceException if the user does not exist or too many URLs are requested
+     */
+    public CompletableFuture<Integer> streamCompetitorAdsByUrls(
+            @NotNull List<String> adUrls,
+            @NotNull Long userId,
+            @NotNull Consumer<CompetitorAdDTO> onAd) {
+
         log.info("Fetching {} competitor ads by URLs for user {}", adUrls.size(), userId);
 
         // Validate user
-        User user = userRepository.findById(userId)
-                .orElseThrow(() -> com.fbadsautomation.exception.ResourceException.notFound("User", String.valueOf(userId)));
+        if (!userRepository.existsById(userId)) {
+            throw ResourceException.notFound("User", String.valueOf(userId));
+        }
 
         // Validate URL limit (prevent DoS)
         if (adUrls.size() > 10) {
@@ -101,57 +140,39 @@ public class CompetitorService {
             );
         }
 
-        List<CompetitorAdDTO> results = new ArrayList<>();
-
+        // Ad ID -> URL, so duplicate URLs are fetched once
+        Map<String, String> urlsByAdId = new LinkedHashMap<>();
         for (String url : adUrls) {
-            try {
-                // Validate URL
-                if (!isValidAdLibraryUrl(url)) {
-                    log.warn("Invalid Ad Library URL: {}", url);
-                    continue;
-                }
-
-                // Extract ad content
-                CompetitorAdDTO adDTO = fetchSingleCompetitorAd(url);
-                if (adDTO != null) {
-                    adDTO.sanitize(); // Security: XSS prevention
-                    results.add(adDTO);
-                }
-
-            } catch (Exception e) {
-                log.error("Error fetching ad from URL {}: {}", url, e.getMessage());
-                // Continue processing other URLs
+            if (!isValidAdLibraryUrl(url)) {
+                log.warn("Invalid Ad Library URL: {}", url);
+                continue;
             }
+            String adId = metaAdLibraryService.extractAdIdFromUrl(url);
+            if (adId == null) {
+                log.warn("Could not extract ad ID from URL: {}", url);
+                continue;
+            }
+            urlsByAdId.putIfAbsent(adId, url);
         }
 
-        log.info("Successfully fetched {} out of {} competitor ads", results.size(), adUrls.size());
-        return results;
-    }
-
-    /**
-     * Fetch a single competitor ad from URL
-     *
-     * @param adUrl Facebook Ad Library URL
-     * @return CompetitorAdDTO or null if fetch fails
-     */
-    private CompetitorAdDTO fetchSingleCompetitorAd(String adUrl) {
-        // Extract ad ID from URL
-        String adId = metaAdLibraryService.extractAdIdFromUrl(adUrl);
-        if (adId == null) {
-            log.warn("Could not extract ad ID from URL: {}", adUrl);
-            return null;
-        }
-
-        // Fetch ad content using MetaAdLibraryService
-        List<Map<String, Object>> adData = metaAdLibraryService.extractAdTextAndImages(Collections.singletonList(adUrl));
-
-        if (adData == null || adData.isEmpty()) {
-            log.warn("No ad data returned for URL: {}", adUrl);
-            return null;
-        }
-
-        // Convert to DTO
-        return convertToDTO(adData.get(0), adId, adUrl);
+        AtomicInteger fetched = new AtomicInteger();
+        return metaAdLibraryService.streamAdTextAndImages(new ArrayList<>(urlsByAdId.keySet()), (adId, adData) -> {
+            CompetitorAdDTO adDTO = convertToDTO(adData, adId, urlsByAdId.get(adId));
+            if (adDTO == null) {
+                return;
+            }
+            adDTO.sanitize(); // Security: XSS prevention
+            competitorAdCorpusService.recordFetchedAd(adDTO);
+            fetched.incrementAndGet();
+            try {
+                onAd.accept(adDTO);
+            } catch (RuntimeException e) {
+                log.error("Error handing over competitor ad {}: {}", adId, e.getMessage());
+            }
+        }).thenApply(done -> {
+            log.info("Successfully fetched {} out of {} competitor ads", fetched.get(), adUrls.size());
+            return fetched.get();
+        });
     }
 
     /**
@@ -186,6 +207,10 @@ public class CompetitorService {
                 }
             }
 
+            if (adData.get("pageName") != null) {
+                dto.setAdvertiserName(String.valueOf(adData.get("pageName")));
+            }
+
             // Extract images
             if (adData.containsKey("images")) {
                 Object imagesObj = adData.get("images");
@@ -208,6 +233,38 @@ public class CompetitorService {
         }
     }
 
+    /**
+     * Search a brand's ads, answered from the local competitor corpus when the brand has been
+     * searched before
+     *
+     * @param brandName Brand or advertiser name
+     * @param country ISO country code, or null for all countries
+     * @param limit Maximum ads to return
+     * @param userId User performing the search, for search history
+     * @return Competitor ads of the brand
+     */
+    public List<CompetitorAdDTO> searchBrandAds(@NotNull String brandName, String country, int limit, Long userId) {
+        String sanitized = sanitizeBrandName(brandName);
+        if (!StringUtils.hasText(sanitized)) {
+            throw new IllegalArgumentException("Brand name is required");
+        }
+        List<CompetitorAdDTO> ads = competitorAdCorpusService.searchBrand(sanitized, country, Math.min(limit, 50));
+        recordSearchHistory(sanitized, country, userId, "BRAND", ads.size(), !ads.isEmpty());
+        return ads;
+    }
+
+    /**
+     * Full-text search over every competitor ad stored in the local corpus
+     *
+     * @param query Words or phrase to look for in headlines and ad copy
+     * @param limit Maximum ads to return
+     * @return Matching competitor ads, best match first
+     */
+    public List<CompetitorAdDTO> searchCorpus(String query, int limit) {
+        String sanitized = query == null ? null : promptSecurityService.sanitizeUserInput(query);
+        return competitorAdCorpusService.searchText(sanitized, Math.min(limit, 50));
+    }
+
     /**
      * Get search history for user
      *
@@ -248,17 +305,14 @@ public class CompetitorService {
      */
     @Transactional(readOnly = true)
     public List<String> getBrandNameSuggestions(@NotNull Long userId, String prefix, int limit) {
-        log.info("Getting brand name suggestions for user {} with prefix: {}", userId, prefix);
-
-        List<CompetitorSearch> searches = competitorSearchRepository.findByUserId(userId);
-
-        return searches.stream()
-                .map(CompetitorSearch::getBrandName)
-                .filter(Objects::nonNull)
-                .filter(name -> prefix == null || name.toLowerCase().startsWith(prefix.toLowerCase()))
-                .distinct()
-                .limit(Math.min(limit, 10))
-                .collect(Collectors.toList());
+        log.debug("Getting brand name suggestions for user {} with prefix: {}", userId, prefix);
+
+        String pattern = prefix == null ? "" : prefix.stripLeading()
+                .replace("!", "!!")
+                .replace("%", "!%")
+                .replace("_", "!_");
+        return competitorBrandSuggestionRepository.findBrandNamesByPrefix(
+                userId, pattern, PageRequest.of(0, Math.max(1, Math.min(limit, 10))));
     }
 
     /**
@@ -365,27 +419,24 @@ public class CompetitorService {
      * Delete old search history entries (cleanup job)
      * Removes searches older than 90 days
      *
-     * Performance: Should be run as scheduled job during off-peak hours
+     * Performance: Deletes in batches of {@value #CLEANUP_BATCH_SIZE}, each in its own transaction
      *
      * @return Number of deleted entries
      */
-    @Transactional
     public int cleanupOldSearchHistory() {
         log.info("Cleaning up old competitor search history");
 
         LocalDateTime cutoffDate = LocalDateTime.now().minusDays(90);
-        List<CompetitorSearch> allSearches = competitorSearchRepository.findAll();
-
-        List<CompetitorSearch> oldSearches = allSearches.stream()
-                .filter(search -> search.getSearchDate().isBefore(cutoffDate))
-                .collect(Collectors.toList());
-
-        if (!oldSearches.isEmpty()) {
-            competitorSearchRepository.deleteAll(oldSearches);
-            log.info("Deleted {} old search history entries", oldSearches.size());
-            return oldSearches.size();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = competitorSearchRepository.deleteBatchOlderThan(cutoffDate, CLEANUP_BATCH_SIZE);
+            total += deleted;
+        } while (deleted == CLEANUP_BATCH_SIZE);
+
+        if (total > 0) {
+            log.info("Deleted {} old search history entries", total);
         }
-
-        return 0;
+        return total;
     }
 }
@@ -8,14 +8,21 @@ import com.fbadsautomation.model.AdType;
 import com.fbadsautomation.model.Campaign;
 import com.fbadsautomation.model.FacebookCTA;
 import lombok.RequiredArgsConstructor;
+import lombok.Value;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
 import org.springframework.util.StringUtils;
 
 import java.time.format.DateTimeFormatter;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.List;
 import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
+import java.util.regex.Matcher;
 import java.util.regex.Pattern;
 
 @Component
@@ -39,64 +46,133 @@ public class FacebookAdPayloadBuilder {
             "$"
     );
     private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("MM/dd/yyyy");
+    // Last "NN - NN" range in the audience text; groups are the minimum and maximum age.
+    private static final Pattern AGE_RANGE_PATTERN = Pattern.compile(".*\\b(\\d{2})\\s*-\\s*(\\d{2}).*");
+    private static final int TARGETING_CACHE_LIMIT = 1024;
 
     private final MinIOStorageService minioStorageService;
     private final FacebookProperties facebookProperties;
     private final FacebookAccountMetadataService facebookAccountMetadataService;
+    private final Map<String, AudienceTargeting> targetingCache = new ConcurrentHashMap<>();
 
     public FacebookAdPayload buildPayload(Ad ad) {
-        Campaign campaign = ad.getCampaign();
+        return startBuild().build(ad);
+    }
+
+    public List<FacebookAdPayload> buildPayloads(List<Ad> ads) {
+        PayloadBuild build = startBuild();
+        return ads.stream()
+            .map(build::build)
+            .collect(java.util.stream.Collectors.toList());
+    }
+
+    /**
+     * Starts building payloads for one export. Campaign and ad set fragments are computed once per
+     * campaign and shared by every ad of that campaign, and the account currency is resolved once.
+     * A build is not thread-safe and should not outlive the export it was started for.
+     */
+    public PayloadBuild startBuild() {
+        return new PayloadBuild();
+    }
+
+    public final class PayloadBuild {
+        private final Map<Long, CampaignFragment> fragmentsById = new HashMap<>();
+        private final Map<Campaign, CampaignFragment> unsavedFragments = new IdentityHashMap<>();
+        private String currency;
+
+        private PayloadBuild() {
+        }
+
+        public FacebookAdPayload build(Ad ad) {
+            CampaignFragment fragment = fragmentFor(ad.getCampaign());
+            return FacebookAdPayload.builder()
+                .campaign(fragment.campaign)
+                .adSet(fragment.adSetFor(ad.getWebsiteUrl()))
+                .creative(FacebookAdPayload.CreativePayload.builder()
+                    .type(mapCreativeType(ad.getAdType(), ad.getImageUrl(), ad.getVideoUrl()))
+                    .headline(ad.getHeadline())
+                    .body(ad.getPrimaryText())
+                    .description(ad.getDescription())
+                    .displayLink(ad.getWebsiteUrl())
+                    .imageUrl(getImageUrlForFacebook(ad.getImageUrl()))
+                    .callToAction(mapCallToAction(ad.getCallToAction()))
+                    .marketingMessage(ad.getPrimaryText())
+                    .build())
+                .ad(FacebookAdPayload.AdPayload.builder()
+                    .adId(ad.getId())
+                    .name(ad.getName())
+                    .status("ACTIVE")
+                    .websiteUrl(ad.getWebsiteUrl())
+                    .build())
+                .build();
+        }
 
-        return FacebookAdPayload.builder()
-            .campaign(FacebookAdPayload.CampaignPayload.builder()
+        private CampaignFragment fragmentFor(Campaign campaign) {
+            if (campaign.getId() == null) {
+                return unsavedFragments.computeIfAbsent(campaign, this::buildFragment);
+            }
+            return fragmentsById.computeIfAbsent(campaign.getId(), id -> buildFragment(campaign));
+        }
+
+        private CampaignFragment buildFragment(Campaign campaign) {
+            String startTime = formatDateTime(campaign.getStartDate());
+            String endTime = formatDateTime(campaign.getEndDate());
+            AudienceTargeting targeting = parseTargeting(campaign.getTargetAudience());
+
+            FacebookAdPayload.CampaignPayload campaignPayload = FacebookAdPayload.CampaignPayload.builder()
                 .name(campaign.getName())
                 .status("ACTIVE")
                 .objective(mapCampaignObjective(campaign.getObjective()))
                 .buyingType("AUCTION")
-                .dailyBudget(formatBudgetForFacebook(campaign.getDailyBudget()))
-                .lifetimeBudget(formatBudgetForFacebook(campaign.getTotalBudget()))
-                .startTime(formatDateTime(campaign.getStartDate()))
-                .endTime(formatDateTime(campaign.getEndDate()))
-                .build())
-            .adSet(FacebookAdPayload.AdSetPayload.builder()
+                .dailyBudget(formatBudgetForFacebook(campaign.getDailyBudget(), this::currency))
+                .lifetimeBudget(formatBudgetForFacebook(campaign.getTotalBudget(), this::currency))
+                .startTime(startTime)
+                .endTime(endTime)
+                .build();
+            FacebookAdPayload.AdSetPayload adSetTemplate = FacebookAdPayload.AdSetPayload.builder()
                 .name(campaign.getName() + " - Ad Set")
                 .status("ACTIVE")
-                .startTime(formatDateTime(campaign.getStartDate()))
-                .endTime(formatDateTime(campaign.getEndDate()))
-                .link(ad.getWebsiteUrl())
-                .countries(extractCountriesFromAudience(campaign.getTargetAudience()))
-                .gender(extractGenderFromAudience(campaign.getTargetAudience()))
-                .ageMin(extractAgeMinFromAudience(campaign.getTargetAudience()))
-                .ageMax(extractAgeMaxFromAudience(campaign.getTargetAudience()))
+                .startTime(startTime)
+                .endTime(endTime)
+                .countries(targeting.getCountries())
+                .gender(targeting.getGender())
+                .ageMin(targeting.getAgeMin())
+                .ageMax(targeting.getAgeMax())
                 .publisherPlatforms("facebook,instagram")
                 .facebookPositions("feed")
                 .instagramPositions("stream")
                 .optimizationGoal(resolveOptimizationGoal(campaign))
                 .billingEvent("IMPRESSIONS")
-                .build())
-            .creative(FacebookAdPayload.CreativePayload.builder()
-                .type(mapCreativeType(ad.getAdType(), ad.getImageUrl(), ad.getVideoUrl()))
-                .headline(ad.getHeadline())
-                .body(ad.getPrimaryText())
-                .description(ad.getDescription())
-                .displayLink(ad.getWebsiteUrl())
-                .imageUrl(getImageUrlForFacebook(ad.getImageUrl()))
-                .callToAction(mapCallToAction(ad.getCallToAction()))
-                .marketingMessage(ad.getPrimaryText())
-                .build())
-            .ad(FacebookAdPayload.AdPayload.builder()
-                .adId(ad.getId())
-                .name(ad.getName())
-                .status("ACTIVE")
-                .websiteUrl(ad.getWebsiteUrl())
-                .build())
-            .build();
+                .build();
+            return new CampaignFragment(campaignPayload, adSetTemplate);
+        }
+
+        private String currency() {
+            if (currency == null) {
+                currency = getCurrency();
+            }
+            return currency;
+        }
     }
 
-    public List<FacebookAdPayload> buildPayloads(List<Ad> ads) {
-        return ads.stream()
-            .map(this::buildPayload)
-            .collect(java.util.stream.Collectors.toList());
+    /**
+     * Immutable campaign-level payload parts. Ad sets differ only by link, so one instance is kept
+     * per distinct website URL.
+     */
+    private static final class CampaignFragment {
+        private final FacebookAdPayload.CampaignPayload campaign;
+        private final FacebookAdPayload.AdSetPayload adSetTemplate;
+        private final Map<String, FacebookAdPayload.AdSetPayload> adSetsByLink = new HashMap<>();
+
+        private CampaignFragment(FacebookAdPayload.CampaignPayload campaign,
+                                 FacebookAdPayload.AdSetPayload adSetTemplate) {
+            this.campaign = campaign;
+            this.adSetTemplate = adSetTemplate;
+        }
+
+        private FacebookAdPayload.AdSetPayload adSetFor(String link) {
+            return adSetsByLink.computeIfAbsent(link, key -> adSetTemplate.toBuilder().link(key).build());
+        }
     }
 
     private String mapCampaignObjective(Campaign.CampaignObjective objective) {
@@ -164,17 +240,16 @@ public class FacebookAdPayloadBuilder {
         return date.format(DATE_FORMATTER) + " 00:00";
     }
 
-    private String formatBudgetForFacebook(Double budget) {
-        double normalized = normalizeBudgetForCurrency(budget);
+    private String formatBudgetForFacebook(Double budget, Supplier<String> currency) {
+        double normalized = normalizeBudget(budget, currency);
         if (normalized <= 0) {
             return "";
         }
-        long budgetInSmallestUnit = Math.round(normalized * getBudgetMultiplier());
+        long budgetInSmallestUnit = Math.round(normalized * getBudgetMultiplier(currency.get()));
         return String.valueOf(budgetInSmallestUnit);
     }
 
-    private int getBudgetMultiplier() {
-        String currency = getCurrency();
+    private int getBudgetMultiplier(String currency) {
         if ("VND".equalsIgnoreCase(currency)) {
             return 1;
         }
@@ -182,7 +257,10 @@ public class FacebookAdPayloadBuilder {
     }
 
     public double getMinimumBudgetAmount() {
-        String currency = getCurrency();
+        return getMinimumBudgetAmount(getCurrency());
+    }
+
+    private double getMinimumBudgetAmount(String currency) {
         if ("VND".equalsIgnoreCase(currency)) {
             return 26481d;
         }
@@ -190,10 +268,15 @@ public class FacebookAdPayloadBuilder {
     }
 
     public double normalizeBudgetForCurrency(Double budget) {
+        return normalizeBudget(budget, this::getCurrency);
+    }
+
+    private double normalizeBudget(Double budget, Supplier<String> currencySupplier) {
         if (budget == null || budget <= 0) {
             return 0d;
         }
-        if ("VND".equalsIgnoreCase(getCurrency()) && budget < getMinimumBudgetAmount()) {
+        String currency = currencySupplier.get();
+        if ("VND".equalsIgnoreCase(currency) && budget < getMinimumBudgetAmount(currency)) {
             double rate = facebookProperties.getLegacyUsdToVndRate() > 0
                 ? facebookProperties.getLegacyUsdToVndRate()
                 : 25000d;
@@ -211,10 +294,31 @@ public class FacebookAdPayloadBuilder {
             : "USD";
     }
 
-    private String extractCountriesFromAudience(String targetAudience) {
+    /**
+     * Parses the free-text target audience into ad set targeting. Campaigns reuse a handful of
+     * audience strings, so results are memoized.
+     */
+    private AudienceTargeting parseTargeting(String targetAudience) {
         if (!StringUtils.hasText(targetAudience)) {
-            return "US";
+            return AudienceTargeting.DEFAULT;
         }
+        AudienceTargeting cached = targetingCache.get(targetAudience);
+        if (cached != null) {
+            return cached;
+        }
+        AudienceTargeting parsed = new AudienceTargeting(
+            extractCountriesFromAudience(targetAudience),
+            extractGenderFromAudience(targetAudience),
+            extractAgeRange(targetAudience, 1, "18"),
+            extractAgeRange(targetAudience, 2, "65"));
+        if (targetingCache.size() >= TARGETING_CACHE_LIMIT) {
+            targetingCache.clear();
+        }
+        targetingCache.put(targetAudience, parsed);
+        return parsed;
+    }
+
+    private String extractCountriesFromAudience(String targetAudience) {
         if (targetAudience.contains("Vietnam") || targetAudience.contains("VN")) {
             return "VN";
         }
@@ -222,9 +326,6 @@ public class FacebookAdPayloadBuilder {
     }
 
     private String extractGenderFromAudience(String targetAudience) {
-        if (!StringUtils.hasText(targetAudience)) {
-            return "All";
-        }
         String lower = targetAudience.toLowerCase();
         if (lower.contains("male") && !lower.contains("female")) {
             return "Male";
@@ -234,24 +335,9 @@ public class FacebookAdPayloadBuilder {
         return "All";
     }
 
-    private String extractAgeMinFromAudience(String targetAudience) {
-        if (!StringUtils.hasText(targetAudience)) {
-            return "18";
-        }
-        if (targetAudience.matches(".*\\b(\\d{2})\\s*-\\s*\\d{2}.*")) {
-            return targetAudience.replaceAll(".*\\b(\\d{2})\\s*-\\s*\\d{2}.*", "$1");
-        }
-        return "18";
-    }
-
-    private String extractAgeMaxFromAudience(String targetAudience) {
-        if (!StringUtils.hasText(targetAudience)) {
-            return "65";
-        }
-        if (targetAudience.matches(".*\\b\\d{2}\\s*-\\s*(\\d{2}).*")) {
-            return targetAudience.replaceAll(".*\\b\\d{2}\\s*-\\s*(\\d{2}).*", "$1");
-        }
-        return "65";
+    private String extractAgeRange(String targetAudience, int group, String fallback) {
+        Matcher matcher = AGE_RANGE_PATTERN.matcher(targetAudience);
+        return matcher.matches() ? matcher.group(group) : fallback;
     }
 
     private String getImageUrlForFacebook(String imageUrl) {
@@ -285,4 +371,14 @@ public class FacebookAdPayloadBuilder {
         }
         return URL_PATTERN.matcher(url.trim()).matches();
     }
+
+    @Value
+    private static class AudienceTargeting {
+        static final AudienceTargeting DEFAULT = new AudienceTargeting("US", "All", "18", "65");
+
+        String countries;
+        String gender;
+        String ageMin;
+        String ageMax;
+    }
 }
@@ -1,17 +1,20 @@
 package com.fbadsautomation.service;
 
 import com.fbadsautomation.dto.FacebookAutoExportResponse;
-import com.fbadsautomation.integration.facebook.FacebookMarketingApiClient;
+import com.fbadsautomation.dto.FacebookAutoUploadProgress;
+import com.fbadsautomation.exception.ApiException;
 import com.fbadsautomation.integration.facebook.FacebookProperties;
-import com.fbadsautomation.model.Ad;
+import com.fbadsautomation.model.AsyncJobStatus;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpStatus;
 import org.springframework.stereotype.Service;
 import org.springframework.util.StringUtils;
 
 import java.util.ArrayList;
 import java.util.List;
+import java.util.concurrent.RejectedExecutionException;
 
 @Service
 @RequiredArgsConstructor
@@ -20,10 +23,15 @@ public class FacebookAutoUploadService {
     private static final String ADS_MANAGER_BASE_URL = "https://business.facebook.com/adsmanager/manage/ads";
 
     private final FacebookProperties facebookProperties;
-    private final FacebookMarketingApiClient marketingApiClient;
+    private final AsyncJobService asyncJobService;
+    private final AsyncFacebookUploadService asyncFacebookUploadService;
 
-    public FacebookAutoExportResponse autoUpload(List<Ad> ads, String adAccountId) {
-        if (ads == null || ads.isEmpty()) {
+    /**
+     * Queues an auto-upload job for the given ads and returns immediately with the job id.
+     * Progress and per-ad results are available through {@link #getProgress(String, Long)}.
+     */
+    public FacebookAutoExportResponse startAutoUpload(Long userId, List<Long> adIds, String adAccountId) {
+        if (adIds == null || adIds.isEmpty()) {
             return skipped("No ads provided for auto upload");
         }
 
@@ -36,34 +44,108 @@ public class FacebookAutoUploadService {
             return skipped("Ad account id is required. Provide act_... or set FACEBOOK_DEFAULT_AD_ACCOUNT_ID env.");
         }
 
-        List<FacebookMarketingApiClient.UploadResult> results = new ArrayList<>();
-        try {
-            // TODO: Confirm if Facebook Marketing API supports importing ads from files for this use case.
-            for (Ad ad : ads) {
-                var result = marketingApiClient.uploadAdToAccount(
-                    ad,
-                    resolvedAdAccountId,
-                    facebookProperties.getMarketingAccessToken()
-                );
-                results.add(result);
-            }
+        if (!asyncJobService.canCreateJob(userId)) {
+            return skipped("Too many active jobs. Please wait for current jobs to complete.");
+        }
+
+        // TODO: Confirm if Facebook Marketing API supports importing ads from files for this use case.
+        String jobId = asyncJobService.createJob(userId, AsyncJobStatus.JobType.FACEBOOK_AUTO_UPLOAD, adIds.size());
+        FacebookAutoUploadProgress checkpoint = FacebookAutoUploadProgress.builder()
+            .jobId(jobId)
+            .adAccountId(resolvedAdAccountId)
+            .adsManagerUrl(buildAdsManagerUrl(resolvedAdAccountId))
+            .adIds(new ArrayList<>(adIds))
+            .totalAds(adIds.size())
+            .build();
+        asyncJobService.saveJobCheckpoint(jobId, 0, "Queued", checkpoint);
+        if (!queueUpload(jobId, checkpoint)) {
+            return queueFull(jobId, buildAdsManagerUrl(resolvedAdAccountId));
+        }
+        log.info("Queued Facebook auto upload job {} for {} ads", jobId, adIds.size());
+
+        return FacebookAutoExportResponse.builder()
+            .status(FacebookAutoExportResponse.AutoUploadStatus.QUEUED)
+            .message(String.format("Uploading %d ads to Facebook in the background (job %s)", adIds.size(), jobId))
+            .jobId(jobId)
+            .adsManagerUrl(buildAdsManagerUrl(resolvedAdAccountId))
+            .build();
+    }
+
+    /**
+     * Re-runs a finished auto-upload job. Ads that were already uploaded are skipped and the rest
+     * continue from their last completed step (campaign, ad set or creative).
+     */
+    public FacebookAutoExportResponse resumeAutoUpload(String jobId, Long userId) {
+        AsyncJobStatus job = asyncJobService.getUserJob(jobId, userId)
+            .filter(found -> found.getJobType() == AsyncJobStatus.JobType.FACEBOOK_AUTO_UPLOAD)
+            .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "Auto upload job not found"));
+        if (job.getStatus() == AsyncJobStatus.Status.PENDING || job.getStatus() == AsyncJobStatus.Status.IN_PROGRESS) {
+            throw new ApiException(HttpStatus.CONFLICT, "Auto upload job is still running");
+        }
+        if (job.getStatus() != AsyncJobStatus.Status.FAILED && job.getStatus() != AsyncJobStatus.Status.COMPLETED) {
+            throw new ApiException(HttpStatus.CONFLICT, "Only failed or completed auto upload jobs can be resumed");
+        }
 
+        FacebookAutoUploadProgress checkpoint = getProgress(jobId, userId);
+        if (checkpoint.getTotalAds() > 0 && checkpoint.getUploadedAds() >= checkpoint.getTotalAds()) {
             return FacebookAutoExportResponse.builder()
                 .status(FacebookAutoExportResponse.AutoUploadStatus.UPLOADED)
-                .message("Uploaded via Marketing API")
-                .results(results)
-                .adsManagerUrl(buildAdsManagerUrl(resolvedAdAccountId))
+                .message("All ads were already uploaded")
+                .jobId(jobId)
+                .results(checkpoint.getAds())
+                .adsManagerUrl(checkpoint.getAdsManagerUrl())
                 .build();
+        }
 
-        } catch (Exception e) {
-            log.error("Auto upload failed: {}", e.getMessage(), e);
-            return FacebookAutoExportResponse.builder()
-                .status(FacebookAutoExportResponse.AutoUploadStatus.FAILED)
-                .message(e.getMessage())
-                .results(results)
-                .adsManagerUrl(buildAdsManagerUrl(resolvedAdAccountId))
-                .build();
+        if (!asyncJobService.canCreateJob(userId)) {
+            return skipped("Too many active jobs. Please wait for current jobs to complete.");
+        }
+        // Conditional update, so of two concurrent resumes only one starts a worker
+        if (!asyncJobService.reopenJob(jobId, "Resuming Facebook upload")) {
+            throw new ApiException(HttpStatus.CONFLICT, "Auto upload job is still running");
         }
+        if (!queueUpload(jobId, checkpoint)) {
+            return queueFull(jobId, checkpoint.getAdsManagerUrl());
+        }
+        log.info("Resumed Facebook auto upload job {} ({} of {} ads already uploaded)",
+            jobId, checkpoint.getUploadedAds(), checkpoint.getTotalAds());
+
+        return FacebookAutoExportResponse.builder()
+            .status(FacebookAutoExportResponse.AutoUploadStatus.QUEUED)
+            .message(String.format("Resuming upload of %d remaining ads",
+                checkpoint.getTotalAds() - checkpoint.getUploadedAds()))
+            .jobId(jobId)
+            .adsManagerUrl(checkpoint.getAdsManagerUrl())
+            .build();
+    }
+
+    /**
+     * Hands the job to the upload pool. When the pool rejects it the job is failed right away, so it
+     * neither stays PENDING forever nor holds an active-job slot, and can be resumed later.
+     */
+    private boolean queueUpload(String jobId, FacebookAutoUploadProgress checkpoint) {
+        try {
+            asyncFacebookUploadService.uploadAsync(jobId, checkpoint);
+            return true;
+        } catch (RejectedExecutionException e) {
+            log.warn("Could not queue Facebook auto upload job {}: {}", jobId, e.getMessage());
+            asyncJobService.failJob(jobId, "Upload queue is full. Resume the job later.");
+            return false;
+        }
+    }
+
+    private FacebookAutoExportResponse queueFull(String jobId, String adsManagerUrl) {
+        return FacebookAutoExportResponse.builder()
+            .status(FacebookAutoExportResponse.AutoUploadStatus.SKIPPED)
+            .message("Upload queue is full. Resume the job later.")
+            .jobId(jobId)
+            .adsManagerUrl(adsManagerUrl)
+            .build();
+    }
+
+    public FacebookAutoUploadProgress getProgress(String jobId, Long userId) {
+        return asyncJobService.getJobData(jobId, userId, FacebookAutoUploadProgress.class)
+            .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "Auto upload job not found"));
     }
 
     public FacebookAutoExportResponse skipped(String reason) {
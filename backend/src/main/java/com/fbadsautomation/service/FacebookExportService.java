@@ -1,12 +1,16 @@
 package com.fbadsautomation.service;
 
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fbadsautomation.dto.FacebookAdPayload;
 import com.fbadsautomation.dto.FacebookAutoExportResponse;
 import com.fbadsautomation.dto.FacebookExportResponse;
 import com.fbadsautomation.model.Ad;
 import com.fbadsautomation.model.Campaign;
 import com.fbadsautomation.model.AdType;
+import com.fbadsautomation.model.User;
 import com.fbadsautomation.repository.AdRepository;
+import com.fbadsautomation.repository.UserRepository;
 import com.fbadsautomation.exception.ApiException;
 import lombok.RequiredArgsConstructor;
 // import lombok.extern.slf4j.Slf4j;
@@ -30,6 +34,7 @@ import javax.imageio.ImageIO;
 import java.awt.image.BufferedImage;
 import java.io.ByteArrayOutputStream;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
 import java.net.HttpURLConnection;
 import java.net.URL;
@@ -48,11 +53,13 @@ public class FacebookExportService {
 
     private static final Logger log = LoggerFactory.getLogger(FacebookExportService.class);
     private final AdRepository adRepository;
+    private final UserRepository userRepository;
     private final CampaignService campaignService;
     private final MinIOStorageService minioStorageService;
     private final com.fbadsautomation.util.AdContentValidator adContentValidator;
     private final FacebookAdPayloadBuilder payloadBuilder;
     private final FacebookAutoUploadService facebookAutoUploadService;
+    private final ObjectMapper objectMapper;
     
     // Enhanced URL pattern supporting:
     // - HTTP/HTTPS protocols (case-insensitive)
@@ -746,6 +753,7 @@ public class FacebookExportService {
         List<Map<String, Object>> adPreviews = new ArrayList<>();
         List<List<String>> csvRows = new ArrayList<>();
         
+        FacebookAdPayloadBuilder.PayloadBuild payloadBuild = payloadBuilder.startBuild();
         for (Long adId : adIds) {
             Optional<Ad> adOpt = adRepository.findById(adId);
             if (!adOpt.isPresent()) {
@@ -755,7 +763,7 @@ public class FacebookExportService {
             Ad ad = adOpt.get();
 
             validateAdContentForFacebook(ad);
-            FacebookAdPayload payload = payloadBuilder.buildPayload(ad);
+            FacebookAdPayload payload = payloadBuild.build(ad);
 
             // Create individual preview
             Map<String, Object> adPreview = new HashMap<>();
@@ -1018,6 +1026,19 @@ public class FacebookExportService {
     }
 
     private List<PreparedAdExport> prepareAds(List<Long> adIds) {
+        FacebookAdPayloadBuilder.PayloadBuild payloadBuild = payloadBuilder.startBuild();
+        List<PreparedAdExport> prepared = new ArrayList<>();
+        for (Ad ad : loadAdsForExport(adIds)) {
+            prepared.add(new PreparedAdExport(ad, payloadBuild.build(ad)));
+        }
+
+        return prepared;
+    }
+
+    /**
+     * Loads the ads to export and validates their content for Facebook.
+     */
+    public List<Ad> loadAdsForExport(List<Long> adIds) {
         if (adIds == null || adIds.isEmpty()) {
             throw new ApiException(HttpStatus.BAD_REQUEST, "Ad IDs list cannot be empty");
         }
@@ -1027,13 +1048,28 @@ public class FacebookExportService {
             throw new ApiException(HttpStatus.NOT_FOUND, "No ads found with provided IDs");
         }
 
-        List<PreparedAdExport> prepared = new ArrayList<>();
-        for (Ad ad : ads) {
-            validateAdContentForFacebook(ad);
-            prepared.add(new PreparedAdExport(ad, payloadBuilder.buildPayload(ad)));
+        ads.forEach(this::validateAdContentForFacebook);
+        return ads;
+    }
+
+    /**
+     * Loads the ads of {@code userId} to export and validates their content for Facebook. Ads of
+     * other users are treated as not found.
+     */
+    public List<Ad> loadAdsForExport(List<Long> adIds, Long userId) {
+        if (adIds == null || adIds.isEmpty()) {
+            throw new ApiException(HttpStatus.BAD_REQUEST, "Ad IDs list cannot be empty");
         }
+        User user = userRepository.findById(userId)
+            .orElseThrow(() -> new ApiException(HttpStatus.NOT_FOUND, "User not found"));
 
-        return prepared;
+        List<Ad> ads = adRepository.findByUserAndIdInWithCampaign(user, adIds);
+        if (ads.isEmpty()) {
+            throw new ApiException(HttpStatus.NOT_FOUND, "No ads found with provided IDs");
+        }
+
+        ads.forEach(this::validateAdContentForFacebook);
+        return ads;
     }
 
     private void enforceBudgetMinimums(List<PreparedAdExport> preparedAds) {
@@ -1267,8 +1303,10 @@ public class FacebookExportService {
 
     /**
      * Unified export method supporting both CSV and Excel formats with optional auto-upload.
+     * Auto-upload runs as an async job; the response carries its job id.
      */
-    public FacebookExportResponse exportAdsBulk(List<Long> adIds, String format, boolean autoUpload, String adAccountId) {
+    public FacebookExportResponse exportAdsBulk(List<Long> adIds, String format, boolean autoUpload, String adAccountId,
+                                                Long userId) {
         log.info("Bulk export requested for {} ads in format: {} (autoUpload={})", adIds.size(), format, autoUpload);
 
         if (!StringUtils.hasText(format)) {
@@ -1299,8 +1337,9 @@ public class FacebookExportService {
         }
 
         FacebookAutoExportResponse autoUploadResponse = autoUpload
-            ? facebookAutoUploadService.autoUpload(
-                prepared.stream().map(PreparedAdExport::getAd).collect(Collectors.toList()),
+            ? facebookAutoUploadService.startAutoUpload(
+                userId,
+                prepared.stream().map(preparedAd -> preparedAd.getAd().getId()).collect(Collectors.toList()),
                 adAccountId
             )
             : facebookAutoUploadService.skipped("Auto upload disabled");
@@ -1316,6 +1355,22 @@ public class FacebookExportService {
             .build();
     }
 
+    /**
+     * Writes the normalized payloads of the given ads as a JSON array, serializing each payload as
+     * soon as it is built instead of materializing the whole list first. Ads are expected to come
+     * from {@link #loadAdsForExport(List, Long)} so validation errors surface before the stream starts.
+     */
+    public void writePayloads(List<Ad> ads, OutputStream outputStream) throws IOException {
+        FacebookAdPayloadBuilder.PayloadBuild payloadBuild = payloadBuilder.startBuild();
+        try (JsonGenerator generator = objectMapper.getFactory().createGenerator(outputStream)) {
+            generator.writeStartArray();
+            for (Ad ad : ads) {
+                generator.writeObject(payloadBuild.build(ad));
+            }
+            generator.writeEndArray();
+        }
+    }
+
     /**
      * Helper method to mark campaign as EXPORTED after ad export (Issue #7)
      * @param ad The ad that was exported
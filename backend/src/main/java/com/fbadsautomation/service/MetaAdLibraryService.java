@@ -5,6 +5,8 @@ import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.function.BiConsumer;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
@@ -22,6 +24,7 @@ import org.springframework.web.client.RestTemplate;
 public class MetaAdLibraryService {
 
     private final ScrapeCreatorsService scrapeCreatorsService;
+    private final CompetitorAdCorpusService competitorAdCorpusService;
     private final RestTemplate restTemplate;
 
     @Value("${meta.api.base-url:https://graph.facebook.com/v24.0}")
@@ -63,43 +66,79 @@ public class MetaAdLibraryService {
         List<Map<String, Object>> rawResults = extractAdsByAdIds(adLinks);
         List<Map<String, Object>> result = new ArrayList<>();
         for (Map<String, Object> ad : rawResults) {
-            Map<String, Object> item = new HashMap<>(); // Lấy text quảng cáo
-            String text = null;
-            if (ad.containsKey("body")) {
-                text = String.valueOf(ad.get("body"));
-            } else if (ad.containsKey("snapshot")) {
-                // Một số response có thể nằm trong snapshot.body
-                Object snapshot = ad.get("snapshot");
-                if (snapshot instanceof Map) {
-                    Object body = ((Map<?, ?>) snapshot).get("body");
-                    if (body != null) text = String.valueOf(body);
+            result.add(toTextAndImages(ad));
+        }
+        return result;
+    }
+
+    /**
+     * Lấy text và images của nhiều ad IDs song song, trả từng ad cho {@code onAd} ngay khi có kết quả.
+     * Các ad mà API không trả được dữ liệu sẽ được log và bỏ qua.
+     */
+    public CompletableFuture<Void> streamAdTextAndImages(List<String> adIds, BiConsumer<String, Map<String, Object>> onAd) {
+        return scrapeCreatorsService.scrapeCreatorsStream(adIds, false, (adId, ad) -> {
+            if (ad.containsKey("error")) {
+                log.warn("Skipping ad {}: {} - {}", adId, ad.get("error"), ad.get("message"));
+                return;
+            }
+            onAd.accept(adId, toTextAndImages(ad));
+        });
+    }
+
+    /**
+     * Lấy text và images của một link quảng cáo trên executor của ScrapeCreators, không chặn thread gọi.
+     */
+    public CompletableFuture<Map<String, Object>> extractAdTextAndImagesAsync(String adLink) {
+        String adId = extractAdIdFromUrl(adLink);
+        if (adId == null) {
+            Map<String, Object> error = new HashMap<>();
+            error.put("error", "Không tìm được ad_id từ link: " + adLink);
+            return CompletableFuture.completedFuture(error);
+        }
+        return scrapeCreatorsService.scrapeCreatorsAsync(adId, false).thenApply(this::toTextAndImages);
+    }
+
+    private Map<String, Object> toTextAndImages(Map<String, Object> ad) {
+        Map<String, Object> item = new HashMap<>(); // Lấy text quảng cáo
+        String text = null;
+        if (ad.containsKey("body")) {
+            text = String.valueOf(ad.get("body"));
+        } else if (ad.containsKey("snapshot")) {
+            // Một số response có thể nằm trong snapshot.body
+            Object snapshot = ad.get("snapshot");
+            if (snapshot instanceof Map) {
+                Object body = ((Map<?, ?>) snapshot).get("body");
+                if (body != null) text = String.valueOf(body);
+            }
+        }
+        item.put("text", text);
+        // Lấy danh sách image URLs
+        List<String> images = new ArrayList<>();
+        if (ad.containsKey("images")) {
+            Object imgs = ad.get("images");
+            if (imgs instanceof List) {
+                for (Object img : (List<?>) imgs) {
+                    images.add(String.valueOf(img));
                 }
             }
-            item.put("text", text);
-            // Lấy danh sách image URLs
-            List<String> images = new ArrayList<>();
-            if (ad.containsKey("images")) {
-                Object imgs = ad.get("images");
+        } else if (ad.containsKey("snapshot")) {
+            Object snapshot = ad.get("snapshot");
+            if (snapshot instanceof Map) {
+                Object imgs = ((Map<?, ?>) snapshot).get("images");
                 if (imgs instanceof List) {
                     for (Object img : (List<?>) imgs) {
                         images.add(String.valueOf(img));
                     }
                 }
-            } else if (ad.containsKey("snapshot")) {
-                Object snapshot = ad.get("snapshot");
-                if (snapshot instanceof Map) {
-                    Object imgs = ((Map<?, ?>) snapshot).get("images");
-                    if (imgs instanceof List) {
-                        for (Object img : (List<?>) imgs) {
-                            images.add(String.valueOf(img));
-                        }
-                    }
-                }
             }
-            item.put("images", images);
-            result.add(item);
         }
-        return result;
+        item.put("images", images);
+        Object pageName = ad.get("page_name");
+        if (pageName == null && ad.get("snapshot") instanceof Map) {
+            pageName = ((Map<?, ?>) ad.get("snapshot")).get("page_name");
+        }
+        item.put("pageName", pageName != null ? String.valueOf(pageName) : null);
+        return item;
     }
     
     /**
@@ -145,6 +184,7 @@ public class MetaAdLibraryService {
             if (response.getStatusCode().is2xxSuccessful() && response.getBody() != null) {
                 Map<String, Object> adData = response.getBody();
                 ReferenceAdData reference = buildReferenceAdData(adData);
+                competitorAdCorpusService.recordOfficialAd(adId, adData);
                 result.put("success", true);
                 result.put("content", adData);
                 result.put("referenceAdData", reference);
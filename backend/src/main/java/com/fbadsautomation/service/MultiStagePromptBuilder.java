@@ -4,6 +4,11 @@ import com.fbadsautomation.model.AdPersona;
 import com.fbadsautomation.model.AdType;
 import com.fbadsautomation.model.Campaign;
 import com.fbadsautomation.util.ValidationMessages.Language;
+import com.fbadsautomation.util.text.AssembledPrompt;
+import com.fbadsautomation.util.text.AssembledPrompt.Section;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.Supplier;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
@@ -15,12 +20,18 @@ import org.springframework.stereotype.Service;
  * Stage 1: Extract product info from user prompt (lightweight analysis)
  * Stage 2: Enrich with persona, context, and examples
  * Stage 3: Generate natural ad content with constraints
+ *
+ * Constraints, persona and style come first: they are rendered once per language and persona/style
+ * and form a stable prompt prefix that providers can serve from their prompt cache.
  */
 @Service
 public class MultiStagePromptBuilder {
 
     private static final Logger log = LoggerFactory.getLogger(MultiStagePromptBuilder.class);
 
+    // Rendered persona/style/constraint sections keyed by section, language and enum constant
+    private final Map<String, Section> fragments = new ConcurrentHashMap<>();
+
     /**
      * Build final enhanced prompt for ad content generation
      * This combines persona, context, and constraints into a natural prompt
@@ -35,39 +46,13 @@ public class MultiStagePromptBuilder {
         log.info("Building multi-stage prompt with persona: {}, style: {}, language: {}",
                  persona.name(), adStyle != null ? adStyle.name() : "none", language);
 
-        StringBuilder enhancedPrompt = new StringBuilder();
         boolean isVietnamese = (language == Language.VIETNAMESE);
-
-        // Stage 1: Context - User's original request
-        enhancedPrompt.append(buildUserContextSection(userPrompt, isVietnamese));
-        enhancedPrompt.append("\n\n");
-
-        // Stage 2: Persona - Role, tone, vocabulary, examples
-        enhancedPrompt.append(persona.getPersonaInstruction(isVietnamese));
-        enhancedPrompt.append("\n\n");
-
-        // Stage 2.5: Creative Style (if specified) - Issue #8
-        if (adStyle != null) {
-            enhancedPrompt.append(adStyle.getStyleInstruction(isVietnamese));
-            enhancedPrompt.append("\n\n");
-            log.debug("Added style instruction: {}", adStyle.name());
-        }
-
         // Stage 3: Audience targeting (if provided)
-        if (audienceSegment != null) {
-            enhancedPrompt.append(buildAudienceSection(audienceSegment, isVietnamese));
-            enhancedPrompt.append("\n\n");
-        }
-
-        // Stage 4: Technical constraints & format
-        enhancedPrompt.append(buildConstraintsSection(adType, isVietnamese));
-        enhancedPrompt.append("\n\n");
+        String audienceSection = audienceSegment != null
+                ? buildAudienceSection(audienceSegment, isVietnamese)
+                : null;
 
-        // Stage 5: Critical instructions (CTA handling, natural tone)
-        enhancedPrompt.append(buildCriticalInstructions(isVietnamese));
-
-        log.debug("Enhanced prompt built (length: {} chars)", enhancedPrompt.length());
-        return enhancedPrompt.toString();
+        return assemble(userPrompt, persona, adType, isVietnamese, audienceSection, adStyle).getText();
     }
 
     /**
@@ -80,63 +65,88 @@ public class MultiStagePromptBuilder {
                                        Language language,
                                        Campaign campaign,
                                        com.fbadsautomation.model.AdStyle adStyle) {
+        return assembleEnhancedPrompt(userPrompt, persona, adType, language, campaign, adStyle).getText();
+    }
+
+    /**
+     * Campaign-level prompt split into sections with token estimates. Constraints, persona and style
+     * only depend on language and the chosen enums, so they are rendered once and sent first as a
+     * stable prefix for provider-side prompt caching.
+     */
+    public AssembledPrompt assembleEnhancedPrompt(String userPrompt,
+                                                  AdPersona persona,
+                                                  AdType adType,
+                                                  Language language,
+                                                  Campaign campaign,
+                                                  com.fbadsautomation.model.AdStyle adStyle) {
 
         log.info("Building prompt with campaign-level audience (Issue #9): campaign={}, persona={}, style={}",
                  campaign != null ? campaign.getId() : "none",
                  persona.name(),
                  adStyle != null ? adStyle.name() : "none");
 
-        StringBuilder enhancedPrompt = new StringBuilder();
         boolean isVietnamese = (language == Language.VIETNAMESE);
+        // Stage 3: Audience targeting from Campaign (Issue #9)
+        String audienceSection = null;
+        if (campaign != null && campaign.getTargetAudience() != null && !campaign.getTargetAudience().trim().isEmpty()) {
+            audienceSection = buildAudienceSectionFromCampaign(campaign.getTargetAudience(), isVietnamese);
+            log.debug("Added campaign audience: {}", campaign.getTargetAudience());
+        }
 
-        // Stage 1: Context - User's original request
-        enhancedPrompt.append(buildUserContextSection(userPrompt, isVietnamese));
-        enhancedPrompt.append("\n\n");
+        return assemble(userPrompt, persona, adType, isVietnamese, audienceSection, adStyle);
+    }
+
+    private AssembledPrompt assemble(String userPrompt,
+                                     AdPersona persona,
+                                     AdType adType,
+                                     boolean isVietnamese,
+                                     String audienceSection,
+                                     com.fbadsautomation.model.AdStyle adStyle) {
+        AssembledPrompt.Builder prompt = AssembledPrompt.builder();
+
+        // Stable prefix - Stage 4: Technical constraints & format
+        prompt.addToPrefix(fragment("constraints", isVietnamese, String.valueOf(adType),
+                () -> buildConstraintsSection(adType, isVietnamese) + "\n\n"));
 
         // Stage 2: Persona - Role, tone, vocabulary, examples
-        enhancedPrompt.append(persona.getPersonaInstruction(isVietnamese));
-        enhancedPrompt.append("\n\n");
+        prompt.addToPrefix(fragment("persona", isVietnamese, persona.name(),
+                () -> persona.getPersonaInstruction(isVietnamese) + "\n\n"));
 
         // Stage 2.5: Creative Style (if specified) - Issue #8
         if (adStyle != null) {
-            enhancedPrompt.append(adStyle.getStyleInstruction(isVietnamese));
-            enhancedPrompt.append("\n\n");
+            prompt.addToPrefix(fragment("style", isVietnamese, adStyle.name(),
+                    () -> adStyle.getStyleInstruction(isVietnamese) + "\n\n"));
             log.debug("Added style instruction: {}", adStyle.name());
         }
 
-        // Stage 3: Audience targeting from Campaign (Issue #9)
-        if (campaign != null && campaign.getTargetAudience() != null && !campaign.getTargetAudience().trim().isEmpty()) {
-            enhancedPrompt.append(buildAudienceSectionFromCampaign(campaign.getTargetAudience(), isVietnamese));
-            enhancedPrompt.append("\n\n");
-            log.debug("Added campaign audience: {}", campaign.getTargetAudience());
-        }
+        // Stage 1: Context - User's original request
+        prompt.add("userRequest", buildUserContextSection(userPrompt, isVietnamese) + "\n\n");
 
-        // Stage 4: Technical constraints & format
-        enhancedPrompt.append(buildConstraintsSection(adType, isVietnamese));
-        enhancedPrompt.append("\n\n");
+        // Stage 3: Audience targeting
+        if (audienceSection != null) {
+            prompt.add("audience", audienceSection + "\n\n");
+        }
 
         // Stage 5: Critical instructions (CTA handling, natural tone)
-        enhancedPrompt.append(buildCriticalInstructions(isVietnamese));
+        prompt.add(fragment("instructions", isVietnamese, "all", () -> buildCriticalInstructions(isVietnamese)));
+
+        AssembledPrompt assembled = prompt.build();
+        log.debug("Enhanced prompt built (length: {} chars, ~{} tokens, stable prefix ~{} tokens): {}",
+                assembled.getText().length(), assembled.getTotalTokens(), assembled.getStablePrefixTokens(),
+                assembled.getSectionTokens());
+        return assembled;
+    }
 
-        log.debug("Enhanced prompt built with campaign audience (length: {} chars)", enhancedPrompt.length());
-        return enhancedPrompt.toString();
+    private Section fragment(String section, boolean isVietnamese, String variant, Supplier<String> renderer) {
+        String key = section + ":" + (isVietnamese ? "vi" : "en") + ":" + variant;
+        return fragments.computeIfAbsent(key, k -> Section.of(section, renderer.get()));
     }
 
     /**
      * Stage 1: User context section
      */
     private String buildUserContextSection(String userPrompt, boolean isVietnamese) {
-        StringBuilder section = new StringBuilder();
-
-        if (isVietnamese) {
-            section.append("📋 YÊU CẦU TỪ NGƯỜI DÙNG:\n");
-            section.append(userPrompt);
-        } else {
-            section.append("📋 USER REQUEST:\n");
-            section.append(userPrompt);
-        }
-
-        return section.toString();
+        return (isVietnamese ? "📋 YÊU CẦU TỪ NGƯỜI DÙNG:\n" : "📋 USER REQUEST:\n") + userPrompt;
     }
 
     /**
@@ -0,0 +1,143 @@
+package com.fbadsautomation.service;
+
+import com.fbadsautomation.model.AdContent;
+import com.fbadsautomation.repository.AdContentRepository;
+import com.fbadsautomation.util.text.SimHash;
+import com.fbadsautomation.util.text.SimHashIndex;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+
+/**
+ * Drops generated variations that are near-duplicates of an earlier variation in the same batch or
+ * of the user's past ads, before images are generated for them. Variations are compared by
+ * {@link SimHash} fingerprint through LSH bands, in memory for the batch and through the band key
+ * index on {@code ad_contents} for the history.
+ */
+@Service
+@RequiredArgsConstructor
+public class NearDuplicateDetectionService {
+
+    private static final Logger log = LoggerFactory.getLogger(NearDuplicateDetectionService.class);
+    // Candidates per lookup; band collisions beyond this are old enough not to matter.
+    private static final int HISTORY_CANDIDATE_LIMIT = 200;
+
+    private final AdContentRepository adContentRepository;
+
+    /**
+     * Fingerprints every content and returns the ones that are not near-duplicates, in their
+     * original order. At least one content is always kept.
+     *
+     * @param userId owner whose past ads are checked, or {@code null} to only compare within the batch
+     */
+    public List<AdContent> removeNearDuplicates(List<AdContent> contents, Long userId) {
+        if (contents == null || contents.isEmpty()) {
+            return contents;
+        }
+
+        BatchFilter filter = newBatchFilter(userId);
+        List<AdContent> kept = new ArrayList<>(contents.size());
+        for (AdContent content : contents) {
+            if (filter.accept(content)) {
+                kept.add(content);
+            }
+        }
+
+        if (kept.isEmpty()) {
+            // Everything repeats a past ad; returning one beats returning nothing.
+            filter.takeHistoryDuplicate().ifPresent(kept::add);
+        }
+        if (filter.getHistoryDuplicates() > 0) {
+            log.info("Dropping {} variations that repeat past ads of user {}", filter.getHistoryDuplicates(), userId);
+        }
+        if (kept.size() < contents.size()) {
+            log.info("Near-duplicate filter kept {} of {} variations", kept.size(), contents.size());
+        }
+        return kept.size() == contents.size() ? contents : kept;
+    }
+
+    /**
+     * Starts a filter that judges the variations of one batch one at a time, for callers that receive
+     * them incrementally.
+     *
+     * @param userId owner whose past ads are checked, or {@code null} to only compare within the batch
+     */
+    public BatchFilter newBatchFilter(Long userId) {
+        return new BatchFilter(userId);
+    }
+
+    public boolean matchesHistory(Long userId, long fingerprint) {
+        try {
+            String bandKeys = Arrays.stream(SimHash.bandKeys(fingerprint))
+                .mapToObj(String::valueOf)
+                .collect(Collectors.joining(",", "{", "}"));
+            List<Long> candidates = adContentRepository.findSimilarContentSimhashes(userId, bandKeys,
+                HISTORY_CANDIDATE_LIMIT);
+            for (Long candidate : candidates) {
+                if (candidate != null && SimHash.isNearDuplicate(fingerprint, candidate)) {
+                    return true;
+                }
+            }
+        } catch (Exception e) {
+            // The check only saves image costs, so a failed lookup must not fail generation.
+            log.warn("Near-duplicate history lookup failed for user {}: {}", userId, e.getMessage());
+        }
+        return false;
+    }
+
+    /**
+     * Near-duplicate state of one batch. Safe to call from the threads that deliver variations.
+     */
+    public final class BatchFilter {
+
+        private final Long userId;
+        private final SimHashIndex<AdContent> batch = new SimHashIndex<>();
+        private final List<AdContent> historyDuplicates = new ArrayList<>();
+
+        private BatchFilter(Long userId) {
+            this.userId = userId;
+        }
+
+        /**
+         * Fingerprints the content and returns whether it is new to the batch and to the user's past
+         * ads. Repeats of past ads are held back for {@link #takeHistoryDuplicate()}.
+         */
+        public synchronized boolean accept(AdContent content) {
+            content.updateContentSimhash();
+            Long fingerprint = content.getContentSimhash();
+            if (fingerprint == null) {
+                return true;
+            }
+            if (!batch.findNearDuplicates(fingerprint).isEmpty()) {
+                log.info("Dropping variation '{}': near-duplicate of another variation in the batch", content.getHeadline());
+                return false;
+            }
+            batch.add(fingerprint, content);
+            if (userId != null && matchesHistory(userId, fingerprint)) {
+                historyDuplicates.add(content);
+                return false;
+            }
+            return true;
+        }
+
+        /**
+         * The first held-back repeat of a past ad, for batches where nothing else was accepted.
+         */
+        public synchronized Optional<AdContent> takeHistoryDuplicate() {
+            if (historyDuplicates.isEmpty()) {
+                return Optional.empty();
+            }
+            return Optional.of(historyDuplicates.remove(0));
+        }
+
+        public synchronized int getHistoryDuplicates() {
+            return historyDuplicates.size();
+        }
+    }
+}
@@ -0,0 +1,401 @@
+package com.fbadsautomation.service;
+
+import com.fbadsautomation.model.AdPersona;
+import com.fbadsautomation.model.Persona;
+import com.fbadsautomation.repository.AdRepository;
+import com.fbadsautomation.util.text.AhoCorasickMatcher;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Consumer;
+import javax.annotation.PreDestroy;
+import lombok.Value;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+
+/**
+ * Local persona classifier for product prompts, so only prompts it is unsure about need an LLM call.
+ *
+ * <p>Two sources of evidence are combined into a probability per {@link AdPersona}:
+ * <ul>
+ *   <li>a weighted keyword dictionary, compiled once into an Aho–Corasick automaton. A keyword only
+ *       counts when it starts a word, so "ăn" does not fire inside "khăn" and "rank" not inside
+ *       "frank";</li>
+ *   <li>once enough history exists, a multinomial naive Bayes model over word unigrams and bigrams,
+ *       trained from the prompts of past ads and the persona their user picked.</li>
+ * </ul>
+ * The two are multiplied rather than averaged, so agreeing evidence raises the confidence instead of
+ * diluting it. A classification is a single pass over the prompt plus one map lookup per feature.
+ * The model is retrained daily on the classifier's own scheduler, as scheduling is not enabled
+ * application-wide.
+ */
+@Service
+public class PersonaClassifier {
+
+    private static final Logger log = LoggerFactory.getLogger(PersonaClassifier.class);
+    private static final AdPersona[] PERSONAS = AdPersona.values();
+    // Evidence added to every persona before normalizing: one plain keyword yields ~0.65 confidence,
+    // two agreeing keywords ~0.8 and two conflicting ones ~0.4
+    private static final double KEYWORD_SMOOTHING = 0.1;
+    private static final int TRAINING_LIMIT = 5000;
+    private static final int MIN_TRAINING_EXAMPLES = 50;
+    private static final long RETRAIN_INTERVAL_HOURS = 24;
+
+    // Multi-word and language-specific phrases are strong evidence, short or ambiguous words weak
+    private static final double STRONG = 1.5;
+    private static final double NORMAL = 1.0;
+    private static final double WEAK = 0.5;
+
+    private static final List<Keyword> KEYWORDS = new ArrayList<>();
+
+    static {
+        keywords(AdPersona.GEN_Z_GAMER, NORMAL, "game", "gaming", "esport", "streamer");
+        keywords(AdPersona.GEN_Z_GAMER, STRONG, "play together");
+        keywords(AdPersona.GEN_Z_GAMER, WEAK, "rank", "solo", "duo");
+
+        keywords(AdPersona.TRENDY_SHOPPER, STRONG, "thời trang", "quần áo", "phụ kiện");
+        keywords(AdPersona.TRENDY_SHOPPER, NORMAL, "fashion", "clothes", "accessories", "outfit");
+        keywords(AdPersona.TRENDY_SHOPPER, WEAK, "style");
+
+        keywords(AdPersona.STUDENT_FOCUSED, STRONG, "khóa học", "ielts", "toeic", "luyện thi", "exam prep");
+        keywords(AdPersona.STUDENT_FOCUSED, NORMAL, "education", "course");
+        keywords(AdPersona.STUDENT_FOCUSED, WEAK, "học");
+
+        keywords(AdPersona.PROFESSIONAL_TRUSTWORTHY, STRONG, "tài chính", "kế toán", "doanh nghiệp", "b2b");
+        keywords(AdPersona.PROFESSIONAL_TRUSTWORTHY, NORMAL, "finance", "accounting", "business", "enterprise");
+
+        keywords(AdPersona.HEALTH_WELLNESS, STRONG, "sức khỏe", "giảm cân", "weight loss", "làm đẹp");
+        keywords(AdPersona.HEALTH_WELLNESS, NORMAL, "health", "fitness", "gym", "beauty");
+
+        keywords(AdPersona.FOOD_BEVERAGE, STRONG, "nhà hàng", "món ăn", "đồ uống");
+        keywords(AdPersona.FOOD_BEVERAGE, NORMAL, "food", "restaurant", "dish", "cafe");
+        keywords(AdPersona.FOOD_BEVERAGE, WEAK, "ăn");
+    }
+
+    private static final AhoCorasickMatcher<Keyword> KEYWORD_MATCHER = buildKeywordMatcher();
+
+    private final AdRepository adRepository;
+    private volatile NaiveBayesModel model;
+    private ScheduledExecutorService trainingScheduler;
+
+    public PersonaClassifier(AdRepository adRepository) {
+        this.adRepository = adRepository;
+    }
+
+    /**
+     * Most likely persona of the prompt and its probability. Without any evidence the result is
+     * {@link AdPersona#GENERAL_FRIENDLY} with confidence 0.
+     */
+    public Classification classify(String prompt) {
+        String text = normalize(prompt);
+
+        double[] keywordScores = new double[PERSONAS.length];
+        boolean[] seen = new boolean[KEYWORDS.size()];
+        KEYWORD_MATCHER.scan(text, (keyword, start, end) -> {
+            // Like the former contains() checks, each keyword counts once however often it occurs
+            if (isWordStart(text, start) && !seen[keyword.index]) {
+                seen[keyword.index] = true;
+                keywordScores[keyword.persona.ordinal()] += keyword.weight;
+            }
+        });
+        double keywordTotal = 0;
+        for (double score : keywordScores) {
+            keywordTotal += score;
+        }
+
+        NaiveBayesModel current = model;
+        double[] probabilities = current != null ? current.posterior(text) : null;
+        if (keywordTotal > 0) {
+            double normalizer = keywordTotal + KEYWORD_SMOOTHING * PERSONAS.length;
+            for (int i = 0; i < PERSONAS.length; i++) {
+                keywordScores[i] = (keywordScores[i] + KEYWORD_SMOOTHING) / normalizer;
+            }
+            if (probabilities == null || !current.hasHistory(best(keywordScores))) {
+                // History cannot confirm or refute a persona it has never seen
+                probabilities = keywordScores;
+            } else {
+                // Independent evidence: multiply and renormalize, so agreement sharpens the result
+                double sum = 0;
+                for (int i = 0; i < PERSONAS.length; i++) {
+                    probabilities[i] *= keywordScores[i];
+                    sum += probabilities[i];
+                }
+                for (int i = 0; i < PERSONAS.length; i++) {
+                    probabilities[i] /= sum;
+                }
+            }
+        }
+        if (probabilities == null) {
+            return new Classification(AdPersona.GENERAL_FRIENDLY, 0);
+        }
+
+        int best = best(probabilities);
+        return new Classification(PERSONAS[best], probabilities[best]);
+    }
+
+    public boolean hasTrainedModel() {
+        return model != null;
+    }
+
+    /**
+     * Trains the model once the application is up, then again every day.
+     */
+    @EventListener(ApplicationReadyEvent.class)
+    public void startTraining() {
+        trainingScheduler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "persona-classifier-training");
+            thread.setDaemon(true);
+            return thread;
+        });
+        trainingScheduler.scheduleWithFixedDelay(this::train, 0, RETRAIN_INTERVAL_HOURS, TimeUnit.HOURS);
+    }
+
+    @PreDestroy
+    public void stopTraining() {
+        if (trainingScheduler != null) {
+            trainingScheduler.shutdownNow();
+        }
+    }
+
+    /**
+     * (Re)trains the naive Bayes model from the most recent ads created with a persona. Each ad is
+     * labelled with the persona its stored {@link Persona} profile describes (interests, pain points,
+     * desired outcome and description, read with the keyword dictionary); ads whose persona profile
+     * names no category are left out rather than labelled {@link AdPersona#GENERAL_FRIENDLY}. The
+     * model is only replaced when there is enough history; until then classification uses keywords
+     * alone.
+     */
+    public void train() {
+        try {
+            List<Object[]> rows = adRepository.findPromptsWithPersona(PageRequest.of(0, TRAINING_LIMIT));
+            List<String> prompts = new ArrayList<>(rows.size());
+            List<AdPersona> labels = new ArrayList<>(rows.size());
+            Set<AdPersona> classes = EnumSet.noneOf(AdPersona.class);
+            Map<Persona, AdPersona> labelsByPersona = new IdentityHashMap<>();
+            for (Object[] row : rows) {
+                AdPersona label = labelsByPersona.computeIfAbsent((Persona) row[1], PersonaClassifier::labelOf);
+                if (label == null) {
+                    continue;
+                }
+                prompts.add(normalize((String) row[0]));
+                labels.add(label);
+                classes.add(label);
+            }
+            if (prompts.size() < MIN_TRAINING_EXAMPLES || classes.size() < 2) {
+                log.info("Persona model not trained: {} examples over {} personas, keywords only",
+                        prompts.size(), classes.size());
+                return;
+            }
+            model = NaiveBayesModel.train(prompts, labels);
+            log.info("Persona model trained on {} ads over {} personas", prompts.size(), classes.size());
+        } catch (Exception e) {
+            log.warn("Persona model training failed, keeping the previous model: {}", e.getMessage());
+        }
+    }
+
+    /**
+     * Persona category a stored persona profile describes, or {@code null} when its text has no keyword.
+     */
+    static AdPersona labelOf(Persona persona) {
+        StringBuilder profile = new StringBuilder();
+        for (List<String> values : List.of(persona.getInterests(), persona.getPainPoints())) {
+            if (values != null) {
+                values.forEach(value -> profile.append(value).append(". "));
+            }
+        }
+        for (String value : new String[] {persona.getDesiredOutcome(), persona.getDescription()}) {
+            if (value != null) {
+                profile.append(value).append(". ");
+            }
+        }
+        String text = normalize(profile.toString());
+        double[] scores = new double[PERSONAS.length];
+        boolean[] found = new boolean[1];
+        KEYWORD_MATCHER.scan(text, (keyword, start, end) -> {
+            if (isWordStart(text, start)) {
+                scores[keyword.persona.ordinal()] += keyword.weight;
+                found[0] = true;
+            }
+        });
+        return found[0] ? PERSONAS[best(scores)] : null;
+    }
+
+    private static int best(double[] scores) {
+        int best = 0;
+        for (int i = 1; i < scores.length; i++) {
+            if (scores[i] > scores[best]) {
+                best = i;
+            }
+        }
+        return best;
+    }
+
+    private static String normalize(String text) {
+        return Normalizer.normalize(text, Normalizer.Form.NFC).toLowerCase(Locale.ROOT);
+    }
+
+    private static boolean isWordStart(String text, int start) {
+        return start == 0 || !isWordChar(text.charAt(start - 1));
+    }
+
+    private static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || Character.getType(c) == Character.NON_SPACING_MARK;
+    }
+
+    /**
+     * Feeds every lower-case word and every pair of adjacent words of the text to {@code features}.
+     */
+    private static void forEachFeature(String text, Consumer<String> features) {
+        String previous = null;
+        int wordStart = -1;
+        for (int i = 0; i <= text.length(); i++) {
+            boolean wordChar = i < text.length() && isWordChar(text.charAt(i));
+            if (wordChar && wordStart < 0) {
+                wordStart = i;
+            } else if (!wordChar && wordStart >= 0) {
+                String word = text.substring(wordStart, i);
+                features.accept(word);
+                if (previous != null) {
+                    features.accept(previous + ' ' + word);
+                }
+                previous = word;
+                wordStart = -1;
+            }
+        }
+    }
+
+    private static void keywords(AdPersona persona, double weight, String... phrases) {
+        for (String phrase : phrases) {
+            KEYWORDS.add(new Keyword(KEYWORDS.size(), normalize(phrase), persona, weight));
+        }
+    }
+
+    private static AhoCorasickMatcher<Keyword> buildKeywordMatcher() {
+        AhoCorasickMatcher.Builder<Keyword> builder = AhoCorasickMatcher.builder();
+        for (Keyword keyword : KEYWORDS) {
+            builder.add(keyword.phrase, keyword);
+        }
+        return builder.build();
+    }
+
+    @Value
+    public static class Classification {
+        AdPersona persona;
+        /** Probability of {@link #persona}, between 0 and 1. */
+        double confidence;
+    }
+
+    private static final class Keyword {
+        private final int index;
+        private final String phrase;
+        private final AdPersona persona;
+        private final double weight;
+
+        private Keyword(int index, String phrase, AdPersona persona, double weight) {
+            this.index = index;
+            this.phrase = phrase;
+            this.persona = persona;
+            this.weight = weight;
+        }
+    }
+
+    /**
+     * Multinomial naive Bayes with Laplace smoothing. Features never seen in training are ignored.
+     * Immutable once trained.
+     */
+    private static final class NaiveBayesModel {
+        private final double[] logPriors;
+        private final Map<String, double[]> logLikelihoods;
+        private final boolean[] trained;
+
+        private NaiveBayesModel(double[] logPriors, Map<String, double[]> logLikelihoods, boolean[] trained) {
+            this.logPriors = logPriors;
+            this.logLikelihoods = logLikelihoods;
+            this.trained = trained;
+        }
+
+        boolean hasHistory(int persona) {
+            return trained[persona];
+        }
+
+        static NaiveBayesModel train(List<String> texts, List<AdPersona> labels) {
+            int classes = PERSONAS.length;
+            int[] documents = new int[classes];
+            long[] featureTotals = new long[classes];
+            Map<String, int[]> counts = new HashMap<>();
+            for (int doc = 0; doc < texts.size(); doc++) {
+                int label = labels.get(doc).ordinal();
+                documents[label]++;
+                forEachFeature(texts.get(doc), feature -> {
+                    counts.computeIfAbsent(feature, key -> new int[classes])[label]++;
+                    featureTotals[label]++;
+                });
+            }
+
+            double[] logPriors = new double[classes];
+            boolean[] trained = new boolean[classes];
+            for (int c = 0; c < classes; c++) {
+                trained[c] = documents[c] > 0;
+                // Personas without history get no probability rather than a guess from smoothing
+                logPriors[c] = trained[c] ? Math.log((double) documents[c] / texts.size()) : Double.NEGATIVE_INFINITY;
+            }
+            int vocabulary = counts.size();
+            Map<String, double[]> logLikelihoods = new HashMap<>(counts.size() * 2);
+            counts.forEach((feature, perClass) -> {
+                double[] values = new double[classes];
+                for (int c = 0; c < classes; c++) {
+                    values[c] = Math.log((perClass[c] + 1.0) / (featureTotals[c] + vocabulary));
+                }
+                logLikelihoods.put(feature, values);
+            });
+            return new NaiveBayesModel(logPriors, logLikelihoods, trained);
+        }
+
+        /**
+         * Probability of each persona, or {@code null} when no feature of the text was seen in
+         * training, since the priors alone say nothing about this prompt.
+         */
+        double[] posterior(String text) {
+            double[] scores = logPriors.clone();
+            int[] known = new int[1];
+            forEachFeature(text, feature -> {
+                double[] values = logLikelihoods.get(feature);
+                if (values != null) {
+                    known[0]++;
+                    for (int c = 0; c < scores.length; c++) {
+                        scores[c] += values[c];
+                    }
+                }
+            });
+            if (known[0] == 0) {
+                return null;
+            }
+            double max = Double.NEGATIVE_INFINITY;
+            for (double score : scores) {
+                max = Math.max(max, score);
+            }
+            double sum = 0;
+            for (int c = 0; c < scores.length; c++) {
+                scores[c] = trained[c] ? Math.exp(scores[c] - max) : 0;
+                sum += scores[c];
+            }
+            for (int c = 0; c < scores.length; c++) {
+                scores[c] /= sum;
+            }
+            return scores;
+        }
+    }
+}
@@ -6,15 +6,13 @@ import com.fbadsautomation.util.ValidationMessages.Language;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.cache.annotation.Cacheable;
 import org.springframework.stereotype.Service;
 
-import java.util.HashMap;
-import java.util.Map;
-
 /**
  * Service for dynamically selecting appropriate persona based on product/service analysis.
- * Uses AI to classify product category and map to predefined personas.
+ * Classifies locally with {@link PersonaClassifier} and only asks the AI when that is unsure.
  */
 @Service
 public class PersonaSelectorService {
@@ -24,80 +22,30 @@ public class PersonaSelectorService {
     @Autowired(required = false)
     private AIProviderService aiProviderService;
 
-    // Fallback keyword matching for persona selection
-    private static final Map<String, AdPersona> KEYWORD_PERSONA_MAP = new HashMap<>();
-
-    static {
-        // Gaming keywords
-        KEYWORD_PERSONA_MAP.put("game", AdPersona.GEN_Z_GAMER);
-        KEYWORD_PERSONA_MAP.put("gaming", AdPersona.GEN_Z_GAMER);
-        KEYWORD_PERSONA_MAP.put("play together", AdPersona.GEN_Z_GAMER);
-        KEYWORD_PERSONA_MAP.put("esport", AdPersona.GEN_Z_GAMER);
-        KEYWORD_PERSONA_MAP.put("streamer", AdPersona.GEN_Z_GAMER);
-        KEYWORD_PERSONA_MAP.put("rank", AdPersona.GEN_Z_GAMER);
-        KEYWORD_PERSONA_MAP.put("solo", AdPersona.GEN_Z_GAMER);
-        KEYWORD_PERSONA_MAP.put("duo", AdPersona.GEN_Z_GAMER);
-
-        // Fashion keywords
-        KEYWORD_PERSONA_MAP.put("thời trang", AdPersona.TRENDY_SHOPPER);
-        KEYWORD_PERSONA_MAP.put("fashion", AdPersona.TRENDY_SHOPPER);
-        KEYWORD_PERSONA_MAP.put("quần áo", AdPersona.TRENDY_SHOPPER);
-        KEYWORD_PERSONA_MAP.put("clothes", AdPersona.TRENDY_SHOPPER);
-        KEYWORD_PERSONA_MAP.put("phụ kiện", AdPersona.TRENDY_SHOPPER);
-        KEYWORD_PERSONA_MAP.put("accessories", AdPersona.TRENDY_SHOPPER);
-        KEYWORD_PERSONA_MAP.put("outfit", AdPersona.TRENDY_SHOPPER);
-        KEYWORD_PERSONA_MAP.put("style", AdPersona.TRENDY_SHOPPER);
-
-        // Education keywords
-        KEYWORD_PERSONA_MAP.put("học", AdPersona.STUDENT_FOCUSED);
-        KEYWORD_PERSONA_MAP.put("education", AdPersona.STUDENT_FOCUSED);
-        KEYWORD_PERSONA_MAP.put("khóa học", AdPersona.STUDENT_FOCUSED);
-        KEYWORD_PERSONA_MAP.put("course", AdPersona.STUDENT_FOCUSED);
-        KEYWORD_PERSONA_MAP.put("ielts", AdPersona.STUDENT_FOCUSED);
-        KEYWORD_PERSONA_MAP.put("toeic", AdPersona.STUDENT_FOCUSED);
-        KEYWORD_PERSONA_MAP.put("luyện thi", AdPersona.STUDENT_FOCUSED);
-        KEYWORD_PERSONA_MAP.put("exam prep", AdPersona.STUDENT_FOCUSED);
-
-        // Finance/B2B keywords
-        KEYWORD_PERSONA_MAP.put("tài chính", AdPersona.PROFESSIONAL_TRUSTWORTHY);
-        KEYWORD_PERSONA_MAP.put("finance", AdPersona.PROFESSIONAL_TRUSTWORTHY);
-        KEYWORD_PERSONA_MAP.put("kế toán", AdPersona.PROFESSIONAL_TRUSTWORTHY);
-        KEYWORD_PERSONA_MAP.put("accounting", AdPersona.PROFESSIONAL_TRUSTWORTHY);
-        KEYWORD_PERSONA_MAP.put("doanh nghiệp", AdPersona.PROFESSIONAL_TRUSTWORTHY);
-        KEYWORD_PERSONA_MAP.put("business", AdPersona.PROFESSIONAL_TRUSTWORTHY);
-        KEYWORD_PERSONA_MAP.put("b2b", AdPersona.PROFESSIONAL_TRUSTWORTHY);
-        KEYWORD_PERSONA_MAP.put("enterprise", AdPersona.PROFESSIONAL_TRUSTWORTHY);
-
-        // Health/Fitness keywords
-        KEYWORD_PERSONA_MAP.put("sức khỏe", AdPersona.HEALTH_WELLNESS);
-        KEYWORD_PERSONA_MAP.put("health", AdPersona.HEALTH_WELLNESS);
-        KEYWORD_PERSONA_MAP.put("fitness", AdPersona.HEALTH_WELLNESS);
-        KEYWORD_PERSONA_MAP.put("gym", AdPersona.HEALTH_WELLNESS);
-        KEYWORD_PERSONA_MAP.put("giảm cân", AdPersona.HEALTH_WELLNESS);
-        KEYWORD_PERSONA_MAP.put("weight loss", AdPersona.HEALTH_WELLNESS);
-        KEYWORD_PERSONA_MAP.put("beauty", AdPersona.HEALTH_WELLNESS);
-        KEYWORD_PERSONA_MAP.put("làm đẹp", AdPersona.HEALTH_WELLNESS);
-
-        // Food keywords
-        KEYWORD_PERSONA_MAP.put("ăn", AdPersona.FOOD_BEVERAGE);
-        KEYWORD_PERSONA_MAP.put("food", AdPersona.FOOD_BEVERAGE);
-        KEYWORD_PERSONA_MAP.put("nhà hàng", AdPersona.FOOD_BEVERAGE);
-        KEYWORD_PERSONA_MAP.put("restaurant", AdPersona.FOOD_BEVERAGE);
-        KEYWORD_PERSONA_MAP.put("món ăn", AdPersona.FOOD_BEVERAGE);
-        KEYWORD_PERSONA_MAP.put("dish", AdPersona.FOOD_BEVERAGE);
-        KEYWORD_PERSONA_MAP.put("cafe", AdPersona.FOOD_BEVERAGE);
-        KEYWORD_PERSONA_MAP.put("đồ uống", AdPersona.FOOD_BEVERAGE);
-    }
+    @Autowired
+    private PersonaClassifier personaClassifier;
+
+    // Local classifications at least this confident skip the LLM call
+    @Value("${persona.classifier.min-confidence:0.6}")
+    private double minConfidence = 0.6;
 
     /**
-     * Select persona based on product description with AI classification + keyword fallback
+     * Select persona based on product description. The local classifier answers confident cases;
+     * only low-confidence prompts escalate to AI classification, with the local result as fallback.
      * Results are cached for 24 hours to reduce API calls
      */
-    @Cacheable(value = "personaSelection", key = "#productPrompt", unless = "#result == null")
+    @Cacheable(value = "personaSelection", keyGenerator = "digestKeyGenerator", unless = "#result == null")
     public AdPersona selectPersona(String productPrompt, Language language) {
         log.info("Selecting persona for prompt: {}", productPrompt.substring(0, Math.min(100, productPrompt.length())));
 
-        // Try AI-powered classification first
+        PersonaClassifier.Classification local = personaClassifier.classify(productPrompt);
+        if (local.getConfidence() >= minConfidence) {
+            log.info("Classifier selected persona: {} (confidence {})", local.getPersona().name(),
+                    String.format("%.2f", local.getConfidence()));
+            return local.getPersona();
+        }
+
+        // Low confidence: try AI-powered classification
         if (aiProviderService != null) {
             try {
                 AdPersona aiSelected = classifyWithAI(productPrompt, language);
@@ -106,14 +54,13 @@ public class PersonaSelectorService {
                     return aiSelected;
                 }
             } catch (Exception e) {
-                log.warn("AI persona classification failed, falling back to keyword matching: {}", e.getMessage());
+                log.warn("AI persona classification failed, falling back to local classification: {}", e.getMessage());
             }
         }
 
-        // Fallback to keyword-based matching
-        AdPersona keywordSelected = classifyWithKeywords(productPrompt);
-        log.info("Keyword selected persona: {} for category: {}", keywordSelected.name(), keywordSelected.getCategory());
-        return keywordSelected;
+        log.info("Classifier selected persona: {} for category: {} (low confidence {})", local.getPersona().name(),
+                local.getPersona().getCategory(), String.format("%.2f", local.getConfidence()));
+        return local.getPersona();
     }
 
     /**
@@ -222,31 +169,4 @@ public class PersonaSelectorService {
             return AdPersona.GENERAL_FRIENDLY;
         }
     }
-
-    /**
-     * Keyword-based classification (fallback)
-     */
-    private AdPersona classifyWithKeywords(String productPrompt) {
-        String lowerPrompt = productPrompt.toLowerCase();
-
-        // Count matches for each persona
-        Map<AdPersona, Integer> matchCounts = new HashMap<>();
-
-        for (Map.Entry<String, AdPersona> entry : KEYWORD_PERSONA_MAP.entrySet()) {
-            if (lowerPrompt.contains(entry.getKey())) {
-                matchCounts.put(entry.getValue(), matchCounts.getOrDefault(entry.getValue(), 0) + 1);
-            }
-        }
-
-        // Return persona with most keyword matches
-        if (!matchCounts.isEmpty()) {
-            return matchCounts.entrySet().stream()
-                    .max(Map.Entry.comparingByValue())
-                    .get()
-                    .getKey();
-        }
-
-        // Default to GENERAL_FRIENDLY if no matches
-        return AdPersona.GENERAL_FRIENDLY;
-    }
 }
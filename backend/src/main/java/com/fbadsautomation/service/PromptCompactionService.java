@@ -0,0 +1,197 @@
+package com.fbadsautomation.service;
+
+import com.fbadsautomation.config.DigestKeyGenerator;
+import com.fbadsautomation.config.PromptBudgetConfig;
+import com.fbadsautomation.util.text.TokenEstimator;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import java.text.BreakIterator;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import lombok.RequiredArgsConstructor;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.stereotype.Service;
+
+/**
+ * Keeps the variable sections of generation prompts (reference ads, trending keywords, audience)
+ * inside their token budgets from {@link PromptBudgetConfig}, and records the estimated size of every
+ * prompt sent to a provider per prompt strategy.
+ *
+ * Token counts are {@link TokenEstimator} estimates scaled by the provider's tokenizer cost, so a
+ * budget means roughly the same number of billed tokens on every provider.
+ */
+@Service
+@RequiredArgsConstructor
+public class PromptCompactionService {
+
+    private static final Logger log = LoggerFactory.getLogger(PromptCompactionService.class);
+    public static final String SUMMARY_CACHE = "referenceSummaries";
+    private static final String GAP = "… ";
+    private static final DigestKeyGenerator CONTENT_DIGEST = new DigestKeyGenerator();
+
+    private final PromptBudgetConfig budgetConfig;
+    private final CacheManager cacheManager;
+    private final MeterRegistry meterRegistry;
+
+    public int estimateTokens(String provider, CharSequence text) {
+        return (int) Math.ceil(TokenEstimator.estimate(text) * budgetConfig.getTokenizerScale(provider));
+    }
+
+    /**
+     * Shortens a reference ad to the reference budget. The opening and the closing sentence carry the
+     * hook and the call to action the generator is asked to mirror, so they are kept and the middle is
+     * filled with as many sentences as fit, in their original order. Summaries are cached because the
+     * same reference ad is usually sent with every variation and retry.
+     */
+    public String compactReference(String reference, String provider) {
+        Integer budget = providerBudget(PromptBudgetConfig.REFERENCE, provider);
+        if (reference == null || budget == null || TokenEstimator.estimate(reference) <= budget) {
+            return reference;
+        }
+        String key = CONTENT_DIGEST.digest(budget, reference);
+        String summary;
+        try {
+            Cache cache = cacheManager.getCache(SUMMARY_CACHE);
+            summary = cache != null ? cache.get(key, () -> summarize(reference, budget)) : summarize(reference, budget);
+        } catch (RuntimeException e) {
+            log.warn("Reference summary cache unavailable: {}", e.getMessage());
+            summary = summarize(reference, budget);
+        }
+        recordCompaction(PromptBudgetConfig.REFERENCE, reference, summary, provider);
+        return summary;
+    }
+
+    /**
+     * Keeps keywords in their given (priority) order until the keyword budget is spent.
+     */
+    public List<String> limitKeywords(List<String> keywords, String provider) {
+        Integer budget = providerBudget(PromptBudgetConfig.KEYWORDS, provider);
+        if (keywords == null || budget == null) {
+            return keywords;
+        }
+        List<String> kept = new ArrayList<>(keywords.size());
+        int used = 0;
+        for (String keyword : keywords) {
+            // Each keyword is listed on its own numbered line
+            int cost = TokenEstimator.estimate(keyword) + 2;
+            if (used + cost > budget && !kept.isEmpty()) {
+                break;
+            }
+            kept.add(keyword);
+            used += cost;
+        }
+        if (kept.size() < keywords.size()) {
+            recordCompaction(PromptBudgetConfig.KEYWORDS, String.join(", ", keywords), String.join(", ", kept), provider);
+            return kept;
+        }
+        return keywords;
+    }
+
+    /**
+     * Truncates free text of a budgeted section, such as the campaign audience, at a word boundary.
+     */
+    public String limitSection(String section, String text, String provider) {
+        Integer budget = providerBudget(section, provider);
+        if (text == null || budget == null || TokenEstimator.estimate(text) <= budget) {
+            return text;
+        }
+        String truncated = truncate(text, budget);
+        recordCompaction(section, text, truncated, provider);
+        return truncated;
+    }
+
+    /**
+     * Records the estimated size of a prompt about to be sent, as {@code ai.prompt.tokens} tagged with
+     * the prompt strategy and provider.
+     */
+    public void recordPrompt(String strategy, String provider, String prompt) {
+        int tokens = estimateTokens(provider, prompt);
+        DistributionSummary.builder("ai.prompt.tokens")
+            .description("Estimated tokens of generation prompts")
+            .baseUnit("tokens")
+            .tag("strategy", strategy)
+            .tag("provider", String.valueOf(provider))
+            .publishPercentiles(0.5, 0.95)
+            .register(meterRegistry)
+            .record(tokens);
+        if (tokens > budgetConfig.getTotalTokens()) {
+            log.warn("[Prompt] {} prompt for {} is ~{} tokens, above the {} token budget",
+                strategy, provider, tokens, budgetConfig.getTotalTokens());
+        }
+    }
+
+    String summarize(String reference, int budget) {
+        List<String> sentences = sentences(reference);
+        if (sentences.size() < 3) {
+            return truncate(reference, budget);
+        }
+        String first = sentences.get(0);
+        String last = sentences.get(sentences.size() - 1).trim();
+        int used = TokenEstimator.estimate(first) + TokenEstimator.estimate(last) + 1;
+        if (used > budget) {
+            return truncate(reference, budget);
+        }
+        StringBuilder summary = new StringBuilder(reference.length()).append(first);
+        boolean skipped = false;
+        for (int i = 1; i < sentences.size() - 1; i++) {
+            String sentence = sentences.get(i);
+            int cost = TokenEstimator.estimate(sentence);
+            if (used + cost > budget) {
+                skipped = true;
+                continue;
+            }
+            summary.append(skipped ? GAP : "").append(sentence);
+            skipped = false;
+            used += cost;
+        }
+        return summary.append(skipped ? GAP : "").append(last).toString();
+    }
+
+    // Sentences keep their trailing whitespace, so kept sentences keep the original line breaks
+    private List<String> sentences(String text) {
+        BreakIterator iterator = BreakIterator.getSentenceInstance(Locale.ROOT);
+        iterator.setText(text);
+        List<String> sentences = new ArrayList<>();
+        int start = iterator.first();
+        for (int end = iterator.next(); end != BreakIterator.DONE; start = end, end = iterator.next()) {
+            String sentence = text.substring(start, end);
+            if (!sentence.isBlank()) {
+                sentences.add(sentence);
+            }
+        }
+        return sentences;
+    }
+
+    private String truncate(String text, int budget) {
+        int cut = TokenEstimator.prefixLength(text, Math.max(budget - 1, 0));
+        int space = text.lastIndexOf(' ', cut);
+        if (space > cut / 2) {
+            cut = space;
+        }
+        return text.substring(0, cut).trim() + " …";
+    }
+
+    private Integer providerBudget(String section, String provider) {
+        Integer budget = budgetConfig.getSectionBudget(section);
+        if (budget == null) {
+            return null;
+        }
+        // Budgets are billed tokens; convert to the estimator's scale for this provider
+        return (int) Math.floor(budget / budgetConfig.getTokenizerScale(provider));
+    }
+
+    private void recordCompaction(String section, String original, String compacted, String provider) {
+        Counter.builder("ai.prompt.compactions")
+            .description("Prompt sections shortened to fit their token budget")
+            .tag("section", section)
+            .register(meterRegistry)
+            .increment();
+        log.info("[Prompt] Compacted {} section for {}: ~{} -> ~{} tokens",
+            section, provider, estimateTokens(provider, original), estimateTokens(provider, compacted));
+    }
+}
@@ -25,7 +25,7 @@ public class PromptValidationService {
     private static final int MIN_GOOD_SCORE = 60;
     private static final int MIN_FAIR_SCORE = 40;
 
-    @Cacheable(value = "promptValidation", key = "#prompt + '_' + #adType + '_' + #language + '_' + #targetAudience + '_' + #industry", unless = "#result == null")
+    @Cacheable(value = "promptValidation", keyGenerator = "digestKeyGenerator", unless = "#result == null")
     public PromptValidationResponse validatePrompt(
             String prompt,
             String adType,
@@ -0,0 +1,390 @@
+package com.fbadsautomation.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.core.type.TypeReference;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fbadsautomation.model.AdContent;
+import com.fbadsautomation.model.AdContentQualityScore;
+import com.fbadsautomation.model.QualityScoreAggregate;
+import com.fbadsautomation.repository.AdContentQualityScoreRepository;
+import com.fbadsautomation.repository.AdContentRepository;
+import com.fbadsautomation.repository.QualityScoreAggregateRepository;
+import com.fbadsautomation.service.AdQualityScoringService.AdQualityScore;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.charset.CharsetEncoder;
+import java.nio.charset.CoderResult;
+import java.nio.charset.CodingErrorAction;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.DoubleSummaryStatistics;
+import java.util.HashMap;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Serves quality scores from the {@code ad_content_quality_scores} store and only runs
+ * {@link AdQualityScoringService} for contents whose copy or scorer version changed since they were
+ * last scored. Batches are hashed and scored on the {@code qualityScoringPool} fork-join pool, and
+ * ad or campaign statistics are read from the trigger-maintained {@link QualityScoreAggregate} rows
+ * instead of being recomputed from every variation.
+ */
+@Service
+public class QualityScoreService {
+
+    private static final Logger log = LoggerFactory.getLogger(QualityScoreService.class);
+    private static final TypeReference<List<String>> STRING_LIST = new TypeReference<>() {};
+    // Smaller batches are cheaper to score on the calling thread than to hand to the pool
+    private static final int PARALLEL_THRESHOLD = 8;
+    // Each pool worker keeps its own digest and encode buffer instead of allocating them per content
+    private static final ThreadLocal<ContentHasher> HASHERS = ThreadLocal.withInitial(ContentHasher::new);
+
+    private final AdQualityScoringService scoringService;
+    private final AdContentQualityScoreRepository scoreRepository;
+    private final QualityScoreAggregateRepository aggregateRepository;
+    private final AdContentRepository adContentRepository;
+    private final ObjectMapper objectMapper;
+    private final ForkJoinPool scoringPool;
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    public QualityScoreService(AdQualityScoringService scoringService,
+                               AdContentQualityScoreRepository scoreRepository,
+                               QualityScoreAggregateRepository aggregateRepository,
+                               AdContentRepository adContentRepository,
+                               ObjectMapper objectMapper,
+                               @Qualifier("qualityScoringPool") ForkJoinPool scoringPool) {
+        this.scoringService = scoringService;
+        this.scoreRepository = scoreRepository;
+        this.aggregateRepository = aggregateRepository;
+        this.adContentRepository = adContentRepository;
+        this.objectMapper = objectMapper;
+        this.scoringPool = scoringPool;
+    }
+
+    @Transactional
+    public AdQualityScore getScore(AdContent content) {
+        return getScores(List.of(content)).get(0);
+    }
+
+    /**
+     * Scores of the given contents, in order. Stored scores are reused when the content hash and
+     * scorer version still match; everything else is scored and stored.
+     */
+    @Transactional
+    public List<AdQualityScore> getScores(List<AdContent> contents) {
+        if (contents.isEmpty()) {
+            return List.of();
+        }
+        List<Long> ids = contents.stream()
+            .map(AdContent::getId)
+            .filter(id -> id != null)
+            .collect(Collectors.toList());
+        Map<Long, AdContentQualityScore> stored = scoreRepository.findAllById(ids).stream()
+            .collect(Collectors.toMap(AdContentQualityScore::getAdContentId, Function.identity()));
+
+        List<Evaluation> evaluations = mapOnPool(contents,
+            content -> evaluate(content, content.getId() != null ? stored.get(content.getId()) : null));
+
+        List<AdQualityScore> scores = new ArrayList<>(evaluations.size());
+        List<AdContentQualityScore> changed = new ArrayList<>();
+        int rescored = 0;
+        for (Evaluation evaluation : evaluations) {
+            scores.add(evaluation.score);
+            AdContent content = evaluation.content;
+            if (content.getId() == null || content.getAd() == null) {
+                continue;
+            }
+            AdContentQualityScore existing = stored.get(content.getId());
+            if (evaluation.rescored) {
+                changed.add(toEntity(content, evaluation.contentHash, evaluation.score, existing));
+                rescored++;
+            } else if (isOlderThan(existing, content)) {
+                // Edited without touching the scored copy: confirm the score so the aggregate counts as fresh
+                existing.setScoredAt(LocalDateTime.now());
+                changed.add(existing);
+            }
+        }
+        if (!changed.isEmpty()) {
+            scoreRepository.saveAll(changed);
+        }
+        log.debug("Quality scores for {} contents: {} rescored, {} reused",
+            contents.size(), rescored, contents.size() - rescored);
+        return scores;
+    }
+
+    /**
+     * Statistics over the variations of an ad, or empty when the ad has no content.
+     */
+    @Transactional
+    public Optional<Map<String, Object>> getAdStats(Long adId) {
+        Optional<Map<String, Object>> stats = getStats(QualityScoreAggregate.SCOPE_AD, adId,
+            () -> adContentRepository.countStaleQualityScoresByAdId(adId, AdQualityScoringService.SCORER_VERSION),
+            () -> adContentRepository.findByAdId(adId));
+        stats.ifPresent(map -> map.put("scores", scoreRepository.findByAdIdOrderByAdContentIdAsc(adId).stream()
+            .map(this::toScore)
+            .filter(score -> score != null)
+            .map(AdQualityScore::toMap)
+            .collect(Collectors.toList())));
+        return stats;
+    }
+
+    /**
+     * Statistics over the variations of every ad of a campaign, or empty when it has no content.
+     */
+    @Transactional
+    public Optional<Map<String, Object>> getCampaignStats(Long campaignId) {
+        return getStats(QualityScoreAggregate.SCOPE_CAMPAIGN, campaignId,
+            () -> adContentRepository.countStaleQualityScoresByCampaignId(campaignId,
+                AdQualityScoringService.SCORER_VERSION),
+            () -> adContentRepository.findByAdCampaignId(campaignId));
+    }
+
+    /**
+     * Reads the aggregate of a scope when every content in it has a score from the current scorer
+     * version taken after its last edit; otherwise the missing or outdated scores are brought up to
+     * date first.
+     */
+    private Optional<Map<String, Object>> getStats(String scope, Long scopeId, Supplier<Long> staleCount,
+                                                   Supplier<List<AdContent>> contents) {
+        QualityScoreAggregate.Key key = new QualityScoreAggregate.Key(scope, scopeId);
+        Optional<QualityScoreAggregate> aggregate = aggregateRepository.findById(key);
+        if (aggregate.isPresent() && staleCount.get() == 0) {
+            return Optional.of(toStats(aggregate.get()));
+        }
+
+        // Never scored, or variations were added, edited or scored by an older scorer since: rescore
+        // what changed once, the trigger brings the aggregate up to date
+        List<AdContent> scopeContents = contents.get();
+        if (scopeContents.isEmpty()) {
+            return Optional.empty();
+        }
+        List<AdQualityScore> scores = getScores(scopeContents);
+        scoreRepository.flush();
+        if (aggregate.isPresent()) {
+            // The trigger changed the row behind the persistence context
+            entityManager.refresh(aggregate.get());
+        } else {
+            aggregate = aggregateRepository.findById(key);
+        }
+        if (aggregate.isPresent()) {
+            return Optional.of(toStats(aggregate.get()));
+        }
+        log.warn("No quality score aggregate for {} {}, computing statistics in memory", scope, scopeId);
+        return Optional.of(toStats(scores));
+    }
+
+    private Evaluation evaluate(AdContent content, AdContentQualityScore stored) {
+        String contentHash = HASHERS.get().hash(content);
+        if (stored != null && contentHash.equals(stored.getContentHash())
+            && Integer.valueOf(AdQualityScoringService.SCORER_VERSION).equals(stored.getScorerVersion())) {
+            AdQualityScore score = toScore(stored);
+            if (score != null) {
+                return new Evaluation(content, contentHash, score, false);
+            }
+        }
+        return new Evaluation(content, contentHash, scoringService.calculateQualityScore(content), true);
+    }
+
+    private static boolean isOlderThan(AdContentQualityScore stored, AdContent content) {
+        return stored != null && content.getUpdatedAt() != null
+            && (stored.getScoredAt() == null || stored.getScoredAt().isBefore(content.getUpdatedAt()));
+    }
+
+    private <T> List<T> mapOnPool(List<AdContent> contents, Function<AdContent, T> mapper) {
+        if (contents.size() < PARALLEL_THRESHOLD) {
+            return contents.stream().map(mapper).collect(Collectors.toList());
+        }
+        // A parallel stream started from inside the pool splits its work across the pool's workers
+        try {
+            return scoringPool.submit(() -> contents.parallelStream().map(mapper).collect(Collectors.toList())).get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while scoring ad contents", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException("Quality scoring failed", e.getCause());
+        }
+    }
+
+    private AdContentQualityScore toEntity(AdContent content, String contentHash, AdQualityScore score,
+                                           AdContentQualityScore existing) {
+        AdContentQualityScore entity = existing != null ? existing : new AdContentQualityScore();
+        entity.setAdContentId(content.getId());
+        entity.setAdId(content.getAd().getId());
+        entity.setCampaignId(content.getAd().getCampaign() != null ? content.getAd().getCampaign().getId() : null);
+        entity.setContentHash(contentHash);
+        entity.setScorerVersion(AdQualityScoringService.SCORER_VERSION);
+        entity.setComplianceScore(score.getComplianceScore());
+        entity.setLinguisticScore(score.getLinguisticScore());
+        entity.setPersuasivenessScore(score.getPersuasivenessScore());
+        entity.setCompletenessScore(score.getCompletenessScore());
+        entity.setTotalScore(score.getTotalScore());
+        entity.setGrade(score.getGrade());
+        entity.setSuggestionsJson(writeJson(score.getSuggestions()));
+        entity.setStrengthsJson(writeJson(score.getStrengths()));
+        entity.setFeaturesJson(writeJson(score.getFeatures()));
+        entity.setScoredAt(LocalDateTime.now());
+        return entity;
+    }
+
+    /**
+     * Rebuilds the score from its stored row, or {@code null} when the row cannot be read back.
+     */
+    private AdQualityScore toScore(AdContentQualityScore stored) {
+        try {
+            AdQualityScore score = new AdQualityScore();
+            score.setAdContentId(stored.getAdContentId());
+            score.setComplianceScore(stored.getComplianceScore());
+            score.setLinguisticScore(stored.getLinguisticScore());
+            score.setPersuasivenessScore(stored.getPersuasivenessScore());
+            score.setCompletenessScore(stored.getCompletenessScore());
+            score.setTotalScore(stored.getTotalScore());
+            score.setGrade(stored.getGrade());
+            score.setSuggestions(readJson(stored.getSuggestionsJson(), STRING_LIST, List.of()));
+            score.setStrengths(readJson(stored.getStrengthsJson(), STRING_LIST, List.of()));
+            score.setFeatures(readJson(stored.getFeaturesJson(), new TypeReference<double[]>() {}, null));
+            return score;
+        } catch (JsonProcessingException e) {
+            log.warn("Stored quality score of ad content {} is unreadable: {}", stored.getAdContentId(), e.getMessage());
+            return null;
+        }
+    }
+
+    private String writeJson(Object value) {
+        try {
+            return value != null ? objectMapper.writeValueAsString(value) : null;
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize quality score", e);
+        }
+    }
+
+    private <T> T readJson(String json, TypeReference<T> type, T fallback) throws JsonProcessingException {
+        return json != null ? objectMapper.readValue(json, type) : fallback;
+    }
+
+    private static Map<String, Object> toStats(QualityScoreAggregate aggregate) {
+        int count = aggregate.getScoreCount();
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("count", count);
+        stats.put("totalScore", dimension(aggregate.getSumTotal() / count, aggregate.getMinTotal(), aggregate.getMaxTotal()));
+        stats.put("complianceScore", dimension(aggregate.getSumCompliance() / count,
+            aggregate.getMinCompliance(), aggregate.getMaxCompliance()));
+        stats.put("linguisticScore", dimension(aggregate.getSumLinguistic() / count,
+            aggregate.getMinLinguistic(), aggregate.getMaxLinguistic()));
+        stats.put("persuasivenessScore", dimension(aggregate.getSumPersuasiveness() / count,
+            aggregate.getMinPersuasiveness(), aggregate.getMaxPersuasiveness()));
+        stats.put("completenessScore", dimension(aggregate.getSumCompleteness() / count,
+            aggregate.getMinCompleteness(), aggregate.getMaxCompleteness()));
+        return stats;
+    }
+
+    private static Map<String, Object> toStats(List<AdQualityScore> scores) {
+        Map<String, Object> stats = new HashMap<>();
+        stats.put("count", scores.size());
+        stats.put("totalScore", dimension(scores, AdQualityScore::getTotalScore));
+        stats.put("complianceScore", dimension(scores, AdQualityScore::getComplianceScore));
+        stats.put("linguisticScore", dimension(scores, AdQualityScore::getLinguisticScore));
+        stats.put("persuasivenessScore", dimension(scores, AdQualityScore::getPersuasivenessScore));
+        stats.put("completenessScore", dimension(scores, AdQualityScore::getCompletenessScore));
+        return stats;
+    }
+
+    private static Map<String, Object> dimension(List<AdQualityScore> scores, ToDoubleFunction<AdQualityScore> value) {
+        DoubleSummaryStatistics summary = scores.stream().mapToDouble(value).summaryStatistics();
+        return dimension(summary.getAverage(), summary.getMin(), summary.getMax());
+    }
+
+    private static Map<String, Object> dimension(double average, double min, double max) {
+        return Map.of("average", average, "min", min, "max", max);
+    }
+
+    private static final class Evaluation {
+        private final AdContent content;
+        private final String contentHash;
+        private final AdQualityScore score;
+        private final boolean rescored;
+
+        private Evaluation(AdContent content, String contentHash, AdQualityScore score, boolean rescored) {
+            this.content = content;
+            this.contentHash = contentHash;
+            this.score = score;
+            this.rescored = rescored;
+        }
+    }
+
+    /**
+     * SHA-256 over the scored fields, streamed through a fixed encode buffer. Every field is prefixed
+     * with its length, so neither {@code null} and {@code ""} nor moved text between fields collide.
+     * Not thread-safe; one instance per thread.
+     */
+    static final class ContentHasher {
+        private final MessageDigest digest;
+        private final CharsetEncoder encoder = StandardCharsets.UTF_8.newEncoder()
+            .onMalformedInput(CodingErrorAction.REPLACE)
+            .onUnmappableCharacter(CodingErrorAction.REPLACE);
+        private final ByteBuffer buffer = ByteBuffer.allocate(1024);
+
+        ContentHasher() {
+            try {
+                digest = MessageDigest.getInstance("SHA-256");
+            } catch (NoSuchAlgorithmException e) {
+                throw new IllegalStateException("SHA-256 not available", e);
+            }
+        }
+
+        String hash(AdContent content) {
+            digest.reset();
+            update(content.getHeadline());
+            update(content.getDescription());
+            update(content.getPrimaryText());
+            update(content.getCallToAction() != null ? content.getCallToAction().name() : null);
+            return HexFormat.of().formatHex(digest.digest());
+        }
+
+        private void update(String value) {
+            buffer.clear();
+            buffer.putInt(value != null ? value.length() : -1);
+            if (value != null) {
+                CharBuffer chars = CharBuffer.wrap(value);
+                encoder.reset();
+                CoderResult result;
+                do {
+                    result = encoder.encode(chars, buffer, true);
+                    drain();
+                } while (result.isOverflow());
+                encoder.flush(buffer);
+            }
+            drain();
+        }
+
+        private void drain() {
+            buffer.flip();
+            digest.update(buffer);
+            buffer.clear();
+        }
+    }
+}
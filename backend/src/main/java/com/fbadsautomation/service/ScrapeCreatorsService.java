@@ -1,14 +1,24 @@
 package com.fbadsautomation.service;
 
+import com.fbadsautomation.util.TokenBucket;
 import java.net.URLEncoder;
-import java.util.ArrayList;
+import java.time.Duration;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.function.BiConsumer;
+import java.util.stream.Collectors;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
 import org.springframework.http.HttpEntity;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpMethod;
@@ -21,11 +31,27 @@ public class ScrapeCreatorsService {
 
     private static final Logger log = LoggerFactory.getLogger(ScrapeCreatorsService.class);
 
+    public static final String AD_CACHE = "competitorAds";
+    // Longest a call waits for the rate limiter before giving up with RATE_LIMITED
+    private static final Duration MAX_QUOTA_WAIT = Duration.ofSeconds(30);
+
     private final RestTemplate restTemplate;
-    
+    private final CacheManager cacheManager;
+    private final Executor fetchExecutor;
+    private final TokenBucket rateLimiter;
+    // Concurrent fetches of the same ad share one API call
+    private final Map<String, CompletableFuture<Map<String, Object>>> inFlight = new ConcurrentHashMap<>();
+
     @Autowired
-    public ScrapeCreatorsService(RestTemplate restTemplate) {
+    public ScrapeCreatorsService(RestTemplate restTemplate,
+                                 CacheManager cacheManager,
+                                 @Qualifier("competitorFetchExecutor") Executor fetchExecutor,
+                                 @Value("${scrape.creators.rate-limit.burst:10}") int burst,
+                                 @Value("${scrape.creators.rate-limit.per-second:5}") double perSecond) {
         this.restTemplate = restTemplate;
+        this.cacheManager = cacheManager;
+        this.fetchExecutor = fetchExecutor;
+        this.rateLimiter = new TokenBucket(burst, perSecond);
     }
     
     @Value("${scrape.creators.api.key:your-api-key-here}")
@@ -35,12 +61,52 @@ public class ScrapeCreatorsService {
     private String baseUrl;
 
     /**
-     * Gọi ScrapeCreators API để lấy thông tin quảng cáo Facebook
+     * Gọi ScrapeCreators API để lấy thông tin quảng cáo Facebook.
+     * Kết quả thành công được cache theo ad ID; các lời gọi đồng thời cho cùng một ad dùng chung một request.
      * @param adId Facebook Ad ID
      * @param getTranscript Có lấy transcript hay không
-     * @return Kết quả từ API
+     * @return Kết quả từ API, hoặc Map có key "error" khi thất bại
      */
     public Map<String, Object> scrapeCreators(String adId, boolean getTranscript) {
+        String key = getTranscript ? adId + ":transcript" : adId;
+        Map<String, Object> cached = cachedAd(key);
+        if (cached != null) {
+            log.debug("ScrapeCreators cache hit for ad ID: {}", adId);
+            return cached;
+        }
+
+        CompletableFuture<Map<String, Object>> call = new CompletableFuture<>();
+        CompletableFuture<Map<String, Object>> existing = inFlight.putIfAbsent(key, call);
+        if (existing != null) {
+            return existing.join();
+        }
+        try {
+            Map<String, Object> result = callAdApi(adId, getTranscript);
+            if (!result.containsKey("error")) {
+                cacheAd(key, result);
+            }
+            call.complete(result);
+            return result;
+        } catch (RuntimeException e) {
+            call.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(key, call);
+        }
+    }
+
+    /**
+     * Gọi API cho một ad trên {@code competitorFetchExecutor}, không chặn thread gọi.
+     */
+    public CompletableFuture<Map<String, Object>> scrapeCreatorsAsync(String adId, boolean getTranscript) {
+        Map<String, Object> cached = cachedAd(getTranscript ? adId + ":transcript" : adId);
+        if (cached != null) {
+            return CompletableFuture.completedFuture(cached);
+        }
+        return CompletableFuture.supplyAsync(() -> scrapeCreators(adId, getTranscript), fetchExecutor);
+    }
+
+    private Map<String, Object> callAdApi(String adId, boolean getTranscript) {
         log.info("Calling ScrapeCreators API for ad ID: {}", adId);
 
         // Kiểm tra API key với logging rõ ràng
@@ -54,6 +120,10 @@ public class ScrapeCreatorsService {
             return error;
         }
 
+        if (!awaitQuota()) {
+            return rateLimitedError();
+        }
+
         try {
             String url = baseUrl + "/facebook/adLibrary/ad?id=" + adId;
             if (getTranscript) {
@@ -120,27 +190,83 @@ public class ScrapeCreatorsService {
     }
 
     /**
-     * Gọi ScrapeCreators API cho nhiều ad IDs
+     * Gọi ScrapeCreators API cho nhiều ad IDs song song, trong giới hạn của rate limiter
      * @param adIds Danh sách Facebook Ad IDs
      * @param getTranscript Có lấy transcript hay không
-     * @return Danh sách kết quả
+     * @return Danh sách kết quả, cùng thứ tự với adIds
      */
     public List<Map<String, Object>> scrapeCreatorsBatch(List<String> adIds, boolean getTranscript) {
-        List<Map<String, Object>> results = new ArrayList<>();
+        Map<String, CompletableFuture<Map<String, Object>>> calls = new LinkedHashMap<>();
         for (String adId : adIds) {
-            Map<String, Object> result = scrapeCreators(adId, getTranscript);
-            results.add(result);
-            
-            // Thêm delay nhỏ giữa các requests để tránh rate limiting
-            try {
-                Thread.sleep(500);
-            } catch (InterruptedException e) {
-                Thread.currentThread().interrupt();
-                break;
+            calls.computeIfAbsent(adId, id -> scrapeCreatorsAsync(id, getTranscript));
+        }
+        return adIds.stream()
+            .map(adId -> calls.get(adId).join())
+            .collect(Collectors.toList());
+    }
+
+    /**
+     * Gọi API cho nhiều ad IDs song song và trả từng kết quả cho {@code onResult} ngay khi có,
+     * theo thứ tự hoàn thành. Các callback không chạy đồng thời với nhau.
+     * @return Future hoàn thành sau khi mọi kết quả đã được trả
+     */
+    public CompletableFuture<Void> scrapeCreatorsStream(List<String> adIds, boolean getTranscript,
+                                                        BiConsumer<String, Map<String, Object>> onResult) {
+        Object callbackLock = new Object();
+        CompletableFuture<?>[] calls = adIds.stream()
+            .distinct()
+            .map(adId -> scrapeCreatorsAsync(adId, getTranscript).thenAccept(result -> {
+                synchronized (callbackLock) {
+                    onResult.accept(adId, result);
+                }
+            }))
+            .toArray(CompletableFuture[]::new);
+        return CompletableFuture.allOf(calls);
+    }
+
+    /**
+     * Lấy một token của quota ScrapeCreators, chờ tối đa {@link #MAX_QUOTA_WAIT}
+     */
+    private boolean awaitQuota() {
+        try {
+            if (rateLimiter.acquire(MAX_QUOTA_WAIT)) {
+                return true;
             }
+            log.warn("⚠️ ScrapeCreators quota exhausted, gave up after {} s", MAX_QUOTA_WAIT.toSeconds());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        return false;
+    }
+
+    private Map<String, Object> rateLimitedError() {
+        Map<String, Object> error = new HashMap<>();
+        error.put("error", "RATE_LIMITED");
+        error.put("message", "ScrapeCreators API đang quá tải, vui lòng thử lại sau");
+        return error;
+    }
+
+    @SuppressWarnings("unchecked")
+    private Map<String, Object> cachedAd(String key) {
+        try {
+            Cache cache = cacheManager.getCache(AD_CACHE);
+            Cache.ValueWrapper hit = cache != null ? cache.get(key) : null;
+            return hit != null ? (Map<String, Object>) hit.get() : null;
+        } catch (RuntimeException e) {
+            log.warn("Competitor ad cache unavailable: {}", e.getMessage());
+            return null;
         }
+    }
 
-        return results;
+    private void cacheAd(String key, Map<String, Object> ad) {
+        try {
+            Cache cache = cacheManager.getCache(AD_CACHE);
+            if (cache != null) {
+                cache.put(key, ad);
+            }
+        } catch (RuntimeException e) {
+            log.warn("Competitor ad cache unavailable: {}", e.getMessage());
+        }
     }
 
     /**
@@ -162,6 +288,10 @@ public class ScrapeCreatorsService {
             return error;
         }
 
+        if (!awaitQuota()) {
+            return rateLimitedError();
+        }
+
         try {
             // Build URL
             String url = String.format(
@@ -230,6 +360,10 @@ public class ScrapeCreatorsService {
             return error;
         }
 
+        if (!awaitQuota()) {
+            return rateLimitedError();
+        }
+
         try {
             // Step 1: Search for company/page
             String searchUrl = String.format(
@@ -266,6 +400,9 @@ public class ScrapeCreatorsService {
             String pageId = String.valueOf(companies.get(0).get("pageId"));
 
             // Step 2: Get ads for this page
+            if (!awaitQuota()) {
+                return rateLimitedError();
+            }
             String adsUrl = String.format(
                 "%s/facebook/adLibrary/company/ads?pageId=%s&country=%s&trim=true",
                 baseUrl, pageId, country
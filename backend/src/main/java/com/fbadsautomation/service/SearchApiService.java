@@ -26,7 +26,7 @@ import java.util.Map;
 @Slf4j
 public class SearchApiService {
 
-    private final RestTemplate restTemplate = new RestTemplate();
+    private final RestTemplate restTemplate;
 
     @Value("${searchapi.base-url:https://www.searchapi.io/api/v1/search}")
     private String baseUrl;
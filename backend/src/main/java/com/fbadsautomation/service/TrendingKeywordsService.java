@@ -1,36 +1,82 @@
 package com.fbadsautomation.service;
 
+import com.fbadsautomation.dto.TrendSnapshot;
 import com.fbadsautomation.dto.TrendingKeyword;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.redis.connection.RedisZSetCommands;
 import org.springframework.data.redis.core.RedisTemplate;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.concurrent.TimeUnit;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.Executor;
+import java.util.concurrent.RejectedExecutionException;
 
+/**
+ * Trending keywords with a stale-while-revalidate cache in front of RapidAPI.
+ *
+ * Entries are keyed by the normalized query, location and language and always hold the largest
+ * supported limit, so any smaller limit is a slice of the same entry. A fresh entry is served as is;
+ * a stale one is still served while a single background refresh replaces it, and concurrent misses
+ * share one RapidAPI call. The most requested queries of each location are refreshed ahead of expiry.
+ */
 @Service
 public class TrendingKeywordsService {
 
     private static final Logger log = LoggerFactory.getLogger(TrendingKeywordsService.class);
 
-    @Autowired
-    private RedisTemplate<String, Object> redisTemplate;
+    private static final String CACHE_PREFIX = "trends:";
+    private static final String POPULAR_PREFIX = "trends:popular:";
+    private static final String PREFETCH_LOCK_PREFIX = "trends:prefetch-lock:";
+    // Every entry is fetched at the largest limit callers may ask for
+    static final int SUPERSET_LIMIT = 50;
+    private static final int MAX_TRACKED_QUERIES = 200;
+
+    private final RedisTemplate<String, Object> redisTemplate;
+    private final RapidKeywordInsightService rapidKeywordInsightService;
+    private final Executor refreshExecutor;
+    private final Duration freshFor;
+    private final Duration serveStaleFor;
+    private final Duration prefetchInterval;
+    private final int prefetchTopQueries;
+    // Loads in progress per cache key; concurrent misses and refreshes join the same one
+    private final Map<String, CompletableFuture<TrendSnapshot>> inFlight = new ConcurrentHashMap<>();
 
     @Autowired
-    private RapidKeywordInsightService rapidKeywordInsightService;
+    public TrendingKeywordsService(RedisTemplate<String, Object> redisTemplate,
+                                   RapidKeywordInsightService rapidKeywordInsightService,
+                                   @Qualifier("generalAsyncExecutor") Executor refreshExecutor,
+                                   @Value("${trends.cache.fresh-for:PT60M}") Duration freshFor,
+                                   @Value("${trends.cache.serve-stale-for:PT24H}") Duration serveStaleFor,
+                                   @Value("${trends.prefetch.interval:PT30M}") Duration prefetchInterval,
+                                   @Value("${trends.prefetch.top-queries:20}") int prefetchTopQueries) {
+        this.redisTemplate = redisTemplate;
+        this.rapidKeywordInsightService = rapidKeywordInsightService;
+        this.refreshExecutor = refreshExecutor;
+        this.freshFor = freshFor;
+        this.serveStaleFor = serveStaleFor;
+        this.prefetchInterval = prefetchInterval;
+        this.prefetchTopQueries = prefetchTopQueries;
+    }
 
-    public static String buildCacheKey(String query, String location, String language, Integer limit) {
-        return sanitizeQuery(query).toLowerCase()
+    public static String buildCacheKey(String query, String location, String language) {
+        return normalizeQuery(query)
             + "_" + sanitizeLocation(location)
-            + "_" + sanitizeLanguage(language)
-            + "_" + sanitizeLimit(limit);
+            + "_" + sanitizeLanguage(language);
     }
 
     public List<TrendingKeyword> fetchTrends(String query, String location, String language, Integer limit) {
-        String normalizedQuery = sanitizeQuery(query);
+        String normalizedQuery = normalizeQuery(query);
         String normalizedLocation = sanitizeLocation(location);
         String normalizedLanguage = sanitizeLanguage(language);
         int normalizedLimit = sanitizeLimit(limit);
@@ -38,34 +84,160 @@ public class TrendingKeywordsService {
         log.info("Fetching RapidAPI trends for query: {} in location: {} (language={}, limit={})",
             normalizedQuery, normalizedLocation, normalizedLanguage, normalizedLimit);
 
-        String cacheKey = "trends:" + buildCacheKey(query, location, language, limit);
-        @SuppressWarnings("unchecked")
-        List<TrendingKeyword> cachedTrends = (List<TrendingKeyword>) redisTemplate.opsForValue().get(cacheKey);
-        if (cachedTrends != null && !cachedTrends.isEmpty()) {
-            log.info("Returning cached trends for {}", cacheKey);
-            return cachedTrends;
+        recordRequest(normalizedQuery, normalizedLocation, normalizedLanguage);
+
+        String cacheKey = CACHE_PREFIX + buildCacheKey(normalizedQuery, normalizedLocation, normalizedLanguage);
+        TrendSnapshot snapshot = readSnapshot(cacheKey);
+        if (snapshot != null) {
+            if (ageOf(snapshot).compareTo(freshFor) >= 0) {
+                log.info("Serving stale trends for {} while refreshing", cacheKey);
+                refreshInBackground(cacheKey, normalizedQuery, normalizedLocation, normalizedLanguage);
+            } else {
+                log.info("Returning cached trends for {}", cacheKey);
+            }
+        } else {
+            snapshot = load(cacheKey, normalizedQuery, normalizedLocation, normalizedLanguage).join();
+        }
+        return slice(snapshot.getKeywords(), normalizedLimit);
+    }
+
+    /**
+     * Refreshes the most requested queries of a location whose entry is missing or would go stale
+     * before the next pass. Runs at most once per {@code trends.prefetch.interval} per location
+     * across instances; {@link #fetchTrends} starts it in the background.
+     */
+    public void prefetchPopularTrends(String location) {
+        String normalizedLocation = sanitizeLocation(location);
+        if (!rapidKeywordInsightService.isConfigured()) {
+            return;
+        }
+        String popularKey = POPULAR_PREFIX + normalizedLocation;
+        try {
+            Set<Object> topQueries = redisTemplate.opsForZSet().reverseRange(popularKey, 0, prefetchTopQueries - 1);
+            int refreshed = 0;
+            for (Object member : topQueries == null ? Set.<Object>of() : topQueries) {
+                String[] languageAndQuery = String.valueOf(member).split("\\|", 2);
+                if (languageAndQuery.length < 2) {
+                    continue;
+                }
+                String cacheKey = CACHE_PREFIX + buildCacheKey(languageAndQuery[1], normalizedLocation, languageAndQuery[0]);
+                TrendSnapshot snapshot = readSnapshot(cacheKey);
+                if (snapshot == null || ageOf(snapshot).plus(prefetchInterval).compareTo(freshFor) >= 0) {
+                    // Sequential on purpose: prefetching must not burst RapidAPI
+                    load(cacheKey, languageAndQuery[1], normalizedLocation, languageAndQuery[0]).join();
+                    refreshed++;
+                }
+            }
+
+            // Halve the counts and drop the tail, so the ranking follows recent demand and stays bounded
+            redisTemplate.opsForZSet().unionAndStore(popularKey, List.of(), popularKey,
+                RedisZSetCommands.Aggregate.SUM, RedisZSetCommands.Weights.of(0.5));
+            redisTemplate.opsForZSet().removeRange(popularKey, 0, -MAX_TRACKED_QUERIES - 1);
+            log.info("Prefetched trends for {} popular queries in {}", refreshed, normalizedLocation);
+        } catch (RuntimeException e) {
+            log.warn("Trend prefetch for {} failed: {}", normalizedLocation, e.getMessage());
+        }
+    }
+
+    private CompletableFuture<TrendSnapshot> load(String cacheKey, String query, String location, String language) {
+        CompletableFuture<TrendSnapshot> load = new CompletableFuture<>();
+        CompletableFuture<TrendSnapshot> existing = inFlight.putIfAbsent(cacheKey, load);
+        if (existing != null) {
+            return existing;
         }
+        runLoad(load, cacheKey, query, location, language);
+        return load;
+    }
 
+    private void refreshInBackground(String cacheKey, String query, String location, String language) {
+        CompletableFuture<TrendSnapshot> load = new CompletableFuture<>();
+        if (inFlight.putIfAbsent(cacheKey, load) != null) {
+            return;
+        }
+        try {
+            refreshExecutor.execute(() -> runLoad(load, cacheKey, query, location, language));
+        } catch (RejectedExecutionException e) {
+            // The stale entry keeps being served; a later request retries the refresh
+            log.warn("Trend refresh for {} rejected: {}", cacheKey, e.getMessage());
+            inFlight.remove(cacheKey, load);
+            load.completeExceptionally(e);
+        }
+    }
+
+    private void runLoad(CompletableFuture<TrendSnapshot> load, String cacheKey,
+                         String query, String location, String language) {
+        try {
+            load.complete(fetchAndStore(cacheKey, query, location, language));
+        } catch (RuntimeException e) {
+            load.completeExceptionally(e);
+        } finally {
+            inFlight.remove(cacheKey, load);
+        }
+    }
+
+    private TrendSnapshot fetchAndStore(String cacheKey, String query, String location, String language) {
         List<TrendingKeyword> rapidKeywords = rapidKeywordInsightService.fetchTopKeywords(
-            normalizedQuery,
-            normalizedLocation,
-            normalizedLanguage,
-            normalizedLimit
+            query,
+            location,
+            language,
+            SUPERSET_LIMIT
         );
 
         List<TrendingKeyword> finalTrends;
         if (rapidKeywords == null || rapidKeywords.isEmpty()) {
             log.warn("RapidAPI returned no keywords. Falling back to mock data.");
-            finalTrends = generateMockTrends(normalizedQuery, normalizedLocation, normalizedLanguage, normalizedLimit);
-        } else if (rapidKeywords.size() < normalizedLimit) {
-            finalTrends = enrichWithFallbacks(rapidKeywords, normalizedQuery, normalizedLocation, normalizedLanguage, normalizedLimit);
+            finalTrends = generateMockTrends(query, location, language, SUPERSET_LIMIT);
+        } else if (rapidKeywords.size() < SUPERSET_LIMIT) {
+            finalTrends = enrichWithFallbacks(rapidKeywords, query, location, language, SUPERSET_LIMIT);
         } else {
             finalTrends = rapidKeywords;
         }
 
-        redisTemplate.opsForValue().set(cacheKey, finalTrends, 60, TimeUnit.MINUTES);
-        log.info("Cached {} trends for {}", finalTrends.size(), cacheKey);
-        return finalTrends;
+        TrendSnapshot snapshot = new TrendSnapshot(new ArrayList<>(finalTrends), System.currentTimeMillis());
+        try {
+            redisTemplate.opsForValue().set(cacheKey, snapshot, freshFor.plus(serveStaleFor));
+            log.info("Cached {} trends for {}", finalTrends.size(), cacheKey);
+        } catch (RuntimeException e) {
+            log.warn("Could not cache trends for {}: {}", cacheKey, e.getMessage());
+        }
+        return snapshot;
+    }
+
+    private TrendSnapshot readSnapshot(String cacheKey) {
+        try {
+            Object cached = redisTemplate.opsForValue().get(cacheKey);
+            if (cached instanceof TrendSnapshot snapshot && snapshot.getKeywords() != null
+                    && !snapshot.getKeywords().isEmpty()) {
+                return snapshot;
+            }
+        } catch (RuntimeException e) {
+            log.warn("Trend cache unavailable for {}: {}", cacheKey, e.getMessage());
+        }
+        return null;
+    }
+
+    /**
+     * Counts the request towards its location's popular queries and, once per prefetch interval,
+     * starts a background prefetch of that location.
+     */
+    private void recordRequest(String query, String location, String language) {
+        try {
+            redisTemplate.opsForZSet().incrementScore(POPULAR_PREFIX + location, language + "|" + query, 1);
+            Boolean due = redisTemplate.opsForValue().setIfAbsent(PREFETCH_LOCK_PREFIX + location, "1", prefetchInterval);
+            if (Boolean.TRUE.equals(due)) {
+                refreshExecutor.execute(() -> prefetchPopularTrends(location));
+            }
+        } catch (RuntimeException e) {
+            log.debug("Could not record trend request for {}: {}", location, e.getMessage());
+        }
+    }
+
+    private static Duration ageOf(TrendSnapshot snapshot) {
+        return Duration.ofMillis(System.currentTimeMillis() - snapshot.getFetchedAtMillis());
+    }
+
+    private static List<TrendingKeyword> slice(List<TrendingKeyword> keywords, int limit) {
+        return keywords.size() > limit ? new ArrayList<>(keywords.subList(0, limit)) : keywords;
     }
 
     private List<TrendingKeyword> enrichWithFallbacks(List<TrendingKeyword> base,
@@ -216,7 +388,7 @@ public class TrendingKeywordsService {
         }
 
         if (trends.size() > limit) {
-            return trends.subList(0, limit);
+            return new ArrayList<>(trends.subList(0, limit));
         }
         return trends;
     }
@@ -324,8 +496,8 @@ public class TrendingKeywordsService {
         return trends;
     }
 
-    public void clearTrendCache(String query, String location, String language, Integer limit) {
-        String cacheKey = "trends:" + buildCacheKey(query, location, language, limit);
+    public void clearTrendCache(String query, String location, String language) {
+        String cacheKey = CACHE_PREFIX + buildCacheKey(query, location, language);
         redisTemplate.delete(cacheKey);
         log.info("Cleared trend cache for {}", cacheKey);
     }
@@ -334,6 +506,11 @@ public class TrendingKeywordsService {
         return (query == null || query.isBlank()) ? "general" : query.trim();
     }
 
+    // Case and inner whitespace do not change RapidAPI results, so they do not split the cache either
+    private static String normalizeQuery(String query) {
+        return sanitizeQuery(query).toLowerCase(Locale.ROOT).replaceAll("\\s+", " ");
+    }
+
     private static String sanitizeLocation(String location) {
         return (location == null || location.isBlank()) ? "US" : location.trim().toUpperCase();
     }
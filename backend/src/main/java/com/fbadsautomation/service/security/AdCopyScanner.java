@@ -0,0 +1,68 @@
+package com.fbadsautomation.service.security;
+
+import com.fbadsautomation.util.text.TextAnalyzer;
+import com.fbadsautomation.util.text.TextDocument;
+import java.util.List;
+
+/**
+ * The one automaton generated copy and prompt input are scanned with. It holds the moderation,
+ * prompt injection and validation dictionaries together, so moderation scans a field once and
+ * validation reads the same {@link TextDocument} (see {@code AdContent#scannedDocument}) instead of
+ * scanning it again.
+ */
+public final class AdCopyScanner {
+
+    public static final String DISALLOWED = "disallowed";
+    public static final String INJECTION = "injection";
+    public static final String INAPPROPRIATE = "inappropriate";
+    public static final String POLICY = "policy";
+    public static final String SPAM = "spam";
+
+    // Pattern ids keep the regex spelling used in moderation warnings.
+    static final List<String> DISALLOWED_IDS = List.of(
+        "(?i)password", "(?i)api[_-]?key", "(?i)drop\\s+table", "(?i)execute\\s+script",
+        "(?i)<script", "(?i)system\\s+override", "(?i)prompt\\s+injection", "(?i)ignore\\s+all\\s+previous"
+    );
+    // Inappropriate content patterns
+    public static final List<String> INAPPROPRIATE_KEYWORDS = List.of("hate", "violence", "discrimination", "illegal",
+        "drugs", "weapons", "gambling", "adult", "explicit", "offensive", "scam", "fraud"
+    );
+    // Facebook advertising policy violations
+    public static final List<String> POLICY_VIOLATIONS = List.of("before and after", "miracle", "guaranteed results",
+        "lose weight fast", "get rich quick", "work from home", "make money fast", "free money",
+        "click here", "act now", "limited time", "urgent"
+    );
+    // Spam indicators
+    public static final List<String> SPAM_INDICATORS = List.of("!!!", "???", "FREE!!!", "URGENT!!!", "ACT NOW!!!",
+        "LIMITED TIME!!!", "CLICK HERE NOW", "AMAZING OFFER", "DON'T MISS OUT"
+    );
+
+    private static final TextAnalyzer ANALYZER = TextAnalyzer.builder()
+        .pattern(DISALLOWED, DISALLOWED_IDS.get(0), "password")
+        .pattern(DISALLOWED, DISALLOWED_IDS.get(1), "apikey", "api_key", "api-key")
+        .pattern(DISALLOWED, DISALLOWED_IDS.get(2), "drop table")
+        .pattern(DISALLOWED, DISALLOWED_IDS.get(3), "execute script")
+        .pattern(DISALLOWED, DISALLOWED_IDS.get(4), "<script")
+        .pattern(DISALLOWED, DISALLOWED_IDS.get(5), "system override")
+        .pattern(DISALLOWED, DISALLOWED_IDS.get(6), "prompt injection")
+        .pattern(DISALLOWED, DISALLOWED_IDS.get(7), "ignore all previous")
+        .pattern(INJECTION, "(?i)ignore\\s+all\\s+previous\\s+instructions", "ignore all previous instructions")
+        .pattern(INJECTION, "(?i)you\\s+are\\s+chatgpt", "you are chatgpt")
+        .pattern(INJECTION, "(?i)system\\s*prompt", "systemprompt", "system prompt")
+        .pattern(INJECTION, "(?i)jailbreak", "jailbreak")
+        .pattern(INJECTION, "(?i)act\\s+as\\s+", "act as ")
+        .pattern(INJECTION, "(?i)<script>", "<script>")
+        .pattern(INJECTION, "(?i)```\\s*cmd", "```cmd", "``` cmd")
+        .pattern(INJECTION, "(?i)\\/prompt", "/prompt")
+        .substrings(INAPPROPRIATE, INAPPROPRIATE_KEYWORDS)
+        .substrings(POLICY, POLICY_VIOLATIONS)
+        .exact(SPAM, SPAM_INDICATORS)
+        .build();
+
+    private AdCopyScanner() {
+    }
+
+    public static TextDocument scan(String text) {
+        return ANALYZER.scan(text);
+    }
+}
@@ -1,9 +1,12 @@
 package com.fbadsautomation.service.security;
 
 import com.fbadsautomation.model.AdContent;
+import com.fbadsautomation.util.text.PhraseMatch;
+import com.fbadsautomation.util.text.TextDocument;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
-import java.util.regex.Pattern;
+import java.util.Set;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Component;
@@ -12,16 +15,6 @@ import org.springframework.stereotype.Component;
 public class ContentModerationService {
 
     private static final Logger log = LoggerFactory.getLogger(ContentModerationService.class);
-    private static final Pattern[] DISALLOWED_PATTERNS = new Pattern[]{
-        Pattern.compile("(?i)password"),
-        Pattern.compile("(?i)api[_-]?key"),
-        Pattern.compile("(?i)drop\\s+table"),
-        Pattern.compile("(?i)execute\\s+script"),
-        Pattern.compile("(?i)<script"),
-        Pattern.compile("(?i)system\\s+override"),
-        Pattern.compile("(?i)prompt\\s+injection"),
-        Pattern.compile("(?i)ignore\\s+all\\s+previous")
-    };
 
     private final PromptSecurityService promptSecurityService;
 
@@ -38,9 +31,9 @@ public class ContentModerationService {
                 continue;
             }
             List<String> warnings = new ArrayList<>();
-            content.setHeadline(cleanAndInspect(content.getHeadline(), warnings));
-            content.setPrimaryText(cleanAndInspect(content.getPrimaryText(), warnings));
-            content.setDescription(cleanAndInspect(content.getDescription(), warnings));
+            content.setHeadline(cleanAndInspect(content, content.getHeadline(), warnings));
+            content.setPrimaryText(cleanAndInspect(content, content.getPrimaryText(), warnings));
+            content.setDescription(cleanAndInspect(content, content.getDescription(), warnings));
             if (!warnings.isEmpty()) {
                 content.setHasWarnings(true);
                 content.setValidationWarnings(String.join("; ", warnings));
@@ -48,17 +41,39 @@ public class ContentModerationService {
         }
     }
 
-    private String cleanAndInspect(String value, List<String> warnings) {
+    /**
+     * Cleans one field. A field that comes out unchanged keeps its scan on the content, so validation
+     * does not scan it again.
+     */
+    private String cleanAndInspect(AdContent content, String value, List<String> warnings) {
         if (value == null || value.isBlank()) {
             return value;
         }
-        for (Pattern pattern : DISALLOWED_PATTERNS) {
-            if (pattern.matcher(value).find()) {
-                warnings.add("Potential unsafe content: " + pattern.pattern());
-                log.warn("Moderation flagged generated content: pattern={} text={}", pattern.pattern(), value);
-                value = pattern.matcher(value).replaceAll("[filtered]");
+        TextDocument document = AdCopyScanner.scan(value);
+        List<PhraseMatch> resolved = document.resolve(AdCopyScanner.DISALLOWED, AdCopyScanner.INJECTION);
+        Set<String> flagged = new HashSet<>();
+        for (PhraseMatch match : resolved) {
+            if (AdCopyScanner.DISALLOWED.equals(match.getCategory())) {
+                flagged.add(match.getPhrase());
             }
         }
-        return promptSecurityService.sanitizeModelOutput(value);
+        for (String id : AdCopyScanner.DISALLOWED_IDS) {
+            if (flagged.contains(id)) {
+                warnings.add("Potential unsafe content: " + id);
+                log.warn("Moderation flagged generated content: pattern={} text={}", id, value);
+            }
+        }
+
+        if (!promptSecurityService.isNormalized(value)) {
+            // Normalization may change the text, so injection patterns are matched again afterwards.
+            String filtered = document.replace(document.resolve(AdCopyScanner.DISALLOWED), match -> "[filtered]");
+            return promptSecurityService.sanitizeModelOutput(filtered);
+        }
+        String cleaned = promptSecurityService.sanitize(document, resolved,
+            match -> AdCopyScanner.DISALLOWED.equals(match.getCategory()) ? "[filtered]" : "[blocked]").trim();
+        if (cleaned.equals(value)) {
+            content.rememberScannedDocument(document);
+        }
+        return cleaned;
     }
 }
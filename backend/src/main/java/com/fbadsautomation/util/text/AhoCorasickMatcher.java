@@ -0,0 +1,164 @@
+package com.fbadsautomation.util.text;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Locale;
+
+/**
+ * Aho–Corasick automaton over a fixed set of lower-case phrases. Built once, then every scan finds
+ * all phrase occurrences in a single left-to-right pass regardless of how many phrases there are.
+ * Instances are immutable and safe to share between threads.
+ *
+ * @param <T> value attached to each phrase, reported back on a match
+ */
+public final class AhoCorasickMatcher<T> {
+
+    private final Node<T> root;
+
+    private AhoCorasickMatcher(Node<T> root) {
+        this.root = root;
+    }
+
+    public static <T> Builder<T> builder() {
+        return new Builder<>();
+    }
+
+    /**
+     * Reports every occurrence of every phrase in {@code text}. The text is expected to be lower
+     * case already; phrases were lower-cased when the automaton was built.
+     */
+    public void scan(CharSequence text, MatchListener<T> listener) {
+        Node<T> node = root;
+        for (int i = 0; i < text.length(); i++) {
+            node = next(node, text.charAt(i));
+            emit(node, i + 1, listener);
+        }
+    }
+
+    Node<T> root() {
+        return root;
+    }
+
+    Node<T> next(Node<T> node, char c) {
+        Node<T> current = node;
+        while (true) {
+            Node<T> child = current.child(c);
+            if (child != null) {
+                return child;
+            }
+            if (current == root) {
+                return root;
+            }
+            current = current.failure;
+        }
+    }
+
+    void emit(Node<T> node, int end, MatchListener<T> listener) {
+        for (Output<T> output : node.outputs) {
+            listener.onMatch(output.value, end - output.length, end);
+        }
+    }
+
+    @FunctionalInterface
+    public interface MatchListener<T> {
+        void onMatch(T value, int start, int end);
+    }
+
+    public static final class Builder<T> {
+        private final Node<T> root = new Node<>();
+
+        private Builder() {
+        }
+
+        public Builder<T> add(String phrase, T value) {
+            String normalized = phrase.toLowerCase(Locale.ROOT);
+            if (normalized.isEmpty()) {
+                throw new IllegalArgumentException("Phrase must not be empty");
+            }
+            Node<T> node = root;
+            for (int i = 0; i < normalized.length(); i++) {
+                node = node.childOrCreate(normalized.charAt(i));
+            }
+            node.outputs.add(new Output<>(value, normalized.length()));
+            return this;
+        }
+
+        public AhoCorasickMatcher<T> build() {
+            // Breadth-first so every failure target is finished before its dependants.
+            Deque<Node<T>> queue = new ArrayDeque<>();
+            for (Node<T> child : root.children()) {
+                child.failure = root;
+                queue.add(child);
+            }
+            while (!queue.isEmpty()) {
+                Node<T> node = queue.poll();
+                for (int i = 0; i < node.childCount; i++) {
+                    char c = node.keys[i];
+                    Node<T> child = node.nodes[i];
+                    Node<T> fallback = node.failure;
+                    while (fallback != root && fallback.child(c) == null) {
+                        fallback = fallback.failure;
+                    }
+                    Node<T> target = fallback.child(c);
+                    child.failure = target != null && target != child ? target : root;
+                    child.outputs.addAll(child.failure.outputs);
+                    queue.add(child);
+                }
+            }
+            return new AhoCorasickMatcher<>(root);
+        }
+    }
+
+    static final class Node<T> {
+        private char[] keys = new char[0];
+        @SuppressWarnings("unchecked")
+        private Node<T>[] nodes = new Node[0];
+        private int childCount;
+        private Node<T> failure;
+        private final List<Output<T>> outputs = new ArrayList<>(1);
+
+        // Phrase lists are small, so a linear scan over a few keys beats hashing boxed chars.
+        private Node<T> child(char c) {
+            for (int i = 0; i < childCount; i++) {
+                if (keys[i] == c) {
+                    return nodes[i];
+                }
+            }
+            return null;
+        }
+
+        private Node<T> childOrCreate(char c) {
+            Node<T> existing = child(c);
+            if (existing != null) {
+                return existing;
+            }
+            if (childCount == keys.length) {
+                int capacity = Math.max(2, childCount * 2);
+                keys = Arrays.copyOf(keys, capacity);
+                nodes = Arrays.copyOf(nodes, capacity);
+            }
+            Node<T> created = new Node<>();
+            keys[childCount] = c;
+            nodes[childCount] = created;
+            childCount++;
+            return created;
+        }
+
+        private List<Node<T>> children() {
+            return Arrays.asList(nodes).subList(0, childCount);
+        }
+    }
+
+    private static final class Output<T> {
+        private final T value;
+        private final int length;
+
+        private Output(T value, int length) {
+            this.value = value;
+            this.length = length;
+        }
+    }
+}
@@ -0,0 +1,150 @@
+package com.fbadsautomation.util.text;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A prompt assembled from named sections, with an estimated token count per section.
+ *
+ * <p>Sections added with {@link Builder#addToPrefix} form the stable prefix: text that only depends on
+ * settings such as language, persona, style or CTA and is byte-identical across requests that share
+ * them. Keeping it ahead of anything request specific lets OpenAI and Anthropic prefix caching reuse
+ * the processed prefix, which lowers both latency and input token cost.
+ */
+public final class AssembledPrompt {
+
+    private final List<Section> sections;
+    private final String text;
+    private final int stablePrefixLength;
+    private final int stablePrefixTokens;
+
+    private AssembledPrompt(List<Section> sections, int prefixSections) {
+        this.sections = Collections.unmodifiableList(sections);
+        StringBuilder out = new StringBuilder(sections.stream().mapToInt(s -> s.getText().length()).sum());
+        int prefixTokens = 0;
+        int prefixLength = 0;
+        for (int i = 0; i < sections.size(); i++) {
+            out.append(sections.get(i).getText());
+            if (i < prefixSections) {
+                prefixLength = out.length();
+                prefixTokens += sections.get(i).getTokens();
+            }
+        }
+        this.text = out.toString();
+        this.stablePrefixLength = prefixLength;
+        this.stablePrefixTokens = prefixTokens;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public String getStablePrefix() {
+        return text.substring(0, stablePrefixLength);
+    }
+
+    public int getStablePrefixTokens() {
+        return stablePrefixTokens;
+    }
+
+    public List<Section> getSections() {
+        return sections;
+    }
+
+    public int getTotalTokens() {
+        return sections.stream().mapToInt(Section::getTokens).sum();
+    }
+
+    /** Estimated tokens per section name, in prompt order. */
+    public Map<String, Integer> getSectionTokens() {
+        Map<String, Integer> tokens = new LinkedHashMap<>();
+        for (Section section : sections) {
+            tokens.merge(section.getName(), section.getTokens(), Integer::sum);
+        }
+        return tokens;
+    }
+
+    @Override
+    public String toString() {
+        return text;
+    }
+
+    /**
+     * Rendered prompt section. Sections are immutable, so a section rendered from fixed settings can be
+     * cached and shared by every prompt that uses those settings.
+     */
+    public static final class Section {
+        private final String name;
+        private final String text;
+        private final int tokens;
+
+        private Section(String name, String text) {
+            this.name = name;
+            this.text = text;
+            this.tokens = TokenEstimator.estimate(text);
+        }
+
+        public static Section of(String name, String text) {
+            return new Section(name, text != null ? text : "");
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public String getText() {
+            return text;
+        }
+
+        public int getTokens() {
+            return tokens;
+        }
+
+        public boolean isEmpty() {
+            return text.isEmpty();
+        }
+    }
+
+    public static final class Builder {
+        private final List<Section> sections = new ArrayList<>();
+        private int prefixSections;
+
+        private Builder() {
+        }
+
+        /** Adds a section to the stable prefix; must be called before any {@link #add}. */
+        public Builder addToPrefix(Section section) {
+            if (prefixSections != sections.size()) {
+                throw new IllegalStateException("Stable section '" + section.getName()
+                    + "' added after request specific sections");
+            }
+            if (!section.isEmpty()) {
+                sections.add(section);
+                prefixSections++;
+            }
+            return this;
+        }
+
+        public Builder add(Section section) {
+            if (!section.isEmpty()) {
+                sections.add(section);
+            }
+            return this;
+        }
+
+        public Builder add(String name, String text) {
+            return add(Section.of(name, text));
+        }
+
+        public AssembledPrompt build() {
+            return new AssembledPrompt(new ArrayList<>(sections), prefixSections);
+        }
+    }
+}
@@ -0,0 +1,20 @@
+package com.fbadsautomation.util.text;
+
+import lombok.Value;
+
+/**
+ * One occurrence of a registered phrase in a {@link TextDocument}. Offsets refer to the original
+ * text, {@code end} exclusive.
+ */
+@Value
+public class PhraseMatch {
+    String category;
+    /** The phrase as registered, or the pattern id for {@link TextAnalyzer.Builder#pattern}. */
+    String phrase;
+    int start;
+    int end;
+
+    boolean overlaps(PhraseMatch other) {
+        return start < other.end && other.start < end;
+    }
+}
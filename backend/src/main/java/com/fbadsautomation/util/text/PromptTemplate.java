@@ -0,0 +1,89 @@
+package com.fbadsautomation.util.text;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Prompt template compiled once into its static text segments and the {@code {{slot}}} placeholders
+ * between them. Rendering only concatenates segments and slot values into a pre-sized builder, with no
+ * parsing or format-string work per call. Slot values are inserted verbatim, so a value containing
+ * {@code {{...}}} is never expanded.
+ */
+public final class PromptTemplate {
+
+    private static final Pattern SLOT = Pattern.compile("\\{\\{(\\w+)}}");
+
+    private final String name;
+    private final String[] segments;
+    private final String[] slots;
+    private final int staticLength;
+    private final int staticTokens;
+
+    private PromptTemplate(String name, String[] segments, String[] slots) {
+        this.name = name;
+        this.segments = segments;
+        this.slots = slots;
+        int length = 0;
+        int tokens = 0;
+        for (String segment : segments) {
+            length += segment.length();
+            tokens += TokenEstimator.estimate(segment);
+        }
+        this.staticLength = length;
+        this.staticTokens = tokens;
+    }
+
+    public static PromptTemplate compile(String name, String source) {
+        List<String> segments = new ArrayList<>();
+        List<String> slots = new ArrayList<>();
+        Matcher matcher = SLOT.matcher(source);
+        int last = 0;
+        while (matcher.find()) {
+            segments.add(source.substring(last, matcher.start()));
+            slots.add(matcher.group(1));
+            last = matcher.end();
+        }
+        segments.add(source.substring(last));
+        return new PromptTemplate(name, segments.toArray(new String[0]), slots.toArray(new String[0]));
+    }
+
+    /**
+     * Renders the template with a value for every slot. {@code null} values render as empty text;
+     * a slot missing from {@code values} is a programming error.
+     */
+    public String render(Map<String, ?> values) {
+        StringBuilder out = new StringBuilder(staticLength + 32 * slots.length);
+        for (int i = 0; i < slots.length; i++) {
+            out.append(segments[i]);
+            if (!values.containsKey(slots[i])) {
+                throw new IllegalArgumentException("Template '" + name + "' has no value for slot '" + slots[i] + "'");
+            }
+            Object value = values.get(slots[i]);
+            if (value != null) {
+                out.append(value);
+            }
+        }
+        return out.append(segments[slots.length]).toString();
+    }
+
+    /** The template text itself; only valid for templates without slots. */
+    public String render() {
+        return render(Map.of());
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public List<String> getSlots() {
+        return List.of(slots);
+    }
+
+    /** Estimated tokens of the static segments, i.e. the template cost before any slot is filled. */
+    public int getStaticTokens() {
+        return staticTokens;
+    }
+}
@@ -0,0 +1,145 @@
+package com.fbadsautomation.util.text;
+
+/**
+ * 64-bit SimHash fingerprints of ad copy. Texts that share most of their character shingles get
+ * fingerprints a few bits apart, so near-duplicates are found by comparing two longs instead of the
+ * texts themselves.
+ *
+ * <p>For candidate lookup the fingerprint is cut into {@link #BANDS} bands of {@link #BAND_BITS}
+ * bits. Two fingerprints within {@link #MAX_DISTANCE} bits of each other necessarily agree on at
+ * least one whole band, so an index over band values finds every near-duplicate without scanning
+ * all fingerprints.
+ */
+public final class SimHash {
+
+    // On ad-length copy a one or two word edit moves up to ~7 bits, while a rewrite of the same
+    // offer lands 15+ bits away and unrelated copy around 32.
+    public static final int MAX_DISTANCE = 7;
+    public static final int BANDS = MAX_DISTANCE + 1;
+    public static final int BAND_BITS = Long.SIZE / BANDS;
+    private static final int SHINGLE = 3;
+
+    private static final long FNV_OFFSET = 0xcbf29ce484222325L;
+    private static final long FNV_PRIME = 0x100000001b3L;
+
+    private SimHash() {
+    }
+
+    /**
+     * Fingerprint of the given fields, read as one text. The text is normalized to lower-case
+     * letters and digits (any script) separated by single spaces, and every {@value #SHINGLE}
+     * character window of it is a feature: on copy this short, character shingles move far fewer bits
+     * on a small edit than word features do. Returns {@code 0} when the text has no letters or digits.
+     */
+    public static long of(String... fields) {
+        int[] weights = new int[Long.SIZE];
+        char[] window = new char[SHINGLE];
+        int filled = 0;
+        int features = 0;
+        boolean pendingSpace = false;
+
+        for (String field : fields) {
+            if (field == null) {
+                continue;
+            }
+            // Fields are separate texts, so their words never run together
+            pendingSpace = filled > 0;
+            for (int i = 0; i < field.length(); i++) {
+                char c = field.charAt(i);
+                if (!Character.isLetterOrDigit(c) && Character.getType(c) != Character.NON_SPACING_MARK) {
+                    pendingSpace = filled > 0;
+                    continue;
+                }
+                if (pendingSpace) {
+                    filled = push(window, filled, ' ');
+                    features += addShingle(weights, window, filled);
+                    pendingSpace = false;
+                }
+                filled = push(window, filled, Character.toLowerCase(c));
+                features += addShingle(weights, window, filled);
+            }
+        }
+        if (features == 0) {
+            // Shorter than one shingle: fall back to the whole normalized text as the only feature
+            if (filled == 0) {
+                return 0;
+            }
+            addShingle(weights, window, filled, filled);
+        }
+
+        long fingerprint = 0;
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            if (weights[bit] > 0) {
+                fingerprint |= 1L << bit;
+            }
+        }
+        return fingerprint;
+    }
+
+    public static int distance(long first, long second) {
+        return Long.bitCount(first ^ second);
+    }
+
+    public static boolean isNearDuplicate(long first, long second) {
+        return distance(first, second) <= MAX_DISTANCE;
+    }
+
+    /**
+     * Value of band {@code index} (0 = most significant bits), an unsigned {@link #BAND_BITS}-bit int.
+     */
+    public static int band(long fingerprint, int index) {
+        int shift = Long.SIZE - BAND_BITS * (index + 1);
+        return (int) ((fingerprint >>> shift) & ((1L << BAND_BITS) - 1));
+    }
+
+    /**
+     * Band values tagged with their band index ({@code index << BAND_BITS | value}), so all bands of
+     * a fingerprint fit in one array and equal keys always mean the same band.
+     */
+    public static int[] bandKeys(long fingerprint) {
+        int[] keys = new int[BANDS];
+        for (int index = 0; index < BANDS; index++) {
+            keys[index] = index << BAND_BITS | band(fingerprint, index);
+        }
+        return keys;
+    }
+
+    private static int push(char[] window, int filled, char c) {
+        if (filled < window.length) {
+            window[filled] = c;
+            return filled + 1;
+        }
+        System.arraycopy(window, 1, window, 0, window.length - 1);
+        window[window.length - 1] = c;
+        return filled;
+    }
+
+    private static int addShingle(int[] weights, char[] window, int filled) {
+        if (filled < SHINGLE) {
+            return 0;
+        }
+        addShingle(weights, window, SHINGLE, SHINGLE);
+        return 1;
+    }
+
+    private static void addShingle(int[] weights, char[] window, int from, int length) {
+        long hash = FNV_OFFSET;
+        for (int i = from - length; i < from; i++) {
+            hash = (hash ^ window[i]) * FNV_PRIME;
+        }
+        hash = mix(hash);
+        for (int bit = 0; bit < Long.SIZE; bit++) {
+            weights[bit] += ((hash >>> bit) & 1L) != 0 ? 1 : -1;
+        }
+    }
+
+    // FNV spreads short words poorly over the high bits; the murmur3 finalizer fixes that.
+    private static long mix(long hash) {
+        hash ^= hash >>> 33;
+        hash *= 0xff51afd7ed558ccdL;
+        hash ^= hash >>> 33;
+        hash *= 0xc4ceb9fe1a85ec53L;
+        hash ^= hash >>> 33;
+        return hash;
+    }
+}
@@ -0,0 +1,60 @@
+package com.fbadsautomation.util.text;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * In-memory LSH index over {@link SimHash} fingerprints: one bucket map per band, so a lookup only
+ * compares against entries that share a band instead of every entry. Not thread-safe; meant to be
+ * built per batch.
+ *
+ * @param <T> value stored with each fingerprint
+ */
+public final class SimHashIndex<T> {
+
+    private final List<Map<Integer, List<Entry<T>>>> buckets = new ArrayList<>(SimHash.BANDS);
+
+    public SimHashIndex() {
+        for (int band = 0; band < SimHash.BANDS; band++) {
+            buckets.add(new HashMap<>());
+        }
+    }
+
+    public void add(long fingerprint, T value) {
+        Entry<T> entry = new Entry<>(fingerprint, value);
+        for (int band = 0; band < SimHash.BANDS; band++) {
+            buckets.get(band).computeIfAbsent(SimHash.band(fingerprint, band), key -> new ArrayList<>()).add(entry);
+        }
+    }
+
+    /**
+     * Values whose fingerprint is within {@link SimHash#MAX_DISTANCE} bits of {@code fingerprint}.
+     */
+    public List<T> findNearDuplicates(long fingerprint) {
+        Set<Entry<T>> seen = Collections.newSetFromMap(new IdentityHashMap<>());
+        List<T> found = new ArrayList<>();
+        for (int band = 0; band < SimHash.BANDS; band++) {
+            for (Entry<T> entry : buckets.get(band).getOrDefault(SimHash.band(fingerprint, band), List.of())) {
+                if (seen.add(entry) && SimHash.isNearDuplicate(fingerprint, entry.fingerprint)) {
+                    found.add(entry.value);
+                }
+            }
+        }
+        return found;
+    }
+
+    private static final class Entry<T> {
+        private final long fingerprint;
+        private final T value;
+
+        private Entry(long fingerprint, T value) {
+            this.fingerprint = fingerprint;
+            this.value = value;
+        }
+    }
+}
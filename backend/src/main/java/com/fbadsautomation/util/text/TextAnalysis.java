@@ -0,0 +1,76 @@
+package com.fbadsautomation.util.text;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import lombok.Value;
+
+/**
+ * Immutable result of {@link TextAnalyzer#analyze(String...)}: statistics per input field plus
+ * dictionary matches and punctuation features of the joined text.
+ */
+public final class TextAnalysis {
+
+    private final List<FieldStats> fields;
+    private final Map<String, Set<String>> matches;
+    private final boolean doubleSpace;
+    private final boolean lineBreak;
+    private final int longestPunctuationRun;
+
+    TextAnalysis(FieldStats[] fields, Map<String, Set<String>> matches,
+                 boolean doubleSpace, boolean lineBreak, int longestPunctuationRun) {
+        this.fields = List.of(fields);
+        matches.replaceAll((category, phrases) -> Collections.unmodifiableSet(phrases));
+        this.matches = Collections.unmodifiableMap(matches);
+        this.doubleSpace = doubleSpace;
+        this.lineBreak = lineBreak;
+        this.longestPunctuationRun = longestPunctuationRun;
+    }
+
+    public FieldStats field(int index) {
+        return fields.get(index);
+    }
+
+    /**
+     * Distinct phrases of the category found in the text, in order of first occurrence.
+     */
+    public Set<String> matches(String category) {
+        return matches.getOrDefault(category, Collections.emptySet());
+    }
+
+    public int matchCount(String category) {
+        return matches(category).size();
+    }
+
+    public boolean hasDoubleSpace() {
+        return doubleSpace;
+    }
+
+    /**
+     * Whether the text contains a line break, which regexes like {@code .*x.*} cannot cross.
+     */
+    public boolean hasLineBreak() {
+        return lineBreak;
+    }
+
+    /**
+     * Length of the longest run of {@code !} and {@code ?} characters.
+     */
+    public int getLongestPunctuationRun() {
+        return longestPunctuationRun;
+    }
+
+    @Value
+    public static class FieldStats {
+        int length;
+        /** Token count as returned by {@code split("\\s+")}. */
+        int wordCount;
+        /** Tokens longer than five characters. */
+        int longWordCount;
+        int wordCharCount;
+        /** Segment count as returned by {@code split("[.!?]+")}. */
+        int sentenceCount;
+        boolean blank;
+    }
+}
@@ -0,0 +1,328 @@
+package com.fbadsautomation.util.text;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Single-pass text engine shared by scoring, validation, moderation and sanitization. Every
+ * registered dictionary is matched by one Aho–Corasick automaton while word, sentence and character
+ * statistics are collected in the same loop. Whitespace runs reach the automaton as one space, so
+ * patterns can express {@code \s+} without a regex; plain phrases are then checked against the
+ * original text so they keep the semantics of {@code contains} or {@code \bphrase\b}.
+ *
+ * <p>{@link #scan(String)} turns one field into a {@link TextDocument}. {@link #analyze(String...)}
+ * joins several fields with a space (so phrases spanning two fields still match, as with a plain
+ * {@code contains} on the concatenation) and reports per-field statistics.
+ *
+ * <p>Statistics follow {@code String.split} semantics so scores computed from them match the
+ * regex-based code they replace: words are runs of {@code \s} ({@code [ \t\n\x0B\f\r]}) separated
+ * text and sentences are separated by runs of {@code [.!?]}.
+ *
+ * <p>Instances are immutable and meant to be built once per dictionary set and shared.
+ */
+public final class TextAnalyzer {
+
+    private final AhoCorasickMatcher<Entry> matcher;
+    private final Set<String> categories;
+    private final Map<String, Map<String, Integer>> phraseRanks;
+
+    private TextAnalyzer(AhoCorasickMatcher<Entry> matcher, Set<String> categories,
+                         Map<String, Map<String, Integer>> phraseRanks) {
+        this.matcher = matcher;
+        this.categories = categories;
+        this.phraseRanks = phraseRanks;
+    }
+
+    public static Builder builder() {
+        return new Builder();
+    }
+
+    public TextDocument scan(String text) {
+        Pass pass = run(text, new int[] {text.length()});
+        Map<String, List<PhraseMatch>> matches = new HashMap<>();
+        for (PhraseMatch match : pass.matches) {
+            matches.computeIfAbsent(match.getCategory(), key -> new ArrayList<>()).add(match);
+        }
+        return new TextDocument(text, pass.lowerText, matches, phraseRanks, pass.stats[0]);
+    }
+
+    public TextAnalysis analyze(String... fields) {
+        int[] fieldEnds = new int[fields.length];
+        int position = 0;
+        for (int field = 0; field < fields.length; field++) {
+            position += fields[field].length();
+            fieldEnds[field] = position;
+            position++;
+        }
+        Pass pass = run(String.join(" ", fields), fieldEnds);
+
+        Map<String, Set<String>> matches = new LinkedHashMap<>();
+        for (String category : categories) {
+            matches.put(category, new LinkedHashSet<>());
+        }
+        for (PhraseMatch match : pass.matches) {
+            matches.get(match.getCategory()).add(match.getPhrase());
+        }
+        TextAnalysis.FieldStats[] stats = new TextAnalysis.FieldStats[fields.length];
+        boolean lineBreak = false;
+        int longestPunctuationRun = 0;
+        for (int field = 0; field < fields.length; field++) {
+            TextStatsAccumulator accumulator = pass.stats[field];
+            stats[field] = new TextAnalysis.FieldStats(fields[field].length(), accumulator.splitWordCount(),
+                accumulator.longWordCount(), accumulator.wordCharCount(), accumulator.sentenceCount(),
+                accumulator.isBlank());
+            lineBreak |= accumulator.hasLineBreak();
+            // The joining space ends every run, so the longest run lies within one field
+            longestPunctuationRun = Math.max(longestPunctuationRun, accumulator.longestPunctuationRun());
+        }
+        return new TextAnalysis(stats, matches, pass.doubleSpace, lineBreak, longestPunctuationRun);
+    }
+
+    /**
+     * Feeds {@code text} to the automaton and to one statistics accumulator per field. Fields end at
+     * {@code fieldEnds}, each followed by one joining space that belongs to no field.
+     */
+    private Pass run(String text, int[] fieldEnds) {
+        int length = text.length();
+        char[] lower = new char[length];
+        // Original span of each character fed to the automaton; a whitespace run is fed as one space.
+        int[] fedStart = new int[length];
+        int[] fedEnd = new int[length];
+        List<RawMatch> raw = new ArrayList<>();
+        AhoCorasickMatcher.MatchListener<Entry> listener = (entry, start, end) -> raw.add(new RawMatch(entry, start, end));
+        TextStatsAccumulator[] stats = new TextStatsAccumulator[fieldEnds.length];
+        int field = 0;
+        stats[0] = new TextStatsAccumulator();
+        boolean doubleSpace = false;
+
+        AhoCorasickMatcher.Node<Entry> node = matcher.root();
+        int fed = 0;
+        boolean inWhitespace = false;
+        for (int i = 0; i < length; i++) {
+            char c = text.charAt(i);
+            char lowerChar = Character.toLowerCase(c);
+            lower[i] = lowerChar;
+            if (i == fieldEnds[field]) {
+                // The joining space
+                stats[field].finish();
+                stats[++field] = new TextStatsAccumulator();
+            } else {
+                stats[field].accept(c);
+            }
+            if (c == ' ' && i > 0 && text.charAt(i - 1) == ' ') {
+                doubleSpace = true;
+            }
+
+            char input;
+            if (isWhitespace(c)) {
+                if (inWhitespace) {
+                    fedEnd[fed - 1] = i + 1;
+                    continue;
+                }
+                inWhitespace = true;
+                input = ' ';
+            } else {
+                inWhitespace = false;
+                input = lowerChar;
+            }
+            fedStart[fed] = i;
+            fedEnd[fed] = i + 1;
+            fed++;
+            node = matcher.next(node, input);
+            matcher.emit(node, fed, listener);
+        }
+        stats[field].finish();
+
+        String lowerText = new String(lower);
+        List<PhraseMatch> matches = new ArrayList<>(raw.size());
+        for (RawMatch match : raw) {
+            int start = fedStart[match.start];
+            int end = fedEnd[match.end - 1];
+            if (match.entry.accepts(text, lowerText, start, end)) {
+                matches.add(new PhraseMatch(match.entry.category, match.entry.id, start, end));
+            }
+        }
+        return new Pass(lowerText, matches, stats, doubleSpace);
+    }
+
+    /**
+     * Same rule as the regex {@code \b}: a boundary sits between a word and a non-word character.
+     */
+    static boolean isBoundary(CharSequence text, int index) {
+        boolean before = index > 0 && isWordChar(text.charAt(index - 1));
+        boolean after = index < text.length() && isWordChar(text.charAt(index));
+        return before != after;
+    }
+
+    // Letters of any script count, and so do combining marks, so decomposed Vietnamese diacritics
+    // do not split a word.
+    static boolean isWordChar(char c) {
+        return Character.isLetterOrDigit(c) || c == '_' || Character.getType(c) == Character.NON_SPACING_MARK;
+    }
+
+    static boolean isWhitespace(char c) {
+        return c == ' ' || c == '\t' || c == '\n' || c == '\u000B' || c == '\f' || c == '\r';
+    }
+
+    static boolean isSentenceDelimiter(char c) {
+        return c == '.' || c == '!' || c == '?';
+    }
+
+    // Characters the regex '.' does not match.
+    static boolean isLineTerminator(char c) {
+        return c == '\n' || c == '\r' || c == '\u0085' || c == '\u2028' || c == '\u2029';
+    }
+
+    public static final class Builder {
+        private final AhoCorasickMatcher.Builder<Entry> matcherBuilder = AhoCorasickMatcher.builder();
+        private final Map<String, Map<String, Integer>> phraseRanks = new LinkedHashMap<>();
+
+        private Builder() {
+        }
+
+        /**
+         * Registers phrases matched case-insensitively at word boundaries only, like
+         * {@code (?i)\bphrase\b}.
+         */
+        public Builder words(String category, Collection<String> phrases) {
+            for (String phrase : phrases) {
+                add(category, phrase, checkPlain(phrase), Mode.WORD);
+            }
+            return this;
+        }
+
+        /**
+         * Registers phrases matched case-insensitively anywhere in the text, like
+         * {@code toLowerCase().contains(phrase)}.
+         */
+        public Builder substrings(String category, Collection<String> phrases) {
+            for (String phrase : phrases) {
+                add(category, phrase, checkPlain(phrase), Mode.SUBSTRING);
+            }
+            return this;
+        }
+
+        /**
+         * Registers phrases matched case-sensitively anywhere in the text, like {@code contains(phrase)}.
+         */
+        public Builder exact(String category, Collection<String> phrases) {
+            for (String phrase : phrases) {
+                add(category, phrase, checkPlain(phrase), Mode.EXACT);
+            }
+            return this;
+        }
+
+        /**
+         * Registers a case-insensitive pattern reported under {@code id}. Each variant is a literal in
+         * which a space stands for one or more whitespace characters, so {@code (?i)drop\s+table} is
+         * written as {@code "drop table"}; optional parts are spelled out as separate variants.
+         */
+        public Builder pattern(String category, String id, String... variants) {
+            for (String variant : variants) {
+                add(category, id, variant, Mode.PATTERN);
+            }
+            return this;
+        }
+
+        public TextAnalyzer build() {
+            Map<String, Map<String, Integer>> ranks = new LinkedHashMap<>();
+            phraseRanks.forEach((category, phrases) ->
+                ranks.put(category, Collections.unmodifiableMap(new LinkedHashMap<>(phrases))));
+            return new TextAnalyzer(matcherBuilder.build(), Collections.unmodifiableSet(ranks.keySet()),
+                Collections.unmodifiableMap(ranks));
+        }
+
+        private void add(String category, String id, String literal, Mode mode) {
+            Map<String, Integer> ranks = phraseRanks.computeIfAbsent(category, key -> new LinkedHashMap<>());
+            ranks.putIfAbsent(id, ranks.size());
+            matcherBuilder.add(literal, new Entry(category, id, literal.toLowerCase(Locale.ROOT), mode));
+        }
+
+        // Plain phrases are verified against the original text, which only works when every space in
+        // them sits between two non-whitespace characters.
+        private static String checkPlain(String phrase) {
+            for (int i = 0; i < phrase.length(); i++) {
+                char c = phrase.charAt(i);
+                if (isWhitespace(c)
+                    && (c != ' ' || i == 0 || i == phrase.length() - 1 || phrase.charAt(i + 1) == ' ')) {
+                    throw new IllegalArgumentException("Phrase may only contain single inner spaces: '" + phrase + "'");
+                }
+            }
+            return phrase;
+        }
+    }
+
+    private enum Mode {
+        WORD,
+        SUBSTRING,
+        EXACT,
+        PATTERN
+    }
+
+    private static final class Entry {
+        private final String category;
+        private final String id;
+        private final String lowerLiteral;
+        private final Mode mode;
+
+        private Entry(String category, String id, String lowerLiteral, Mode mode) {
+            this.category = category;
+            this.id = id;
+            this.lowerLiteral = lowerLiteral;
+            this.mode = mode;
+        }
+
+        private boolean accepts(String text, String lowerText, int start, int end) {
+            switch (mode) {
+                case WORD:
+                    return matchesLower(lowerText, start, end)
+                        && isBoundary(lowerText, start) && isBoundary(lowerText, end);
+                case SUBSTRING:
+                    return matchesLower(lowerText, start, end);
+                case EXACT:
+                    return end - start == id.length() && text.regionMatches(start, id, 0, id.length());
+                default:
+                    return true;
+            }
+        }
+
+        private boolean matchesLower(String lowerText, int start, int end) {
+            return end - start == lowerLiteral.length()
+                && lowerText.regionMatches(start, lowerLiteral, 0, lowerLiteral.length());
+        }
+    }
+
+    private static final class RawMatch {
+        private final Entry entry;
+        private final int start;
+        private final int end;
+
+        private RawMatch(Entry entry, int start, int end) {
+            this.entry = entry;
+            this.start = start;
+            this.end = end;
+        }
+    }
+
+    private static final class Pass {
+        private final String lowerText;
+        private final List<PhraseMatch> matches;
+        private final TextStatsAccumulator[] stats;
+        private final boolean doubleSpace;
+
+        private Pass(String lowerText, List<PhraseMatch> matches, TextStatsAccumulator[] stats, boolean doubleSpace) {
+            this.lowerText = lowerText;
+            this.matches = matches;
+            this.stats = stats;
+            this.doubleSpace = doubleSpace;
+        }
+    }
+}
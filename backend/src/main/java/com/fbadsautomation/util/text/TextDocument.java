@@ -0,0 +1,176 @@
+package com.fbadsautomation.util.text;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+
+/**
+ * Immutable result of {@link TextAnalyzer#scan(String)}: the text, its lower-case form, every
+ * dictionary match and the statistics validators need, so each field is read only once no matter
+ * how many checks consume it.
+ */
+public final class TextDocument {
+
+    private final String text;
+    private final String lowerText;
+    private final Map<String, List<PhraseMatch>> matches;
+    private final Map<String, Map<String, Integer>> phraseRanks;
+    private final boolean blank;
+    private final int tokenCount;
+    private final int splitWordCount;
+    private final int sentenceCount;
+    private final int letterCount;
+    private final int upperCaseCount;
+    private final int longestPunctuationRun;
+    private final boolean lineBreak;
+
+    TextDocument(String text, String lowerText, Map<String, List<PhraseMatch>> matches,
+                 Map<String, Map<String, Integer>> phraseRanks, TextStatsAccumulator stats) {
+        this.text = text;
+        this.lowerText = lowerText;
+        this.matches = matches;
+        this.phraseRanks = phraseRanks;
+        this.blank = stats.isBlank();
+        this.tokenCount = stats.tokenCount();
+        this.splitWordCount = stats.splitWordCount();
+        this.sentenceCount = stats.sentenceCount();
+        this.letterCount = stats.letterCount();
+        this.upperCaseCount = stats.upperCaseCount();
+        this.longestPunctuationRun = stats.longestPunctuationRun();
+        this.lineBreak = stats.hasLineBreak();
+    }
+
+    public String getText() {
+        return text;
+    }
+
+    public String getLowerText() {
+        return lowerText;
+    }
+
+    public int length() {
+        return text.length();
+    }
+
+    /** Same as {@code trim().isEmpty()}. */
+    public boolean isBlank() {
+        return blank;
+    }
+
+    /** Number of non-empty whitespace separated tokens, i.e. {@code trim().split("\\s+").length}. */
+    public int getTokenCount() {
+        return tokenCount;
+    }
+
+    /** Same as {@code split("\\s+").length}, including the leading empty token. */
+    public int getSplitWordCount() {
+        return splitWordCount;
+    }
+
+    /** Same as {@code split("[.!?]+").length}. */
+    public int getSentenceCount() {
+        return sentenceCount;
+    }
+
+    public int getLetterCount() {
+        return letterCount;
+    }
+
+    public int getUpperCaseCount() {
+        return upperCaseCount;
+    }
+
+    /** Length of the longest run of {@code !} and {@code ?} characters. */
+    public int getLongestPunctuationRun() {
+        return longestPunctuationRun;
+    }
+
+    /** Whether the text contains a line break, which regexes like {@code .*x.*} cannot cross. */
+    public boolean hasLineBreak() {
+        return lineBreak;
+    }
+
+    /**
+     * Lower-case tokens as returned by {@code toLowerCase().split("\\s+")}. Computed on each call.
+     */
+    public List<String> words() {
+        if (text.isEmpty()) {
+            return List.of("");
+        }
+        List<String> words = new ArrayList<>(splitWordCount);
+        int tokenStart = -1;
+        for (int i = 0; i < lowerText.length(); i++) {
+            if (TextAnalyzer.isWhitespace(lowerText.charAt(i))) {
+                if (tokenStart >= 0) {
+                    words.add(lowerText.substring(tokenStart, i));
+                    tokenStart = -1;
+                } else if (i == 0) {
+                    words.add("");
+                }
+            } else if (tokenStart < 0) {
+                tokenStart = i;
+            }
+        }
+        if (tokenStart >= 0) {
+            words.add(lowerText.substring(tokenStart));
+        }
+        // A whitespace-only text has no tokens at all, not even the leading empty one.
+        return tokenCount == 0 ? List.of() : words;
+    }
+
+    public List<PhraseMatch> getMatches(String category) {
+        List<PhraseMatch> found = matches.get(category);
+        return found != null ? Collections.unmodifiableList(found) : List.of();
+    }
+
+    public boolean contains(String category, String phrase) {
+        for (PhraseMatch match : getMatches(category)) {
+            if (match.getPhrase().equals(phrase)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Picks non-overlapping matches the way applying one {@code replaceAll} per phrase would: the
+     * categories in the given order, phrases in registration order, and the leftmost, longest
+     * occurrences of each phrase first. The result is sorted by position.
+     */
+    public List<PhraseMatch> resolve(String... categories) {
+        List<PhraseMatch> accepted = new ArrayList<>();
+        for (String category : categories) {
+            Map<String, Integer> ranks = phraseRanks.getOrDefault(category, Map.of());
+            List<PhraseMatch> candidates = new ArrayList<>(getMatches(category));
+            candidates.sort(Comparator.<PhraseMatch>comparingInt(match -> ranks.getOrDefault(match.getPhrase(), 0))
+                .thenComparingInt(PhraseMatch::getStart)
+                .thenComparing(Comparator.comparingInt(PhraseMatch::getEnd).reversed()));
+            for (PhraseMatch candidate : candidates) {
+                if (accepted.stream().noneMatch(candidate::overlaps)) {
+                    accepted.add(candidate);
+                }
+            }
+        }
+        accepted.sort(Comparator.comparingInt(PhraseMatch::getStart));
+        return accepted;
+    }
+
+    /**
+     * Replaces the given non-overlapping matches, sorted by position, in the original text.
+     */
+    public String replace(List<PhraseMatch> resolved, Function<PhraseMatch, String> replacement) {
+        if (resolved.isEmpty()) {
+            return text;
+        }
+        StringBuilder result = new StringBuilder(text.length());
+        int position = 0;
+        for (PhraseMatch match : resolved) {
+            result.append(text, position, match.getStart()).append(replacement.apply(match));
+            position = match.getEnd();
+        }
+        return result.append(text, position, text.length()).toString();
+    }
+}
@@ -0,0 +1,139 @@
+package com.fbadsautomation.util.text;
+
+/**
+ * Collects word, sentence and character statistics of one piece of text, one character at a time.
+ * Counts follow {@code String.split} semantics so callers can replace regex splitting without
+ * changing results: words are runs of {@code \s} separated text and sentences are separated by runs
+ * of {@code [.!?]}.
+ */
+final class TextStatsAccumulator {
+    private int words;
+    private int longWords;
+    private int wordChars;
+    private int tokenLength;
+    private boolean startsWithWhitespace;
+    private int pieces;
+    private int lastNonEmptyPiece = -1;
+    private int pieceLength;
+    private boolean inDelimiter;
+    private boolean blank = true;
+    private int letters;
+    private int upperCase;
+    private int punctuationRun;
+    private int longestPunctuationRun;
+    private boolean lineBreak;
+    private int index;
+
+    void accept(char c) {
+        if (index == 0) {
+            startsWithWhitespace = TextAnalyzer.isWhitespace(c);
+        }
+        index++;
+        if (c > ' ') {
+            blank = false;
+        }
+        if (Character.isLetter(c)) {
+            letters++;
+        }
+        if (Character.isUpperCase(c)) {
+            upperCase++;
+        }
+        if (TextAnalyzer.isLineTerminator(c)) {
+            lineBreak = true;
+        }
+        if (c == '!' || c == '?') {
+            punctuationRun++;
+            longestPunctuationRun = Math.max(longestPunctuationRun, punctuationRun);
+        } else {
+            punctuationRun = 0;
+        }
+
+        if (TextAnalyzer.isWhitespace(c)) {
+            closeToken();
+        } else {
+            tokenLength++;
+        }
+
+        if (TextAnalyzer.isSentenceDelimiter(c)) {
+            if (!inDelimiter) {
+                closePiece();
+                inDelimiter = true;
+            }
+        } else {
+            inDelimiter = false;
+            pieceLength++;
+        }
+    }
+
+    void finish() {
+        closeToken();
+        closePiece();
+    }
+
+    /** Token count as returned by {@code split("\\s+")}. */
+    int splitWordCount() {
+        // split() keeps a leading empty token and drops trailing ones; with no separator at all it
+        // returns the input itself.
+        if (index == 0) {
+            return 1;
+        }
+        return words + (startsWithWhitespace && words > 0 ? 1 : 0);
+    }
+
+    /** Non-empty tokens, i.e. {@code trim().split("\\s+").length} for non-blank text. */
+    int tokenCount() {
+        return words;
+    }
+
+    int longWordCount() {
+        return longWords;
+    }
+
+    int wordCharCount() {
+        return wordChars;
+    }
+
+    /** Segment count as returned by {@code split("[.!?]+")}. */
+    int sentenceCount() {
+        return pieces == 1 ? 1 : lastNonEmptyPiece + 1;
+    }
+
+    boolean isBlank() {
+        return blank;
+    }
+
+    int letterCount() {
+        return letters;
+    }
+
+    int upperCaseCount() {
+        return upperCase;
+    }
+
+    int longestPunctuationRun() {
+        return longestPunctuationRun;
+    }
+
+    boolean hasLineBreak() {
+        return lineBreak;
+    }
+
+    private void closeToken() {
+        if (tokenLength > 0) {
+            words++;
+            wordChars += tokenLength;
+            if (tokenLength > 5) {
+                longWords++;
+            }
+            tokenLength = 0;
+        }
+    }
+
+    private void closePiece() {
+        if (pieceLength > 0) {
+            lastNonEmptyPiece = pieces;
+        }
+        pieces++;
+        pieceLength = 0;
+    }
+}
@@ -0,0 +1,7 @@
+-- V32: Allocate ad_contents and ad_performance_reports ids in blocks of 50
+-- Hibernate's pooled optimizer reserves one block per nextval() call, which lets
+-- multi-variation saves and report imports use JDBC batch inserts instead of
+-- one IDENTITY round-trip per row. The increment must match allocationSize in
+-- AdContent and AdPerformanceReport.
+ALTER SEQUENCE IF EXISTS ad_contents_id_seq INCREMENT BY 50;
+ALTER SEQUENCE IF EXISTS ad_performance_reports_id_seq INCREMENT BY 50;
@@ -0,0 +1,27 @@
+-- V33: SimHash fingerprints for near-duplicate detection of generated copy
+-- The 64-bit fingerprint is cut into eight 8-bit bands. Fingerprints at most 7
+-- bits apart always share a band, so similar past ads of a user are found with
+-- one GIN probe on the band keys instead of comparing every row. Band keys are
+-- band_index * 256 + band_value and must match SimHash.bandKeys.
+ALTER TABLE ad_contents
+    ADD COLUMN IF NOT EXISTS content_simhash BIGINT;
+
+ALTER TABLE ad_contents
+    ADD COLUMN IF NOT EXISTS content_simhash_bands INT[] GENERATED ALWAYS AS (
+        CASE WHEN content_simhash IS NULL THEN NULL ELSE ARRAY[
+            ((content_simhash >> 56) & 255)::int,
+            256 + ((content_simhash >> 48) & 255)::int,
+            512 + ((content_simhash >> 40) & 255)::int,
+            768 + ((content_simhash >> 32) & 255)::int,
+            1024 + ((content_simhash >> 24) & 255)::int,
+            1280 + ((content_simhash >> 16) & 255)::int,
+            1536 + ((content_simhash >> 8) & 255)::int,
+            1792 + (content_simhash & 255)::int
+        ] END
+    ) STORED;
+
+CREATE INDEX IF NOT EXISTS idx_ad_contents_simhash_bands
+    ON ad_contents USING GIN (content_simhash_bands);
+
+COMMENT ON COLUMN ad_contents.content_simhash IS '64-bit SimHash of headline, description and primary text';
+COMMENT ON COLUMN ad_contents.content_simhash_bands IS 'LSH band keys of content_simhash, see SimHash.bandKeys';
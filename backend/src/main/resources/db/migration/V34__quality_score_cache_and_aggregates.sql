@@ -0,0 +1,201 @@
+-- =====================================================
+-- Migration V34: Persist quality scores and maintain score aggregates
+-- Scores are stored per ad content together with the hash of the scored copy
+-- and the scorer version, so unchanged content is never scored twice.
+-- Per-ad and per-campaign aggregates are kept up to date by a trigger so the
+-- stats endpoints read one row instead of re-scoring every variation.
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS ad_content_quality_scores (
+    ad_content_id BIGINT PRIMARY KEY REFERENCES ad_contents(id) ON DELETE CASCADE,
+    ad_id BIGINT NOT NULL,
+    campaign_id BIGINT,
+    content_hash VARCHAR(64) NOT NULL,
+    scorer_version INTEGER NOT NULL,
+    compliance_score DOUBLE PRECISION NOT NULL,
+    linguistic_score DOUBLE PRECISION NOT NULL,
+    persuasiveness_score DOUBLE PRECISION NOT NULL,
+    completeness_score DOUBLE PRECISION NOT NULL,
+    total_score DOUBLE PRECISION NOT NULL,
+    grade VARCHAR(4),
+    suggestions_json TEXT,
+    strengths_json TEXT,
+    features_json TEXT,
+    version BIGINT,
+    scored_at TIMESTAMP
+);
+
+CREATE INDEX IF NOT EXISTS idx_ad_content_quality_scores_ad_id ON ad_content_quality_scores(ad_id);
+CREATE INDEX IF NOT EXISTS idx_ad_content_quality_scores_campaign_id ON ad_content_quality_scores(campaign_id);
+
+CREATE TABLE IF NOT EXISTS quality_score_aggregates (
+    scope VARCHAR(16) NOT NULL,
+    scope_id BIGINT NOT NULL,
+    score_count INTEGER NOT NULL,
+    sum_total DOUBLE PRECISION NOT NULL,
+    min_total DOUBLE PRECISION NOT NULL,
+    max_total DOUBLE PRECISION NOT NULL,
+    sum_compliance DOUBLE PRECISION NOT NULL,
+    min_compliance DOUBLE PRECISION NOT NULL,
+    max_compliance DOUBLE PRECISION NOT NULL,
+    sum_linguistic DOUBLE PRECISION NOT NULL,
+    min_linguistic DOUBLE PRECISION NOT NULL,
+    max_linguistic DOUBLE PRECISION NOT NULL,
+    sum_persuasiveness DOUBLE PRECISION NOT NULL,
+    min_persuasiveness DOUBLE PRECISION NOT NULL,
+    max_persuasiveness DOUBLE PRECISION NOT NULL,
+    sum_completeness DOUBLE PRECISION NOT NULL,
+    min_completeness DOUBLE PRECISION NOT NULL,
+    max_completeness DOUBLE PRECISION NOT NULL,
+    updated_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    PRIMARY KEY (scope, scope_id)
+);
+
+-- Rebuilds one aggregate from the score rows. Only needed when a removed score
+-- was the minimum or maximum of its scope, which a running sum cannot undo.
+CREATE OR REPLACE FUNCTION refresh_quality_score_aggregate(p_scope VARCHAR, p_scope_id BIGINT)
+RETURNS VOID AS $$
+BEGIN
+    DELETE FROM quality_score_aggregates WHERE scope = p_scope AND scope_id = p_scope_id;
+
+    INSERT INTO quality_score_aggregates (
+        scope, scope_id, score_count,
+        sum_total, min_total, max_total,
+        sum_compliance, min_compliance, max_compliance,
+        sum_linguistic, min_linguistic, max_linguistic,
+        sum_persuasiveness, min_persuasiveness, max_persuasiveness,
+        sum_completeness, min_completeness, max_completeness,
+        updated_at)
+    SELECT p_scope, p_scope_id, COUNT(*),
+        SUM(s.total_score), MIN(s.total_score), MAX(s.total_score),
+        SUM(s.compliance_score), MIN(s.compliance_score), MAX(s.compliance_score),
+        SUM(s.linguistic_score), MIN(s.linguistic_score), MAX(s.linguistic_score),
+        SUM(s.persuasiveness_score), MIN(s.persuasiveness_score), MAX(s.persuasiveness_score),
+        SUM(s.completeness_score), MIN(s.completeness_score), MAX(s.completeness_score),
+        NOW()
+    FROM ad_content_quality_scores s
+    WHERE (p_scope = 'AD' AND s.ad_id = p_scope_id)
+       OR (p_scope = 'CAMPAIGN' AND s.campaign_id = p_scope_id)
+    HAVING COUNT(*) > 0;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION add_quality_score(p_scope VARCHAR, p_scope_id BIGINT, s ad_content_quality_scores)
+RETURNS VOID AS $$
+BEGIN
+    INSERT INTO quality_score_aggregates AS a (
+        scope, scope_id, score_count,
+        sum_total, min_total, max_total,
+        sum_compliance, min_compliance, max_compliance,
+        sum_linguistic, min_linguistic, max_linguistic,
+        sum_persuasiveness, min_persuasiveness, max_persuasiveness,
+        sum_completeness, min_completeness, max_completeness,
+        updated_at)
+    VALUES (p_scope, p_scope_id, 1,
+        s.total_score, s.total_score, s.total_score,
+        s.compliance_score, s.compliance_score, s.compliance_score,
+        s.linguistic_score, s.linguistic_score, s.linguistic_score,
+        s.persuasiveness_score, s.persuasiveness_score, s.persuasiveness_score,
+        s.completeness_score, s.completeness_score, s.completeness_score,
+        NOW())
+    ON CONFLICT (scope, scope_id) DO UPDATE SET
+        score_count = a.score_count + 1,
+        sum_total = a.sum_total + EXCLUDED.sum_total,
+        min_total = LEAST(a.min_total, EXCLUDED.min_total),
+        max_total = GREATEST(a.max_total, EXCLUDED.max_total),
+        sum_compliance = a.sum_compliance + EXCLUDED.sum_compliance,
+        min_compliance = LEAST(a.min_compliance, EXCLUDED.min_compliance),
+        max_compliance = GREATEST(a.max_compliance, EXCLUDED.max_compliance),
+        sum_linguistic = a.sum_linguistic + EXCLUDED.sum_linguistic,
+        min_linguistic = LEAST(a.min_linguistic, EXCLUDED.min_linguistic),
+        max_linguistic = GREATEST(a.max_linguistic, EXCLUDED.max_linguistic),
+        sum_persuasiveness = a.sum_persuasiveness + EXCLUDED.sum_persuasiveness,
+        min_persuasiveness = LEAST(a.min_persuasiveness, EXCLUDED.min_persuasiveness),
+        max_persuasiveness = GREATEST(a.max_persuasiveness, EXCLUDED.max_persuasiveness),
+        sum_completeness = a.sum_completeness + EXCLUDED.sum_completeness,
+        min_completeness = LEAST(a.min_completeness, EXCLUDED.min_completeness),
+        max_completeness = GREATEST(a.max_completeness, EXCLUDED.max_completeness),
+        updated_at = NOW();
+END;
+$$ LANGUAGE plpgsql;
+
+-- Returns TRUE when the aggregate had to be rebuilt from the table, in which
+-- case it already reflects the current rows.
+CREATE OR REPLACE FUNCTION remove_quality_score(p_scope VARCHAR, p_scope_id BIGINT, s ad_content_quality_scores)
+RETURNS BOOLEAN AS $$
+DECLARE
+    agg quality_score_aggregates%ROWTYPE;
+BEGIN
+    SELECT * INTO agg FROM quality_score_aggregates
+    WHERE scope = p_scope AND scope_id = p_scope_id
+    FOR UPDATE;
+    IF NOT FOUND THEN
+        RETURN FALSE;
+    END IF;
+
+    IF agg.score_count <= 1
+       OR s.total_score IN (agg.min_total, agg.max_total)
+       OR s.compliance_score IN (agg.min_compliance, agg.max_compliance)
+       OR s.linguistic_score IN (agg.min_linguistic, agg.max_linguistic)
+       OR s.persuasiveness_score IN (agg.min_persuasiveness, agg.max_persuasiveness)
+       OR s.completeness_score IN (agg.min_completeness, agg.max_completeness) THEN
+        PERFORM refresh_quality_score_aggregate(p_scope, p_scope_id);
+        RETURN TRUE;
+    END IF;
+
+    UPDATE quality_score_aggregates SET
+        score_count = score_count - 1,
+        sum_total = sum_total - s.total_score,
+        sum_compliance = sum_compliance - s.compliance_score,
+        sum_linguistic = sum_linguistic - s.linguistic_score,
+        sum_persuasiveness = sum_persuasiveness - s.persuasiveness_score,
+        sum_completeness = sum_completeness - s.completeness_score,
+        updated_at = NOW()
+    WHERE scope = p_scope AND scope_id = p_scope_id;
+    RETURN FALSE;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE OR REPLACE FUNCTION update_quality_score_aggregates()
+RETURNS TRIGGER AS $$
+DECLARE
+    ad_refreshed BOOLEAN := FALSE;
+    campaign_refreshed BOOLEAN := FALSE;
+BEGIN
+    IF TG_OP = 'UPDATE'
+       AND OLD.ad_id = NEW.ad_id
+       AND OLD.campaign_id IS NOT DISTINCT FROM NEW.campaign_id
+       AND OLD.total_score = NEW.total_score
+       AND OLD.compliance_score = NEW.compliance_score
+       AND OLD.linguistic_score = NEW.linguistic_score
+       AND OLD.persuasiveness_score = NEW.persuasiveness_score
+       AND OLD.completeness_score = NEW.completeness_score THEN
+        RETURN NEW;
+    END IF;
+
+    IF TG_OP IN ('UPDATE', 'DELETE') THEN
+        ad_refreshed := remove_quality_score('AD', OLD.ad_id, OLD);
+        IF OLD.campaign_id IS NOT NULL THEN
+            campaign_refreshed := remove_quality_score('CAMPAIGN', OLD.campaign_id, OLD);
+        END IF;
+    END IF;
+
+    IF TG_OP IN ('INSERT', 'UPDATE') THEN
+        -- A rebuilt aggregate of the same scope already counts the new row
+        IF NOT (ad_refreshed AND TG_OP = 'UPDATE' AND OLD.ad_id = NEW.ad_id) THEN
+            PERFORM add_quality_score('AD', NEW.ad_id, NEW);
+        END IF;
+        IF NEW.campaign_id IS NOT NULL
+           AND NOT (campaign_refreshed AND TG_OP = 'UPDATE' AND OLD.campaign_id = NEW.campaign_id) THEN
+            PERFORM add_quality_score('CAMPAIGN', NEW.campaign_id, NEW);
+        END IF;
+        RETURN NEW;
+    END IF;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+CREATE TRIGGER quality_score_aggregates_trigger
+    AFTER INSERT OR UPDATE OR DELETE ON ad_content_quality_scores
+    FOR EACH ROW
+    EXECUTE FUNCTION update_quality_score_aggregates();
@@ -0,0 +1,66 @@
+-- =====================================================
+-- Migration V35: Local corpus of competitor ads
+-- Every ad fetched from ScrapeCreators or the Meta Ad Library API is upserted
+-- here, so repeat lookups of a brand are answered by the database instead of
+-- a live API call. Images are kept as their CDN URLs, never downloaded.
+-- Full-text (simple dictionary, since copy is mixed Vietnamese and English)
+-- and trigram indexes cover headline and body; a trigram index on the brand
+-- key serves fuzzy brand lookups.
+-- =====================================================
+
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE TABLE IF NOT EXISTS competitor_ads (
+    id BIGSERIAL PRIMARY KEY,
+    source VARCHAR(32) NOT NULL,
+    external_id VARCHAR(128) NOT NULL,
+    brand_name VARCHAR(255),
+    brand_key VARCHAR(255),
+    page_id VARCHAR(64),
+    country VARCHAR(10),
+    headline TEXT,
+    body TEXT,
+    description TEXT,
+    call_to_action VARCHAR(64),
+    image_urls_json TEXT,
+    video_url TEXT,
+    landing_page_url TEXT,
+    ad_library_url TEXT,
+    start_date DATE,
+    end_date DATE,
+    is_active BOOLEAN,
+    first_seen_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    last_seen_at TIMESTAMP NOT NULL DEFAULT NOW(),
+    search_text TEXT GENERATED ALWAYS AS (COALESCE(headline, '') || ' ' || COALESCE(body, '')) STORED,
+    search_vector TSVECTOR GENERATED ALWAYS AS (
+        setweight(to_tsvector('simple', COALESCE(headline, '')), 'A') ||
+        setweight(to_tsvector('simple', COALESCE(body, '')), 'B')
+    ) STORED,
+    CONSTRAINT uq_competitor_ads_source_external UNIQUE (source, external_id)
+);
+
+-- Ids are allocated in blocks of 50 (matching allocationSize in CompetitorAd) so
+-- an upserted page of ads is inserted in one JDBC batch, as V32 does for ad_contents.
+ALTER SEQUENCE competitor_ads_id_seq INCREMENT BY 50;
+
+CREATE INDEX IF NOT EXISTS idx_competitor_ads_search_vector ON competitor_ads USING GIN (search_vector);
+CREATE INDEX IF NOT EXISTS idx_competitor_ads_search_text_trgm ON competitor_ads USING GIN (search_text gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_competitor_ads_brand_key_trgm ON competitor_ads USING GIN (brand_key gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_competitor_ads_brand_key_seen ON competitor_ads (brand_key, last_seen_at DESC);
+
+-- When each brand search was last answered by the API; older than the
+-- configured freshness the corpus still answers, and a refresh runs in the background
+CREATE TABLE IF NOT EXISTS competitor_brand_refreshes (
+    brand_key VARCHAR(255) NOT NULL,
+    country VARCHAR(10) NOT NULL,
+    refreshed_at TIMESTAMP NOT NULL,
+    ad_count INTEGER NOT NULL DEFAULT 0,
+    PRIMARY KEY (brand_key, country)
+);
+
+COMMENT ON TABLE competitor_ads IS
+    'Competitor ads seen through ScrapeCreators or the Meta Ad Library API, upserted on every fetch.';
+COMMENT ON COLUMN competitor_ads.brand_key IS
+    'Lower-cased, whitespace-collapsed advertiser name used for brand lookups.';
+COMMENT ON COLUMN competitor_ads.image_urls_json IS
+    'JSON array of image URLs; images are referenced, not stored.';
@@ -0,0 +1,71 @@
+-- =====================================================
+-- Migration V36: Brand autocomplete index
+-- One row per user and distinct brand (case-insensitive) with its search
+-- count and last search time, kept up to date by a trigger on
+-- competitor_searches. Autocomplete reads the few rows matching a prefix
+-- instead of the user's whole search history.
+-- =====================================================
+
+CREATE TABLE IF NOT EXISTS competitor_brand_suggestions (
+    user_id BIGINT NOT NULL REFERENCES users(id) ON DELETE CASCADE,
+    brand_key VARCHAR(100) NOT NULL,
+    brand_name VARCHAR(100) NOT NULL,
+    search_count INTEGER NOT NULL,
+    last_searched_at TIMESTAMP NOT NULL,
+    PRIMARY KEY (user_id, brand_key)
+);
+
+-- Prefix matches (LIKE 'abc%') regardless of the database collation
+CREATE INDEX IF NOT EXISTS idx_competitor_brand_suggestions_prefix
+    ON competitor_brand_suggestions (user_id, brand_key varchar_pattern_ops);
+-- Most recent brands when no prefix has been typed yet
+CREATE INDEX IF NOT EXISTS idx_competitor_brand_suggestions_recent
+    ON competitor_brand_suggestions (user_id, last_searched_at DESC);
+
+CREATE OR REPLACE FUNCTION update_competitor_brand_suggestions()
+RETURNS TRIGGER AS $$
+BEGIN
+    IF TG_OP = 'INSERT' THEN
+        IF NULLIF(BTRIM(NEW.brand_name), '') IS NULL THEN
+            RETURN NEW;
+        END IF;
+        INSERT INTO competitor_brand_suggestions AS s (user_id, brand_key, brand_name, search_count, last_searched_at)
+        VALUES (NEW.user_id, LOWER(BTRIM(NEW.brand_name)), BTRIM(NEW.brand_name), 1, NEW.search_date)
+        ON CONFLICT (user_id, brand_key) DO UPDATE SET
+            search_count = s.search_count + 1,
+            -- Show the spelling of the latest search
+            brand_name = CASE WHEN EXCLUDED.last_searched_at >= s.last_searched_at
+                              THEN EXCLUDED.brand_name ELSE s.brand_name END,
+            last_searched_at = GREATEST(s.last_searched_at, EXCLUDED.last_searched_at);
+        RETURN NEW;
+    END IF;
+
+    -- Deleted rows are usually the oldest (history cleanup), so the last
+    -- search time is left as is and only the count goes down
+    UPDATE competitor_brand_suggestions
+    SET search_count = search_count - 1
+    WHERE user_id = OLD.user_id AND brand_key = LOWER(BTRIM(OLD.brand_name));
+    DELETE FROM competitor_brand_suggestions
+    WHERE user_id = OLD.user_id AND brand_key = LOWER(BTRIM(OLD.brand_name)) AND search_count <= 0;
+    RETURN OLD;
+END;
+$$ LANGUAGE plpgsql;
+
+DROP TRIGGER IF EXISTS competitor_brand_suggestions_trigger ON competitor_searches;
+CREATE TRIGGER competitor_brand_suggestions_trigger
+    AFTER INSERT OR DELETE ON competitor_searches
+    FOR EACH ROW
+    EXECUTE FUNCTION update_competitor_brand_suggestions();
+
+-- Backfill from the existing history
+INSERT INTO competitor_brand_suggestions (user_id, brand_key, brand_name, search_count, last_searched_at)
+SELECT DISTINCT ON (user_id, LOWER(BTRIM(brand_name)))
+    user_id,
+    LOWER(BTRIM(brand_name)),
+    BTRIM(brand_name),
+    COUNT(*) OVER (PARTITION BY user_id, LOWER(BTRIM(brand_name))),
+    search_date
+FROM competitor_searches
+WHERE NULLIF(BTRIM(brand_name), '') IS NOT NULL
+ORDER BY user_id, LOWER(BTRIM(brand_name)), search_date DESC
+ON CONFLICT (user_id, brand_key) DO NOTHING;
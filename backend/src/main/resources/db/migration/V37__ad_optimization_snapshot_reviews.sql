@@ -0,0 +1,13 @@
+-- =====================================================
+-- Migration V37: Reusable copy reviews on optimization snapshots
+-- A snapshot keeps the AI copy review shown when it was saved, with the
+-- key of the copy, persona and language it was computed for. Analyzing an
+-- unchanged ad again reuses that review instead of calling the LLM.
+-- =====================================================
+
+ALTER TABLE ad_optimization_snapshots ADD COLUMN IF NOT EXISTS review_key VARCHAR(128);
+ALTER TABLE ad_optimization_snapshots ADD COLUMN IF NOT EXISTS copy_review_json TEXT;
+
+-- Latest snapshots of the analyzed ads, and whether an ad has been saved at all
+CREATE INDEX IF NOT EXISTS idx_ad_optimization_snapshots_user_ad
+    ON ad_optimization_snapshots (user_id, ad_id, created_at DESC);
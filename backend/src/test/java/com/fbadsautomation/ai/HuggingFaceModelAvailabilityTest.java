@@ -0,0 +1,118 @@
+package com.fbadsautomation.ai;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.timeout;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.HttpServerErrorException;
+import org.springframework.web.client.RestTemplate;
+
+class HuggingFaceModelAvailabilityTest {
+
+    private static final String MODEL = "https://router.huggingface.co/hf-inference/models/gpt2";
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private RestTemplate restTemplate;
+
+    @BeforeEach
+    void setUp() {
+        restTemplate = mock(RestTemplate.class);
+    }
+
+    @Test
+    void loadingResponse_marksModelNotReadyUntilItsEstimate() {
+        HuggingFaceModelAvailability availability = availability(false);
+
+        assertTrue(availability.recordFailure(MODEL, loading(20.0)));
+
+        assertFalse(availability.isReady(MODEL));
+        assertEquals(20_000, availability.millisUntilReady(MODEL));
+        now.addAndGet(20_000);
+        assertTrue(availability.isReady(MODEL));
+    }
+
+    @Test
+    void probeModels_pollsColdModelsUntilWarm() {
+        HuggingFaceModelAvailability availability = availability(false);
+        when(restTemplate.exchange(eq(MODEL), eq(HttpMethod.POST), any(HttpEntity.class), eq(byte[].class)))
+            .thenThrow(loading(30.0))
+            .thenReturn(ResponseEntity.ok(new byte[0]));
+
+        availability.probeModels();
+        assertFalse(availability.isReady(MODEL));
+        // Not probed again before the estimate has passed
+        availability.probeModels();
+        now.addAndGet(30_000);
+        availability.probeModels();
+
+        assertTrue(availability.isReady(MODEL));
+        assertEquals("WARM", availability.snapshot().get(0).get("state"));
+        verify(restTemplate, times(2)).exchange(eq(MODEL), eq(HttpMethod.POST), any(HttpEntity.class), eq(byte[].class));
+    }
+
+    @Test
+    void probeModels_keepsRecentlyUsedModelsWarmOnlyWhenEnabled() {
+        when(restTemplate.exchange(eq(MODEL), eq(HttpMethod.POST), any(HttpEntity.class), eq(byte[].class)))
+            .thenReturn(ResponseEntity.ok(new byte[0]));
+        HuggingFaceModelAvailability withoutKeepAlive = availability(false);
+        withoutKeepAlive.recordSuccess(MODEL);
+        now.addAndGet(Duration.ofMinutes(11).toMillis());
+
+        withoutKeepAlive.probeModels();
+        verify(restTemplate, never()).exchange(eq(MODEL), eq(HttpMethod.POST), any(HttpEntity.class), eq(byte[].class));
+
+        HuggingFaceModelAvailability withKeepAlive = availability(true);
+        withKeepAlive.recordSuccess(MODEL);
+        now.addAndGet(Duration.ofMinutes(11).toMillis());
+
+        withKeepAlive.probeModels();
+        verify(restTemplate, times(1)).exchange(eq(MODEL), eq(HttpMethod.POST), any(HttpEntity.class), eq(byte[].class));
+    }
+
+    @Test
+    void start_probesUnknownModelsInTheBackground() {
+        when(restTemplate.exchange(eq(MODEL), eq(HttpMethod.POST), any(HttpEntity.class), eq(byte[].class)))
+            .thenReturn(ResponseEntity.ok(new byte[0]));
+        HuggingFaceModelAvailability availability = new HuggingFaceModelAvailability(restTemplate, "hf-key", false,
+            Duration.ofMinutes(10), Duration.ofMinutes(30), 50, 0, now::get);
+        availability.register(MODEL, HuggingFaceModelAvailability.TEXT_PROBE);
+
+        availability.start();
+        try {
+            verify(restTemplate, timeout(5000)).exchange(eq(MODEL), eq(HttpMethod.POST), any(HttpEntity.class), eq(byte[].class));
+        } finally {
+            availability.stop();
+        }
+    }
+
+    private HuggingFaceModelAvailability availability(boolean keepAlive) {
+        HuggingFaceModelAvailability availability = new HuggingFaceModelAvailability(restTemplate, "hf-key", keepAlive,
+            Duration.ofMinutes(10), Duration.ofMinutes(30), 60_000, 15_000, now::get);
+        availability.register(MODEL, HuggingFaceModelAvailability.TEXT_PROBE);
+        return availability;
+    }
+
+    private HttpServerErrorException loading(double estimatedSeconds) {
+        String body = "{\"error\":\"Model gpt2 is currently loading\",\"estimated_time\":" + estimatedSeconds + "}";
+        return HttpServerErrorException.create(HttpStatus.SERVICE_UNAVAILABLE, "Service Unavailable", new HttpHeaders(),
+            body.getBytes(StandardCharsets.UTF_8), StandardCharsets.UTF_8);
+    }
+}
@@ -0,0 +1,64 @@
+package com.fbadsautomation.ai;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import com.fbadsautomation.model.AdContent;
+import java.io.ByteArrayInputStream;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class StreamingAdContentParserTest {
+
+    @Test
+    void feed_emitsEachVariationWhenItsObjectCloses() {
+        List<AdContent> emitted = new ArrayList<>();
+        StreamingAdContentParser parser = new StreamingAdContentParser(emitted::add);
+
+        parser.feed("```json\n[{\"headline\": \"Giày chạy\", \"prim");
+        parser.feed("aryText\": \"Êm ái {mỗi} bước\", \"meta\": {\"tone\": 1}");
+        assertEquals(0, emitted.size());
+        parser.feed("}, {\"headline\": \"Run");
+        assertEquals(1, emitted.size());
+        assertEquals("Giày chạy", emitted.get(0).getHeadline());
+        assertEquals("Êm ái {mỗi} bước", emitted.get(0).getPrimaryText());
+
+        parser.feed(" fast\", \"description\": \"Light\"}]\n```");
+        assertEquals(2, parser.finish());
+        assertEquals("Run fast", emitted.get(1).getHeadline());
+        assertEquals("Light", emitted.get(1).getDescription());
+    }
+
+    @Test
+    void feed_acceptsSingleObjectAndWrappedArray() {
+        List<AdContent> emitted = new ArrayList<>();
+        StreamingAdContentParser single = new StreamingAdContentParser(emitted::add);
+        single.feed("{\"headline\": \"One\", \"primaryText\": \"Only\"}");
+        assertEquals(1, single.finish());
+
+        StreamingAdContentParser wrapped = new StreamingAdContentParser(emitted::add);
+        wrapped.feed("{\"variations\": [{\"headline\": \"A\"}, {\"headline\": \"B\"}]}");
+        assertEquals(2, wrapped.finish());
+        assertEquals(List.of("One", "A", "B"), emitted.stream().map(AdContent::getHeadline).toList());
+    }
+
+    @Test
+    void feed_rejectsMalformedJson() {
+        StreamingAdContentParser parser = new StreamingAdContentParser(content -> { });
+
+        assertThrows(UncheckedIOException.class, () -> parser.feed("[{\"headline\": \"A\" \"oops\"}]"));
+    }
+
+    @Test
+    void serverSentEvents_stopsAtDoneSentinel() throws Exception {
+        String stream = "data: {\"a\":1}\n\n: keep-alive\n\nevent: delta\ndata: {\"b\":2}\n\ndata: [DONE]\n\ndata: {\"c\":3}\n\n";
+        List<String> events = new ArrayList<>();
+
+        ServerSentEvents.read(new ByteArrayInputStream(stream.getBytes(StandardCharsets.UTF_8)), events::add);
+
+        assertEquals(List.of("{\"a\":1}", "{\"b\":2}"), events);
+    }
+}
@@ -0,0 +1,172 @@
+package com.fbadsautomation.benchmark;
+
+import com.fbadsautomation.model.Ad;
+import com.fbadsautomation.model.AdContent;
+import com.fbadsautomation.model.User;
+import com.fbadsautomation.repository.AdContentRepository;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.TimeUnit;
+import javax.persistence.EntityManager;
+import javax.persistence.EntityManagerFactory;
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.springframework.data.jpa.repository.support.JpaRepositoryFactory;
+import org.springframework.jdbc.datasource.SingleConnectionDataSource;
+import org.springframework.orm.jpa.LocalContainerEntityManagerFactoryBean;
+import org.springframework.orm.jpa.vendor.HibernateJpaVendorAdapter;
+
+/**
+ * Inserting the variations of one ad through {@link AdContentRepository}: a {@code save} and flush
+ * per row, which is the one-INSERT-per-row round trip IDENTITY ids forced, against one
+ * {@code saveAll} whose pooled sequence ids let Hibernate send the rows in JDBC batches of 50. Both
+ * run in one transaction against an in-memory H2 database with the production batch settings; the
+ * JDBC statements prepared per call are printed from the Hibernate statistics after each iteration.
+ *
+ * Run after {@code mvn test-compile} with the main method on the test classpath; add
+ * {@code -prof gc} to the options to compare allocation per insert.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AdContentBatchInsertBenchmark {
+
+    @Param({"10", "100", "1000"})
+    private int rows;
+
+    private SingleConnectionDataSource dataSource;
+    private EntityManagerFactory entityManagerFactory;
+    private Statistics statistics;
+    private EntityManager entityManager;
+    private AdContentRepository repository;
+    private Ad ad;
+    private User user;
+    private long calls;
+
+    @Setup(Level.Trial)
+    public void setUp() {
+        dataSource = new SingleConnectionDataSource(
+            "jdbc:h2:mem:ad_contents;MODE=PostgreSQL;DB_CLOSE_DELAY=-1", true);
+
+        Map<String, Object> properties = new HashMap<>();
+        properties.put("hibernate.hbm2ddl.auto", "create-drop");
+        // Same settings as application.properties
+        properties.put("hibernate.jdbc.batch_size", 50);
+        properties.put("hibernate.order_inserts", true);
+        properties.put("hibernate.id.optimizer.pooled.preferred", "pooled");
+        properties.put("hibernate.generate_statistics", true);
+
+        LocalContainerEntityManagerFactoryBean factory = new LocalContainerEntityManagerFactoryBean();
+        factory.setDataSource(dataSource);
+        factory.setPackagesToScan("com.fbadsautomation.model");
+        factory.setJpaVendorAdapter(new HibernateJpaVendorAdapter());
+        factory.setJpaPropertyMap(properties);
+        factory.afterPropertiesSet();
+        entityManagerFactory = factory.getObject();
+        statistics = entityManagerFactory.unwrap(SessionFactory.class).getStatistics();
+
+        entityManager = entityManagerFactory.createEntityManager();
+        repository = new JpaRepositoryFactory(entityManager).getRepository(AdContentRepository.class);
+
+        entityManager.getTransaction().begin();
+        user = new User();
+        user.setEmail("benchmark@example.com");
+        entityManager.persist(user);
+        ad = new Ad();
+        ad.setName("Benchmark ad");
+        ad.setUser(user);
+        entityManager.persist(ad);
+        entityManager.getTransaction().commit();
+    }
+
+    @Setup(Level.Iteration)
+    public void resetStatistics() {
+        statistics.clear();
+        calls = 0;
+    }
+
+    @TearDown(Level.Iteration)
+    public void reportStatements() {
+        if (calls > 0) {
+            System.out.printf("%n%d rows: %.1f JDBC statements prepared per call%n",
+                rows, statistics.getPrepareStatementCount() / (double) calls);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void tearDown() {
+        entityManager.close();
+        entityManagerFactory.close();
+        dataSource.destroy();
+    }
+
+    @Benchmark
+    public Object savePerRow() {
+        List<AdContent> saved = new ArrayList<>(rows);
+        entityManager.getTransaction().begin();
+        for (AdContent content : variations()) {
+            saved.add(repository.save(content));
+            // Detached after its INSERT so later flushes do not dirty-check the rows already written
+            entityManager.flush();
+            entityManager.detach(content);
+        }
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+        calls++;
+        return saved;
+    }
+
+    @Benchmark
+    public Object saveAll() {
+        entityManager.getTransaction().begin();
+        List<AdContent> saved = repository.saveAll(variations());
+        entityManager.getTransaction().commit();
+        entityManager.clear();
+        calls++;
+        return saved;
+    }
+
+    private List<AdContent> variations() {
+        Ad parent = entityManager.getReference(Ad.class, ad.getId());
+        User owner = entityManager.getReference(User.class, user.getId());
+        List<AdContent> contents = new ArrayList<>(rows);
+        for (int i = 0; i < rows; i++) {
+            AdContent content = new AdContent();
+            content.setAd(parent);
+            content.setUser(owner);
+            content.setHeadline("Giày chạy bộ siêu nhẹ " + i);
+            content.setPrimaryText("Đệm êm, thoáng khí, giao hàng nhanh trong 24 giờ. Mẫu " + i);
+            content.setPreviewOrder(i);
+            content.setIsSelected(false);
+            contents.add(content);
+        }
+        return contents;
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(AdContentBatchInsertBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
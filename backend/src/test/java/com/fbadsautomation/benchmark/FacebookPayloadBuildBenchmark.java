@@ -0,0 +1,125 @@
+package com.fbadsautomation.benchmark;
+
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.withSettings;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import com.fbadsautomation.dto.FacebookAdPayload;
+import com.fbadsautomation.integration.facebook.FacebookAccountMetadataService;
+import com.fbadsautomation.integration.facebook.FacebookProperties;
+import com.fbadsautomation.model.Ad;
+import com.fbadsautomation.model.Campaign;
+import com.fbadsautomation.service.FacebookAdPayloadBuilder;
+import com.fbadsautomation.service.FacebookExportService;
+import com.fbadsautomation.service.MinIOStorageService;
+import java.io.OutputStream;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Payload build throughput of an export of 1k ads across 10 campaigns: a fresh build per ad (campaign
+ * fragments and currency recomputed for every ad, the old path) against one shared build per export,
+ * and materializing the payload list before serializing it against streaming each payload as it is
+ * built.
+ *
+ * Run after {@code mvn test-compile} with the main method on the test classpath; add
+ * {@code -prof gc} to the options to compare allocation per export.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FacebookPayloadBuildBenchmark {
+
+    private static final int ADS = 1000;
+    private static final int CAMPAIGNS = 10;
+
+    private final ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+    private FacebookAdPayloadBuilder builder;
+    private FacebookExportService exportService;
+    private List<Ad> ads;
+
+    @Setup
+    public void setUp() {
+        FacebookProperties properties = new FacebookProperties();
+        properties.setAccountCurrency("VND");
+        properties.setLegacyUsdToVndRate(25000d);
+        // Stub-only mocks do not record invocations, so they stay flat over millions of calls
+        builder = new FacebookAdPayloadBuilder(mock(MinIOStorageService.class, withSettings().stubOnly()), properties,
+            mock(FacebookAccountMetadataService.class, withSettings().stubOnly()));
+        // Only the payload builder and the mapper take part in writing payloads
+        exportService = new FacebookExportService(null, null, null, null, null, builder, null, objectMapper);
+
+        List<Campaign> campaigns = new ArrayList<>();
+        for (long i = 0; i < CAMPAIGNS; i++) {
+            campaigns.add(Campaign.builder()
+                .id(i)
+                .name("Campaign " + i)
+                .objective(Campaign.CampaignObjective.TRAFFIC)
+                .budgetType(Campaign.BudgetType.DAILY)
+                .dailyBudget(20.0 + i)
+                .targetAudience("Women 25-34 and 35-44 in Vietnam, Thailand")
+                .startDate(LocalDate.of(2026, 1, 1))
+                .build());
+        }
+        ads = new ArrayList<>();
+        for (long i = 0; i < ADS; i++) {
+            ads.add(Ad.builder()
+                .id(i)
+                .campaign(campaigns.get((int) (i % CAMPAIGNS)))
+                .name("Ad " + i)
+                .headline("Giày chạy siêu nhẹ " + i)
+                .primaryText("Lightweight mesh, cushioned soles and a grip that lasts. " + i)
+                .websiteUrl(i % 2 == 0 ? "https://shop.test/shoes" : "https://shop.test/sale")
+                .build());
+        }
+    }
+
+    @Benchmark
+    public List<FacebookAdPayload> buildPerAd() {
+        List<FacebookAdPayload> payloads = new ArrayList<>(ads.size());
+        for (Ad ad : ads) {
+            payloads.add(builder.buildPayload(ad));
+        }
+        return payloads;
+    }
+
+    @Benchmark
+    public List<FacebookAdPayload> buildShared() {
+        return builder.buildPayloads(ads);
+    }
+
+    @Benchmark
+    public byte[] serializeMaterialized() throws Exception {
+        return objectMapper.writeValueAsBytes(builder.buildPayloads(ads));
+    }
+
+    @Benchmark
+    public void serializeStreamed() throws Exception {
+        exportService.writePayloads(ads, OutputStream.nullOutputStream());
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(FacebookPayloadBuildBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,133 @@
+package com.fbadsautomation.benchmark;
+
+import com.fasterxml.jackson.databind.DeserializationFeature;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.databind.json.JsonMapper;
+import com.fasterxml.jackson.module.blackbird.BlackbirdModule;
+import com.fbadsautomation.dto.provider.GeminiGenerateResponse;
+import com.fbadsautomation.dto.provider.GeminiPredictResponse;
+import com.fbadsautomation.dto.provider.OpenAIChatResponse;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Parsing cost of provider responses: raw {@code Map} walking with a per-provider mapper (the old
+ * path) against typed DTOs read with the shared, Blackbird-enabled mapper.
+ *
+ * Run after {@code mvn test-compile} with the main method on the test classpath; add
+ * {@code -prof gc} to the options to compare allocation per call.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+@SuppressWarnings("unchecked")
+public class ProviderResponseParsingBenchmark {
+
+    private final ObjectMapper providerMapper = new ObjectMapper();
+    private final ObjectMapper sharedMapper = JsonMapper.builder()
+        .addModule(new BlackbirdModule())
+        .disable(DeserializationFeature.FAIL_ON_UNKNOWN_PROPERTIES)
+        .build();
+
+    private byte[] openAiChat;
+    private byte[] geminiLarge;
+    private byte[] geminiImage;
+
+    @Setup
+    public void setUp() throws Exception {
+        String variation = "{\"headline\":\"Giày chạy siêu nhẹ\",\"description\":\"Êm ái mỗi bước\","
+            + "\"primaryText\":\"" + "Lightweight mesh, cushioned soles and a grip that lasts. ".repeat(6) + "\"}";
+        openAiChat = chat(3, variation);
+        geminiLarge = gemini(30, variation);
+
+        byte[] image = new byte[1_500_000];
+        new Random(42).nextBytes(image);
+        geminiImage = ("{\"predictions\":[{\"mimeType\":\"image/png\",\"bytesBase64Encoded\":\""
+            + Base64.getEncoder().encodeToString(image) + "\"}]}").getBytes(StandardCharsets.UTF_8);
+    }
+
+    @Benchmark
+    public Object openAiChatMap() throws Exception {
+        Map<String, Object> response = providerMapper.readValue(openAiChat, Map.class);
+        List<Map<String, Object>> choices = (List<Map<String, Object>>) response.get("choices");
+        return ((Map<String, Object>) choices.get(0).get("message")).get("content");
+    }
+
+    @Benchmark
+    public Object openAiChatTyped() throws Exception {
+        return sharedMapper.readValue(openAiChat, OpenAIChatResponse.class).firstContent();
+    }
+
+    @Benchmark
+    public Object geminiLargeMap() throws Exception {
+        Map<String, Object> response = providerMapper.readValue(geminiLarge, Map.class);
+        List<Map<String, Object>> candidates = (List<Map<String, Object>>) response.get("candidates");
+        Map<String, Object> content = (Map<String, Object>) candidates.get(0).get("content");
+        return ((List<Map<String, Object>>) content.get("parts")).get(0).get("text");
+    }
+
+    @Benchmark
+    public Object geminiLargeTyped() throws Exception {
+        return sharedMapper.readValue(geminiLarge, GeminiGenerateResponse.class).firstText();
+    }
+
+    @Benchmark
+    public Object geminiImageMap() throws Exception {
+        Map<String, Object> response = providerMapper.readValue(geminiImage, Map.class);
+        List<Map<String, Object>> predictions = (List<Map<String, Object>>) response.get("predictions");
+        return Base64.getDecoder().decode((String) predictions.get(0).get("bytesBase64Encoded"));
+    }
+
+    @Benchmark
+    public Object geminiImageTyped() throws Exception {
+        return sharedMapper.readValue(geminiImage, GeminiPredictResponse.class).firstImage();
+    }
+
+    private byte[] chat(int choices, String variation) throws Exception {
+        StringBuilder json = new StringBuilder("{\"id\":\"chatcmpl-1\",\"object\":\"chat.completion\",\"choices\":[");
+        for (int i = 0; i < choices; i++) {
+            json.append(i > 0 ? "," : "")
+                .append("{\"index\":").append(i)
+                .append(",\"message\":{\"role\":\"assistant\",\"content\":")
+                .append(providerMapper.writeValueAsString(variation))
+                .append("},\"finish_reason\":\"stop\"}");
+        }
+        return json.append("],\"usage\":{\"prompt_tokens\":900,\"completion_tokens\":600}}")
+            .toString().getBytes(StandardCharsets.UTF_8);
+    }
+
+    private byte[] gemini(int variations, String variation) throws Exception {
+        String text = "[" + String.join(",", Collections.nCopies(variations, variation)) + "]";
+        return ("{\"candidates\":[{\"content\":{\"role\":\"model\",\"parts\":[{\"text\":"
+            + providerMapper.writeValueAsString(text)
+            + "}]},\"finishReason\":\"STOP\"}],\"usageMetadata\":{\"totalTokenCount\":4000}}")
+            .getBytes(StandardCharsets.UTF_8);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(ProviderResponseParsingBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
@@ -0,0 +1,144 @@
+package com.fbadsautomation.benchmark;
+
+import com.fbadsautomation.util.text.TextAnalysis;
+import com.fbadsautomation.util.text.TextAnalyzer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.regex.Pattern;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+/**
+ * Dictionary matching and text statistics of ad copy as used by quality scoring: the former loops
+ * (concatenating and lower-casing the copy per check, compiling a {@code \bword\b} pattern per power
+ * word, a {@code contains} per prohibited phrase and {@code split} for every statistic) against one
+ * pass of {@link TextAnalyzer} over an automaton holding both dictionaries.
+ *
+ * Run after {@code mvn test-compile} with the main method on the test classpath; add
+ * {@code -prof gc} to the options to compare allocation per ad.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class TextAnalyzerBenchmark {
+
+    // Same dictionaries as AdQualityScoringService
+    private static final Set<String> PROHIBITED_WORDS = Set.of(
+        "free", "click here", "buy now", "limited time",
+        "guaranteed", "miracle", "breakthrough", "secret",
+        "shocking", "weird trick", "you won't believe"
+    );
+    private static final Set<String> POWER_WORDS = Set.of(
+        "new", "exclusive", "special", "premium", "quality",
+        "professional", "certified", "trusted", "proven",
+        "save", "discount", "offer", "deal", "value",
+        "easy", "simple", "quick", "fast", "instant",
+        "best", "top", "leading", "award-winning"
+    );
+    private static final String[] VOCABULARY = {
+        "new", "exclusive", "freedom", "free", "click", "here", "limited", "time", "award-winning", "sản phẩm",
+        "chất lượng", "ưu đãi", "Tiết kiệm", "giao hàng", "nhanh", "top", "discount!", "deal?", "value.",
+        "quick", "professional", "trusted", "shoes", "running", "lightweight", "cushioned", "comfort", "today"
+    };
+    private static final int ADS = 100;
+
+    private final TextAnalyzer analyzer = TextAnalyzer.builder()
+        .words("power", POWER_WORDS)
+        .substrings("prohibited", PROHIBITED_WORDS)
+        .build();
+    private final List<String[]> ads = new ArrayList<>();
+
+    @Setup
+    public void setUp() {
+        Random random = new Random(42);
+        for (int i = 0; i < ADS; i++) {
+            ads.add(new String[] {text(random, 6), text(random, 20), text(random, 80)});
+        }
+    }
+
+    @Benchmark
+    public Object legacyLoops() {
+        int total = 0;
+        for (String[] ad : ads) {
+            String headline = ad[0];
+            String description = ad[1];
+            String primaryText = ad[2];
+
+            String allText = (headline + " " + description + " " + primaryText).toLowerCase();
+            for (String word : PROHIBITED_WORDS) {
+                if (allText.contains(word)) {
+                    total++;
+                }
+            }
+            allText = (headline + " " + description + " " + primaryText).toLowerCase();
+            for (String word : POWER_WORDS) {
+                if (Pattern.compile("\\b" + word + "\\b", Pattern.CASE_INSENSITIVE).matcher(allText).find()) {
+                    total++;
+                }
+            }
+            for (String word : primaryText.toLowerCase().split("\\s+")) {
+                if (word.length() > 5) {
+                    total++;
+                }
+            }
+            total += primaryText.split("[.!?]+").length;
+            for (String word : primaryText.split("\\s+")) {
+                total += word.length();
+            }
+            String joined = headline + " " + description + " " + primaryText;
+            if (joined.contains("  ") || joined.matches(".*[!?]{2,}.*")) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    @Benchmark
+    public Object singlePass() {
+        int total = 0;
+        for (String[] ad : ads) {
+            TextAnalysis analysis = analyzer.analyze(ad[0], ad[1], ad[2]);
+            TextAnalysis.FieldStats primaryText = analysis.field(2);
+            total += analysis.matchCount("prohibited") + analysis.matchCount("power")
+                + primaryText.getLongWordCount() + primaryText.getSentenceCount() + primaryText.getWordCharCount();
+            if (analysis.hasDoubleSpace() || analysis.getLongestPunctuationRun() >= 2) {
+                total++;
+            }
+        }
+        return total;
+    }
+
+    private static String text(Random random, int tokens) {
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < tokens; i++) {
+            if (i > 0) {
+                text.append(' ');
+            }
+            text.append(VOCABULARY[random.nextInt(VOCABULARY.length)]);
+        }
+        return text.toString();
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        new Runner(new OptionsBuilder()
+            .include(TextAnalyzerBenchmark.class.getSimpleName())
+            .build()).run();
+    }
+}
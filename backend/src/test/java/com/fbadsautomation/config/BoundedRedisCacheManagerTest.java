@@ -0,0 +1,80 @@
+package com.fbadsautomation.config;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyDouble;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.Duration;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.Cache;
+import org.springframework.data.redis.cache.CacheStatistics;
+import org.springframework.data.redis.cache.RedisCacheConfiguration;
+import org.springframework.data.redis.cache.RedisCacheWriter;
+import org.springframework.data.redis.core.StringRedisTemplate;
+import org.springframework.data.redis.core.ZSetOperations;
+
+class BoundedRedisCacheManagerTest {
+
+    private static final String INDEX = "cache-index:prompts";
+
+    private StringRedisTemplate redisTemplate;
+    private ZSetOperations<String, String> zSet;
+    private Cache cache;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        redisTemplate = mock(StringRedisTemplate.class);
+        zSet = mock(ZSetOperations.class);
+        when(redisTemplate.opsForZSet()).thenReturn(zSet);
+        RedisCacheWriter cacheWriter = mock(RedisCacheWriter.class);
+        when(cacheWriter.getCacheStatistics(any())).thenReturn(mock(CacheStatistics.class));
+
+        RedisCacheConfiguration config = RedisCacheConfiguration.defaultCacheConfig().entryTtl(Duration.ofHours(1));
+        BoundedRedisCacheManager cacheManager = new BoundedRedisCacheManager(cacheWriter, redisTemplate, config,
+            Map.of("prompts", config), Map.of("prompts", new RedisConfig.CachePolicy(Duration.ofHours(1), 2)));
+        cacheManager.afterPropertiesSet();
+        cache = cacheManager.getCache("prompts");
+    }
+
+    @Test
+    void put_evictsOldestEntriesBeyondTheBound() {
+        Set<String> oldest = new LinkedHashSet<>(List.of("prompts::a"));
+        when(zSet.zCard(INDEX)).thenReturn(3L);
+        when(zSet.range(INDEX, 0, 0)).thenReturn(oldest);
+
+        cache.put("c", "value");
+
+        verify(zSet).add(eq(INDEX), eq("prompts::c"), anyDouble());
+        verify(zSet).removeRangeByScore(eq(INDEX), eq(0.0), anyDouble());
+        verify(redisTemplate).delete(oldest);
+        verify(zSet).remove(INDEX, "prompts::a");
+    }
+
+    @Test
+    void put_keepsEntriesWithinTheBound() {
+        when(zSet.zCard(INDEX)).thenReturn(2L);
+
+        cache.put("b", "value");
+
+        verify(zSet, never()).range(eq(INDEX), anyLong(), anyLong());
+        verify(redisTemplate, never()).delete(any(Set.class));
+    }
+
+    @Test
+    void evict_removesKeyFromIndex() {
+        cache.evict("a");
+
+        verify(zSet).remove(INDEX, "prompts::a");
+    }
+}
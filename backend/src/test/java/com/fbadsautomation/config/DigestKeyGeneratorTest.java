@@ -0,0 +1,66 @@
+package com.fbadsautomation.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fbadsautomation.dto.CompetitorAdDTO;
+import java.lang.reflect.Method;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class DigestKeyGeneratorTest {
+
+    private final DigestKeyGenerator generator = new DigestKeyGenerator();
+    private final Sample target = new Sample();
+
+    @Test
+    void generate_producesFixedSizeKeysForLongPrompts() throws Exception {
+        String shortKey = key("improve", "Shoes", "lead_generation", null);
+        String longKey = key("improve", "Shoes ".repeat(2000), "lead_generation", null);
+
+        assertEquals(shortKey.length(), longKey.length());
+        assertTrue(longKey.startsWith("Sample.improve:"));
+        assertTrue(longKey.length() < 64, longKey);
+    }
+
+    @Test
+    void generate_isStableAndSeparatesArguments() throws Exception {
+        assertEquals(key("improve", "ab", "c", null), key("improve", "ab", "c", null));
+        assertNotEquals(key("improve", "ab", "c", null), key("improve", "a", "bc", null));
+        assertNotEquals(key("improve", "ab", null, null), key("improve", "ab", "", null));
+        assertNotEquals(key("improve", "ab", "c", null), key("compare", "ab", "c", null));
+    }
+
+    @Test
+    void generate_canonicalizesMapsAndObjects() throws Exception {
+        Map<String, Object> first = new LinkedHashMap<>();
+        first.put("industry", "retail");
+        first.put("audience", List.of("students", "parents"));
+        Map<String, Object> second = new LinkedHashMap<>();
+        second.put("audience", List.of("students", "parents"));
+        second.put("industry", "retail");
+        assertEquals(key("compare", first), key("compare", second));
+
+        CompetitorAdDTO competitor = CompetitorAdDTO.builder().adId("702369045530963").primaryText("Get 50% off").build();
+        CompetitorAdDTO same = CompetitorAdDTO.builder().primaryText("Get 50% off").adId("702369045530963").build();
+        CompetitorAdDTO edited = CompetitorAdDTO.builder().adId("702369045530963").primaryText("Get 60% off").build();
+        assertEquals(key("compare", competitor), key("compare", same));
+        assertNotEquals(key("compare", competitor), key("compare", edited));
+    }
+
+    private String key(String methodName, Object... params) throws Exception {
+        Method method = Sample.class.getDeclaredMethod(methodName, Object[].class);
+        return (String) generator.generate(target, method, params);
+    }
+
+    private static class Sample {
+        void improve(Object... params) {
+        }
+
+        void compare(Object... params) {
+        }
+    }
+}
@@ -0,0 +1,47 @@
+package com.fbadsautomation.dto.provider;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+import org.junit.jupiter.api.Test;
+
+class ProviderResponseParsingTest {
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+
+    @Test
+    void geminiPredict_decodesImageFromEveryLayout() throws Exception {
+        byte[] image = "png-bytes".getBytes(StandardCharsets.UTF_8);
+        String base64 = Base64.getEncoder().encodeToString(image);
+
+        for (String json : new String[] {
+            "{\"predictions\":[{\"mimeType\":\"image/png\",\"bytesBase64Encoded\":\"" + base64 + "\"}]}",
+            "{\"predictions\":[{\"candidates\":[{\"mimeType\":\"image/png\",\"content\":\"" + base64 + "\"}]}]}",
+            "{\"predictions\":[{\"generatedImages\":[{\"imageBytes\":\"" + base64 + "\"}]}]}"}) {
+            assertArrayEquals(image, objectMapper.readValue(json, GeminiPredictResponse.class).firstImage(), json);
+        }
+        assertNull(objectMapper.readValue("{\"predictions\":[]}", GeminiPredictResponse.class).firstImage());
+    }
+
+    @Test
+    void chatResponses_readFirstTextAndIgnoreUnknownFields() throws Exception {
+        OpenAIChatResponse openAi = objectMapper.readValue(
+            "{\"id\":\"x\",\"choices\":[{\"index\":0,\"message\":{\"role\":\"assistant\",\"content\":\"Hi\"},\"logprobs\":null}]}",
+            OpenAIChatResponse.class);
+        GeminiGenerateResponse gemini = objectMapper.readValue(
+            "{\"candidates\":[{\"content\":{\"parts\":[{\"text\":\"Xin chào\"}],\"role\":\"model\"}}],\"usageMetadata\":{}}",
+            GeminiGenerateResponse.class);
+        AnthropicMessageResponse anthropic = objectMapper.readValue(
+            "{\"id\":\"msg\",\"content\":[{\"type\":\"text\",\"text\":\"Hello\"}],\"usage\":{}}",
+            AnthropicMessageResponse.class);
+
+        assertEquals("Hi", openAi.firstContent());
+        assertEquals("Xin chào", gemini.firstText());
+        assertEquals("Hello", anthropic.firstText());
+        assertNull(objectMapper.readValue("{}", GeminiGenerateResponse.class).firstText());
+    }
+}
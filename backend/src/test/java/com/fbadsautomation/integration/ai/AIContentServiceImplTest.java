@@ -0,0 +1,126 @@
+package com.fbadsautomation.integration.ai;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import com.fbadsautomation.ai.AIProvider;
+import com.fbadsautomation.exception.ApiException;
+import com.fbadsautomation.model.AdContent;
+import com.fbadsautomation.service.AIContentValidationService;
+import com.fbadsautomation.service.AIProviderService;
+import com.fbadsautomation.service.MetaAdLibraryService;
+import com.fbadsautomation.service.MinIOStorageService;
+import com.fbadsautomation.service.NearDuplicateDetectionService;
+import com.fbadsautomation.service.PromptCompactionService;
+import com.fbadsautomation.service.security.ContentModerationService;
+import com.fbadsautomation.service.security.PromptSecurityService;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.core.task.TaskExecutor;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class AIContentServiceImplTest {
+
+    private static final String PROMPT = "Reference ad:\nSummer sale";
+
+    private final ExecutorService pool = Executors.newFixedThreadPool(4);
+    private AIProviderService providerService;
+    private AIContentServiceImpl service;
+
+    @BeforeEach
+    void setUp() {
+        providerService = mock(AIProviderService.class);
+        when(providerService.getProvider(anyString())).thenReturn(mock(AIProvider.class));
+        PromptSecurityService securityService = mock(PromptSecurityService.class);
+        when(securityService.sanitizeUserInput(any())).thenAnswer(invocation -> invocation.getArgument(0));
+        NearDuplicateDetectionService duplicateService = mock(NearDuplicateDetectionService.class);
+        when(duplicateService.removeNearDuplicates(any(), any())).thenAnswer(invocation -> invocation.getArgument(0));
+        AIContentValidationService validationService = mock(AIContentValidationService.class);
+        when(validationService.validateAndFilterContent(any(), anyBoolean())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        service = new AIContentServiceImpl(providerService, mock(MetaAdLibraryService.class), validationService,
+            mock(MinIOStorageService.class), securityService, mock(ContentModerationService.class), duplicateService,
+            mock(PromptCompactionService.class));
+        ReflectionTestUtils.setField(service, "variationGenerationExecutor", (TaskExecutor) pool::execute);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void generateVariationsWithCampaign_runsProvidersConcurrentlyAndKeepsOrderPastFailures() {
+        // Each successful provider only answers once the other one has been called too
+        CountDownLatch bothCalled = new CountDownLatch(2);
+        answer("openai", bothCalled);
+        answer("gemini", bothCalled);
+        when(providerService.generateContentWithReliability(anyString(), eq("anthropic"), anyInt(), any(), any(), any()))
+            .thenThrow(new IllegalStateException("anthropic is down"));
+
+        List<AdContent> contents = service.generateVariationsWithCampaign(PROMPT, AdContent.ContentType.PAGE_POST,
+            List.of(target("gemini"), target("anthropic"), target("openai")), "en", null, null, null, null, null,
+            null, null, false, null);
+
+        assertEquals(List.of("gemini", "openai"), contents.stream().map(AdContent::getHeadline).toList());
+    }
+
+    @Test
+    void generateVariationsWithCampaign_failsWhenEveryVariationFails() {
+        when(providerService.generateContentWithReliability(anyString(), anyString(), anyInt(), any(), any(), any()))
+            .thenThrow(new IllegalStateException("provider down"));
+
+        assertThrows(ApiException.class, () -> service.generateVariationsWithCampaign(PROMPT,
+            AdContent.ContentType.PAGE_POST, List.of(target("openai"), target("gemini")), "en", null, null, null,
+            null, null, null, null, false, null));
+    }
+
+    @Test
+    void generateContentWithCampaign_retriesOnFallbackWhenALaterVariationFailsFirst() {
+        AdContent first = new AdContent();
+        AdContent second = new AdContent();
+        when(providerService.generateContentWithReliability(anyString(), eq("openai"), anyInt(), any(), any(), any()))
+            .thenReturn(new ArrayList<>(List.of(first, second)));
+        when(providerService.generateImageWithReliability(anyString(), eq("gemini")))
+            .thenReturn("/api/images/gemini.png")
+            .thenThrow(new IllegalStateException("gemini is down"));
+        when(providerService.generateImageWithReliability(anyString(), eq("openai"))).thenReturn("/api/images/openai.png");
+
+        service.generateContentWithCampaign(PROMPT, AdContent.ContentType.PAGE_POST, "openai", "gemini", 2, "en",
+            null, null, null, null, null, null, null, null, false, null);
+
+        assertEquals("/api/images/gemini.png", first.getImageUrl());
+        assertEquals("/api/images/openai.png", second.getImageUrl());
+    }
+
+    private void answer(String provider, CountDownLatch bothCalled) {
+        when(providerService.generateContentWithReliability(anyString(), eq(provider), anyInt(), any(), any(), any()))
+            .thenAnswer(invocation -> {
+                bothCalled.countDown();
+                if (!bothCalled.await(5, TimeUnit.SECONDS)) {
+                    throw new IllegalStateException("variations ran one after another");
+                }
+                AdContent content = new AdContent();
+                content.setHeadline(provider);
+                return new ArrayList<>(List.of(content));
+            });
+    }
+
+    private AIContentServiceImpl.VariationTarget target(String textProvider) {
+        return new AIContentServiceImpl.VariationTarget(textProvider, null, "/api/images/uploaded.png");
+    }
+}
@@ -0,0 +1,132 @@
+package com.fbadsautomation.integration.facebook;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.client.RestTemplate;
+
+class FacebookAccountMetadataServiceTest {
+
+    private static final String ACCOUNT = "act_123";
+    private static final String REDIS_KEY = "facebook:account-metadata:act_123";
+
+    private final ExecutorService callers = Executors.newFixedThreadPool(8);
+    private RestTemplate restTemplate;
+    private ValueOperations<String, Object> valueOperations;
+    private FacebookProperties properties;
+    private final List<Runnable> backgroundTasks = new ArrayList<>();
+    private FacebookAccountMetadataService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        restTemplate = mock(RestTemplate.class);
+        RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+        valueOperations = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(valueOperations);
+
+        properties = new FacebookProperties();
+        properties.setApiUrl("http://graph.test");
+        properties.setApiVersion("24.0");
+        properties.setMarketingAccessToken("token");
+        properties.setDefaultAdAccountId(ACCOUNT);
+        properties.setAutoDetectCurrency(true);
+        properties.setAccountCurrency("USD");
+
+        service = new FacebookAccountMetadataService(restTemplate, properties, redisTemplate, backgroundTasks::add);
+    }
+
+    @AfterEach
+    void tearDown() {
+        callers.shutdownNow();
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void getMetadata_coalescesConcurrentLoads() throws Exception {
+        CountDownLatch release = new CountDownLatch(1);
+        when(restTemplate.getForEntity(anyString(), eq(Map.class))).thenAnswer(invocation -> {
+            release.await(5, TimeUnit.SECONDS);
+            return ResponseEntity.ok((Map) Map.of("currency", "vnd", "timezone_name", "Asia/Ho_Chi_Minh",
+                "spend_cap", "5000000", "min_daily_budget", 26481));
+        });
+
+        List<CompletableFuture<AdAccountMetadata>> results = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            results.add(CompletableFuture.supplyAsync(() -> service.getMetadata(ACCOUNT), callers));
+        }
+        Thread.sleep(200);
+        release.countDown();
+
+        AdAccountMetadata first = results.get(0).get(5, TimeUnit.SECONDS);
+        for (CompletableFuture<AdAccountMetadata> result : results) {
+            assertSame(first, result.get(5, TimeUnit.SECONDS));
+        }
+        verify(restTemplate, times(1)).getForEntity(anyString(), eq(Map.class));
+        assertEquals("VND", first.getCurrency());
+        assertEquals(5_000_000L, first.getSpendCap());
+        assertEquals(26481L, first.getMinDailyBudget());
+        verify(valueOperations).set(eq(REDIS_KEY), eq(first), anyLong(), eq(TimeUnit.SECONDS));
+    }
+
+    @Test
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void getMetadata_servesStaleValueWhileRefreshingInBackground() {
+        AdAccountMetadata stale = AdAccountMetadata.builder()
+            .adAccountId(ACCOUNT)
+            .currency("USD")
+            .fetchedAtEpochMillis(System.currentTimeMillis() - TimeUnit.HOURS.toMillis(2))
+            .build();
+        when(valueOperations.get(REDIS_KEY)).thenReturn(stale);
+        when(restTemplate.getForEntity(anyString(), eq(Map.class)))
+            .thenReturn(ResponseEntity.ok((Map) Map.of("currency", "EUR")));
+
+        assertSame(stale, service.getMetadata(ACCOUNT));
+        verify(restTemplate, never()).getForEntity(anyString(), eq(Map.class));
+        assertEquals(1, backgroundTasks.size());
+
+        backgroundTasks.get(0).run();
+        assertEquals("EUR", service.getMetadata(ACCOUNT).getCurrency());
+
+        service.ensureCurrencyLoaded(false);
+        assertEquals("EUR", properties.getAccountCurrency());
+    }
+
+    @Test
+    void getMetadata_startsWarmFromRedis() {
+        AdAccountMetadata persisted = AdAccountMetadata.builder()
+            .adAccountId(ACCOUNT)
+            .currency("VND")
+            .fetchedAtEpochMillis(System.currentTimeMillis())
+            .build();
+        when(valueOperations.get(REDIS_KEY)).thenReturn(persisted);
+
+        service.ensureCurrencyLoaded(false);
+
+        assertEquals("VND", properties.getAccountCurrency());
+        verify(restTemplate, never()).getForEntity(anyString(), eq(Map.class));
+        assertEquals(0, backgroundTasks.size());
+    }
+}
@@ -0,0 +1,340 @@
+package com.fbadsautomation.integration.facebook;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.springframework.test.web.client.ExpectedCount.once;
+import static org.springframework.test.web.client.ExpectedCount.times;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.method;
+import static org.springframework.test.web.client.match.MockRestRequestMatchers.requestTo;
+import static org.springframework.test.web.client.response.MockRestResponseCreators.withSuccess;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fbadsautomation.model.Ad;
+import com.fbadsautomation.model.Campaign;
+import com.fbadsautomation.model.FacebookCTA;
+import com.fbadsautomation.service.MinIOStorageService;
+import java.net.URLDecoder;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.client.MockClientHttpRequest;
+import org.springframework.test.web.client.MockRestServiceServer;
+import org.springframework.web.client.RestTemplate;
+
+/**
+ * Runs the batch upload path against a stubbed Graph API.
+ */
+class FacebookMarketingApiClientTest {
+
+    private static final String API = "http://graph.test";
+    private static final String ACCOUNT = "act_123";
+
+    private final ObjectMapper objectMapper = new ObjectMapper();
+    private RestTemplate restTemplate;
+    private FacebookProperties properties;
+    private MockRestServiceServer server;
+    private FacebookMarketingApiClient client;
+    private FacebookUsageThrottle usageThrottle;
+    private final List<JsonNode> batches = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        restTemplate = new RestTemplate();
+        server = MockRestServiceServer.bindTo(restTemplate).ignoreExpectOrder(true).build();
+
+        properties = new FacebookProperties();
+        properties.setApiUrl(API);
+        properties.setApiVersion("24.0");
+        properties.setAccountCurrency("USD");
+        properties.setAutoDetectCurrency(false);
+        properties.setDefaultLinkUrl("https://example.com");
+
+        usageThrottle = new FacebookUsageThrottle(properties);
+        client = clientWith(Mockito.mock(FacebookAccountMetadataService.class));
+    }
+
+    private FacebookMarketingApiClient clientWith(FacebookAccountMetadataService metadataService) {
+        return new FacebookMarketingApiClient(
+            restTemplate,
+            properties,
+            Mockito.mock(MinIOStorageService.class),
+            metadataService,
+            new FacebookUploadPlanner(),
+            usageThrottle
+        );
+    }
+
+    @Test
+    void uploadAds_reusesCampaignAdSetAndImagesAndBatchesCreatives() {
+        Campaign summer = campaign(1L, "Summer");
+        Campaign winter = campaign(2L, "Winter");
+        List<Ad> ads = List.of(
+            ad(10L, summer, "https://cdn.test/a.png"),
+            ad(11L, summer, "https://cdn.test/a.png"),
+            ad(12L, winter, "https://cdn.test/copy-of-a.png")
+        );
+
+        byte[] image = new byte[] {1, 2, 3, 4};
+        server.expect(once(), requestTo("https://cdn.test/a.png"))
+            .andRespond(withSuccess(image, MediaType.IMAGE_PNG));
+        server.expect(once(), requestTo("https://cdn.test/copy-of-a.png"))
+            .andRespond(withSuccess(image, MediaType.IMAGE_PNG));
+        server.expect(once(), requestTo(API + "/v24.0/" + ACCOUNT + "/adimages"))
+            .andRespond(withSuccess("{\"images\":{\"a.png\":{\"hash\":\"h1\"},\"hash\":\"h1\"}}",
+                MediaType.APPLICATION_JSON));
+        server.expect(times(2), requestTo(API + "/v24.0/" + ACCOUNT + "/campaigns"))
+            .andExpect(method(HttpMethod.POST))
+            .andRespond(withSuccess("{\"id\":\"c1\"}", MediaType.APPLICATION_JSON));
+        server.expect(times(2), requestTo(API + "/v24.0/" + ACCOUNT + "/adsets"))
+            .andRespond(withSuccess("{\"id\":\"s1\"}", MediaType.APPLICATION_JSON));
+        server.expect(once(), requestTo(API + "/v24.0/"))
+            .andExpect(request -> batches.add(readBatch((MockClientHttpRequest) request)))
+            .andRespond(withSuccess(batchResponse("cr1", "ad1", "cr2", "ad2"), MediaType.APPLICATION_JSON));
+        server.expect(once(), requestTo(API + "/v24.0/"))
+            .andExpect(request -> batches.add(readBatch((MockClientHttpRequest) request)))
+            .andRespond(withSuccess(batchResponse("cr3", "ad3"), MediaType.APPLICATION_JSON));
+
+        List<FacebookMarketingApiClient.UploadResult> results = client.uploadAds(ads, ACCOUNT, "token");
+
+        server.verify();
+        assertEquals(3, results.size());
+        assertTrue(results.stream().allMatch(FacebookMarketingApiClient.UploadResult::isSuccess));
+        assertEquals(10L, results.get(0).getLocalAdId());
+        assertEquals("ad1", results.get(0).getAdId());
+        assertEquals("cr2", results.get(1).getCreativeId());
+        assertEquals("ad3", results.get(2).getAdId());
+
+        JsonNode first = batches.get(0);
+        assertEquals(4, first.size());
+        assertEquals("creative_0", first.get(0).path("name").asText());
+        assertFalse(first.get(0).path("omit_response_on_success").asBoolean(true));
+        String adBody = URLDecoder.decode(first.get(1).path("body").asText(), StandardCharsets.UTF_8);
+        assertTrue(adBody.contains("{result=creative_0:$.id}"));
+        String creativeBody = URLDecoder.decode(first.get(0).path("body").asText(), StandardCharsets.UTF_8);
+        assertTrue(creativeBody.contains("\"image_hash\":\"h1\""));
+    }
+
+    @Test
+    void uploadAds_reportsBatchFailuresPerAd() {
+        Campaign summer = campaign(1L, "Summer");
+        List<Ad> ads = List.of(ad(10L, summer, null), ad(11L, summer, null));
+
+        server.expect(once(), requestTo(API + "/v24.0/" + ACCOUNT + "/campaigns"))
+            .andRespond(withSuccess("{\"id\":\"c1\"}", MediaType.APPLICATION_JSON));
+        server.expect(once(), requestTo(API + "/v24.0/" + ACCOUNT + "/adsets"))
+            .andRespond(withSuccess("{\"id\":\"s1\"}", MediaType.APPLICATION_JSON));
+        server.expect(once(), requestTo(API + "/v24.0/"))
+            .andRespond(withSuccess("[" +
+                "{\"code\":200,\"body\":\"{\\\"id\\\":\\\"cr1\\\"}\"}," +
+                "{\"code\":200,\"body\":\"{\\\"id\\\":\\\"ad1\\\"}\"}," +
+                "{\"code\":400,\"body\":\"{\\\"error\\\":{\\\"message\\\":\\\"Invalid link\\\"}}\"}," +
+                "{\"code\":400,\"body\":\"{\\\"error\\\":{\\\"message\\\":\\\"Dependency failed\\\"}}\"}" +
+                "]", MediaType.APPLICATION_JSON));
+
+        List<FacebookMarketingApiClient.UploadResult> results = client.uploadAds(ads, ACCOUNT, "token");
+
+        server.verify();
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+        assertEquals("Invalid link", results.get(1).getError());
+        assertNull(results.get(1).getAdId());
+    }
+
+    @Test
+    void uploadAds_failsOnlyTheItemWithAnUnreadableBody() {
+        Campaign summer = campaign(1L, "Summer");
+        List<Ad> ads = List.of(ad(10L, summer, null), ad(11L, summer, null));
+
+        server.expect(once(), requestTo(API + "/v24.0/" + ACCOUNT + "/campaigns"))
+            .andRespond(withSuccess("{\"id\":\"c1\"}", MediaType.APPLICATION_JSON));
+        server.expect(once(), requestTo(API + "/v24.0/" + ACCOUNT + "/adsets"))
+            .andRespond(withSuccess("{\"id\":\"s1\"}", MediaType.APPLICATION_JSON));
+        server.expect(once(), requestTo(API + "/v24.0/"))
+            .andRespond(withSuccess("[" +
+                "{\"code\":200,\"body\":\"{\\\"id\\\":\\\"cr1\\\"}\"}," +
+                "{\"code\":200,\"body\":\"{\\\"id\\\":\\\"ad1\\\"}\"}," +
+                "{\"code\":200,\"body\":\"{\\\"id\\\":\"}," +
+                "{\"code\":200,\"body\":\"{\\\"id\\\":\\\"ad2\\\"}\"}" +
+                "]", MediaType.APPLICATION_JSON));
+
+        List<FacebookMarketingApiClient.UploadResult> results = client.uploadAds(ads, ACCOUNT, "token");
+
+        server.verify();
+        assertTrue(results.get(0).isSuccess());
+        assertFalse(results.get(1).isSuccess());
+    }
+
+    @Test
+    void uploadGroup_resumesFromCheckpointWithoutRecreatingObjects() {
+        Campaign summer = campaign(1L, "Summer");
+        List<Ad> ads = List.of(ad(10L, summer, null), ad(11L, summer, null));
+
+        FacebookMarketingApiClient.UploadResult uploaded = new FacebookMarketingApiClient.UploadResult();
+        uploaded.setLocalAdId(10L);
+        uploaded.setCampaignId("c1");
+        uploaded.setAdSetId("s1");
+        uploaded.setCreativeId("cr1");
+        uploaded.setAdId("ad1");
+        FacebookMarketingApiClient.UploadResult interrupted = new FacebookMarketingApiClient.UploadResult();
+        interrupted.setLocalAdId(11L);
+        interrupted.setCampaignId("c1");
+        interrupted.setAdSetId("s1");
+        interrupted.setCreativeId("cr2");
+        interrupted.setError("Request timed out");
+
+        server.expect(once(), requestTo(API + "/v24.0/"))
+            .andExpect(request -> batches.add(readBatch((MockClientHttpRequest) request)))
+            .andRespond(withSuccess(batchResponse("ad2"), MediaType.APPLICATION_JSON));
+
+        FacebookUploadPlanner.CampaignGroup group = new FacebookUploadPlanner().plan(ads).getGroups().get(0);
+        List<FacebookMarketingApiClient.UploadResult> results = client.openSession(ACCOUNT, "token")
+            .uploadGroup(group, Map.of(10L, uploaded, 11L, interrupted), result -> { });
+
+        server.verify();
+        assertEquals(1, batches.get(0).size());
+        String adBody = URLDecoder.decode(batches.get(0).get(0).path("body").asText(), StandardCharsets.UTF_8);
+        assertTrue(adBody.contains("\"creative_id\":\"cr2\""));
+        assertTrue(adBody.contains("adset_id=s1"));
+        assertEquals("ad1", results.get(0).getAdId());
+        assertEquals("ad2", results.get(1).getAdId());
+        assertEquals(FacebookMarketingApiClient.UploadStep.AD, results.get(1).getLastCompletedStep());
+    }
+
+    @Test
+    void openSession_buildsBudgetsFromTheTargetAccountMetadata() {
+        AdAccountMetadata vndAccount = AdAccountMetadata.builder()
+            .adAccountId(ACCOUNT)
+            .currency("VND")
+            .timezoneName("Asia/Ho_Chi_Minh")
+            .minDailyBudget(26_000L)
+            .build();
+        AdAccountMetadata eurAccount = AdAccountMetadata.builder()
+            .adAccountId("act_456")
+            .currency("EUR")
+            .minDailyBudget(500L)
+            .build();
+        FacebookAccountMetadataService metadataService = Mockito.mock(FacebookAccountMetadataService.class);
+        Mockito.when(metadataService.getMetadata(ACCOUNT)).thenReturn(vndAccount);
+        Mockito.when(metadataService.getMetadata("act_456")).thenReturn(eurAccount);
+        properties.setAutoDetectCurrency(true);
+        client = clientWith(metadataService);
+
+        Campaign legacyUsd = campaign(1L, "Summer");
+        Campaign tooSmall = campaign(2L, "Winter");
+        tooSmall.setDailyBudget(1.0);
+        List<String> adSets = new ArrayList<>();
+        for (String account : List.of(ACCOUNT, "act_456")) {
+            server.expect(once(), requestTo(API + "/v24.0/" + account + "/campaigns"))
+                .andRespond(withSuccess("{\"id\":\"c1\"}", MediaType.APPLICATION_JSON));
+            server.expect(once(), requestTo(API + "/v24.0/" + account + "/adsets"))
+                .andExpect(request -> adSets.add(URLDecoder.decode(
+                    ((MockClientHttpRequest) request).getBodyAsString(), StandardCharsets.UTF_8)))
+                .andRespond(withSuccess("{\"id\":\"s1\"}", MediaType.APPLICATION_JSON));
+            server.expect(once(), requestTo(API + "/v24.0/"))
+                .andRespond(withSuccess(batchResponse("cr1", "ad1"), MediaType.APPLICATION_JSON));
+        }
+
+        client.uploadAds(List.of(ad(10L, legacyUsd, null)), ACCOUNT, "token");
+        client.uploadAds(List.of(ad(11L, tooSmall, null)), "act_456", "token");
+
+        server.verify();
+        // The configured currency is USD; each account's own currency and minimum apply instead
+        assertTrue(adSets.get(0).contains("daily_budget=500000"));
+        assertTrue(adSets.get(0).contains("start_time=2026-01-01T00:00:00+07:00"));
+        assertTrue(adSets.get(1).contains("daily_budget=500"));
+    }
+
+    @Test
+    void usageThrottle_reducesConcurrencyAsUsageRises() {
+        assertEquals(4, usageThrottle.allowedConcurrency(ACCOUNT));
+
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(FacebookUsageThrottle.AD_ACCOUNT_USAGE_HEADER, "{\"acc_id_util_pct\":80}");
+        usageThrottle.record(ACCOUNT, headers);
+        assertEquals(2, usageThrottle.allowedConcurrency(ACCOUNT));
+
+        headers.set(FacebookUsageThrottle.AD_ACCOUNT_USAGE_HEADER, "{\"acc_id_util_pct\":95}");
+        usageThrottle.record(ACCOUNT, headers);
+        assertEquals(1, usageThrottle.allowedConcurrency(ACCOUNT));
+    }
+
+    @Test
+    void usageThrottle_delaysWhenBusinessUseCaseUsageIsHigh() {
+        HttpHeaders headers = new HttpHeaders();
+        headers.add(FacebookUsageThrottle.BUSINESS_USE_CASE_USAGE_HEADER,
+            "{\"123\":[{\"type\":\"ads_management\",\"call_count\":90,\"total_cputime\":10,"
+                + "\"total_time\":10,\"estimated_time_to_regain_access\":0}]}");
+        usageThrottle.record(ACCOUNT, headers);
+
+        Duration delay = usageThrottle.computeDelay(ACCOUNT);
+        assertTrue(delay.toMillis() > 0 && delay.toSeconds() <= 5);
+        assertEquals(Duration.ZERO, usageThrottle.computeDelay("act_other"));
+
+        headers.set(FacebookUsageThrottle.AD_ACCOUNT_USAGE_HEADER,
+            "{\"acc_id_util_pct\":100,\"reset_time_duration\":30}");
+        usageThrottle.record(ACCOUNT, headers);
+        assertTrue(usageThrottle.computeDelay(ACCOUNT).toSeconds() >= 29);
+    }
+
+    private JsonNode readBatch(MockClientHttpRequest request) {
+        try {
+            String body = request.getBodyAsString();
+            for (String pair : body.split("&")) {
+                if (pair.startsWith("batch=")) {
+                    return objectMapper.readTree(URLDecoder.decode(pair.substring(6), StandardCharsets.UTF_8));
+                }
+            }
+        } catch (Exception e) {
+            throw new IllegalStateException(e);
+        }
+        throw new IllegalStateException("batch parameter missing");
+    }
+
+    private String batchResponse(String... ids) {
+        StringBuilder json = new StringBuilder("[");
+        for (int i = 0; i < ids.length; i++) {
+            if (i > 0) {
+                json.append(',');
+            }
+            json.append("{\"code\":200,\"body\":\"{\\\"id\\\":\\\"").append(ids[i]).append("\\\"}\"}");
+        }
+        return json.append(']').toString();
+    }
+
+    private Campaign campaign(Long id, String name) {
+        return Campaign.builder()
+            .id(id)
+            .name(name)
+            .objective(Campaign.CampaignObjective.TRAFFIC)
+            .budgetType(Campaign.BudgetType.DAILY)
+            .dailyBudget(20.0)
+            .targetAudience("US")
+            .startDate(LocalDate.of(2026, 1, 1))
+            .build();
+    }
+
+    private Ad ad(Long id, Campaign campaign, String imageUrl) {
+        return Ad.builder()
+            .id(id)
+            .campaign(campaign)
+            .name("Ad " + id)
+            .headline("Headline " + id)
+            .primaryText("Primary " + id)
+            .description("Description")
+            .callToAction(FacebookCTA.LEARN_MORE)
+            .imageUrl(imageUrl)
+            .build();
+    }
+}
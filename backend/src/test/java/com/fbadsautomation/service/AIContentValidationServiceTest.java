@@ -0,0 +1,182 @@
+package com.fbadsautomation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fbadsautomation.config.ValidationConfig;
+import com.fbadsautomation.model.AdContent;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the scanner based validation against the former per-list {@code contains} and regex checks.
+ */
+class AIContentValidationServiceTest {
+
+    private static final List<String> INAPPROPRIATE_KEYWORDS = Arrays.asList("hate", "violence", "discrimination", "illegal", "drugs", "weapons",
+        "gambling", "adult", "explicit", "offensive", "scam", "fraud");
+    private static final List<String> POLICY_VIOLATIONS = Arrays.asList("before and after", "miracle", "guaranteed results", "lose weight fast",
+        "get rich quick", "work from home", "make money fast", "free money",
+        "click here", "act now", "limited time", "urgent");
+    private static final List<String> SPAM_INDICATORS = Arrays.asList("!!!", "???", "FREE!!!", "URGENT!!!", "ACT NOW!!!", "LIMITED TIME!!!",
+        "CLICK HERE NOW", "AMAZING OFFER", "DON'T MISS OUT");
+    private static final String[] VOCABULARY = {
+        "Hate", "whatever", "adulthood", "Before", "and", "after", "before  and after", "click", "here", "CLICK HERE NOW",
+        "FREE", "!!!", "!!", "?", "URGENT!!!", "Act Now!!!", "ACT NOW!!!", "miracle.", "Giảm giá", "sản phẩm", "mới",
+        "DON'T MISS OUT", "amazing offer", "AMAZING", "OFFER", "\n", "\t", "  ", "...", "Quality", "shoes", "for", "you",
+        "limited\ttime", "work from home", "SALE", "today"
+    };
+
+    private final AIContentValidationService service = new AIContentValidationService(new ValidationConfig(), new ObjectMapper());
+
+    @Test
+    void validateContent_matchesLegacyViolationsOnHandPickedCases() {
+        assertParity(content("Quality shoes for you", "Comfortable and durable", "Find your fit today. Free returns!"));
+        assertParity(content("FREE!!! SHOES", "Act now", "Click here!!! Limited time, before and after results"));
+        assertParity(content("   ", "", "  leading space only"));
+        assertParity(content(null, null, null));
+        assertParity(content("Giày mới", "Giảm giá sốc", "Sản phẩm chất lượng cao!!\n???"));
+        assertParity(content("Same", "Same", "..."));
+        assertParity(content("a", "b", " "));
+    }
+
+    @Test
+    void validateContent_matchesLegacyViolationsOnRandomCopy() {
+        Random random = new Random(7);
+        for (int i = 0; i < 2000; i++) {
+            assertParity(content(randomText(random, 5), randomText(random, 10), randomText(random, 40)));
+        }
+    }
+
+    private void assertParity(AdContent content) {
+        List<String> expected = LegacyValidator.violations(content);
+        AIContentValidationService.ValidationResult result = service.validateContent(content, true);
+        assertEquals(expected, result.getViolations(),
+            content.getHeadline() + " | " + content.getDescription() + " | " + content.getPrimaryText());
+    }
+
+    private String randomText(Random random, int maxTokens) {
+        int tokens = random.nextInt(maxTokens + 1);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < tokens; i++) {
+            if (i > 0 || random.nextInt(10) == 0) {
+                text.append(' ');
+            }
+            text.append(VOCABULARY[random.nextInt(VOCABULARY.length)]);
+        }
+        return text.toString();
+    }
+
+    private AdContent content(String headline, String description, String primaryText) {
+        AdContent content = new AdContent();
+        content.setHeadline(headline);
+        content.setDescription(description);
+        content.setPrimaryText(primaryText);
+        return content;
+    }
+
+    /**
+     * The validation checks as they were before the shared scanner, kept for comparison.
+     */
+    private static final class LegacyValidator {
+
+        static List<String> violations(AdContent content) {
+            List<String> violations = new ArrayList<>();
+            if (content.getHeadline() != null) {
+                violations.addAll(validateText(content.getHeadline(), "headline", 40));
+            } else {
+                violations.add("Headline is missing");
+            }
+            if (content.getDescription() != null) {
+                violations.addAll(validateText(content.getDescription(), "description", 125));
+            }
+            if (content.getPrimaryText() != null) {
+                violations.addAll(validateText(content.getPrimaryText(), "primary text", 1000));
+            }
+
+            if (content.getHeadline() != null && content.getDescription() != null
+                && content.getHeadline().equals(content.getDescription())) {
+                violations.add("Headline and description are identical");
+            }
+            if (content.getHeadline() != null && content.getPrimaryText() != null
+                && similarity(content.getHeadline(), content.getPrimaryText()) < 0.05) {
+                violations.add("Content fields seem unrelated");
+            }
+            if (content.getPrimaryText() != null && readability(content.getPrimaryText()) < 0.1) {
+                violations.add("Content readability is too low");
+            }
+            return violations;
+        }
+
+        private static List<String> validateText(String text, String fieldName, int maxLength) {
+            List<String> violations = new ArrayList<>();
+            if (text.trim().isEmpty()) {
+                violations.add(fieldName + " is empty");
+                return violations;
+            }
+            String cleanText = text.trim().toLowerCase();
+            if (text.length() > maxLength) {
+                violations.add(fieldName + " exceeds maximum length of " + maxLength + " characters");
+            }
+            if (text.trim().split("\\s+").length < 2) {
+                violations.add(fieldName + " has too few words (minimum 2)");
+            }
+            for (String keyword : INAPPROPRIATE_KEYWORDS) {
+                if (cleanText.contains(keyword.toLowerCase())) {
+                    violations.add(fieldName + " contains inappropriate content: " + keyword);
+                }
+            }
+            for (String violation : POLICY_VIOLATIONS) {
+                if (cleanText.contains(violation.toLowerCase())) {
+                    violations.add(fieldName + " may violate Facebook advertising policies: " + violation);
+                }
+            }
+            for (String spam : SPAM_INDICATORS) {
+                if (text.contains(spam)) {
+                    violations.add(fieldName + " contains spam-like content: " + spam);
+                }
+            }
+            if (text.matches(".*[!?]{3,}.*")) {
+                violations.add(fieldName + " contains excessive punctuation");
+            }
+            long upperCaseCount = text.chars().filter(Character::isUpperCase).count();
+            long letterCount = text.chars().filter(Character::isLetter).count();
+            if (letterCount > 0 && (double) upperCaseCount / letterCount > 0.5) {
+                violations.add(fieldName + " contains too much uppercase text");
+            }
+            return violations;
+        }
+
+        private static double similarity(String text1, String text2) {
+            String[] words1 = text1.toLowerCase().split("\\s+");
+            String[] words2 = text2.toLowerCase().split("\\s+");
+            int commonWords = 0;
+            for (String word1 : words1) {
+                for (String word2 : words2) {
+                    if (word1.equals(word2)) {
+                        commonWords++;
+                        break;
+                    }
+                }
+            }
+            return (double) commonWords / Math.max(words1.length, words2.length);
+        }
+
+        private static double readability(String text) {
+            if (text.trim().isEmpty()) {
+                return 0.5;
+            }
+            String[] sentences = text.split("[.!?]+");
+            String[] words = text.split("\\s+");
+            if (sentences.length == 0 || words.length == 0) {
+                return 0.5;
+            }
+            double avgWordsPerSentence = (double) words.length / sentences.length;
+            double score = Math.max(0.0, 1.0 - (avgWordsPerSentence - 15) / 30);
+            return Math.max(0.1, score);
+        }
+    }
+}
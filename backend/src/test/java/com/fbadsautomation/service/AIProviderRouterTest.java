@@ -0,0 +1,67 @@
+package com.fbadsautomation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fbadsautomation.model.Capability;
+import io.github.resilience4j.circuitbreaker.CircuitBreakerRegistry;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class AIProviderRouterTest {
+
+    private static final List<String> TEXT = List.of("openai", "gemini", "anthropic-claude");
+
+    private CircuitBreakerRegistry circuitBreakerRegistry;
+    private AIProviderRouter router;
+
+    @BeforeEach
+    void setUp() {
+        circuitBreakerRegistry = CircuitBreakerRegistry.ofDefaults();
+        router = new AIProviderRouter(circuitBreakerRegistry, 0.5, 5000, 20000);
+    }
+
+    @Test
+    void route_keepsStaticPreferenceUntilStatsArrive() {
+        assertEquals(TEXT, router.route(Capability.TEXT_GENERATION, TEXT));
+    }
+
+    @Test
+    void route_prefersReliableOverFastButFlaky() {
+        router.record("openai", Capability.TEXT_GENERATION, true, 1000, 0.002);
+        router.record("openai", Capability.TEXT_GENERATION, false, 800, 0.0);
+        router.record("openai", Capability.TEXT_GENERATION, false, 800, 0.0);
+        router.record("gemini", Capability.TEXT_GENERATION, true, 1500, 0.001);
+        router.record("anthropic-claude", Capability.TEXT_GENERATION, true, 3000, 0.003);
+
+        assertEquals(List.of("gemini", "anthropic-claude", "openai"), router.route(Capability.TEXT_GENERATION, TEXT));
+        // Image stats are kept apart, so the image route is unaffected by text failures
+        assertEquals(List.of("gemini", "openai"), router.route(Capability.IMAGE_GENERATION, List.of("openai", "gemini")));
+    }
+
+    @Test
+    void route_skipsOpenCircuits() {
+        circuitBreakerRegistry.circuitBreaker("openai").transitionToOpenState();
+
+        assertEquals(List.of("gemini", "anthropic-claude"), router.route(Capability.TEXT_GENERATION, TEXT));
+
+        List<AIProviderRouter.ProviderRouteStats> table = router.snapshot(Capability.TEXT_GENERATION, TEXT);
+        assertEquals("openai", table.get(2).getProvider());
+        assertEquals("OPEN", table.get(2).getCircuitState());
+    }
+
+    @Test
+    void snapshot_reportsMovingAverages() {
+        router.record("gemini", Capability.TEXT_GENERATION, true, 1000, 0.001);
+        router.record("gemini", Capability.TEXT_GENERATION, false, 3000, 0.0);
+
+        AIProviderRouter.ProviderRouteStats gemini = router.snapshot(Capability.TEXT_GENERATION, List.of("gemini")).get(0);
+
+        assertEquals(2, gemini.getCalls());
+        assertEquals(1, gemini.getFailures());
+        assertEquals(2000.0, gemini.getEwmaLatencyMs(), 0.001);
+        assertEquals(0.5, gemini.getEwmaErrorRate(), 0.001);
+        assertTrue(gemini.getScore() > gemini.getEwmaLatencyMs());
+    }
+}
@@ -0,0 +1,110 @@
+package com.fbadsautomation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fbadsautomation.dto.ReferenceAdData;
+import com.fbadsautomation.dto.ReferenceAnalysisRequest;
+import com.fbadsautomation.dto.ReferenceAnalysisResponse;
+import com.fbadsautomation.model.FacebookCTA;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class AdImprovementServiceTest {
+
+    private static final String LINK = "https://www.facebook.com/ads/library/?id=42";
+
+    private MetaAdLibraryService metaAdLibraryService;
+    private AdImprovementService service;
+
+    @BeforeEach
+    void setUp() {
+        metaAdLibraryService = mock(MetaAdLibraryService.class);
+        when(metaAdLibraryService.isValidAdLibraryUrl(LINK)).thenReturn(true);
+        when(metaAdLibraryService.extractAdIdFromUrl(LINK)).thenReturn("42");
+        service = new AdImprovementService(metaAdLibraryService, mock(AdService.class), mock(AsyncJobService.class),
+            mock(AsyncAIContentService.class), new ObjectMapper(), mock(QualityDetailsMapper.class),
+            new ConcurrentMapCacheManager(AdImprovementService.REFERENCE_CACHE));
+    }
+
+    @Test
+    void analyzeReference_repeatedLinkIsServedFromCache() {
+        when(metaAdLibraryService.extractAdTextAndImagesAsync(LINK)).thenReturn(CompletableFuture.completedFuture(
+            Map.of("text", "Mua ngay hôm nay, giảm giá 50% cho bạn!", "images", List.of("https://img/1.jpg"))));
+
+        ReferenceAnalysisResponse first = service.analyzeReference(request());
+        ReferenceAnalysisResponse second = service.analyzeReference(request());
+
+        assertSame(first, second);
+        assertEquals("https://img/1.jpg", first.getReferenceAdData().getMediaUrl());
+        verify(metaAdLibraryService, times(1)).extractAdTextAndImagesAsync(anyString());
+    }
+
+    @Test
+    void analyzeReference_detectsKeywordsInOnePass() {
+        when(metaAdLibraryService.extractAdTextAndImagesAsync(LINK)).thenReturn(CompletableFuture.completedFuture(
+            Map.of("text", "Sản phẩm cao cấp, đẳng cấp premium cho bạn. Shop now, mua ngay chỉ còn 199k!",
+                "images", List.of())));
+
+        ReferenceAnalysisResponse response = service.analyzeReference(request());
+
+        assertEquals("LUXURY", response.getDetectedStyle());
+        assertEquals(FacebookCTA.SHOP_NOW, response.getSuggestedCallToAction());
+        assertTrue(response.getInsights().isContainsPrice());
+        assertTrue(response.getInsights().isContainsCallToAction());
+        assertEquals("LUXURY", response.getStyleProfile().getTone());
+        assertTrue(response.getStyleProfile().getUsesSecondPerson());
+    }
+
+    @Test
+    void analyzeReference_skipsScrapingWhenTheOfficialCreativeHasAnImage() {
+        Map<String, Object> content = Map.of("ad_creative_bodies", List.of("Mua ngay hôm nay"));
+        when(metaAdLibraryService.extractOfficialAdContent("42", "token"))
+            .thenReturn(Map.of("success", true, "content", content));
+        when(metaAdLibraryService.buildReferenceAdData(content)).thenReturn(ReferenceAdData.builder()
+            .primaryText("Mua ngay hôm nay")
+            .mediaUrl("https://img/official.jpg")
+            .build());
+        when(metaAdLibraryService.summarizeReferenceAd(any(), any())).thenReturn("Mua ngay hôm nay");
+        ReferenceAnalysisRequest request = request();
+        request.setAccessToken("token");
+
+        ReferenceAnalysisResponse response = service.analyzeReference(request);
+
+        assertEquals("https://img/official.jpg", response.getReferenceAdData().getMediaUrl());
+        verify(metaAdLibraryService, never()).extractAdTextAndImagesAsync(anyString());
+    }
+
+    @Test
+    void analyzeReference_stopsWaitingForAHungScrape() {
+        ReflectionTestUtils.setField(service, "scrapeWaitMillis", 50L);
+        when(metaAdLibraryService.extractAdTextAndImagesAsync(LINK)).thenReturn(new CompletableFuture<>());
+        ReferenceAnalysisRequest request = request();
+        request.setFallbackContent("Giảm giá 50% hôm nay");
+
+        ReferenceAnalysisResponse response = service.analyzeReference(request);
+
+        assertTrue(response.isSuccess());
+        assertEquals("Giảm giá 50% hôm nay", response.getReferenceContent());
+    }
+
+    private ReferenceAnalysisRequest request() {
+        ReferenceAnalysisRequest request = new ReferenceAnalysisRequest();
+        request.setReferenceLink(LINK);
+        return request;
+    }
+}
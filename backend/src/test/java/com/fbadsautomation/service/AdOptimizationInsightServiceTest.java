@@ -0,0 +1,123 @@
+package com.fbadsautomation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.contains;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fbadsautomation.ai.AIProvider;
+import com.fbadsautomation.dto.AdOptimizationAnalyzeRequest;
+import com.fbadsautomation.dto.AdOptimizationInsightDTO;
+import com.fbadsautomation.model.Ad;
+import com.fbadsautomation.model.User;
+import com.fbadsautomation.repository.AdOptimizationSnapshotRepository;
+import com.fbadsautomation.repository.AdRepository;
+import com.fbadsautomation.repository.UserRepository;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+class AdOptimizationInsightServiceTest {
+
+    private static final String REVIEW = "{\"overallScore\": 80, \"overallVerdict\": \"Solid\", \"sections\": []}";
+
+    private final User user = User.builder().id(1L).build();
+    private final List<Runnable> backgroundTasks = new ArrayList<>();
+    private AdRepository adRepository;
+    private AIProvider provider;
+    private AdCopyReviewService reviewService;
+
+    @BeforeEach
+    void setUp() {
+        adRepository = mock(AdRepository.class);
+        provider = mock(AIProvider.class);
+        AIProviderService providerService = mock(AIProviderService.class);
+        when(providerService.getProvider("openai")).thenReturn(provider);
+        reviewService = new AdCopyReviewService(providerService, mock(PersonaService.class), new ObjectMapper(),
+            new ConcurrentMapCacheManager(AdCopyReviewService.REVIEW_CACHE));
+        when(adRepository.findByUserAndIdInWithCampaign(eq(user), any()))
+            .thenReturn(List.of(ad(1L, "Summer sale"), ad(2L, "Winter sale"), ad(3L, "Spring sale")));
+    }
+
+    @Test
+    void streamInsights_reviewsConcurrentlyWithinTheLimitAndCachesReviews() {
+        when(provider.generateTextCompletion(anyString(), anyString(), anyInt())).thenReturn(REVIEW);
+        AdOptimizationInsightService service = service(2, false);
+        List<AdOptimizationInsightDTO> streamed = new ArrayList<>();
+
+        var done = service.streamInsights(1L, request(), streamed::add);
+
+        // Two reviews start right away, the third waits for a free slot
+        assertEquals(2, backgroundTasks.size());
+        backgroundTasks.remove(0).run();
+        assertEquals(1, streamed.size());
+        runBackgroundTasks();
+        assertEquals(3, done.join());
+        streamed.forEach(insight -> assertNotNull(insight.getCopyReview()));
+
+        List<AdOptimizationInsightDTO> again = service.analyzeAds(1L, request());
+        assertEquals(List.of(1L, 2L, 3L), again.stream().map(AdOptimizationInsightDTO::getAdId).toList());
+        assertEquals(0, backgroundTasks.size());
+        verify(provider, times(3)).generateTextCompletion(anyString(), anyString(), anyInt());
+    }
+
+    @Test
+    void streamInsights_packsShortAdsIntoOneReviewPrompt() {
+        when(provider.generateTextCompletion(contains("Ad 3:"), anyString(), eq(2700))).thenReturn("["
+            + "{\"adIndex\": 1, \"overallScore\": 70, \"sections\": []},"
+            + "{\"adIndex\": 3, \"overallScore\": 90, \"sections\": []}]");
+        when(provider.generateTextCompletion(contains("Evaluate the following ad copy"), anyString(), eq(900)))
+            .thenReturn(REVIEW);
+        AdOptimizationInsightService service = service(4, true);
+        List<AdOptimizationInsightDTO> streamed = new ArrayList<>();
+
+        service.streamInsights(1L, request(), streamed::add);
+        runBackgroundTasks();
+
+        assertEquals(3, streamed.size());
+        assertEquals(70, streamed.get(0).getCopyReview().getOverallScore());
+        // The ad the packed response left out is reviewed on its own
+        assertEquals(80, streamed.get(1).getCopyReview().getOverallScore());
+        assertEquals(90, streamed.get(2).getCopyReview().getOverallScore());
+        verify(provider, never()).generateTextCompletion(contains("Ad 1:"), anyString(), eq(900));
+    }
+
+    private AdOptimizationInsightService service(int maxConcurrentReviews, boolean packShortAds) {
+        UserRepository userRepository = mock(UserRepository.class);
+        when(userRepository.findById(1L)).thenReturn(Optional.of(user));
+        AdQualityScoringService scoringService = mock(AdQualityScoringService.class);
+        when(scoringService.calculateQualityScore(any())).thenReturn(new AdQualityScoringService.AdQualityScore());
+        return new AdOptimizationInsightService(userRepository, adRepository,
+            mock(AdOptimizationSnapshotRepository.class), scoringService, reviewService, new ObjectMapper(),
+            backgroundTasks::add, maxConcurrentReviews, packShortAds, 300, 4);
+    }
+
+    private void runBackgroundTasks() {
+        while (!backgroundTasks.isEmpty()) {
+            backgroundTasks.remove(0).run();
+        }
+    }
+
+    private AdOptimizationAnalyzeRequest request() {
+        AdOptimizationAnalyzeRequest request = new AdOptimizationAnalyzeRequest();
+        request.setAdIds(List.of(1L, 2L, 3L));
+        request.setLanguage("en");
+        return request;
+    }
+
+    private Ad ad(Long id, String headline) {
+        return Ad.builder().id(id).name(headline).headline(headline).primaryText(headline + " - up to 50% off").build();
+    }
+}
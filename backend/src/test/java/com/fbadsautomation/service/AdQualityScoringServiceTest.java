@@ -0,0 +1,224 @@
+package com.fbadsautomation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import com.fbadsautomation.model.AdContent;
+import com.fbadsautomation.model.FacebookCTA;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks the single-pass scorer against the former regex/contains based implementation.
+ */
+class AdQualityScoringServiceTest {
+
+    private static final Set<String> PROHIBITED_WORDS = Set.of(
+        "free", "click here", "buy now", "limited time",
+        "guaranteed", "miracle", "breakthrough", "secret",
+        "shocking", "weird trick", "you won't believe"
+    );
+    private static final Set<String> POWER_WORDS = Set.of(
+        "new", "exclusive", "special", "premium", "quality",
+        "professional", "certified", "trusted", "proven",
+        "save", "discount", "offer", "deal", "value",
+        "easy", "simple", "quick", "fast", "instant",
+        "best", "top", "leading", "award-winning"
+    );
+    private static final String[] VOCABULARY = {
+        "new", "News", "exclusive", "freedom", "FREE", "click", "here", "limited", "time", "award-winning",
+        "award", "winning", "sản phẩm", "chất lượng", "ưu đãi", "Tiết kiệm", "best-seller", "top", "topical",
+        "discount!!", "deal?", "value.", "quick...", "  ", "\n", "\t", "!", "?!", ".", "professional",
+        "certified", "trusted", "secret_sauce", "miracle", "you", "won't", "believe", "Sale", "LAST", "CHANCE"
+    };
+
+    private final AdQualityScoringService service = new AdQualityScoringService();
+
+    @Test
+    void calculateQualityScore_matchesLegacyScoresOnHandPickedCases() {
+        List<AdContent> cases = List.of(
+            content("Best new deal", "Limited time offer", "Click here to save. Quality you can trust!", true),
+            content("SUMMER SALE NOW", "", "Free shipping!! Buy now", false),
+            content("", "", "", false),
+            content(null, null, null, false),
+            content("  leading brand", "click", "here. Award-winning service?? Really!\nYes!!", true),
+            content("Sản phẩm mới", "Ưu đãi đặc biệt", "Tiết kiệm đến 50%. Chất lượng hàng đầu, giao hàng nhanh!", true),
+            content("Newsletter topics", "freedom", "Topical discounted offers...", false),
+            content("Headline", "Description", " leading whitespace and trailing... ", false),
+            content("Top", "x", "!!!", true)
+        );
+        for (AdContent adContent : cases) {
+            assertParity(adContent);
+        }
+    }
+
+    @Test
+    void calculateQualityScore_matchesLegacyScoresOnRandomCopy() {
+        Random random = new Random(42);
+        for (int i = 0; i < 2000; i++) {
+            assertParity(content(randomText(random, 6), randomText(random, 12), randomText(random, 60),
+                random.nextBoolean()));
+        }
+    }
+
+    private void assertParity(AdContent adContent) {
+        AdQualityScoringService.AdQualityScore score = service.calculateQualityScore(adContent);
+        String context = adContent.getHeadline() + " | " + adContent.getDescription() + " | " + adContent.getPrimaryText();
+        assertEquals(LegacyScorer.compliance(adContent), score.getComplianceScore(), context);
+        assertEquals(LegacyScorer.linguistic(adContent), score.getLinguisticScore(), context);
+        assertEquals(LegacyScorer.persuasiveness(adContent), score.getPersuasivenessScore(), context);
+    }
+
+    private String randomText(Random random, int maxTokens) {
+        int tokens = random.nextInt(maxTokens + 1);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < tokens; i++) {
+            if (i > 0 || random.nextInt(10) == 0) {
+                text.append(' ');
+            }
+            text.append(VOCABULARY[random.nextInt(VOCABULARY.length)]);
+        }
+        return text.toString();
+    }
+
+    private AdContent content(String headline, String description, String primaryText, boolean withCta) {
+        AdContent adContent = new AdContent();
+        adContent.setHeadline(headline);
+        adContent.setDescription(description);
+        adContent.setPrimaryText(primaryText);
+        adContent.setCallToAction(withCta ? FacebookCTA.LEARN_MORE : null);
+        return adContent;
+    }
+
+    /**
+     * The scoring code as it was before the text analysis engine, kept verbatim for comparison.
+     */
+    private static final class LegacyScorer {
+
+        static double compliance(AdContent adContent) {
+            double score = 0;
+            String headline = orEmpty(adContent.getHeadline());
+            String description = orEmpty(adContent.getDescription());
+            String primaryText = orEmpty(adContent.getPrimaryText());
+            score += lengthScore(headline, 40) + lengthScore(description, 125) + lengthScore(primaryText, 1000);
+
+            String allText = (headline + " " + description + " " + primaryText).toLowerCase();
+            int prohibitedCount = 0;
+            for (String word : PROHIBITED_WORDS) {
+                if (allText.contains(word)) {
+                    prohibitedCount++;
+                }
+            }
+            score += prohibitedCount == 0 ? 15 : Math.max(0, 15 - (prohibitedCount * 3));
+            return Math.round(score * 10.0) / 10.0;
+        }
+
+        static double linguistic(AdContent adContent) {
+            String headline = orEmpty(adContent.getHeadline());
+            String description = orEmpty(adContent.getDescription());
+            String primaryText = orEmpty(adContent.getPrimaryText());
+            double score = keywordDensity(primaryText) + readability(primaryText)
+                + grammar(headline, description, primaryText);
+            return Math.round(score * 10.0) / 10.0;
+        }
+
+        static double persuasiveness(AdContent adContent) {
+            double score = adContent.getCallToAction() != null ? 10 : 0;
+            String allText = (orEmpty(adContent.getHeadline()) + " " + orEmpty(adContent.getDescription()) + " "
+                + orEmpty(adContent.getPrimaryText())).toLowerCase();
+            int powerWordCount = 0;
+            for (String word : POWER_WORDS) {
+                if (Pattern.compile("\\b" + word + "\\b", Pattern.CASE_INSENSITIVE).matcher(allText).find()) {
+                    powerWordCount++;
+                }
+            }
+            score += Math.min(10, powerWordCount * 1.5);
+            return Math.round(score * 10.0) / 10.0;
+        }
+
+        private static double lengthScore(String text, int max) {
+            if (text.length() <= max) {
+                return 5;
+            }
+            double excess = (double) (text.length() - max) / max;
+            return Math.max(0, 5 - (excess * 5));
+        }
+
+        private static double keywordDensity(String text) {
+            if (text.trim().isEmpty()) {
+                return 0;
+            }
+            String[] words = text.toLowerCase().split("\\s+");
+            int keywordCount = 0;
+            for (String word : words) {
+                if (word.length() > 5) {
+                    keywordCount++;
+                }
+            }
+            if (words.length == 0) {
+                return 0;
+            }
+            double density = (double) keywordCount / words.length;
+            if (density >= 0.15 && density <= 0.35) {
+                return 10;
+            } else if (density >= 0.10 && density <= 0.40) {
+                return 7;
+            } else if (density >= 0.05 && density <= 0.45) {
+                return 5;
+            }
+            return 3;
+        }
+
+        private static double readability(String text) {
+            if (text.trim().isEmpty()) {
+                return 0;
+            }
+            int sentenceCount = text.split("[.!?]+").length;
+            String[] words = text.split("\\s+");
+            if (sentenceCount == 0 || words.length == 0) {
+                return 5;
+            }
+            double avgWordsPerSentence = (double) words.length / sentenceCount;
+            int totalChars = 0;
+            for (String word : words) {
+                totalChars += word.length();
+            }
+            double avgCharsPerWord = (double) totalChars / words.length;
+            double sentenceScore = avgWordsPerSentence >= 10 && avgWordsPerSentence <= 20 ? 5
+                : avgWordsPerSentence >= 5 && avgWordsPerSentence <= 25 ? 3 : 2;
+            double wordScore = avgCharsPerWord >= 4 && avgCharsPerWord <= 6 ? 5
+                : avgCharsPerWord >= 3 && avgCharsPerWord <= 7 ? 3 : 2;
+            return sentenceScore + wordScore;
+        }
+
+        private static double grammar(String headline, String description, String primaryText) {
+            double score = 10;
+            String allText = headline + " " + description + " " + primaryText;
+            if (allText.contains("  ")) {
+                score -= 1;
+            }
+            if (!headline.isEmpty() && !Character.isUpperCase(headline.charAt(0))) {
+                score -= 2;
+            }
+            if (!primaryText.isEmpty()) {
+                char lastChar = primaryText.charAt(primaryText.length() - 1);
+                if (lastChar != '.' && lastChar != '!' && lastChar != '?') {
+                    score -= 1;
+                }
+            }
+            if (allText.matches(".*[!?]{2,}.*")) {
+                score -= 2;
+            }
+            if (headline.equals(headline.toUpperCase()) && headline.length() > 5) {
+                score -= 2;
+            }
+            return Math.max(0, score);
+        }
+
+        private static String orEmpty(String value) {
+            return value != null ? value : "";
+        }
+    }
+}
@@ -1,5 +1,7 @@
 package com.fbadsautomation.service;
 
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
 import static org.junit.jupiter.api.Assertions.assertTrue;
 
 import com.fbadsautomation.model.AdStyle;
@@ -8,6 +10,7 @@ import com.fbadsautomation.model.FacebookCTA;
 import com.fbadsautomation.model.Gender;
 import com.fbadsautomation.model.Persona;
 import com.fbadsautomation.util.ValidationMessages.Language;
+import com.fbadsautomation.util.text.AssembledPrompt;
 import java.util.List;
 import org.junit.jupiter.api.Test;
 
@@ -75,4 +78,21 @@ class ChainOfThoughtPromptBuilderTest {
         assertTrue(prompt.contains("NON-NEGOTIABLE STYLE COMMITMENT"), "Prompt phải yêu cầu giữ phong cách bắt buộc");
         assertTrue(prompt.contains("\"styleNotes\""), "JSON output phải chứa styleNotes");
     }
+
+    @Test
+    void assembleCoTPrompt_sharesStablePrefixAcrossProducts() {
+        AssembledPrompt shoes = assemble("Running shoes", 2);
+        AssembledPrompt coffee = assemble("Cold brew coffee", 4);
+
+        assertEquals(shoes.getStablePrefix(), coffee.getStablePrefix());
+        assertTrue(shoes.getStablePrefix().contains("SIGN_UP"), "CTA guardrails belong to the stable prefix");
+        assertFalse(shoes.getStablePrefix().contains("Running shoes"), "Product data must stay out of the prefix");
+        assertTrue(shoes.getText().startsWith(shoes.getStablePrefix()));
+        assertTrue(shoes.getSectionTokens().keySet().containsAll(List.of("constraints", "context", "output")));
+    }
+
+    private AssembledPrompt assemble(String product, int variations) {
+        return builder.assembleCoTPrompt(product, null, AdStyle.PROFESSIONAL, "Location: USA", List.of("fast"),
+            Language.ENGLISH, FacebookCTA.SIGN_UP, AdType.PAGE_POST_AD, variations, null, null, true, null, null);
+    }
 }
@@ -0,0 +1,113 @@
+package com.fbadsautomation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fbadsautomation.ai.AIProvider;
+import com.fbadsautomation.dto.CompetitorAdDTO;
+import com.fbadsautomation.model.AdContent;
+import com.fbadsautomation.service.security.ContentModerationService;
+import com.fbadsautomation.service.security.PromptSecurityService;
+import java.time.Duration;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+class ComparisonServiceTest {
+
+    private final ExecutorService analysisExecutor = Executors.newFixedThreadPool(4);
+    private AIProvider provider;
+    private ComparisonService service;
+
+    @BeforeEach
+    void setUp() {
+        provider = mock(AIProvider.class);
+        AIProviderService aiProviderService = mock(AIProviderService.class);
+        when(aiProviderService.getProvider("openai")).thenReturn(provider);
+        PromptSecurityService promptSecurityService = mock(PromptSecurityService.class);
+        when(promptSecurityService.sanitizeModelOutput(anyString())).thenAnswer(invocation -> invocation.getArgument(0));
+
+        service = new ComparisonService(aiProviderService, promptSecurityService, mock(ContentModerationService.class),
+            new ConcurrentMapCacheManager(ComparisonService.ANALYSIS_CACHE), analysisExecutor, 3, Duration.ofMillis(1));
+    }
+
+    @AfterEach
+    void tearDown() {
+        analysisExecutor.shutdownNow();
+    }
+
+    @Test
+    void identifyCommonPatterns_analyzesAdsConcurrentlyAndRanksSharedItems() {
+        // Every call waits until all three are in flight, so a sequential pipeline would time out
+        CountDownLatch allStarted = new CountDownLatch(3);
+        AtomicInteger calls = new AtomicInteger();
+        when(provider.generateAdContent(anyString(), anyInt(), anyString(), any())).thenAnswer(invocation -> {
+            int call = calls.incrementAndGet();
+            allStarted.countDown();
+            assertTrue(allStarted.await(5, TimeUnit.SECONDS));
+            String extra = call == 1 ? "" : "2. Bold hook " + call + "\n";
+            return List.of(analysis("STRENGTHS:\n1. Clear discount\n" + extra + "WEAKNESSES:\n1. Long copy\n"));
+        });
+
+        Map<String, Object> patterns = service.identifyCommonPatterns(
+            List.of(ad("1", "Sale A"), ad("2", "Sale B"), ad("3", "Sale C")), "openai");
+
+        assertEquals(3, patterns.get("ads_analyzed"));
+        assertEquals(0, patterns.get("ads_failed"));
+        assertEquals("Clear discount", ((List<?>) patterns.get("strengths")).get(0));
+        assertEquals(3, ((List<?>) patterns.get("strengths")).size());
+        assertEquals(List.of("Long copy"), patterns.get("weaknesses"));
+    }
+
+    @Test
+    void analyzeCompetitorAd_memoizesByContentNotAdId() {
+        when(provider.generateAdContent(anyString(), anyInt(), anyString(), any()))
+            .thenReturn(List.of(analysis("STRENGTHS:\n1. Clear discount\n")));
+
+        Map<String, Object> first = service.analyzeCompetitorAd(ad("1", "Same creative"), "openai");
+        Map<String, Object> rerun = service.analyzeCompetitorAd(ad("2", "Same creative"), "openai");
+        service.analyzeCompetitorAd(ad("3", "Other creative"), "openai");
+
+        assertEquals(first, rerun);
+        verify(provider, times(2)).generateAdContent(anyString(), anyInt(), anyString(), any());
+    }
+
+    @Test
+    void analyzeCompetitorAd_retriesFailedCallsWithoutCachingFallback() {
+        when(provider.generateAdContent(anyString(), anyInt(), anyString(), any()))
+            .thenThrow(new RuntimeException("overloaded"))
+            .thenReturn(List.of(analysis("STRENGTHS:\n1. Clear discount\n")));
+
+        Map<String, Object> insights = service.analyzeCompetitorAd(ad("1", "Sale"), "openai");
+
+        assertFalse(insights.containsKey("error"));
+        assertEquals(List.of("Clear discount"), insights.get("strengths"));
+        verify(provider, times(2)).generateAdContent(anyString(), anyInt(), anyString(), any());
+    }
+
+    private static CompetitorAdDTO ad(String adId, String text) {
+        return CompetitorAdDTO.builder().adId(adId).headline("Headline").primaryText(text).build();
+    }
+
+    private static AdContent analysis(String text) {
+        AdContent content = new AdContent();
+        content.setPrimaryText(text);
+        return content;
+    }
+}
@@ -0,0 +1,147 @@
+package com.fbadsautomation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fbadsautomation.dto.CompetitorAdDTO;
+import com.fbadsautomation.model.CompetitorAd;
+import com.fbadsautomation.model.CompetitorBrandRefresh;
+import com.fbadsautomation.repository.CompetitorAdRepository;
+import com.fbadsautomation.repository.CompetitorBrandRefreshRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+
+class CompetitorAdCorpusServiceTest {
+
+    private static final CompetitorBrandRefresh.Key KEY = new CompetitorBrandRefresh.Key("nike", "US");
+
+    private CompetitorAdRepository adRepository;
+    private CompetitorBrandRefreshRepository refreshRepository;
+    private ScrapeCreatorsService scrapeCreatorsService;
+    private final List<Runnable> backgroundTasks = new ArrayList<>();
+    private CompetitorAdCorpusService service;
+
+    @BeforeEach
+    void setUp() {
+        adRepository = mock(CompetitorAdRepository.class);
+        refreshRepository = mock(CompetitorBrandRefreshRepository.class);
+        scrapeCreatorsService = mock(ScrapeCreatorsService.class);
+        service = new CompetitorAdCorpusService(adRepository, refreshRepository, scrapeCreatorsService,
+            new ObjectMapper(), backgroundTasks::add, new SimpleMeterRegistry(), Duration.ofHours(24));
+    }
+
+    @Test
+    void searchBrand_answersFreshBrandFromCorpus() {
+        when(refreshRepository.findById(KEY))
+            .thenReturn(Optional.of(new CompetitorBrandRefresh(KEY, LocalDateTime.now().minusHours(1), 1)));
+        when(adRepository.findByBrand("nike", "US", 10)).thenReturn(List.of(storedAd("1")));
+
+        List<CompetitorAdDTO> ads = service.searchBrand("  Nike ", "us", 10);
+
+        assertEquals(1, ads.size());
+        assertEquals(List.of("https://cdn.test/1.jpg"), ads.get(0).getImageUrls());
+        verify(scrapeCreatorsService, never()).searchAdsByCompanyName(anyString(), anyString(), anyInt());
+        assertEquals(0, backgroundTasks.size());
+    }
+
+    @Test
+    void searchBrand_servesStaleBrandAndRefreshesOnceInBackground() {
+        when(refreshRepository.findById(KEY))
+            .thenReturn(Optional.of(new CompetitorBrandRefresh(KEY, LocalDateTime.now().minusDays(3), 1)));
+        when(adRepository.findByBrand("nike", "US", 10)).thenReturn(List.of(storedAd("1")));
+        when(scrapeCreatorsService.searchAdsByCompanyName("Nike", "US", 10)).thenReturn(Map.of("ads", List.of()));
+
+        assertEquals(1, service.searchBrand("Nike", "US", 10).size());
+        assertEquals(1, service.searchBrand("Nike", "US", 10).size());
+
+        assertEquals(1, backgroundTasks.size());
+        verify(scrapeCreatorsService, never()).searchAdsByCompanyName(anyString(), anyString(), anyInt());
+        backgroundTasks.get(0).run();
+        verify(scrapeCreatorsService).searchAdsByCompanyName("Nike", "US", 10);
+        verify(refreshRepository).save(any(CompetitorBrandRefresh.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void searchBrand_fetchesUnknownBrandAndStoresParsedAds() {
+        when(refreshRepository.findById(KEY)).thenReturn(Optional.empty());
+        Map<String, Object> apiAd = Map.of(
+            "ad_archive_id", "555",
+            "page_name", "Nike",
+            "start_date", 1727740800,
+            "is_active", true,
+            "snapshot", Map.of(
+                "body", Map.of("text", "Just do it."),
+                "title", "Air Max",
+                "cta_type", "SHOP_NOW",
+                "images", List.of(Map.of("original_image_url", "https://cdn.test/555.jpg"))));
+        when(scrapeCreatorsService.searchAdsByCompanyName("Nike", "US", 10)).thenReturn(Map.of("ads", List.of(apiAd)));
+
+        service.searchBrand("Nike", "US", 10);
+
+        ArgumentCaptor<List<CompetitorAd>> saved = ArgumentCaptor.forClass(List.class);
+        verify(adRepository).saveAll(saved.capture());
+        CompetitorAd ad = saved.getValue().get(0);
+        assertEquals("555", ad.getExternalId());
+        assertEquals("nike", ad.getBrandKey());
+        assertEquals("Just do it.", ad.getBody());
+        assertEquals("Air Max", ad.getHeadline());
+        assertEquals("SHOP_NOW", ad.getCallToAction());
+        assertEquals("[\"https://cdn.test/555.jpg\"]", ad.getImageUrlsJson());
+        assertEquals(LocalDate.of(2024, 10, 1), ad.getStartDate());
+        assertEquals("US", ad.getCountry());
+        verify(adRepository).findByBrand(eq("nike"), eq("US"), eq(10));
+    }
+
+    @Test
+    void recordFetchedAd_keepsStoredFieldsTheNewFetchLacks() {
+        CompetitorAd stored = storedAd("9");
+        when(adRepository.findBySourceAndExternalIdIn(eq(CompetitorAd.SOURCE_SCRAPE_CREATORS), any()))
+            .thenReturn(List.of(stored));
+
+        service.recordFetchedAd(CompetitorAdDTO.builder().adId("9").primaryText("New copy").build());
+
+        assertEquals("New copy", stored.getBody());
+        assertEquals("Stored headline", stored.getHeadline());
+        assertEquals("[\"https://cdn.test/9.jpg\"]", stored.getImageUrlsJson());
+        verify(adRepository).saveAll(List.of(stored));
+    }
+
+    @Test
+    void brandKey_normalizesCaseAndWhitespace() {
+        assertEquals("the coffee house", CompetitorAdCorpusService.brandKey("  The   Coffee\tHouse "));
+        assertNull(CompetitorAdCorpusService.brandKey(" "));
+    }
+
+    private CompetitorAd storedAd(String id) {
+        return CompetitorAd.builder()
+            .source(CompetitorAd.SOURCE_SCRAPE_CREATORS)
+            .externalId(id)
+            .brandName("Nike")
+            .brandKey("nike")
+            .headline("Stored headline")
+            .body("Stored copy")
+            .imageUrlsJson("[\"https://cdn.test/" + id + ".jpg\"]")
+            .firstSeenAt(LocalDateTime.now().minusDays(5))
+            .lastSeenAt(LocalDateTime.now().minusDays(5))
+            .build();
+    }
+}
@@ -0,0 +1,53 @@
+package com.fbadsautomation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fbadsautomation.repository.CompetitorBrandSuggestionRepository;
+import com.fbadsautomation.repository.CompetitorSearchRepository;
+import com.fbadsautomation.repository.UserRepository;
+import com.fbadsautomation.service.security.PromptSecurityService;
+import java.time.LocalDateTime;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.PageRequest;
+
+class CompetitorServiceTest {
+
+    private CompetitorSearchRepository searchRepository;
+    private CompetitorBrandSuggestionRepository suggestionRepository;
+    private CompetitorService service;
+
+    @BeforeEach
+    void setUp() {
+        searchRepository = mock(CompetitorSearchRepository.class);
+        suggestionRepository = mock(CompetitorBrandSuggestionRepository.class);
+        service = new CompetitorService(mock(MetaAdLibraryService.class), mock(CompetitorAdCorpusService.class),
+            searchRepository, suggestionRepository, mock(UserRepository.class), mock(PromptSecurityService.class));
+    }
+
+    @Test
+    void getBrandNameSuggestions_escapesLikeWildcardsAndCapsLimit() {
+        when(suggestionRepository.findBrandNamesByPrefix(1L, "50!% off!_!!", PageRequest.of(0, 10)))
+            .thenReturn(List.of("50% off_!"));
+
+        assertEquals(List.of("50% off_!"), service.getBrandNameSuggestions(1L, "  50% off_!", 100));
+        service.getBrandNameSuggestions(1L, null, 5);
+        verify(suggestionRepository).findBrandNamesByPrefix(1L, "", PageRequest.of(0, 5));
+    }
+
+    @Test
+    void cleanupOldSearchHistory_deletesInBatchesUntilNothingIsLeft() {
+        when(searchRepository.deleteBatchOlderThan(any(LocalDateTime.class), eq(1000)))
+            .thenReturn(1000, 1000, 250);
+
+        assertEquals(2250, service.cleanupOldSearchHistory());
+        verify(searchRepository, times(3)).deleteBatchOlderThan(any(LocalDateTime.class), eq(1000));
+    }
+}
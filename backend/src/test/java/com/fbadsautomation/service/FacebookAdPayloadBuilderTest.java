@@ -0,0 +1,99 @@
+package com.fbadsautomation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.mockito.ArgumentMatchers.anyBoolean;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import com.fbadsautomation.dto.FacebookAdPayload;
+import com.fbadsautomation.integration.facebook.FacebookAccountMetadataService;
+import com.fbadsautomation.integration.facebook.FacebookProperties;
+import com.fbadsautomation.model.Ad;
+import com.fbadsautomation.model.Campaign;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+class FacebookAdPayloadBuilderTest {
+
+    private FacebookAccountMetadataService metadataService;
+    private FacebookAdPayloadBuilder builder;
+
+    @BeforeEach
+    void setUp() {
+        FacebookProperties properties = new FacebookProperties();
+        properties.setAccountCurrency("VND");
+        properties.setLegacyUsdToVndRate(25000d);
+        metadataService = mock(FacebookAccountMetadataService.class);
+        builder = new FacebookAdPayloadBuilder(mock(MinIOStorageService.class), properties, metadataService);
+    }
+
+    @Test
+    void buildPayloads_sharesCampaignFragmentsAcrossAds() {
+        List<Campaign> campaigns = new ArrayList<>();
+        for (long i = 0; i < 10; i++) {
+            campaigns.add(campaign(i, "Women 25-34 in Vietnam"));
+        }
+        List<Ad> ads = new ArrayList<>();
+        for (long i = 0; i < 1000; i++) {
+            ads.add(ad(i, campaigns.get((int) (i % 10)), (i / 10) % 2 == 0 ? "https://a.test" : "https://b.test"));
+        }
+
+        List<FacebookAdPayload> payloads = builder.buildPayloads(ads);
+
+        assertEquals(1000, payloads.size());
+        assertSame(payloads.get(0).getCampaign(), payloads.get(10).getCampaign());
+        assertSame(payloads.get(0).getAdSet(), payloads.get(20).getAdSet());
+        assertNotSame(payloads.get(0).getAdSet(), payloads.get(10).getAdSet());
+        assertEquals("https://b.test", payloads.get(10).getAdSet().getLink());
+        // Currency is resolved once per export, not once per ad.
+        verify(metadataService, times(1)).ensureCurrencyLoaded(anyBoolean());
+    }
+
+    @Test
+    void buildPayload_matchesPerAdOutput() {
+        Campaign campaign = campaign(1L, "Male 18-24 and 35-44, US");
+        FacebookAdPayload payload = builder.buildPayload(ad(1L, campaign, "https://a.test"));
+
+        assertEquals("US", payload.getAdSet().getCountries());
+        assertEquals("Male", payload.getAdSet().getGender());
+        assertEquals("35", payload.getAdSet().getAgeMin());
+        assertEquals("44", payload.getAdSet().getAgeMax());
+        // Legacy USD budgets are converted for VND accounts, which have no minor unit.
+        assertEquals("500000", payload.getCampaign().getDailyBudget());
+        assertEquals("Summer - Ad Set", payload.getAdSet().getName());
+
+        FacebookAdPayload defaults = builder.buildPayload(ad(2L, campaign(2L, null), null));
+        assertEquals("All", defaults.getAdSet().getGender());
+        assertEquals("18", defaults.getAdSet().getAgeMin());
+        assertEquals("65", defaults.getAdSet().getAgeMax());
+    }
+
+    private Campaign campaign(Long id, String targetAudience) {
+        return Campaign.builder()
+            .id(id)
+            .name("Summer")
+            .objective(Campaign.CampaignObjective.TRAFFIC)
+            .budgetType(Campaign.BudgetType.DAILY)
+            .dailyBudget(20.0)
+            .targetAudience(targetAudience)
+            .startDate(LocalDate.of(2026, 1, 1))
+            .build();
+    }
+
+    private Ad ad(Long id, Campaign campaign, String websiteUrl) {
+        return Ad.builder()
+            .id(id)
+            .campaign(campaign)
+            .name("Ad " + id)
+            .headline("Headline " + id)
+            .primaryText("Primary " + id)
+            .websiteUrl(websiteUrl)
+            .build();
+    }
+}
@@ -0,0 +1,130 @@
+package com.fbadsautomation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fbadsautomation.dto.FacebookAutoExportResponse;
+import com.fbadsautomation.dto.FacebookAutoUploadProgress;
+import com.fbadsautomation.exception.ApiException;
+import com.fbadsautomation.integration.facebook.FacebookProperties;
+import com.fbadsautomation.model.AsyncJobStatus;
+import java.util.List;
+import java.util.Optional;
+import java.util.concurrent.RejectedExecutionException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+
+@ExtendWith(MockitoExtension.class)
+class FacebookAutoUploadServiceTest {
+
+    private static final String JOB_ID = "job-1";
+    private static final Long USER_ID = 7L;
+
+    @Mock
+    private AsyncJobService asyncJobService;
+
+    @Mock
+    private AsyncFacebookUploadService asyncFacebookUploadService;
+
+    private FacebookAutoUploadService service;
+
+    @BeforeEach
+    void setUp() {
+        service = new FacebookAutoUploadService(new FacebookProperties(), asyncJobService, asyncFacebookUploadService);
+    }
+
+    @Test
+    void resumeAutoUpload_rejectsCancelledJobs() {
+        givenJob(AsyncJobStatus.Status.CANCELLED);
+
+        ApiException error = assertThrows(ApiException.class, () -> service.resumeAutoUpload(JOB_ID, USER_ID));
+
+        assertEquals(HttpStatus.CONFLICT, error.getStatus());
+        verify(asyncJobService, never()).reopenJob(anyString(), anyString());
+        verify(asyncFacebookUploadService, never()).uploadAsync(anyString(), any());
+    }
+
+    @Test
+    void resumeAutoUpload_startsNoWorkerWhenAnotherResumeReopenedTheJobFirst() {
+        givenJob(AsyncJobStatus.Status.FAILED);
+        when(asyncJobService.canCreateJob(USER_ID)).thenReturn(true);
+        when(asyncJobService.reopenJob(eq(JOB_ID), anyString())).thenReturn(false);
+
+        ApiException error = assertThrows(ApiException.class, () -> service.resumeAutoUpload(JOB_ID, USER_ID));
+
+        assertEquals(HttpStatus.CONFLICT, error.getStatus());
+        verify(asyncFacebookUploadService, never()).uploadAsync(anyString(), any());
+    }
+
+    @Test
+    void resumeAutoUpload_respectsTheActiveJobCap() {
+        givenJob(AsyncJobStatus.Status.FAILED);
+        when(asyncJobService.canCreateJob(USER_ID)).thenReturn(false);
+
+        FacebookAutoExportResponse response = service.resumeAutoUpload(JOB_ID, USER_ID);
+
+        assertEquals(FacebookAutoExportResponse.AutoUploadStatus.SKIPPED, response.getStatus());
+        verify(asyncJobService, never()).reopenJob(anyString(), anyString());
+        verify(asyncFacebookUploadService, never()).uploadAsync(anyString(), any());
+    }
+
+    @Test
+    void startAutoUpload_failsTheJobWhenTheUploadPoolRejectsIt() {
+        FacebookProperties properties = new FacebookProperties();
+        properties.setMarketingAccessToken("token");
+        service = new FacebookAutoUploadService(properties, asyncJobService, asyncFacebookUploadService);
+        when(asyncJobService.canCreateJob(USER_ID)).thenReturn(true);
+        when(asyncJobService.createJob(USER_ID, AsyncJobStatus.JobType.FACEBOOK_AUTO_UPLOAD, 2)).thenReturn(JOB_ID);
+        when(asyncFacebookUploadService.uploadAsync(eq(JOB_ID), any()))
+            .thenThrow(new RejectedExecutionException("General async queue is full"));
+
+        FacebookAutoExportResponse response = service.startAutoUpload(USER_ID, List.of(1L, 2L), "act_1");
+
+        assertEquals(FacebookAutoExportResponse.AutoUploadStatus.SKIPPED, response.getStatus());
+        assertEquals(JOB_ID, response.getJobId());
+        verify(asyncJobService).failJob(eq(JOB_ID), anyString());
+    }
+
+    @Test
+    void resumeAutoUpload_failsTheJobAgainWhenTheUploadPoolRejectsIt() {
+        givenJob(AsyncJobStatus.Status.FAILED);
+        when(asyncJobService.canCreateJob(USER_ID)).thenReturn(true);
+        when(asyncJobService.reopenJob(eq(JOB_ID), anyString())).thenReturn(true);
+        when(asyncFacebookUploadService.uploadAsync(eq(JOB_ID), any()))
+            .thenThrow(new RejectedExecutionException("General async queue is full"));
+
+        FacebookAutoExportResponse response = service.resumeAutoUpload(JOB_ID, USER_ID);
+
+        assertEquals(FacebookAutoExportResponse.AutoUploadStatus.SKIPPED, response.getStatus());
+        verify(asyncJobService).failJob(eq(JOB_ID), anyString());
+    }
+
+    private void givenJob(AsyncJobStatus.Status status) {
+        AsyncJobStatus job = AsyncJobStatus.builder()
+            .jobId(JOB_ID)
+            .userId(USER_ID)
+            .jobType(AsyncJobStatus.JobType.FACEBOOK_AUTO_UPLOAD)
+            .status(status)
+            .build();
+        when(asyncJobService.getUserJob(JOB_ID, USER_ID)).thenReturn(Optional.of(job));
+        FacebookAutoUploadProgress checkpoint = FacebookAutoUploadProgress.builder()
+            .jobId(JOB_ID)
+            .adIds(List.of(1L, 2L))
+            .totalAds(2)
+            .build();
+        if (status != AsyncJobStatus.Status.CANCELLED) {
+            when(asyncJobService.getJobData(JOB_ID, USER_ID, FacebookAutoUploadProgress.class))
+                .thenReturn(Optional.of(checkpoint));
+        }
+    }
+}
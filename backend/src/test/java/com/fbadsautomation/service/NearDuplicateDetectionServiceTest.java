@@ -0,0 +1,94 @@
+package com.fbadsautomation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fbadsautomation.model.AdContent;
+import com.fbadsautomation.repository.AdContentRepository;
+import com.fbadsautomation.util.text.SimHash;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+@ExtendWith(MockitoExtension.class)
+class NearDuplicateDetectionServiceTest {
+
+    private static final String RUNNING = "Step into comfort with our new running shoes. Lightweight mesh, cushioned soles "
+        + "and a grip that lasts. Order today and get free delivery across Vietnam.";
+    private static final String BAGS = "Discover premium leather bags crafted for everyday elegance. Shop the new "
+        + "collection online and enjoy easy returns within thirty days.";
+
+    @Mock
+    private AdContentRepository adContentRepository;
+
+    @InjectMocks
+    private NearDuplicateDetectionService service;
+
+    @Test
+    void removeNearDuplicates_dropsRepeatsWithinBatch() {
+        AdContent original = content("Run in comfort", RUNNING);
+        AdContent repeat = content("RUN IN COMFORT!", RUNNING.replace("today", "now"));
+        AdContent different = content("Carry it well", BAGS);
+
+        List<AdContent> kept = service.removeNearDuplicates(List.of(original, repeat, different), null);
+
+        assertEquals(List.of(original, different), kept);
+        assertNotNull(repeat.getContentSimhash());
+        verify(adContentRepository, never()).findSimilarContentSimhashes(eq(7L), anyString(), anyInt());
+    }
+
+    @Test
+    void removeNearDuplicates_dropsRepeatsOfPastAds() {
+        long past = SimHash.of("Run in comfort", null, RUNNING);
+        when(adContentRepository.findSimilarContentSimhashes(eq(7L), anyString(), anyInt()))
+            .thenAnswer(invocation -> matchingBand(invocation.getArgument(1), past) ? List.of(past) : List.of());
+        AdContent repeat = content("Run in comfort", RUNNING);
+        AdContent different = content("Carry it well", BAGS);
+
+        assertEquals(List.of(different), service.removeNearDuplicates(List.of(repeat, different), 7L));
+        // Never empty the batch: one variation is kept even if all repeat past ads
+        assertEquals(List.of(repeat), service.removeNearDuplicates(List.of(repeat), 7L));
+    }
+
+    @Test
+    void removeNearDuplicates_returnsSameListWhenNothingIsDropped() {
+        List<AdContent> contents = List.of(content("Run in comfort", RUNNING), content("Carry it well", BAGS));
+
+        assertSame(contents, service.removeNearDuplicates(contents, null));
+    }
+
+    @Test
+    void simHash_keepsRewritesApartAndSmallEditsClose() {
+        long base = SimHash.of("Run in comfort", RUNNING);
+        assertTrue(SimHash.isNearDuplicate(base, SimHash.of("run in comfort", RUNNING.toUpperCase())));
+        assertTrue(SimHash.isNearDuplicate(base, SimHash.of("Run in comfort", RUNNING.replace("Vietnam", "the country"))));
+        assertTrue(SimHash.distance(base, SimHash.of("Carry it well", BAGS)) > SimHash.MAX_DISTANCE);
+    }
+
+    private boolean matchingBand(String bandKeys, long fingerprint) {
+        for (int key : SimHash.bandKeys(fingerprint)) {
+            if (("," + bandKeys.substring(1, bandKeys.length() - 1) + ",").contains("," + key + ",")) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private AdContent content(String headline, String primaryText) {
+        AdContent content = new AdContent();
+        content.setHeadline(headline);
+        content.setPrimaryText(primaryText);
+        return content;
+    }
+}
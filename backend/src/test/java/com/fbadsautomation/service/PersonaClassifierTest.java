@@ -0,0 +1,125 @@
+package com.fbadsautomation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+import com.fbadsautomation.model.AdPersona;
+import com.fbadsautomation.model.Persona;
+import com.fbadsautomation.repository.AdRepository;
+import com.fbadsautomation.service.PersonaClassifier.Classification;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InjectMocks;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.data.domain.Pageable;
+
+@ExtendWith(MockitoExtension.class)
+class PersonaClassifierTest {
+
+    @Mock
+    private AdRepository adRepository;
+
+    @InjectMocks
+    private PersonaClassifier classifier;
+
+    @Test
+    void classify_isConfidentWhenKeywordsAgree() {
+        Classification result = classifier.classify("Khóa học IELTS online cho học sinh");
+
+        assertEquals(AdPersona.STUDENT_FOCUSED, result.getPersona());
+        assertTrue(result.getConfidence() >= 0.8, String.valueOf(result.getConfidence()));
+    }
+
+    @Test
+    void classify_isUnsureWhenKeywordsConflictOrAreMissing() {
+        Classification conflicting = classifier.classify("Gym membership with a healthy food menu");
+        assertTrue(conflicting.getConfidence() < 0.6, String.valueOf(conflicting.getConfidence()));
+
+        Classification none = classifier.classify("Smart home security cameras");
+        assertEquals(AdPersona.GENERAL_FRIENDLY, none.getPersona());
+        assertEquals(0, none.getConfidence());
+    }
+
+    @Test
+    void classify_onlyCountsKeywordsAtWordStart() {
+        // "ăn" inside "khăn" and "rank" inside "frankly" are not keywords
+        assertEquals(0, classifier.classify("Khăn lụa cao cấp, frankly the softest").getConfidence());
+        assertEquals(AdPersona.FOOD_BEVERAGE, classifier.classify("Quán ăn gia đình").getPersona());
+    }
+
+    @Test
+    void train_learnsPersonasFromPastAds() {
+        Persona accountant = persona("Bookkeeping for small companies", "accounting", "tax");
+        Persona gamer = persona("Plays ranked games every night", "gaming", "memes");
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            rows.add(new Object[] {"Software for small teams and their books " + i, accountant});
+            rows.add(new Object[] {"Funny stickers and memes for group chats " + i, gamer});
+        }
+        when(adRepository.findPromptsWithPersona(any(Pageable.class))).thenReturn(rows);
+        assertEquals(0, classifier.classify("Stickers for your group chats").getConfidence());
+
+        classifier.train();
+
+        assertTrue(classifier.hasTrainedModel());
+        Classification result = classifier.classify("Stickers for your group chats");
+        assertEquals(AdPersona.GEN_Z_GAMER, result.getPersona());
+        assertTrue(result.getConfidence() > 0.9, String.valueOf(result.getConfidence()));
+    }
+
+    @Test
+    void train_neverDilutesKeywordsForPersonasWithoutHistory() {
+        Persona accountant = persona(null, "finance");
+        Persona gamer = persona(null, "esport");
+        List<Object[]> rows = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            rows.add(new Object[] {"Invoices and payroll for your company " + i, accountant});
+            rows.add(new Object[] {"Tournament tickets for your team " + i, gamer});
+        }
+        when(adRepository.findPromptsWithPersona(any(Pageable.class))).thenReturn(rows);
+        Classification before = classifier.classify("Khóa học IELTS online cho học sinh");
+
+        classifier.train();
+
+        // No ad was ever labelled STUDENT_FOCUSED, so history has no say about it
+        assertEquals(before, classifier.classify("Khóa học IELTS online cho học sinh"));
+        // Where history agrees with the keywords, the result is more confident than either alone
+        Classification keywordsOnly = new PersonaClassifier(adRepository).classify("Payroll for your finance team");
+        Classification combined = classifier.classify("Payroll for your finance team");
+        assertEquals(AdPersona.PROFESSIONAL_TRUSTWORTHY, combined.getPersona());
+        assertTrue(combined.getConfidence() > keywordsOnly.getConfidence(), String.valueOf(combined.getConfidence()));
+    }
+
+    @Test
+    void train_keepsKeywordsOnlyWithoutEnoughHistory() {
+        List<Object[]> rows = new ArrayList<>();
+        rows.add(new Object[] {"Accounting software", persona(null, "accounting")});
+        when(adRepository.findPromptsWithPersona(any(Pageable.class))).thenReturn(rows);
+
+        classifier.train();
+
+        assertFalse(classifier.hasTrainedModel());
+    }
+
+    @Test
+    void labelOf_readsThePersonaProfileAndSkipsProfilesWithoutCategory() {
+        assertEquals(AdPersona.HEALTH_WELLNESS, PersonaClassifier.labelOf(persona("Wants to lose weight", "gym")));
+        assertNull(PersonaClassifier.labelOf(persona("Busy parent", "travel")));
+    }
+
+    private static Persona persona(String description, String... interests) {
+        return Persona.builder()
+            .name("Persona")
+            .tone("friendly")
+            .description(description)
+            .interests(List.of(interests))
+            .build();
+    }
+}
@@ -0,0 +1,95 @@
+package com.fbadsautomation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import com.fbadsautomation.config.DigestKeyGenerator;
+import com.fbadsautomation.config.PromptBudgetConfig;
+import com.fbadsautomation.util.text.TokenEstimator;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+
+class PromptCompactionServiceTest {
+
+    private PromptBudgetConfig budgetConfig;
+    private ConcurrentMapCacheManager cacheManager;
+    private SimpleMeterRegistry meterRegistry;
+    private PromptCompactionService service;
+
+    @BeforeEach
+    void setUp() {
+        budgetConfig = new PromptBudgetConfig();
+        budgetConfig.setSections(Map.of(
+            PromptBudgetConfig.REFERENCE, 40,
+            PromptBudgetConfig.KEYWORDS, 10,
+            PromptBudgetConfig.AUDIENCE, 8));
+        cacheManager = new ConcurrentMapCacheManager(PromptCompactionService.SUMMARY_CACHE);
+        meterRegistry = new SimpleMeterRegistry();
+        service = new PromptCompactionService(budgetConfig, cacheManager, meterRegistry);
+    }
+
+    @Test
+    void compactReference_keepsHookAndCallToActionWithinBudget() {
+        String reference = "🎉 Big summer sale is here! "
+            + "Our linen shirts breathe on the hottest days of the year. "
+            + "Every shirt is cut and sewn by hand in our own workshop. "
+            + "Pick from twelve colours that match any outfit you own. "
+            + "Shop now before sizes run out.";
+
+        String summary = service.compactReference(reference, "openai");
+
+        assertTrue(summary.startsWith("🎉 Big summer sale is here!"), summary);
+        assertTrue(summary.endsWith("Shop now before sizes run out."), summary);
+        assertTrue(summary.contains("…"), summary);
+        assertTrue(TokenEstimator.estimate(summary) <= 40 + 1, summary);
+        assertEquals(summary, cacheManager.getCache(PromptCompactionService.SUMMARY_CACHE)
+            .get(new DigestKeyGenerator().digest(40, reference), String.class));
+        assertEquals(1.0, meterRegistry.get("ai.prompt.compactions").tag("section", "reference").counter().count());
+    }
+
+    @Test
+    void compactReference_leavesShortReferenceAndUnbudgetedSectionsAlone() {
+        String reference = "Fresh coffee, delivered daily.";
+
+        assertSame(reference, service.compactReference(reference, "openai"));
+        String persona = "x".repeat(1000);
+        assertSame(persona, service.limitSection("persona", persona, "openai"));
+    }
+
+    @Test
+    void limitKeywords_keepsPriorityOrderUntilBudgetIsSpent() {
+        List<String> keywords = List.of("summer sale", "linen shirt", "breathable fabric", "free shipping");
+
+        assertEquals(List.of("summer sale", "linen shirt"), service.limitKeywords(keywords, "openai"));
+        // A pricier tokenizer shrinks the same budget
+        budgetConfig.setTokenizerScale(Map.of("huggingface", 2.0));
+        assertEquals(List.of("summer sale"), service.limitKeywords(keywords, "huggingface"));
+    }
+
+    @Test
+    void limitSection_truncatesAtWordBoundary() {
+        String audience = "Young professionals in Hanoi who commute by motorbike and love specialty coffee";
+
+        String limited = service.limitSection(PromptBudgetConfig.AUDIENCE, audience, "openai");
+
+        assertTrue(limited.endsWith(" …"), limited);
+        assertTrue(audience.startsWith(limited.substring(0, limited.length() - 2)), limited);
+    }
+
+    @Test
+    void recordPrompt_publishesTokensPerStrategy() {
+        service.recordPrompt("CHAIN_OF_THOUGHT", "openai", "a".repeat(400));
+        service.recordPrompt("CHAIN_OF_THOUGHT", "openai", "a".repeat(200));
+
+        var summary = meterRegistry.get("ai.prompt.tokens").tags("strategy", "CHAIN_OF_THOUGHT", "provider", "openai").summary();
+        assertNotNull(summary);
+        assertEquals(2, summary.count());
+        assertEquals(150.0, summary.totalAmount());
+    }
+}
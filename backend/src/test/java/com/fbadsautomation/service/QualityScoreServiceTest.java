@@ -0,0 +1,209 @@
+package com.fbadsautomation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.spy;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fbadsautomation.model.Ad;
+import com.fbadsautomation.model.AdContent;
+import com.fbadsautomation.model.AdContentQualityScore;
+import com.fbadsautomation.model.Campaign;
+import com.fbadsautomation.model.QualityScoreAggregate;
+import com.fbadsautomation.repository.AdContentQualityScoreRepository;
+import com.fbadsautomation.repository.AdContentRepository;
+import com.fbadsautomation.repository.QualityScoreAggregateRepository;
+import com.fbadsautomation.service.AdQualityScoringService.AdQualityScore;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.LongStream;
+import javax.persistence.EntityManager;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.test.util.ReflectionTestUtils;
+
+@ExtendWith(MockitoExtension.class)
+class QualityScoreServiceTest {
+
+    @Mock
+    private AdContentQualityScoreRepository scoreRepository;
+
+    @Mock
+    private QualityScoreAggregateRepository aggregateRepository;
+
+    @Mock
+    private AdContentRepository adContentRepository;
+
+    private AdQualityScoringService scoringService;
+    private ForkJoinPool pool;
+    private QualityScoreService service;
+
+    @BeforeEach
+    void setUp() {
+        scoringService = spy(new AdQualityScoringService());
+        pool = new ForkJoinPool(2);
+        service = new QualityScoreService(scoringService, scoreRepository, aggregateRepository,
+            adContentRepository, new ObjectMapper(), pool);
+    }
+
+    @AfterEach
+    void tearDown() {
+        pool.shutdownNow();
+    }
+
+    @Test
+    void getScores_reusesStoredScoreWhileCopyIsUnchanged() {
+        AdContent content = content(1L, "Premium running shoes");
+        AdContentQualityScore stored = scoreOnce(content);
+
+        when(scoreRepository.findAllById(List.of(1L))).thenReturn(List.of(stored));
+        AdQualityScore cached = service.getScore(content);
+
+        verify(scoringService, times(1)).calculateQualityScore(any());
+        AdQualityScore expected = scoringService.calculateQualityScore(content);
+        assertEquals(expected.toMap(), cached.toMap());
+        assertEquals(AdQualityScoringService.FEATURE_NAMES.size(), cached.getFeatures().length);
+    }
+
+    @Test
+    void getScores_rescoresWhenCopyOrScorerVersionChanges() {
+        AdContent content = content(1L, "Premium running shoes");
+        AdContentQualityScore stored = scoreOnce(content);
+        when(scoreRepository.findAllById(List.of(1L))).thenReturn(List.of(stored));
+
+        content.setPrimaryText(content.getPrimaryText() + " Now in three new colours.");
+        service.getScore(content);
+        // The rescore above updated the stored row in place; only the version is outdated now
+        stored.setScorerVersion(AdQualityScoringService.SCORER_VERSION - 1);
+        service.getScore(content);
+        service.getScore(content);
+
+        verify(scoringService, times(3)).calculateQualityScore(any());
+    }
+
+    @Test
+    void getScores_scoresLargeBatchesOnPoolInRequestOrder() {
+        List<AdContent> contents = LongStream.rangeClosed(1, 40)
+            .mapToObj(id -> content(id, "Headline number " + id))
+            .collect(Collectors.toList());
+
+        List<AdQualityScore> scores = service.getScores(contents);
+
+        assertEquals(LongStream.rangeClosed(1, 40).boxed().collect(Collectors.toList()),
+            scores.stream().map(AdQualityScore::getAdContentId).collect(Collectors.toList()));
+        ArgumentCaptor<List<AdContentQualityScore>> saved = ArgumentCaptor.forClass(List.class);
+        verify(scoreRepository).saveAll(saved.capture());
+        assertEquals(40, saved.getValue().size());
+        assertEquals(9L, saved.getValue().get(0).getCampaignId());
+    }
+
+    @Test
+    void getAdStats_readsCurrentAggregateWithoutScoring() {
+        QualityScoreAggregate aggregate = new QualityScoreAggregate();
+        aggregate.setKey(new QualityScoreAggregate.Key(QualityScoreAggregate.SCOPE_AD, 5L));
+        aggregate.setScoreCount(2);
+        aggregate.setSumTotal(150);
+        aggregate.setMinTotal(70);
+        aggregate.setMaxTotal(80);
+        when(aggregateRepository.findById(aggregate.getKey())).thenReturn(Optional.of(aggregate));
+        when(adContentRepository.countStaleQualityScoresByAdId(5L, AdQualityScoringService.SCORER_VERSION)).thenReturn(0L);
+
+        Map<String, Object> stats = service.getAdStats(5L).orElseThrow();
+
+        assertEquals(2, stats.get("count"));
+        assertEquals(Map.of("average", 75.0, "min", 70.0, "max", 80.0), stats.get("totalScore"));
+        verify(adContentRepository, never()).findByAdId(5L);
+        verify(scoringService, never()).calculateQualityScore(any());
+    }
+
+    @Test
+    void getAdStats_refreshesAggregateWhenScoresAreOlderThanEdits() {
+        AdContent content = content(1L, "Premium running shoes");
+        AdContentQualityScore stored = scoreOnce(content);
+        stored.setScoredAt(LocalDateTime.now().minusMinutes(5));
+        // Selected as the final variation after scoring: copy unchanged, but edited since
+        content.setUpdatedAt(LocalDateTime.now().minusMinutes(1));
+        QualityScoreAggregate aggregate = new QualityScoreAggregate();
+        aggregate.setKey(new QualityScoreAggregate.Key(QualityScoreAggregate.SCOPE_AD, 5L));
+        aggregate.setScoreCount(1);
+        when(aggregateRepository.findById(aggregate.getKey())).thenReturn(Optional.of(aggregate));
+        when(adContentRepository.countStaleQualityScoresByAdId(5L, AdQualityScoringService.SCORER_VERSION)).thenReturn(1L);
+        when(adContentRepository.findByAdId(5L)).thenReturn(List.of(content));
+        when(scoreRepository.findAllById(List.of(1L))).thenReturn(List.of(stored));
+        EntityManager entityManager = mock(EntityManager.class);
+        ReflectionTestUtils.setField(service, "entityManager", entityManager);
+
+        service.getAdStats(5L);
+
+        // Reused rather than rescored, but the score is confirmed so the next read trusts the aggregate
+        verify(scoringService, times(1)).calculateQualityScore(any());
+        verify(scoreRepository, times(2)).saveAll(anyList());
+        assertFalse(stored.getScoredAt().isBefore(content.getUpdatedAt()));
+        verify(entityManager).refresh(aggregate);
+    }
+
+    @Test
+    void getCampaignStats_isEmptyWithoutContent() {
+        when(adContentRepository.findByAdCampaignId(3L)).thenReturn(List.of());
+
+        assertEquals(Optional.empty(), service.getCampaignStats(3L));
+        verify(scoreRepository, never()).saveAll(anyList());
+    }
+
+    @Test
+    void contentHasher_separatesFields() {
+        QualityScoreService.ContentHasher hasher = new QualityScoreService.ContentHasher();
+        AdContent first = content(1L, "Shoes");
+        AdContent moved = content(1L, "Shoes");
+        moved.setHeadline(first.getHeadline() + first.getDescription());
+        moved.setDescription("");
+        AdContent empty = content(1L, "Shoes");
+        empty.setDescription(null);
+        AdContent blank = content(1L, "Shoes");
+        blank.setDescription("");
+
+        assertEquals(hasher.hash(first), hasher.hash(content(1L, "Shoes")));
+        assertNotEquals(hasher.hash(first), hasher.hash(moved));
+        assertNotEquals(hasher.hash(empty), hasher.hash(blank));
+    }
+
+    private AdContentQualityScore scoreOnce(AdContent content) {
+        service.getScore(content);
+        ArgumentCaptor<List<AdContentQualityScore>> saved = ArgumentCaptor.forClass(List.class);
+        verify(scoreRepository).saveAll(saved.capture());
+        return new ArrayList<>(saved.getValue()).get(0);
+    }
+
+    private static AdContent content(Long id, String headline) {
+        Campaign campaign = new Campaign();
+        campaign.setId(9L);
+        Ad ad = new Ad();
+        ad.setId(5L);
+        ad.setCampaign(campaign);
+        AdContent content = new AdContent();
+        content.setId(id);
+        content.setAd(ad);
+        content.setHeadline(headline);
+        content.setDescription("Cushioned soles and a grip that lasts.");
+        content.setPrimaryText("Step into comfort with our new running shoes. Order today for fast delivery.");
+        return content;
+    }
+}
@@ -0,0 +1,108 @@
+package com.fbadsautomation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.cache.concurrent.ConcurrentMapCacheManager;
+import org.springframework.http.HttpEntity;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.RestTemplate;
+
+class ScrapeCreatorsServiceTest {
+
+    private static final long API_LATENCY_MS = 200;
+
+    private final ExecutorService fetchExecutor = Executors.newFixedThreadPool(10);
+    private RestTemplate restTemplate;
+    private ConcurrentMapCacheManager cacheManager;
+
+    @BeforeEach
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    void setUp() {
+        restTemplate = mock(RestTemplate.class);
+        when(restTemplate.exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(Map.class)))
+            .thenAnswer(invocation -> {
+                Thread.sleep(API_LATENCY_MS);
+                String url = invocation.getArgument(0);
+                return ResponseEntity.ok(Map.of("body", "ad " + url.substring(url.indexOf("id=") + 3)));
+            });
+        cacheManager = new ConcurrentMapCacheManager(ScrapeCreatorsService.AD_CACHE);
+    }
+
+    @AfterEach
+    void tearDown() {
+        fetchExecutor.shutdownNow();
+    }
+
+    @Test
+    void scrapeCreatorsBatch_fetchesConcurrentlyInInputOrder() {
+        ScrapeCreatorsService service = service(10, 5);
+        List<String> adIds = List.of("1", "2", "3", "4", "5", "6", "7", "8", "9", "10");
+
+        long start = System.nanoTime();
+        List<Map<String, Object>> results = service.scrapeCreatorsBatch(adIds, false);
+        long elapsedMs = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+
+        assertEquals(10, results.size());
+        for (int i = 0; i < adIds.size(); i++) {
+            assertEquals("ad " + adIds.get(i), results.get(i).get("body"));
+        }
+        // Roughly one round-trip instead of ten
+        assertTrue(elapsedMs < API_LATENCY_MS * 3, "took " + elapsedMs + " ms");
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    void scrapeCreatorsStream_sharesOneCallPerAdAndCachesIt() {
+        ScrapeCreatorsService service = service(10, 5);
+        List<String> received = Collections.synchronizedList(new ArrayList<>());
+
+        service.scrapeCreatorsStream(List.of("42", "42", "7"), false, (adId, ad) -> received.add(adId)).join();
+        Map<String, Object> again = service.scrapeCreators("42", false);
+
+        assertEquals(2, received.size());
+        assertEquals("ad 42", again.get("body"));
+        verify(restTemplate, times(2)).exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(Map.class));
+    }
+
+    @Test
+    @SuppressWarnings("rawtypes")
+    void scrapeCreators_reportsRateLimitedWhenQuotaIsExhausted() {
+        // One call per 100 seconds, far beyond the maximum wait
+        ScrapeCreatorsService service = service(1, 0.01);
+
+        assertEquals("ad 1", service.scrapeCreators("1", false).get("body"));
+        Map<String, Object> limited = service.scrapeCreators("2", false);
+
+        assertEquals("RATE_LIMITED", limited.get("error"));
+        assertNull(cacheManager.getCache(ScrapeCreatorsService.AD_CACHE).get("2"));
+        verify(restTemplate, times(1)).exchange(anyString(), eq(HttpMethod.GET), any(HttpEntity.class), eq(Map.class));
+    }
+
+    private ScrapeCreatorsService service(int burst, double perSecond) {
+        ScrapeCreatorsService service = new ScrapeCreatorsService(restTemplate, cacheManager, fetchExecutor, burst, perSecond);
+        ReflectionTestUtils.setField(service, "apiKey", "test-key");
+        ReflectionTestUtils.setField(service, "baseUrl", "http://scrape.test/v1");
+        return service;
+    }
+}
@@ -0,0 +1,118 @@
+package com.fbadsautomation.service;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import com.fbadsautomation.dto.TrendSnapshot;
+import com.fbadsautomation.dto.TrendingKeyword;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.redis.core.RedisTemplate;
+import org.springframework.data.redis.core.ValueOperations;
+import org.springframework.data.redis.core.ZSetOperations;
+
+class TrendingKeywordsServiceTest {
+
+    private final Map<String, Object> redis = new ConcurrentHashMap<>();
+    private final List<Runnable> backgroundTasks = new ArrayList<>();
+    private RapidKeywordInsightService rapidKeywordInsightService;
+    private TrendingKeywordsService service;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        RedisTemplate<String, Object> redisTemplate = mock(RedisTemplate.class);
+        ValueOperations<String, Object> values = mock(ValueOperations.class);
+        when(redisTemplate.opsForValue()).thenReturn(values);
+        when(redisTemplate.opsForZSet()).thenReturn(mock(ZSetOperations.class));
+        when(values.get(anyString())).thenAnswer(invocation -> redis.get(invocation.<String>getArgument(0)));
+        when(values.setIfAbsent(anyString(), any(), any(Duration.class))).thenReturn(false);
+        doAnswer(invocation -> redis.put(invocation.getArgument(0), invocation.getArgument(1)))
+            .when(values).set(anyString(), any(), any(Duration.class));
+
+        rapidKeywordInsightService = mock(RapidKeywordInsightService.class);
+        when(rapidKeywordInsightService.fetchTopKeywords(anyString(), anyString(), anyString(), anyInt()))
+            .thenAnswer(invocation -> keywords(invocation.getArgument(0), invocation.getArgument(3)));
+
+        service = new TrendingKeywordsService(redisTemplate, rapidKeywordInsightService, backgroundTasks::add,
+            Duration.ofMinutes(60), Duration.ofHours(24), Duration.ofMinutes(30), 20);
+    }
+
+    @Test
+    void fetchTrends_servesEveryLimitAndSpellingFromOneSupersetEntry() {
+        List<TrendingKeyword> ten = service.fetchTrends("  Running   Shoes ", "us", "EN", 10);
+        List<TrendingKeyword> three = service.fetchTrends("running shoes", "US", "en", 3);
+
+        assertEquals(10, ten.size());
+        assertEquals(ten.subList(0, 3), three);
+        verify(rapidKeywordInsightService, times(1))
+            .fetchTopKeywords("running shoes", "US", "en", TrendingKeywordsService.SUPERSET_LIMIT);
+    }
+
+    @Test
+    void fetchTrends_servesStaleEntryWhileOneBackgroundRefreshRuns() {
+        redis.put("trends:shoes_US_en", new TrendSnapshot(keywords("old", 50),
+            System.currentTimeMillis() - Duration.ofMinutes(90).toMillis()));
+
+        assertEquals("old 1", service.fetchTrends("shoes", "US", "en", 5).get(0).getKeyword());
+        assertEquals("old 1", service.fetchTrends("shoes", "US", "en", 5).get(0).getKeyword());
+        verify(rapidKeywordInsightService, never()).fetchTopKeywords(anyString(), anyString(), anyString(), anyInt());
+        assertEquals(1, backgroundTasks.size());
+
+        backgroundTasks.get(0).run();
+        assertEquals("shoes 1", service.fetchTrends("shoes", "US", "en", 5).get(0).getKeyword());
+        verify(rapidKeywordInsightService, times(1)).fetchTopKeywords(anyString(), anyString(), anyString(), anyInt());
+    }
+
+    @Test
+    void fetchTrends_coalescesConcurrentMisses() throws Exception {
+        CountDownLatch callersWaiting = new CountDownLatch(1);
+        when(rapidKeywordInsightService.fetchTopKeywords(eq("bags"), anyString(), anyString(), anyInt()))
+            .thenAnswer(invocation -> {
+                callersWaiting.await(5, TimeUnit.SECONDS);
+                return keywords("bags", 50);
+            });
+        ExecutorService callers = Executors.newFixedThreadPool(4);
+        try {
+            List<Future<List<TrendingKeyword>>> results = IntStream.range(0, 4)
+                .mapToObj(i -> callers.submit(() -> service.fetchTrends("bags", "VN", "vi", 10)))
+                .collect(Collectors.toList());
+            Thread.sleep(200);
+            callersWaiting.countDown();
+
+            for (Future<List<TrendingKeyword>> result : results) {
+                assertEquals(10, result.get(5, TimeUnit.SECONDS).size());
+            }
+            verify(rapidKeywordInsightService, times(1)).fetchTopKeywords(eq("bags"), anyString(), anyString(), anyInt());
+        } finally {
+            callers.shutdownNow();
+        }
+    }
+
+    private static List<TrendingKeyword> keywords(String prefix, int count) {
+        return IntStream.rangeClosed(1, count)
+            .mapToObj(i -> TrendingKeyword.builder().keyword(prefix + " " + i).growth(100 - i).build())
+            .collect(Collectors.toCollection(ArrayList::new));
+    }
+}
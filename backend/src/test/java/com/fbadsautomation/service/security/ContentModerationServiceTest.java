@@ -0,0 +1,146 @@
+package com.fbadsautomation.service.security;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import com.fbadsautomation.model.AdContent;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.regex.Pattern;
+import org.junit.jupiter.api.Test;
+
+/**
+ * Checks moderation and prompt sanitization against the former one-regex-per-pattern pipeline.
+ */
+class ContentModerationServiceTest {
+
+    private static final String[] VOCABULARY = {
+        "password", "PassWord", "api_key", "API-KEY", "apikey", "api", "key", "drop", "table", "DROP\t\tTABLE",
+        "<script>", "<SCRIPT", "execute", "script", "system", "prompt", "systemprompt", "override", "injection",
+        "ignore", "all", "previous", "instructions", "ignore all previous instructions", "jailbreak", "act", "as",
+        "act  as", "you are ChatGPT", "```cmd", "``` cmd", "/prompt", "/PROMPT", "ｐａｓｓｗｏｒｄ", "\u0001", "\n",
+        "   ", "Giày", "mới", "sale", "today!"
+    };
+
+    private final PromptSecurityService promptSecurityService = new PromptSecurityService();
+    private final ContentModerationService service = new ContentModerationService(promptSecurityService);
+
+    @Test
+    void enforceSafety_matchesLegacyPipelineOnRandomCopy() {
+        Random random = new Random(11);
+        for (int i = 0; i < 3000; i++) {
+            String headline = randomText(random, 6);
+            String primaryText = randomText(random, 30);
+            AdContent content = new AdContent();
+            content.setHeadline(headline);
+            content.setPrimaryText(primaryText);
+
+            List<String> expectedWarnings = new ArrayList<>();
+            String expectedHeadline = Legacy.cleanAndInspect(headline, expectedWarnings);
+            String expectedPrimaryText = Legacy.cleanAndInspect(primaryText, expectedWarnings);
+            service.enforceSafety(List.of(content));
+
+            String context = headline + " | " + primaryText;
+            assertEquals(expectedHeadline, content.getHeadline(), context);
+            assertEquals(expectedPrimaryText, content.getPrimaryText(), context);
+            assertEquals(expectedWarnings.isEmpty() ? null : String.join("; ", expectedWarnings),
+                content.getValidationWarnings(), context);
+        }
+    }
+
+    @Test
+    void enforceSafety_keepsScanOfUnchangedFieldsForValidation() {
+        AdContent content = new AdContent();
+        content.setHeadline("Giày chạy mới");
+        content.setPrimaryText("Never share your password with anyone");
+
+        service.enforceSafety(List.of(content));
+
+        assertNotNull(content.scannedDocument("Giày chạy mới"));
+        assertEquals("Never share your [filtered] with anyone", content.getPrimaryText());
+        // A cleaned field no longer matches its scan, so validation scans the cleaned text itself
+        assertNull(content.scannedDocument(content.getPrimaryText()));
+    }
+
+    @Test
+    void sanitizeUserInput_matchesLegacyRegexes() {
+        Random random = new Random(13);
+        for (int i = 0; i < 3000; i++) {
+            String input = randomText(random, 20);
+            assertEquals(Legacy.sanitizeUserInput(input), promptSecurityService.sanitizeUserInput(input), input);
+        }
+    }
+
+    private String randomText(Random random, int maxTokens) {
+        int tokens = random.nextInt(maxTokens + 1);
+        StringBuilder text = new StringBuilder();
+        for (int i = 0; i < tokens; i++) {
+            if (i > 0 && random.nextInt(4) > 0) {
+                text.append(' ');
+            }
+            text.append(VOCABULARY[random.nextInt(VOCABULARY.length)]);
+        }
+        return text.toString();
+    }
+
+    /**
+     * The regex pipeline the scanner replaced, kept for comparison.
+     */
+    private static final class Legacy {
+        private static final Pattern[] DISALLOWED_PATTERNS = {
+            Pattern.compile("(?i)password"),
+            Pattern.compile("(?i)api[_-]?key"),
+            Pattern.compile("(?i)drop\\s+table"),
+            Pattern.compile("(?i)execute\\s+script"),
+            Pattern.compile("(?i)<script"),
+            Pattern.compile("(?i)system\\s+override"),
+            Pattern.compile("(?i)prompt\\s+injection"),
+            Pattern.compile("(?i)ignore\\s+all\\s+previous")
+        };
+        private static final Pattern CONTROL_PATTERN = Pattern.compile("[\\p{Cntrl}&&[^\r\n\t]]");
+        private static final Pattern MULTISPACE_PATTERN = Pattern.compile("\\s{2,}");
+        private static final Pattern[] SUSPICIOUS_PATTERNS = {
+            Pattern.compile("(?i)ignore\\s+all\\s+previous\\s+instructions"),
+            Pattern.compile("(?i)you\\s+are\\s+chatgpt"),
+            Pattern.compile("(?i)system\\s*prompt"),
+            Pattern.compile("(?i)jailbreak"),
+            Pattern.compile("(?i)act\\s+as\\s+"),
+            Pattern.compile("(?i)<script>"),
+            Pattern.compile("(?i)```\\s*cmd"),
+            Pattern.compile("(?i)\\/prompt")
+        };
+
+        static String cleanAndInspect(String value, List<String> warnings) {
+            if (value == null || value.isBlank()) {
+                return value;
+            }
+            for (Pattern pattern : DISALLOWED_PATTERNS) {
+                if (pattern.matcher(value).find()) {
+                    warnings.add("Potential unsafe content: " + pattern.pattern());
+                    value = pattern.matcher(value).replaceAll("[filtered]");
+                }
+            }
+            String cleaned = sanitizeUserInput(value);
+            for (Pattern pattern : SUSPICIOUS_PATTERNS) {
+                cleaned = pattern.matcher(cleaned).replaceAll("");
+            }
+            return cleaned.trim();
+        }
+
+        static String sanitizeUserInput(String input) {
+            String normalized = Normalizer.normalize(input, Normalizer.Form.NFKC);
+            normalized = CONTROL_PATTERN.matcher(normalized).replaceAll(" ");
+            for (Pattern pattern : SUSPICIOUS_PATTERNS) {
+                normalized = pattern.matcher(normalized).replaceAll("[blocked]");
+            }
+            normalized = MULTISPACE_PATTERN.matcher(normalized).replaceAll(" ").trim();
+            if (normalized.length() > 4000) {
+                normalized = normalized.substring(0, 4000);
+            }
+            return normalized;
+        }
+    }
+}
@@ -0,0 +1,55 @@
+package com.fbadsautomation.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import org.junit.jupiter.api.Test;
+
+class ConcurrencyLimiterTest {
+
+    @Test
+    void submit_queuesTasksBeyondLimitUntilASlotFrees() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(2);
+        List<CompletableFuture<String>> started = new ArrayList<>();
+
+        List<CompletableFuture<String>> results = new ArrayList<>();
+        for (int i = 0; i < 3; i++) {
+            results.add(limiter.submit(() -> {
+                CompletableFuture<String> task = new CompletableFuture<>();
+                started.add(task);
+                return task;
+            }));
+        }
+        assertEquals(2, started.size());
+        assertEquals(1, limiter.queued());
+
+        started.get(0).complete("first");
+        assertEquals("first", results.get(0).join());
+        assertEquals(3, started.size());
+        assertEquals(2, limiter.running());
+
+        started.get(1).completeExceptionally(new IllegalStateException("failed"));
+        started.get(2).complete("third");
+        assertTrue(results.get(1).isCompletedExceptionally());
+        assertEquals("third", results.get(2).join());
+        assertEquals(0, limiter.running());
+    }
+
+    @Test
+    void submit_releasesSlotWhenTaskThrows() {
+        ConcurrencyLimiter limiter = new ConcurrencyLimiter(1);
+
+        CompletableFuture<String> failed = limiter.submit(() -> {
+            throw new IllegalStateException("rejected");
+        });
+        CompletableFuture<String> next = limiter.submit(() -> CompletableFuture.completedFuture("ok"));
+
+        assertTrue(failed.isCompletedExceptionally());
+        assertEquals("ok", next.join());
+        assertFalse(next.isCompletedExceptionally());
+    }
+}
@@ -0,0 +1,59 @@
+package com.fbadsautomation.util;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.time.Duration;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import org.junit.jupiter.api.Test;
+
+class TokenBucketTest {
+
+    private final AtomicLong now = new AtomicLong();
+
+    @Test
+    void tryAcquire_allowsBurstThenRefillsAtRate() {
+        TokenBucket bucket = new TokenBucket(3, 2, now::get);
+
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+
+        now.addAndGet(TimeUnit.MILLISECONDS.toNanos(500));
+        assertTrue(bucket.tryAcquire());
+        assertFalse(bucket.tryAcquire());
+
+        // Never refills above capacity
+        now.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        assertEquals(3.0, bucket.availableTokens(), 1e-9);
+    }
+
+    @Test
+    void acquire_givesUpWhenRefillIsSlowerThanMaxWait() throws Exception {
+        TokenBucket bucket = new TokenBucket(1, 0.5, now::get);
+
+        assertTrue(bucket.acquire(Duration.ZERO));
+        // The next token is two seconds away
+        assertFalse(bucket.acquire(Duration.ofSeconds(1)));
+    }
+
+    @Test
+    void acquire_waitsForRefill() throws Exception {
+        TokenBucket bucket = new TokenBucket(1, 20);
+        bucket.tryAcquire();
+
+        long start = System.nanoTime();
+        assertTrue(bucket.acquire(Duration.ofSeconds(1)));
+        assertTrue(System.nanoTime() - start >= TimeUnit.MILLISECONDS.toNanos(40));
+    }
+
+    @Test
+    void rejectsNonPositiveSettings() {
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(0, 1));
+        assertThrows(IllegalArgumentException.class, () -> new TokenBucket(1, 0));
+    }
+}
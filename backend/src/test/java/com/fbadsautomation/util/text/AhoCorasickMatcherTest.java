@@ -0,0 +1,41 @@
+package com.fbadsautomation.util.text;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+
+class AhoCorasickMatcherTest {
+
+    @Test
+    void scan_findsOverlappingPhrasesInOnePass() {
+        AhoCorasickMatcher<String> matcher = AhoCorasickMatcher.<String>builder()
+            .add("he", "he")
+            .add("she", "she")
+            .add("his", "his")
+            .add("hers", "hers")
+            .build();
+
+        List<String> found = new ArrayList<>();
+        matcher.scan("ushers", (value, start, end) -> found.add(value + "@" + start + "-" + end));
+
+        assertEquals(List.of("she@1-4", "he@2-4", "hers@2-6"), found);
+    }
+
+    @Test
+    void analyze_respectsUnicodeWordBoundaries() {
+        TextAnalyzer analyzer = TextAnalyzer.builder()
+            .words("power", List.of("mới", "new"))
+            .substrings("prohibited", List.of("free"))
+            .build();
+
+        TextAnalysis analysis = analyzer.analyze("Sản phẩm MỚI", "renewal", "Freedom");
+
+        assertEquals(1, analysis.matchCount("power"));
+        assertTrue(analysis.matches("power").contains("mới"));
+        assertTrue(analysis.matches("prohibited").contains("free"));
+        assertEquals(3, analysis.field(0).getWordCount());
+    }
+}
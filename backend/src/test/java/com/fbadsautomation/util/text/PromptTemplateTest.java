@@ -0,0 +1,58 @@
+package com.fbadsautomation.util.text;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import org.junit.jupiter.api.Test;
+
+class PromptTemplateTest {
+
+    @Test
+    void render_fillsSlotsWithoutExpandingValues() {
+        PromptTemplate template = PromptTemplate.compile("context", "Product: {{product}} · {{count}} variations\n");
+
+        String rendered = template.render(Map.of("product", "Shoes {{count}}", "count", 3));
+
+        assertEquals("Product: Shoes {{count}} · 3 variations\n", rendered);
+        assertEquals(List.of("product", "count"), template.getSlots());
+    }
+
+    @Test
+    void render_rejectsMissingSlot() {
+        PromptTemplate template = PromptTemplate.compile("context", "{{product}} for {{audience}}");
+
+        assertThrows(IllegalArgumentException.class, () -> template.render(Map.of("product", "Shoes")));
+        Map<String, Object> values = new LinkedHashMap<>();
+        values.put("product", "Shoes");
+        values.put("audience", null);
+        assertEquals("Shoes for ", template.render(values));
+    }
+
+    @Test
+    void assembledPrompt_keepsStablePrefixAhead() {
+        AssembledPrompt prompt = AssembledPrompt.builder()
+            .addToPrefix(AssembledPrompt.Section.of("rules", "Follow the rules.\n"))
+            .addToPrefix(AssembledPrompt.Section.of("style", ""))
+            .add("request", "Sell shoes.\n")
+            .build();
+
+        assertEquals("Follow the rules.\nSell shoes.\n", prompt.getText());
+        assertEquals("Follow the rules.\n", prompt.getStablePrefix());
+        assertEquals(List.of("rules", "request"), List.copyOf(prompt.getSectionTokens().keySet()));
+        assertEquals(prompt.getTotalTokens(), prompt.getStablePrefixTokens() + TokenEstimator.estimate("Sell shoes.\n"));
+        assertThrows(IllegalStateException.class, () -> AssembledPrompt.builder()
+            .add("request", "Sell shoes.")
+            .addToPrefix(AssembledPrompt.Section.of("rules", "Follow the rules.")));
+    }
+
+    @Test
+    void tokenEstimator_countsNonAsciiCharactersSeparately() {
+        assertEquals(0, TokenEstimator.estimate(""));
+        assertEquals(4, TokenEstimator.estimate("Buy shoes today"));
+        assertEquals(2, TokenEstimator.estimate("mới"));
+        assertEquals(1, TokenEstimator.estimate("🎨"));
+    }
+}